@@ -0,0 +1,140 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package org.questdb;
+
+import io.questdb.cairo.ColumnType;
+import io.questdb.cairo.SingleColumnType;
+import io.questdb.cairo.map.FastMap;
+import io.questdb.cairo.map.FixedKeyMap;
+import io.questdb.cairo.map.MapKey;
+import io.questdb.cairo.map.MapValue;
+import io.questdb.std.Rnd;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares {@link FastMap} with {@link FixedKeyMap} for single LONG key, which is
+ * the shape of GROUP BY on a symbol, timestamp or long column. "write" benchmarks
+ * aggregate into maps with a bounded key domain, same as {@link QMapWriteBenchmark},
+ * "read" benchmarks look up random keys in pre-populated maps, same as
+ * {@link QMapReadRandomKeyBenchmark}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class QMapFixedKeyBenchmark {
+
+    private static final int N = 5000000;
+    private static final int K = 1000000;
+    private static final double loadFactor = 0.5;
+    private static final SingleColumnType LONG_TYPE = new SingleColumnType(ColumnType.LONG);
+    private static final FastMap readFastMap = new FastMap(1024 * 1024, LONG_TYPE, LONG_TYPE, N, loadFactor, Integer.MAX_VALUE);
+    private static final FixedKeyMap readFixedKeyMap = new FixedKeyMap(64 * 1024 * 1024, LONG_TYPE, LONG_TYPE, N, loadFactor, Integer.MAX_VALUE);
+    private final FastMap writeFastMap = new FastMap(1024 * 1024, LONG_TYPE, LONG_TYPE, 64, loadFactor, Integer.MAX_VALUE);
+    private final FixedKeyMap writeFixedKeyMap = new FixedKeyMap(1024 * 1024, LONG_TYPE, LONG_TYPE, 64, loadFactor, Integer.MAX_VALUE);
+    private final Rnd rnd = new Rnd();
+
+    public static void main(String[] args) throws RunnerException {
+        Options opt = new OptionsBuilder()
+                .include(QMapFixedKeyBenchmark.class.getSimpleName())
+                .warmupIterations(3)
+                .measurementIterations(3)
+                .forks(1)
+                .build();
+
+        new Runner(opt).run();
+    }
+
+    @Benchmark
+    public long baseline() {
+        return rnd.nextLong();
+    }
+
+    @Setup(Level.Iteration)
+    public void reset() {
+        System.out.print(" [fast=" + writeFastMap.size() + ", fixed=" + writeFixedKeyMap.size() + ", cap=" + writeFixedKeyMap.getKeyCapacity() + "] ");
+        writeFastMap.clear();
+        writeFixedKeyMap.clear();
+        rnd.reset();
+    }
+
+    @Benchmark
+    public MapValue testReadFastMap() {
+        MapKey key = readFastMap.withKey();
+        key.putLong(rnd.nextPositiveLong() % N);
+        return key.findValue();
+    }
+
+    @Benchmark
+    public MapValue testReadFixedKeyMap() {
+        MapKey key = readFixedKeyMap.withKey();
+        key.putLong(rnd.nextPositiveLong() % N);
+        return key.findValue();
+    }
+
+    @Benchmark
+    public void testWriteFastMap() {
+        MapKey key = writeFastMap.withKey();
+        key.putLong(rnd.nextPositiveLong() % K);
+        MapValue value = key.createValue();
+        if (value.isNew()) {
+            value.putLong(0, 1);
+        } else {
+            value.addLong(0, 1);
+        }
+    }
+
+    @Benchmark
+    public void testWriteFixedKeyMap() {
+        MapKey key = writeFixedKeyMap.withKey();
+        key.putLong(rnd.nextPositiveLong() % K);
+        MapValue value = key.createValue();
+        if (value.isNew()) {
+            value.putLong(0, 1);
+        } else {
+            value.addLong(0, 1);
+        }
+    }
+
+    static {
+        for (int i = 0; i < N; i++) {
+            MapKey key = readFastMap.withKey();
+            key.putLong(i);
+            key.createValue().putLong(0, i);
+        }
+
+        for (int i = 0; i < N; i++) {
+            MapKey key = readFixedKeyMap.withKey();
+            key.putLong(i);
+            key.createValue().putLong(0, i);
+        }
+    }
+}
@@ -0,0 +1,170 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package org.questdb;
+
+import io.questdb.Metrics;
+import io.questdb.cairo.*;
+import io.questdb.cairo.security.AllowAllCairoSecurityContext;
+import io.questdb.cairo.sql.Record;
+import io.questdb.cairo.sql.RecordCursor;
+import io.questdb.griffin.SqlCompiler;
+import io.questdb.griffin.SqlException;
+import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.griffin.SqlExecutionContextImpl;
+import io.questdb.log.LogFactory;
+import io.questdb.std.NumericException;
+import io.questdb.std.datetime.microtime.TimestampFormatUtils;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures reader reload after append-only commits into the last partition of a
+ * wide table with symbol columns. Appends reuse existing symbol values, so reload
+ * should only remap the appended ranges of column files.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class TableReaderAppendReloadBenchmark {
+
+    private static final CairoConfiguration configuration = new DefaultCairoConfiguration(System.getProperty("java.io.tmpdir"));
+    private static final String[] symbols = {"AAPL", "MSFT", "GOOG", "AMZN", "TSLA", "NVDA", "META", "NFLX"};
+    private static final long ts;
+    private static TableWriter writer;
+    private static TableReader reader;
+    private static long sum = 0;
+    private static int rowIndex = 0;
+
+    public static void main(String[] args) throws RunnerException {
+        try (CairoEngine engine = new CairoEngine(configuration)) {
+            SqlExecutionContext sqlExecutionContext = new SqlExecutionContextImpl(engine, 1)
+                    .with(
+                            AllowAllCairoSecurityContext.INSTANCE,
+                            null,
+                            null,
+                            -1,
+                            null
+                    );
+            try (SqlCompiler compiler = new SqlCompiler(engine)) {
+                compiler.compile(
+                        "create table if not exists test_append(" +
+                                "s1 symbol, s2 symbol, s3 symbol, s4 symbol, " +
+                                "d1 double, d2 double, d3 double, d4 double, " +
+                                "l1 long, l2 long, l3 long, l4 long, " +
+                                "str string, " +
+                                "f timestamp) timestamp (f) PARTITION BY DAY",
+                        sqlExecutionContext
+                );
+            } catch (SqlException e) {
+                throw new ExceptionInInitializerError();
+            }
+        }
+        Options opt = new OptionsBuilder()
+                .include(TableReaderAppendReloadBenchmark.class.getSimpleName())
+                .warmupIterations(2)
+                .measurementIterations(2)
+                .forks(1)
+                .build();
+
+        new Runner(opt).run();
+
+        LogFactory.haltInstance();
+    }
+
+    @Setup(Level.Iteration)
+    public void setup() throws NumericException {
+        writer = new TableWriter(configuration, "test_append", Metrics.disabled());
+        writer.truncate();
+        // create 10 partitions, seed all symbol values
+        long timestamp = TimestampFormatUtils.parseTimestamp("2012-03-01T00:00:00.000000Z");
+        for (int i = 0; i < 10; i++) {
+            for (int j = 0; j < symbols.length; j++) {
+                appendRow(timestamp);
+            }
+            timestamp += 24L * 60 * 60 * 1_000_000;
+        }
+        writer.commit();
+        reader = new TableReader(configuration, "test_append");
+
+        // ensure reader opens all partitions and maps all data
+        RecordCursor cursor = reader.getCursor();
+        Record record = cursor.getRecord();
+        while (cursor.hasNext()) {
+            sum += record.getTimestamp(13);
+        }
+    }
+
+    @TearDown(Level.Iteration)
+    public void tearDown() {
+        System.out.println("writer size = " + writer.size() + ", sum = " + sum);
+        writer.close();
+        reader.close();
+    }
+
+    @Benchmark
+    public void testBaseline() {
+        appendRow(ts);
+        writer.commit();
+    }
+
+    @Benchmark
+    public void testReload() {
+        appendRow(ts);
+        writer.commit();
+        reader.reload();
+    }
+
+    private static void appendRow(long timestamp) {
+        final String sym = symbols[rowIndex++ & (symbols.length - 1)];
+        TableWriter.Row r = writer.newRow(timestamp);
+        r.putSym(0, sym);
+        r.putSym(1, sym);
+        r.putSym(2, sym);
+        r.putSym(3, sym);
+        r.putDouble(4, rowIndex);
+        r.putDouble(5, rowIndex);
+        r.putDouble(6, rowIndex);
+        r.putDouble(7, rowIndex);
+        r.putLong(8, rowIndex);
+        r.putLong(9, rowIndex);
+        r.putLong(10, rowIndex);
+        r.putLong(11, rowIndex);
+        r.putStr(12, sym);
+        r.append();
+    }
+
+    static {
+        try {
+            ts = TimestampFormatUtils.parseTimestamp("2012-03-10T00:00:00.000000Z");
+        } catch (NumericException e) {
+            throw new ExceptionInInitializerError();
+        }
+    }
+}
@@ -35,6 +35,8 @@ import io.questdb.cutlass.line.udp.DefaultLineUdpReceiverConfiguration;
 import io.questdb.cutlass.line.udp.LineUdpReceiverConfiguration;
 import io.questdb.cutlass.pgwire.DefaultPGWireConfiguration;
 import io.questdb.cutlass.pgwire.PGWireConfiguration;
+import io.questdb.cutlass.replication.DefaultReplicationConfiguration;
+import io.questdb.cutlass.replication.ReplicationConfiguration;
 import io.questdb.metrics.DefaultMetricsConfiguration;
 import io.questdb.metrics.MetricsConfiguration;
 import io.questdb.mp.WorkerPoolConfiguration;
@@ -46,6 +48,7 @@ public class DefaultServerConfiguration implements ServerConfiguration {
     private final DefaultLineTcpReceiverConfiguration lineTcpReceiverConfiguration = new DefaultLineTcpReceiverConfiguration();
     private final DefaultPGWireConfiguration pgWireConfiguration = new DefaultPGWireConfiguration();
     private final DefaultMetricsConfiguration metricsConfiguration = new DefaultMetricsConfiguration();
+    private final DefaultReplicationConfiguration replicationConfiguration = new DefaultReplicationConfiguration();
 
     public DefaultServerConfiguration(CharSequence root) {
         this.cairoConfiguration = new DefaultCairoConfiguration(root);
@@ -81,6 +84,11 @@ public class DefaultServerConfiguration implements ServerConfiguration {
         return httpServerConfiguration;
     }
 
+    @Override
+    public WorkerPoolConfiguration getQueryWorkerPoolConfiguration() {
+        return () -> 0;
+    }
+
     @Override
     public PGWireConfiguration getPGWireConfiguration() {
         return pgWireConfiguration;
@@ -90,4 +98,9 @@ public class DefaultServerConfiguration implements ServerConfiguration {
     public MetricsConfiguration getMetricsConfiguration() {
         return metricsConfiguration;
     }
+
+    @Override
+    public ReplicationConfiguration getReplicationConfiguration() {
+        return replicationConfiguration;
+    }
 }
@@ -49,6 +49,12 @@ public interface MessageBus extends Closeable {
 
     Sequence getIndexerSubSequence();
 
+    Sequence getLatestByAllPubSeq();
+
+    RingQueue<LatestByAllTask> getLatestByAllQueue();
+
+    Sequence getLatestByAllSubSeq();
+
     Sequence getLatestByPubSeq();
 
     RingQueue<LatestByTask> getLatestByQueue();
@@ -107,6 +113,11 @@ public interface MessageBus extends Closeable {
 
     Sequence getVectorAggregateSubSeq();
 
+    /**
+     * @return true when O3 merge or column indexing tasks are published but not yet picked up by workers
+     */
+    boolean hasIngestionBacklog();
+
     MPSequence getQueryCacheEventPubSeq();
 
     FanOut getQueryCacheEventFanOut();
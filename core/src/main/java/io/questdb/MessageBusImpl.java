@@ -69,6 +69,10 @@ public class MessageBusImpl implements MessageBus {
     private final MPSequence latestByPubSeq;
     private final MCSequence latestBySubSeq;
 
+    private final RingQueue<LatestByAllTask> latestByAllQueue;
+    private final MPSequence latestByAllPubSeq;
+    private final MCSequence latestByAllSubSeq;
+
     private final RingQueue<TableWriterTask> tableWriterEventQueue;
     private final MPSequence tableWriterEventPubSeq;
     private final FanOut tableWriterEventSubSeq;
@@ -135,6 +139,11 @@ public class MessageBusImpl implements MessageBus {
         this.latestBySubSeq = new MCSequence(latestByQueue.getCycle());
         latestByPubSeq.then(latestBySubSeq).then(latestByPubSeq);
 
+        this.latestByAllQueue = new RingQueue<>(LatestByAllTask::new, configuration.getLatestByQueueCapacity());
+        this.latestByAllPubSeq = new MPSequence(latestByAllQueue.getCycle());
+        this.latestByAllSubSeq = new MCSequence(latestByAllQueue.getCycle());
+        latestByAllPubSeq.then(latestByAllSubSeq).then(latestByAllPubSeq);
+
         this.tableWriterEventQueue = new RingQueue<>(
                 TableWriterTask::new,
                 configuration.getWriterCommandQueueSlotSize(),
@@ -235,6 +244,21 @@ public class MessageBusImpl implements MessageBus {
         return indexerSubSeq;
     }
 
+    @Override
+    public Sequence getLatestByAllPubSeq() {
+        return latestByAllPubSeq;
+    }
+
+    @Override
+    public RingQueue<LatestByAllTask> getLatestByAllQueue() {
+        return latestByAllQueue;
+    }
+
+    @Override
+    public Sequence getLatestByAllSubSeq() {
+        return latestByAllSubSeq;
+    }
+
     @Override
     public Sequence getLatestByPubSeq() {
         return latestByPubSeq;
@@ -380,6 +404,15 @@ public class MessageBusImpl implements MessageBus {
         return vectorAggregateSubSeq;
     }
 
+    @Override
+    public boolean hasIngestionBacklog() {
+        // publisher cursor runs ahead of subscriber cursor while tasks are waiting in the queue
+        return o3PartitionPubSeq.current() > o3PartitionSubSeq.current()
+                || o3OpenColumnPubSeq.current() > o3OpenColumnSubSeq.current()
+                || o3CopyPubSeq.current() > o3CopySubSeq.current()
+                || indexerPubSeq.current() > indexerSubSeq.current();
+    }
+
     @Override
     public MPSequence getQueryCacheEventPubSeq() {
         return queryCacheEventPubSeq;
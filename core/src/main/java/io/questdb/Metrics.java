@@ -25,11 +25,13 @@
 package io.questdb;
 
 import io.questdb.cairo.TableWriterMetrics;
+import io.questdb.cairo.pool.ReaderPoolMetrics;
 import io.questdb.metrics.HealthMetricsImpl;
 import io.questdb.cutlass.http.processors.JsonQueryMetrics;
 import io.questdb.cutlass.pgwire.PGWireMetrics;
 import io.questdb.metrics.*;
 import io.questdb.std.MemoryTag;
+import io.questdb.std.QueryMemoryAccount;
 import io.questdb.std.Unsafe;
 import io.questdb.std.str.CharSink;
 
@@ -40,6 +42,7 @@ public class Metrics implements Scrapable {
     private final PGWireMetrics pgWire;
     private final HealthMetricsImpl healthCheck;
     private final TableWriterMetrics tableWriter;
+    private final ReaderPoolMetrics readerPool;
     private final MetricsRegistry metricsRegistry;
     private final Runtime runtime = Runtime.getRuntime();
     private final VirtualGauge.StatProvider jvmFreeMemRef = runtime::freeMemory;
@@ -53,6 +56,7 @@ public class Metrics implements Scrapable {
         this.pgWire = new PGWireMetrics(metricsRegistry);
         this.healthCheck = new HealthMetricsImpl(metricsRegistry);
         this.tableWriter = new TableWriterMetrics(metricsRegistry);
+        this.readerPool = new ReaderPoolMetrics(metricsRegistry);
         createMemoryGauges(metricsRegistry);
         this.metricsRegistry = metricsRegistry;
     }
@@ -69,6 +73,9 @@ public class Metrics implements Scrapable {
         metricsRegistry.newVirtualGauge("memory_jvm_free", jvmFreeMemRef);
         metricsRegistry.newVirtualGauge("memory_jvm_total", jvmTotalMemRef);
         metricsRegistry.newVirtualGauge("memory_jvm_max", jvmMaxMemRef);
+        metricsRegistry.newVirtualGauge("memory_query_pool_used", QueryMemoryAccount::getPoolUsed);
+        metricsRegistry.newVirtualGauge("memory_query_pool_size", QueryMemoryAccount::getPoolSize);
+        metricsRegistry.newVirtualGauge("memory_query_queued_count", QueryMemoryAccount::getQueuedCount);
     }
 
     public static Metrics enabled() {
@@ -99,6 +106,10 @@ public class Metrics implements Scrapable {
         return tableWriter;
     }
 
+    public ReaderPoolMetrics readerPool() {
+        return readerPool;
+    }
+
     @Override
     public void scrapeIntoPrometheus(CharSink sink) {
         metricsRegistry.scrapeIntoPrometheus(sink);
@@ -36,6 +36,7 @@ import io.questdb.cutlass.line.*;
 import io.questdb.cutlass.line.tcp.LineTcpReceiverConfiguration;
 import io.questdb.cutlass.line.udp.LineUdpReceiverConfiguration;
 import io.questdb.cutlass.pgwire.PGWireConfiguration;
+import io.questdb.cutlass.replication.ReplicationConfiguration;
 import io.questdb.cutlass.text.CsvFileIndexer;
 import io.questdb.cutlass.text.TextConfiguration;
 import io.questdb.cutlass.text.types.InputFormatConfiguration;
@@ -63,6 +64,7 @@ public class PropServerConfiguration implements ServerConfiguration {
     public static final String CONFIG_DIRECTORY = "conf";
     public static final String DB_DIRECTORY = "db";
     public static final String SNAPSHOT_DIRECTORY = "snapshot";
+    public static final String TMP_DIRECTORY = "tmp";
     public static final long COMMIT_INTERVAL_DEFAULT = 2000;
     private static final LowerCaseCharSequenceIntHashMap WRITE_FO_OPTS = new LowerCaseCharSequenceIntHashMap();
     private static final Map<String, String> OBSOLETE_SETTINGS = new HashMap<>();
@@ -76,6 +78,7 @@ public class PropServerConfiguration implements ServerConfiguration {
     private final LineUdpReceiverConfiguration lineUdpReceiverConfiguration = new PropLineUdpReceiverConfiguration();
     private final JsonQueryProcessorConfiguration jsonQueryProcessorConfiguration = new PropJsonQueryProcessorConfiguration();
     private final TelemetryConfiguration telemetryConfiguration = new PropTelemetryConfiguration();
+    private final int bloomFilterBlockRowCount;
     private final int commitMode;
     private final boolean httpServerEnabled;
     private final int createAsSelectRetryCount;
@@ -84,6 +87,7 @@ public class PropServerConfiguration implements ServerConfiguration {
     private final int defaultSymbolCapacity;
     private final int fileOperationRetryCount;
     private final long idleCheckInterval;
+    private final long hotCacheRowCount;
     private final long inactiveReaderTTL;
     private final long inactiveWriterTTL;
     private final int indexValueBlockSize;
@@ -111,6 +115,12 @@ public class PropServerConfiguration implements ServerConfiguration {
     private final int sqlMapPageSize;
     private final int sqlMapMaxPages;
     private final int sqlMapMaxResizes;
+    private final long sqlMapSpillThreshold;
+    private final int sqlMapSpillPartitionCount;
+    private final String sqlMapSpillRoot;
+    private final long sqlQueryMemoryLimit;
+    private final long sqlQueryMemoryPoolSize;
+    private final int sqlQueryPriority;
     private final int sqlModelPoolCapacity;
     private final int sqlMaxNegativeLimit;
     private final long sqlSortKeyPageSize;
@@ -126,6 +136,8 @@ public class PropServerConfiguration implements ServerConfiguration {
     private final int sqlSortValueMaxPages;
     private final long workStealTimeoutNanos;
     private final boolean parallelIndexingEnabled;
+    private final long partitionRetentionCheckInterval;
+    private final boolean partitionRetentionDetachEnabled;
     private final int sqlJoinMetadataPageSize;
     private final int sqlJoinMetadataMaxResizes;
     private final int lineUdpCommitRate;
@@ -133,6 +145,8 @@ public class PropServerConfiguration implements ServerConfiguration {
     private final int lineUdpMsgBufferSize;
     private final int lineUdpMsgCount;
     private final int lineUdpReceiveBufferSize;
+    private final int lineUdpReceiverCount;
+    private final int lineUdpQueueCapacity;
     private final int lineUdpCommitMode;
     private final int[] sharedWorkerAffinity;
     private final int sharedWorkerCount;
@@ -141,6 +155,13 @@ public class PropServerConfiguration implements ServerConfiguration {
     private final long sharedWorkerSleepThreshold;
     private final long sharedWorkerSleepTimeout;
     private final WorkerPoolConfiguration sharedWorkerPoolConfiguration = new PropWorkerPoolConfiguration();
+    private final int[] queryWorkerAffinity;
+    private final int queryWorkerCount;
+    private final boolean queryWorkerHaltOnError;
+    private final long queryWorkerYieldThreshold;
+    private final long queryWorkerSleepThreshold;
+    private final long queryWorkerSleepTimeout;
+    private final WorkerPoolConfiguration queryWorkerPoolConfiguration = new PropQueryWorkerPoolConfiguration();
     private final PGWireConfiguration pgWireConfiguration = new PropPGWireConfiguration();
     private final InputFormatConfiguration inputFormatConfiguration;
     private final LineProtoTimestampAdapter lineUdpTimestampAdapter;
@@ -209,6 +230,12 @@ public class PropServerConfiguration implements ServerConfiguration {
     private final String snapshotRoot;
     private final String snapshotInstanceId;
     private final boolean snapshotRecoveryEnabled;
+    private final int sqlParallelLatestByMinChunkSize;
+    private final boolean sqlParallelLatestByEnabled;
+    private final ObjList<String> readerPoolPrewarmTables;
+    private final int readerPoolPrewarmCount;
+    private final boolean readerPoolAdaptiveEvictionEnabled;
+    private final boolean snapshotIncrementalEnabled;
     private final long maxRerunWaitCapMs;
     private final double rerunExponentialWaitMultiplier;
     private final int rerunInitialWaitQueueSize;
@@ -224,12 +251,14 @@ public class PropServerConfiguration implements ServerConfiguration {
     private final int o3PurgeDiscoveryQueueCapacity;
     private final int o3ColumnMemorySize;
     private final int maxUncommittedRows;
+    private final long matViewRefreshInterval;
     private final long commitLag;
     private final long instanceHashLo;
     private final long instanceHashHi;
     private final int sqlTxnScoreboardEntryCount;
     private final boolean o3QuickSortEnabled;
     private final MetricsConfiguration metricsConfiguration = new PropMetricsConfiguration();
+    private final ReplicationConfiguration replicationConfiguration = new PropReplicationConfiguration();
     private final boolean metricsEnabled;
     private final int sqlDistinctTimestampKeyCapacity;
     private final double sqlDistinctTimestampLoadFactor;
@@ -297,6 +326,7 @@ public class PropServerConfiguration implements ServerConfiguration {
     private String publicDirectory;
     private int httpNetConnectionLimit;
     private boolean httpNetConnectionHint;
+    private boolean httpNetDispatcherSharded;
     private long httpNetConnectionTimeout;
     private long httpNetConnectionQueueTimeout;
     private int httpNetConnectionSndBuf;
@@ -313,11 +343,25 @@ public class PropServerConfiguration implements ServerConfiguration {
     private int textLexerStringPoolCapacity;
     private int timestampAdapterPoolCapacity;
     private int utf8SinkSize;
+    private long parallelImportThreshold;
     private MimeTypesCache mimeTypesCache;
     private String keepAliveHeader;
     private int httpNetBindIPv4Address;
     private int httpNetBindPort;
     private int lineUdpBindIPV4Address;
+    private boolean replicationPrimaryEnabled;
+    private int replicationBindIPv4Address;
+    private int replicationBindPort;
+    private int replicationListenBacklog;
+    private int replicationBufferSize;
+    private int replicationMaxRequestSize;
+    private long replicationTimeout;
+    private boolean replicationReplicaEnabled;
+    private String replicationPrimaryHost;
+    private int replicationPrimaryPort;
+    private long replicationReplicaSyncInterval;
+    private ObjList<String> replicationReplicaTables;
+    private String replicationAuthToken;
     private int lineUdpPort;
     private int jsonQueryFloatScale;
     private int jsonQueryDoubleScale;
@@ -329,6 +373,7 @@ public class PropServerConfiguration implements ServerConfiguration {
     private long cairoSqlCopyMaxIndexChunkSize;
     private int pgNetConnectionLimit;
     private boolean pgNetConnectionHint;
+    private boolean pgNetDispatcherSharded;
     private int pgNetBindIPv4Address;
     private int pgNetBindPort;
     private long pgNetIdleConnectionTimeout;
@@ -367,6 +412,7 @@ public class PropServerConfiguration implements ServerConfiguration {
     private int pgPendingWritersCacheCapacity;
     private int lineTcpNetConnectionLimit;
     private boolean lineTcpNetConnectionHint;
+    private boolean lineTcpNetDispatcherSharded;
     private int lineTcpNetBindIPv4Address;
     private int lineTcpNetBindPort;
     private long lineTcpNetConnectionTimeout;
@@ -444,6 +490,12 @@ public class PropServerConfiguration implements ServerConfiguration {
 
         this.snapshotInstanceId = getString(properties, env, PropertyKey.CAIRO_SNAPSHOT_INSTANCE_ID, "");
         this.snapshotRecoveryEnabled = getBoolean(properties, env, PropertyKey.CAIRO_SNAPSHOT_RECOVERY_ENABLED, true);
+        this.sqlParallelLatestByMinChunkSize = getInt(properties, env, PropertyKey.CAIRO_SQL_PARALLEL_LATEST_BY_MIN_CHUNK_SIZE, 64 * 1024);
+        this.sqlParallelLatestByEnabled = getBoolean(properties, env, PropertyKey.CAIRO_SQL_PARALLEL_LATEST_BY_ENABLED, true);
+        this.readerPoolPrewarmTables = getStringList(properties, env, PropertyKey.CAIRO_READER_POOL_PREWARM_TABLES);
+        this.readerPoolPrewarmCount = getInt(properties, env, PropertyKey.CAIRO_READER_POOL_PREWARM_COUNT, 1);
+        this.readerPoolAdaptiveEvictionEnabled = getBoolean(properties, env, PropertyKey.CAIRO_READER_POOL_ADAPTIVE_EVICTION_ENABLED, false);
+        this.snapshotIncrementalEnabled = getBoolean(properties, env, PropertyKey.CAIRO_SNAPSHOT_INCREMENTAL_ENABLED, false);
         this.simulateCrashEnabled = getBoolean(properties, env, PropertyKey.CAIRO_SIMULATE_CRASH_ENABLED, false);
 
         int cpuAvailable = Runtime.getRuntime().availableProcessors();
@@ -562,6 +614,7 @@ public class PropServerConfiguration implements ServerConfiguration {
                 this.httpNetConnectionLimit = getInt(properties, env, PropertyKey.HTTP_NET_ACTIVE_CONNECTION_LIMIT, 64);
                 this.httpNetConnectionLimit = getInt(properties, env, PropertyKey.HTTP_NET_CONNECTION_LIMIT, this.httpNetConnectionLimit);
                 this.httpNetConnectionHint = getBoolean(properties, env, PropertyKey.HTTP_NET_CONNECTION_HINT, false);
+                this.httpNetDispatcherSharded = getBoolean(properties, env, PropertyKey.HTTP_NET_DISPATCHER_SHARDED, false);
                 // deprecated
                 this.httpNetConnectionTimeout = getLong(properties, env, PropertyKey.HTTP_NET_IDLE_CONNECTION_TIMEOUT, 5 * 60 * 1000L);
                 this.httpNetConnectionTimeout = getLong(properties, env, PropertyKey.HTTP_NET_CONNECTION_TIMEOUT, this.httpNetConnectionTimeout);
@@ -591,6 +644,7 @@ public class PropServerConfiguration implements ServerConfiguration {
                 this.textLexerStringPoolCapacity = getInt(properties, env, PropertyKey.HTTP_TEXT_LEXER_STRING_POOL_CAPACITY, 64);
                 this.timestampAdapterPoolCapacity = getInt(properties, env, PropertyKey.HTTP_TEXT_TIMESTAMP_ADAPTER_POOL_CAPACITY, 64);
                 this.utf8SinkSize = getIntSize(properties, env, PropertyKey.HTTP_TEXT_UTF8_SINK_SIZE, 4096);
+                this.parallelImportThreshold = getLongSize(properties, env, PropertyKey.HTTP_TEXT_PARALLEL_IMPORT_THRESHOLD, 128 * Numbers.SIZE_1MB);
 
                 this.jsonQueryConnectionCheckFrequency = getInt(properties, env, PropertyKey.HTTP_JSON_QUERY_CONNECTION_CHECK_FREQUENCY, 1_000_000);
                 this.jsonQueryFloatScale = getInt(properties, env, PropertyKey.HTTP_JSON_QUERY_FLOAT_SCALE, 4);
@@ -625,6 +679,7 @@ public class PropServerConfiguration implements ServerConfiguration {
                 pgNetConnectionLimit = getInt(properties, env, PropertyKey.PG_NET_ACTIVE_CONNECTION_LIMIT, 64);
                 pgNetConnectionLimit = getInt(properties, env, PropertyKey.PG_NET_CONNECTION_LIMIT, pgNetConnectionLimit);
                 pgNetConnectionHint = getBoolean(properties, env, PropertyKey.PG_NET_CONNECTION_HINT, false);
+                pgNetDispatcherSharded = getBoolean(properties, env, PropertyKey.PG_NET_DISPATCHER_SHARDED, false);
                 parseBindTo(properties, env, PropertyKey.PG_NET_BIND_TO, "0.0.0.0:8812", (a, p) -> {
                     pgNetBindIPv4Address = a;
                     pgNetBindPort = p;
@@ -680,6 +735,7 @@ public class PropServerConfiguration implements ServerConfiguration {
                 this.pgPendingWritersCacheCapacity = getInt(properties, env, PropertyKey.PG_PENDING_WRITERS_CACHE_CAPACITY, 16);
             }
 
+            this.bloomFilterBlockRowCount = getInt(properties, env, PropertyKey.CAIRO_BLOOM_FILTER_BLOCK_ROW_COUNT, 1_000_000);
             this.commitMode = getCommitMode(properties, env, PropertyKey.CAIRO_COMMIT_MODE);
             this.createAsSelectRetryCount = getInt(properties, env, PropertyKey.CAIRO_CREAT_AS_SELECT_RETRY_COUNT, 5);
             this.defaultMapType = getString(properties, env, PropertyKey.CAIRO_DEFAULT_MAP_TYPE, "fast");
@@ -687,6 +743,7 @@ public class PropServerConfiguration implements ServerConfiguration {
             this.defaultSymbolCapacity = getInt(properties, env, PropertyKey.CAIRO_DEFAULT_SYMBOL_CAPACITY, 256);
             this.fileOperationRetryCount = getInt(properties, env, PropertyKey.CAIRO_FILE_OPERATION_RETRY_COUNT, 30);
             this.idleCheckInterval = getLong(properties, env, PropertyKey.CAIRO_IDLE_CHECK_INTERVAL, 5 * 60 * 1000L);
+            this.hotCacheRowCount = getLong(properties, env, PropertyKey.CAIRO_HOT_CACHE_ROW_COUNT, 0);
             this.inactiveReaderTTL = getLong(properties, env, PropertyKey.CAIRO_INACTIVE_READER_TTL, 120_000);
             this.inactiveWriterTTL = getLong(properties, env, PropertyKey.CAIRO_INACTIVE_WRITER_TTL, 600_000);
             this.indexValueBlockSize = Numbers.ceilPow2(getIntSize(properties, env, PropertyKey.CAIRO_INDEX_VALUE_BLOCK_SIZE, 256));
@@ -710,6 +767,16 @@ public class PropServerConfiguration implements ServerConfiguration {
             this.sqlMapPageSize = getIntSize(properties, env, PropertyKey.CAIRO_SQL_MAP_PAGE_SIZE, 4 * Numbers.SIZE_1MB);
             this.sqlMapMaxPages = getIntSize(properties, env, PropertyKey.CAIRO_SQL_MAP_MAX_PAGES, Integer.MAX_VALUE);
             this.sqlMapMaxResizes = getIntSize(properties, env, PropertyKey.CAIRO_SQL_MAP_MAX_RESIZES, Integer.MAX_VALUE);
+            this.sqlMapSpillThreshold = getLongSize(properties, env, PropertyKey.CAIRO_SQL_MAP_SPILL_THRESHOLD, 0);
+            this.sqlMapSpillPartitionCount = Numbers.ceilPow2(getInt(properties, env, PropertyKey.CAIRO_SQL_MAP_SPILL_PARTITION_COUNT, 16));
+            this.sqlMapSpillRoot = getString(properties, env, PropertyKey.CAIRO_SQL_MAP_SPILL_ROOT, rootSubdir(this.root, TMP_DIRECTORY)); // ../tmp
+            this.sqlQueryMemoryLimit = getLongSize(properties, env, PropertyKey.CAIRO_SQL_QUERY_MEMORY_LIMIT, 0);
+            this.sqlQueryMemoryPoolSize = getLongSize(properties, env, PropertyKey.CAIRO_SQL_QUERY_MEMORY_POOL_SIZE, 0);
+            final String sqlQueryPriority = getString(properties, env, PropertyKey.CAIRO_SQL_QUERY_PRIORITY, SqlQueryPriority.nameOf(SqlQueryPriority.PRIORITY_NORMAL));
+            this.sqlQueryPriority = SqlQueryPriority.of(sqlQueryPriority);
+            if (this.sqlQueryPriority == -1) {
+                throw ServerConfigurationException.forInvalidKey(PropertyKey.CAIRO_SQL_QUERY_PRIORITY.getPropertyPath(), sqlQueryPriority);
+            }
             this.sqlModelPoolCapacity = getInt(properties, env, PropertyKey.CAIRO_MODEL_POOL_CAPACITY, 1024);
             this.sqlMaxNegativeLimit = getInt(properties, env, PropertyKey.CAIRO_SQL_MAX_NEGATIVE_LIMIT, 10_000);
             this.sqlSortKeyPageSize = getLongSize(properties, env, PropertyKey.CAIRO_SQL_SORT_KEY_PAGE_SIZE, 4 * Numbers.SIZE_1MB);
@@ -843,6 +910,7 @@ public class PropServerConfiguration implements ServerConfiguration {
             this.o3ColumnMemorySize = (int) Files.ceilPageSize(getIntSize(properties, env, PropertyKey.CAIRO_O3_COLUMN_MEMORY_SIZE, 8 * Numbers.SIZE_1MB));
             this.maxUncommittedRows = getInt(properties, env, PropertyKey.CAIRO_MAX_UNCOMMITTED_ROWS, 500_000);
             this.commitLag = getLong(properties, env, PropertyKey.CAIRO_COMMIT_LAG, 300_000) * 1_000;
+            this.matViewRefreshInterval = getLong(properties, env, PropertyKey.CAIRO_MAT_VIEW_REFRESH_INTERVAL, 1_000);
             this.o3QuickSortEnabled = getBoolean(properties, env, PropertyKey.CAIRO_O3_QUICKSORT_ENABLED, false);
             this.rndFunctionMemoryPageSize = Numbers.ceilPow2(getIntSize(properties, env, PropertyKey.CAIRO_RND_MEMORY_PAGE_SIZE, 8192));
             this.rndFunctionMemoryMaxPages = Numbers.ceilPow2(getInt(properties, env, PropertyKey.CAIRO_RND_MEMORY_MAX_PAGES, 128));
@@ -860,6 +928,8 @@ public class PropServerConfiguration implements ServerConfiguration {
             this.telemetryQueueCapacity = Numbers.ceilPow2(getInt(properties, env, PropertyKey.TELEMETRY_QUEUE_CAPACITY, 512));
             this.telemetryHideTables = getBoolean(properties, env, PropertyKey.TELEMETRY_HIDE_TABLES, true);
             this.o3PartitionPurgeListCapacity = getInt(properties, env, PropertyKey.CAIRO_O3_PARTITION_PURGE_LIST_INITIAL_CAPACITY, 1);
+            this.partitionRetentionCheckInterval = getLong(properties, env, PropertyKey.CAIRO_PARTITION_RETENTION_CHECK_INTERVAL, 60_000);
+            this.partitionRetentionDetachEnabled = getBoolean(properties, env, PropertyKey.CAIRO_PARTITION_RETENTION_DETACH_ENABLED, false);
             this.ioURingEnabled = getBoolean(properties, env, PropertyKey.CAIRO_IO_URING_ENABLED, true);
             this.cairoMaxCrashFiles = getInt(properties, env, PropertyKey.CAIRO_MAX_CRASH_FILES, 100);
 
@@ -873,6 +943,8 @@ public class PropServerConfiguration implements ServerConfiguration {
             this.lineUdpMsgBufferSize = getIntSize(properties, env, PropertyKey.LINE_UDP_MSG_BUFFER_SIZE, 2048);
             this.lineUdpMsgCount = getInt(properties, env, PropertyKey.LINE_UDP_MSG_COUNT, 10_000);
             this.lineUdpReceiveBufferSize = getIntSize(properties, env, PropertyKey.LINE_UDP_RECEIVE_BUFFER_SIZE, 8 * Numbers.SIZE_1MB);
+            this.lineUdpReceiverCount = getInt(properties, env, PropertyKey.LINE_UDP_RECEIVER_COUNT, 1);
+            this.lineUdpQueueCapacity = getQueueCapacity(properties, env, PropertyKey.LINE_UDP_QUEUE_CAPACITY, 1024);
             this.lineUdpEnabled = getBoolean(properties, env, PropertyKey.LINE_UDP_ENABLED, true);
             this.lineUdpOwnThreadAffinity = getInt(properties, env, PropertyKey.LINE_UDP_OWN_THREAD_AFFINITY, -1);
             this.lineUdpOwnThread = getBoolean(properties, env, PropertyKey.LINE_UDP_OWN_THREAD, false);
@@ -892,6 +964,7 @@ public class PropServerConfiguration implements ServerConfiguration {
                 lineTcpNetConnectionLimit = getInt(properties, env, PropertyKey.LINE_TCP_NET_ACTIVE_CONNECTION_LIMIT, 256);
                 lineTcpNetConnectionLimit = getInt(properties, env, PropertyKey.LINE_TCP_NET_CONNECTION_LIMIT, lineTcpNetConnectionLimit);
                 lineTcpNetConnectionHint = getBoolean(properties, env, PropertyKey.LINE_TCP_NET_CONNECTION_HINT, false);
+                lineTcpNetDispatcherSharded = getBoolean(properties, env, PropertyKey.LINE_TCP_NET_DISPATCHER_SHARDED, false);
                 parseBindTo(properties, env, PropertyKey.LINE_TCP_NET_BIND_TO, "0.0.0.0:9009", (a, p) -> {
                     lineTcpNetBindIPv4Address = a;
                     lineTcpNetBindPort = p;
@@ -987,7 +1060,35 @@ public class PropServerConfiguration implements ServerConfiguration {
             this.sharedWorkerSleepThreshold = getLong(properties, env, PropertyKey.SHARED_WORKER_SLEEP_THRESHOLD, 10_000);
             this.sharedWorkerSleepTimeout = getLong(properties, env, PropertyKey.SHARED_WORKER_SLEEP_TIMEOUT, 100);
 
+            // query jobs run on the shared pool unless dedicated query pool is configured
+            this.queryWorkerCount = getInt(properties, env, PropertyKey.QUERY_WORKER_COUNT, 0);
+            this.queryWorkerAffinity = getAffinity(properties, env, PropertyKey.QUERY_WORKER_AFFINITY, queryWorkerCount);
+            this.queryWorkerHaltOnError = getBoolean(properties, env, PropertyKey.QUERY_WORKER_HALT_ON_ERROR, false);
+            this.queryWorkerYieldThreshold = getLong(properties, env, PropertyKey.QUERY_WORKER_YIELD_THRESHOLD, 100);
+            this.queryWorkerSleepThreshold = getLong(properties, env, PropertyKey.QUERY_WORKER_SLEEP_THRESHOLD, 10_000);
+            this.queryWorkerSleepTimeout = getLong(properties, env, PropertyKey.QUERY_WORKER_SLEEP_TIMEOUT, 100);
+
             this.metricsEnabled = getBoolean(properties, env, PropertyKey.METRICS_ENABLED, false);
+
+            this.replicationBufferSize = getIntSize(properties, env, PropertyKey.REPLICATION_BUFFER_SIZE, Numbers.SIZE_1MB);
+            this.replicationMaxRequestSize = getIntSize(properties, env, PropertyKey.REPLICATION_MAX_REQUEST_SIZE, 16 * Numbers.SIZE_1MB);
+            this.replicationTimeout = getLong(properties, env, PropertyKey.REPLICATION_TIMEOUT, 30_000);
+            this.replicationPrimaryEnabled = getBoolean(properties, env, PropertyKey.REPLICATION_PRIMARY_ENABLED, false);
+            parseBindTo(properties, env, PropertyKey.REPLICATION_PRIMARY_BIND_TO, "0.0.0.0:9005", (a, p) -> {
+                this.replicationBindIPv4Address = a;
+                this.replicationBindPort = p;
+            });
+            this.replicationListenBacklog = getInt(properties, env, PropertyKey.REPLICATION_PRIMARY_LISTEN_BACKLOG, 64);
+            this.replicationReplicaEnabled = getBoolean(properties, env, PropertyKey.REPLICATION_REPLICA_ENABLED, false);
+            this.replicationPrimaryHost = getString(properties, env, PropertyKey.REPLICATION_REPLICA_PRIMARY_HOST, "127.0.0.1");
+            this.replicationPrimaryPort = getInt(properties, env, PropertyKey.REPLICATION_REPLICA_PRIMARY_PORT, 9005);
+            this.replicationReplicaSyncInterval = getLong(properties, env, PropertyKey.REPLICATION_REPLICA_SYNC_INTERVAL, 1000);
+            this.replicationReplicaTables = getStringList(properties, env, PropertyKey.REPLICATION_REPLICA_TABLES);
+            this.replicationAuthToken = getString(properties, env, PropertyKey.REPLICATION_AUTH_TOKEN, null);
+            if (replicationPrimaryEnabled && (replicationAuthToken == null || replicationAuthToken.isEmpty())) {
+                throw new ServerConfigurationException("invalid configuration value [key=" + PropertyKey.REPLICATION_AUTH_TOKEN.getPropertyPath() +
+                        ", description=replication primary requires auth token]");
+            }
             this.writerAsyncCommandBusyWaitTimeout = getLong(properties, env, PropertyKey.CAIRO_WRITER_ALTER_BUSY_WAIT_TIMEOUT, 500);
             this.writerAsyncCommandMaxWaitTimeout = getLong(properties, env, PropertyKey.CAIRO_WRITER_ALTER_MAX_WAIT_TIMEOUT, 30_000);
             this.writerTickRowsCountMod = Numbers.ceilPow2(getInt(properties, env, PropertyKey.CAIRO_WRITER_TICK_ROWS_COUNT, 1024)) - 1;
@@ -1056,6 +1157,11 @@ public class PropServerConfiguration implements ServerConfiguration {
         return sharedWorkerPoolConfiguration;
     }
 
+    @Override
+    public WorkerPoolConfiguration getQueryWorkerPoolConfiguration() {
+        return queryWorkerPoolConfiguration;
+    }
+
     @Override
     public PGWireConfiguration getPGWireConfiguration() {
         return pgWireConfiguration;
@@ -1066,6 +1172,11 @@ public class PropServerConfiguration implements ServerConfiguration {
         return metricsConfiguration;
     }
 
+    @Override
+    public ReplicationConfiguration getReplicationConfiguration() {
+        return replicationConfiguration;
+    }
+
     static ValidationResult validate(Properties properties) {
         // Settings that used to be valid but no longer are.
         Map<String, String> obsolete = new HashMap<>();
@@ -1331,6 +1442,20 @@ public class PropServerConfiguration implements ServerConfiguration {
         return value;
     }
 
+    private ObjList<String> getStringList(Properties properties, @Nullable Map<String, String> env, PropertyKey key) {
+        final ObjList<String> result = new ObjList<>();
+        final String value = overrideWithEnv(properties, env, key);
+        if (value != null) {
+            for (String item : value.split(",")) {
+                final String trimmed = item.trim();
+                if (trimmed.length() > 0) {
+                    result.add(trimmed);
+                }
+            }
+        }
+        return result;
+    }
+
     private DateFormat getTimestampFormat(Properties properties, @Nullable Map<String, String> env) {
         final String pattern = overrideWithEnv(properties, env, PropertyKey.CAIRO_SQL_BACKUP_DIR_DATETIME_FORMAT);
         TimestampFormatCompiler compiler = new TimestampFormatCompiler();
@@ -1527,6 +1652,11 @@ public class PropServerConfiguration implements ServerConfiguration {
         public long getQueueTimeout() {
             return httpNetConnectionQueueTimeout;
         }
+
+        @Override
+        public boolean isSharded() {
+            return httpNetDispatcherSharded;
+        }
     }
 
     private class PropHttpMinIODispatcherConfiguration implements IODispatcherConfiguration {
@@ -1662,6 +1792,11 @@ public class PropServerConfiguration implements ServerConfiguration {
             return utf8SinkSize;
         }
 
+        @Override
+        public long getParallelImportThreshold() {
+            return parallelImportThreshold;
+        }
+
         @Override
         public InputFormatConfiguration getInputFormatConfiguration() {
             return inputFormatConfiguration;
@@ -1913,6 +2048,11 @@ public class PropServerConfiguration implements ServerConfiguration {
             return sqlBindVariablePoolSize;
         }
 
+        @Override
+        public int getBloomFilterBlockRowCount() {
+            return bloomFilterBlockRowCount;
+        }
+
         @Override
         public BuildInformation getBuildInformation() {
             return buildInformation;
@@ -2068,6 +2208,11 @@ public class PropServerConfiguration implements ServerConfiguration {
             return sqlGroupByPoolCapacity;
         }
 
+        @Override
+        public long getHotCacheRowCount() {
+            return hotCacheRowCount;
+        }
+
         @Override
         public long getIdleCheckInterval() {
             return idleCheckInterval;
@@ -2103,6 +2248,11 @@ public class PropServerConfiguration implements ServerConfiguration {
             return cairoMaxCrashFiles;
         }
 
+        @Override
+        public long getMatViewRefreshInterval() {
+            return matViewRefreshInterval;
+        }
+
         @Override
         public int getMaxFileNameLength() {
             return maxFileNameLength;
@@ -2213,6 +2363,11 @@ public class PropServerConfiguration implements ServerConfiguration {
             return o3PartitionPurgeListCapacity;
         }
 
+        @Override
+        public long getPartitionRetentionCheckInterval() {
+            return partitionRetentionCheckInterval;
+        }
+
         @Override
         public int getQueryCacheEventQueueCapacity() {
             return queryCacheEventQueueCapacity;
@@ -2223,6 +2378,16 @@ public class PropServerConfiguration implements ServerConfiguration {
             return readerPoolMaxSegments;
         }
 
+        @Override
+        public int getReaderPoolPrewarmCount() {
+            return readerPoolPrewarmCount;
+        }
+
+        @Override
+        public ObjList<String> getReaderPoolPrewarmTables() {
+            return readerPoolPrewarmTables;
+        }
+
         @Override
         public int getRenameTableModelPoolCapacity() {
             return sqlRenameTableModelPoolCapacity;
@@ -2473,6 +2638,21 @@ public class PropServerConfiguration implements ServerConfiguration {
             return sqlMapPageSize;
         }
 
+        @Override
+        public int getSqlMapSpillPartitionCount() {
+            return sqlMapSpillPartitionCount;
+        }
+
+        @Override
+        public CharSequence getSqlMapSpillRoot() {
+            return sqlMapSpillRoot;
+        }
+
+        @Override
+        public long getSqlMapSpillThreshold() {
+            return sqlMapSpillThreshold;
+        }
+
         @Override
         public int getSqlMaxNegativeLimit() {
             return sqlMaxNegativeLimit;
@@ -2493,6 +2673,26 @@ public class PropServerConfiguration implements ServerConfiguration {
             return sqlPageFrameMinRows;
         }
 
+        @Override
+        public int getSqlParallelLatestByMinChunkSize() {
+            return sqlParallelLatestByMinChunkSize;
+        }
+
+        @Override
+        public long getSqlQueryMemoryLimit() {
+            return sqlQueryMemoryLimit;
+        }
+
+        @Override
+        public long getSqlQueryMemoryPoolSize() {
+            return sqlQueryMemoryPoolSize;
+        }
+
+        @Override
+        public int getSqlQueryPriority() {
+            return sqlQueryPriority;
+        }
+
         @Override
         public int getSqlSmallMapKeyCapacity() {
             return sqlSmallMapKeyCapacity;
@@ -2612,6 +2812,21 @@ public class PropServerConfiguration implements ServerConfiguration {
             return parallelIndexingEnabled;
         }
 
+        @Override
+        public boolean isPartitionRetentionDetachEnabled() {
+            return partitionRetentionDetachEnabled;
+        }
+
+        @Override
+        public boolean isReaderPoolAdaptiveEvictionEnabled() {
+            return readerPoolAdaptiveEvictionEnabled;
+        }
+
+        @Override
+        public boolean isSnapshotIncrementalEnabled() {
+            return snapshotIncrementalEnabled;
+        }
+
         @Override
         public boolean isSnapshotRecoveryEnabled() {
             return snapshotRecoveryEnabled;
@@ -2631,6 +2846,11 @@ public class PropServerConfiguration implements ServerConfiguration {
         public boolean isSqlParallelFilterPreTouchEnabled() {
             return sqlParallelFilterPreTouchEnabled;
         }
+
+        @Override
+        public boolean isSqlParallelLatestByEnabled() {
+            return sqlParallelLatestByEnabled;
+        }
     }
 
     private class PropLineUdpReceiverConfiguration implements LineUdpReceiverConfiguration {
@@ -2689,11 +2909,21 @@ public class PropServerConfiguration implements ServerConfiguration {
             return lineUdpPort;
         }
 
+        @Override
+        public int getQueueCapacity() {
+            return lineUdpQueueCapacity;
+        }
+
         @Override
         public int getReceiveBufferSize() {
             return lineUdpReceiveBufferSize;
         }
 
+        @Override
+        public int getReceiverCount() {
+            return lineUdpReceiverCount;
+        }
+
         @Override
         public CairoSecurityContext getCairoSecurityContext() {
             return AllowAllCairoSecurityContext.INSTANCE;
@@ -2810,6 +3040,11 @@ public class PropServerConfiguration implements ServerConfiguration {
         public long getQueueTimeout() {
             return lineTcpNetConnectionQueueTimeout;
         }
+
+        @Override
+        public boolean isSharded() {
+            return lineTcpNetDispatcherSharded;
+        }
     }
 
     private class PropLineTcpWriterWorkerPoolConfiguration implements WorkerPoolConfiguration {
@@ -3099,6 +3334,43 @@ public class PropServerConfiguration implements ServerConfiguration {
         }
     }
 
+    private class PropQueryWorkerPoolConfiguration implements WorkerPoolConfiguration {
+        @Override
+        public int[] getWorkerAffinity() {
+            return queryWorkerAffinity;
+        }
+
+        @Override
+        public int getWorkerCount() {
+            return queryWorkerCount;
+        }
+
+        @Override
+        public boolean haltOnError() {
+            return queryWorkerHaltOnError;
+        }
+
+        @Override
+        public String getPoolName() {
+            return "query";
+        }
+
+        @Override
+        public long getYieldThreshold() {
+            return queryWorkerYieldThreshold;
+        }
+
+        @Override
+        public long getSleepThreshold() {
+            return queryWorkerSleepThreshold;
+        }
+
+        @Override
+        public long getSleepTimeout() {
+            return queryWorkerSleepTimeout;
+        }
+    }
+
     private class PropWaitProcessorConfiguration implements WaitProcessorConfiguration {
 
         @Override
@@ -3197,6 +3469,11 @@ public class PropServerConfiguration implements ServerConfiguration {
         public long getQueueTimeout() {
             return pgNetConnectionQueueTimeout;
         }
+
+        @Override
+        public boolean isSharded() {
+            return pgNetDispatcherSharded;
+        }
     }
 
     private class PropPGWireConfiguration implements PGWireConfiguration {
@@ -3465,6 +3742,89 @@ public class PropServerConfiguration implements ServerConfiguration {
         }
     }
 
+    private class PropReplicationConfiguration implements ReplicationConfiguration {
+
+        @Override
+        public CharSequence getAuthToken() {
+            return replicationAuthToken;
+        }
+
+        @Override
+        public int getBindIPv4Address() {
+            return replicationBindIPv4Address;
+        }
+
+        @Override
+        public int getBindPort() {
+            return replicationBindPort;
+        }
+
+        @Override
+        public int getBufferSize() {
+            return replicationBufferSize;
+        }
+
+        @Override
+        public CairoSecurityContext getCairoSecurityContext() {
+            return AllowAllCairoSecurityContext.INSTANCE;
+        }
+
+        @Override
+        public MillisecondClock getClock() {
+            return MillisecondClockImpl.INSTANCE;
+        }
+
+        @Override
+        public int getListenBacklog() {
+            return replicationListenBacklog;
+        }
+
+        @Override
+        public int getMaxRequestSize() {
+            return replicationMaxRequestSize;
+        }
+
+        @Override
+        public NetworkFacade getNetworkFacade() {
+            return NetworkFacadeImpl.INSTANCE;
+        }
+
+        @Override
+        public CharSequence getPrimaryHost() {
+            return replicationPrimaryHost;
+        }
+
+        @Override
+        public int getPrimaryPort() {
+            return replicationPrimaryPort;
+        }
+
+        @Override
+        public long getReplicaSyncInterval() {
+            return replicationReplicaSyncInterval;
+        }
+
+        @Override
+        public ObjList<String> getReplicaTables() {
+            return replicationReplicaTables;
+        }
+
+        @Override
+        public long getTimeout() {
+            return replicationTimeout;
+        }
+
+        @Override
+        public boolean isPrimaryEnabled() {
+            return replicationPrimaryEnabled;
+        }
+
+        @Override
+        public boolean isReplicaEnabled() {
+            return replicationReplicaEnabled;
+        }
+    }
+
     static {
         WRITE_FO_OPTS.put("o_direct", (int) CairoConfiguration.O_DIRECT);
         WRITE_FO_OPTS.put("o_sync", (int) CairoConfiguration.O_SYNC);
@@ -31,17 +31,24 @@ import java.util.stream.Collectors;
 
 public enum PropertyKey {
     BINARYDATA_ENCODING_MAXLENGTH("binarydata.encoding.maxlength"),
+    CAIRO_READER_POOL_ADAPTIVE_EVICTION_ENABLED("cairo.reader.pool.adaptive.eviction.enabled"),
+    CAIRO_READER_POOL_PREWARM_COUNT("cairo.reader.pool.prewarm.count"),
+    CAIRO_READER_POOL_PREWARM_TABLES("cairo.reader.pool.prewarm.tables"),
     CAIRO_ROOT("cairo.root"),
     CAIRO_SNAPSHOT_INSTANCE_ID("cairo.snapshot.instance.id"),
     CAIRO_SNAPSHOT_RECOVERY_ENABLED("cairo.snapshot.recovery.enabled"),
+    CAIRO_SNAPSHOT_INCREMENTAL_ENABLED("cairo.snapshot.incremental.enabled"),
     CAIRO_MKDIR_MODE("cairo.mkdir.mode"),
     CAIRO_SQL_APPEND_PAGE_SIZE("cairo.sql.append.page.size"),
+    CAIRO_SQL_PARALLEL_LATEST_BY_ENABLED("cairo.sql.parallel.latest.by.enabled"),
+    CAIRO_SQL_PARALLEL_LATEST_BY_MIN_CHUNK_SIZE("cairo.sql.parallel.latest.by.min.chunk.size"),
     CAIRO_WRITER_ALTER_BUSY_WAIT_TIMEOUT("cairo.writer.alter.busy.wait.timeout"),
     CAIRO_WRITER_ALTER_MAX_WAIT_TIMEOUT("cairo.writer.alter.max.wait.timeout"),
     CAIRO_WRITER_TICK_ROWS_COUNT("cairo.writer.tick.rows.count"),
     CAIRO_WRITER_COMMAND_QUEUE_CAPACITY("cairo.writer.command.queue.capacity"),
     CAIRO_SQL_BACKUP_DIR_DATETIME_FORMAT("cairo.sql.backup.dir.datetime.format"),
     CAIRO_SQL_JIT_MODE("cairo.sql.jit.mode"),
+    CAIRO_BLOOM_FILTER_BLOCK_ROW_COUNT("cairo.bloom.filter.block.row.count"),
     CAIRO_COMMIT_MODE("cairo.commit.mode"),
     CAIRO_CREAT_AS_SELECT_RETRY_COUNT("cairo.create.as.select.retry.count"),
     CAIRO_DEFAULT_MAP_TYPE("cairo.default.map.type"),
@@ -49,6 +56,7 @@ public enum PropertyKey {
     CAIRO_DEFAULT_SYMBOL_CAPACITY("cairo.default.symbol.capacity"),
     CAIRO_FILE_OPERATION_RETRY_COUNT("cairo.file.operation.retry.count"),
     CAIRO_IDLE_CHECK_INTERVAL("cairo.idle.check.interval"),
+    CAIRO_HOT_CACHE_ROW_COUNT("cairo.hot.cache.row.count"),
     CAIRO_INACTIVE_READER_TTL("cairo.inactive.reader.ttl"),
     CAIRO_INACTIVE_WRITER_TTL("cairo.inactive.writer.ttl"),
     CAIRO_INDEX_VALUE_BLOCK_SIZE("cairo.index.value.block.size"),
@@ -69,6 +77,12 @@ public enum PropertyKey {
     CAIRO_SQL_MAP_PAGE_SIZE("cairo.sql.map.page.size"),
     CAIRO_SQL_MAP_MAX_PAGES("cairo.sql.map.max.pages"),
     CAIRO_SQL_MAP_MAX_RESIZES("cairo.sql.map.max.resizes"),
+    CAIRO_SQL_MAP_SPILL_THRESHOLD("cairo.sql.map.spill.threshold"),
+    CAIRO_SQL_MAP_SPILL_PARTITION_COUNT("cairo.sql.map.spill.partition.count"),
+    CAIRO_SQL_MAP_SPILL_ROOT("cairo.sql.map.spill.root"),
+    CAIRO_SQL_QUERY_MEMORY_LIMIT("cairo.sql.query.memory.limit"),
+    CAIRO_SQL_QUERY_MEMORY_POOL_SIZE("cairo.sql.query.memory.pool.size"),
+    CAIRO_SQL_QUERY_PRIORITY("cairo.sql.query.priority"),
     CAIRO_MODEL_POOL_CAPACITY("cairo.model.pool.capacity"),
     CAIRO_SQL_MAX_NEGATIVE_LIMIT("cairo.sql.max.negative.limit"),
     CAIRO_SQL_SORT_KEY_PAGE_SIZE("cairo.sql.sort.key.page.size"),
@@ -147,6 +161,7 @@ public enum PropertyKey {
     CAIRO_O3_PURGE_DISCOVERY_QUEUE_CAPACITY("cairo.o3.purge.discovery.queue.capacity"),
     CAIRO_O3_COLUMN_MEMORY_SIZE("cairo.o3.column.memory.size"),
     CAIRO_MAX_UNCOMMITTED_ROWS("cairo.max.uncommitted.rows"),
+    CAIRO_MAT_VIEW_REFRESH_INTERVAL("cairo.mat.view.refresh.interval"),
     CAIRO_COMMIT_LAG("cairo.commit.lag"),
     CAIRO_O3_QUICKSORT_ENABLED("cairo.o3.quicksort.enabled"),
     CAIRO_RND_MEMORY_PAGE_SIZE("cairo.rnd.memory.page.size"),
@@ -161,6 +176,8 @@ public enum PropertyKey {
     CAIRO_O3_TXN_SCOREBOARD_ENTRY_COUNT("cairo.o3.txn.scoreboard.entry.count"),
     CAIRO_LATESTBY_QUEUE_CAPACITY("cairo.latestby.queue.capacity"),
     CAIRO_O3_PARTITION_PURGE_LIST_INITIAL_CAPACITY("cairo.o3.partition.purge.list.initial.capacity"),
+    CAIRO_PARTITION_RETENTION_CHECK_INTERVAL("cairo.partition.retention.check.interval"),
+    CAIRO_PARTITION_RETENTION_DETACH_ENABLED("cairo.partition.retention.detach.enabled"),
     CAIRO_O3_ENABLED("cairo.o3.enabled"),
     CAIRO_QUERY_CACHE_EVENT_QUEUE_CAPACITY("cairo.query.cache.event.queue.capacity"),
     CAIRO_IO_URING_ENABLED("cairo.iouring.enabled"),
@@ -202,6 +219,7 @@ public enum PropertyKey {
     HTTP_VERSION("http.version"),
     HTTP_STATIC_PUBLIC_DIRECTORY("http.static.public.directory"),
     HTTP_NET_CONNECTION_HINT("http.net.connection.hint"),
+    HTTP_NET_DISPATCHER_SHARDED("http.net.dispatcher.sharded"),
     HTTP_NET_IDLE_CONNECTION_TIMEOUT("http.net.idle.connection.timeout"),
     HTTP_NET_CONNECTION_TIMEOUT("http.net.connection.timeout"),
     HTTP_NET_QUEUED_CONNECTION_TIMEOUT("http.net.queued.connection.timeout"),
@@ -216,6 +234,7 @@ public enum PropertyKey {
     HTTP_TEXT_ROLL_BUFFER_LIMIT("http.text.roll.buffer.limit"),
     HTTP_TEXT_ROLL_BUFFER_SIZE("http.text.roll.buffer.size"),
     HTTP_TEXT_UTF8_SINK_SIZE("http.text.utf8.sink.size"),
+    HTTP_TEXT_PARALLEL_IMPORT_THRESHOLD("http.text.parallel.import.threshold"),
     HTTP_SECURITY_READONLY("http.security.readonly"),
     HTTP_SECURITY_MAX_RESPONSE_ROWS("http.security.max.response.rows"),
     HTTP_SECURITY_INTERRUPT_ON_CLOSED_CONNECTION("http.security.interrupt.on.closed.connection"),
@@ -253,6 +272,8 @@ public enum PropertyKey {
     LINE_UDP_MSG_BUFFER_SIZE("line.udp.msg.buffer.size"),
     LINE_UDP_MSG_COUNT("line.udp.msg.count"),
     LINE_UDP_RECEIVE_BUFFER_SIZE("line.udp.receive.buffer.size"),
+    LINE_UDP_RECEIVER_COUNT("line.udp.receiver.count"),
+    LINE_UDP_QUEUE_CAPACITY("line.udp.queue.capacity"),
     LINE_UDP_ENABLED("line.udp.enabled"),
     LINE_UDP_OWN_THREAD_AFFINITY("line.udp.own.thread.affinity"),
     LINE_UDP_OWN_THREAD("line.udp.own.thread"),
@@ -263,6 +284,7 @@ public enum PropertyKey {
     LINE_TCP_NET_ACTIVE_CONNECTION_LIMIT("line.tcp.net.active.connection.limit"),
     LINE_TCP_NET_CONNECTION_LIMIT("line.tcp.net.connection.limit"),
     LINE_TCP_NET_CONNECTION_HINT("line.tcp.net.connection.hint"),
+    LINE_TCP_NET_DISPATCHER_SHARDED("line.tcp.net.dispatcher.sharded"),
     LINE_TCP_NET_BIND_TO("line.tcp.net.bind.to"),
     LINE_TCP_NET_IDLE_TIMEOUT("line.tcp.net.idle.timeout"),
     LINE_TCP_NET_CONNECTION_TIMEOUT("line.tcp.net.connection.timeout"),
@@ -302,8 +324,21 @@ public enum PropertyKey {
     LINE_TCP_NET_IO_QUEUE_CAPACITY("line.tcp.net.io.queue.capacity"),
     LINE_TCP_IO_AGGRESIVE_RECV("line.tcp.io.aggressive.recv"),
     METRICS_ENABLED("metrics.enabled"),
+    REPLICATION_BUFFER_SIZE("replication.buffer.size"),
+    REPLICATION_MAX_REQUEST_SIZE("replication.max.request.size"),
+    REPLICATION_TIMEOUT("replication.timeout"),
+    REPLICATION_PRIMARY_ENABLED("replication.primary.enabled"),
+    REPLICATION_PRIMARY_BIND_TO("replication.primary.bind.to"),
+    REPLICATION_PRIMARY_LISTEN_BACKLOG("replication.primary.listen.backlog"),
+    REPLICATION_REPLICA_ENABLED("replication.replica.enabled"),
+    REPLICATION_REPLICA_PRIMARY_HOST("replication.replica.primary.host"),
+    REPLICATION_REPLICA_PRIMARY_PORT("replication.replica.primary.port"),
+    REPLICATION_REPLICA_SYNC_INTERVAL("replication.replica.sync.interval"),
+    REPLICATION_REPLICA_TABLES("replication.replica.tables"),
+    REPLICATION_AUTH_TOKEN("replication.auth.token"),
     PG_ENABLED("pg.enabled"),
     PG_NET_CONNECTION_HINT("pg.net.connection.hint"),
+    PG_NET_DISPATCHER_SHARDED("pg.net.dispatcher.sharded"),
     PG_NET_BIND_TO("pg.net.bind.to"),
     PG_NET_IDLE_TIMEOUT("pg.net.idle.timeout"),
     PG_NET_CONNECTION_TIMEOUT("pg.net.connection.timeout"),
@@ -348,6 +383,12 @@ public enum PropertyKey {
     SHARED_WORKER_SLEEP_THRESHOLD("shared.worker.sleep.threshold"),
     SHARED_WORKER_SLEEP_TIMEOUT("shared.worker.sleep.timeout"),
     SHARED_WORKER_YIELD_THRESHOLD("shared.worker.yield.threshold"),
+    QUERY_WORKER_COUNT("query.worker.count"),
+    QUERY_WORKER_AFFINITY("query.worker.affinity"),
+    QUERY_WORKER_HALT_ON_ERROR("query.worker.haltOnError"),
+    QUERY_WORKER_SLEEP_THRESHOLD("query.worker.sleep.threshold"),
+    QUERY_WORKER_SLEEP_TIMEOUT("query.worker.sleep.timeout"),
+    QUERY_WORKER_YIELD_THRESHOLD("query.worker.yield.threshold"),
     TELEMETRY_ENABLED("telemetry.enabled"),
     TELEMETRY_DISABLE_COMPLETELY("telemetry.disable.completely"),
     TELEMETRY_QUEUE_CAPACITY("telemetry.queue.capacity"),
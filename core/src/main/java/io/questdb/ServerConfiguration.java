@@ -30,6 +30,7 @@ import io.questdb.cutlass.http.HttpServerConfiguration;
 import io.questdb.cutlass.line.tcp.LineTcpReceiverConfiguration;
 import io.questdb.cutlass.line.udp.LineUdpReceiverConfiguration;
 import io.questdb.cutlass.pgwire.PGWireConfiguration;
+import io.questdb.cutlass.replication.ReplicationConfiguration;
 import io.questdb.metrics.MetricsConfiguration;
 import io.questdb.mp.WorkerPoolConfiguration;
 
@@ -47,7 +48,15 @@ public interface ServerConfiguration {
 
     WorkerPoolConfiguration getWorkerPoolConfiguration();
 
+    /**
+     * Pool for jobs that help parallel query execution. Query jobs run on the shared pool
+     * when this pool has no workers.
+     */
+    WorkerPoolConfiguration getQueryWorkerPoolConfiguration();
+
     PGWireConfiguration getPGWireConfiguration();
 
     MetricsConfiguration getMetricsConfiguration();
+
+    ReplicationConfiguration getReplicationConfiguration();
 }
@@ -28,15 +28,19 @@ import io.questdb.cairo.CairoConfiguration;
 import io.questdb.cairo.CairoEngine;
 import io.questdb.cairo.ColumnIndexerJob;
 import io.questdb.cairo.O3Utils;
+import io.questdb.cairo.PartitionRetentionJob;
+import io.questdb.cairo.sql.async.PageFrameReduceJob;
 import io.questdb.cutlass.Services;
 import io.questdb.cutlass.text.TextImportJob;
 import io.questdb.cutlass.text.TextImportRequestJob;
 import io.questdb.griffin.DatabaseSnapshotAgent;
 import io.questdb.griffin.FunctionFactory;
 import io.questdb.griffin.FunctionFactoryCache;
+import io.questdb.griffin.MatViewRefreshJob;
 import io.questdb.griffin.engine.groupby.vect.GroupByJob;
 import io.questdb.griffin.engine.table.AsyncFilterAtom;
 import io.questdb.griffin.engine.table.LatestByAllIndexedJob;
+import io.questdb.griffin.engine.table.LatestByAllJob;
 import io.questdb.log.Log;
 import io.questdb.log.LogFactory;
 import io.questdb.mp.WorkerPool;
@@ -87,18 +91,11 @@ public class ServerMain implements Closeable {
             protected void configureSharedPool(WorkerPool sharedPool) {
                 try {
                     sharedPool.assign(engine.getEngineMaintenanceJob());
-                    O3Utils.setupWorkerPool(
-                            sharedPool,
-                            engine,
-                            config.getCairoConfiguration().getCircuitBreakerConfiguration(),
-                            ffCache
-                    );
+                    O3Utils.setupO3Jobs(sharedPool, engine, ffCache);
                     final MessageBus messageBus = engine.getMessageBus();
 
-                    // register jobs that help parallel execution of queries and column indexing.
+                    // register jobs that help column indexing, query jobs are registered on the query pool
                     sharedPool.assign(new ColumnIndexerJob(messageBus));
-                    sharedPool.assign(new GroupByJob(messageBus));
-                    sharedPool.assign(new LatestByAllIndexedJob(messageBus));
 
                     // text import
                     TextImportJob.assignToPool(messageBus, sharedPool);
@@ -113,6 +110,15 @@ public class ServerMain implements Closeable {
                         sharedPool.freeOnExit(textImportRequestJob);
                     }
 
+                    // partition retention
+                    final PartitionRetentionJob partitionRetentionJob = new PartitionRetentionJob(engine);
+                    sharedPool.assign(partitionRetentionJob);
+
+                    // materialized views
+                    final MatViewRefreshJob matViewRefreshJob = new MatViewRefreshJob(engine, ffCache);
+                    sharedPool.assign(matViewRefreshJob);
+                    sharedPool.freeOnExit(matViewRefreshJob);
+
                     // telemetry
                     if (!cairoConfig.getTelemetryConfiguration().getDisableCompletely()) {
                         final TelemetryJob telemetryJob = new TelemetryJob(engine, ffCache);
@@ -125,6 +131,21 @@ public class ServerMain implements Closeable {
                     throw new Bootstrap.BootstrapException(thr);
                 }
             }
+
+            @Override
+            protected void configureQueryPool(WorkerPool queryPool) {
+                final MessageBus messageBus = engine.getMessageBus();
+
+                // register jobs that help parallel execution of queries
+                PageFrameReduceJob.assignToPool(
+                        messageBus,
+                        queryPool,
+                        cairoConfig.getCircuitBreakerConfiguration()
+                );
+                queryPool.assign(new GroupByJob(messageBus));
+                queryPool.assign(new LatestByAllIndexedJob(messageBus));
+                queryPool.assign(new LatestByAllJob(messageBus));
+            }
         };
 
         // snapshots
@@ -173,6 +194,18 @@ public class ServerMain implements Closeable {
                 workerPoolManager
         ));
 
+        // replication
+        freeOnExit(Services.createReplicationServer(
+                config.getReplicationConfiguration(),
+                engine,
+                workerPoolManager
+        ));
+        freeOnExit(Services.createReplicationClient(
+                config.getReplicationConfiguration(),
+                engine,
+                workerPoolManager
+        ));
+
         System.gc(); // GC 1
         log.advisoryW().$("bootstrap complete").$();
     }
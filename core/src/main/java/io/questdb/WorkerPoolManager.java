@@ -45,6 +45,7 @@ public abstract class WorkerPoolManager {
         PG_WIRE_SERVER("pg-wire"),
         LINE_TCP_IO("line-tcp-io"),
         LINE_TCP_WRITER("line-tcp-writer"),
+        QUERY("query"),
         OTHER("other");
 
         private final String requester;
@@ -62,6 +63,7 @@ public abstract class WorkerPoolManager {
     private static final Log LOG = LogFactory.getLog(WorkerPoolManager.class);
 
     private final WorkerPool sharedPool;
+    private final WorkerPool queryPool;
     private final AtomicBoolean running = new AtomicBoolean();
     private final AtomicBoolean closed = new AtomicBoolean();
     private final CharSequenceObjHashMap<WorkerPool> dedicatedPools = new CharSequenceObjHashMap<>(4);
@@ -69,6 +71,8 @@ public abstract class WorkerPoolManager {
     public WorkerPoolManager(ServerConfiguration config, HealthMetrics metrics) {
         sharedPool = new WorkerPool(config.getWorkerPoolConfiguration(), metrics);
         configureSharedPool(sharedPool); // abstract method giving callers the chance to assign jobs
+        queryPool = getInstance(config.getQueryWorkerPoolConfiguration(), metrics, Requester.QUERY);
+        configureQueryPool(queryPool);
     }
 
     /**
@@ -76,6 +80,26 @@ public abstract class WorkerPoolManager {
      */
     protected abstract void configureSharedPool(final WorkerPool sharedPool);
 
+    /**
+     * Gives callers the chance to assign jobs that help parallel query execution. Query pool is
+     * the SHARED pool unless dedicated query pool is configured.
+     *
+     * @param queryPool A reference to the QUERY pool
+     */
+    protected void configureQueryPool(final WorkerPool queryPool) {
+    }
+
+    public WorkerPool getQueryPool() {
+        return queryPool;
+    }
+
+    /**
+     * @return number of workers that run query jobs, execution contexts size per-worker state with it
+     */
+    public int getQueryWorkerCount() {
+        return queryPool.getWorkerCount();
+    }
+
     public WorkerPool getSharedPool() {
         return sharedPool;
     }
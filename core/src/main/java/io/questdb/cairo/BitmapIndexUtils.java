@@ -25,6 +25,7 @@
 package io.questdb.cairo;
 
 import io.questdb.cairo.vm.api.MemoryR;
+import io.questdb.std.Unsafe;
 import io.questdb.std.str.Path;
 
 import static io.questdb.cairo.TableUtils.COLUMN_NAME_TXN_NONE;
@@ -50,6 +51,43 @@ public final class BitmapIndexUtils {
     static final byte SIGNATURE = (byte) 0xfa;
     static final int VALUE_BLOCK_FILE_RESERVED = 16;
 
+    /**
+     * @param keyAddress address of key file contents
+     * @return size of value file, which is referenced by the key file
+     */
+    public static long getValueMemSize(long keyAddress) {
+        return Unsafe.getUnsafe().getLong(keyAddress + KEY_RESERVED_OFFSET_VALUE_MEM_SIZE);
+    }
+
+    /**
+     * Checks copy of key file taken while the writer might have been updating it. Copy is checked the
+     * same way index readers check mapped key file: header sequence has to match its check value and
+     * value count of every key has to match its count check.
+     *
+     * @param keyAddress  address of key file copy
+     * @param keyFileSize size of the copy
+     * @return true when copy is consistent, false when it has to be taken again
+     */
+    public static boolean isKeyFileConsistent(long keyAddress, long keyFileSize) {
+        if (keyFileSize < KEY_FILE_RESERVED || Unsafe.getUnsafe().getByte(keyAddress + KEY_RESERVED_OFFSET_SIGNATURE) != SIGNATURE) {
+            return false;
+        }
+        final long seq = Unsafe.getUnsafe().getLong(keyAddress + KEY_RESERVED_OFFSET_SEQUENCE);
+        if (Unsafe.getUnsafe().getLong(keyAddress + KEY_RESERVED_OFFSET_SEQUENCE_CHECK) != seq) {
+            return false;
+        }
+        final int keyCount = Unsafe.getUnsafe().getInt(keyAddress + KEY_RESERVED_OFFSET_KEY_COUNT);
+        if (getKeyEntryOffset(keyCount) > keyFileSize) {
+            return false;
+        }
+        for (long p = keyAddress + KEY_FILE_RESERVED, lim = p + keyCount * KEY_ENTRY_SIZE; p < lim; p += KEY_ENTRY_SIZE) {
+            if (Unsafe.getUnsafe().getLong(p + KEY_ENTRY_OFFSET_VALUE_COUNT) != Unsafe.getUnsafe().getLong(p + KEY_ENTRY_OFFSET_COUNT_CHECK)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
     public static Path keyFileName(Path path, CharSequence name, long columnNameTxn) {
         path.concat(name).put(".k");
         if (columnNameTxn > COLUMN_NAME_TXN_NONE) {
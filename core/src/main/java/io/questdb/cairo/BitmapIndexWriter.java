@@ -38,6 +38,10 @@ import java.io.Closeable;
 
 public class BitmapIndexWriter implements Closeable, Mutable {
     private static final Log LOG = LogFactory.getLog(BitmapIndexWriter.class);
+    // staged (key, value) pairs are 16-byte entries, as expected by Vect.radixSortLongIndexAscInPlace()
+    private static final long STAGE_ENTRY_SIZE = 16;
+    private static final long STAGE_MIN_CAPACITY = 1024;
+    private static final long STAGE_MAX_CAPACITY = 1024 * 1024;
     private final MemoryMARW keyMem = Vm.getMARWInstance();
     private final MemoryMARW valueMem = Vm.getMARWInstance();
     private final Cursor cursor = new Cursor();
@@ -48,6 +52,10 @@ public class BitmapIndexWriter implements Closeable, Mutable {
     private long seekValueCount;
     private long seekValueBlockOffset;
     private final BitmapIndexUtils.ValueBlockSeeker SEEKER = this::seek;
+    private long stageAddr;
+    private long stageCpyAddr;
+    private long stageCapacity;
+    private long stageSize;
 
     public BitmapIndexWriter(CairoConfiguration configuration, Path path, CharSequence name, long columnNameTxn) {
         of(
@@ -139,15 +147,42 @@ public class BitmapIndexWriter implements Closeable, Mutable {
 
     @Override
     public void close() {
-        if (keyMem.isOpen() && keyCount > -1) {
-            keyMem.setSize(keyMemSize());
-        }
-        Misc.free(keyMem);
+        freeStage();
+        closeFiles();
+    }
 
-        if (valueMem.isOpen() && valueMemSize > -1) {
-            valueMem.setSize(valueMemSize);
+    /**
+     * Applies key-value pairs accumulated by {@link #stage(int, long)}. Pairs are sorted by key, values of the same
+     * key retain the order in which they were staged. Each key is then written in one go: free cells of its last value
+     * block are filled first, new blocks are appended sequentially and key entry is updated once. This avoids
+     * per-value memory fences and key entry lookups of {@link #add(int, long)}, while keeping the index consistent
+     * for concurrent readers after every key.
+     */
+    public void commitStaged() {
+        if (stageSize == 0) {
+            return;
+        }
+        if (stageSize > 1) {
+            Vect.radixSortLongIndexAscInPlace(stageAddr, stageSize, stageCpyAddr);
+        }
+        final long hi = stageAddr + stageSize * STAGE_ENTRY_SIZE;
+        long lo = stageAddr;
+        int maxKey = -1;
+        while (lo < hi) {
+            final long key = Unsafe.getUnsafe().getLong(lo);
+            long keyHi = lo + STAGE_ENTRY_SIZE;
+            while (keyHi < hi && Unsafe.getUnsafe().getLong(keyHi) == key) {
+                keyHi += STAGE_ENTRY_SIZE;
+            }
+            addStagedValues((int) key, lo, keyHi);
+            maxKey = (int) key;
+            lo = keyHi;
+        }
+        stageSize = 0;
+        // new keys are only made visible once all of their entries are written
+        if (maxKey >= keyCount) {
+            updateKeyCount(maxKey);
         }
-        Misc.free(valueMem);
     }
 
     public RowCursor getCursor(int key) {
@@ -175,7 +210,8 @@ public class BitmapIndexWriter implements Closeable, Mutable {
     }
 
     final public void of(CairoConfiguration configuration, long keyFd, long valueFd, boolean init, int indexBlockCapacity) {
-        close();
+        // stage buffers are kept for the next index, writer is often reused across partitions
+        closeFiles();
         final FilesFacade ff = configuration.getFilesFacade();
         boolean kFdUnassigned = true;
         boolean vFdUnassigned = true;
@@ -241,7 +277,7 @@ public class BitmapIndexWriter implements Closeable, Mutable {
             assert blockValueCountMod > 0;
             this.blockCapacity = (this.blockValueCountMod + 1) * 8 + BitmapIndexUtils.VALUE_BLOCK_FILE_RESERVED;
         } catch (Throwable e) {
-            this.close();
+            closeFiles();
             if (kFdUnassigned) {
                 ff.close(keyFd);
             }
@@ -253,7 +289,7 @@ public class BitmapIndexWriter implements Closeable, Mutable {
     }
 
     final public void of(CairoConfiguration configuration, Path path, CharSequence name, long columnNameTxn, long keyAppendPageSize, long valueAppendPageSize) {
-        close();
+        closeFiles();
         final int plen = path.length();
         final FilesFacade ff = configuration.getFilesFacade();
         try {
@@ -312,13 +348,37 @@ public class BitmapIndexWriter implements Closeable, Mutable {
             }
             this.blockCapacity = (this.blockValueCountMod + 1) * 8 + BitmapIndexUtils.VALUE_BLOCK_FILE_RESERVED;
         } catch (Throwable e) {
-            this.close();
+            closeFiles();
             throw e;
         } finally {
             path.trimTo(plen);
         }
     }
 
+    /**
+     * Stages key-value pair to be added to index by {@link #commitStaged()}. Values for the same key must be staged
+     * in ascending order, same as they would have been passed to {@link #add(int, long)}. Staged pairs are not visible
+     * to {@link #getCursor(int)} or index readers until they are committed. When staging buffer is full, pairs are
+     * committed automatically.
+     *
+     * @param key   int key
+     * @param value long value
+     */
+    public void stage(int key, long value) {
+        assert key > -1 : "key must be positive integer: " + key;
+        if (stageSize == stageCapacity) {
+            if (stageCapacity < STAGE_MAX_CAPACITY) {
+                growStage();
+            } else {
+                commitStaged();
+            }
+        }
+        final long p = stageAddr + stageSize * STAGE_ENTRY_SIZE;
+        Unsafe.getUnsafe().putLong(p, key);
+        Unsafe.getUnsafe().putLong(p + 8, value);
+        stageSize++;
+    }
+
     /**
      * Rolls values back. Remove values that are strictly greater than given maximum. Empty value blocks
      * will also be removed as well as blank space at end of value memory.
@@ -393,6 +453,65 @@ public class BitmapIndexWriter implements Closeable, Mutable {
         // we are done adding value to new block of values
     }
 
+    private void addStagedValues(int key, long lo, long hi) {
+        final long offset = BitmapIndexUtils.getKeyEntryOffset(key);
+        final long valueCount;
+        long lastValueBlockOffset = -1;
+        if (key < keyCount) {
+            valueCount = keyMem.getLong(offset + BitmapIndexUtils.KEY_ENTRY_OFFSET_VALUE_COUNT);
+            if (valueCount > 0) {
+                lastValueBlockOffset = keyMem.getLong(offset + BitmapIndexUtils.KEY_ENTRY_OFFSET_LAST_VALUE_BLOCK_OFFSET);
+            }
+        } else {
+            valueCount = 0;
+        }
+
+        long count = valueCount;
+        int valueCellIndex = (int) (count & blockValueCountMod);
+        if (count > 0 && valueCellIndex > 0) {
+            // fill free cells of the last block, readers do not see them until count is updated
+            assert lastValueBlockOffset + blockCapacity <= valueMemSize;
+            for (; lo < hi && valueCellIndex <= blockValueCountMod; lo += STAGE_ENTRY_SIZE, valueCellIndex++, count++) {
+                valueMem.putLong(lastValueBlockOffset + valueCellIndex * 8L, Unsafe.getUnsafe().getLong(lo + 8));
+            }
+        }
+
+        long firstValueBlockOffset = -1;
+        if (lo < hi) {
+            while (lo < hi) {
+                final long newValueBlockOffset = valueMemSize;
+                final long blockAddr = valueMem.appendAddressFor(newValueBlockOffset, blockCapacity);
+                valueMemSize += blockCapacity;
+                for (int i = 0; i <= blockValueCountMod && lo < hi; i++, lo += STAGE_ENTRY_SIZE, count++) {
+                    Unsafe.getUnsafe().putLong(blockAddr + i * 8L, Unsafe.getUnsafe().getLong(lo + 8));
+                }
+                if (lastValueBlockOffset > -1) {
+                    // link new block and the previous one before count is updated
+                    valueMem.putLong(newValueBlockOffset + blockCapacity - BitmapIndexUtils.VALUE_BLOCK_FILE_RESERVED, lastValueBlockOffset);
+                    valueMem.putLong(lastValueBlockOffset + blockCapacity - BitmapIndexUtils.VALUE_BLOCK_FILE_RESERVED + 8, newValueBlockOffset);
+                }
+                if (firstValueBlockOffset == -1) {
+                    firstValueBlockOffset = newValueBlockOffset;
+                }
+                lastValueBlockOffset = newValueBlockOffset;
+            }
+            // value memory size is updated once per key rather than once per block
+            updateValueMemSize();
+        }
+
+        // update key entry in the same order as add() does: count, block offsets, count check
+        Unsafe.getUnsafe().storeFence();
+        keyMem.putLong(offset, count);
+        Unsafe.getUnsafe().storeFence();
+        if (valueCount == 0) {
+            keyMem.putLong(offset + BitmapIndexUtils.KEY_ENTRY_OFFSET_FIRST_VALUE_BLOCK_OFFSET, firstValueBlockOffset);
+        }
+        keyMem.putLong(offset + BitmapIndexUtils.KEY_ENTRY_OFFSET_LAST_VALUE_BLOCK_OFFSET, lastValueBlockOffset);
+        Unsafe.getUnsafe().storeFence();
+        keyMem.putLong(offset + BitmapIndexUtils.KEY_ENTRY_OFFSET_COUNT_CHECK, count);
+        Unsafe.getUnsafe().storeFence();
+    }
+
     private long allocateValueBlockAndStore(long value) {
         long newValueBlockOffset = valueMemSize;
 
@@ -445,6 +564,43 @@ public class BitmapIndexWriter implements Closeable, Mutable {
         Unsafe.getUnsafe().storeFence();
     }
 
+    private void closeFiles() {
+        // pairs staged for the previous index must not leak into the next one
+        stageSize = 0;
+        if (keyMem.isOpen() && keyCount > -1) {
+            keyMem.setSize(keyMemSize());
+        }
+        Misc.free(keyMem);
+
+        if (valueMem.isOpen() && valueMemSize > -1) {
+            valueMem.setSize(valueMemSize);
+        }
+        Misc.free(valueMem);
+    }
+
+    private void freeStage() {
+        if (stageAddr != 0) {
+            stageAddr = Unsafe.free(stageAddr, stageCapacity * STAGE_ENTRY_SIZE, MemoryTag.NATIVE_INDEX_BUILD);
+            stageCpyAddr = Unsafe.free(stageCpyAddr, stageCapacity * STAGE_ENTRY_SIZE, MemoryTag.NATIVE_INDEX_BUILD);
+            stageCapacity = 0;
+        }
+        stageSize = 0;
+    }
+
+    private void growStage() {
+        if (stageCapacity == 0) {
+            stageAddr = Unsafe.malloc(STAGE_MIN_CAPACITY * STAGE_ENTRY_SIZE, MemoryTag.NATIVE_INDEX_BUILD);
+            stageCpyAddr = Unsafe.malloc(STAGE_MIN_CAPACITY * STAGE_ENTRY_SIZE, MemoryTag.NATIVE_INDEX_BUILD);
+            stageCapacity = STAGE_MIN_CAPACITY;
+        } else {
+            final long newCapacity = Math.min(stageCapacity * 2, STAGE_MAX_CAPACITY);
+            stageAddr = Unsafe.realloc(stageAddr, stageCapacity * STAGE_ENTRY_SIZE, newCapacity * STAGE_ENTRY_SIZE, MemoryTag.NATIVE_INDEX_BUILD);
+            // sort scratch space does not need to retain content
+            stageCpyAddr = Unsafe.realloc(stageCpyAddr, stageCapacity * STAGE_ENTRY_SIZE, newCapacity * STAGE_ENTRY_SIZE, MemoryTag.NATIVE_INDEX_BUILD);
+            stageCapacity = newCapacity;
+        }
+    }
+
     private long keyMemSize() {
         return this.keyCount * BitmapIndexUtils.KEY_ENTRY_SIZE + BitmapIndexUtils.KEY_FILE_RESERVED;
     }
@@ -0,0 +1,247 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.cairo;
+
+import io.questdb.cairo.sql.DataFrame;
+import io.questdb.cairo.sql.DataFrameCursor;
+import io.questdb.cairo.sql.StaticSymbolTable;
+import io.questdb.cairo.sql.SymbolTable;
+import io.questdb.std.*;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Narrows data frames of the base cursor down to the row ranges that might hold the
+ * filtered values according to partition bloom filters. Frames of partitions without
+ * an up-to-date filter are passed through as is. Bloom filters have false positives,
+ * so the rows still have to be filtered.
+ */
+public class BloomFilterDataFrameCursor implements DataFrameCursor {
+    private final IntList columnIndexes;
+    private final ObjList<ObjList<String>> columnValues;
+    private final ObjList<LongList> columnHashes = new ObjList<>();
+    private final ObjList<BloomFilterReader> filters = new ObjList<>();
+    // pairs of [rowLo, rowHi) of the current partition in the order they are to be returned
+    private final LongList rowRanges = new LongList();
+    private final BloomFilterDataFrame frame = new BloomFilterDataFrame();
+    private final boolean descending;
+    private DataFrameCursor base;
+    private int rowRangeIndex;
+
+    public BloomFilterDataFrameCursor(IntList columnIndexes, ObjList<ObjList<String>> columnValues, boolean descending) {
+        this.columnIndexes = columnIndexes;
+        this.columnValues = columnValues;
+        this.descending = descending;
+        for (int i = 0, n = columnIndexes.size(); i < n; i++) {
+            columnHashes.add(new LongList());
+            filters.add(new BloomFilterReader());
+        }
+    }
+
+    @Override
+    public void close() {
+        base = Misc.free(base);
+        Misc.freeObjListAndKeepObjects(filters);
+    }
+
+    @Override
+    public StaticSymbolTable getSymbolTable(int columnIndex) {
+        return base.getSymbolTable(columnIndex);
+    }
+
+    @Override
+    public TableReader getTableReader() {
+        return base.getTableReader();
+    }
+
+    @Override
+    public StaticSymbolTable newSymbolTable(int columnIndex) {
+        return base.newSymbolTable(columnIndex);
+    }
+
+    @Override
+    public @Nullable DataFrame next() {
+        while (true) {
+            if (rowRangeIndex < rowRanges.size()) {
+                frame.rowLo = rowRanges.getQuick(rowRangeIndex++);
+                frame.rowHi = rowRanges.getQuick(rowRangeIndex++);
+                return frame;
+            }
+
+            final DataFrame baseFrame = base.next();
+            if (baseFrame == null) {
+                return null;
+            }
+
+            if (!splitFrame(baseFrame)) {
+                return baseFrame;
+            }
+        }
+    }
+
+    public BloomFilterDataFrameCursor of(DataFrameCursor base) {
+        this.base = base;
+        hashValues();
+        clearRowRanges();
+        return this;
+    }
+
+    @Override
+    public boolean reload() {
+        final boolean moreData = base.reload();
+        // symbol keys of the values may have appeared
+        hashValues();
+        clearRowRanges();
+        return moreData;
+    }
+
+    @Override
+    public long size() {
+        return -1;
+    }
+
+    @Override
+    public void toTop() {
+        base.toTop();
+        clearRowRanges();
+    }
+
+    private void clearRowRanges() {
+        rowRanges.clear();
+        rowRangeIndex = 0;
+    }
+
+    private void hashValues() {
+        final TableReader reader = base.getTableReader();
+        for (int i = 0, n = columnIndexes.size(); i < n; i++) {
+            final int columnIndex = columnIndexes.getQuick(i);
+            final ObjList<String> values = columnValues.getQuick(i);
+            final LongList hashes = columnHashes.getQuick(i);
+            hashes.clear();
+            if (ColumnType.isSymbol(reader.getMetadata().getColumnType(columnIndex))) {
+                final SymbolMapReader symbolMapReader = reader.getSymbolMapReader(columnIndex);
+                for (int j = 0, m = values.size(); j < m; j++) {
+                    final int key = symbolMapReader.keyOf(values.getQuick(j));
+                    // value missing from the symbol table is not in any of the partitions
+                    if (key != SymbolTable.VALUE_NOT_FOUND) {
+                        hashes.add(BloomFilterReader.hash(key));
+                    }
+                }
+            } else {
+                for (int j = 0, m = values.size(); j < m; j++) {
+                    hashes.add(BloomFilterReader.hash(values.getQuick(j)));
+                }
+            }
+        }
+    }
+
+    private boolean mightMatch(long rowLo, long rowHi) {
+        for (int i = 0, n = filters.size(); i < n; i++) {
+            final BloomFilterReader filter = filters.getQuick(i);
+            if (filter.isOpen() && !filter.mightContainAny(rowLo, rowHi, columnHashes.getQuick(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Splits frame into row ranges at filter block boundaries and keeps the ranges that might match.
+     *
+     * @return false when none of the filters is available for the frame partition
+     */
+    private boolean splitFrame(DataFrame baseFrame) {
+        final TableReader reader = base.getTableReader();
+        final int partitionIndex = baseFrame.getPartitionIndex();
+        long blockRowCount = Long.MAX_VALUE;
+        boolean filtered = false;
+        for (int i = 0, n = filters.size(); i < n; i++) {
+            final BloomFilterReader filter = filters.getQuick(i);
+            if (reader.openBloomFilter(filter, partitionIndex, columnIndexes.getQuick(i))) {
+                blockRowCount = Math.min(blockRowCount, filter.getBlockRowCount());
+                filtered = true;
+            }
+        }
+
+        if (!filtered) {
+            return false;
+        }
+
+        clearRowRanges();
+        final long rowHi = baseFrame.getRowHi();
+        long lo = baseFrame.getRowLo();
+        while (lo < rowHi) {
+            final long hi = Math.min(rowHi, (lo / blockRowCount + 1) * blockRowCount);
+            if (mightMatch(lo, hi)) {
+                final int size = rowRanges.size();
+                if (size > 0 && rowRanges.getQuick(size - 1) == lo) {
+                    rowRanges.setQuick(size - 1, hi);
+                } else {
+                    rowRanges.add(lo, hi);
+                }
+            }
+            lo = hi;
+        }
+
+        if (descending) {
+            for (int i = 0, j = rowRanges.size() - 2; i < j; i += 2, j -= 2) {
+                final long rangeLo = rowRanges.getQuick(i);
+                final long rangeHi = rowRanges.getQuick(i + 1);
+                rowRanges.setQuick(i, rowRanges.getQuick(j));
+                rowRanges.setQuick(i + 1, rowRanges.getQuick(j + 1));
+                rowRanges.setQuick(j, rangeLo);
+                rowRanges.setQuick(j + 1, rangeHi);
+            }
+        }
+        frame.partitionIndex = partitionIndex;
+        return true;
+    }
+
+    private class BloomFilterDataFrame implements DataFrame {
+        private int partitionIndex;
+        private long rowLo;
+        private long rowHi;
+
+        @Override
+        public BitmapIndexReader getBitmapIndexReader(int columnIndex, int direction) {
+            return base.getTableReader().getBitmapIndexReader(partitionIndex, columnIndex, direction);
+        }
+
+        @Override
+        public int getPartitionIndex() {
+            return partitionIndex;
+        }
+
+        @Override
+        public long getRowHi() {
+            return rowHi;
+        }
+
+        @Override
+        public long getRowLo() {
+            return rowLo;
+        }
+    }
+}
@@ -0,0 +1,116 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.cairo;
+
+import io.questdb.cairo.sql.DataFrameCursor;
+import io.questdb.cairo.sql.DataFrameCursorFactory;
+import io.questdb.griffin.PlanSink;
+import io.questdb.griffin.SqlException;
+import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.std.IntList;
+import io.questdb.std.Misc;
+import io.questdb.std.ObjList;
+import io.questdb.std.str.CharSink;
+
+/**
+ * Skips partitions and row blocks that cannot hold any of the values of equality
+ * or IN predicates on bloom filtered columns, see {@link BloomFilterDataFrameCursor}.
+ */
+public class BloomFilterDataFrameCursorFactory implements DataFrameCursorFactory {
+    private final DataFrameCursorFactory base;
+    private final ObjList<CharSequence> columnNames;
+    private final IntList columnIndexes;
+    private final ObjList<ObjList<String>> columnValues;
+    private BloomFilterDataFrameCursor fwdCursor;
+    private BloomFilterDataFrameCursor bwdCursor;
+
+    /**
+     * @param base          factory of the frames to narrow down
+     * @param columnNames   names of the filtered columns, used in query plan
+     * @param columnIndexes reader indexes of the filtered columns
+     * @param columnValues  non-null values of each filtered column, row matches when column holds any of them
+     */
+    public BloomFilterDataFrameCursorFactory(
+            DataFrameCursorFactory base,
+            ObjList<CharSequence> columnNames,
+            IntList columnIndexes,
+            ObjList<ObjList<String>> columnValues
+    ) {
+        this.base = base;
+        this.columnNames = columnNames;
+        this.columnIndexes = columnIndexes;
+        this.columnValues = columnValues;
+    }
+
+    @Override
+    public void close() {
+        Misc.free(base);
+    }
+
+    @Override
+    public DataFrameCursor getCursor(SqlExecutionContext executionContext, int order) throws SqlException {
+        final DataFrameCursor baseCursor = base.getCursor(executionContext, order);
+        if (order == ORDER_DESC || (order == ORDER_ANY && base.getOrder() == ORDER_DESC)) {
+            if (bwdCursor == null) {
+                bwdCursor = new BloomFilterDataFrameCursor(columnIndexes, columnValues, true);
+            }
+            return bwdCursor.of(baseCursor);
+        }
+
+        if (fwdCursor == null) {
+            fwdCursor = new BloomFilterDataFrameCursor(columnIndexes, columnValues, false);
+        }
+        return fwdCursor.of(baseCursor);
+    }
+
+    @Override
+    public int getOrder() {
+        return base.getOrder();
+    }
+
+    @Override
+    public boolean supportTableRowId(CharSequence tableName) {
+        return base.supportTableRowId(tableName);
+    }
+
+    @Override
+    public void toPlan(PlanSink sink) {
+        sink.type("BloomFilter");
+        sink.attr("columns");
+        for (int i = 0, n = columnNames.size(); i < n; i++) {
+            if (i > 0) {
+                sink.val(',');
+            }
+            sink.val(columnNames.getQuick(i));
+        }
+        sink.child(base);
+    }
+
+    @Override
+    public void toSink(CharSink sink) {
+        base.toSink(sink);
+    }
+}
@@ -0,0 +1,192 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.cairo;
+
+import io.questdb.std.*;
+import io.questdb.std.str.LPSZ;
+
+import java.io.Closeable;
+
+/**
+ * Read side of the per-partition bloom filter of column values. Filter file starts with
+ * a header, which is followed by equally sized blocks. Each block covers a range of
+ * consecutive partition rows, so that a query can skip both partitions and parts of
+ * large partitions that cannot contain the values it looks for.
+ * <p>
+ * Filter is only trusted when it has been built for the current partition row count
+ * and for the same column, otherwise {@link #of(FilesFacade, LPSZ, long, long)}
+ * reports the filter as missing.
+ */
+public class BloomFilterReader implements Closeable {
+    static final int HEADER_OFFSET_ROW_COUNT = 0;
+    static final int HEADER_OFFSET_COLUMN_HASH = 8;
+    static final int HEADER_OFFSET_BLOCK_ROW_COUNT = 16;
+    static final int HEADER_OFFSET_BLOCK_BIT_COUNT = 24;
+    static final int HEADER_OFFSET_BLOCK_COUNT = 32;
+    static final int HEADER_OFFSET_HASH_COUNT = 36;
+    static final int HEADER_SIZE = 64;
+    private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+    private static final long SYMBOL_SEED = 0x9e3779b97f4a7c15L;
+    private FilesFacade ff;
+    private long address;
+    private long size;
+    private long blockRowCount;
+    private long blockSize;
+    private long blockBitMask;
+    private int blockCount;
+    private int hashCount;
+
+    public BloomFilterReader() {
+    }
+
+    public static long hash(CharSequence value) {
+        long h = FNV_OFFSET_BASIS;
+        for (int i = 0, n = value.length(); i < n; i++) {
+            h ^= value.charAt(i);
+            h *= FNV_PRIME;
+        }
+        return Hash.hashLong64(h);
+    }
+
+    public static long hash(int symbolKey) {
+        return Hash.hashLong64(symbolKey ^ SYMBOL_SEED);
+    }
+
+    @Override
+    public void close() {
+        if (address != 0) {
+            ff.munmap(address, size, MemoryTag.MMAP_TABLE_READER);
+            address = 0;
+            size = 0;
+        }
+    }
+
+    public long getBlockRowCount() {
+        return blockRowCount;
+    }
+
+    public boolean isOpen() {
+        return address != 0;
+    }
+
+    /**
+     * Checks whether any of the rows in [rowLo, rowHi) might hold one of the values.
+     *
+     * @param rowLo  first partition row
+     * @param rowHi  partition row past the last one
+     * @param hashes value hashes, see {@link #hash(CharSequence)} and {@link #hash(int)}
+     * @return false when none of the rows holds any of the values, true when they might
+     */
+    public boolean mightContainAny(long rowLo, long rowHi, LongList hashes) {
+        if (rowLo >= rowHi) {
+            return false;
+        }
+        final long blockLo = rowLo / blockRowCount;
+        final long blockHi = Math.min((rowHi - 1) / blockRowCount, blockCount - 1);
+        for (long block = blockLo; block <= blockHi; block++) {
+            final long blockAddress = address + HEADER_SIZE + block * blockSize;
+            for (int i = 0, n = hashes.size(); i < n; i++) {
+                if (mightContain(blockAddress, blockBitMask, hashCount, hashes.getQuick(i))) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Maps filter file.
+     *
+     * @param ff                files facade
+     * @param path              path to the filter file
+     * @param partitionRowCount current row count of the partition
+     * @param columnHash        hash of the column the filter was built for
+     * @return true when filter exists and is up-to-date, false otherwise
+     */
+    public boolean of(FilesFacade ff, LPSZ path, long partitionRowCount, long columnHash) {
+        close();
+        this.ff = ff;
+        final long fd = ff.openRO(path);
+        if (fd < 0) {
+            return false;
+        }
+        try {
+            final long len = ff.length(fd);
+            if (len < HEADER_SIZE) {
+                return false;
+            }
+            address = TableUtils.mapRO(ff, fd, len, MemoryTag.MMAP_TABLE_READER);
+            size = len;
+        } catch (CairoException e) {
+            return false;
+        } finally {
+            ff.close(fd);
+        }
+
+        blockRowCount = Unsafe.getUnsafe().getLong(address + HEADER_OFFSET_BLOCK_ROW_COUNT);
+        final long blockBitCount = Unsafe.getUnsafe().getLong(address + HEADER_OFFSET_BLOCK_BIT_COUNT);
+        blockCount = Unsafe.getUnsafe().getInt(address + HEADER_OFFSET_BLOCK_COUNT);
+        hashCount = Unsafe.getUnsafe().getInt(address + HEADER_OFFSET_HASH_COUNT);
+        blockSize = blockBitCount >>> 3;
+        blockBitMask = blockBitCount - 1;
+        if (Unsafe.getUnsafe().getLong(address + HEADER_OFFSET_ROW_COUNT) != partitionRowCount
+                || Unsafe.getUnsafe().getLong(address + HEADER_OFFSET_COLUMN_HASH) != columnHash
+                || blockRowCount < 1
+                || blockBitCount < 64
+                || (blockBitCount & blockBitMask) != 0
+                || blockCount < 1
+                || hashCount < 1
+                || HEADER_SIZE + blockCount * blockSize > size
+        ) {
+            close();
+            return false;
+        }
+        return true;
+    }
+
+    static void add(long blockAddress, long blockBitMask, int hashCount, long hash) {
+        final long h2 = Hash.hashLong64(hash) | 1;
+        long bit = hash;
+        for (int i = 0; i < hashCount; i++) {
+            final long p = blockAddress + ((bit & blockBitMask) >>> 3);
+            Unsafe.getUnsafe().putByte(p, (byte) (Unsafe.getUnsafe().getByte(p) | (1 << (bit & 7))));
+            bit += h2;
+        }
+    }
+
+    static boolean mightContain(long blockAddress, long blockBitMask, int hashCount, long hash) {
+        final long h2 = Hash.hashLong64(hash) | 1;
+        long bit = hash;
+        for (int i = 0; i < hashCount; i++) {
+            if ((Unsafe.getUnsafe().getByte(blockAddress + ((bit & blockBitMask) >>> 3)) & (1 << (bit & 7))) == 0) {
+                return false;
+            }
+            bit += h2;
+        }
+        return true;
+    }
+}
@@ -0,0 +1,225 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.cairo;
+
+import io.questdb.cairo.sql.SymbolTable;
+import io.questdb.cairo.vm.Vm;
+import io.questdb.cairo.vm.api.MemoryMR;
+import io.questdb.log.Log;
+import io.questdb.log.LogFactory;
+import io.questdb.std.*;
+import io.questdb.std.str.Path;
+
+import java.io.Closeable;
+
+import static io.questdb.cairo.BloomFilterReader.*;
+
+/**
+ * Builds bloom filter of column values for a partition, see {@link BloomFilterReader}
+ * for the file layout. Filter is written to a temporary file first and then renamed,
+ * so that readers never see a partially written filter.
+ */
+class BloomFilterWriter implements Closeable {
+    static final int BITS_PER_VALUE = 10;
+    static final int HASH_COUNT = 7;
+    private static final Log LOG = LogFactory.getLog(BloomFilterWriter.class);
+    private final FilesFacade ff;
+    private final long blockRowCount;
+    private final long fileOpenOpts;
+    private final MemoryMR dataMem = Vm.getMRInstance();
+    private final MemoryMR indexMem = Vm.getMRInstance();
+    private final Path filePath = new Path();
+    private final Path tmpPath = new Path();
+    private long buf;
+    private long bufSize;
+
+    BloomFilterWriter(CairoConfiguration configuration) {
+        this.ff = configuration.getFilesFacade();
+        this.blockRowCount = configuration.getBloomFilterBlockRowCount();
+        this.fileOpenOpts = configuration.getWriterFileOpenOpts();
+    }
+
+    @Override
+    public void close() {
+        Misc.free(dataMem);
+        Misc.free(indexMem);
+        Misc.free(filePath);
+        Misc.free(tmpPath);
+        if (buf != 0) {
+            buf = Unsafe.free(buf, bufSize, MemoryTag.NATIVE_TABLE_WRITER);
+            bufSize = 0;
+        }
+    }
+
+    /**
+     * Checks header of the existing filter file.
+     *
+     * @return true when partition has a filter built for its current row count
+     */
+    boolean exists(Path partitionPath, CharSequence columnName, long columnNameTxn, long columnHash, long partitionRowCount) {
+        filePath.of(partitionPath);
+        final long fd = ff.openRO(TableUtils.bloomFilterFile(filePath, columnName, columnNameTxn));
+        if (fd < 0) {
+            return false;
+        }
+        try {
+            ensureBuf(HEADER_SIZE);
+            return ff.read(fd, buf, HEADER_SIZE, 0) == HEADER_SIZE
+                    && Unsafe.getUnsafe().getLong(buf + HEADER_OFFSET_ROW_COUNT) == partitionRowCount
+                    && Unsafe.getUnsafe().getLong(buf + HEADER_OFFSET_COLUMN_HASH) == columnHash;
+        } finally {
+            ff.close(fd);
+        }
+    }
+
+    void remove(Path partitionPath, CharSequence columnName, long columnNameTxn) {
+        filePath.of(partitionPath);
+        if (!ff.remove(TableUtils.bloomFilterFile(filePath, columnName, columnNameTxn)) && ff.exists(filePath)) {
+            LOG.error().$("could not remove bloom filter [path=").utf8(filePath).$(", errno=").$(ff.errno()).I$();
+        }
+    }
+
+    /**
+     * Writes filter of the column values in the partition, replacing the existing one.
+     *
+     * @param partitionPath     path to the partition directory
+     * @param columnTop         column top in the partition, -1 when partition does not have the column
+     * @param partitionRowCount row count of the partition
+     */
+    void write(
+            Path partitionPath,
+            CharSequence columnName,
+            long columnNameTxn,
+            int columnType,
+            long columnHash,
+            long columnTop,
+            long partitionRowCount
+    ) {
+        final long effectiveBlockRowCount = Math.max(1, Math.min(blockRowCount, partitionRowCount));
+        final long blockCount = (partitionRowCount + effectiveBlockRowCount - 1) / effectiveBlockRowCount;
+        final long blockBitCount = Numbers.ceilPow2(Math.max(64, effectiveBlockRowCount * BITS_PER_VALUE));
+        final long blockBitMask = blockBitCount - 1;
+        final long blockSize = blockBitCount >>> 3;
+        final long dataRowLo = columnTop < 0 ? partitionRowCount : columnTop;
+        final int plen = partitionPath.length();
+
+        tmpPath.of(partitionPath);
+        TableUtils.bloomFilterFile(tmpPath, columnName, columnNameTxn);
+        tmpPath.chop$().put(".tmp").$();
+        try {
+            mapColumn(partitionPath, columnName, columnNameTxn, columnType, partitionRowCount - dataRowLo);
+            ensureBuf(Math.max(HEADER_SIZE, blockSize));
+
+            final long fd = TableUtils.openRW(ff, tmpPath, LOG, fileOpenOpts);
+            try {
+                long offset = HEADER_SIZE;
+                for (long block = 0; block < blockCount; block++) {
+                    Vect.memset(buf, blockSize, 0);
+                    final long rowLo = Math.max(dataRowLo, block * effectiveBlockRowCount);
+                    final long rowHi = Math.min(partitionRowCount, (block + 1) * effectiveBlockRowCount);
+                    for (long row = rowLo; row < rowHi; row++) {
+                        final long r = row - dataRowLo;
+                        if (ColumnType.isSymbol(columnType)) {
+                            final int key = dataMem.getInt(r << 2);
+                            if (key != SymbolTable.VALUE_IS_NULL) {
+                                add(buf, blockBitMask, HASH_COUNT, hash(key));
+                            }
+                        } else {
+                            final CharSequence value = dataMem.getStr(indexMem.getLong(r << 3));
+                            if (value != null) {
+                                add(buf, blockBitMask, HASH_COUNT, hash(value));
+                            }
+                        }
+                    }
+                    writeOrException(fd, blockSize, offset);
+                    offset += blockSize;
+                }
+
+                Vect.memset(buf, HEADER_SIZE, 0);
+                Unsafe.getUnsafe().putLong(buf + HEADER_OFFSET_ROW_COUNT, partitionRowCount);
+                Unsafe.getUnsafe().putLong(buf + HEADER_OFFSET_COLUMN_HASH, columnHash);
+                Unsafe.getUnsafe().putLong(buf + HEADER_OFFSET_BLOCK_ROW_COUNT, effectiveBlockRowCount);
+                Unsafe.getUnsafe().putLong(buf + HEADER_OFFSET_BLOCK_BIT_COUNT, blockBitCount);
+                Unsafe.getUnsafe().putInt(buf + HEADER_OFFSET_BLOCK_COUNT, (int) blockCount);
+                Unsafe.getUnsafe().putInt(buf + HEADER_OFFSET_HASH_COUNT, HASH_COUNT);
+                writeOrException(fd, HEADER_SIZE, 0);
+                ff.truncate(fd, offset);
+            } finally {
+                ff.close(fd);
+            }
+
+            filePath.of(partitionPath);
+            TableUtils.bloomFilterFile(filePath, columnName, columnNameTxn);
+            if (ff.exists(filePath) && !ff.remove(filePath)) {
+                throw CairoException.critical(ff.errno()).put("could not remove bloom filter [path=").put(filePath).put(']');
+            }
+            if (ff.rename(tmpPath, filePath) != Files.FILES_RENAME_OK) {
+                throw CairoException.critical(ff.errno()).put("could not rename bloom filter [from=").put(tmpPath).put(", to=").put(filePath).put(']');
+            }
+        } catch (Throwable e) {
+            ff.remove(tmpPath);
+            throw e;
+        } finally {
+            dataMem.close();
+            indexMem.close();
+            partitionPath.trimTo(plen);
+        }
+    }
+
+    private void ensureBuf(long size) {
+        if (bufSize < size) {
+            buf = Unsafe.realloc(buf, bufSize, size, MemoryTag.NATIVE_TABLE_WRITER);
+            bufSize = size;
+        }
+    }
+
+    private void mapColumn(Path partitionPath, CharSequence columnName, long columnNameTxn, int columnType, long rowCount) {
+        if (rowCount < 1) {
+            return;
+        }
+        final int plen = partitionPath.length();
+        try {
+            if (ColumnType.isSymbol(columnType)) {
+                final long size = rowCount << 2;
+                dataMem.of(ff, TableUtils.dFile(partitionPath, columnName, columnNameTxn), size, size, MemoryTag.MMAP_TABLE_WRITER);
+            } else {
+                final long indexSize = (rowCount + 1) << 3;
+                indexMem.of(ff, TableUtils.iFile(partitionPath, columnName, columnNameTxn), indexSize, indexSize, MemoryTag.MMAP_TABLE_WRITER);
+                partitionPath.trimTo(plen);
+                final long dataSize = indexMem.getLong(rowCount << 3);
+                dataMem.of(ff, TableUtils.dFile(partitionPath, columnName, columnNameTxn), dataSize, dataSize, MemoryTag.MMAP_TABLE_WRITER);
+            }
+        } finally {
+            partitionPath.trimTo(plen);
+        }
+    }
+
+    private void writeOrException(long fd, long len, long offset) {
+        if (ff.write(fd, buf, len, offset) != len) {
+            throw CairoException.critical(ff.errno()).put("could not write bloom filter [path=").put(tmpPath).put(", offset=").put(offset).put(']');
+        }
+    }
+}
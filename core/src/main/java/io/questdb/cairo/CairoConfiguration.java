@@ -71,6 +71,14 @@ public interface CairoConfiguration {
 
     int getBindVariablePoolSize();
 
+    /**
+     * Large partitions have a separate bloom filter per block of rows, so that queries
+     * can skip parts of a partition, not only the whole partition.
+     *
+     * @return number of partition rows covered by a single bloom filter block
+     */
+    int getBloomFilterBlockRowCount();
+
     BuildInformation getBuildInformation();
 
     SqlExecutionCircuitBreakerConfiguration getCircuitBreakerConfiguration();
@@ -143,6 +151,14 @@ public interface CairoConfiguration {
         return IOURingFacadeImpl.INSTANCE;
     }
 
+    /**
+     * Number of the most recent rows per table to keep in memory for queries with a
+     * timestamp interval. Zero disables the cache.
+     *
+     * @return hot cache row count per table
+     */
+    long getHotCacheRowCount();
+
     long getIdleCheckInterval();
 
     long getInactiveReaderTTL();
@@ -157,6 +173,14 @@ public interface CairoConfiguration {
 
     int getMaxCrashFiles();
 
+    /**
+     * Interval between refreshes of materialized views, in milliseconds. Each refresh re-aggregates
+     * base table data committed since the previous one.
+     *
+     * @return materialized view refresh interval in milliseconds
+     */
+    long getMatViewRefreshInterval();
+
     int getMaxFileNameLength();
 
     int getMaxSwapFileCount();
@@ -210,6 +234,13 @@ public interface CairoConfiguration {
 
     int getPartitionPurgeListCapacity();
 
+    /**
+     * Interval between checks for partitions that outlived table TTL, in milliseconds.
+     *
+     * @return partition retention check interval in milliseconds
+     */
+    long getPartitionRetentionCheckInterval();
+
     int getQueryCacheEventQueueCapacity();
 
     default Rnd getRandom() {
@@ -225,6 +256,22 @@ public interface CairoConfiguration {
 
     int getReaderPoolMaxSegments();
 
+    /**
+     * Number of readers opened for each of the pre-warmed tables.
+     *
+     * @return reader count per pre-warmed table
+     * @see #getReaderPoolPrewarmTables()
+     */
+    int getReaderPoolPrewarmCount();
+
+    /**
+     * List of tables which should have readers opened on engine startup, so that the first
+     * queries do not pay for full reader open.
+     *
+     * @return names of the tables to pre-warm readers for
+     */
+    ObjList<String> getReaderPoolPrewarmTables();
+
     int getRenameTableModelPoolCapacity();
 
     int getReplaceFunctionMaxBufferLength();
@@ -342,6 +389,16 @@ public interface CairoConfiguration {
 
     int getSqlMapPageSize();
 
+    int getSqlMapSpillPartitionCount();
+
+    CharSequence getSqlMapSpillRoot(); // same as root/../tmp
+
+    /**
+     * Native memory, in bytes, a GROUP BY map may hold before records with new keys are spilled
+     * to disk. Zero disables spilling.
+     */
+    long getSqlMapSpillThreshold();
+
     int getSqlMaxNegativeLimit();
 
     int getSqlModelPoolCapacity();
@@ -350,6 +407,25 @@ public interface CairoConfiguration {
 
     int getSqlPageFrameMinRows();
 
+    int getSqlParallelLatestByMinChunkSize();
+
+    /**
+     * Native memory, in bytes, a single query may allocate for its maps, record chains and
+     * sort trees. Zero disables the limit.
+     */
+    long getSqlQueryMemoryLimit();
+
+    /**
+     * Native memory, in bytes, all running queries may hold together before new queries
+     * are queued. Zero disables admission control.
+     */
+    long getSqlQueryMemoryPoolSize();
+
+    /**
+     * Default priority of queries, one of {@link SqlQueryPriority} constants.
+     */
+    int getSqlQueryPriority();
+
     int getSqlSmallMapKeyCapacity();
 
     int getSqlSortKeyMaxPages();
@@ -398,6 +474,33 @@ public interface CairoConfiguration {
 
     boolean isParallelIndexingEnabled();
 
+    /**
+     * A flag to detach partitions that outlived table TTL instead of dropping them. Detached
+     * partitions are kept on disk and can be attached back. Defaults to {@code false}.
+     *
+     * @return enable/disable detach of expired partitions flag
+     */
+    boolean isPartitionRetentionDetachEnabled();
+
+    /**
+     * Flag to switch reader pool eviction from idle timeouts to observed concurrency. When enabled,
+     * idle readers are kept open as long as the table needs them to serve the peak number of
+     * concurrent readers observed since the previous idle check.
+     *
+     * @return true when adaptive reader eviction is enabled
+     */
+    boolean isReaderPoolAdaptiveEvictionEnabled();
+
+    /**
+     * A flag to enable/disable incremental snapshots. When enabled, SNAPSHOT PREPARE copies table
+     * partitions into the snapshot directory along with the metadata files. Partitions that did
+     * not change since the previous snapshot are kept as they are, so only changed partitions are
+     * copied. Defaults to {@code false}.
+     *
+     * @return enable/disable incremental snapshot flag
+     */
+    boolean isSnapshotIncrementalEnabled();
+
     /**
      * A flag to enable/disable snapshot recovery mechanism. Defaults to {@code true}.
      *
@@ -410,4 +513,6 @@ public interface CairoConfiguration {
     boolean isSqlParallelFilterEnabled();
 
     boolean isSqlParallelFilterPreTouchEnabled();
+
+    boolean isSqlParallelLatestByEnabled();
 }
@@ -41,6 +41,8 @@ import io.questdb.mp.*;
 import io.questdb.std.Files;
 import io.questdb.std.FilesFacade;
 import io.questdb.std.Misc;
+import io.questdb.std.ObjList;
+import io.questdb.std.QueryMemoryAccount;
 import io.questdb.std.Transient;
 import io.questdb.std.datetime.microtime.MicrosecondClock;
 import io.questdb.std.str.Path;
@@ -70,6 +72,9 @@ public class CairoEngine implements Closeable, WriterSource, WalWriterSource {
     private final AtomicLong asyncCommandCorrelationId = new AtomicLong();
     private final IDGenerator tableIdGenerator;
     private final TableRegistry tableRegistry;
+    private final HotTableCacheRegistry hotTableCaches;
+    private final MatViewRegistry matViewRegistry;
+    private final TableTtlRegistry tableTtlRegistry;
 
     private final TextImportExecutionContext textImportExecutionContext;
     // Kept for embedded API purposes. The second constructor (the one with metrics)
@@ -84,9 +89,13 @@ public class CairoEngine implements Closeable, WriterSource, WalWriterSource {
         this.metrics = metrics;
         this.tableRegistry = new TableRegistry(this);
         this.messageBus = new MessageBusImpl(configuration);
-        this.writerPool = new WriterPool(configuration, messageBus, metrics);
-        this.readerPool = new ReaderPool(configuration, messageBus);
+        this.hotTableCaches = configuration.getHotCacheRowCount() > 0 ? new HotTableCacheRegistry(configuration) : null;
+        this.writerPool = new WriterPool(configuration, messageBus, metrics, hotTableCaches);
+        this.readerPool = new ReaderPool(configuration, messageBus, metrics);
         this.engineMaintenanceJob = new EngineMaintenanceJob(configuration);
+        this.matViewRegistry = new MatViewRegistry(configuration);
+        this.tableTtlRegistry = new TableTtlRegistry(configuration);
+        QueryMemoryAccount.setPoolSize(configuration.getSqlQueryMemoryPoolSize());
         if (configuration.getTelemetryConfiguration().getEnabled()) {
             this.telemetryQueue = new RingQueue<>(TelemetryTask::new, configuration.getTelemetryConfiguration().getQueueCapacity());
             this.telemetryPubSeq = new MPSequence(telemetryQueue.getCycle());
@@ -118,11 +127,15 @@ public class CairoEngine implements Closeable, WriterSource, WalWriterSource {
             close();
             throw e;
         }
+        // Open readers ahead of the first queries.
+        prewarmReaders();
     }
 
     @TestOnly
     public boolean clear() {
         tableRegistry.clear();
+        matViewRegistry.clear();
+        tableTtlRegistry.clear();
         boolean b1 = readerPool.releaseAll();
         boolean b2 = writerPool.releaseAll();
         return b1 & b2;
@@ -132,6 +145,7 @@ public class CairoEngine implements Closeable, WriterSource, WalWriterSource {
     public void close() {
         Misc.free(writerPool);
         Misc.free(readerPool);
+        Misc.free(hotTableCaches);
         Misc.free(tableIdGenerator);
         Misc.free(messageBus);
         Misc.free(telemetryQueue);
@@ -234,6 +248,21 @@ public class CairoEngine implements Closeable, WriterSource, WalWriterSource {
         return engineMaintenanceJob;
     }
 
+    /**
+     * Returns in-memory cache of recent rows of the table.
+     *
+     * @param tableName name of the table
+     * @return cache or null when caching is disabled or the table has not been written to yet
+     */
+    @Nullable
+    public HotTableCache getHotTableCache(CharSequence tableName) {
+        return hotTableCaches != null ? hotTableCaches.get(tableName) : null;
+    }
+
+    public MatViewRegistry getMatViewRegistry() {
+        return matViewRegistry;
+    }
+
     public MessageBus getMessageBus() {
         return messageBus;
     }
@@ -250,6 +279,10 @@ public class CairoEngine implements Closeable, WriterSource, WalWriterSource {
         return tableIdGenerator;
     }
 
+    public TableTtlRegistry getTableTtlRegistry() {
+        return tableTtlRegistry;
+    }
+
     public void setPoolListener(PoolListener poolListener) {
         this.writerPool.setPoolListener(poolListener);
         this.readerPool.setPoolListener(poolListener);
@@ -417,6 +450,22 @@ public class CairoEngine implements Closeable, WriterSource, WalWriterSource {
         writerPool.releaseAll();
     }
 
+    public void prewarmReaders() {
+        final ObjList<String> tableNames = configuration.getReaderPoolPrewarmTables();
+        final int count = configuration.getReaderPoolPrewarmCount();
+        for (int i = 0, n = tableNames.size(); i < n; i++) {
+            final String tableName = tableNames.getQuick(i);
+            try {
+                readerPool.prewarm(tableName, count);
+            } catch (CairoException e) {
+                LOG.error().$("could not prewarm readers [table=").$(tableName)
+                        .$(", error=").$(e.getFlyweightMessage())
+                        .$(", errno=").$(e.getErrno())
+                        .I$();
+            }
+        }
+    }
+
     public boolean releaseInactive() {
         boolean useful = writerPool.releaseInactive();
         useful |= readerPool.releaseInactive();
@@ -439,6 +488,9 @@ public class CairoEngine implements Closeable, WriterSource, WalWriterSource {
                     LOG.error().$("remove failed [tableName='").utf8(tableName).$("', error=").$(errno).$(']').$();
                     throw CairoException.critical(errno).put("Table remove failed");
                 }
+                removeHotTableCache(tableName);
+                matViewRegistry.unregister(tableName);
+                tableTtlRegistry.unregister(tableName);
                 return;
             } finally {
                 unlock(securityContext, tableName, null, false);
@@ -469,6 +521,9 @@ public class CairoEngine implements Closeable, WriterSource, WalWriterSource {
         if (null == lockedReason) {
             try {
                 rename0(path, tableName, otherPath, newName);
+                removeHotTableCache(tableName);
+                matViewRegistry.rename(tableName, newName);
+                tableTtlRegistry.rename(tableName, newName);
             } finally {
                 unlock(securityContext, tableName, null, false);
             }
@@ -513,6 +568,12 @@ public class CairoEngine implements Closeable, WriterSource, WalWriterSource {
         }
     }
 
+    private void removeHotTableCache(CharSequence tableName) {
+        if (hotTableCaches != null) {
+            hotTableCaches.remove(tableName);
+        }
+    }
+
     private void rename0(Path path, CharSequence tableName, Path otherPath, CharSequence to) {
         final FilesFacade ff = configuration.getFilesFacade();
         final CharSequence root = configuration.getRoot();
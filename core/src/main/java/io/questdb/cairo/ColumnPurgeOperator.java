@@ -297,6 +297,15 @@ public class ColumnPurgeOperator implements Closeable {
                         continue;
                     }
                 }
+
+                if (ColumnType.isSymbol(task.getColumnType()) || ColumnType.isString(task.getColumnType())) {
+                    path.trimTo(pathTrimToPartition);
+                    TableUtils.bloomFilterFile(path, task.getColumnName(), columnVersion);
+                    if (couldNotRemove(ff, path)) {
+                        allDone = false;
+                        continue;
+                    }
+                }
                 completedRowIds.add(updateRowId);
             }
         } finally {
@@ -40,9 +40,11 @@ import io.questdb.std.datetime.millitime.MillisecondClockImpl;
 
 public class DefaultCairoConfiguration implements CairoConfiguration {
 
+    private static final ObjList<String> EMPTY_PREWARM_TABLES = new ObjList<>();
     private final CharSequence root;
     private final CharSequence confRoot;
     private final CharSequence snapshotRoot;
+    private final CharSequence mapSpillRoot;
 
     private final TextConfiguration textConfiguration;
     private final DefaultTelemetryConfiguration telemetryConfiguration = new DefaultTelemetryConfiguration();
@@ -58,6 +60,7 @@ public class DefaultCairoConfiguration implements CairoConfiguration {
         this.confRoot = PropServerConfiguration.rootSubdir(root, PropServerConfiguration.CONFIG_DIRECTORY);
         this.textConfiguration = new DefaultTextConfiguration(Chars.toString(confRoot));
         this.snapshotRoot = PropServerConfiguration.rootSubdir(root, PropServerConfiguration.SNAPSHOT_DIRECTORY);
+        this.mapSpillRoot = PropServerConfiguration.rootSubdir(root, PropServerConfiguration.TMP_DIRECTORY);
         Rnd rnd = new Rnd(NanosecondClockImpl.INSTANCE.getTicks(), MicrosecondClockImpl.INSTANCE.getTicks());
         this.databaseIdLo = rnd.nextLong();
         this.databaseIdHi = rnd.nextLong();
@@ -113,6 +116,11 @@ public class DefaultCairoConfiguration implements CairoConfiguration {
         return 8;
     }
 
+    @Override
+    public int getBloomFilterBlockRowCount() {
+        return 1_000_000;
+    }
+
     @Override
     public BuildInformation getBuildInformation() {
         return buildInformation;
@@ -168,11 +176,26 @@ public class DefaultCairoConfiguration implements CairoConfiguration {
         return 10_000;
     }
 
+    @Override
+    public long getMatViewRefreshInterval() {
+        return 1000;
+    }
+
     @Override
     public int getMaxFileNameLength() {
         return 127;
     }
 
+    @Override
+    public int getReaderPoolPrewarmCount() {
+        return 1;
+    }
+
+    @Override
+    public ObjList<String> getReaderPoolPrewarmTables() {
+        return EMPTY_PREWARM_TABLES;
+    }
+
     @Override
     public int getSqlCopyQueueCapacity() {
         return 32;
@@ -188,11 +211,41 @@ public class DefaultCairoConfiguration implements CairoConfiguration {
         return "";
     }
 
+    @Override
+    public int getSqlParallelLatestByMinChunkSize() {
+        return 64 * 1024;
+    }
+
+    @Override
+    public long getSqlQueryMemoryLimit() {
+        return 0;
+    }
+
+    @Override
+    public long getSqlQueryMemoryPoolSize() {
+        return 0;
+    }
+
+    @Override
+    public int getSqlQueryPriority() {
+        return SqlQueryPriority.PRIORITY_NORMAL;
+    }
+
     @Override
     public CharSequence getSystemTableNamePrefix() {
         return "__sys";
     }
 
+    @Override
+    public boolean isReaderPoolAdaptiveEvictionEnabled() {
+        return false;
+    }
+
+    @Override
+    public boolean isSnapshotIncrementalEnabled() {
+        return false;
+    }
+
     @Override
     public boolean isSnapshotRecoveryEnabled() {
         return true;
@@ -298,6 +351,11 @@ public class DefaultCairoConfiguration implements CairoConfiguration {
         return 1024;
     }
 
+    @Override
+    public long getHotCacheRowCount() {
+        return 0;
+    }
+
     @Override
     public long getIdleCheckInterval() {
         return 100;
@@ -453,6 +511,11 @@ public class DefaultCairoConfiguration implements CairoConfiguration {
         return 64;
     }
 
+    @Override
+    public long getPartitionRetentionCheckInterval() {
+        return 60_000;
+    }
+
     @Override
     public int getReaderPoolMaxSegments() {
         return 5;
@@ -680,6 +743,21 @@ public class DefaultCairoConfiguration implements CairoConfiguration {
         return 16 * Numbers.SIZE_1MB;
     }
 
+    @Override
+    public int getSqlMapSpillPartitionCount() {
+        return 16;
+    }
+
+    @Override
+    public CharSequence getSqlMapSpillRoot() {
+        return mapSpillRoot;
+    }
+
+    @Override
+    public long getSqlMapSpillThreshold() {
+        return 0;
+    }
+
     @Override
     public int getSqlModelPoolCapacity() {
         return 1024;
@@ -804,6 +882,11 @@ public class DefaultCairoConfiguration implements CairoConfiguration {
         return true;
     }
 
+    @Override
+    public boolean isPartitionRetentionDetachEnabled() {
+        return false;
+    }
+
     @Override
     public boolean isSqlJitDebugEnabled() {
         return false;
@@ -838,4 +921,9 @@ public class DefaultCairoConfiguration implements CairoConfiguration {
     public int getMaxCrashFiles() {
         return 1;
     }
+
+    @Override
+    public boolean isSqlParallelLatestByEnabled() {
+        return true;
+    }
 }
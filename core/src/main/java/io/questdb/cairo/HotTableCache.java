@@ -0,0 +1,506 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.cairo;
+
+import io.questdb.cairo.sql.StaticSymbolTable;
+import io.questdb.cairo.sql.SymbolTable;
+import io.questdb.cairo.vm.api.MemoryMA;
+import io.questdb.log.Log;
+import io.questdb.log.LogFactory;
+import io.questdb.std.*;
+
+import java.io.Closeable;
+import java.util.Arrays;
+
+/**
+ * In-memory copy of the most recent rows of a table. {@link TableWriter} copies rows into the
+ * cache as they are appended in timestamp order, and the rows become visible to readers when
+ * the writer commits. Any other change to the table, e.g. O3 commit, truncate, partition or
+ * column change, clears the cache and it starts filling again from the next append.
+ * <p>
+ * Only fixed size columns are cached. Rows are kept in blocks of native memory, each block holds
+ * the same row range of every cached column. Readers take a {@link Snapshot}, which pins blocks
+ * it refers to, so that the writer can evict old blocks without waiting for queries to finish.
+ * <p>
+ * Writer side methods are called from the thread that owns the writer. Block list and published
+ * row counts are guarded by the cache monitor.
+ */
+public class HotTableCache implements Closeable {
+    private static final Log LOG = LogFactory.getLog(HotTableCache.class);
+    private final String tableName;
+    private final long maxRowCount;
+    private final long blockRowCount;
+    private final ObjList<Block> blocks = new ObjList<>();
+    private final IntList slotWriterIndexes = new IntList();
+    private final IntList slotShifts = new IntList();
+    private final IntList writerIndexSlots = new IntList();
+    private final ObjList<Symbols> slotSymbols = new ObjList<>();
+    private int slotCount;
+    private int timestampSlot = -1;
+    private int tableId;
+    // structure version the layout is built for, -1 when layout has to be rebuilt
+    private long structureVersion = -1;
+    private long pendingRowCount;
+    private long rowCount;
+
+    public HotTableCache(CharSequence tableName, long maxRowCount, long blockRowCount) {
+        this.tableName = Chars.toString(tableName);
+        this.maxRowCount = maxRowCount;
+        this.blockRowCount = Math.max(1, Math.min(maxRowCount, blockRowCount));
+    }
+
+    /**
+     * Pins currently published rows for reading.
+     *
+     * @param snapshot         snapshot to populate, it must be closed to release the rows
+     * @param tableId          id of the table the query was compiled for
+     * @param structureVersion structure version of the table the query was compiled for
+     * @param writerIndexes    writer indexes of the columns the query reads
+     * @param timestampLo      the lowest timestamp the query reads
+     * @return true when the cache holds every table row with timestamp at or above timestampLo,
+     * otherwise snapshot is left empty and the query has to read the table
+     */
+    public synchronized boolean acquire(Snapshot snapshot, int tableId, long structureVersion, IntList writerIndexes, long timestampLo) {
+        if (rowCount == 0 || this.tableId != tableId || this.structureVersion != structureVersion) {
+            return false;
+        }
+
+        // rows equal to the first cached timestamp may also live in the table outside the cache
+        final Block head = blocks.getQuick(0);
+        if (Unsafe.getUnsafe().getLong(head.addresses.getQuick(timestampSlot)) >= timestampLo) {
+            return false;
+        }
+
+        snapshot.clear();
+        for (int i = 0, n = writerIndexes.size(); i < n; i++) {
+            final int writerIndex = writerIndexes.getQuick(i);
+            final int slot = writerIndex < writerIndexSlots.size() ? writerIndexSlots.getQuick(writerIndex) : -1;
+            if (slot < 0) {
+                snapshot.clear();
+                return false;
+            }
+            snapshot.columnSlots.add(slot);
+            final Symbols symbols = slotSymbols.getQuick(slot);
+            snapshot.symbolValues.add(symbols != null ? symbols.values : null);
+            snapshot.symbolCounts.add(symbols != null ? symbols.publishedCount : 0);
+            snapshot.symbolNullFlags.add(symbols != null && symbols.publishedNullValue);
+        }
+
+        for (int i = 0, n = blocks.size(); i < n; i++) {
+            final Block block = blocks.getQuick(i);
+            if (block.publishedRowCount == 0) {
+                break;
+            }
+            block.refCount++;
+            snapshot.blocks.add(block);
+            snapshot.blockRowCounts.add(block.publishedRowCount);
+        }
+        snapshot.timestampSlot = timestampSlot;
+        snapshot.cache = this;
+        return true;
+    }
+
+    /**
+     * Drops all rows, including the ones pending commit. Layout of the cache is rebuilt
+     * on the next append.
+     */
+    public void clear() {
+        synchronized (this) {
+            for (int i = 0, n = blocks.size(); i < n; i++) {
+                evict(blocks.getQuick(i));
+            }
+            blocks.clear();
+            rowCount = 0;
+        }
+        pendingRowCount = 0;
+        structureVersion = -1;
+    }
+
+    @Override
+    public void close() {
+        clear();
+    }
+
+    public synchronized long getRowCount() {
+        return rowCount;
+    }
+
+    public String getTableName() {
+        return tableName;
+    }
+
+    private static void copyValue(long src, long dst, int shift) {
+        switch (shift) {
+            case 0:
+                Unsafe.getUnsafe().putByte(dst, Unsafe.getUnsafe().getByte(src));
+                break;
+            case 1:
+                Unsafe.getUnsafe().putShort(dst, Unsafe.getUnsafe().getShort(src));
+                break;
+            case 2:
+                Unsafe.getUnsafe().putInt(dst, Unsafe.getUnsafe().getInt(src));
+                break;
+            case 3:
+                Unsafe.getUnsafe().putLong(dst, Unsafe.getUnsafe().getLong(src));
+                break;
+            default:
+                Vect.memcpy(dst, src, 1L << shift);
+                break;
+        }
+    }
+
+    private Block addBlock() {
+        final Block block = new Block();
+        try {
+            for (int slot = 0; slot < slotCount; slot++) {
+                final long size = blockRowCount << slotShifts.getQuick(slot);
+                block.addresses.add(Unsafe.malloc(size, MemoryTag.NATIVE_DEFAULT));
+                block.sizes.add(size);
+            }
+        } catch (Throwable e) {
+            block.free();
+            throw e;
+        }
+        synchronized (this) {
+            blocks.add(block);
+        }
+        return block;
+    }
+
+    private void evict(Block block) {
+        block.evicted = true;
+        if (block.refCount == 0) {
+            block.free();
+        }
+    }
+
+    private synchronized void release(Snapshot snapshot) {
+        for (int i = 0, n = snapshot.blocks.size(); i < n; i++) {
+            final Block block = snapshot.blocks.getQuick(i);
+            if (--block.refCount == 0 && block.evicted) {
+                block.free();
+            }
+        }
+    }
+
+    /**
+     * Copies the row that has just been appended to writer's column memory.
+     */
+    void appendRow(ObjList<MemoryMA> columns) {
+        if (slotCount == 0) {
+            return;
+        }
+        Block block = blocks.size() > 0 ? blocks.getLast() : null;
+        if (block == null || block.rowCount == blockRowCount) {
+            block = addBlock();
+        }
+        final long row = block.rowCount;
+        for (int slot = 0; slot < slotCount; slot++) {
+            final MemoryMA mem = columns.getQuick(TableWriter.getPrimaryColumnIndex(slotWriterIndexes.getQuick(slot)));
+            final int shift = slotShifts.getQuick(slot);
+            final long src = mem.addressOf(mem.getAppendOffset() - (1L << shift));
+            copyValue(src, block.addresses.getQuick(slot) + (row << shift), shift);
+        }
+        block.rowCount++;
+        pendingRowCount++;
+    }
+
+    /**
+     * Publishes rows appended since the last commit.
+     *
+     * @param committedRowCount number of rows the writer has committed
+     * @param symbolMapWriters  writer's symbol map writers to copy new symbol values from
+     */
+    void commit(long committedRowCount, ObjList<MapWriter> symbolMapWriters) {
+        if (pendingRowCount != committedRowCount) {
+            // rows were appended bypassing the row API, e.g. as page frames
+            LOG.info().$("cleared [table=").$(tableName)
+                    .$(", cached=").$(pendingRowCount)
+                    .$(", committed=").$(committedRowCount)
+                    .I$();
+            clear();
+            return;
+        }
+
+        if (pendingRowCount == 0) {
+            return;
+        }
+
+        for (int slot = 0; slot < slotCount; slot++) {
+            final Symbols symbols = slotSymbols.getQuick(slot);
+            if (symbols != null) {
+                symbols.copyFrom(symbolMapWriters.getQuick(slotWriterIndexes.getQuick(slot)));
+            }
+        }
+
+        synchronized (this) {
+            for (int i = blocks.size() - 1; i > -1; i--) {
+                final Block block = blocks.getQuick(i);
+                if (block.publishedRowCount == block.rowCount) {
+                    break;
+                }
+                block.publishedRowCount = block.rowCount;
+            }
+            for (int slot = 0; slot < slotCount; slot++) {
+                final Symbols symbols = slotSymbols.getQuick(slot);
+                if (symbols != null) {
+                    symbols.publishedCount = symbols.count;
+                    symbols.publishedNullValue = symbols.nullValue;
+                }
+            }
+            rowCount += pendingRowCount;
+
+            while (blocks.size() > 1 && rowCount - blocks.getQuick(0).publishedRowCount >= maxRowCount) {
+                final Block block = blocks.getQuick(0);
+                rowCount -= block.publishedRowCount;
+                blocks.remove(0);
+                evict(block);
+            }
+        }
+        pendingRowCount = 0;
+    }
+
+    long getStructureVersion() {
+        return structureVersion;
+    }
+
+    /**
+     * Rebuilds the layout from writer metadata. Cached rows are dropped.
+     */
+    void of(TableWriterMetadata metadata, long structureVersion) {
+        clear();
+        slotWriterIndexes.clear();
+        slotShifts.clear();
+        slotSymbols.clear();
+        writerIndexSlots.setAll(metadata.getColumnCount(), -1);
+        timestampSlot = -1;
+        slotCount = 0;
+
+        if (metadata.getTimestampIndex() > -1) {
+            for (int i = 0, n = metadata.getColumnCount(); i < n; i++) {
+                final int type = metadata.getColumnType(i);
+                if (type < 0 || ColumnType.isVariableLength(type)) {
+                    continue;
+                }
+                if (i == metadata.getTimestampIndex()) {
+                    timestampSlot = slotCount;
+                }
+                writerIndexSlots.setQuick(i, slotCount++);
+                slotWriterIndexes.add(i);
+                slotShifts.add(Numbers.msb(ColumnType.sizeOf(type)));
+                // symbol values are copied on commit, the writer may hold values of uncommitted rows
+                slotSymbols.add(ColumnType.isSymbol(type) ? new Symbols() : null);
+            }
+        }
+        this.tableId = metadata.getId();
+        this.structureVersion = structureVersion;
+    }
+
+    /**
+     * Drops rows appended since the last commit.
+     */
+    void rollback() {
+        if (pendingRowCount == 0) {
+            return;
+        }
+        synchronized (this) {
+            for (int i = blocks.size() - 1; i > -1; i--) {
+                final Block block = blocks.getQuick(i);
+                if (block.publishedRowCount == block.rowCount) {
+                    break;
+                }
+                block.rowCount = block.publishedRowCount;
+                if (block.rowCount == 0) {
+                    blocks.remove(i);
+                    evict(block);
+                }
+            }
+        }
+        for (int slot = 0; slot < slotCount; slot++) {
+            final Symbols symbols = slotSymbols.getQuick(slot);
+            if (symbols != null) {
+                symbols.count = symbols.publishedCount;
+                symbols.nullValue = symbols.publishedNullValue;
+            }
+        }
+        pendingRowCount = 0;
+    }
+
+    private static class Block {
+        private final LongList addresses = new LongList();
+        private final LongList sizes = new LongList();
+        private long rowCount;
+        private long publishedRowCount;
+        private int refCount;
+        private boolean evicted;
+
+        private void free() {
+            for (int i = 0, n = addresses.size(); i < n; i++) {
+                Unsafe.free(addresses.getQuick(i), sizes.getQuick(i), MemoryTag.NATIVE_DEFAULT);
+            }
+            addresses.clear();
+            sizes.clear();
+        }
+    }
+
+    // Symbol values are only ever appended. Readers use the array reference and
+    // the count they captured under the cache monitor.
+    private static class Symbols {
+        private String[] values = new String[16];
+        private int count;
+        private boolean nullValue;
+        private int publishedCount;
+        private boolean publishedNullValue;
+
+        private void copyFrom(MapWriter writer) {
+            final int symbolCount = writer.getSymbolCount();
+            if (symbolCount > values.length) {
+                values = Arrays.copyOf(values, Math.max(symbolCount, values.length * 2));
+            }
+            for (int key = count; key < symbolCount; key++) {
+                values[key] = Chars.toString(writer.valueOf(key));
+            }
+            count = symbolCount;
+            nullValue = writer.getNullFlag();
+        }
+    }
+
+    private static class SymbolTableView implements StaticSymbolTable {
+        private final String[] values;
+        private final int count;
+        private final boolean nullValue;
+
+        private SymbolTableView(String[] values, int count, boolean nullValue) {
+            this.values = values;
+            this.count = count;
+            this.nullValue = nullValue;
+        }
+
+        @Override
+        public boolean containsNullValue() {
+            return nullValue;
+        }
+
+        @Override
+        public int getSymbolCount() {
+            return count;
+        }
+
+        @Override
+        public int keyOf(CharSequence value) {
+            if (value == null) {
+                return SymbolTable.VALUE_IS_NULL;
+            }
+            for (int key = 0; key < count; key++) {
+                if (Chars.equals(value, values[key])) {
+                    return key;
+                }
+            }
+            return SymbolTable.VALUE_NOT_FOUND;
+        }
+
+        @Override
+        public CharSequence valueBOf(int key) {
+            return valueOf(key);
+        }
+
+        @Override
+        public CharSequence valueOf(int key) {
+            return key > -1 && key < count ? values[key] : null;
+        }
+    }
+
+    /**
+     * Rows of the cache pinned by a query. Columns are addressed by their index in the query.
+     */
+    public static class Snapshot implements QuietCloseable, Mutable {
+        private final ObjList<Block> blocks = new ObjList<>();
+        private final LongList blockRowCounts = new LongList();
+        private final IntList columnSlots = new IntList();
+        private final ObjList<String[]> symbolValues = new ObjList<>();
+        private final IntList symbolCounts = new IntList();
+        private final BoolList symbolNullFlags = new BoolList();
+        private final ObjList<StaticSymbolTable> symbolTables = new ObjList<>();
+        private HotTableCache cache;
+        private int timestampSlot;
+
+        public Snapshot() {
+        }
+
+        @Override
+        public void clear() {
+            blocks.clear();
+            blockRowCounts.clear();
+            columnSlots.clear();
+            symbolValues.clear();
+            symbolCounts.clear();
+            symbolNullFlags.clear();
+            symbolTables.clear();
+        }
+
+        @Override
+        public void close() {
+            if (cache != null) {
+                cache.release(this);
+                cache = null;
+            }
+            clear();
+        }
+
+        public int getBlockCount() {
+            return blocks.size();
+        }
+
+        public long getPageAddress(int blockIndex, int columnIndex) {
+            return blocks.getQuick(blockIndex).addresses.getQuick(columnSlots.getQuick(columnIndex));
+        }
+
+        public long getRowCount(int blockIndex) {
+            return blockRowCounts.getQuick(blockIndex);
+        }
+
+        public StaticSymbolTable getSymbolTable(int columnIndex) {
+            StaticSymbolTable view = symbolTables.getQuiet(columnIndex);
+            if (view == null) {
+                view = newSymbolTable(columnIndex);
+                symbolTables.extendAndSet(columnIndex, view);
+            }
+            return view;
+        }
+
+        public long getTimestampAddress(int blockIndex) {
+            return blocks.getQuick(blockIndex).addresses.getQuick(timestampSlot);
+        }
+
+        public StaticSymbolTable newSymbolTable(int columnIndex) {
+            final String[] values = symbolValues.getQuick(columnIndex);
+            if (values == null) {
+                return null;
+            }
+            return new SymbolTableView(values, symbolCounts.getQuick(columnIndex), symbolNullFlags.get(columnIndex));
+        }
+    }
+}
@@ -0,0 +1,77 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.cairo;
+
+import io.questdb.std.Chars;
+import io.questdb.std.ConcurrentHashMap;
+import io.questdb.std.Misc;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.Closeable;
+
+/**
+ * Per-table {@link HotTableCache} instances. Caches are created when a table writer is opened
+ * and dropped together with the table.
+ */
+public class HotTableCacheRegistry implements Closeable {
+    private final ConcurrentHashMap<HotTableCache> caches = new ConcurrentHashMap<>();
+    private final long rowCount;
+    private final long blockRowCount;
+
+    public HotTableCacheRegistry(CairoConfiguration configuration) {
+        this.rowCount = configuration.getHotCacheRowCount();
+        this.blockRowCount = configuration.getSqlPageFrameMaxRows();
+    }
+
+    @Override
+    public void close() {
+        for (HotTableCache cache : caches.values()) {
+            Misc.free(cache);
+        }
+        caches.clear();
+    }
+
+    @Nullable
+    public HotTableCache get(CharSequence tableName) {
+        return caches.get(tableName);
+    }
+
+    public HotTableCache getOrCreate(CharSequence tableName) {
+        HotTableCache cache = caches.get(tableName);
+        if (cache == null) {
+            cache = new HotTableCache(tableName, rowCount, blockRowCount);
+            final HotTableCache other = caches.putIfAbsent(Chars.toString(tableName), cache);
+            if (other != null) {
+                cache = other;
+            }
+        }
+        return cache;
+    }
+
+    public void remove(CharSequence tableName) {
+        Misc.free(caches.remove(tableName));
+    }
+}
@@ -84,4 +84,6 @@ public interface MapWriter extends SymbolCountProvider {
 
     boolean getNullFlag();
 
+    CharSequence valueOf(int key);
+
 }
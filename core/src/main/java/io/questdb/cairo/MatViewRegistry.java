@@ -0,0 +1,104 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.cairo;
+
+import io.questdb.std.*;
+import io.questdb.std.str.Path;
+import io.questdb.std.str.StringSink;
+
+/**
+ * Names of materialized views in the database. The root directory is scanned for view
+ * definition files once, on first access; afterwards views are registered when created and
+ * forgotten when their tables are dropped or renamed.
+ */
+public class MatViewRegistry {
+    private final CairoConfiguration configuration;
+    private final ConcurrentHashMap<String> views = new ConcurrentHashMap<>();
+    private volatile boolean initialized;
+
+    MatViewRegistry(CairoConfiguration configuration) {
+        this.configuration = configuration;
+    }
+
+    /**
+     * Copies names of all views to the sink.
+     *
+     * @param sink list to add view names to, it is not cleared
+     */
+    public void getViewNames(ObjList<String> sink) {
+        init();
+        for (String viewName : views.values()) {
+            sink.add(viewName);
+        }
+    }
+
+    public void register(CharSequence viewName) {
+        final String name = Chars.toString(viewName);
+        views.put(name, name);
+    }
+
+    public void unregister(CharSequence viewName) {
+        views.remove(viewName);
+    }
+
+    void clear() {
+        synchronized (this) {
+            views.clear();
+            initialized = false;
+        }
+    }
+
+    void rename(CharSequence viewName, CharSequence newName) {
+        if (views.remove(viewName) != null) {
+            register(newName);
+        }
+    }
+
+    private void init() {
+        if (!initialized) {
+            synchronized (this) {
+                if (!initialized) {
+                    scan();
+                    initialized = true;
+                }
+            }
+        }
+    }
+
+    private void scan() {
+        final FilesFacade ff = configuration.getFilesFacade();
+        final CharSequence root = configuration.getRoot();
+        final StringSink nameSink = new StringSink();
+        try (Path path = new Path(); Path other = new Path()) {
+            ff.iterateDir(path.of(root).$(), (pUtf8NameZ, type) -> {
+                if (Files.isDir(pUtf8NameZ, type, nameSink)
+                        && ff.exists(other.of(root).concat(nameSink).concat(TableUtils.MAT_VIEW_FILE_NAME).$())) {
+                    register(nameSink);
+                }
+            });
+        }
+    }
+}
@@ -1163,8 +1163,9 @@ public class O3CopyJob extends AbstractQueueConsumerJob<O3CopyTask> {
         w.rollbackConditionally(row + rowAdjust);
         final long count = dstFixSize / Integer.BYTES;
         for (; row < count; row++) {
-            w.add(TableUtils.toIndexKey(Unsafe.getUnsafe().getInt(dstFixAddr + row * Integer.BYTES)), row + rowAdjust);
+            w.stage(TableUtils.toIndexKey(Unsafe.getUnsafe().getInt(dstFixAddr + row * Integer.BYTES)), row + rowAdjust);
         }
+        w.commitStaged();
         w.setMaxValue(count - 1);
     }
 
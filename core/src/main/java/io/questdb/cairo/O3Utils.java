@@ -34,7 +34,6 @@ import io.questdb.log.LogFactory;
 import io.questdb.mp.Job;
 import io.questdb.mp.WorkerPool;
 import io.questdb.std.*;
-import io.questdb.std.datetime.microtime.MicrosecondClock;
 import org.jetbrains.annotations.Nullable;
 
 public class O3Utils {
@@ -46,9 +45,21 @@ public class O3Utils {
             CairoEngine cairoEngine,
             @Nullable SqlExecutionCircuitBreakerConfiguration sqlExecutionCircuitBreakerConfiguration,
             @Nullable FunctionFactoryCache functionFactoryCache
+    ) throws SqlException {
+        setupO3Jobs(workerPool, cairoEngine, functionFactoryCache);
+        PageFrameReduceJob.assignToPool(cairoEngine.getMessageBus(), workerPool, sqlExecutionCircuitBreakerConfiguration);
+    }
+
+    /**
+     * Assigns jobs that merge out-of-order data and purge stale partition and column
+     * versions. Unlike {@link #setupWorkerPool} it leaves out jobs that help query execution.
+     */
+    public static void setupO3Jobs(
+            WorkerPool workerPool,
+            CairoEngine cairoEngine,
+            @Nullable FunctionFactoryCache functionFactoryCache
     ) throws SqlException {
         final MessageBus messageBus = cairoEngine.getMessageBus();
-        final int workerCount = workerPool.getWorkerCount();
         final O3PartitionPurgeJob purgeDiscoveryJob = new O3PartitionPurgeJob(messageBus, workerPool.getWorkerCount());
         final ColumnPurgeJob columnPurgeJob = new ColumnPurgeJob(cairoEngine, functionFactoryCache);
 
@@ -60,21 +71,6 @@ public class O3Utils {
         workerPool.assign(new O3CallbackJob(messageBus));
         workerPool.freeOnExit(purgeDiscoveryJob);
         workerPool.freeOnExit(columnPurgeJob);
-
-        final MicrosecondClock microsecondClock = messageBus.getConfiguration().getMicrosecondClock();
-        final NanosecondClock nanosecondClock = messageBus.getConfiguration().getNanosecondClock();
-
-        for (int i = 0; i < workerCount; i++) {
-            // create job per worker to allow each worker to have
-            // own shard walk sequence
-            final PageFrameReduceJob pageFrameReduceJob = new PageFrameReduceJob(
-                    messageBus,
-                    new Rnd(microsecondClock.getTicks(), nanosecondClock.getTicks()),
-                    sqlExecutionCircuitBreakerConfiguration
-            );
-            workerPool.assign(i, pageFrameReduceJob);
-            workerPool.freeOnExit(pageFrameReduceJob);
-        }
     }
 
     static long getVarColumnLength(long srcLo, long srcHi, long srcFixAddr) {
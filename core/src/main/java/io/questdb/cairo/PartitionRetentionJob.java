@@ -0,0 +1,134 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.cairo;
+
+import io.questdb.cairo.security.AllowAllCairoSecurityContext;
+import io.questdb.griffin.engine.ops.AlterOperation;
+import io.questdb.griffin.engine.ops.AlterOperationBuilder;
+import io.questdb.log.Log;
+import io.questdb.log.LogFactory;
+import io.questdb.mp.SynchronizedJob;
+import io.questdb.std.ObjList;
+import io.questdb.std.datetime.millitime.MillisecondClock;
+
+/**
+ * Drops, or detaches, partitions of tables that have TTL set via
+ * {@code ALTER TABLE x SET PARAM ttl = 30d}. Partition expires once all of its rows are older
+ * than TTL relative to max timestamp of the table.
+ * <p>
+ * Tables are taken from {@link TableTtlRegistry} and expiry is checked against a pooled reader.
+ * Removal is an async writer command, same as {@code ALTER TABLE DROP PARTITION}: when the writer
+ * is free the job applies it straight away, otherwise the command is queued to the writer owner,
+ * e.g. ILP ingestion, which applies it on its next tick. The command works out expired partitions
+ * from the writer state at the time it is applied, so queueing it again before it has run is
+ * harmless. Expired partitions are removed in a single transaction and their directories are purged
+ * the same way as partitions rewritten by O3 commits.
+ */
+public class PartitionRetentionJob extends SynchronizedJob {
+    private static final Log LOG = LogFactory.getLog(PartitionRetentionJob.class);
+    private final AlterOperationBuilder alterOperationBuilder = new AlterOperationBuilder();
+    private final long checkInterval;
+    private final MillisecondClock clock;
+    private final boolean detach;
+    private final CairoEngine engine;
+    private final ObjList<String> tableNames = new ObjList<>();
+    private final TableTtlRegistry ttlRegistry;
+    private long lastCheckTime = Long.MIN_VALUE;
+
+    public PartitionRetentionJob(CairoEngine engine) {
+        this.engine = engine;
+        final CairoConfiguration configuration = engine.getConfiguration();
+        this.clock = configuration.getMillisecondClock();
+        this.checkInterval = configuration.getPartitionRetentionCheckInterval();
+        this.detach = configuration.isPartitionRetentionDetachEnabled();
+        this.ttlRegistry = engine.getTableTtlRegistry();
+    }
+
+    /**
+     * Removes expired partitions of all tables regardless of the check interval. Tables with busy
+     * writers have the removal queued to the writer owner.
+     *
+     * @return true when at least one partition was removed or its removal was queued
+     */
+    public boolean enforceRetention() {
+        tableNames.clear();
+        ttlRegistry.getTableNames(tableNames);
+        boolean removed = false;
+        for (int i = 0, n = tableNames.size(); i < n; i++) {
+            final String tableName = tableNames.getQuick(i);
+            try {
+                removed |= enforceRetention(tableName);
+            } catch (CairoException e) {
+                LOG.error().$("could not enforce partition retention [table=").$(tableName)
+                        .$(", errno=").$(e.getErrno())
+                        .$(", msg=").$(e.getFlyweightMessage()).I$();
+            }
+        }
+        return removed;
+    }
+
+    private boolean enforceRetention(String tableName) {
+        final int tableId;
+        try (TableReader reader = engine.getReader(AllowAllCairoSecurityContext.INSTANCE, tableName)) {
+            final TableReaderMetadata metadata = reader.getMetadata();
+            final long ttl = metadata.getTtl();
+            // WAL tables are not supported yet, their writers are driven by WAL apply job
+            if (ttl <= 0 || metadata.isWalEnabled()) {
+                return false;
+            }
+            final TxReader txFile = reader.getTxFile();
+            if (txFile.getPartitionCount() < 2) {
+                return false;
+            }
+            final PartitionBy.PartitionCeilMethod ceilMethod = PartitionBy.getPartitionCeilMethod(reader.getPartitionedBy());
+            if (ceilMethod == null
+                    || ceilMethod.ceil(txFile.getPartitionTimestamp(0)) > txFile.getMaxTimestamp() - ttl) {
+                return false;
+            }
+            tableId = metadata.getId();
+        }
+
+        alterOperationBuilder.clear();
+        final AlterOperation operation = alterOperationBuilder.ofRemoveExpiredPartitions(tableName, tableId, detach).build();
+        operation.setCommandCorrelationId(engine.getCommandCorrelationId());
+        try (TableWriter writer = engine.getWriterOrPublishCommand(AllowAllCairoSecurityContext.INSTANCE, tableName, operation)) {
+            if (writer != null) {
+                return writer.removeExpiredPartitions(detach) > 0;
+            }
+        }
+        LOG.info().$("writer is busy, queued expired partition removal [table=").$(tableName).I$();
+        return true;
+    }
+
+    @Override
+    protected boolean runSerially() {
+        final long now = clock.getTicks();
+        if (now - lastCheckTime < checkInterval) {
+            return false;
+        }
+        lastCheckTime = now;
+        return enforceRetention();
+    }
+}
@@ -50,7 +50,11 @@ public class RecordChain implements Closeable, RecordCursor, Mutable, RecordSink
     private SymbolTableSource symbolTableResolver;
 
     public RecordChain(@Transient ColumnTypes columnTypes, RecordSink recordSink, long pageSize, int maxPages) {
-        this.mem = Vm.getARWInstance(pageSize, maxPages, MemoryTag.NATIVE_RECORD_CHAIN);
+        this(columnTypes, recordSink, Vm.getARWInstance(pageSize, maxPages, MemoryTag.NATIVE_RECORD_CHAIN));
+    }
+
+    public RecordChain(@Transient ColumnTypes columnTypes, RecordSink recordSink, MemoryARW mem) {
+        this.mem = mem;
         this.recordSink = recordSink;
         int count = columnTypes.getColumnCount();
         long varOffset = 0L;
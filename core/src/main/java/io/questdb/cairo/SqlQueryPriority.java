@@ -0,0 +1,61 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.cairo;
+
+import io.questdb.std.Chars;
+
+/**
+ * Priority of query execution relative to ingestion. Low priority queries do not dispatch
+ * page frames to worker threads while O3 merge or column indexing tasks are waiting for
+ * workers, they reduce frames on the thread that executes the query instead.
+ */
+public final class SqlQueryPriority {
+    public static final int PRIORITY_LOW = 0;
+    public static final int PRIORITY_NORMAL = 1;
+
+    private SqlQueryPriority() {
+    }
+
+    public static String nameOf(int priority) {
+        return priority == PRIORITY_LOW ? "low" : "normal";
+    }
+
+    /**
+     * @param name priority name, case-insensitive
+     * @return priority or -1 when name is null or unknown
+     */
+    public static int of(CharSequence name) {
+        if (name != null) {
+            if (Chars.equalsLowerCaseAscii(name, "low")) {
+                return PRIORITY_LOW;
+            }
+            if (Chars.equalsLowerCaseAscii(name, "normal")) {
+                return PRIORITY_NORMAL;
+            }
+        }
+        return -1;
+    }
+}
@@ -81,8 +81,9 @@ public class SymbolColumnIndexer implements ColumnIndexer, Mutable {
         // index values have to be adjusted to partition-level row id
         writer.rollbackConditionally(loRow);
         for (long lo = Math.max(loRow,  columnTop); lo < hiRow; lo++) {
-            writer.add(TableUtils.toIndexKey(mem.getInt((lo - columnTop) * Integer.BYTES)), lo);
+            writer.stage(TableUtils.toIndexKey(mem.getInt((lo - columnTop) * Integer.BYTES)), lo);
         }
+        writer.commitStaged();
         writer.setMaxValue(hiRow - 1);
     }
 
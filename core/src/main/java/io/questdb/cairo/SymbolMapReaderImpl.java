@@ -110,6 +110,10 @@ public class SymbolMapReaderImpl implements Closeable, SymbolMapReader {
         } else if (symbolCount < this.symbolCount) {
             cache.remove(symbolCount + 1, this.symbolCount);
             this.symbolCount = symbolCount;
+        } else {
+            // Append-only commits that do not introduce new symbols leave both
+            // the symbol map and its index intact, there is nothing to remap.
+            return;
         }
         // Refresh index reader to avoid memory remapping on keyOf() calls.
         this.indexReader.of(configuration, path, columnNameSink, columnNameTxn, 0, -1);
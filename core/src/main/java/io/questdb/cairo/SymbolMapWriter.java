@@ -232,7 +232,7 @@ public class SymbolMapWriter implements Closeable, MapWriter {
         return (int) ((offset - HEADER_SIZE) / 8L);
     }
 
-    static long keyToOffset(int key) {
+    public static long keyToOffset(int key) {
         return HEADER_SIZE + key * 8L;
     }
 
@@ -305,4 +305,9 @@ public class SymbolMapWriter implements Closeable, MapWriter {
     public boolean getNullFlag() {
         return offsetMem.getBool(HEADER_NULL_FLAG);
     }
+
+    @Override
+    public CharSequence valueOf(int key) {
+        return charMem.getStr(offsetMem.getLong(keyToOffset(key)));
+    }
 }
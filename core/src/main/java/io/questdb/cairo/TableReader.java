@@ -332,6 +332,35 @@ public class TableReader implements Closeable, SymbolTableSource {
         return tempMem8b != 0;
     }
 
+    /**
+     * Maps bloom filter of the column values in the partition. Partition must be open.
+     *
+     * @param filter         filter to map the file to
+     * @param partitionIndex index of open partition
+     * @param columnIndex    reader index of the column
+     * @return true when the partition has the filter built for its current row count, false otherwise
+     */
+    public boolean openBloomFilter(BloomFilterReader filter, int partitionIndex, int columnIndex) {
+        final long partitionRowCount = getPartitionRowCount(partitionIndex);
+        if (partitionRowCount < 1) {
+            return false;
+        }
+        final long partitionTimestamp = txFile.getPartitionTimestamp(partitionIndex);
+        final long columnNameTxn = columnVersionReader.getColumnNameTxn(partitionTimestamp, metadata.getWriterIndex(columnIndex));
+        try {
+            Path path = pathGenPartitioned(partitionIndex);
+            TableUtils.txnPartitionConditionally(path, txFile.getPartitionNameTxn(partitionIndex));
+            return filter.of(
+                    ff,
+                    TableUtils.bloomFilterFile(path, metadata.getColumnName(columnIndex), columnNameTxn),
+                    partitionRowCount,
+                    metadata.getColumnHash(columnIndex)
+            );
+        } finally {
+            path.trimTo(rootLen);
+        }
+    }
+
     public long openPartition(int partitionIndex) {
         final long size = getPartitionRowCount(partitionIndex);
         if (size != -1) {
@@ -1130,7 +1159,9 @@ public class TableReader implements Closeable, SymbolTableSource {
     }
 
     /**
-     * Updates boundaries of all columns in partition.
+     * Updates boundaries of all columns in partition. Only the appended range is remapped,
+     * symbol map counts are left to the caller, which refreshes them once per reload
+     * rather than once per reloaded partition.
      *
      * @param partitionIndex index of partition
      * @param rowCount       number of rows in partition
@@ -1139,7 +1170,6 @@ public class TableReader implements Closeable, SymbolTableSource {
         Path path = pathGenPartitioned(partitionIndex);
         TableUtils.txnPartitionConditionally(path, openPartitionNameTxn);
         try {
-            int symbolMapIndex = 0;
             int columnBase = getColumnBase(partitionIndex);
             for (int i = 0; i < columnCount; i++) {
                 final int index = getPrimaryColumnIndex(columnBase, i);
@@ -1163,13 +1193,6 @@ public class TableReader implements Closeable, SymbolTableSource {
                             rowCount - getColumnTop(columnBase, i)
                     );
                 }
-
-                // reload symbol map
-                SymbolMapReader reader = symbolMapReaders.getQuick(i);
-                if (reader == null) {
-                    continue;
-                }
-                reader.updateSymbolCount(txFile.getSymbolValueCount(symbolMapIndex++));
             }
         } finally {
             path.trimTo(rootLen);
@@ -25,7 +25,7 @@
 package io.questdb.cairo;
 
 import io.questdb.cairo.vm.Vm;
-import io.questdb.cairo.vm.api.MemoryMA;
+import io.questdb.cairo.vm.api.MemoryA;
 import io.questdb.cairo.vm.api.MemoryMR;
 import io.questdb.std.*;
 import io.questdb.std.str.Path;
@@ -42,6 +42,7 @@ public class TableReaderMetadata extends BaseRecordMetadata implements Closeable
     private int tableId;
     private int maxUncommittedRows;
     private long commitLag;
+    private long ttl;
     private long structureVersion;
     private MemoryMR transitionMeta;
     private boolean walEnabled;
@@ -76,6 +77,7 @@ public class TableReaderMetadata extends BaseRecordMetadata implements Closeable
         this.structureVersion = metaMem.getLong(TableUtils.META_OFFSET_STRUCTURE_VERSION);
         this.maxUncommittedRows = metaMem.getInt(TableUtils.META_OFFSET_MAX_UNCOMMITTED_ROWS);
         this.commitLag = metaMem.getLong(TableUtils.META_OFFSET_COMMIT_LAG);
+        this.ttl = metaMem.getLong(TableUtils.META_OFFSET_TTL);
         this.walEnabled = metaMem.getInt(TableUtils.META_OFFSET_WAL_ENABLED) > 0;
         long offset = TableUtils.getColumnNameOffset(columnCount);
 
@@ -86,6 +88,7 @@ public class TableReaderMetadata extends BaseRecordMetadata implements Closeable
             assert name != null;
             int columnType = TableUtils.getColumnType(metaMem, metaIndex);
             boolean isIndexed = TableUtils.isColumnIndexed(metaMem, metaIndex);
+            boolean isBloomFiltered = TableUtils.isColumnBloomFiltered(metaMem, metaIndex);
             int indexBlockCapacity = TableUtils.getIndexBlockCapacity(metaMem, metaIndex);
             TableColumnMetadata existing = null;
             String newName;
@@ -111,19 +114,20 @@ public class TableReaderMetadata extends BaseRecordMetadata implements Closeable
                         || existing == null
                         || existing.isIndexed() != isIndexed
                         || existing.getIndexValueBlockCapacity() != indexBlockCapacity
+                        || existing.isBloomFiltered() != isBloomFiltered
                 ) {
-                    columnMetadata.setQuick(existingIndex - shiftLeft,
-                            new TableColumnMetadata(
-                                    newName,
-                                    TableUtils.getColumnHash(metaMem, metaIndex),
-                                    columnType,
-                                    isIndexed,
-                                    indexBlockCapacity,
-                                    true,
-                                    null,
-                                    metaIndex
-                            )
+                    TableColumnMetadata columnMeta = new TableColumnMetadata(
+                            newName,
+                            TableUtils.getColumnHash(metaMem, metaIndex),
+                            columnType,
+                            isIndexed,
+                            indexBlockCapacity,
+                            true,
+                            null,
+                            metaIndex
                     );
+                    columnMeta.setBloomFiltered(isBloomFiltered);
+                    columnMetadata.setQuick(existingIndex - shiftLeft, columnMeta);
                 } else if (shiftLeft > 0) {
                     columnMetadata.setQuick(existingIndex - shiftLeft, existing);
                 }
@@ -183,6 +187,7 @@ public class TableReaderMetadata extends BaseRecordMetadata implements Closeable
             this.tableId = metaMem.getInt(TableUtils.META_OFFSET_TABLE_ID);
             this.maxUncommittedRows = metaMem.getInt(TableUtils.META_OFFSET_MAX_UNCOMMITTED_ROWS);
             this.commitLag = metaMem.getLong(TableUtils.META_OFFSET_COMMIT_LAG);
+            this.ttl = metaMem.getLong(TableUtils.META_OFFSET_TTL);
             this.structureVersion = metaMem.getLong(TableUtils.META_OFFSET_STRUCTURE_VERSION);
             this.walEnabled = metaMem.getInt(TableUtils.META_OFFSET_WAL_ENABLED) > 0;
             this.columnMetadata.clear();
@@ -195,18 +200,18 @@ public class TableReaderMetadata extends BaseRecordMetadata implements Closeable
                 assert name != null;
                 int columnType = TableUtils.getColumnType(metaMem, i);
                 if (columnType > 0) {
-                    columnMetadata.add(
-                            new TableColumnMetadata(
-                                    Chars.toString(name),
-                                    TableUtils.getColumnHash(metaMem, i),
-                                    columnType,
-                                    TableUtils.isColumnIndexed(metaMem, i),
-                                    TableUtils.getIndexBlockCapacity(metaMem, i),
-                                    true,
-                                    null,
-                                    i
-                            )
+                    TableColumnMetadata columnMeta = new TableColumnMetadata(
+                            Chars.toString(name),
+                            TableUtils.getColumnHash(metaMem, i),
+                            columnType,
+                            TableUtils.isColumnIndexed(metaMem, i),
+                            TableUtils.getIndexBlockCapacity(metaMem, i),
+                            true,
+                            null,
+                            i
                     );
+                    columnMeta.setBloomFiltered(TableUtils.isColumnBloomFiltered(metaMem, i));
+                    columnMetadata.add(columnMeta);
                     if (i == timestampIndex) {
                         this.timestampIndex = columnMetadata.size() - 1;
                     }
@@ -221,7 +226,7 @@ public class TableReaderMetadata extends BaseRecordMetadata implements Closeable
         return this;
     }
 
-    public void dumpTo(MemoryMA mem) {
+    public void dumpTo(MemoryA mem) {
         // Since _meta files are immutable and get updated with a single atomic rename
         // operation replacing the old file with the new one, it's ok to clone the metadata
         // by copying metaMem's contents. Even if _meta file was already replaced, the file
@@ -257,10 +262,21 @@ public class TableReaderMetadata extends BaseRecordMetadata implements Closeable
         return structureVersion;
     }
 
+    /**
+     * @return time to live of table partitions in microseconds, 0 when partitions are kept forever
+     */
+    public long getTtl() {
+        return ttl;
+    }
+
     public int getVersion() {
         return version;
     }
 
+    public boolean isColumnBloomFiltered(int columnIndex) {
+        return columnMetadata.getQuick(columnIndex).isBloomFiltered();
+    }
+
     public boolean isWalEnabled() {
         return walEnabled;
     }
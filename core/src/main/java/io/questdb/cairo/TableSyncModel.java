@@ -171,6 +171,7 @@ public class TableSyncModel implements Mutable, Sinkable {
 
         final StringSink nameSink = Misc.getThreadLocalBuilder();
         for (int i = 0; i < n; i++) {
+            nameSink.clear();
             int nameLen = Unsafe.getUnsafe().getInt(p);
             p += 4;
 
@@ -208,10 +209,50 @@ public class TableSyncModel implements Mutable, Sinkable {
         }
     }
 
+    public int getColumnMetaAction(int index) {
+        return (int) columnMetaIndex.getQuick(index * SLOTS_PER_COLUMN_META_INDEX);
+    }
+
+    public int getColumnMetaActionCount() {
+        return columnMetaIndex.size() / SLOTS_PER_COLUMN_META_INDEX;
+    }
+
+    public int getColumnMetaActionFrom(int index) {
+        return Numbers.decodeLowInt(columnMetaIndex.getQuick(index * SLOTS_PER_COLUMN_META_INDEX + 1));
+    }
+
+    public int getColumnMetaActionTo(int index) {
+        return Numbers.decodeHighInt(columnMetaIndex.getQuick(index * SLOTS_PER_COLUMN_META_INDEX + 1));
+    }
+
+    public long getDataVersion() {
+        return dataVersion;
+    }
+
+    public int getPartitionAction(int index) {
+        return (int) partitions.getQuick(index * SLOTS_PER_PARTITION);
+    }
+
     public int getPartitionCount() {
         return partitions.size() / SLOTS_PER_PARTITION;
     }
 
+    public long getPartitionNameTxn(int index) {
+        return partitions.getQuick(index * SLOTS_PER_PARTITION + 4);
+    }
+
+    public long getPartitionRowCount(int index) {
+        return partitions.getQuick(index * SLOTS_PER_PARTITION + 3);
+    }
+
+    public long getPartitionStartRow(int index) {
+        return partitions.getQuick(index * SLOTS_PER_PARTITION + 2);
+    }
+
+    public long getPartitionTimestamp(int index) {
+        return partitions.getQuick(index * SLOTS_PER_PARTITION + 1);
+    }
+
     public int getTableAction() {
         return tableAction;
     }
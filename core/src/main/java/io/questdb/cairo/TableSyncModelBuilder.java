@@ -0,0 +1,223 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.cairo;
+
+import io.questdb.cairo.vm.MemoryFCRImpl;
+import io.questdb.cairo.vm.MemoryFMCRImpl;
+import io.questdb.cairo.vm.Vm;
+import io.questdb.cairo.vm.api.MemoryFR;
+import io.questdb.cairo.vm.api.MemoryR;
+import io.questdb.log.Log;
+import io.questdb.log.LogFactory;
+import io.questdb.std.*;
+import io.questdb.std.str.Path;
+
+import java.io.Closeable;
+
+/**
+ * Same diff as {@link TableWriter#replCreateTableSyncModel(long, long, long, long)}, taken against
+ * the state table reader has loaded rather than the writer's. Reader snapshot is consistent without
+ * holding the writer: files of partition versions it references are not purged until the reader is
+ * released and rows below its row counts are not changed in place.
+ * <p>
+ * Reader metadata skips deleted columns, model refers to columns by their index in _meta file, hence
+ * the caller provides _meta as the reader has loaded it, see {@link TableReaderMetadata#dumpTo(io.questdb.cairo.vm.api.MemoryA)}.
+ */
+public class TableSyncModelBuilder implements Closeable {
+    private static final Log LOG = LogFactory.getLog(TableSyncModelBuilder.class);
+    private final FilesFacade ff;
+    private final CharSequence root;
+    private final Path path = new Path();
+    private final LongIntHashMap partitionHash = new LongIntHashMap();
+    private final MemoryFMCRImpl slaveTxMem = new MemoryFMCRImpl();
+    private final MemoryFR slaveMetaMem = new MemoryFCRImpl();
+    private final TxReader slaveTxReader;
+    private final IntList denseIndexes = new IntList();
+    private long tempMem8b = Unsafe.malloc(Long.BYTES, MemoryTag.NATIVE_REPL);
+
+    public TableSyncModelBuilder(CairoConfiguration configuration) {
+        this.ff = configuration.getFilesFacade();
+        this.root = configuration.getRoot();
+        this.slaveTxReader = new TxReader(ff);
+    }
+
+    @Override
+    public void close() {
+        Misc.free(path);
+        tempMem8b = Unsafe.free(tempMem8b, Long.BYTES, MemoryTag.NATIVE_REPL);
+    }
+
+    /**
+     * @return replica's transaction file passed to the last {@link #of(TableReader, MemoryR, long, long, long, long)} call
+     */
+    public TxReader getSlaveTxReader() {
+        return slaveTxReader;
+    }
+
+    public TableSyncModel of(
+            TableReader reader,
+            MemoryR masterMetaMem,
+            long slaveTxAddress,
+            long slaveTxDataSize,
+            long slaveMetaData,
+            long slaveMetaDataSize
+    ) {
+        final TxReader txFile = reader.getTxFile();
+        final ColumnVersionReader columnVersionReader = reader.getColumnVersionReader();
+        final TableReaderMetadata metadata = reader.getMetadata();
+        final int partitionBy = reader.getPartitionedBy();
+        final int columnCount = masterMetaMem.getInt(TableUtils.META_OFFSET_COUNT);
+
+        denseIndexes.setAll(columnCount, -1);
+        for (int i = 0, n = metadata.getColumnCount(); i < n; i++) {
+            denseIndexes.setQuick(metadata.getWriterIndex(i), i);
+        }
+
+        partitionHash.clear();
+        final TableSyncModel model = new TableSyncModel();
+        model.setMaxTimestamp(txFile.getMaxTimestamp());
+
+        slaveTxMem.of(slaveTxAddress, slaveTxDataSize);
+        slaveTxReader.initRO(slaveTxMem, partitionBy);
+        slaveTxReader.unsafeLoadAll();
+
+        final int theirLast;
+        if (slaveTxReader.getDataVersion() != txFile.getDataVersion()) {
+            model.setTableAction(TableSyncModel.TABLE_ACTION_TRUNCATE);
+            theirLast = -1;
+        } else {
+            final int partitionCount = slaveTxReader.getPartitionCount();
+            theirLast = partitionCount - 1;
+            for (int i = 0; i < partitionCount; i++) {
+                partitionHash.put(slaveTxReader.getPartitionTimestamp(i), i);
+            }
+        }
+        model.setDataVersion(txFile.getDataVersion());
+
+        path.of(root).concat(reader.getTableName());
+        final int rootLen = path.length();
+        final int ourPartitionCount = txFile.getPartitionCount();
+        final int ourLast = ourPartitionCount - 1;
+
+        for (int i = 0; i < ourPartitionCount; i++) {
+            final long ts = txFile.getPartitionTimestamp(i);
+            // partition table is not updated on in-order appends to the last partition
+            final long ourSize = i < ourLast ? txFile.getPartitionSize(i) : txFile.getTransientRowCount();
+            final long ourColumnVersion = i < ourLast ? txFile.getPartitionColumnVersion(i) : txFile.getColumnVersion();
+            final long partitionNameTxn = txFile.getPartitionNameTxn(i);
+            final int keyIndex = partitionHash.keyIndex(ts);
+            long theirSize = 0;
+            if (keyIndex < 0) {
+                final int slavePartitionIndex = partitionHash.valueAt(keyIndex);
+                // partition with different name txn has been rewritten, replica has to take it whole
+                if (slaveTxReader.getPartitionNameTxn(slavePartitionIndex) == partitionNameTxn) {
+                    theirSize = slavePartitionIndex < theirLast ?
+                            slaveTxReader.getPartitionSize(slavePartitionIndex) :
+                            slaveTxReader.getTransientRowCount();
+
+                    if (theirSize > ourSize) {
+                        LOG.error()
+                                .$("slave partition is larger than that on master [table=").$(reader.getTableName())
+                                .$(", ts=").$ts(ts)
+                                .I$();
+                    }
+                }
+            }
+
+            if (theirSize < ourSize) {
+                model.addPartitionAction(
+                        theirSize == 0 ?
+                                TableSyncModel.PARTITION_ACTION_WHOLE :
+                                TableSyncModel.PARTITION_ACTION_APPEND,
+                        ts,
+                        theirSize,
+                        ourSize - theirSize,
+                        partitionNameTxn,
+                        ourColumnVersion
+                );
+
+                TableUtils.setPathForPartition(path, rootLen, partitionBy, ts, partitionNameTxn);
+                final int plen = path.length();
+
+                for (int j = 0; j < columnCount; j++) {
+                    final long top = columnVersionReader.getColumnTop(ts, j);
+                    if (top > 0) {
+                        model.addColumnTop(ts, j, top);
+                    }
+
+                    final int denseIndex = denseIndexes.getQuick(j);
+                    if (denseIndex > -1 && ColumnType.isVariableLength(metadata.getColumnType(denseIndex))) {
+                        long size = 0;
+                        // column files do not exist when the whole partition is above column top
+                        if (top > -1 && top < ourSize) {
+                            TableUtils.iFile(
+                                    path.trimTo(plen),
+                                    metadata.getColumnName(denseIndex),
+                                    columnVersionReader.getColumnNameTxn(ts, j)
+                            );
+                            size = TableUtils.readLongAtOffset(ff, path, tempMem8b, (ourSize - top) * Long.BYTES);
+                        }
+                        model.addVarColumnSize(ts, j, size);
+                    }
+                }
+            }
+        }
+
+        slaveMetaMem.of(slaveMetaData, slaveMetaDataSize);
+        final int slaveColumnCount = slaveMetaMem.getInt(TableUtils.META_OFFSET_COUNT);
+        long slaveOffset = TableUtils.getColumnNameOffset(slaveColumnCount);
+        long masterOffset = TableUtils.getColumnNameOffset(columnCount);
+
+        int newIndex = 0;
+        for (int masterIndex = 0; masterIndex < columnCount; masterIndex++) {
+            final CharSequence masterName = masterMetaMem.getStr(masterOffset);
+            masterOffset += Vm.getStorageLength(masterName);
+            final int masterColumnType = TableUtils.getColumnType(masterMetaMem, masterIndex);
+            final int denseIndex = denseIndexes.getQuick(masterIndex);
+
+            if (masterIndex < slaveColumnCount) {
+                final CharSequence slaveName = slaveMetaMem.getStr(slaveOffset);
+                slaveOffset += Vm.getStorageLength(slaveName);
+                final int slaveColumnType = TableUtils.getColumnType(slaveMetaMem, masterIndex);
+                final boolean isSlaveIndexed = TableUtils.isColumnIndexed(slaveMetaMem, masterIndex);
+                final boolean isRename = !Chars.equalsIgnoreCase(slaveName, masterName);
+
+                if (slaveColumnType != masterColumnType
+                        || isRename
+                        || isSlaveIndexed != TableUtils.isColumnIndexed(masterMetaMem, masterIndex)) {
+                    model.addColumnMetaAction(TableSyncModel.COLUMN_META_ACTION_REMOVE, masterIndex, masterIndex);
+                    if (denseIndex > -1) {
+                        model.addColumnMetadata(metadata.getColumnQuick(denseIndex));
+                        model.addColumnMetaAction(TableSyncModel.COLUMN_META_ACTION_ADD, newIndex++, masterIndex);
+                    }
+                }
+            } else if (denseIndex > -1) {
+                model.addColumnMetadata(metadata.getColumnQuick(denseIndex));
+                model.addColumnMetaAction(TableSyncModel.COLUMN_META_ACTION_ADD, newIndex++, masterIndex);
+            }
+        }
+        return model;
+    }
+}
@@ -0,0 +1,131 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.cairo;
+
+import io.questdb.log.Log;
+import io.questdb.log.LogFactory;
+import io.questdb.std.*;
+import io.questdb.std.str.Path;
+import io.questdb.std.str.StringSink;
+
+/**
+ * Names of tables that have TTL set. The root directory is scanned for tables with non-zero TTL
+ * in their {@code _meta} file once, on first access; afterwards tables are registered when TTL is
+ * set and forgotten when they are dropped or renamed. Tables whose TTL is reset to zero stay
+ * registered until restart, the retention job checks actual TTL of each table anyway.
+ */
+public class TableTtlRegistry {
+    private static final Log LOG = LogFactory.getLog(TableTtlRegistry.class);
+    private final CairoConfiguration configuration;
+    private final ConcurrentHashMap<String> tables = new ConcurrentHashMap<>();
+    private volatile boolean initialized;
+
+    TableTtlRegistry(CairoConfiguration configuration) {
+        this.configuration = configuration;
+    }
+
+    /**
+     * Copies names of all tables with TTL to the sink.
+     *
+     * @param sink list to add table names to, it is not cleared
+     */
+    public void getTableNames(ObjList<String> sink) {
+        init();
+        for (String tableName : tables.values()) {
+            sink.add(tableName);
+        }
+    }
+
+    public void register(CharSequence tableName) {
+        final String name = Chars.toString(tableName);
+        tables.put(name, name);
+    }
+
+    public void unregister(CharSequence tableName) {
+        tables.remove(tableName);
+    }
+
+    void clear() {
+        synchronized (this) {
+            tables.clear();
+            initialized = false;
+        }
+    }
+
+    void rename(CharSequence tableName, CharSequence newName) {
+        if (tables.remove(tableName) != null) {
+            register(newName);
+        }
+    }
+
+    private void init() {
+        if (!initialized) {
+            synchronized (this) {
+                if (!initialized) {
+                    scan();
+                    initialized = true;
+                }
+            }
+        }
+    }
+
+    private void scan() {
+        final FilesFacade ff = configuration.getFilesFacade();
+        final CharSequence root = configuration.getRoot();
+        final StringSink nameSink = new StringSink();
+        final long tempMem8b = Unsafe.malloc(Long.BYTES, MemoryTag.NATIVE_DEFAULT);
+        try (Path path = new Path(); Path other = new Path()) {
+            ff.iterateDir(path.of(root).$(), (pUtf8NameZ, type) -> {
+                if (Files.isDir(pUtf8NameZ, type, nameSink)
+                        && ff.exists(other.of(root).concat(nameSink).concat(TableUtils.META_FILE_NAME).$())) {
+                    try {
+                        if (readTtl(ff, other, tempMem8b) > 0) {
+                            register(nameSink);
+                        }
+                    } catch (CairoException e) {
+                        LOG.error().$("could not read table ttl [path=").$(other)
+                                .$(", errno=").$(e.getErrno())
+                                .$(", msg=").$(e.getFlyweightMessage()).I$();
+                    }
+                }
+            });
+        } finally {
+            Unsafe.free(tempMem8b, Long.BYTES, MemoryTag.NATIVE_DEFAULT);
+        }
+    }
+
+    private static long readTtl(FilesFacade ff, Path metaPath, long tempMem8b) {
+        final long fd = TableUtils.openRO(ff, metaPath, LOG);
+        try {
+            // WAL tables are not supported yet, their writers are driven by WAL apply job
+            if (TableUtils.readIntOrFail(ff, fd, TableUtils.META_OFFSET_WAL_ENABLED, tempMem8b, metaPath) > 0) {
+                return 0;
+            }
+            return TableUtils.readLongOrFail(ff, fd, TableUtils.META_OFFSET_TTL, tempMem8b, metaPath);
+        } finally {
+            ff.close(fd);
+        }
+    }
+}
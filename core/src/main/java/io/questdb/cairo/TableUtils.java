@@ -63,6 +63,8 @@ public final class TableUtils {
     public static final String TAB_INDEX_FILE_NAME = "_tab_index.d";
     public static final String WAL_INDEX_FILE_NAME = "_wal_index.d";
     public static final String SNAPSHOT_META_FILE_NAME = "_snapshot";
+    public static final String SNAPSHOT_PARTITIONS_FILE_NAME = "_snapshot_partitions";
+    public static final String MAT_VIEW_FILE_NAME = "_mv";
     public static final int INITIAL_TXN = 0;
     public static final int NULL_LEN = -1;
     public static final int ANY_TABLE_ID = -1;
@@ -75,6 +77,7 @@ public final class TableUtils {
     public static final long META_OFFSET_COMMIT_LAG = 24; // LONG
     public static final long META_OFFSET_STRUCTURE_VERSION = 32; // LONG
     public static final long META_OFFSET_WAL_ENABLED = 40; // INT
+    public static final long META_OFFSET_TTL = 48; // LONG
     public static final long WAL_META_OFFSET_VERSION = 0;
     public static final long WAL_META_OFFSET_COLUMN_COUNT = 4;
     public static final long WAL_META_OFFSET_TIMESTAMP_INDEX = 8;
@@ -86,6 +89,7 @@ public final class TableUtils {
     public static final long SEQ_META_OFFSET_COLUMNS = 16;
     public static final String FILE_SUFFIX_I = ".i";
     public static final String FILE_SUFFIX_D = ".d";
+    public static final String FILE_SUFFIX_BLOOM_FILTER = ".bf";
     public static final String SYMBOL_KEY_REMAP_FILE_SUFFIX = ".r";
     public static final int LONGS_PER_TX_ATTACHED_PARTITION = 4;
     public static final int LONGS_PER_TX_ATTACHED_PARTITION_MSB = Numbers.msb(LONGS_PER_TX_ATTACHED_PARTITION);
@@ -140,10 +144,11 @@ public final class TableUtils {
     static final String META_PREV_FILE_NAME = "_meta.prev";
     // INT - symbol map count, this is a variable part of transaction file
     // below this offset we will have INT values for symbol map size
-    static final long META_OFFSET_PARTITION_BY = 4;
+    public static final long META_OFFSET_PARTITION_BY = 4;
     static final int META_FLAG_BIT_NOT_INDEXED = 0;
     static final int META_FLAG_BIT_INDEXED = 1;
     static final int META_FLAG_BIT_SEQUENTIAL = 1 << 1;
+    static final int META_FLAG_BIT_BLOOM_FILTER = 1 << 2;
     static final String TODO_FILE_NAME = "_todo_";
     private static final int MIN_SYMBOL_CAPACITY = 2;
     private static final int MAX_SYMBOL_CAPACITY = Numbers.ceilPow2(Integer.MAX_VALUE);
@@ -160,6 +165,14 @@ public final class TableUtils {
         }
     }
 
+    public static LPSZ bloomFilterFile(Path path, CharSequence columnName, long columnNameTxn) {
+        path.concat(columnName).put(FILE_SUFFIX_BLOOM_FILTER);
+        if (columnNameTxn > COLUMN_NAME_TXN_NONE) {
+            path.put('.').put(columnNameTxn);
+        }
+        return path.$();
+    }
+
     public static Path charFileName(Path path, CharSequence columnName, long columnNameTxn) {
         path.concat(columnName).put(".c");
         if (columnNameTxn > COLUMN_NAME_TXN_NONE) {
@@ -260,6 +273,8 @@ public final class TableUtils {
             mem.putLong(structure.getCommitLag());
             mem.putLong(0); // Structure version.
             mem.putInt(structure.isWallEnabled() ? 1 : 0);
+            mem.jumpTo(TableUtils.META_OFFSET_TTL);
+            mem.putLong(0); // TTL is set by ALTER TABLE
             mem.jumpTo(TableUtils.META_OFFSET_COLUMN_TYPES);
 
             assert count > 0;
@@ -1248,6 +1263,10 @@ public final class TableUtils {
         return metaMem.getLong(META_OFFSET_COLUMN_TYPES + columnIndex * META_COLUMN_DATA_SIZE + 4);
     }
 
+    static boolean isColumnBloomFiltered(MemoryR metaMem, int columnIndex) {
+        return (getColumnFlags(metaMem, columnIndex) & META_FLAG_BIT_BLOOM_FILTER) != 0;
+    }
+
     static boolean isColumnIndexed(MemoryR metaMem, int columnIndex) {
         return (getColumnFlags(metaMem, columnIndex) & META_FLAG_BIT_INDEXED) != 0;
     }
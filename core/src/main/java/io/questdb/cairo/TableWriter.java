@@ -28,8 +28,10 @@ import io.questdb.MessageBus;
 import io.questdb.MessageBusImpl;
 import io.questdb.Metrics;
 import io.questdb.cairo.sql.AsyncWriterCommand;
+import io.questdb.cairo.sql.PageFrame;
 import io.questdb.cairo.sql.ReaderOutOfDateException;
 import io.questdb.cairo.sql.SymbolTable;
+import io.questdb.cairo.sql.SymbolTableSource;
 import io.questdb.cairo.vm.MemoryFCRImpl;
 import io.questdb.cairo.vm.MemoryFMCRImpl;
 import io.questdb.cairo.vm.NullMapWriter;
@@ -208,6 +210,11 @@ public class TableWriter implements Closeable {
     private long commitInterval;
     private UpdateOperator updateOperator;
     private DropIndexOperator dropIndexOperator;
+    private HotTableCache hotCache;
+    // per column, partition timestamp -> state of the partition the bloom filter was built for
+    private final ObjList<LongLongHashMap> bloomFilterStates = new ObjList<>();
+    private BloomFilterWriter bloomFilterWriter;
+    private int bloomFilterPartitionCount = -1;
 
 
     public TableWriter(
@@ -369,6 +376,37 @@ public class TableWriter implements Closeable {
         return Unsafe.getUnsafe().getLong(timestampIndex + indexRow * 16);
     }
 
+    /**
+     * Enables bloom filter of the column values. Filters are built straight away for all partitions
+     * except the last one, which is still being appended to. After that they are rebuilt on commit
+     * for the partitions that change.
+     *
+     * @param columnName STRING or SYMBOL column name
+     */
+    public void addBloomFilter(CharSequence columnName) {
+        checkDistressed();
+
+        final int columnIndex = getColumnIndexQuiet(metaMem, columnName, columnCount);
+        if (columnIndex == -1) {
+            throw CairoException.nonCritical().put("column '").put(columnName).put("' does not exist");
+        }
+
+        final int columnType = getColumnType(metaMem, columnIndex);
+        if (!ColumnType.isSymbol(columnType) && !ColumnType.isString(columnType)) {
+            throw CairoException.nonCritical().put("cannot create bloom filter for [column='").put(columnName)
+                    .put("', type=").put(ColumnType.nameOf(columnType)).put(']');
+        }
+
+        if (isColumnBloomFiltered(metaMem, columnIndex)) {
+            throw CairoException.nonCritical().put("bloom filter already exists [column=").put(columnName).put(']');
+        }
+
+        commit();
+        setMetaBloomFilterFlag(columnIndex, true);
+        updateBloomFilters(true);
+        LOG.info().$("ADDED bloom filter to '").utf8(columnName).$('[').$(ColumnType.nameOf(columnType)).$("]' to ").$(path).$();
+    }
+
     public void addColumn(CharSequence name, int type) {
         checkColumnName(name);
         addColumn(name, type, configuration.getDefaultSymbolCapacity(), configuration.getDefaultSymbolCacheFlag(), false, 0, false);
@@ -582,6 +620,91 @@ public class TableWriter implements Closeable {
         metrics.tableWriter().addPhysicallyWrittenRows(rows);
     }
 
+    /**
+     * Appends all rows of the page frame by copying column memory rather than going through
+     * {@link Row}. Frame columns must match non-deleted writer columns one to one, types included.
+     * The frame is appended only when its rows are ordered by designated timestamp and do not go
+     * back in time. Otherwise, or when there is a pending row or uncommitted O3 data, nothing is
+     * written and the caller is expected to append the frame row by row.
+     *
+     * @param frame             page frame to append
+     * @param symbolTableSource symbol tables of the frame columns
+     * @param symbolKeyMaps     source to writer symbol key maps, one per frame column; symbol column maps
+     *                          are indexed by source key + 1, with 0 used for null, and must be
+     *                          filled with {@link SymbolTable#VALUE_NOT_FOUND} before the first frame
+     * @return true when frame has been appended
+     */
+    public boolean appendPageFrame(PageFrame frame, SymbolTableSource symbolTableSource, ObjList<IntList> symbolKeyMaps) {
+        final int timestampIndex = metadata.getTimestampIndex();
+        if (
+                timestampIndex == -1
+                        || (masterRef & 1) != 0
+                        || hasO3()
+                        || (rowAction != ROW_ACTION_OPEN_PARTITION && rowAction != ROW_ACTION_SWITCH_PARTITION && rowAction != ROW_ACTION_NO_PARTITION)
+        ) {
+            return false;
+        }
+
+        final long frameRowCount = frame.getPartitionHi() - frame.getPartitionLo();
+        if (frameRowCount < 1) {
+            return true;
+        }
+
+        long timestampAddress = 0;
+        for (int i = 0, frameColumnIndex = 0; i < columnCount; i++) {
+            if (metadata.getColumnType(i) > 0) {
+                final long address = frame.getPageAddress(frameColumnIndex++);
+                if (address == 0) {
+                    // column top, leave nulls to the row path
+                    return false;
+                }
+                if (i == timestampIndex) {
+                    timestampAddress = address;
+                }
+            }
+        }
+
+        final long firstTimestamp = Unsafe.getUnsafe().getLong(timestampAddress);
+        if (firstTimestamp < Timestamps.O3_MIN_TS || firstTimestamp < txWriter.getMaxTimestamp()) {
+            return false;
+        }
+        for (long r = 1, prev = firstTimestamp; r < frameRowCount; r++) {
+            final long timestamp = Unsafe.getUnsafe().getLong(timestampAddress + r * Long.BYTES);
+            if (timestamp < prev) {
+                return false;
+            }
+            prev = timestamp;
+        }
+
+        if (rowAction == ROW_ACTION_OPEN_PARTITION) {
+            if (txWriter.getMaxTimestamp() == Long.MIN_VALUE) {
+                txWriter.setMinTimestamp(firstTimestamp);
+                openFirstPartition(firstTimestamp);
+            }
+            rowAction = ROW_ACTION_SWITCH_PARTITION;
+        }
+
+        final boolean partitioned = rowAction == ROW_ACTION_SWITCH_PARTITION && PartitionBy.isPartitioned(partitionBy);
+        long lo = 0;
+        while (lo < frameRowCount) {
+            long hi = frameRowCount;
+            if (partitioned) {
+                final long timestamp = Unsafe.getUnsafe().getLong(timestampAddress + lo * Long.BYTES);
+                if (timestamp > partitionTimestampHi) {
+                    switchPartition(timestamp);
+                }
+                hi = lo + 1;
+                while (hi < frameRowCount && Unsafe.getUnsafe().getLong(timestampAddress + hi * Long.BYTES) <= partitionTimestampHi) {
+                    hi++;
+                }
+            }
+            appendPageFrameRows(frame, symbolTableSource, symbolKeyMaps, lo, hi);
+            txWriter.updateMaxTimestamp(Unsafe.getUnsafe().getLong(timestampAddress + (hi - 1) * Long.BYTES));
+            lo = hi;
+        }
+        return true;
+    }
+
     public AttachDetachStatus attachPartition(long timestamp) {
         // -1 means unknown size
         return attachPartition(timestamp, -1L);
@@ -701,6 +824,7 @@ public class TableWriter implements Closeable {
             columnVersionWriter.commit();
             txWriter.setColumnVersion(columnVersionWriter.getVersion());
             txWriter.commit(defaultCommitMode, denseSymbolMapWriters);
+            clearHotCache();
 
             LOG.info().$("partition attached [table=").$(tableName)
                     .$(", partition=").$ts(timestamp).I$();
@@ -912,6 +1036,7 @@ public class TableWriter implements Closeable {
 
                 txWriter.setColumnVersion(columnVersionWriter.getVersion());
                 txWriter.commit(defaultCommitMode, denseSymbolMapWriters);
+                clearHotCache();
                 // return at the end of the method after removing partition directory
             } else {
                 // rollback detached copy
@@ -933,6 +1058,24 @@ public class TableWriter implements Closeable {
         return AttachDetachStatus.OK;
     }
 
+    public void dropBloomFilter(CharSequence columnName) {
+        checkDistressed();
+
+        final int columnIndex = getColumnIndexQuiet(metaMem, columnName, columnCount);
+        if (columnIndex == -1) {
+            throw CairoException.nonCritical().put("column '").put(columnName).put("' does not exist");
+        }
+
+        if (!isColumnBloomFiltered(metaMem, columnIndex)) {
+            throw CairoException.nonCritical().put("column does not have bloom filter [column=").put(columnName).put(']');
+        }
+
+        commit();
+        setMetaBloomFilterFlag(columnIndex, false);
+        removeBloomFilters(columnIndex);
+        LOG.info().$("DROPPED bloom filter from '").utf8(columnName).$("' in ").$(path).$();
+    }
+
     public void dropIndex(CharSequence columnName) {
 
         checkDistressed();
@@ -1007,6 +1150,10 @@ public class TableWriter implements Closeable {
         return columnVersionWriter.getColumnNameTxn(partitionTimestamp, columnIndex);
     }
 
+    public long getDefaultColumnNameTxn(int columnIndex) {
+        return columnVersionWriter.getDefaultColumnNameTxn(columnIndex);
+    }
+
     public long getColumnTop(long partitionTimestamp, int columnIndex, long defaultValue) {
         long colTop = columnVersionWriter.getColumnTop(partitionTimestamp, columnIndex);
         return colTop > -1L ? colTop : defaultValue;
@@ -1488,6 +1635,7 @@ public class TableWriter implements Closeable {
         columnVersionWriter.commit();
         txWriter.setColumnVersion(columnVersionWriter.getVersion());
         txWriter.commit(defaultCommitMode, denseSymbolMapWriters);
+        clearHotCache();
 
         // Call O3 methods to remove check TxnScoreboard and remove partition directly
         safeDeletePartitionDir(timestamp, partitionNameTxn);
@@ -1495,6 +1643,180 @@ public class TableWriter implements Closeable {
         return true;
     }
 
+    /**
+     * Drops, or detaches, partitions that lie entirely before table's max timestamp minus its TTL.
+     * Active partition is never removed. Does nothing when table has no TTL.
+     *
+     * @param detach detach expired partitions instead of dropping them
+     * @return number of removed partitions
+     */
+    public int removeExpiredPartitions(boolean detach) {
+        final long ttl = metadata.getTtl();
+        if (ttl <= 0) {
+            return 0;
+        }
+        final long expiryTimestamp = txWriter.getMaxTimestamp() - ttl;
+        if (!detach) {
+            return removePartitionsBefore(expiryTimestamp);
+        }
+
+        int count = 0;
+        // active partition is never expired, detached partitions shift left
+        while (txWriter.getPartitionCount() > 1) {
+            final long partitionTimestamp = txWriter.getPartitionTimestamp(0);
+            if (partitionCeilMethod.ceil(partitionTimestamp) > expiryTimestamp) {
+                break;
+            }
+            final AttachDetachStatus status = detachPartition(partitionTimestamp);
+            if (status != AttachDetachStatus.OK) {
+                LOG.error().$("could not detach expired partition [table=").$(tableName)
+                        .$(", partition=").$ts(partitionTimestamp)
+                        .$(", status=").$(status.name()).I$();
+                break;
+            }
+            count++;
+        }
+        return count;
+    }
+
+    /**
+     * Removes partitions that hold no rows at or after the given timestamp, i.e. partitions which
+     * end at or before it. All partitions are removed in a single transaction and their directories
+     * are purged once no reader uses them. Active partition is never removed.
+     *
+     * @param timestamp partitions ending at or before this timestamp are removed
+     * @return number of removed partitions
+     */
+    public int removePartitionsBefore(long timestamp) {
+        if (!PartitionBy.isPartitioned(partitionBy) || txWriter.getPartitionCount() < 2) {
+            return 0;
+        }
+
+        final long activePartitionLo = getPartitionLo(txWriter.getMaxTimestamp());
+        int count = 0;
+        for (int i = 0, n = txWriter.getPartitionCount(); i < n; i++) {
+            final long partitionTimestamp = txWriter.getPartitionTimestamp(i);
+            if (partitionTimestamp == activePartitionLo || partitionCeilMethod.ceil(partitionTimestamp) > timestamp) {
+                break;
+            }
+            count++;
+        }
+
+        if (count == 0) {
+            return 0;
+        }
+
+        if (inTransaction()) {
+            commit();
+        }
+
+        o3PartitionRemoveCandidates.clear();
+        txWriter.beginPartitionSizeUpdate();
+        for (int i = 0; i < count; i++) {
+            // partitions shift left as they are removed
+            final long partitionTimestamp = txWriter.getPartitionTimestamp(0);
+            o3PartitionRemoveCandidates.add(partitionTimestamp, txWriter.getPartitionNameTxn(0));
+            columnVersionWriter.removePartition(partitionTimestamp);
+            txWriter.removeAttachedPartitions(partitionTimestamp);
+        }
+        final long nextMinTimestamp = readMinTimestamp(txWriter.getPartitionTimestamp(0));
+        txWriter.setMinTimestamp(nextMinTimestamp);
+        txWriter.finishPartitionSizeUpdate(nextMinTimestamp, txWriter.getMaxTimestamp());
+        txWriter.bumpTruncateVersion();
+
+        columnVersionWriter.commit();
+        txWriter.setColumnVersion(columnVersionWriter.getVersion());
+        txWriter.commit(defaultCommitMode, denseSymbolMapWriters);
+        clearHotCache();
+        o3ProcessPartitionRemoveCandidates();
+
+        LOG.info().$("removed partitions [table=").$(tableName)
+                .$(", count=").$(count)
+                .$(", before=").$ts(timestamp)
+                .I$();
+        return count;
+    }
+
+    /**
+     * Removes committed rows with timestamp at or after the given one. Partitions that end up
+     * empty are removed and the partition holding the timestamp is cut to the remaining rows.
+     * Removal is a regular transaction, readers keep seeing the previous state until they reload.
+     * Partition that is cut is copied to a new partition version first, so that rows appended after
+     * the removal do not overwrite rows visible to such readers. Removed partitions and replaced
+     * partition versions are purged once no reader uses them.
+     *
+     * @param timestamp lowest timestamp of the rows to remove
+     * @return number of removed rows
+     */
+    public long removeRowsFrom(long timestamp) {
+        rollback();
+
+        if (!PartitionBy.isPartitioned(partitionBy) || timestamp > txWriter.getMaxTimestamp()) {
+            return 0;
+        }
+
+        final long rowCount = txWriter.getRowCount();
+        o3PartitionRemoveCandidates.clear();
+        if (timestamp <= txWriter.getMinTimestamp()) {
+            removeAllRows();
+        } else {
+            txWriter.beginPartitionSizeUpdate();
+            final long partitionLo = getPartitionLo(timestamp);
+            for (int i = txWriter.getPartitionCount() - 1; i > -1; i--) {
+                final long partitionTimestamp = txWriter.getPartitionTimestamp(i);
+                if (partitionTimestamp < partitionLo) {
+                    break;
+                }
+                final long partitionNameTxn = txWriter.getPartitionNameTxn(i);
+                final long size = txWriter.getPartitionSize(i);
+                final long partitionSize = partitionTimestamp == partitionLo
+                        ? readPartitionRowCountBefore(partitionTimestamp, size, timestamp)
+                        : 0;
+                if (partitionSize == size) {
+                    // nothing to remove, rows are appended to this partition in place
+                    continue;
+                }
+                if (partitionSize > 0) {
+                    copyPartitionVersion(partitionTimestamp, partitionNameTxn, txWriter.txn);
+                    txWriter.updatePartitionSizeAndTxnByIndex(txWriter.findAttachedPartitionIndexByLoTimestamp(partitionTimestamp), partitionSize);
+                    txWriter.bumpPartitionTableVersion();
+                    o3PartitionRemoveCandidates.add(partitionTimestamp, partitionNameTxn);
+                } else {
+                    o3PartitionRemoveCandidates.add(partitionTimestamp, partitionNameTxn);
+                    columnVersionWriter.removePartition(partitionTimestamp);
+                    txWriter.removeAttachedPartitions(partitionTimestamp);
+                }
+            }
+
+            // timestamp is above min timestamp, so at least one partition is left
+            final int lastPartitionIndex = txWriter.getPartitionCount() - 1;
+            final long maxTimestamp = readPartitionTimestamp(
+                    txWriter.getPartitionTimestamp(lastPartitionIndex),
+                    txWriter.getPartitionSize(lastPartitionIndex) - 1
+            );
+            txWriter.finishPartitionSizeUpdate(txWriter.getMinTimestamp(), maxTimestamp);
+            txWriter.bumpTruncateVersion();
+
+            columnVersionWriter.commit();
+            txWriter.setColumnVersion(columnVersionWriter.getVersion());
+            txWriter.commit(defaultCommitMode, denseSymbolMapWriters);
+            clearHotCache();
+
+            // reopen the active partition at its new size and drop removed rows from indexes
+            freeColumns(false);
+            configureAppendPosition();
+            rollbackIndexes();
+        }
+        o3ProcessPartitionRemoveCandidates();
+
+        final long removedRowCount = rowCount - txWriter.getRowCount();
+        LOG.info().$("removed rows [name=").$(tableName)
+                .$(", from=").$ts(timestamp)
+                .$(", count=").$(removedRowCount)
+                .I$();
+        return removedRowCount;
+    }
+
     public void renameColumn(CharSequence currentName, CharSequence newName) {
 
         checkDistressed();
@@ -1691,6 +2013,13 @@ public class TableWriter implements Closeable {
                 if ((masterRef & 1) != 0) {
                     masterRef++;
                 }
+                if (hotCache != null) {
+                    if (o3InError) {
+                        hotCache.clear();
+                    } else {
+                        hotCache.rollback();
+                    }
+                }
                 freeColumns(false);
                 this.txWriter.unsafeLoadAll();
                 rollbackIndexes();
@@ -1715,6 +2044,21 @@ public class TableWriter implements Closeable {
         columnVersionWriter.readUnsafe();
     }
 
+    /**
+     * Sets the cache to copy rows appended in timestamp order into. The cache is cleared, it only
+     * holds rows appended by this writer. WAL tables are not cached.
+     *
+     * @param hotCache cache for the table, or null to stop caching
+     */
+    public void setHotCache(@Nullable HotTableCache hotCache) {
+        clearHotCache();
+        if (hotCache != null && metaMem.getInt(META_OFFSET_WAL_ENABLED) > 0) {
+            hotCache = null;
+        }
+        this.hotCache = hotCache;
+        clearHotCache();
+    }
+
     public void setExtensionListener(ExtensionListener listener) {
         txWriter.setExtensionListener(listener);
     }
@@ -1745,6 +2089,27 @@ public class TableWriter implements Closeable {
         }
     }
 
+    public void setMetaTtl(long ttl) {
+        try {
+            commit();
+            long metaSize = copyMetadataAndUpdateVersion();
+            openMetaSwapFileByIndex(ff, ddlMem, path, rootLen, this.metaSwapIndex);
+            try {
+                ddlMem.jumpTo(META_OFFSET_TTL);
+                ddlMem.putLong(ttl);
+                ddlMem.jumpTo(metaSize);
+            } finally {
+                ddlMem.close();
+            }
+
+            finishMetaSwapUpdate();
+            metadata.setTtl(ttl);
+            clearTodoLog();
+        } finally {
+            ddlMem.close();
+        }
+    }
+
     public void setMetaMaxUncommittedRows(int maxUncommittedRows) {
         try {
             commit();
@@ -1857,6 +2222,7 @@ public class TableWriter implements Closeable {
         txWriter.resetTimestamp();
         columnVersionWriter.truncate(PartitionBy.isPartitioned(partitionBy));
         txWriter.truncate(columnVersionWriter.getVersion());
+        clearHotCache();
         row = regularRow;
         try {
             clearTodoLog();
@@ -2314,6 +2680,58 @@ public class TableWriter implements Closeable {
         }
     }
 
+    private void appendPageFrameRows(PageFrame frame, SymbolTableSource symbolTableSource, ObjList<IntList> symbolKeyMaps, long lo, long hi) {
+        final long rowCount = hi - lo;
+        for (int i = 0, frameColumnIndex = 0; i < columnCount; i++) {
+            final int columnType = metadata.getColumnType(i);
+            if (columnType < 0) {
+                continue;
+            }
+            final long address = frame.getPageAddress(frameColumnIndex);
+            final MemoryMA mem = getPrimaryColumn(i);
+            switch (ColumnType.tagOf(columnType)) {
+                case ColumnType.SYMBOL:
+                    // symbol keys are local to the source table, translate them via values
+                    final MapWriter mapWriter = symbolMapWriters.getQuick(i);
+                    final SymbolTable symbolTable = symbolTableSource.getSymbolTable(frameColumnIndex);
+                    final IntList keyMap = symbolKeyMaps.getQuick(frameColumnIndex);
+                    for (long r = lo; r < hi; r++) {
+                        final int key = Unsafe.getUnsafe().getInt(address + r * Integer.BYTES);
+                        final int mapIndex = key == SymbolTable.VALUE_IS_NULL ? 0 : key + 1;
+                        int writerKey = mapIndex < keyMap.size() ? keyMap.getQuick(mapIndex) : SymbolTable.VALUE_NOT_FOUND;
+                        if (writerKey == SymbolTable.VALUE_NOT_FOUND) {
+                            writerKey = mapWriter.put(symbolTable.valueOf(key));
+                            if (mapIndex < keyMap.size()) {
+                                keyMap.setQuick(mapIndex, writerKey);
+                            }
+                        }
+                        mem.putInt(writerKey);
+                    }
+                    break;
+                case ColumnType.STRING:
+                case ColumnType.BINARY:
+                    // index page holds absolute offsets into the data page, rebase them onto our column
+                    final long indexAddress = frame.getIndexPageAddress(frameColumnIndex);
+                    final long dataLo = Unsafe.getUnsafe().getLong(indexAddress + lo * Long.BYTES);
+                    final long dataHi = Unsafe.getUnsafe().getLong(indexAddress + hi * Long.BYTES);
+                    final long offsetShift = mem.getAppendOffset() - dataLo;
+                    mem.putBlockOfBytes(address + dataLo, dataHi - dataLo);
+                    final MemoryMA indexMem = getSecondaryColumn(i);
+                    for (long r = lo + 1; r <= hi; r++) {
+                        indexMem.putLong(Unsafe.getUnsafe().getLong(indexAddress + r * Long.BYTES) + offsetShift);
+                    }
+                    break;
+                default:
+                    final int shl = ColumnType.pow2SizeOf(columnType);
+                    mem.putBlockOfBytes(address + (lo << shl), rowCount << shl);
+                    break;
+            }
+            frameColumnIndex++;
+        }
+        masterRef += 2 * rowCount;
+        txWriter.append(rowCount);
+    }
+
     private void bumpMasterRef() {
         if ((masterRef & 1) == 0) {
             masterRef++;
@@ -2326,6 +2744,7 @@ public class TableWriter implements Closeable {
         columnVersionWriter.commit();
         txWriter.setColumnVersion(columnVersionWriter.getVersion());
         txWriter.bumpStructureVersion(this.denseSymbolMapWriters);
+        clearHotCache();
         assert txWriter.getStructureVersion() == metadata.getStructureVersion();
     }
 
@@ -2429,6 +2848,8 @@ public class TableWriter implements Closeable {
             if (o3 && o3Commit(commitLag)) {
                 // Bookmark masterRef to track how many rows is in uncommitted state
                 this.committedMasterRef = masterRef;
+                clearHotCache();
+                updateBloomFilters(true);
                 return;
             }
 
@@ -2438,6 +2859,8 @@ public class TableWriter implements Closeable {
 
             final long committedRowCount = txWriter.unsafeCommittedFixedRowCount() + txWriter.unsafeCommittedTransientRowCount();
             final long rowsAdded = txWriter.getRowCount() - committedRowCount;
+            // column versions change when existing rows are rewritten, e.g. by UPDATE
+            final boolean columnVersionChanged = columnVersionWriter.hasChanges();
 
             updateIndexes();
             columnVersionWriter.commit();
@@ -2448,6 +2871,15 @@ public class TableWriter implements Closeable {
             this.committedMasterRef = masterRef;
             o3ProcessPartitionRemoveCandidates();
 
+            if (hotCache != null) {
+                if (o3 || columnVersionChanged) {
+                    hotCache.clear();
+                } else {
+                    hotCache.commit(rowsAdded, symbolMapWriters);
+                }
+            }
+            updateBloomFilters(o3 || columnVersionChanged);
+
             metrics.tableWriter().incrementCommits();
             metrics.tableWriter().addCommittedRows(rowsAdded);
             if (!o3) {
@@ -2457,6 +2889,130 @@ public class TableWriter implements Closeable {
         }
     }
 
+    private void clearHotCache() {
+        if (hotCache != null) {
+            hotCache.clear();
+        }
+    }
+
+    private void removeBloomFilters(int columnIndex) {
+        if (bloomFilterWriter == null) {
+            bloomFilterWriter = new BloomFilterWriter(configuration);
+        }
+        final CharSequence columnName = metadata.getColumnName(columnIndex);
+        try {
+            for (int i = 0, n = txWriter.getPartitionCount(); i < n; i++) {
+                final long partitionTimestamp = txWriter.getPartitionTimestamp(i);
+                path.trimTo(rootLen);
+                setStateForTimestamp(path, partitionTimestamp, false);
+                bloomFilterWriter.remove(path, columnName, columnVersionWriter.getColumnNameTxn(partitionTimestamp, columnIndex));
+            }
+        } finally {
+            path.trimTo(rootLen);
+        }
+        if (columnIndex < bloomFilterStates.size()) {
+            bloomFilterStates.setQuick(columnIndex, null);
+        }
+    }
+
+    private void setMetaBloomFilterFlag(int columnIndex, boolean enabled) {
+        try {
+            long metaSize = copyMetadataAndUpdateVersion();
+            openMetaSwapFileByIndex(ff, ddlMem, path, rootLen, this.metaSwapIndex);
+            try {
+                final long flags = getColumnFlags(metaMem, columnIndex);
+                ddlMem.jumpTo(META_OFFSET_COLUMN_TYPES + (long) columnIndex * META_COLUMN_DATA_SIZE + 4);
+                ddlMem.putLong(enabled ? flags | META_FLAG_BIT_BLOOM_FILTER : flags & ~META_FLAG_BIT_BLOOM_FILTER);
+                ddlMem.jumpTo(metaSize);
+            } finally {
+                ddlMem.close();
+            }
+
+            finishMetaSwapUpdate();
+            metadata.getColumnQuick(columnIndex).setBloomFiltered(enabled);
+            clearTodoLog();
+        } finally {
+            ddlMem.close();
+        }
+    }
+
+    private void updateBloomFilter(int columnIndex, int partitionIndex) {
+        LongLongHashMap states = bloomFilterStates.getQuiet(columnIndex);
+        if (states == null) {
+            states = new LongLongHashMap();
+            bloomFilterStates.extendAndSet(columnIndex, states);
+        }
+
+        final long partitionTimestamp = txWriter.getPartitionTimestamp(partitionIndex);
+        final long partitionSize = txWriter.getPartitionSize(partitionIndex);
+        final long columnNameTxn = columnVersionWriter.getColumnNameTxn(partitionTimestamp, columnIndex);
+        final long state = Hash.hashLong128(partitionSize, Hash.hashLong128(txWriter.getPartitionNameTxn(partitionIndex), columnNameTxn));
+        if (states.get(partitionTimestamp) == state) {
+            return;
+        }
+
+        final CharSequence columnName = metadata.getColumnName(columnIndex);
+        final long columnHash = getColumnHash(metaMem, columnIndex);
+        path.trimTo(rootLen);
+        setStateForTimestamp(path, partitionTimestamp, false);
+        if (!bloomFilterWriter.exists(path, columnName, columnNameTxn, columnHash, partitionSize)) {
+            LOG.info().$("building bloom filter [path=").$(path).$(", column=").utf8(columnName).I$();
+            bloomFilterWriter.write(
+                    path,
+                    columnName,
+                    columnNameTxn,
+                    getColumnType(metaMem, columnIndex),
+                    columnHash,
+                    columnVersionWriter.getColumnTop(partitionTimestamp, columnIndex),
+                    partitionSize
+            );
+        }
+        states.put(partitionTimestamp, state);
+    }
+
+    /**
+     * Builds bloom filters of the partitions that have changed since the filters were built.
+     * The last partition is not filtered, it keeps changing with every commit. Filter build
+     * failure does not fail the commit, queries ignore filters that do not match partition
+     * row count.
+     *
+     * @param rowsRewritten true when commit could have changed rows of partitions other than the last one
+     */
+    private void updateBloomFilters(boolean rowsRewritten) {
+        final int partitionCount = txWriter.getPartitionCount();
+        if (!rowsRewritten && partitionCount == bloomFilterPartitionCount) {
+            return;
+        }
+        bloomFilterPartitionCount = partitionCount;
+
+        for (int columnIndex = 0; columnIndex < columnCount; columnIndex++) {
+            if (getColumnType(metaMem, columnIndex) < 0 || !isColumnBloomFiltered(metaMem, columnIndex)) {
+                continue;
+            }
+            if (bloomFilterWriter == null) {
+                bloomFilterWriter = new BloomFilterWriter(configuration);
+            }
+            final LongLongHashMap states = bloomFilterStates.getQuiet(columnIndex);
+            if (states != null && states.size() > partitionCount) {
+                // forget dropped partitions
+                states.clear();
+            }
+            try {
+                for (int i = 0; i < partitionCount - 1; i++) {
+                    updateBloomFilter(columnIndex, i);
+                }
+            } catch (CairoException e) {
+                LOG.error().$("could not build bloom filter [table=").$(tableName)
+                        .$(", column=").utf8(metadata.getColumnName(columnIndex))
+                        .$(", errno=").$(e.getErrno())
+                        .$(", error=").$(e.getFlyweightMessage())
+                        .I$();
+            } finally {
+                path.trimTo(rootLen);
+            }
+        }
+    }
+
     private void configureAppendPosition() {
         final boolean partitioned = PartitionBy.isPartitioned(partitionBy);
         if (this.txWriter.getMaxTimestamp() > Long.MIN_VALUE || !partitioned) {
@@ -2589,6 +3145,9 @@ public class TableWriter implements Closeable {
                     if (isSequential(metaMem, i)) {
                         flags |= META_FLAG_BIT_SEQUENTIAL;
                     }
+                    if (isColumnBloomFiltered(metaMem, i)) {
+                        flags |= META_FLAG_BIT_BLOOM_FILTER;
+                    }
                     ddlMem.putLong(flags);
                     ddlMem.putInt(indexValueBlockSize);
                     ddlMem.putLong(getColumnHash(metaMem, i));
@@ -2648,6 +3207,26 @@ public class TableWriter implements Closeable {
         return res;
     }
 
+    private void copyPartitionVersion(long partitionTimestamp, long srcNameTxn, long dstNameTxn) {
+        setPathForPartition(path, partitionBy, partitionTimestamp, false);
+        TableUtils.txnPartitionConditionally(path, srcNameTxn);
+        setPathForPartition(other, partitionBy, partitionTimestamp, false);
+        TableUtils.txnPartitionConditionally(other, dstNameTxn);
+        try {
+            if (ff.exists(other.$()) && ff.rmdir(other) != 0) {
+                throw CairoException.critical(ff.errno()).put("could not remove stale partition version [path=").put(other).put(']');
+            }
+            if (ff.copyRecursive(path, other, configuration.getMkDirMode()) != 0) {
+                final int errno = ff.errno();
+                ff.rmdir(other.$());
+                throw CairoException.critical(errno).put("could not copy partition [from=").put(path).put(", to=").put(other).put(']');
+            }
+        } finally {
+            path.trimTo(rootLen);
+            other.trimTo(rootLen);
+        }
+    }
+
     private void copyVersionAndLagValues() {
         ddlMem.putInt(ColumnType.VERSION);
         ddlMem.putInt(metaMem.getInt(META_OFFSET_TABLE_ID));
@@ -2655,6 +3234,8 @@ public class TableWriter implements Closeable {
         ddlMem.putLong(metaMem.getLong(META_OFFSET_COMMIT_LAG));
         ddlMem.putLong(txWriter.getStructureVersion() + 1);
         ddlMem.putInt(metaMem.getInt(META_OFFSET_WAL_ENABLED));
+        ddlMem.jumpTo(META_OFFSET_TTL);
+        ddlMem.putLong(metaMem.getLong(META_OFFSET_TTL));
         metadata.setStructureVersion(txWriter.getStructureVersion() + 1);
     }
 
@@ -2742,6 +3323,8 @@ public class TableWriter implements Closeable {
 
     private void doClose(boolean truncate) {
         boolean tx = inTransaction();
+        // rows committed while the writer is closed would not make it to the cache
+        clearHotCache();
         freeSymbolMapWriters();
         freeIndexers();
         Misc.free(txWriter);
@@ -2759,6 +3342,7 @@ public class TableWriter implements Closeable {
         Misc.free(commandQueue);
         updateOperator = Misc.free(updateOperator);
         dropIndexOperator = null;
+        bloomFilterWriter = Misc.free(bloomFilterWriter);
         freeColumns(truncate & !distressed);
         try {
             releaseLock(!truncate | tx | performRecovery | distressed);
@@ -4890,6 +5474,66 @@ public class TableWriter implements Closeable {
         }
     }
 
+    private void removeAllRows() {
+        // unlike truncate(), files of removed partitions and symbol maps are left intact for readers
+        for (int i = 0, n = txWriter.getPartitionCount(); i < n; i++) {
+            o3PartitionRemoveCandidates.add(txWriter.getPartitionTimestamp(i), txWriter.getPartitionNameTxn(i));
+        }
+        freeColumns(false);
+        if (indexers != null) {
+            for (int i = 0, n = indexers.size(); i < n; i++) {
+                Misc.free(indexers.getQuick(i));
+            }
+        }
+        rowAction = ROW_ACTION_OPEN_PARTITION;
+        txWriter.resetTimestamp();
+        columnVersionWriter.truncate(true);
+        txWriter.truncate(columnVersionWriter.getVersion());
+        clearHotCache();
+        row = regularRow;
+    }
+
+    private long readPartitionRowCountBefore(long partitionTimestamp, long partitionSize, long timestamp) {
+        setStateForTimestamp(other, partitionTimestamp, false);
+        try {
+            dFile(other, metadata.getColumnName(metadata.getTimestampIndex()), COLUMN_NAME_TXN_NONE);
+            final long fd = TableUtils.openRO(ff, other, LOG);
+            try {
+                // binary search for the first row at or after timestamp
+                long lo = 0;
+                long hi = partitionSize;
+                while (lo < hi) {
+                    final long mid = (lo + hi) >>> 1;
+                    if (TableUtils.readLongOrFail(ff, fd, mid * Long.BYTES, tempMem16b, other) < timestamp) {
+                        lo = mid + 1;
+                    } else {
+                        hi = mid;
+                    }
+                }
+                return lo;
+            } finally {
+                ff.close(fd);
+            }
+        } finally {
+            other.trimTo(rootLen);
+        }
+    }
+
+    private long readPartitionTimestamp(long partitionTimestamp, long row) {
+        setStateForTimestamp(other, partitionTimestamp, false);
+        try {
+            dFile(other, metadata.getColumnName(metadata.getTimestampIndex()), COLUMN_NAME_TXN_NONE);
+            final long fd = TableUtils.openRO(ff, other, LOG);
+            try {
+                return TableUtils.readLongOrFail(ff, fd, row * Long.BYTES, tempMem16b, other);
+            } finally {
+                ff.close(fd);
+            }
+        } finally {
+            other.trimTo(rootLen);
+        }
+    }
+
     private void readPartitionMinMax(FilesFacade ff, long partitionTimestamp, Path path, CharSequence columnName, long partitionSize) {
         dFile(path, columnName, COLUMN_NAME_TXN_NONE);
         final long fd = TableUtils.openRO(ff, path, LOG);
@@ -5173,6 +5817,7 @@ public class TableWriter implements Closeable {
         removeFileAndOrLog(ff, iFile(path.trimTo(plen), columnName, columnNameTxn));
         removeFileAndOrLog(ff, keyFileName(path.trimTo(plen), columnName, columnNameTxn));
         removeFileAndOrLog(ff, valueFileName(path.trimTo(plen), columnName, columnNameTxn));
+        removeFileAndOrLog(ff, bloomFilterFile(path.trimTo(plen), columnName, columnNameTxn));
         path.trimTo(rootLen);
     }
 
@@ -5420,6 +6065,7 @@ public class TableWriter implements Closeable {
         renameFileOrLog(ff, iFile(path.trimTo(plen), columnName, columnNameTxn), iFile(other.trimTo(plen), newName, columnNameTxn));
         renameFileOrLog(ff, keyFileName(path.trimTo(plen), columnName, columnNameTxn), keyFileName(other.trimTo(plen), newName, columnNameTxn));
         renameFileOrLog(ff, valueFileName(path.trimTo(plen), columnName, columnNameTxn), valueFileName(other.trimTo(plen), newName, columnNameTxn));
+        renameFileOrLog(ff, bloomFilterFile(path.trimTo(plen), columnName, columnNameTxn), bloomFilterFile(other.trimTo(plen), newName, columnNameTxn));
         path.trimTo(rootLen);
         other.trimTo(rootLen);
     }
@@ -5667,6 +6313,9 @@ public class TableWriter implements Closeable {
                 }
             }
             masterRef++;
+            if (hotCache != null && activeColumns == columns) {
+                hotCacheAppendRow();
+            }
         }
     }
 
@@ -5937,6 +6586,14 @@ public class TableWriter implements Closeable {
         }
     }
 
+    private void hotCacheAppendRow() {
+        final long structureVersion = txWriter.getStructureVersion();
+        if (hotCache.getStructureVersion() != structureVersion) {
+            hotCache.of(metadata, structureVersion);
+        }
+        hotCache.appendRow(columns);
+    }
+
     private void throwDistressException(CairoException cause) {
         LOG.critical().$("writer error [table=").$(tableName).$(", e=").$((Sinkable) cause).I$();
         this.distressed = true;
@@ -6130,6 +6787,10 @@ public class TableWriter implements Closeable {
         if (isSequential(metaMem, i)) {
             flags |= META_FLAG_BIT_SEQUENTIAL;
         }
+
+        if (isColumnBloomFiltered(metaMem, i)) {
+            flags |= META_FLAG_BIT_BLOOM_FILTER;
+        }
         ddlMem.putLong(flags);
         ddlMem.putInt(getIndexBlockCapacity(metaMem, i));
         ddlMem.putLong(getColumnHash(metaMem, i));
@@ -37,6 +37,7 @@ public class TableWriterMetadata extends BaseRecordMetadata {
     private int version;
     private int maxUncommittedRows;
     private long commitLag;
+    private long ttl;
     private long structureVersion;
 
     public TableWriterMetadata(MemoryMR metaMem) {
@@ -50,6 +51,7 @@ public class TableWriterMetadata extends BaseRecordMetadata {
         this.id = metaMem.getInt(TableUtils.META_OFFSET_TABLE_ID);
         this.maxUncommittedRows = metaMem.getInt(TableUtils.META_OFFSET_MAX_UNCOMMITTED_ROWS);
         this.commitLag = metaMem.getLong(TableUtils.META_OFFSET_COMMIT_LAG);
+        this.ttl = metaMem.getLong(TableUtils.META_OFFSET_TTL);
         TableUtils.validateMeta(metaMem, columnNameIndexMap, ColumnType.VERSION);
         this.timestampIndex = metaMem.getInt(TableUtils.META_OFFSET_TIMESTAMP_INDEX);
         this.columnMetadata = new ObjList<>(this.columnCount);
@@ -64,18 +66,18 @@ public class TableWriterMetadata extends BaseRecordMetadata {
             assert name != null;
             int type = TableUtils.getColumnType(metaMem, i);
             String nameStr = Chars.toString(name);
-            columnMetadata.add(
-                    new TableColumnMetadata(
-                            nameStr,
-                            TableUtils.getColumnHash(metaMem, i),
-                            type,
-                            TableUtils.isColumnIndexed(metaMem, i),
-                            TableUtils.getIndexBlockCapacity(metaMem, i),
-                            true,
-                            null,
-                            i
-                    )
+            TableColumnMetadata columnMeta = new TableColumnMetadata(
+                    nameStr,
+                    TableUtils.getColumnHash(metaMem, i),
+                    type,
+                    TableUtils.isColumnIndexed(metaMem, i),
+                    TableUtils.getIndexBlockCapacity(metaMem, i),
+                    true,
+                    null,
+                    i
             );
+            columnMeta.setBloomFiltered(TableUtils.isColumnBloomFiltered(metaMem, i));
+            columnMetadata.add(columnMeta);
             columnNameIndexMap.put(nameStr, i);
             if (ColumnType.isSymbol(type)) {
                 symbolMapCount++;
@@ -127,6 +129,14 @@ public class TableWriterMetadata extends BaseRecordMetadata {
         this.structureVersion = value;
     }
 
+    public long getTtl() {
+        return ttl;
+    }
+
+    public void setTtl(long micros) {
+        this.ttl = micros;
+    }
+
     public int getSymbolMapCount() {
         return symbolMapCount;
     }
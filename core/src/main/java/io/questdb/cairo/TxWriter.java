@@ -62,6 +62,10 @@ public final class TxWriter extends TxReader implements Closeable, Mutable, Symb
         transientRowCount++;
     }
 
+    public void append(long rowCount) {
+        transientRowCount += rowCount;
+    }
+
     public void beginPartitionSizeUpdate() {
         if (maxTimestamp != Long.MIN_VALUE) {
             // Last partition size is usually not stored in attached partitions list
@@ -189,6 +189,11 @@ public class CompactMap implements Map, Reopenable {
         return cursor;
     }
 
+    @Override
+    public long getHeapSize() {
+        return getAppendOffset() + (mask + 1) * 8;
+    }
+
     @Override
     public MapRecord getRecord() {
         return record;
@@ -386,13 +391,13 @@ public class CompactMap implements Map, Reopenable {
             long offset = getOffsetAt(slot);
 
             if (offset == -1) {
-                return null;
+                return notFound0();
             } else {
                 // check if this was a direct hit
                 byte flag = entries.getByte(offset);
                 if ((flag & BITS_DIRECT_HIT) == 0) {
                     // not a direct hit? not our value
-                    return null;
+                    return notFound0();
                 } else {
                     // this is direct hit, scroll down all keys with same hashcode
                     // and exit this loop as soon as equality operator scores
@@ -417,12 +422,17 @@ public class CompactMap implements Map, Reopenable {
                             distance = entries.getByte(offset) & BITS_DISTANCE;
                         }
                         // reached the end of the list, nothing found
-                        return null;
+                        return notFound0();
                     }
                 }
             }
         }
 
+        @Override
+        public long hash() {
+            return hashFunction.hash(currentEntryOffset + entryKeyOffset, currentEntrySize - entryKeyOffset);
+        }
+
         @Override
         public void put(Record record, RecordSink sink) {
             sink.copy(record, key);
@@ -642,6 +652,13 @@ public class CompactMap implements Map, Reopenable {
             return value;
         }
 
+        private CompactMapValue notFound0() {
+            // undo this key append, so that the partially written
+            // entry does not end up in the map
+            currentEntrySize = 0;
+            return null;
+        }
+
         private long getEntrySize(long offset) {
             return entries.getLong(offset + 1);
         }
@@ -235,6 +235,11 @@ public class FastMap implements Map, Reopenable {
         return cursor.init(kStart, size);
     }
 
+    @Override
+    public long getHeapSize() {
+        return capacity + (long) keyCapacity * Long.BYTES;
+    }
+
     @Override
     public MapRecord getRecord() {
         return record;
@@ -501,6 +506,12 @@ public class FastMap implements Map, Reopenable {
             return findValue(value3);
         }
 
+        @Override
+        public long hash() {
+            commit();
+            return hashFunction.hash(startAddress + keyDataOffset, len - keyDataOffset);
+        }
+
         @Override
         public void put(Record record, RecordSink sink) {
             sink.copy(record, this);
@@ -27,7 +27,7 @@ package io.questdb.cairo.map;
 import io.questdb.std.Long256;
 import io.questdb.std.Unsafe;
 
-final class FastMapValue implements MapValue {
+class FastMapValue implements MapValue {
     private final int[] valueOffsets;
     private long address;
     private boolean _new;
@@ -218,7 +218,7 @@ final class FastMapValue implements MapValue {
 
     }
 
-    private long address0(int index) {
+    long address0(int index) {
         return address + valueOffsets[index];
     }
 
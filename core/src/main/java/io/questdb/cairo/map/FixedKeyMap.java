@@ -0,0 +1,543 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.cairo.map;
+
+import io.questdb.cairo.*;
+import io.questdb.cairo.sql.Record;
+import io.questdb.cairo.sql.RecordCursor;
+import io.questdb.griffin.engine.LimitOverflowException;
+import io.questdb.std.*;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Hash map for one or two fixed-size key columns that fit into 16 bytes, for example
+ * a single SYMBOL, LONG or TIMESTAMP key, or a pair of INT keys. Unlike {@link FastMap},
+ * keys are not serialized into a variable-length key area and hashed with
+ * {@link Hash#hashMem(long, long)}. Instead, every slot of the open-addressing table
+ * holds the key hash, the key itself and the value block:
+ * <pre>
+ * [ hash | key (8 or 16 bytes) | value block ]
+ * </pre>
+ * Collisions are resolved with linear probing. Empty slots have zero in place of the hash,
+ * occupied slots always have the sign bit of the hash set. Offsets of occupied slots are
+ * also recorded in insertion order, so the cursor returns entries in the same order as
+ * {@link FastMap} would.
+ * <p>
+ * Use {@link #keySizeOf(ColumnTypes)} to check whether key types are supported.
+ */
+public class FixedKeyMap implements Map, Reopenable {
+
+    private static final long OCCUPIED = Long.MIN_VALUE;
+    private static final int MIN_INITIAL_CAPACITY = 4;
+    // largest power of two capacity that can be doubled without overflowing int
+    private static final int MAX_CAPACITY = 1 << 29;
+    private final double loadFactor;
+    private final Key key = new Key();
+    private final FixedKeyMapValue value;
+    private final FixedKeyMapValue value2;
+    private final FixedKeyMapValue value3;
+    private final FixedKeyMapCursor cursor;
+    private final FixedKeyMapRecord record;
+    // size of key area in slot, either 8 or 16 bytes
+    private final int keySize;
+    private final long slotSize;
+    private final int maxResizes;
+    private final int initialCapacity;
+    // slot offsets in insertion order
+    private final DirectLongList order;
+    private long slotsAddress;
+    private int capacity;
+    private int mask;
+    private int free;
+    private int size;
+    private int nResizes;
+
+    public FixedKeyMap(
+            int pageSize,
+            @Transient @NotNull ColumnTypes keyTypes,
+            @Transient @Nullable ColumnTypes valueTypes,
+            int keyCapacity,
+            double loadFactor,
+            int maxResizes
+    ) {
+        assert loadFactor > 0 && loadFactor < 1d;
+        final int keyLen = keySizeOf(keyTypes);
+        if (keyLen == -1) {
+            throw CairoException.nonCritical().put("key types are not supported by fixed key map");
+        }
+        this.keySize = keyLen > Long.BYTES ? 2 * Long.BYTES : Long.BYTES;
+        this.loadFactor = loadFactor;
+        this.maxResizes = maxResizes;
+
+        final int keyColumnCount = keyTypes.getColumnCount();
+        final int[] keyOffsets = new int[keyColumnCount];
+        int offset = Long.BYTES;
+        for (int i = 0; i < keyColumnCount; i++) {
+            keyOffsets[i] = offset;
+            offset += columnSizeOf(keyTypes.getColumnType(i));
+        }
+
+        offset = Long.BYTES + keySize;
+        final int valueColumnCount = valueTypes != null ? valueTypes.getColumnCount() : 0;
+        final int[] valueOffsets = new int[valueColumnCount];
+        for (int i = 0; i < valueColumnCount; i++) {
+            valueOffsets[i] = offset;
+            final int columnType = valueTypes.getColumnType(i);
+            switch (ColumnType.tagOf(columnType)) {
+                case ColumnType.BYTE:
+                case ColumnType.BOOLEAN:
+                case ColumnType.GEOBYTE:
+                    offset++;
+                    break;
+                case ColumnType.SHORT:
+                case ColumnType.CHAR:
+                case ColumnType.GEOSHORT:
+                    offset += 2;
+                    break;
+                case ColumnType.INT:
+                case ColumnType.FLOAT:
+                case ColumnType.SYMBOL:
+                case ColumnType.GEOINT:
+                    offset += 4;
+                    break;
+                case ColumnType.LONG:
+                case ColumnType.DOUBLE:
+                case ColumnType.DATE:
+                case ColumnType.TIMESTAMP:
+                case ColumnType.GEOLONG:
+                    offset += 8;
+                    break;
+                case ColumnType.LONG256:
+                    offset += Long256.BYTES;
+                    break;
+                case ColumnType.LONG128:
+                    offset += 16;
+                    break;
+                default:
+                    throw CairoException.nonCritical().put("value type is not supported: ").put(ColumnType.nameOf(columnType));
+            }
+        }
+        // keep hash of every slot aligned
+        this.slotSize = (offset + Long.BYTES - 1) & -Long.BYTES;
+
+        final long pageSlots = Long.highestOneBit(Math.max(pageSize / slotSize, 1));
+        this.initialCapacity = (int) Math.max(
+                MIN_INITIAL_CAPACITY,
+                Math.min(Numbers.ceilPow2((int) (keyCapacity / loadFactor)), pageSlots)
+        );
+        this.order = new DirectLongList((long) (initialCapacity * loadFactor), MemoryTag.NATIVE_FAST_MAP_LONG_LIST);
+        try {
+            allocate(initialCapacity);
+        } catch (Throwable th) {
+            order.close();
+            throw th;
+        }
+
+        this.value = new FixedKeyMapValue(valueOffsets);
+        this.value2 = new FixedKeyMapValue(valueOffsets);
+        this.value3 = new FixedKeyMapValue(valueOffsets);
+        this.record = new FixedKeyMapRecord(valueOffsets, keyOffsets, value, valueTypes);
+        this.cursor = new FixedKeyMapCursor(record, this);
+    }
+
+    /**
+     * Calculates number of bytes occupied by key columns when the map can hold them.
+     *
+     * @param keyTypes key column types
+     * @return total size of key columns in bytes or -1 when there are no key columns, more than
+     * two of them, any of them is of variable size or all of them do not fit into 16 bytes
+     */
+    public static int keySizeOf(@Transient ColumnTypes keyTypes) {
+        final int n = keyTypes.getColumnCount();
+        if (n == 0 || n > 2) {
+            return -1;
+        }
+        int size = 0;
+        for (int i = 0; i < n; i++) {
+            final int columnSize = columnSizeOf(keyTypes.getColumnType(i));
+            if (columnSize == -1) {
+                return -1;
+            }
+            size += columnSize;
+        }
+        return size > 2 * Long.BYTES ? -1 : size;
+    }
+
+    @Override
+    public void clear() {
+        Vect.memset(slotsAddress, capacity * slotSize, 0);
+        order.clear();
+        free = (int) (capacity * loadFactor);
+        size = 0;
+    }
+
+    @Override
+    public final void close() {
+        Misc.free(order);
+        if (slotsAddress != 0) {
+            Unsafe.free(slotsAddress, capacity * slotSize, MemoryTag.NATIVE_FAST_MAP);
+            slotsAddress = 0;
+            capacity = 0;
+            free = 0;
+            size = 0;
+        }
+    }
+
+    @Override
+    public RecordCursor getCursor() {
+        return cursor.init(size);
+    }
+
+    @Override
+    public long getHeapSize() {
+        return capacity * slotSize + order.getCapacity() * Long.BYTES;
+    }
+
+    public int getKeyCapacity() {
+        return capacity;
+    }
+
+    @Override
+    public MapRecord getRecord() {
+        return record;
+    }
+
+    @Override
+    public void reopen() {
+        if (slotsAddress == 0) {
+            restoreInitialCapacity();
+        }
+    }
+
+    @Override
+    public void restoreInitialCapacity() {
+        if (slotsAddress != 0) {
+            Unsafe.free(slotsAddress, capacity * slotSize, MemoryTag.NATIVE_FAST_MAP);
+            slotsAddress = 0;
+        }
+        order.resetCapacity();
+        order.clear();
+        allocate(initialCapacity);
+    }
+
+    @Override
+    public long size() {
+        return size;
+    }
+
+    @Override
+    public MapValue valueAt(long address) {
+        return value.of(address, false);
+    }
+
+    @Override
+    public MapKey withKey() {
+        return key.init();
+    }
+
+    private static int columnSizeOf(int columnType) {
+        switch (ColumnType.tagOf(columnType)) {
+            case ColumnType.BYTE:
+            case ColumnType.BOOLEAN:
+            case ColumnType.GEOBYTE:
+                return 1;
+            case ColumnType.SHORT:
+            case ColumnType.CHAR:
+            case ColumnType.GEOSHORT:
+                return 2;
+            case ColumnType.INT:
+            case ColumnType.FLOAT:
+            case ColumnType.SYMBOL:
+            case ColumnType.GEOINT:
+                return 4;
+            case ColumnType.LONG:
+            case ColumnType.DOUBLE:
+            case ColumnType.DATE:
+            case ColumnType.TIMESTAMP:
+            case ColumnType.GEOLONG:
+                return 8;
+            case ColumnType.LONG128:
+                return 16;
+            default:
+                return -1;
+        }
+    }
+
+    private void allocate(int capacity) {
+        final long len = capacity * slotSize;
+        this.slotsAddress = Unsafe.malloc(len, MemoryTag.NATIVE_FAST_MAP);
+        Vect.memset(slotsAddress, len, 0);
+        this.capacity = capacity;
+        this.mask = capacity - 1;
+        this.free = (int) (capacity * loadFactor);
+        this.size = 0;
+        this.nResizes = 0;
+    }
+
+    private void rehash() {
+        if (nResizes < maxResizes) {
+            if (capacity > MAX_CAPACITY) {
+                throw LimitOverflowException.instance().put("FixedKeyMap capacity overflow [capacity=").put(capacity).put(']');
+            }
+            nResizes++;
+            final int newCapacity = capacity << 1;
+            final int newMask = newCapacity - 1;
+            final long len = newCapacity * slotSize;
+            final long newAddress = Unsafe.malloc(len, MemoryTag.NATIVE_FAST_MAP);
+            Vect.memset(newAddress, len, 0);
+
+            // re-inserting in insertion order keeps the order list valid
+            for (long i = 0, n = order.size(); i < n; i++) {
+                final long src = slotsAddress + order.get(i);
+                int index = (int) (Unsafe.getUnsafe().getLong(src) & newMask);
+                while (Unsafe.getUnsafe().getLong(newAddress + index * slotSize) != 0) {
+                    index = (index + 1) & newMask;
+                }
+                final long dst = newAddress + index * slotSize;
+                Vect.memcpy(dst, src, slotSize);
+                order.set(i, dst - newAddress);
+            }
+
+            Unsafe.free(slotsAddress, capacity * slotSize, MemoryTag.NATIVE_FAST_MAP);
+            this.slotsAddress = newAddress;
+            this.free += (newCapacity - capacity) * loadFactor;
+            this.capacity = newCapacity;
+            this.mask = newMask;
+        } else {
+            throw LimitOverflowException.instance().put("limit of ").put(maxResizes).put(" resizes exceeded in FixedKeyMap");
+        }
+    }
+
+    long slotAddress(long index) {
+        return slotsAddress + order.get(index);
+    }
+
+    class Key implements MapKey {
+        private long k0;
+        private long k1;
+        // number of key bytes written so far
+        private int offset;
+
+        @Override
+        public MapValue createValue() {
+            return createValue(value);
+        }
+
+        @Override
+        public MapValue createValue2() {
+            return createValue(value2);
+        }
+
+        @Override
+        public MapValue createValue3() {
+            return createValue(value3);
+        }
+
+        @Override
+        public MapValue findValue() {
+            return findValue(value);
+        }
+
+        @Override
+        public MapValue findValue2() {
+            return findValue(value2);
+        }
+
+        @Override
+        public MapValue findValue3() {
+            return findValue(value3);
+        }
+
+        @Override
+        public long hash() {
+            return keySize == Long.BYTES ? Hash.hashLong64(k0) : Hash.hashLong128(k0, k1);
+        }
+
+        public Key init() {
+            k0 = 0;
+            k1 = 0;
+            offset = 0;
+            return this;
+        }
+
+        @Override
+        public void put(Record record, RecordSink sink) {
+            sink.copy(record, this);
+        }
+
+        @Override
+        public void putBin(BinarySequence value) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void putBool(boolean value) {
+            putBits(value ? 1 : 0, 1);
+        }
+
+        @Override
+        public void putByte(byte value) {
+            putBits(value & 0xffL, 1);
+        }
+
+        @Override
+        public void putChar(char value) {
+            putBits(value, Character.BYTES);
+        }
+
+        @Override
+        public void putDate(long value) {
+            putLong(value);
+        }
+
+        @Override
+        public void putDouble(double value) {
+            putBits(Double.doubleToRawLongBits(value), Double.BYTES);
+        }
+
+        @Override
+        public void putFloat(float value) {
+            putBits(Float.floatToRawIntBits(value) & 0xffffffffL, Float.BYTES);
+        }
+
+        @Override
+        public void putInt(int value) {
+            putBits(value & 0xffffffffL, Integer.BYTES);
+        }
+
+        @Override
+        public void putLong(long value) {
+            putBits(value, Long.BYTES);
+        }
+
+        @Override
+        public void putLong128LittleEndian(long hi, long lo) {
+            assert offset == 0;
+            k0 = lo;
+            k1 = hi;
+            offset = 16;
+        }
+
+        @Override
+        public void putLong256(Long256 value) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void putRecord(Record value) {
+            // noop
+        }
+
+        @Override
+        public void putShort(short value) {
+            putBits(value & 0xffffL, Short.BYTES);
+        }
+
+        @Override
+        public void putStr(CharSequence value) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void putStr(CharSequence value, int lo, int hi) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void putTimestamp(long value) {
+            putLong(value);
+        }
+
+        @Override
+        public void skip(int bytes) {
+            offset += bytes;
+        }
+
+        private MapValue createValue(FixedKeyMapValue value) {
+            final long hash = hash();
+            final long stamp = hash | OCCUPIED;
+            int index = (int) (hash & mask);
+            long p;
+            long h;
+            while ((h = Unsafe.getUnsafe().getLong(p = slotsAddress + index * slotSize)) != 0) {
+                if (h == stamp && eq(p)) {
+                    return value.of(p, false);
+                }
+                index = (index + 1) & mask;
+            }
+
+            Unsafe.getUnsafe().putLong(p, stamp);
+            Unsafe.getUnsafe().putLong(p + Long.BYTES, k0);
+            if (keySize > Long.BYTES) {
+                Unsafe.getUnsafe().putLong(p + 2 * Long.BYTES, k1);
+            }
+            order.add(p - slotsAddress);
+            size++;
+            if (--free == 0) {
+                rehash();
+                // slot has moved
+                p = slotAddress(size - 1);
+            }
+            return value.of(p, true);
+        }
+
+        private boolean eq(long p) {
+            return Unsafe.getUnsafe().getLong(p + Long.BYTES) == k0
+                    && (keySize == Long.BYTES || Unsafe.getUnsafe().getLong(p + 2 * Long.BYTES) == k1);
+        }
+
+        private MapValue findValue(FixedKeyMapValue value) {
+            final long hash = hash();
+            final long stamp = hash | OCCUPIED;
+            int index = (int) (hash & mask);
+            long p;
+            long h;
+            while ((h = Unsafe.getUnsafe().getLong(p = slotsAddress + index * slotSize)) != 0) {
+                if (h == stamp && eq(p)) {
+                    return value.of(p, false);
+                }
+                index = (index + 1) & mask;
+            }
+            return null;
+        }
+
+        // writes little-endian value of given size at current offset of 16-byte key
+        private void putBits(long bits, int size) {
+            assert offset + size <= 2 * Long.BYTES;
+            final int shift = offset << 3;
+            if (offset < Long.BYTES) {
+                k0 |= bits << shift;
+                if (offset + size > Long.BYTES) {
+                    k1 |= bits >>> (64 - shift);
+                }
+            } else {
+                k1 |= bits << (shift - 64);
+            }
+            offset += size;
+        }
+    }
+}
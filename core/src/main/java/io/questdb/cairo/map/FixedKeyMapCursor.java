@@ -0,0 +1,90 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.cairo.map;
+
+import io.questdb.cairo.sql.Record;
+import io.questdb.cairo.sql.RecordCursor;
+
+public final class FixedKeyMapCursor implements RecordCursor {
+    private final FixedKeyMapRecord recordA;
+    private final MapRecord recordB;
+    private final FixedKeyMap map;
+    private long index;
+    private long count;
+
+    FixedKeyMapCursor(FixedKeyMapRecord record, FixedKeyMap map) {
+        this.recordA = record;
+        this.recordB = record.clone();
+        this.map = map;
+    }
+
+    @Override
+    public void close() {
+        map.restoreInitialCapacity();
+    }
+
+    @Override
+    public MapRecord getRecord() {
+        return recordA;
+    }
+
+    @Override
+    public MapRecord getRecordB() {
+        return recordB;
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (index < count) {
+            // slots move when map is rehashed, their insertion order index does not
+            recordA.of(map.slotAddress(index++));
+            return true;
+        }
+        return false;
+    }
+
+    @Override
+    public void recordAt(Record record, long atRowId) {
+        assert record instanceof FixedKeyMapRecord;
+        ((FixedKeyMapRecord) record).of(atRowId);
+    }
+
+    @Override
+    public long size() {
+        return map.size();
+    }
+
+    @Override
+    public void toTop() {
+        index = 0;
+    }
+
+    FixedKeyMapCursor init(long count) {
+        this.index = 0;
+        this.count = count;
+        return this;
+    }
+}
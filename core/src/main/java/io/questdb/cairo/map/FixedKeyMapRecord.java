@@ -0,0 +1,249 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.cairo.map;
+
+import io.questdb.cairo.ColumnType;
+import io.questdb.cairo.ColumnTypes;
+import io.questdb.cairo.sql.RecordCursor;
+import io.questdb.std.*;
+import io.questdb.std.str.CharSink;
+
+final class FixedKeyMapRecord implements MapRecord {
+    // value columns are followed by key columns, both offsets are relative to slot address
+    private final int[] valueOffsets;
+    private final int[] keyOffsets;
+    private final int split;
+    private final FixedKeyMapValue value;
+    // LONG256 is never a key column, only value columns need these
+    private final Long256Impl[] long256A;
+    private final Long256Impl[] long256B;
+    private long address;
+    private RecordCursor symbolTableResolver;
+    private IntList symbolTableIndex;
+
+    FixedKeyMapRecord(int[] valueOffsets, int[] keyOffsets, FixedKeyMapValue value, @Transient ColumnTypes valueTypes) {
+        Long256Impl[] long256A = null;
+        Long256Impl[] long256B = null;
+        final int n = valueTypes != null ? valueTypes.getColumnCount() : 0;
+        for (int i = 0; i < n; i++) {
+            if (ColumnType.tagOf(valueTypes.getColumnType(i)) == ColumnType.LONG256) {
+                if (long256A == null) {
+                    long256A = new Long256Impl[n];
+                    long256B = new Long256Impl[n];
+                }
+                long256A[i] = new Long256Impl();
+                long256B[i] = new Long256Impl();
+            }
+        }
+        this.valueOffsets = valueOffsets;
+        this.keyOffsets = keyOffsets;
+        this.split = valueOffsets.length;
+        this.value = value;
+        this.value.linkRecord(this); // provides feature to position this record at location of map value
+        this.long256A = long256A;
+        this.long256B = long256B;
+    }
+
+    private FixedKeyMapRecord(
+            int[] valueOffsets,
+            int[] keyOffsets,
+            FixedKeyMapValue value,
+            Long256Impl[] long256A,
+            Long256Impl[] long256B
+    ) {
+        this.valueOffsets = valueOffsets;
+        this.keyOffsets = keyOffsets;
+        this.split = valueOffsets.length;
+        this.value = value;
+        this.value.linkRecord(this);
+        this.long256A = long256A;
+        this.long256B = long256B;
+    }
+
+    @Override
+    public boolean getBool(int columnIndex) {
+        return Unsafe.getBool(addressOfColumn(columnIndex));
+    }
+
+    @Override
+    public byte getByte(int columnIndex) {
+        return Unsafe.getUnsafe().getByte(addressOfColumn(columnIndex));
+    }
+
+    @Override
+    public char getChar(int columnIndex) {
+        return Unsafe.getUnsafe().getChar(addressOfColumn(columnIndex));
+    }
+
+    @Override
+    public double getDouble(int columnIndex) {
+        return Unsafe.getUnsafe().getDouble(addressOfColumn(columnIndex));
+    }
+
+    @Override
+    public float getFloat(int columnIndex) {
+        return Unsafe.getUnsafe().getFloat(addressOfColumn(columnIndex));
+    }
+
+    @Override
+    public byte getGeoByte(int col) {
+        return getByte(col);
+    }
+
+    @Override
+    public int getGeoInt(int col) {
+        return getInt(col);
+    }
+
+    @Override
+    public long getGeoLong(int col) {
+        return getLong(col);
+    }
+
+    @Override
+    public short getGeoShort(int col) {
+        return getShort(col);
+    }
+
+    @Override
+    public int getInt(int columnIndex) {
+        return Unsafe.getUnsafe().getInt(addressOfColumn(columnIndex));
+    }
+
+    @Override
+    public long getLong(int columnIndex) {
+        return Unsafe.getUnsafe().getLong(addressOfColumn(columnIndex));
+    }
+
+    @Override
+    public void getLong256(int columnIndex, CharSink sink) {
+        final long address = addressOfColumn(columnIndex);
+        final long a = Unsafe.getUnsafe().getLong(address);
+        final long b = Unsafe.getUnsafe().getLong(address + Long.BYTES);
+        final long c = Unsafe.getUnsafe().getLong(address + Long.BYTES * 2);
+        final long d = Unsafe.getUnsafe().getLong(address + Long.BYTES * 3);
+        Numbers.appendLong256(a, b, c, d, sink);
+    }
+
+    @Override
+    public Long256 getLong256A(int columnIndex) {
+        return getLong256Generic(long256A, columnIndex);
+    }
+
+    @Override
+    public Long256 getLong256B(int columnIndex) {
+        return getLong256Generic(long256B, columnIndex);
+    }
+
+    @Override
+    public long getLong128Hi(int columnIndex) {
+        return Unsafe.getUnsafe().getLong(addressOfColumn(columnIndex) + Long.BYTES);
+    }
+
+    @Override
+    public long getLong128Lo(int columnIndex) {
+        return Unsafe.getUnsafe().getLong(addressOfColumn(columnIndex));
+    }
+
+    @Override
+    public long getRowId() {
+        return address;
+    }
+
+    @Override
+    public short getShort(int columnIndex) {
+        return Unsafe.getUnsafe().getShort(addressOfColumn(columnIndex));
+    }
+
+    @Override
+    public CharSequence getSym(int col) {
+        return symbolTableResolver.getSymbolTable(symbolTableIndex.getQuick(col)).valueOf(getInt(col));
+    }
+
+    @Override
+    public CharSequence getSymB(int col) {
+        return symbolTableResolver.getSymbolTable(symbolTableIndex.getQuick(col)).valueBOf(getInt(col));
+    }
+
+    @Override
+    public MapValue getValue() {
+        return value.of(address, false);
+    }
+
+    @Override
+    public void setSymbolTableResolver(RecordCursor resolver, IntList symbolTableIndex) {
+        this.symbolTableResolver = resolver;
+        this.symbolTableIndex = symbolTableIndex;
+    }
+
+    private long addressOfColumn(int index) {
+        if (index < split) {
+            return address + valueOffsets[index];
+        }
+        return address + keyOffsets[index - split];
+    }
+
+    private static Long256Impl[] cloneLong256(Long256Impl[] long256) {
+        if (long256 == null) {
+            return null;
+        }
+        final Long256Impl[] clone = new Long256Impl[long256.length];
+        for (int i = 0, n = long256.length; i < n; i++) {
+            if (long256[i] != null) {
+                clone[i] = new Long256Impl();
+            }
+        }
+        return clone;
+    }
+
+    private Long256 getLong256Generic(Long256Impl[] array, int columnIndex) {
+        final long address = addressOfColumn(columnIndex);
+        final Long256Impl long256 = array[columnIndex];
+        long256.setAll(
+                Unsafe.getUnsafe().getLong(address),
+                Unsafe.getUnsafe().getLong(address + Long.BYTES),
+                Unsafe.getUnsafe().getLong(address + Long.BYTES * 2),
+                Unsafe.getUnsafe().getLong(address + Long.BYTES * 3)
+        );
+        return long256;
+    }
+
+    @SuppressWarnings("MethodDoesntCallSuperMethod")
+    @Override
+    protected MapRecord clone() {
+        return new FixedKeyMapRecord(
+                valueOffsets,
+                keyOffsets,
+                new FixedKeyMapValue(valueOffsets),
+                cloneLong256(long256A),
+                cloneLong256(long256B)
+        );
+    }
+
+    void of(long address) {
+        this.address = address;
+    }
+}
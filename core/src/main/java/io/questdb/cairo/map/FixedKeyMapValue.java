@@ -0,0 +1,71 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.cairo.map;
+
+import io.questdb.std.Long256;
+import io.questdb.std.Long256Impl;
+import io.questdb.std.Long256Util;
+import io.questdb.std.Unsafe;
+
+final class FixedKeyMapValue extends FastMapValue {
+    private final Long256Impl acc = new Long256Impl();
+    private FixedKeyMapRecord record;
+
+    FixedKeyMapValue(int[] valueOffsets) {
+        super(valueOffsets);
+    }
+
+    @Override
+    public void addLong256(int index, Long256 value) {
+        final long p = address0(index);
+        acc.setAll(
+                Unsafe.getUnsafe().getLong(p),
+                Unsafe.getUnsafe().getLong(p + Long.BYTES),
+                Unsafe.getUnsafe().getLong(p + Long.BYTES * 2),
+                Unsafe.getUnsafe().getLong(p + Long.BYTES * 3)
+        );
+        Long256Util.add(acc, value);
+        putLong256(index, acc);
+    }
+
+    @Override
+    public void putLong256(int index, Long256 value) {
+        final long p = address0(index);
+        Unsafe.getUnsafe().putLong(p, value.getLong0());
+        Unsafe.getUnsafe().putLong(p + Long.BYTES, value.getLong1());
+        Unsafe.getUnsafe().putLong(p + Long.BYTES * 2, value.getLong2());
+        Unsafe.getUnsafe().putLong(p + Long.BYTES * 3, value.getLong3());
+    }
+
+    @Override
+    public void setMapRecordHere() {
+        record.of(getAddress());
+    }
+
+    void linkRecord(FixedKeyMapRecord record) {
+        this.record = record;
+    }
+}
@@ -36,6 +36,12 @@ public interface Map extends Mutable, Closeable, Reopenable {
 
     RecordCursor getCursor();
 
+    /**
+     * @return number of bytes of native memory currently held by the map, including
+     * its hash table
+     */
+    long getHeapSize();
+
     MapRecord getRecord();
 
     long size();
@@ -59,6 +59,16 @@ public class MapFactory {
         final int keyCapacity = smallMap ? configuration.getSqlSmallMapKeyCapacity() : configuration.getSqlMapKeyCapacity();
         final CharSequence mapType = configuration.getDefaultMapType();
         if (Chars.equalsLowerCaseAscii(mapType, "fast")) {
+            if (FixedKeyMap.keySizeOf(keyTypes) != -1) {
+                return new FixedKeyMap(
+                        configuration.getSqlMapPageSize(),
+                        keyTypes,
+                        valueTypes,
+                        keyCapacity,
+                        configuration.getSqlFastMapLoadFactor(),
+                        configuration.getSqlMapMaxResizes()
+                );
+            }
             return new FastMap(
                     configuration.getSqlMapPageSize(),
                     keyTypes,
@@ -87,6 +97,16 @@ public class MapFactory {
             @Transient @NotNull ColumnTypes keyTypes) {
         CharSequence mapType = configuration.getDefaultMapType();
         if (Chars.equalsLowerCaseAscii(mapType, "fast")) {
+            if (FixedKeyMap.keySizeOf(keyTypes) != -1) {
+                return new FixedKeyMap(
+                        configuration.getSqlMapPageSize(),
+                        keyTypes,
+                        null,
+                        configuration.getSqlMapKeyCapacity(),
+                        configuration.getSqlFastMapLoadFactor(),
+                        configuration.getSqlMapMaxResizes()
+                );
+            }
             return new FastMap(
                     configuration.getSqlMapPageSize(),
                     keyTypes,
@@ -54,6 +54,12 @@ public interface MapKey extends RecordSinkSPI {
         throw new UnsupportedOperationException();
     }
 
+    /**
+     * Calculates hash code of the key written so far. The key remains usable for
+     * {@link #createValue()} and {@link #findValue()} afterwards.
+     */
+    long hash();
+
     default boolean notFound() {
         return findValue() == null;
     }
@@ -0,0 +1,163 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.cairo.map;
+
+import io.questdb.cairo.*;
+import io.questdb.cairo.sql.Record;
+import io.questdb.cairo.sql.SymbolTableSource;
+import io.questdb.cairo.vm.Vm;
+import io.questdb.cairo.vm.api.MemoryCMARW;
+import io.questdb.std.*;
+import io.questdb.std.str.LPSZ;
+import io.questdb.std.str.Path;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.Closeable;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Disk overflow for keyed aggregation. Records are appended to one of a power-of-two
+ * number of partitions, chosen by the upper 32 bits of their key hash, so that all records
+ * of a key end up in the same partition. Lower bits are left to the map, which keeps
+ * keys of a single partition evenly spread over its hash table when the partition
+ * is aggregated.
+ * <p>
+ * Each partition is a record chain over a memory-mapped temporary file under
+ * {@link CairoConfiguration#getSqlMapSpillRoot()}. The file is created on the first record
+ * and removed when the partition is released.
+ */
+public class MapSpill implements Closeable, Mutable {
+    private static final AtomicLong SPILL_ID = new AtomicLong();
+    private final FilesFacade ff;
+    private final CharSequence root;
+    private final int mkDirMode;
+    private final long pageSize;
+    private final int partitionMask;
+    private final ObjList<MemoryCMARW> memories = new ObjList<>();
+    private final ObjList<RecordChain> chains = new ObjList<>();
+    private final LongList tailOffsets = new LongList();
+    private final Path path = new Path();
+    private final long id = SPILL_ID.incrementAndGet();
+    private long size;
+
+    public MapSpill(
+            CairoConfiguration configuration,
+            @Transient ColumnTypes columnTypes,
+            RecordSink recordSink,
+            int partitionCount
+    ) {
+        assert Numbers.isPow2(partitionCount);
+        this.ff = configuration.getFilesFacade();
+        this.root = configuration.getSqlMapSpillRoot();
+        this.mkDirMode = configuration.getMkDirMode();
+        this.pageSize = configuration.getSqlMapPageSize();
+        this.partitionMask = partitionCount - 1;
+        for (int i = 0; i < partitionCount; i++) {
+            MemoryCMARW mem = Vm.getCMARWInstance();
+            memories.add(mem);
+            chains.add(new RecordChain(columnTypes, recordSink, mem));
+            tailOffsets.add(-1);
+        }
+    }
+
+    @Override
+    public void clear() {
+        for (int i = 0, n = chains.size(); i < n; i++) {
+            releasePartition(i);
+        }
+        size = 0;
+    }
+
+    @Override
+    public void close() {
+        clear();
+        Misc.freeObjList(chains);
+        path.close();
+    }
+
+    /**
+     * @param index partition index
+     * @return chain of partition records positioned at the first record, or null when
+     * nothing was spilled to the partition
+     */
+    @Nullable
+    public RecordChain getPartition(int index) {
+        if (tailOffsets.getQuick(index) == -1) {
+            return null;
+        }
+        final RecordChain chain = chains.getQuick(index);
+        chain.toTop();
+        return chain;
+    }
+
+    public int getPartitionCount() {
+        return partitionMask + 1;
+    }
+
+    public void put(Record record, long hash) {
+        final int index = (int) (hash >>> 32) & partitionMask;
+        long tailOffset = tailOffsets.getQuick(index);
+        if (tailOffset == -1) {
+            openPartition(index);
+        }
+        tailOffsets.setQuick(index, chains.getQuick(index).put(record, tailOffset));
+        size++;
+    }
+
+    public void releasePartition(int index) {
+        if (tailOffsets.getQuick(index) != -1) {
+            chains.getQuick(index).clear();
+            if (!ff.remove(partitionPath(index))) {
+                throw CairoException.critical(ff.errno()).put("could not remove spill file [path=").put(path).put(']');
+            }
+            tailOffsets.setQuick(index, -1);
+        }
+    }
+
+    public void setSymbolTableResolver(SymbolTableSource resolver) {
+        for (int i = 0, n = chains.size(); i < n; i++) {
+            chains.getQuick(i).setSymbolTableResolver(resolver);
+        }
+    }
+
+    /**
+     * @return number of records spilled since the last clear
+     */
+    public long size() {
+        return size;
+    }
+
+    private void openPartition(int index) {
+        if (ff.mkdirs(path.of(root).slash$(), mkDirMode) != 0) {
+            throw CairoException.critical(ff.errno()).put("could not create spill directory [path=").put(path).put(']');
+        }
+        memories.getQuick(index).of(ff, partitionPath(index), pageSize, MemoryTag.MMAP_MAP_SPILL, CairoConfiguration.O_NONE);
+    }
+
+    private LPSZ partitionPath(int index) {
+        return path.of(root).concat("map").put('_').put(id).put('_').put(index).put(".s").$();
+    }
+}
@@ -25,6 +25,7 @@
 package io.questdb.cairo.pool;
 
 import io.questdb.MessageBus;
+import io.questdb.Metrics;
 import io.questdb.cairo.CairoConfiguration;
 import io.questdb.cairo.CairoException;
 import io.questdb.cairo.EntryUnavailableException;
@@ -34,7 +35,9 @@ import io.questdb.cairo.pool.ex.PoolClosedException;
 import io.questdb.log.Log;
 import io.questdb.log.LogFactory;
 import io.questdb.std.ConcurrentHashMap;
+import io.questdb.std.Os;
 import io.questdb.std.Unsafe;
+import org.jetbrains.annotations.Nullable;
 
 import java.util.Arrays;
 import java.util.Map;
@@ -46,6 +49,8 @@ public class ReaderPool extends AbstractPool implements ResourcePool<TableReader
     private static final long UNLOCKED = -1L;
     private static final long NEXT_STATUS = Unsafe.getFieldOffset(Entry.class, "nextStatus");
     private static final long LOCK_OWNER = Unsafe.getFieldOffset(Entry.class, "lockOwner");
+    private static final long BUSY_COUNT = Unsafe.getFieldOffset(Entry.class, "busyCount");
+    private static final long PEAK_BUSY_COUNT = Unsafe.getFieldOffset(Entry.class, "peakBusyCount");
     private static final int NEXT_OPEN = 0;
     private static final int NEXT_ALLOCATED = 1;
     private static final int NEXT_LOCKED = 2;
@@ -53,12 +58,16 @@ public class ReaderPool extends AbstractPool implements ResourcePool<TableReader
     private final int maxSegments;
     private final MessageBus messageBus;
     private final int maxEntries;
+    private final ReaderPoolMetrics metrics;
+    private final boolean adaptiveEvictionEnabled;
 
-    public ReaderPool(CairoConfiguration configuration, MessageBus messageBus) {
+    public ReaderPool(CairoConfiguration configuration, MessageBus messageBus, Metrics metrics) {
         super(configuration, configuration.getInactiveReaderTTL());
         this.maxSegments = configuration.getReaderPoolMaxSegments();
         this.messageBus = messageBus;
         this.maxEntries = maxSegments * ENTRY_SIZE;
+        this.metrics = metrics.readerPool();
+        this.adaptiveEvictionEnabled = configuration.isReaderPoolAdaptiveEvictionEnabled();
     }
 
     public Map<CharSequence, Entry> entries() {
@@ -68,7 +77,8 @@ public class ReaderPool extends AbstractPool implements ResourcePool<TableReader
     @Override
     public TableReader get(CharSequence name) {
 
-        Entry e = getEntry(name);
+        final Entry root = getEntry(name);
+        Entry e = root;
 
         long lockOwner = e.lockOwner;
         long thread = Thread.currentThread().getId();
@@ -82,6 +92,7 @@ public class ReaderPool extends AbstractPool implements ResourcePool<TableReader
             for (int i = 0; i < ENTRY_SIZE; i++) {
                 if (Unsafe.cas(e.allocations, i, UNALLOCATED, thread)) {
                     Unsafe.arrayPutOrdered(e.releaseOrAcquireTimes, i, clock.getTicks());
+                    root.incrementBusyCount();
                     // got lock, allocate if needed
                     R r = e.getReader(i);
                     if (r == null) {
@@ -92,11 +103,13 @@ public class ReaderPool extends AbstractPool implements ResourcePool<TableReader
                                     .$(']').$();
                             r = new R(this, e, i, name, messageBus);
                         } catch (CairoException ex) {
+                            root.decrementBusyCount();
                             Unsafe.arrayPutOrdered(e.allocations, i, UNALLOCATED);
                             throw ex;
                         }
 
                         e.setReader(i, r);
+                        metrics.incrementMisses();
                         notifyListener(thread, name, PoolListener.EV_CREATE, e.index, i);
                     } else {
                         try {
@@ -105,10 +118,12 @@ public class ReaderPool extends AbstractPool implements ResourcePool<TableReader
                             r.close();
                             throw ex;
                         }
+                        metrics.incrementHits();
                         notifyListener(thread, name, PoolListener.EV_GET, e.index, i);
                     }
 
                     if (isClosed()) {
+                        root.decrementBusyCount();
                         e.setReader(i, null);
                         r.goodbye();
                         LOG.info().$('\'').utf8(name).$("' born free").$();
@@ -124,7 +139,7 @@ public class ReaderPool extends AbstractPool implements ResourcePool<TableReader
             // all allocated, create next entry if possible
             if (Unsafe.getUnsafe().compareAndSwapInt(e, NEXT_STATUS, NEXT_OPEN, NEXT_ALLOCATED)) {
                 LOG.debug().$("Thread ").$(thread).$(" allocated entry ").$(e.index + 1).$();
-                e.next = new Entry(e.index + 1, clock.getTicks());
+                e.next = new Entry(e.index + 1, clock.getTicks(), root);
             }
             e = e.next;
         } while (e != null && e.index < maxSegments);
@@ -155,6 +170,48 @@ public class ReaderPool extends AbstractPool implements ResourcePool<TableReader
         return maxEntries;
     }
 
+    /**
+     * Opens readers for the table ahead of time, so that queries do not pay for the full
+     * reader open. Readers are opened in the first pool segment only and are left idle.
+     *
+     * @param name  table name
+     * @param count number of idle readers the table should have, capped by segment size
+     * @return number of readers opened
+     */
+    public int prewarm(CharSequence name, int count) {
+        final Entry e = getEntry(name);
+        if (e.lockOwner != UNLOCKED) {
+            LOG.info().$('\'').utf8(name).$("' is locked, skipping prewarm [owner=").$(e.lockOwner).$(']').$();
+            return 0;
+        }
+
+        final long thread = Thread.currentThread().getId();
+        int opened = 0;
+        for (int i = 0, n = Math.min(count, ENTRY_SIZE); i < n; i++) {
+            if (Unsafe.cas(e.allocations, i, UNALLOCATED, thread)) {
+                try {
+                    if (e.getReader(i) == null && !isClosed()) {
+                        LOG.info()
+                                .$("prewarm '").utf8(name)
+                                .$("' [at=").$(e.index).$(':').$(i)
+                                .$(']').$();
+                        R r = new R(this, e, i, name, messageBus);
+                        // Nobody is using this reader yet, let go of its txn.
+                        r.goPassive();
+                        e.setReader(i, r);
+                        metrics.incrementPrewarmed();
+                        notifyListener(thread, name, PoolListener.EV_CREATE, e.index, i);
+                        opened++;
+                    }
+                } finally {
+                    e.releaseOrAcquireTimes[i] = clock.getTicks();
+                    Unsafe.arrayPutOrdered(e.allocations, i, UNALLOCATED);
+                }
+            }
+        }
+        return opened;
+    }
+
     public boolean lock(CharSequence name) {
         Entry e = getEntry(name);
         final long thread = Thread.currentThread().getId();
@@ -238,6 +295,9 @@ public class ReaderPool extends AbstractPool implements ResourcePool<TableReader
         int closeReason = deadline < Long.MAX_VALUE ? PoolConstants.CR_IDLE : PoolConstants.CR_POOL_CLOSE;
 
         for (Entry e : entries.values()) {
+            // With adaptive eviction, idle readers are kept as long as the table needs them
+            // to serve the peak concurrency observed since the previous check.
+            int retainCount = closeReason == PoolConstants.CR_IDLE && adaptiveEvictionEnabled ? getRetainCount(e, deadline) : 0;
             do {
                 for (int i = 0; i < ENTRY_SIZE; i++) {
                     R r;
@@ -245,14 +305,18 @@ public class ReaderPool extends AbstractPool implements ResourcePool<TableReader
                         if (Unsafe.cas(e.allocations, i, UNALLOCATED, thread)) {
                             // check if deadline violation still holds
                             if (deadline > e.releaseOrAcquireTimes[i]) {
-                                removed = true;
-                                closeReader(thread, e, i, PoolListener.EV_EXPIRE, closeReason);
+                                if (retainCount > 0) {
+                                    retainCount--;
+                                } else {
+                                    removed = true;
+                                    closeReader(thread, e, i, PoolListener.EV_EXPIRE, closeReason);
+                                }
                             }
                             Unsafe.arrayPutOrdered(e.allocations, i, UNALLOCATED);
                         } else {
                             casFailures++;
                             if (deadline == Long.MAX_VALUE) {
-                                r.goodbye();
+                                r.leaveBehind();
                                 LOG.info().$("shutting down. '").$(r.getTableName()).$("' is left behind").$();
                             }
                         }
@@ -272,9 +336,29 @@ public class ReaderPool extends AbstractPool implements ResourcePool<TableReader
         }
     }
 
+    private int getRetainCount(Entry root, long deadline) {
+        // Start next observation window from the current concurrency.
+        final int peak = Unsafe.getUnsafe().getAndSetInt(root, PEAK_BUSY_COUNT, root.busyCount);
+        // Readers that are busy or recently used count towards the peak.
+        int activeCount = 0;
+        Entry e = root;
+        do {
+            for (int i = 0; i < ENTRY_SIZE; i++) {
+                if (e.getReader(i) != null && (Unsafe.arrayGetVolatile(e.allocations, i) != UNALLOCATED || deadline <= e.releaseOrAcquireTimes[i])) {
+                    activeCount++;
+                }
+            }
+            e = e.next;
+        } while (e != null);
+        return Math.max(0, peak - activeCount);
+    }
+
     private void closeReader(long thread, Entry entry, int index, short ev, int reason) {
         R r = entry.getReader(index);
         if (r != null) {
+            if (reason == PoolConstants.CR_IDLE) {
+                metrics.incrementEvictions();
+            }
             r.goodbye();
             r.close();
             LOG.info().$("closed '").utf8(r.getTableName())
@@ -291,7 +375,7 @@ public class ReaderPool extends AbstractPool implements ResourcePool<TableReader
 
         Entry e = entries.get(name);
         if (e == null) {
-            e = new Entry(0, clock.getTicks());
+            e = new Entry(0, clock.getTicks(), null);
             Entry other = entries.putIfAbsent(name, e);
             if (other != null) {
                 e = other;
@@ -315,6 +399,8 @@ public class ReaderPool extends AbstractPool implements ResourcePool<TableReader
         int index = reader.index;
         final ReaderPool.Entry e = reader.entry;
         if (e == null) {
+            // reader was left behind by pool close while we were returning it
+            reader.releaseBusy();
             return false;
         }
 
@@ -325,6 +411,7 @@ public class ReaderPool extends AbstractPool implements ResourcePool<TableReader
             notifyListener(thread, name, PoolListener.EV_RETURN, e.index, index);
 
             // release the entry for anyone to pick up
+            e.root.decrementBusyCount();
             e.releaseOrAcquireTimes[index] = clock.getTicks();
             Unsafe.arrayPutOrdered(e.allocations, index, UNALLOCATED);
             final boolean closed = isClosed();
@@ -342,17 +429,42 @@ public class ReaderPool extends AbstractPool implements ResourcePool<TableReader
         final long[] releaseOrAcquireTimes = new long[ENTRY_SIZE];
         final Object[] readers = new Object[ENTRY_SIZE];
         final int index;
+        // First segment of the chain, it keeps track of the table's reader concurrency.
+        final Entry root;
         volatile long lockOwner = -1L;
         @SuppressWarnings("unused")
         int nextStatus = 0;
         volatile Entry next;
+        volatile int busyCount = 0;
+        volatile int peakBusyCount = 0;
 
-        public Entry(int index, long currentMicros) {
+        public Entry(int index, long currentMicros, @Nullable Entry root) {
             this.index = index;
+            this.root = root != null ? root : this;
             Arrays.fill(allocations, UNALLOCATED);
             Arrays.fill(releaseOrAcquireTimes, currentMicros);
         }
 
+        public int getBusyCount() {
+            return busyCount;
+        }
+
+        public int getPeakBusyCount() {
+            return peakBusyCount;
+        }
+
+        private void decrementBusyCount() {
+            Unsafe.getUnsafe().getAndAddInt(this, BUSY_COUNT, -1);
+        }
+
+        private void incrementBusyCount() {
+            final int busy = Unsafe.getUnsafe().getAndAddInt(this, BUSY_COUNT, 1) + 1;
+            int peak;
+            while ((peak = peakBusyCount) < busy && !Unsafe.getUnsafe().compareAndSwapInt(this, PEAK_BUSY_COUNT, peak, busy)) {
+                Os.pause();
+            }
+        }
+
         public long getOwnerVolatile(int pos) {
             return Unsafe.arrayGetVolatile(allocations, pos);
         }
@@ -376,13 +488,17 @@ public class ReaderPool extends AbstractPool implements ResourcePool<TableReader
 
     public static class R extends TableReader {
         private final int index;
+        private final Entry root;
         private ReaderPool pool;
         private Entry entry;
+        // reader is busy and counted in root's busy count, but pool is closed and won't take it back
+        private volatile boolean leftBehind;
 
         public R(ReaderPool pool, Entry entry, int index, CharSequence name, MessageBus messageBus) {
             super(pool.getConfiguration(), name, messageBus);
             this.pool = pool;
             this.entry = entry;
+            this.root = entry.root;
             this.index = index;
         }
 
@@ -395,6 +511,8 @@ public class ReaderPool extends AbstractPool implements ResourcePool<TableReader
                     if (pool.returnToPool(this)) {
                         return;
                     }
+                } else {
+                    releaseBusy();
                 }
                 super.close();
             }
@@ -404,5 +522,17 @@ public class ReaderPool extends AbstractPool implements ResourcePool<TableReader
             entry = null;
             pool = null;
         }
+
+        private void leaveBehind() {
+            leftBehind = true;
+            goodbye();
+        }
+
+        private void releaseBusy() {
+            if (leftBehind) {
+                leftBehind = false;
+                root.decrementBusyCount();
+            }
+        }
     }
 }
\ No newline at end of file
@@ -0,0 +1,78 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.cairo.pool;
+
+import io.questdb.metrics.Counter;
+import io.questdb.metrics.MetricsRegistry;
+
+public class ReaderPoolMetrics {
+
+    // Reader was taken from the pool and only had to be reloaded.
+    private final Counter hitCounter;
+    // Reader had to be opened from scratch.
+    private final Counter missCounter;
+    // Readers opened ahead of time, either on startup or on request.
+    private final Counter prewarmCounter;
+    private final Counter evictionCounter;
+
+    public ReaderPoolMetrics(MetricsRegistry metricsRegistry) {
+        this.hitCounter = metricsRegistry.newCounter("reader_pool_hits");
+        this.missCounter = metricsRegistry.newCounter("reader_pool_misses");
+        this.prewarmCounter = metricsRegistry.newCounter("reader_pool_prewarmed");
+        this.evictionCounter = metricsRegistry.newCounter("reader_pool_evictions");
+    }
+
+    public long getEvictionCount() {
+        return evictionCounter.getValue();
+    }
+
+    public long getHitCount() {
+        return hitCounter.getValue();
+    }
+
+    public long getMissCount() {
+        return missCounter.getValue();
+    }
+
+    public long getPrewarmCount() {
+        return prewarmCounter.getValue();
+    }
+
+    public void incrementEvictions() {
+        evictionCounter.inc();
+    }
+
+    public void incrementHits() {
+        hitCounter.inc();
+    }
+
+    public void incrementMisses() {
+        missCounter.inc();
+    }
+
+    public void incrementPrewarmed() {
+        prewarmCounter.inc();
+    }
+}
@@ -83,6 +83,8 @@ public class WriterPool extends AbstractPool {
     private final MessageBus messageBus;
     @NotNull
     private final Metrics metrics;
+    @Nullable
+    private final HotTableCacheRegistry hotTableCaches;
 
     /**
      * Pool constructor. WriterPool root directory is passed via configuration.
@@ -92,7 +94,25 @@ public class WriterPool extends AbstractPool {
      * @param metrics       metrics instance to be used by table writers.
      */
     public WriterPool(CairoConfiguration configuration, @NotNull MessageBus messageBus, @NotNull Metrics metrics) {
+        this(configuration, messageBus, metrics, null);
+    }
+
+    /**
+     * Pool constructor. WriterPool root directory is passed via configuration.
+     *
+     * @param configuration  configuration parameters.
+     * @param messageBus     message bus instance to allow index tasks to be communicated to available threads.
+     * @param metrics        metrics instance to be used by table writers.
+     * @param hotTableCaches caches writers copy recently appended rows into, null when caching is disabled.
+     */
+    public WriterPool(
+            CairoConfiguration configuration,
+            @NotNull MessageBus messageBus,
+            @NotNull Metrics metrics,
+            @Nullable HotTableCacheRegistry hotTableCaches
+    ) {
         super(configuration, configuration.getInactiveWriterTTL());
+        this.hotTableCaches = hotTableCaches;
         this.configuration = configuration;
         this.messageBus = messageBus;
         this.clock = configuration.getMicrosecondClock();
@@ -249,6 +269,7 @@ public class WriterPool extends AbstractPool {
                 assert writer == null && e.lockFd != -1;
                 LOG.info().$("created [table=`").utf8(name).$("`, thread=").$(thread).$(']').$();
                 writer = new TableWriter(configuration, name, messageBus, null, false, e, root, metrics);
+                setHotCache(writer, name);
             }
 
             if (writer == null) {
@@ -425,6 +446,7 @@ public class WriterPool extends AbstractPool {
             checkClosed();
             LOG.info().$("open [table=`").utf8(name).$("`, thread=").$(thread).$(']').$();
             e.writer = new TableWriter(configuration, name, messageBus, null, true, e, root, metrics);
+            setHotCache(e.writer, name);
             e.ownershipReason = lockReason;
             return logAndReturn(e, PoolListener.EV_CREATE);
         } catch (CairoException ex) {
@@ -589,6 +611,12 @@ public class WriterPool extends AbstractPool {
         return true;
     }
 
+    private void setHotCache(TableWriter writer, CharSequence name) {
+        if (hotTableCaches != null) {
+            writer.setHotCache(hotTableCaches.getOrCreate(name));
+        }
+    }
+
     private class Entry implements LifecycleManager {
         // owner thread id or -1 if writer is available for hire
         private volatile long owner = Thread.currentThread().getId();
@@ -42,6 +42,9 @@ public interface PageFrameCursor extends Closeable, SymbolTableSource {
      */
     long getUpdateRowId(long rowIndex);
 
+    @Override
+    StaticSymbolTable getSymbolTable(int columnIndex);
+
     @Nullable PageFrame next();
 
     /**
@@ -34,10 +34,14 @@ import io.questdb.log.LogFactory;
 import io.questdb.mp.Job;
 import io.questdb.mp.MCSequence;
 import io.questdb.mp.RingQueue;
+import io.questdb.mp.WorkerPool;
 import io.questdb.std.MemoryTag;
 import io.questdb.std.Misc;
 import io.questdb.std.Os;
+import io.questdb.std.QueryMemoryAccount;
+import io.questdb.std.NanosecondClock;
 import io.questdb.std.Rnd;
+import io.questdb.std.datetime.microtime.MicrosecondClock;
 import org.jetbrains.annotations.Nullable;
 
 import java.io.Closeable;
@@ -87,6 +91,27 @@ public class PageFrameReduceJob implements Job, Closeable {
         }
     }
 
+    public static void assignToPool(
+            MessageBus messageBus,
+            WorkerPool workerPool,
+            @Nullable SqlExecutionCircuitBreakerConfiguration sqlExecutionCircuitBreakerConfiguration
+    ) {
+        final MicrosecondClock microsecondClock = messageBus.getConfiguration().getMicrosecondClock();
+        final NanosecondClock nanosecondClock = messageBus.getConfiguration().getNanosecondClock();
+
+        for (int i = 0, n = workerPool.getWorkerCount(); i < n; i++) {
+            // create job per worker to allow each worker to have
+            // own shard walk sequence
+            final PageFrameReduceJob pageFrameReduceJob = new PageFrameReduceJob(
+                    messageBus,
+                    new Rnd(microsecondClock.getTicks(), nanosecondClock.getTicks()),
+                    sqlExecutionCircuitBreakerConfiguration
+            );
+            workerPool.assign(i, pageFrameReduceJob);
+            workerPool.freeOnExit(pageFrameReduceJob);
+        }
+    }
+
     /**
      * Reduces single queue item when item is available. Return value is inverted as in
      * true when queue item is not available, false otherwise. Item is reduced using the
@@ -194,7 +219,13 @@ public class PageFrameReduceJob implements Job, Closeable {
             record.of(frameSequence.getSymbolTableSource(), frameSequence.getPageAddressCache());
             record.setFrameIndex(task.getFrameIndex());
             assert frameSequence.doneLatch.getCount() == 0;
-            frameSequence.getReducer().reduce(workerId, record, task, circuitBreaker, stealingFrameSequence);
+            // memory allocated by reducer is charged to the query that owns the frame sequence
+            final QueryMemoryAccount previousAccount = QueryMemoryAccount.swap(frameSequence.getMemoryAccount());
+            try {
+                frameSequence.getReducer().reduce(workerId, record, task, circuitBreaker, stealingFrameSequence);
+            } finally {
+                QueryMemoryAccount.swap(previousAccount);
+            }
         } else {
             frameSequence.cancel();
         }
@@ -26,6 +26,7 @@ package io.questdb.cairo.sql.async;
 
 import io.questdb.MessageBus;
 import io.questdb.cairo.CairoConfiguration;
+import io.questdb.cairo.SqlQueryPriority;
 import io.questdb.cairo.sql.*;
 import io.questdb.griffin.SqlException;
 import io.questdb.griffin.SqlExecutionContext;
@@ -71,6 +72,8 @@ public class PageFrameSequence<T extends StatefulAtom> implements Closeable {
     private long startTime;
     private long circuitBreakerFd;
     private SqlExecutionContext sqlExecutionContext;
+    private int priority;
+    private QueryMemoryAccount memoryAccount;
 
     public PageFrameSequence(
             CairoConfiguration configuration,
@@ -146,6 +149,7 @@ public class PageFrameSequence<T extends StatefulAtom> implements Closeable {
         dispatchStartFrameIndex = 0;
         collectedFrameIndex = -1;
         pageAddressCache.clear();
+        memoryAccount = null;
         symbolTableSource = Misc.freeIfCloseable(symbolTableSource);
         // collect sequence may not be set here when
         // factory is closed without using cursor
@@ -177,6 +181,9 @@ public class PageFrameSequence<T extends StatefulAtom> implements Closeable {
     ) throws SqlException {
 
         this.sqlExecutionContext = executionContext;
+        this.priority = executionContext.getQueryPriority();
+        // execution context may be reused by another connection while tasks are in flight
+        this.memoryAccount = executionContext.getMemoryAccount();
         this.startTime = clock.getTicks();
         this.circuitBreakerFd = executionContext.getCircuitBreaker().getFd();
 
@@ -234,6 +241,10 @@ public class PageFrameSequence<T extends StatefulAtom> implements Closeable {
         return id;
     }
 
+    public QueryMemoryAccount getMemoryAccount() {
+        return memoryAccount;
+    }
+
     public PageAddressCache getPageAddressCache() {
         return pageAddressCache;
     }
@@ -329,6 +340,15 @@ public class PageFrameSequence<T extends StatefulAtom> implements Closeable {
      * @return true if at least one task was dispatched or reduced; false otherwise
      */
     private boolean dispatch() {
+        if (priority == SqlQueryPriority.PRIORITY_LOW && dispatchStartFrameIndex < frameCount && messageBus.hasIngestionBacklog()) {
+            // Leave workers to ingestion. This thread helps with frames that are already
+            // dispatched and the caller reduces the remaining frames locally, one by one.
+            if (reduceCounter.get() < dispatchStartFrameIndex) {
+                stealWork(reduceQueue, messageBus.getPageFrameReduceSubSeq(shard), record, circuitBreaker);
+            }
+            return false;
+        }
+
         boolean idle = true;
         boolean dispatched = false;
 
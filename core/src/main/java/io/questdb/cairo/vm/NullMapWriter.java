@@ -84,4 +84,9 @@ public class NullMapWriter implements MapWriter {
     public boolean getNullFlag() {
         return false;
     }
+
+    @Override
+    public CharSequence valueOf(int key) {
+        throw new UnsupportedOperationException();
+    }
 }
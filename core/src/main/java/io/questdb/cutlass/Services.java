@@ -33,12 +33,15 @@ import io.questdb.cutlass.http.processors.PrometheusMetricsProcessor;
 import io.questdb.cutlass.http.processors.QueryCache;
 import io.questdb.cutlass.line.tcp.LineTcpReceiver;
 import io.questdb.cutlass.line.tcp.LineTcpReceiverConfiguration;
-import io.questdb.cutlass.line.udp.AbstractLineProtoUdpReceiver;
 import io.questdb.cutlass.line.udp.LineUdpReceiver;
 import io.questdb.cutlass.line.udp.LineUdpReceiverConfiguration;
+import io.questdb.cutlass.line.udp.LineUdpShardedReceiver;
 import io.questdb.cutlass.line.udp.LinuxMMLineUdpReceiver;
 import io.questdb.cutlass.pgwire.PGWireConfiguration;
 import io.questdb.cutlass.pgwire.PGWireServer;
+import io.questdb.cutlass.replication.ReplicationClient;
+import io.questdb.cutlass.replication.ReplicationConfiguration;
+import io.questdb.cutlass.replication.ReplicationServer;
 import io.questdb.griffin.DatabaseSnapshotAgent;
 import io.questdb.griffin.FunctionFactoryCache;
 import io.questdb.griffin.SqlExecutionContextImpl;
@@ -48,6 +51,8 @@ import io.questdb.WorkerPoolManager.Requester;
 import io.questdb.std.Os;
 import org.jetbrains.annotations.Nullable;
 
+import java.io.Closeable;
+
 public final class Services {
 
     @Nullable
@@ -70,7 +75,7 @@ public final class Services {
                 configuration,
                 cairoEngine,
                 workerPoolManager.getInstance(configuration, metrics.health(), Requester.HTTP_SERVER),
-                workerPoolManager.getSharedWorkerCount(),
+                workerPoolManager.getQueryWorkerCount(),
                 functionFactoryCache,
                 snapshotAgent,
                 metrics
@@ -210,7 +215,7 @@ public final class Services {
                         () -> new SqlExecutionContextImpl(
                                 cairoEngine,
                                 workerPool.getWorkerCount(),
-                                workerPoolManager.getSharedWorkerCount()
+                                workerPoolManager.getQueryWorkerCount()
                         )
                 )
         );
@@ -252,7 +257,7 @@ public final class Services {
     }
 
     @Nullable
-    public static AbstractLineProtoUdpReceiver createLineUdpReceiver(
+    public static Closeable createLineUdpReceiver(
             LineUdpReceiverConfiguration config,
             CairoEngine cairoEngine,
             WorkerPoolManager workerPoolManager
@@ -262,12 +267,41 @@ public final class Services {
         }
 
         // The pool is always the SHARED pool
+        // multicast datagrams are delivered to every socket sharing the port, so only
+        // unicast receiver can be split
+        if (config.getReceiverCount() > 1 && config.isUnicast()) {
+            return new LineUdpShardedReceiver(config, cairoEngine, workerPoolManager.getSharedPool());
+        }
         if (Os.type == Os.LINUX_AMD64 || Os.type == Os.LINUX_ARM64) {
             return new LinuxMMLineUdpReceiver(config, cairoEngine, workerPoolManager.getSharedPool());
         }
         return new LineUdpReceiver(config, cairoEngine, workerPoolManager.getSharedPool());
     }
 
+    @Nullable
+    public static ReplicationServer createReplicationServer(
+            ReplicationConfiguration config,
+            CairoEngine cairoEngine,
+            WorkerPoolManager workerPoolManager
+    ) {
+        if (!config.isPrimaryEnabled()) {
+            return null;
+        }
+        return new ReplicationServer(config, cairoEngine, workerPoolManager.getSharedPool());
+    }
+
+    @Nullable
+    public static ReplicationClient createReplicationClient(
+            ReplicationConfiguration config,
+            CairoEngine cairoEngine,
+            WorkerPoolManager workerPoolManager
+    ) {
+        if (!config.isReplicaEnabled()) {
+            return null;
+        }
+        return new ReplicationClient(config, cairoEngine, workerPoolManager.getSharedPool());
+    }
+
     private Services() {
         throw new UnsupportedOperationException("not instantiatable");
     }
@@ -33,6 +33,11 @@ public interface HttpChunkedResponseSocket extends CharSink {
 
     void done() throws PeerDisconnectedException, PeerIsSlowToReadException;
 
+    /**
+     * @return number of bytes that can be written before the current chunk is full
+     */
+    long getWriteNAvailable();
+
     HttpResponseHeader headers();
 
     boolean resetToBookmark();
@@ -536,6 +536,11 @@ public class HttpResponseSink implements Closeable, Mutable {
             }
         }
 
+        @Override
+        public long getWriteNAvailable() {
+            return buffer.getWriteNAvailable();
+        }
+
         @Override
         public HttpResponseHeader headers() {
             return headerImpl;
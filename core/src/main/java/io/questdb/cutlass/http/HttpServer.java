@@ -37,7 +37,7 @@ import io.questdb.mp.Job;
 import io.questdb.mp.SCSequence;
 import io.questdb.mp.WorkerPool;
 import io.questdb.network.IODispatcher;
-import io.questdb.network.IODispatchers;
+import io.questdb.network.IODispatcherGroup;
 import io.questdb.network.IORequestProcessor;
 import io.questdb.network.MutableIOContextFactory;
 import io.questdb.std.CharSequenceObjHashMap;
@@ -51,7 +51,7 @@ public class HttpServer implements Closeable {
     private static final Log LOG = LogFactory.getLog(HttpServer.class);
 
     private final ObjList<HttpRequestProcessorSelectorImpl> selectors;
-    private final IODispatcher<HttpConnectionContext> dispatcher;
+    private final IODispatcherGroup<HttpConnectionContext> dispatchers;
     private final int workerCount;
     private final HttpContextFactory httpContextFactory;
     private final WaitProcessor rescheduleContext;
@@ -65,11 +65,11 @@ public class HttpServer implements Closeable {
         }
 
         this.httpContextFactory = new HttpContextFactory(configuration.getHttpContextConfiguration(), metrics);
-        this.dispatcher = IODispatchers.create(
+        this.dispatchers = new IODispatcherGroup<>(
                 configuration.getDispatcherConfiguration(),
-                httpContextFactory
+                httpContextFactory,
+                pool
         );
-        pool.assign(dispatcher);
         this.rescheduleContext = new WaitProcessor(configuration.getWaitProcessorConfiguration());
         pool.assign(this.rescheduleContext);
 
@@ -81,6 +81,7 @@ public class HttpServer implements Closeable {
             queryCacheEventFanOut.and(queryCacheEventSubSeq);
 
             pool.assign(i, new Job() {
+                private final IODispatcher<HttpConnectionContext> dispatcher = dispatchers.getDispatcher(index);
                 private final HttpRequestProcessorSelector selector = selectors.getQuick(index);
                 private final IORequestProcessor<HttpConnectionContext> processor =
                         (operation, context) -> context.handleClientOperation(operation, selector, rescheduleContext);
@@ -217,7 +218,7 @@ public class HttpServer implements Closeable {
 
     @Override
     public void close() {
-        Misc.free(dispatcher);
+        Misc.free(dispatchers);
         Misc.free(rescheduleContext);
         Misc.freeObjListAndClear(selectors);
     }
@@ -0,0 +1,116 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.cutlass.http.processors;
+
+import io.questdb.std.datetime.microtime.TimestampFormatUtils;
+import io.questdb.std.datetime.microtime.Timestamps;
+import io.questdb.std.datetime.millitime.DateFormatUtils;
+import io.questdb.std.datetime.millitime.Dates;
+import io.questdb.std.str.CharSink;
+import io.questdb.std.str.StringSink;
+
+/**
+ * Appends ISO-8601 UTC date and time of a single result set column. Consecutive rows
+ * mostly fall on the same day, so the date part is formatted once per day and only the
+ * time of day is computed for every value.
+ */
+final class IsoDateTimeAppender {
+    private final char[] chars = new char[64];
+    private final StringSink daySink = new StringSink();
+    private long day;
+    private int dayLen;
+    private int fractionDigits;
+    private long unitsPerDay;
+    private long unitsPerSecond;
+
+    void append(CharSink sink, long value) {
+        // keep clear of long overflow when flooring values to the day start
+        if (value < Long.MIN_VALUE / 2) {
+            appendDateTime(sink, value);
+            return;
+        }
+
+        final long day = Math.floorDiv(value, unitsPerDay);
+        if (day != this.day) {
+            daySink.clear();
+            appendDateTime(daySink, day * unitsPerDay);
+            // time of day is "HH:mm:ss." followed by fraction digits and "Z"
+            dayLen = daySink.length() - fractionDigits - 10;
+            for (int i = 0; i < dayLen; i++) {
+                chars[i] = daySink.charAt(i);
+            }
+            this.day = day;
+        }
+
+        long t = value - day * unitsPerDay;
+        long fraction = t % unitsPerSecond;
+        t /= unitsPerSecond;
+        final int second = (int) (t % 60);
+        t /= 60;
+        final int minute = (int) (t % 60);
+        final int hour = (int) (t / 60);
+
+        int p = dayLen;
+        chars[p++] = (char) ('0' + hour / 10);
+        chars[p++] = (char) ('0' + hour % 10);
+        chars[p++] = ':';
+        chars[p++] = (char) ('0' + minute / 10);
+        chars[p++] = (char) ('0' + minute % 10);
+        chars[p++] = ':';
+        chars[p++] = (char) ('0' + second / 10);
+        chars[p++] = (char) ('0' + second % 10);
+        chars[p++] = '.';
+        for (int i = p + fractionDigits - 1; i >= p; i--) {
+            chars[i] = (char) ('0' + fraction % 10);
+            fraction /= 10;
+        }
+        p += fractionDigits;
+        chars[p++] = 'Z';
+        sink.put(chars, 0, p);
+    }
+
+    void ofDate() {
+        of(Dates.DAY_MILLIS, Dates.SECOND_MILLIS, 3);
+    }
+
+    void ofTimestamp() {
+        of(Timestamps.DAY_MICROS, Timestamps.SECOND_MICROS, 6);
+    }
+
+    private void appendDateTime(CharSink sink, long value) {
+        if (fractionDigits == 6) {
+            TimestampFormatUtils.appendDateTimeUSec(sink, value);
+        } else {
+            DateFormatUtils.appendDateTime(sink, value);
+        }
+    }
+
+    private void of(long unitsPerDay, long unitsPerSecond, int fractionDigits) {
+        this.unitsPerDay = unitsPerDay;
+        this.unitsPerSecond = unitsPerSecond;
+        this.fractionDigits = fractionDigits;
+        this.day = Long.MIN_VALUE;
+    }
+}
@@ -65,6 +65,8 @@ public class JsonQueryProcessor implements HttpRequestProcessor, Closeable {
     private final Metrics metrics;
     private final long asyncWriterStartTimeout;
     private final long asyncCommandTimeout;
+    private final long queryMemoryLimit;
+    private final int defaultQueryPriority;
 
     @TestOnly
     public JsonQueryProcessor(
@@ -130,6 +132,8 @@ public class JsonQueryProcessor implements HttpRequestProcessor, Closeable {
         this.metrics = engine.getMetrics();
         this.asyncWriterStartTimeout = engine.getConfiguration().getWriterAsyncCommandBusyWaitTimeout();
         this.asyncCommandTimeout = engine.getConfiguration().getWriterAsyncCommandMaxTimeout();
+        this.queryMemoryLimit = engine.getConfiguration().getSqlQueryMemoryLimit();
+        this.defaultQueryPriority = engine.getConfiguration().getSqlQueryPriority();
     }
 
     @Override
@@ -143,13 +147,23 @@ public class JsonQueryProcessor implements HttpRequestProcessor, Closeable {
 
         OperationFuture fut = state.getOperationFuture();
         final HttpConnectionContext context = state.getHttpConnectionContext();
+        final QueryMemoryAccount memoryAccount = state.getMemoryAccount();
 
         if (fut == null) {
+            if (!memoryAccount.admit(queryMemoryLimit)) {
+                // park the request until running queries return their memory to the pool
+                LOG.info().$("[fd=").$(context.getFd()).$("] query memory pool is exhausted, will retry [used=")
+                        .$(QueryMemoryAccount.getPoolUsed())
+                        .$(", size=").$(QueryMemoryAccount.getPoolSize())
+                        .I$();
+                throw RetryOperationException.INSTANCE;
+            }
             metrics.jsonQuery().markStart();
             state.startExecutionTimer();
             // do not set random for new request to avoid copying random from previous request into next one
             // the only time we need to copy random from state is when we resume request execution
             sqlExecutionContext.with(context.getCairoSecurityContext(), null, null, context.getFd(), circuitBreaker.of(context.getFd()));
+            sqlExecutionContext.setQueryPriority(state.getQueryPriority() > -1 ? state.getQueryPriority() : defaultQueryPriority);
             if (state.getStatementTimeout() > 0L) {
                 circuitBreaker.setTimeout(state.getStatementTimeout());
             } else {
@@ -158,6 +172,9 @@ public class JsonQueryProcessor implements HttpRequestProcessor, Closeable {
             state.info().$("exec [q='").utf8(state.getQuery()).$("']").$();
         }
 
+        // execution context is shared by connections of this worker, bind account of the current request
+        sqlExecutionContext.setMemoryAccount(memoryAccount);
+        memoryAccount.activate();
         try {
             if (fut != null) {
                 retryQueryExecution(state, fut);
@@ -196,6 +213,8 @@ public class JsonQueryProcessor implements HttpRequestProcessor, Closeable {
         } catch (Throwable e) {
             state.critical().$("Uh-oh. Error!").$(e).$();
             throw ServerDisconnectException.INSTANCE;
+        } finally {
+            QueryMemoryAccount.deactivate();
         }
     }
 
@@ -240,7 +259,13 @@ public class JsonQueryProcessor implements HttpRequestProcessor, Closeable {
         if (state != null) {
             // we are resuming request execution, we need to copy random to execution context
             sqlExecutionContext.with(context.getCairoSecurityContext(), null, state.getRnd(), context.getFd(), circuitBreaker.of(context.getFd()));
-            doResumeSend(state, context);
+            sqlExecutionContext.setMemoryAccount(state.getMemoryAccount());
+            state.getMemoryAccount().activate();
+            try {
+                doResumeSend(state, context);
+            } finally {
+                QueryMemoryAccount.deactivate();
+            }
         }
     }
 
@@ -26,6 +26,7 @@ package io.questdb.cutlass.http.processors;
 
 import io.questdb.cairo.ColumnType;
 import io.questdb.cairo.GeoHashes;
+import io.questdb.cairo.SqlQueryPriority;
 import io.questdb.cairo.sql.Record;
 import io.questdb.cairo.sql.*;
 import io.questdb.cutlass.http.HttpChunkedResponseSocket;
@@ -64,12 +65,14 @@ public class JsonQueryProcessorState implements Mutable, Closeable {
     private final ObjList<StateResumeAction> resumeActions = new ObjList<>();
     private final IntList columnTypesAndFlags = new IntList();
     private final ObjList<String> columnNames = new ObjList<>();
+    private final ObjList<IsoDateTimeAppender> dateTimeAppenders = new ObjList<>();
     private final HttpConnectionContext httpConnectionContext;
     private final IntList columnSkewList = new IntList();
     private final NanosecondClock nanosecondClock;
     private final int floatScale;
     private final int doubleScale;
     private final SCSequence eventSubSequence = new SCSequence();
+    private final QueryMemoryAccount memoryAccount = new QueryMemoryAccount();
     private final long statementTimeout;
     private OperationFuture operationFuture;
     private Rnd rnd;
@@ -93,7 +96,16 @@ public class JsonQueryProcessorState implements Mutable, Closeable {
     private boolean queryCacheable = false;
     private boolean queryJitCompiled = false;
     private short queryType;
+    private int queryPriority = -1;
     private QuietCloseable asyncOperation;
+    private final PageAddressCacheRecord frameRecord = new PageAddressCacheRecord();
+    private PageAddressCache frameAddressCache;
+    private PageFrameCursor frameCursor;
+    private long frameRowCount;
+    private long frameRowIndex;
+    // upper bound of serialized row length or -1 when a column value length is unbounded
+    private int frameRowWidth = -1;
+    private boolean frameCellBookmarks;
 
     public JsonQueryProcessorState(
             HttpConnectionContext httpConnectionContext,
@@ -124,6 +136,12 @@ public class JsonQueryProcessorState implements Mutable, Closeable {
         columnTypesAndFlags.clear();
         columnNames.clear();
         cursor = Misc.free(cursor);
+        frameCursor = Misc.free(frameCursor);
+        Misc.free(frameRecord);
+        if (frameAddressCache != null) {
+            frameAddressCache.clear();
+        }
+        frameRowWidth = -1;
         record = null;
         if (null != recordCursorFactory) {
             if (queryCacheable) {
@@ -141,13 +159,17 @@ public class JsonQueryProcessorState implements Mutable, Closeable {
         explain = false;
         queryJitCompiled = false;
         operationFuture = Misc.free(operationFuture);
+        memoryAccount.release();
     }
 
     @Override
     public void close() {
         cursor = Misc.free(cursor);
+        frameCursor = Misc.free(frameCursor);
+        Misc.free(frameRecord);
         recordCursorFactory = Misc.free(recordCursorFactory);
         freeAsyncOperation();
+        memoryAccount.release();
     }
 
     public void configure(
@@ -165,6 +187,7 @@ public class JsonQueryProcessorState implements Mutable, Closeable {
         this.countRows = Chars.equalsNc("true", request.getUrlParam("count"));
         this.timings = Chars.equalsNc("true", request.getUrlParam("timings"));
         this.explain = Chars.equalsNc("true", request.getUrlParam("explain"));
+        this.queryPriority = SqlQueryPriority.of(request.getUrlParam("priority"));
         this.quoteLargeNum = Chars.equalsNc("true", request.getUrlParam("quoteLargeNum"))
                 || Chars.equalsNc("con", request.getUrlParam("src"));
     }
@@ -198,6 +221,17 @@ public class JsonQueryProcessorState implements Mutable, Closeable {
         return httpConnectionContext;
     }
 
+    /**
+     * @return priority requested with the query or -1 to use server default
+     */
+    public int getQueryPriority() {
+        return queryPriority;
+    }
+
+    public QueryMemoryAccount getMemoryAccount() {
+        return memoryAccount;
+    }
+
     public CharSequence getQuery() {
         return query;
     }
@@ -293,7 +327,10 @@ public class JsonQueryProcessorState implements Mutable, Closeable {
     }
 
     private static void putCharValue(HttpChunkedResponseSocket socket, Record rec, int col) {
-        char c = rec.getChar(col);
+        putCharValue(socket, rec.getChar(col));
+    }
+
+    private static void putCharValue(HttpChunkedResponseSocket socket, char c) {
         if (c == 0) {
             socket.put("\"\"");
         } else {
@@ -301,17 +338,11 @@ public class JsonQueryProcessorState implements Mutable, Closeable {
         }
     }
 
-    private static void putDateValue(HttpChunkedResponseSocket socket, Record rec, int col) {
-        final long d = rec.getDate(col);
-        if (d == Long.MIN_VALUE) {
-            socket.put("null");
-            return;
-        }
-        socket.put('"').putISODateMillis(d).put('"');
+    private static void putIntValue(HttpChunkedResponseSocket socket, Record rec, int col) {
+        putIntValue(socket, rec.getInt(col));
     }
 
-    private static void putIntValue(HttpChunkedResponseSocket socket, Record rec, int col) {
-        final int i = rec.getInt(col);
+    private static void putIntValue(HttpChunkedResponseSocket socket, int i) {
         if (i == Integer.MIN_VALUE) {
             socket.put("null");
         } else {
@@ -326,7 +357,10 @@ public class JsonQueryProcessorState implements Mutable, Closeable {
     }
 
     private static void putLongValue(HttpChunkedResponseSocket socket, Record rec, int col, boolean quoteLargeNum) {
-        final long l = rec.getLong(col);
+        putLongValue(socket, rec.getLong(col), quoteLargeNum);
+    }
+
+    private static void putLongValue(HttpChunkedResponseSocket socket, long l, boolean quoteLargeNum) {
         if (l == Long.MIN_VALUE) {
             socket.put("null");
         } else if (quoteLargeNum) {
@@ -352,15 +386,6 @@ public class JsonQueryProcessorState implements Mutable, Closeable {
         putStringOrNull(socket, rec.getSym(col));
     }
 
-    private static void putTimestampValue(HttpChunkedResponseSocket socket, Record rec, int col) {
-        final long t = rec.getTimestamp(col);
-        if (t == Long.MIN_VALUE) {
-            socket.put("null");
-            return;
-        }
-        socket.put('"').putISODate(t).put('"');
-    }
-
     private static void putGeoHashStringByteValue(HttpChunkedResponseSocket socket, Record rec, int col, int bitFlags) {
         byte l = rec.getGeoByte(col);
         putGeoHashStringValue(socket, l, bitFlags);
@@ -395,6 +420,44 @@ public class JsonQueryProcessorState implements Mutable, Closeable {
         }
     }
 
+    private static int getMaxValueWidth(int columnType) {
+        switch (ColumnType.tagOf(columnType)) {
+            case ColumnType.BINARY:
+                return 2;
+            case ColumnType.NULL:
+            case ColumnType.RECORD:
+                return 4;
+            case ColumnType.BYTE:
+            case ColumnType.BOOLEAN:
+                return 5;
+            case ColumnType.SHORT:
+                return 6;
+            case ColumnType.CHAR:
+                // quoted escape sequence
+                return 8;
+            case ColumnType.INT:
+                return 11;
+            case ColumnType.LONG:
+                return 22;
+            case ColumnType.FLOAT:
+            case ColumnType.DOUBLE:
+                // significant digits are limited regardless of scale
+                return 32;
+            case ColumnType.DATE:
+            case ColumnType.TIMESTAMP:
+                return 40;
+            case ColumnType.GEOBYTE:
+            case ColumnType.GEOSHORT:
+            case ColumnType.GEOINT:
+            case ColumnType.GEOLONG:
+                return 64;
+            case ColumnType.LONG256:
+                return 72;
+            default:
+                return -1;
+        }
+    }
+
     private boolean addColumnToOutput(RecordMetadata metadata, CharSequence columnNames, int start, int hi) throws PeerDisconnectedException, PeerIsSlowToReadException {
 
         if (start == hi) {
@@ -433,6 +496,21 @@ public class JsonQueryProcessorState implements Mutable, Closeable {
         this.columnTypesAndFlags.add(columnType);
         this.columnTypesAndFlags.add(flags);
         this.columnNames.add(metadata.getColumnName(i));
+
+        final int tag = ColumnType.tagOf(columnType);
+        if (tag == ColumnType.DATE || tag == ColumnType.TIMESTAMP) {
+            final int index = columnNames.size() - 1;
+            IsoDateTimeAppender appender = dateTimeAppenders.getQuiet(index);
+            if (appender == null) {
+                appender = new IsoDateTimeAppender();
+                dateTimeAppenders.extendAndSet(index, appender);
+            }
+            if (tag == ColumnType.DATE) {
+                appender.ofDate();
+            } else {
+                appender.ofTimestamp();
+            }
+        }
     }
 
     private void doFirstRecordLoop(
@@ -480,7 +558,7 @@ public class JsonQueryProcessorState implements Mutable, Closeable {
     }
 
     private boolean doQueryNextRecord() {
-        if (cursor.hasNext()) {
+        if (frameCursor != null ? nextFrameRecord() : cursor.hasNext()) {
             if (count < stop) {
                 return true;
             } else {
@@ -503,89 +581,106 @@ public class JsonQueryProcessorState implements Mutable, Closeable {
         return true;
     }
 
-    private void doQueryRecord(HttpChunkedResponseSocket socket, int columnCount) {
-        queryState = QUERY_RECORD;
+    private void doQueryFrameRecord(HttpChunkedResponseSocket socket, int columnCount) {
+        // rows of bounded width are resumed from the row prefix, values don't need bookmarks then
+        final boolean cellBookmarks = frameCellBookmarks;
+        if (cellBookmarks) {
+            queryState = QUERY_RECORD;
+        }
+        final long rowIndex = frameRowIndex;
         for (; columnIndex < columnCount; columnIndex++) {
-            socket.bookmark();
+            if (cellBookmarks) {
+                socket.bookmark();
+            }
             if (columnIndex > 0) {
                 socket.put(',');
             }
 
-            int columnIdx = columnSkewList.size() > 0 ? columnSkewList.getQuick(columnIndex) : columnIndex;
-            int columnType = columnTypesAndFlags.getQuick(2 * columnIndex);
+            final int columnIdx = columnSkewList.size() > 0 ? columnSkewList.getQuick(columnIndex) : columnIndex;
+            final int columnType = columnTypesAndFlags.getQuick(2 * columnIndex);
+            final long address = frameAddressCache.getPageAddress(0, columnIdx);
+            if (address == 0) {
+                // column top, record knows null values of all types
+                putValue(socket, frameRecord, columnIdx, columnType);
+                continue;
+            }
             switch (ColumnType.tagOf(columnType)) {
                 case ColumnType.BOOLEAN:
-                    putBooleanValue(socket, record, columnIdx);
+                    socket.put(Unsafe.getUnsafe().getByte(address + rowIndex) == 1);
                     break;
                 case ColumnType.BYTE:
-                    putByteValue(socket, record, columnIdx);
+                    socket.put(Unsafe.getUnsafe().getByte(address + rowIndex));
                     break;
-                case ColumnType.DOUBLE:
-                    putDoubleValue(socket, record, columnIdx);
+                case ColumnType.SHORT:
+                    socket.put(Unsafe.getUnsafe().getShort(address + (rowIndex << 1)));
                     break;
-                case ColumnType.FLOAT:
-                    putFloatValue(socket, record, columnIdx);
+                case ColumnType.CHAR:
+                    putCharValue(socket, Unsafe.getUnsafe().getChar(address + (rowIndex << 1)));
                     break;
                 case ColumnType.INT:
-                    putIntValue(socket, record, columnIdx);
+                    putIntValue(socket, Unsafe.getUnsafe().getInt(address + (rowIndex << 2)));
                     break;
                 case ColumnType.LONG:
-                    putLongValue(socket, record, columnIdx, quoteLargeNum);
+                    putLongValue(socket, Unsafe.getUnsafe().getLong(address + (rowIndex << 3)), quoteLargeNum);
                     break;
                 case ColumnType.DATE:
-                    putDateValue(socket, record, columnIdx);
+                    putDateValue(socket, Unsafe.getUnsafe().getLong(address + (rowIndex << 3)));
                     break;
                 case ColumnType.TIMESTAMP:
-                    putTimestampValue(socket, record, columnIdx);
-                    break;
-                case ColumnType.SHORT:
-                    putShortValue(socket, record, columnIdx);
-                    break;
-                case ColumnType.CHAR:
-                    putCharValue(socket, record, columnIdx);
+                    putTimestampValue(socket, Unsafe.getUnsafe().getLong(address + (rowIndex << 3)));
                     break;
-                case ColumnType.STRING:
-                    putStrValue(socket, record, columnIdx);
-                    break;
-                case ColumnType.SYMBOL:
-                    putSymValue(socket, record, columnIdx);
-                    break;
-                case ColumnType.BINARY:
-                    putBinValue(socket);
+                case ColumnType.FLOAT:
+                    socket.put(Unsafe.getUnsafe().getFloat(address + (rowIndex << 2)), floatScale);
                     break;
-                case ColumnType.LONG256:
-                    putLong256Value(socket, record, columnIdx);
+                case ColumnType.DOUBLE:
+                    socket.put(Unsafe.getUnsafe().getDouble(address + (rowIndex << 3)), doubleScale);
                     break;
                 case ColumnType.GEOBYTE:
-                    putGeoHashStringByteValue(socket, record, columnIdx, columnTypesAndFlags.getQuick(2 * columnIndex + 1));
+                    putGeoHashStringValue(socket, Unsafe.getUnsafe().getByte(address + rowIndex), columnTypesAndFlags.getQuick(2 * columnIndex + 1));
                     break;
                 case ColumnType.GEOSHORT:
-                    putGeoHashStringShortValue(socket, record, columnIdx, columnTypesAndFlags.getQuick(2 * columnIndex + 1));
+                    putGeoHashStringValue(socket, Unsafe.getUnsafe().getShort(address + (rowIndex << 1)), columnTypesAndFlags.getQuick(2 * columnIndex + 1));
                     break;
                 case ColumnType.GEOINT:
-                    putGeoHashStringIntValue(socket, record, columnIdx, columnTypesAndFlags.getQuick(2 * columnIndex + 1));
+                    putGeoHashStringValue(socket, Unsafe.getUnsafe().getInt(address + (rowIndex << 2)), columnTypesAndFlags.getQuick(2 * columnIndex + 1));
                     break;
                 case ColumnType.GEOLONG:
-                    putGeoHashStringLongValue(socket, record, columnIdx, columnTypesAndFlags.getQuick(2 * columnIndex + 1));
+                    putGeoHashStringValue(socket, Unsafe.getUnsafe().getLong(address + (rowIndex << 3)), columnTypesAndFlags.getQuick(2 * columnIndex + 1));
                     break;
-                case ColumnType.RECORD:
-                    putRecValue(socket);
-                    break;
-                case ColumnType.NULL:
-                    socket.put("null");
-                    break;
-                case ColumnType.LONG128:
-                    throw new UnsupportedOperationException();
                 default:
-                    assert false : "Not supported type in output " + ColumnType.nameOf(columnType);
-                    socket.put("null"); // To make JSON valid
+                    putValue(socket, frameRecord, columnIdx, columnType);
                     break;
             }
         }
     }
 
-    private void doQueryRecordPrefix(HttpChunkedResponseSocket socket) {
+    private void doQueryRecord(HttpChunkedResponseSocket socket, int columnCount) {
+        if (frameCursor != null) {
+            doQueryFrameRecord(socket, columnCount);
+            return;
+        }
+        queryState = QUERY_RECORD;
+        for (; columnIndex < columnCount; columnIndex++) {
+            socket.bookmark();
+            if (columnIndex > 0) {
+                socket.put(',');
+            }
+
+            int columnIdx = columnSkewList.size() > 0 ? columnSkewList.getQuick(columnIndex) : columnIndex;
+            int columnType = columnTypesAndFlags.getQuick(2 * columnIndex);
+            putValue(socket, record, columnIdx, columnType);
+        }
+    }
+
+    private void doQueryRecordPrefix(HttpChunkedResponseSocket socket) throws PeerDisconnectedException, PeerIsSlowToReadException {
         queryState = QUERY_RECORD_PREFIX;
+        if (frameCursor != null) {
+            // send the chunk ahead of a row that may not fit instead of failing half-way through the row
+            if (frameRowWidth > 0 && socket.getWriteNAvailable() < frameRowWidth) {
+                socket.sendChunk(false);
+            }
+            frameCellBookmarks = frameRowWidth < 0 || socket.getWriteNAvailable() < frameRowWidth;
+        }
         socket.bookmark();
         if (count > skip) {
             socket.put(',');
@@ -596,9 +691,10 @@ public class JsonQueryProcessorState implements Mutable, Closeable {
 
     private void doQueryRecordSuffix(HttpChunkedResponseSocket socket) {
         queryState = QUERY_RECORD_SUFFIX;
-        count++;
         socket.bookmark();
         socket.put(']');
+        // count the row once the suffix is written, the suffix is rewritten when it does not fit
+        count++;
     }
 
     private void doQuerySuffix(
@@ -647,8 +743,44 @@ public class JsonQueryProcessorState implements Mutable, Closeable {
         return httpConnectionContext.getFd();
     }
 
+    private int getFrameRowWidth(int columnCount) {
+        // comma before the row, square brackets and commas between values
+        int width = columnCount + 2;
+        for (int i = 0; i < columnCount; i++) {
+            final int valueWidth = getMaxValueWidth(columnTypesAndFlags.getQuick(2 * i));
+            if (valueWidth < 0) {
+                return -1;
+            }
+            width += valueWidth;
+        }
+        return width;
+    }
+
+    private boolean nextFrame() {
+        PageFrame frame;
+        while ((frame = frameCursor.next()) != null) {
+            frameRowCount = frame.getPartitionHi() - frame.getPartitionLo();
+            if (frameRowCount > 0) {
+                frameAddressCache.clear();
+                frameAddressCache.of(recordCursorFactory.getMetadata());
+                frameAddressCache.add(0, frame);
+                frameRowIndex = 0;
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean nextFrameRecord() {
+        if (++frameRowIndex < frameRowCount || nextFrame()) {
+            frameRecord.setRowIndex(frameRowIndex);
+            return true;
+        }
+        return false;
+    }
+
     boolean noCursor() {
-        return cursor == null;
+        return cursor == null && frameCursor == null;
     }
 
     boolean of(RecordCursorFactory factory, SqlExecutionContextImpl sqlExecutionContext)
@@ -661,8 +793,19 @@ public class JsonQueryProcessorState implements Mutable, Closeable {
         this.recordCursorFactory = factory;
         this.queryCacheable = queryCacheable;
         this.queryJitCompiled = factory.usesCompiledFilter();
-        this.cursor = factory.getCursor(sqlExecutionContext);
         final RecordMetadata metadata = factory.getMetadata();
+        if (factory.supportPageFrameCursor() && !factory.hasDescendingOrder()) {
+            this.frameCursor = factory.getPageFrameCursor(sqlExecutionContext, DataFrameCursorFactory.ORDER_ASC);
+        }
+        if (frameCursor != null) {
+            if (frameAddressCache == null) {
+                frameAddressCache = new PageAddressCache(sqlExecutionContext.getCairoEngine().getConfiguration());
+            }
+            frameAddressCache.of(metadata);
+            frameRecord.of(frameCursor, frameAddressCache);
+        } else {
+            this.cursor = factory.getCursor(sqlExecutionContext);
+        }
         HttpRequestHeader header = httpConnectionContext.getRequestHeader();
         DirectByteCharSequence columnNames = header.getUrlParam("cols");
         int columnCount;
@@ -707,6 +850,9 @@ public class JsonQueryProcessorState implements Mutable, Closeable {
             }
         }
         this.columnCount = columnCount;
+        if (frameCursor != null) {
+            frameRowWidth = getFrameRowWidth(columnCount);
+        }
         return true;
     }
 
@@ -715,6 +861,15 @@ public class JsonQueryProcessorState implements Mutable, Closeable {
         if (countRows) {
             // this is the tail end of the cursor
             // we don't need to read records, just round up record count
+            if (frameCursor != null) {
+                long count = frameRowCount - frameRowIndex;
+                while (nextFrame()) {
+                    count += frameRowCount;
+                }
+                this.count += count;
+                recordCountNanos = nanosecondClock.getTicks() - nanos;
+                return;
+            }
             final RecordCursor cursor = this.cursor;
             final long size = cursor.size();
             if (size < 0) {
@@ -776,7 +931,28 @@ public class JsonQueryProcessorState implements Mutable, Closeable {
         doNextRecordLoop(socket, columnCount);
     }
 
+    private boolean onQuerySetupFirstFrameRecord() {
+        long target = skip;
+        while (nextFrame()) {
+            if (target < frameRowCount) {
+                frameRowIndex = target;
+                frameRecord.setRowIndex(target);
+                if (skip > 0) {
+                    count = skip;
+                }
+                columnIndex = 0;
+                record = frameRecord;
+                return true;
+            }
+            target -= frameRowCount;
+        }
+        return false;
+    }
+
     private boolean onQuerySetupFirstRecord() {
+        if (frameCursor != null) {
+            return onQuerySetupFirstFrameRecord();
+        }
         if (skip > 0) {
             final RecordCursor cursor = this.cursor;
             long target = skip + 1;
@@ -798,11 +974,92 @@ public class JsonQueryProcessorState implements Mutable, Closeable {
         return true;
     }
 
+    private void putValue(HttpChunkedResponseSocket socket, Record rec, int columnIdx, int columnType) {
+        switch (ColumnType.tagOf(columnType)) {
+            case ColumnType.BOOLEAN:
+                putBooleanValue(socket, rec, columnIdx);
+                break;
+            case ColumnType.BYTE:
+                putByteValue(socket, rec, columnIdx);
+                break;
+            case ColumnType.DOUBLE:
+                putDoubleValue(socket, rec, columnIdx);
+                break;
+            case ColumnType.FLOAT:
+                putFloatValue(socket, rec, columnIdx);
+                break;
+            case ColumnType.INT:
+                putIntValue(socket, rec, columnIdx);
+                break;
+            case ColumnType.LONG:
+                putLongValue(socket, rec, columnIdx, quoteLargeNum);
+                break;
+            case ColumnType.DATE:
+                putDateValue(socket, rec.getDate(columnIdx));
+                break;
+            case ColumnType.TIMESTAMP:
+                putTimestampValue(socket, rec.getTimestamp(columnIdx));
+                break;
+            case ColumnType.SHORT:
+                putShortValue(socket, rec, columnIdx);
+                break;
+            case ColumnType.CHAR:
+                putCharValue(socket, rec, columnIdx);
+                break;
+            case ColumnType.STRING:
+                putStrValue(socket, rec, columnIdx);
+                break;
+            case ColumnType.SYMBOL:
+                putSymValue(socket, rec, columnIdx);
+                break;
+            case ColumnType.BINARY:
+                putBinValue(socket);
+                break;
+            case ColumnType.LONG256:
+                putLong256Value(socket, rec, columnIdx);
+                break;
+            case ColumnType.GEOBYTE:
+                putGeoHashStringByteValue(socket, rec, columnIdx, columnTypesAndFlags.getQuick(2 * columnIndex + 1));
+                break;
+            case ColumnType.GEOSHORT:
+                putGeoHashStringShortValue(socket, rec, columnIdx, columnTypesAndFlags.getQuick(2 * columnIndex + 1));
+                break;
+            case ColumnType.GEOINT:
+                putGeoHashStringIntValue(socket, rec, columnIdx, columnTypesAndFlags.getQuick(2 * columnIndex + 1));
+                break;
+            case ColumnType.GEOLONG:
+                putGeoHashStringLongValue(socket, rec, columnIdx, columnTypesAndFlags.getQuick(2 * columnIndex + 1));
+                break;
+            case ColumnType.RECORD:
+                putRecValue(socket);
+                break;
+            case ColumnType.NULL:
+                socket.put("null");
+                break;
+            case ColumnType.LONG128:
+                throw new UnsupportedOperationException();
+            default:
+                assert false : "Not supported type in output " + ColumnType.nameOf(columnType);
+                socket.put("null"); // To make JSON valid
+                break;
+        }
+    }
+
     private void putBinValue(HttpChunkedResponseSocket socket) {
         socket.put('[');
         socket.put(']');
     }
 
+    private void putDateValue(HttpChunkedResponseSocket socket, long d) {
+        if (d == Long.MIN_VALUE) {
+            socket.put("null");
+            return;
+        }
+        socket.put('"');
+        dateTimeAppenders.getQuick(columnIndex).append(socket, d);
+        socket.put('"');
+    }
+
     private void putDoubleValue(HttpChunkedResponseSocket socket, Record rec, int col) {
         socket.put(rec.getDouble(col), doubleScale);
     }
@@ -811,6 +1068,16 @@ public class JsonQueryProcessorState implements Mutable, Closeable {
         socket.put(rec.getFloat(col), floatScale);
     }
 
+    private void putTimestampValue(HttpChunkedResponseSocket socket, long t) {
+        if (t == Long.MIN_VALUE) {
+            socket.put("null");
+            return;
+        }
+        socket.put('"');
+        dateTimeAppenders.getQuick(columnIndex).append(socket, t);
+        socket.put('"');
+    }
+
     void resume(HttpChunkedResponseSocket socket) throws PeerDisconnectedException, PeerIsSlowToReadException {
         resumeActions.getQuick(queryState).onResume(socket, columnCount);
     }
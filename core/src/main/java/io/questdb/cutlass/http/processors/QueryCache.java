@@ -29,17 +29,23 @@ import io.questdb.cairo.sql.RecordCursorFactory;
 import io.questdb.cutlass.http.HttpServerConfiguration;
 import io.questdb.log.Log;
 import io.questdb.log.LogFactory;
+import io.questdb.log.LogRateLimiter;
 import io.questdb.metrics.Gauge;
 import io.questdb.std.AssociativeCache;
 import io.questdb.std.ThreadLocal;
+import io.questdb.std.datetime.microtime.MicrosecondClockImpl;
+import io.questdb.std.datetime.microtime.Timestamps;
 
 import java.io.Closeable;
 
 public final class QueryCache implements Closeable {
 
     private static final Log LOG = LogFactory.getLog(QueryCache.class);
+    // hit, miss and push are logged for every query, cap them to keep the log queue free for other records
+    private static final int LOG_RATE_LIMIT = 16;
     private static ThreadLocal<QueryCache> TL_QUERY_CACHE;
     private final AssociativeCache<RecordCursorFactory> cache;
+    private final LogRateLimiter logRateLimiter = new LogRateLimiter(MicrosecondClockImpl.INSTANCE, LOG_RATE_LIMIT, Timestamps.SECOND_MICROS);
 
     public QueryCache(int blocks, int rows, Gauge cachedQueriesGauge) {
         this.cache = new AssociativeCache<>(blocks, rows, cachedQueriesGauge);
@@ -83,9 +89,20 @@ public final class QueryCache implements Closeable {
     }
 
     private void log(CharSequence action, CharSequence sql) {
-        LOG.info().$(action)
-                .$(" [thread=").$(Thread.currentThread().getName())
-                .$(", sql=").utf8(sql)
-                .I$();
+        if (logRateLimiter.tryAcquire()) {
+            final long suppressed = logRateLimiter.getSuppressed();
+            if (suppressed == 0) {
+                LOG.info().$(action)
+                        .$(" [thread=").$(Thread.currentThread().getName())
+                        .$(", sql=").utf8(sql)
+                        .I$();
+            } else {
+                LOG.info().$(action)
+                        .$(" [thread=").$(Thread.currentThread().getName())
+                        .$(", sql=").utf8(sql)
+                        .$(", suppressed=").$(suppressed)
+                        .I$();
+            }
+        }
     }
 }
@@ -24,22 +24,23 @@
 
 package io.questdb.cutlass.http.processors;
 
+import io.questdb.MessageBus;
 import io.questdb.cairo.*;
 import io.questdb.cairo.sql.RecordMetadata;
 import io.questdb.cutlass.http.*;
 import io.questdb.cutlass.http.ex.RetryOperationException;
-import io.questdb.cutlass.text.Atomicity;
-import io.questdb.cutlass.text.TextException;
-import io.questdb.cutlass.text.TextLoadWarning;
-import io.questdb.cutlass.text.TextLoader;
+import io.questdb.cutlass.text.*;
 import io.questdb.log.Log;
 import io.questdb.log.LogFactory;
+import io.questdb.mp.MPSequence;
 import io.questdb.network.NoSpaceLeftInResponseBufferException;
 import io.questdb.network.PeerDisconnectedException;
 import io.questdb.network.PeerIsSlowToReadException;
 import io.questdb.network.ServerDisconnectException;
 import io.questdb.std.*;
 import io.questdb.std.str.CharSink;
+import io.questdb.std.str.DirectByteCharSequence;
+import io.questdb.std.str.Path;
 import io.questdb.std.str.StringSink;
 
 import java.io.Closeable;
@@ -71,12 +72,25 @@ public class TextImportProcessor implements HttpRequestProcessor, HttpMultipartC
     // which is LV, has to be the same between processor instances
     private static final LocalValue<TextImportProcessorState> LV = new LocalValue<>();
     private static final String OVERRIDDEN_FROM_TABLE = "From Table";
+    // queued import response has two columns, the value spans the last four columns of the summary table
+    private static final int QUEUED_VALUE_PAD = TO_STRING_COL2_PAD + TO_STRING_COL3_PAD + TO_STRING_COL4_PAD + TO_STRING_COL5_PAD + 9;
     private final CairoEngine engine;
+    private final FilesFacade ff;
+    private final CharSequence inputRoot;
+    private final CharSequence inputWorkRoot;
+    private final long parallelImportThreshold;
+    private final String statusTableName;
     private HttpConnectionContext transientContext;
     private TextImportProcessorState transientState;
 
     public TextImportProcessor(CairoEngine cairoEngine) {
         this.engine = cairoEngine;
+        final CairoConfiguration configuration = cairoEngine.getConfiguration();
+        this.ff = configuration.getFilesFacade();
+        this.inputRoot = configuration.getSqlCopyInputRoot();
+        this.inputWorkRoot = configuration.getSqlCopyInputWorkRoot();
+        this.parallelImportThreshold = configuration.getTextConfiguration().getParallelImportThreshold();
+        this.statusTableName = configuration.getSystemTableNamePrefix() + "text_import_log";
     }
 
     @Override
@@ -88,6 +102,10 @@ public class TextImportProcessor implements HttpRequestProcessor, HttpMultipartC
             throws PeerDisconnectedException, PeerIsSlowToReadException, ServerDisconnectException {
         if (hi > lo) {
             try {
+                if (transientState.spoolFd != -1) {
+                    spool(lo, hi);
+                    return;
+                }
                 transientState.lo = lo;
                 transientState.hi = hi;
                 transientState.textLoader.parse(lo, hi, transientContext.getCairoSecurityContext());
@@ -171,14 +189,25 @@ public class TextImportProcessor implements HttpRequestProcessor, HttpMultipartC
             transientState.textLoader.setForceHeaders(Chars.equalsNc("true", rh.getUrlParam("forceHeader")));
             transientState.textLoader.setSkipLinesWithExtraValues(Chars.equalsNc("true", rh.getUrlParam("skipLev")));
             CharSequence delimiter = rh.getUrlParam("delimiter");
+            byte columnDelimiter = -1;
             if (delimiter != null && delimiter.length() == 1) {
-                transientState.textLoader.configureColumnDelimiter((byte) delimiter.charAt(0));
+                columnDelimiter = (byte) delimiter.charAt(0);
+                transientState.textLoader.configureColumnDelimiter(columnDelimiter);
             }
             transientState.textLoader.setState(TextLoader.ANALYZE_STRUCTURE);
 
             transientState.forceHeader = Chars.equalsNc("true", rh.getUrlParam("forceHeader"));
             transientState.messagePart = MESSAGE_DATA;
+
+            if (isParallelImportEligible(rh, name, partitionBy)) {
+                try {
+                    startSpool(name, partitionBy, timestampColumn, columnDelimiter, getAtomicity(rh.getUrlParam("atomicity")));
+                } catch (CairoException e) {
+                    sendErrorAndThrowDisconnect(e.getFlyweightMessage());
+                }
+            }
         } else if (Chars.equalsNc("schema", contentDisposition)) {
+            transientState.schemaProvided = true;
             transientState.textLoader.setState(TextLoader.LOAD_JSON_METADATA);
             transientState.messagePart = MESSAGE_SCHEMA;
         } else {
@@ -194,11 +223,16 @@ public class TextImportProcessor implements HttpRequestProcessor, HttpMultipartC
     public void onPartEnd() throws PeerDisconnectedException, PeerIsSlowToReadException, ServerDisconnectException {
         try {
             LOG.debug().$("part end").$();
+            if (transientState.isSpooling()) {
+                queueSpooled();
+                sendResponse(transientContext);
+                return;
+            }
             transientState.textLoader.wrapUp();
             if (transientState.messagePart == MESSAGE_DATA) {
                 sendResponse(transientContext);
             }
-        } catch (TextException | CairoException | CairoError e) {
+        } catch (TextException | TextImportException | CairoException | CairoError e) {
             sendErrorAndThrowDisconnect(e.getFlyweightMessage());
         }
     }
@@ -466,6 +500,8 @@ public class TextImportProcessor implements HttpRequestProcessor, HttpMultipartC
 
             if (state.errorMessage != null) {
                 resumeError(state, socket);
+            } else if (state.importQueued) {
+                resumeQueued(state, socket);
             } else if (state.json) {
                 resumeJson(state, socket);
             } else {
@@ -487,6 +523,152 @@ public class TextImportProcessor implements HttpRequestProcessor, HttpMultipartC
         state.clear();
     }
 
+    private void queueSpooled() {
+        final TextImportProcessorState state = transientState;
+        final MessageBus messageBus = engine.getMessageBus();
+        final MPSequence textImportRequestPubSeq = messageBus.getTextImportRequestPubSeq();
+        // the upload is imported by text import request job, same as COPY, the id is already assigned
+        final long processingCursor = textImportRequestPubSeq.next();
+        if (processingCursor < 0) {
+            throw CairoException.nonCritical().put("Unable to process the import request. Another import request may be in progress.");
+        }
+        state.queueSpool();
+        final TextImportRequestTask task = messageBus.getTextImportRequestQueue().get(processingCursor);
+        task.of(
+                state.parallelImportId,
+                Chars.toString(state.parallelTableName),
+                Chars.toString(state.spoolFileName),
+                state.forceHeader,
+                Chars.toString(state.parallelTimestampColumn),
+                state.parallelDelimiter,
+                null,
+                state.parallelPartitionBy,
+                state.parallelAtomicity,
+                true
+        );
+        engine.getTextImportExecutionContext().getCircuitBreaker().reset();
+        textImportRequestPubSeq.done(processingCursor);
+        LOG.info().$("queued spooled upload [table=").$(state.parallelTableName)
+                .$(", size=").$(state.spoolSize)
+                .$(", importId=").$hexPadded(state.parallelImportId)
+                .I$();
+    }
+
+    private void resumeQueued(TextImportProcessorState state, HttpChunkedResponseSocket socket) throws PeerDisconnectedException, PeerIsSlowToReadException {
+        // the import runs in the background, client polls status table for progress using the import id
+        switch (state.responseState) {
+            case RESPONSE_PREFIX:
+                socket.bookmark();
+                if (state.json) {
+                    socket.put('{')
+                            .putQuoted("status").put(':').putQuoted("OK").put(',')
+                            .putQuoted("location").put(':').encodeUtf8AndQuote(state.parallelTableName).put(',')
+                            .putQuoted("id").put(':').put('"');
+                    Numbers.appendHex(socket, state.parallelImportId, true);
+                    socket.put('"').put(',')
+                            .putQuoted("statusTable").put(':').encodeUtf8AndQuote(statusTableName)
+                            .put('}');
+                } else {
+                    sep(socket);
+                    socket.put('|');
+                    pad(socket, TO_STRING_COL1_PAD, "Location:");
+                    pad(socket, QUEUED_VALUE_PAD, state.parallelTableName).put(Misc.EOL);
+                    socket.put('|');
+                    pad(socket, TO_STRING_COL1_PAD, "Import id");
+                    final StringSink importId = Misc.getThreadLocalBuilder();
+                    Numbers.appendHex(importId, state.parallelImportId, true);
+                    pad(socket, QUEUED_VALUE_PAD, importId).put(Misc.EOL);
+                    socket.put('|');
+                    pad(socket, TO_STRING_COL1_PAD, "Status table");
+                    pad(socket, QUEUED_VALUE_PAD, statusTableName).put(Misc.EOL);
+                    sep(socket);
+                }
+                state.responseState = RESPONSE_COMPLETE;
+                socket.sendChunk(true);
+                break;
+            case RESPONSE_DONE:
+                state.responseState = RESPONSE_COMPLETE;
+                socket.done();
+                break;
+            default:
+                break;
+        }
+    }
+
+    private boolean isParallelImportEligible(HttpRequestHeader rh, CharSequence tableName, int partitionBy) {
+        // uploads go to the parallel importer only when they create a new partitioned
+        // table, the importer does not append and ignores column types from the schema part
+        if (parallelImportThreshold < 1
+                || inputRoot == null
+                || inputWorkRoot == null
+                || !PartitionBy.isPartitioned(partitionBy)
+                || transientState.schemaProvided
+        ) {
+            return false;
+        }
+        final DirectByteCharSequence contentLength = rh.getHeader("Content-Length");
+        if (contentLength == null) {
+            return false;
+        }
+        try {
+            if (Numbers.parseLong(contentLength) < parallelImportThreshold) {
+                return false;
+            }
+        } catch (NumericException e) {
+            return false;
+        }
+        return engine.getStatus(transientContext.getCairoSecurityContext(), transientState.spoolPath, tableName) == TableUtils.TABLE_DOES_NOT_EXIST;
+    }
+
+    private void spool(long lo, long hi) {
+        final TextImportProcessorState state = transientState;
+        final long len = hi - lo;
+        if (ff.write(state.spoolFd, lo, len, state.spoolSize) != len) {
+            throw CairoException.critical(ff.errno()).put("could not write spooled upload [path=").put(state.spoolPath).put(']');
+        }
+        state.spoolSize += len;
+    }
+
+    private void startSpool(
+            CharSequence tableName,
+            int partitionBy,
+            CharSequence timestampColumn,
+            byte columnDelimiter,
+            int atomicity
+    ) {
+        final TextImportProcessorState state = transientState;
+        // parallel import shares the import queue with COPY, only one of them can run at a time
+        final long importId = engine.getTextImportExecutionContext().tryAssignActiveImportId();
+        if (importId == TextImportExecutionContext.INACTIVE) {
+            LOG.info().$("another import is in progress, importing upload serially [table=").$(tableName).I$();
+            return;
+        }
+        state.parallelImportId = importId;
+        state.parallelTableName.clear();
+        state.parallelTableName.put(tableName);
+        state.parallelTimestampColumn.clear();
+        state.parallelTimestampColumn.put(timestampColumn);
+        state.parallelPartitionBy = partitionBy;
+        state.parallelDelimiter = columnDelimiter;
+        state.parallelAtomicity = atomicity;
+        state.spoolFileName.clear();
+        // import workers read input from the copy root, so the upload is spooled there
+        state.spoolFileName.put(".http_upload_");
+        Numbers.appendHex(state.spoolFileName, importId, true);
+        state.spoolFileName.put(".csv");
+
+        final Path path = state.spoolPath.of(inputRoot).concat(state.spoolFileName).$();
+        final long fd = ff.openRW(path, engine.getConfiguration().getWriterFileOpenOpts());
+        if (fd < 0) {
+            throw CairoException.critical(ff.errno()).put("could not open spool file [path=").put(path).put(']');
+        }
+        state.spoolFd = fd;
+        LOG.info().$("spooling upload for parallel import [table=").$(tableName)
+                .$(", path=").$(path)
+                .$(", importId=").$hexPadded(importId)
+                .I$();
+    }
+
     private boolean isJson(HttpConnectionContext transientContext) {
         return Chars.equalsNc("json", transientContext.getRequestHeader().getUrlParam("fmt"));
     }
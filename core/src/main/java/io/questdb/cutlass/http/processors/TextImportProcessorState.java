@@ -25,13 +25,20 @@
 package io.questdb.cutlass.http.processors;
 
 import io.questdb.cairo.CairoEngine;
+import io.questdb.cutlass.text.TextImportExecutionContext;
 import io.questdb.cutlass.text.TextLoader;
+import io.questdb.log.Log;
+import io.questdb.log.LogFactory;
+import io.questdb.std.FilesFacade;
 import io.questdb.std.Misc;
 import io.questdb.std.Mutable;
+import io.questdb.std.str.Path;
+import io.questdb.std.str.StringSink;
 
 import java.io.Closeable;
 
 class TextImportProcessorState implements Mutable, Closeable {
+    private static final Log LOG = LogFactory.getLog(TextImportProcessorState.class);
     public static final int STATE_OK = 0;
     //    public static final int STATE_INVALID_FORMAT = 1;
     public static final int STATE_DATA_ERROR = 2;
@@ -48,9 +55,27 @@ class TextImportProcessorState implements Mutable, Closeable {
     int state;
     boolean json = false;
     CharSequence errorMessage;
+    boolean schemaProvided = false;
+    // spooled upload is handed over to the text import request job, which owns the import id and the file
+    boolean importQueued = false;
+    // upload spooled to disk for parallel import, spoolFd is -1 when data part goes through text loader
+    final Path spoolPath = new Path();
+    final StringSink spoolFileName = new StringSink();
+    final StringSink parallelTableName = new StringSink();
+    final StringSink parallelTimestampColumn = new StringSink();
+    long spoolFd = -1;
+    long spoolSize;
+    long parallelImportId = TextImportExecutionContext.INACTIVE;
+    int parallelPartitionBy;
+    int parallelAtomicity;
+    byte parallelDelimiter;
+    private final FilesFacade ff;
+    private final TextImportExecutionContext textImportExecutionContext;
 
     TextImportProcessorState(CairoEngine engine) {
         this.textLoader = new TextLoader(engine);
+        this.ff = engine.getConfiguration().getFilesFacade();
+        this.textImportExecutionContext = engine.getTextImportExecutionContext();
     }
 
     @Override
@@ -62,12 +87,44 @@ class TextImportProcessorState implements Mutable, Closeable {
         state = STATE_OK;
         textLoader.clear();
         errorMessage = null;
+        schemaProvided = false;
+        clearSpool();
+        importQueued = false;
     }
 
     @Override
     public void close() {
         clear();
         textLoader = Misc.free(textLoader);
+        spoolPath.close();
+    }
+
+    boolean isSpooling() {
+        return parallelImportId != TextImportExecutionContext.INACTIVE;
+    }
+
+    void clearSpool() {
+        if (spoolFd != -1) {
+            ff.close(spoolFd);
+            spoolFd = -1;
+            if (!ff.remove(spoolPath)) {
+                LOG.error().$("could not remove spooled upload [path=").$(spoolPath).$(", errno=").$(ff.errno()).I$();
+            }
+        }
+        if (parallelImportId != TextImportExecutionContext.INACTIVE) {
+            if (!importQueued) {
+                textImportExecutionContext.resetActiveImportId();
+            }
+            parallelImportId = TextImportExecutionContext.INACTIVE;
+        }
+        spoolSize = 0;
+    }
+
+    void queueSpool() {
+        // close the file before the job can pick it up, from here on the job removes it
+        ff.close(spoolFd);
+        spoolFd = -1;
+        importQueued = true;
     }
 
     public void snapshotStateAndCloseWriter() {
@@ -31,7 +31,7 @@ import io.questdb.cairo.vm.api.MemoryMARW;
 import io.questdb.log.Log;
 import io.questdb.log.LogFactory;
 import io.questdb.mp.*;
-import io.questdb.network.IODispatcher;
+import io.questdb.network.IODispatcherGroup;
 import io.questdb.std.*;
 import io.questdb.std.datetime.millitime.MillisecondClock;
 import io.questdb.std.str.DirectByteCharSequence;
@@ -71,7 +71,7 @@ class LineTcpMeasurementScheduler implements Closeable {
             LineTcpReceiverConfiguration lineConfiguration,
             CairoEngine engine,
             WorkerPool ioWorkerPool,
-            IODispatcher<LineTcpConnectionContext> dispatcher,
+            IODispatcherGroup<LineTcpConnectionContext> dispatchers,
             WorkerPool writerWorkerPool
     ) {
         this.engine = engine;
@@ -85,7 +85,7 @@ class LineTcpMeasurementScheduler implements Closeable {
         this.tableNameSinks = new StringSink[n];
         for (int i = 0; i < n; i++) {
             tableNameSinks[i] = new StringSink();
-            NetworkIOJob netIoJob = createNetworkIOJob(dispatcher, i);
+            NetworkIOJob netIoJob = createNetworkIOJob(dispatchers, i);
             netIoJobs[i] = netIoJob;
             ioWorkerPool.assign(i, netIoJob);
         }
@@ -240,8 +240,8 @@ class LineTcpMeasurementScheduler implements Closeable {
         tudUtf16.clear();
     }
 
-    protected NetworkIOJob createNetworkIOJob(IODispatcher<LineTcpConnectionContext> dispatcher, int workerId) {
-        return new LineTcpNetworkIOJob(configuration, this, dispatcher, workerId);
+    protected NetworkIOJob createNetworkIOJob(IODispatcherGroup<LineTcpConnectionContext> dispatchers, int workerId) {
+        return new LineTcpNetworkIOJob(configuration, this, dispatchers.getDispatcher(workerId), workerId);
     }
 
     long getNextPublisherEventSequence(int writerWorkerId) {
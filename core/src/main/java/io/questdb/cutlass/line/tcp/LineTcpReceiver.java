@@ -29,8 +29,7 @@ import io.questdb.cairo.CairoEngine;
 import io.questdb.log.Log;
 import io.questdb.log.LogFactory;
 import io.questdb.mp.WorkerPool;
-import io.questdb.network.IODispatcher;
-import io.questdb.network.IODispatchers;
+import io.questdb.network.IODispatcherGroup;
 import io.questdb.network.MutableIOContextFactory;
 import io.questdb.std.Misc;
 import io.questdb.std.ObjectFactory;
@@ -42,7 +41,7 @@ import java.io.Closeable;
 public class LineTcpReceiver implements Closeable {
     private static final Log LOG = LogFactory.getLog(LineTcpReceiver.class);
 
-    private final IODispatcher<LineTcpConnectionContext> dispatcher;
+    private final IODispatcherGroup<LineTcpConnectionContext> dispatchers;
     private final MutableIOContextFactory<LineTcpConnectionContext> contextFactory;
     private LineTcpMeasurementScheduler scheduler;
     private final Metrics metrics;
@@ -69,12 +68,12 @@ public class LineTcpReceiver implements Closeable {
                 factory,
                 configuration.getConnectionPoolInitialCapacity()
         );
-        this.dispatcher = IODispatchers.create(
+        this.dispatchers = new IODispatcherGroup<>(
                 configuration.getDispatcherConfiguration(),
-                contextFactory
+                contextFactory,
+                ioWorkerPool
         );
-        ioWorkerPool.assign(dispatcher);
-        this.scheduler = new LineTcpMeasurementScheduler(configuration, engine, ioWorkerPool, dispatcher, writerWorkerPool);
+        this.scheduler = new LineTcpMeasurementScheduler(configuration, engine, ioWorkerPool, dispatchers, writerWorkerPool);
 
         for (int i = 0, n = ioWorkerPool.getWorkerCount(); i < n; i++) {
             // http context factory has thread local pools
@@ -86,7 +85,7 @@ public class LineTcpReceiver implements Closeable {
     @Override
     public void close() {
         Misc.free(scheduler);
-        Misc.free(dispatcher);
+        Misc.free(dispatchers);
     }
 
     @TestOnly
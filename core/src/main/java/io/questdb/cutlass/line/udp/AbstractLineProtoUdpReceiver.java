@@ -52,6 +52,7 @@ public abstract class AbstractLineProtoUdpReceiver extends SynchronizedJob imple
     protected int commitRate;
     protected long totalCount = 0;
     protected final int commitMode;
+    protected int ownThreadAffinity;
 
     public AbstractLineProtoUdpReceiver(
             LineUdpReceiverConfiguration configuration,
@@ -69,8 +70,13 @@ public abstract class AbstractLineProtoUdpReceiver extends SynchronizedJob imple
         }
 
         try {
+            // several receivers share the port and the kernel balances datagrams between them
+            if (configuration.isUnicast() && configuration.getReceiverCount() > 1 && nf.setReusePort(fd) != 0) {
+                LOG.error().$("could not set SO_REUSEPORT [fd=").$(fd).$(", errno=").$(nf.errno()).I$();
+            }
             // when listening for multicast packets bind address must be 0
             bind(configuration);
+            this.ownThreadAffinity = configuration.ownThreadAffinity();
             this.commitRate = configuration.getCommitRate();
 
             if (configuration.getReceiveBufferSize() != -1 && nf.setRcvBuf(fd, configuration.getReceiveBufferSize()) != 0) {
@@ -98,10 +104,7 @@ public abstract class AbstractLineProtoUdpReceiver extends SynchronizedJob imple
     @Override
     public void close() {
         if (fd > -1) {
-            if (running.compareAndSet(true, false)) {
-                started.await();
-                halted.await();
-            }
+            halt();
             if (nf.close(fd) != 0) {
                 LOG.error().$("could not close [fd=").$(fd).$(", errno=").$(nf.errno()).$(']').$();
             } else {
@@ -117,12 +120,23 @@ public abstract class AbstractLineProtoUdpReceiver extends SynchronizedJob imple
         }
     }
 
+    /**
+     * Stops own thread, when receiver runs one, and waits for it to exit. Socket and
+     * parser stay open until {@link #close()}.
+     */
+    public void halt() {
+        if (running.compareAndSet(true, false)) {
+            started.await();
+            halted.await();
+        }
+    }
+
     public void start() {
         if (configuration.ownThread() && running.compareAndSet(false, true)) {
             new Thread(() -> {
                 started.countDown();
-                if (configuration.ownThreadAffinity() != -1) {
-                    Os.setCurrentThreadAffinity(configuration.ownThreadAffinity());
+                if (ownThreadAffinity != -1) {
+                    Os.setCurrentThreadAffinity(ownThreadAffinity);
                 }
                 logStarted(configuration);
                 while (running.get()) {
@@ -72,6 +72,11 @@ public class DefaultLineUdpReceiverConfiguration implements LineUdpReceiverConfi
         return NetworkFacadeImpl.INSTANCE;
     }
 
+    @Override
+    public int getQueueCapacity() {
+        return 1024;
+    }
+
     @Override
     public int getPort() {
         return 4567;
@@ -92,6 +97,11 @@ public class DefaultLineUdpReceiverConfiguration implements LineUdpReceiverConfi
         return -1;
     }
 
+    @Override
+    public int getReceiverCount() {
+        return 1;
+    }
+
     @Override
     public CairoSecurityContext getCairoSecurityContext() {
         return AllowAllCairoSecurityContext.INSTANCE;
@@ -0,0 +1,56 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.cutlass.line.udp;
+
+import io.questdb.std.Vect;
+
+/**
+ * Queue slot holding a copy of a single line-protocol line handed from the receiver
+ * that got the datagram to the receiver that owns line's table.
+ */
+class LineUdpLineEvent {
+    private final long address;
+    private final long capacity;
+    private int size;
+
+    LineUdpLineEvent(long address, long capacity) {
+        this.address = address;
+        this.capacity = capacity;
+    }
+
+    long getHi() {
+        return address + size;
+    }
+
+    long getLo() {
+        return address;
+    }
+
+    void of(long lo, long hi) {
+        assert hi - lo <= capacity;
+        size = (int) (hi - lo);
+        Vect.memcpy(address, lo, size);
+    }
+}
@@ -50,10 +50,14 @@ public interface LineUdpReceiverConfiguration {
 
     NetworkFacade getNetworkFacade();
 
+    int getQueueCapacity();
+
     int getPort();
 
     int getReceiveBufferSize();
 
+    int getReceiverCount();
+
     CairoSecurityContext getCairoSecurityContext();
 
     boolean isEnabled();
@@ -0,0 +1,273 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.cutlass.line.udp;
+
+import io.questdb.cairo.CairoEngine;
+import io.questdb.mp.MPSequence;
+import io.questdb.mp.RingQueue;
+import io.questdb.mp.SCSequence;
+import io.questdb.mp.WorkerPool;
+import io.questdb.network.Net;
+import io.questdb.std.*;
+import io.questdb.std.str.CharSinkBase;
+
+/**
+ * One of several UDP receivers listening on the same port with SO_REUSEPORT. Kernel
+ * spreads datagrams between receivers, but rows of a table must be written by a single
+ * receiver, since each receiver keeps its own table writers open. Receiver splits datagrams
+ * into lines and routes every line by measurement name: lines of the tables it owns
+ * are parsed in place, the rest are copied to the queue of the owning receiver.
+ * <p>
+ * When the owner's queue is full receiver keeps the rest of its datagrams and retries on
+ * the next run, leaving new datagrams in the socket buffer in the meantime.
+ */
+public class LineUdpReceiverShard extends AbstractLineProtoUdpReceiver {
+    private final ObjList<LineUdpReceiverShard> shards;
+    private final int shardIndex;
+    private final RingQueue<LineUdpLineEvent> queue;
+    private final MPSequence pubSeq;
+    private final SCSequence subSeq = new SCSequence();
+    private final MeasurementHash measurementHash = new MeasurementHash();
+    private final int msgCount;
+    private final int bufLen;
+    private long msgVec;
+    private long buf;
+    // datagrams received but not yet routed
+    private int pendingCount;
+    private int pendingIndex;
+    private long pendingOffset;
+    private int recvLen;
+
+    public LineUdpReceiverShard(
+            LineUdpReceiverConfiguration configuration,
+            CairoEngine engine,
+            WorkerPool workerPool,
+            ObjList<LineUdpReceiverShard> shards,
+            int shardIndex
+    ) {
+        super(configuration, engine, workerPool);
+        this.shards = shards;
+        this.shardIndex = shardIndex;
+        this.bufLen = configuration.getMsgBufferSize();
+        final int queueCapacity = configuration.getQueueCapacity();
+        this.queue = new RingQueue<>(LineUdpLineEvent::new, bufLen, queueCapacity, MemoryTag.NATIVE_ILP_RSS);
+        this.pubSeq = new MPSequence(queueCapacity);
+        pubSeq.then(subSeq).then(pubSeq);
+        if (Os.type == Os.LINUX_AMD64 || Os.type == Os.LINUX_ARM64) {
+            this.msgCount = configuration.getMsgCount();
+            this.msgVec = nf.msgHeaders(bufLen, msgCount);
+        } else {
+            this.msgCount = 1;
+            this.buf = Unsafe.malloc(bufLen, MemoryTag.NATIVE_ILP_RSS);
+        }
+        if (ownThreadAffinity != -1) {
+            ownThreadAffinity += shardIndex;
+        }
+    }
+
+    /**
+     * Finds end of the line starting at lo. Escaped line ends do not terminate the line,
+     * same as in {@link LineUdpLexer}.
+     *
+     * @return address of the line end byte or hi when line is not terminated
+     */
+    static long findLineEnd(long lo, long hi) {
+        long p = lo;
+        while (p < hi) {
+            final byte b = Unsafe.getUnsafe().getByte(p);
+            if (b == '\n' || b == '\r') {
+                return p;
+            }
+            p += b == '\\' ? 2 : 1;
+        }
+        return hi;
+    }
+
+    @Override
+    public void close() {
+        super.close();
+        if (msgVec != 0) {
+            nf.freeMsgHeaders(msgVec);
+            msgVec = 0;
+        }
+        if (buf != 0) {
+            Unsafe.free(buf, bufLen, MemoryTag.NATIVE_ILP_RSS);
+            buf = 0;
+        }
+        Misc.free(queue);
+    }
+
+    /**
+     * Parses lines other receivers routed to this one.
+     *
+     * @return true when queue had any lines
+     */
+    boolean drainQueue() {
+        boolean drained = false;
+        long cursor;
+        while ((cursor = subSeq.next()) > -1) {
+            final LineUdpLineEvent event = queue.get(cursor);
+            try {
+                lexer.parse(event.getLo(), event.getHi());
+                lexer.parseLast();
+            } finally {
+                subSeq.done(cursor);
+            }
+            onLine();
+            drained = true;
+        }
+        return drained;
+    }
+
+    private long datagramLen(int index) {
+        return msgVec != 0 ? nf.getMMsgBufLen(msgVec + (long) index * Net.MMSGHDR_SIZE) : recvLen;
+    }
+
+    private long datagramLo(int index) {
+        return msgVec != 0 ? nf.getMMsgBuf(msgVec + (long) index * Net.MMSGHDR_SIZE) : buf;
+    }
+
+    private boolean offer(long lo, long hi) {
+        long cursor;
+        while ((cursor = pubSeq.next()) == -2) {
+            Os.pause();
+        }
+        if (cursor < 0) {
+            return false;
+        }
+        queue.get(cursor).of(lo, hi);
+        pubSeq.done(cursor);
+        return true;
+    }
+
+    private void onLine() {
+        if (++totalCount > commitRate) {
+            totalCount = 0;
+            parser.commitAll(commitMode);
+        }
+    }
+
+    private int receive() {
+        if (msgVec != 0) {
+            return nf.recvmmsg(fd, msgVec, msgCount);
+        }
+        recvLen = nf.recv(fd, buf, bufLen);
+        return recvLen > 0 ? 1 : 0;
+    }
+
+    /**
+     * Routes pending datagrams line by line.
+     *
+     * @return false when queue of another receiver is full and some lines are still pending
+     */
+    private boolean route() {
+        final int shardCount = shards.size();
+        while (pendingIndex < pendingCount) {
+            final long lo = datagramLo(pendingIndex);
+            final long hi = lo + datagramLen(pendingIndex);
+            long p = lo + pendingOffset;
+            while (p < hi) {
+                final long lineHi = findLineEnd(p, hi);
+                if (lineHi > p) {
+                    final int owner = (measurementHash.of(p, lineHi) & Integer.MAX_VALUE) % shardCount;
+                    if (owner == shardIndex) {
+                        lexer.parse(p, lineHi);
+                        lexer.parseLast();
+                        onLine();
+                    } else if (!shards.getQuick(owner).offer(p, lineHi)) {
+                        pendingOffset = p - lo;
+                        return false;
+                    }
+                }
+                p = lineHi + 1;
+            }
+            pendingIndex++;
+            pendingOffset = 0;
+        }
+        return true;
+    }
+
+    @Override
+    protected boolean runSerially() {
+        boolean ran = false;
+        while (route()) {
+            // keep own queue moving while there is traffic, other receivers may be waiting on it
+            ran |= drainQueue();
+            pendingIndex = 0;
+            pendingOffset = 0;
+            if ((pendingCount = receive()) < 1) {
+                pendingCount = 0;
+                break;
+            }
+            ran = true;
+        }
+        ran |= drainQueue();
+        parser.commitAll(commitMode);
+        return ran;
+    }
+
+    /**
+     * Hashes unescaped measurement name of the line lower-cased the same way as table names
+     * are looked up, see {@link Chars#lowerCaseHashCode(CharSequence)}, so that every spelling
+     * of a table name is routed to the same receiver. Name is decoded from UTF-8 for that.
+     */
+    static class MeasurementHash implements CharSinkBase {
+        private int h;
+
+        @Override
+        public CharSinkBase put(char c) {
+            h = 31 * h + Character.toLowerCase(c);
+            return this;
+        }
+
+        int of(long lo, long hi) {
+            h = 0;
+            long p = lo;
+            while (p < hi) {
+                byte b = Unsafe.getUnsafe().getByte(p++);
+                if (b < 0) {
+                    final int n = Chars.utf8DecodeMultiByte(p - 1, hi, b, this);
+                    if (n == -1) {
+                        // invalid UTF-8, lexer will reject the line anyway
+                        put((char) (b & 0xff));
+                    } else {
+                        p += n - 1;
+                    }
+                    continue;
+                }
+                if (b == '\\') {
+                    if (p == hi) {
+                        break;
+                    }
+                    b = Unsafe.getUnsafe().getByte(p++);
+                } else if (b == ',' || b == ' ') {
+                    break;
+                }
+                put((char) b);
+            }
+            return Hash.spread(h);
+        }
+    }
+}
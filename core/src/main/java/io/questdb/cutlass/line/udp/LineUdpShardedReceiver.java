@@ -0,0 +1,73 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.cutlass.line.udp;
+
+import io.questdb.cairo.CairoEngine;
+import io.questdb.mp.WorkerPool;
+import io.questdb.std.Misc;
+import io.questdb.std.ObjList;
+
+import java.io.Closeable;
+
+/**
+ * Group of {@link LineUdpReceiverShard} instances bound to the same port.
+ */
+public class LineUdpShardedReceiver implements Closeable {
+    private final ObjList<LineUdpReceiverShard> shards = new ObjList<>();
+
+    public LineUdpShardedReceiver(
+            LineUdpReceiverConfiguration configuration,
+            CairoEngine engine,
+            WorkerPool workerPool
+    ) {
+        try {
+            for (int i = 0, n = configuration.getReceiverCount(); i < n; i++) {
+                shards.add(new LineUdpReceiverShard(configuration, engine, workerPool, shards, i));
+            }
+            start();
+        } catch (Throwable e) {
+            close();
+            throw e;
+        }
+    }
+
+    @Override
+    public void close() {
+        // stop all receivers before any of them releases its queue
+        for (int i = 0, n = shards.size(); i < n; i++) {
+            shards.getQuick(i).halt();
+        }
+        for (int i = 0, n = shards.size(); i < n; i++) {
+            shards.getQuick(i).drainQueue();
+        }
+        Misc.freeObjListAndClear(shards);
+    }
+
+    public void start() {
+        for (int i = 0, n = shards.size(); i < n; i++) {
+            shards.getQuick(i).start();
+        }
+    }
+}
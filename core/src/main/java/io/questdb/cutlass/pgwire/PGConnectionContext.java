@@ -137,6 +137,8 @@ public class PGConnectionContext extends AbstractMutableIOContext<PGConnectionCo
     private final ObjectPool<DirectBinarySequence> binarySequenceParamsPool;
     private final NetworkSqlExecutionCircuitBreaker circuitBreaker;
     private final SCSequence tempSequence = new SCSequence();
+    private final QueryMemoryAccount memoryAccount = new QueryMemoryAccount();
+    private final long queryMemoryLimit;
     //stores result format codes (0=Text,1=Binary) from the latest bind message
     //we need it in case cursor gets invalidated and bind used non-default binary format for some column(s)
     //pg clients (like asyncpg) fail when format sent by server is not the same as requested in bind message
@@ -196,9 +198,12 @@ public class PGConnectionContext extends AbstractMutableIOContext<PGConnectionCo
     private final PGResumeProcessor resumeCursorExecuteRef = this::resumeCursorExecute;
     private final PGResumeProcessor resumeCursorQueryRef = this::resumeCursorQuery;
     private boolean sendRNQ = true;
+    // query waits in receive buffer until query memory pool has room for it
+    private boolean queryQueued;
 
     public PGConnectionContext(CairoEngine engine, PGWireConfiguration configuration, SqlExecutionContextImpl sqlExecutionContext) {
         this.engine = engine;
+        this.queryMemoryLimit = engine.getConfiguration().getSqlQueryMemoryLimit();
         this.utf8Sink = new DirectCharSink(engine.getConfiguration().getTextConfiguration().getUtf8SinkSize());
         this.typeManager = new TypeManager(engine.getConfiguration().getTextConfiguration(), utf8Sink);
         this.nf = configuration.getNetworkFacade();
@@ -215,6 +220,7 @@ public class PGConnectionContext extends AbstractMutableIOContext<PGConnectionCo
         this.authenticator = new PGBasicAuthenticator(configuration.getDefaultUsername(), configuration.getDefaultPassword(), configuration.readOnlySecurityContext());
         this.sqlExecutionContext = sqlExecutionContext;
         this.sqlExecutionContext.setRandom(this.rnd = configuration.getRandom());
+        this.sqlExecutionContext.setMemoryAccount(memoryAccount);
         this.namedStatementWrapperPool = new WeakMutableObjectPool<>(NamedStatementWrapper::new, configuration.getNamesStatementPoolCapacity()); // 32
         this.namedPortalPool = new WeakMutableObjectPool<>(Portal::new, configuration.getNamesStatementPoolCapacity()); // 32
         this.namedStatementMap = new CharSequenceObjHashMap<>(configuration.getNamedStatementCacheCapacity());
@@ -309,6 +315,7 @@ public class PGConnectionContext extends AbstractMutableIOContext<PGConnectionCo
         binarySequenceParamsPool.clear();
         resumeProcessor = null;
         completed = true;
+        queryQueued = false;
         clearCursorAndFactory();
         totalReceived = 0;
         typesAndSelectIsCached = true;
@@ -382,6 +389,7 @@ public class PGConnectionContext extends AbstractMutableIOContext<PGConnectionCo
         this.typesAndUpdateCache = typesAndUpdateCache;
         this.typesAndUpdatePool = typesAndUpdatePool;
 
+        memoryAccount.activate();
         try {
             if (bufferRemainingSize > 0) {
                 doSend(bufferRemainingOffset, bufferRemainingSize);
@@ -441,6 +449,8 @@ public class PGConnectionContext extends AbstractMutableIOContext<PGConnectionCo
             prepareNonCriticalError(-1, e.getMessage());
             sendAndReset();
             clearRecvBuffer();
+        } finally {
+            QueryMemoryAccount.deactivate();
         }
     }
 
@@ -928,6 +938,34 @@ public class PGConnectionContext extends AbstractMutableIOContext<PGConnectionCo
     }
 
     //replace column formats in activeSelectColumnTypes with those from latest bind call
+    /**
+     * Admits query to the query memory pool. Query that cannot be admitted waits until running
+     * queries release their memory or until it runs out of the time query is allowed to run,
+     * whichever comes first. Query that timed out is let through to be rejected.
+     *
+     * @return false when query has to wait
+     */
+    private boolean admitQuery() {
+        if (memoryAccount.admit(queryMemoryLimit)) {
+            queryQueued = false;
+            return true;
+        }
+        if (!queryQueued) {
+            queryQueued = true;
+            circuitBreaker.resetTimer();
+            LOG.info().$("query memory pool is exhausted, queueing query [fd=").$(fd)
+                    .$(", used=").$(QueryMemoryAccount.getPoolUsed())
+                    .$(", size=").$(QueryMemoryAccount.getPoolSize())
+                    .I$();
+            return false;
+        }
+        if (circuitBreaker.checkIfTripped()) {
+            queryQueued = false;
+            return true;
+        }
+        return false;
+    }
+
     private void applyLatestBindColumnFormats() {
         for (int i = 0; i < bindSelectColumnFormats.size(); i++) {
             int newValue = toColumnBinaryType((short) bindSelectColumnFormats.get(i),
@@ -1043,6 +1081,7 @@ public class PGConnectionContext extends AbstractMutableIOContext<PGConnectionCo
     private void clearCursorAndFactory() {
         resumeProcessor = null;
         currentCursor = Misc.free(currentCursor);
+        memoryAccount.release();
         // do not free factory, we may cache it
         currentFactory = null;
         // we resumed the cursor send the typeAndSelect will be null
@@ -1446,6 +1485,7 @@ public class PGConnectionContext extends AbstractMutableIOContext<PGConnectionCo
                 sqlExecutionContext.getRequestFd(),
                 circuitBreaker
         );
+        newSqlExecutionContext.setMemoryAccount(memoryAccount);
         sqlExecutionContext = newSqlExecutionContext;
 
         // Do not cache, let last closing party free the resources
@@ -1531,6 +1571,12 @@ public class PGConnectionContext extends AbstractMutableIOContext<PGConnectionCo
                     .$(']').$();
             return;
         }
+        if ((type == 'E' || type == 'Q') && !authenticationRequired && !admitQuery()) {
+            // Leave the message in receive buffer, there is no data to wait for
+            // and the dispatcher will bring connection back to retry once the socket is writable.
+            throw PeerIsSlowToReadException.INSTANCE;
+        }
+
         // we have enough to read entire message
         recvBufferReadOffset += msgLen + 1;
         final long msgLimit = address + msgLen + 1;
@@ -2574,6 +2620,14 @@ public class PGConnectionContext extends AbstractMutableIOContext<PGConnectionCo
 
     private void setupFactoryAndCursor(SqlCompiler compiler) throws SqlException {
         if (currentCursor == null) {
+            // queries are queued before they are parsed, see admitQuery(), this is the
+            // next query of a batch that cannot be put back in the queue anymore
+            if (!memoryAccount.admit(queryMemoryLimit)) {
+                throw CairoException.nonCritical()
+                        .put("query memory pool is exhausted [used=").put(QueryMemoryAccount.getPoolUsed())
+                        .put(", size=").put(QueryMemoryAccount.getPoolSize())
+                        .put(']');
+            }
             boolean recompileStale = true;
             for (int retries = 0; recompileStale; retries++) {
                 currentFactory = typesAndSelect.getFactory();
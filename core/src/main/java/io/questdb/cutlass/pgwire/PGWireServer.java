@@ -49,7 +49,7 @@ public class PGWireServer implements Closeable {
 
     private static final Log LOG = LogFactory.getLog(PGWireServer.class);
 
-    private final IODispatcher<PGConnectionContext> dispatcher;
+    private final IODispatcherGroup<PGConnectionContext> dispatchers;
     private final Metrics metrics;
     private final WorkerPool workerPool;
 
@@ -61,17 +61,17 @@ public class PGWireServer implements Closeable {
             DatabaseSnapshotAgent snapshotAgent,
             PGConnectionContextFactory contextFactory
     ) {
-        this.dispatcher = IODispatchers.create(
+        this.dispatchers = new IODispatcherGroup<>(
                 configuration.getDispatcherConfiguration(),
-                contextFactory
+                contextFactory,
+                workerPool
         );
         this.metrics = engine.getMetrics();
         this.workerPool = workerPool;
 
-        workerPool.assign(dispatcher);
-
         for (int i = 0, n = workerPool.getWorkerCount(); i < n; i++) {
             final PGJobContext jobContext = new PGJobContext(configuration, engine, functionFactoryCache, snapshotAgent);
+            final IODispatcher<PGConnectionContext> dispatcher = dispatchers.getDispatcher(i);
 
             final SCSequence queryCacheEventSubSeq = new SCSequence();
             final FanOut queryCacheEventFanOut = engine.getMessageBus().getQueryCacheEventFanOut();
@@ -129,11 +129,11 @@ public class PGWireServer implements Closeable {
 
     @Override
     public void close() {
-        Misc.free(dispatcher);
+        Misc.free(dispatchers);
     }
 
     public int getPort() {
-        return dispatcher.getPort();
+        return dispatchers.getPort();
     }
 
     public static class PGConnectionContextFactory extends MutableIOContextFactory<PGConnectionContext> {
@@ -0,0 +1,121 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.cutlass.replication;
+
+import io.questdb.cairo.CairoSecurityContext;
+import io.questdb.cairo.security.AllowAllCairoSecurityContext;
+import io.questdb.network.NetworkFacade;
+import io.questdb.network.NetworkFacadeImpl;
+import io.questdb.std.ObjList;
+import io.questdb.std.datetime.millitime.MillisecondClock;
+import io.questdb.std.datetime.millitime.MillisecondClockImpl;
+
+public class DefaultReplicationConfiguration implements ReplicationConfiguration {
+    private final ObjList<String> replicaTables = new ObjList<>();
+
+    public DefaultReplicationConfiguration() {
+    }
+
+    @Override
+    public CharSequence getAuthToken() {
+        return null;
+    }
+
+    @Override
+    public int getBindIPv4Address() {
+        return 0;
+    }
+
+    @Override
+    public int getBindPort() {
+        return 9005;
+    }
+
+    @Override
+    public int getBufferSize() {
+        return 1024 * 1024;
+    }
+
+    @Override
+    public CairoSecurityContext getCairoSecurityContext() {
+        return AllowAllCairoSecurityContext.INSTANCE;
+    }
+
+    @Override
+    public MillisecondClock getClock() {
+        return MillisecondClockImpl.INSTANCE;
+    }
+
+    @Override
+    public int getListenBacklog() {
+        return 64;
+    }
+
+    @Override
+    public int getMaxRequestSize() {
+        return 16 * 1024 * 1024;
+    }
+
+    @Override
+    public NetworkFacade getNetworkFacade() {
+        return NetworkFacadeImpl.INSTANCE;
+    }
+
+    @Override
+    public CharSequence getPrimaryHost() {
+        return "127.0.0.1";
+    }
+
+    @Override
+    public int getPrimaryPort() {
+        return 9005;
+    }
+
+    @Override
+    public long getReplicaSyncInterval() {
+        return 1000;
+    }
+
+    @Override
+    public ObjList<String> getReplicaTables() {
+        return replicaTables;
+    }
+
+    @Override
+    public long getTimeout() {
+        return 30_000;
+    }
+
+    @Override
+    public boolean isPrimaryEnabled() {
+        return false;
+    }
+
+    @Override
+    public boolean isReplicaEnabled() {
+        return false;
+    }
+}
@@ -0,0 +1,471 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.cutlass.replication;
+
+import io.questdb.cairo.CairoException;
+import io.questdb.cairo.TableUtils;
+import io.questdb.log.Log;
+import io.questdb.log.LogFactory;
+import io.questdb.network.Net;
+import io.questdb.network.NetworkFacade;
+import io.questdb.std.*;
+import io.questdb.std.datetime.millitime.MillisecondClock;
+import io.questdb.std.str.CharSink;
+import io.questdb.std.str.Path;
+import io.questdb.std.str.StringSink;
+
+import java.io.Closeable;
+
+/**
+ * Framed transport over replication socket. Replica uses blocking socket, it reads responses as they
+ * arrive and sends requests with {@link #flush()}. Primary uses non-blocking socket and never waits for
+ * the peer: requests are buffered until the whole frame is in, see {@link #recvFrame(long)}, responses
+ * are queued and sent as the socket accepts them, see {@link #send()}. Queued data is buffered bytes
+ * interleaved with file ranges, file ranges are read and sent in buffer-sized chunks when their turn comes.
+ */
+public class ReplicationChannel implements Closeable {
+    // frame header is message type followed by the size of the frame body
+    public static final int FRAME_HEADER_SIZE = Integer.BYTES + Long.BYTES;
+    private static final Log LOG = LogFactory.getLog(ReplicationChannel.class);
+    // segment is {path lo, path hi, lo, hi}, path lo is -1 for range of send buffer and
+    // index of the file path in the path sink otherwise, in which case lo and hi are file offsets
+    private static final int SEGMENT_SIZE = 4;
+    private final NetworkFacade nf;
+    private final FilesFacade ff;
+    private final MillisecondClock clock;
+    private final long timeout;
+    private final int bufferSize;
+    private final LongList segments = new LongList();
+    private final StringSink segmentPaths = new StringSink();
+    private final Path segmentPath = new Path();
+    private long sendBuf;
+    private long sendBufSize;
+    private long sendPos;
+    // start of bytes, which are not yet covered by a segment
+    private long sendRunLo;
+    private int segmentIndex;
+    private long segmentPos;
+    private long segmentFd = -1;
+    private long stageBuf;
+    private long stageLo;
+    private long stageHi;
+    private long lastSendTicks = -1;
+    private Closeable sendResource;
+    private long recvBuf;
+    private long recvBufSize;
+    private long recvLo;
+    private long recvHi;
+    private long lastRecvTicks;
+    private long fd = -1;
+
+    public ReplicationChannel(NetworkFacade nf, FilesFacade ff, MillisecondClock clock, long timeout, int bufferSize) {
+        this.nf = nf;
+        this.ff = ff;
+        this.clock = clock;
+        this.timeout = timeout;
+        this.bufferSize = bufferSize;
+        this.sendBufSize = bufferSize;
+        this.sendBuf = Unsafe.malloc(sendBufSize, MemoryTag.NATIVE_REPL);
+        this.stageBuf = Unsafe.malloc(bufferSize, MemoryTag.NATIVE_REPL);
+        this.recvBufSize = bufferSize;
+        this.recvBuf = Unsafe.malloc(recvBufSize, MemoryTag.NATIVE_REPL);
+        of(-1);
+    }
+
+    /**
+     * Resource, which has to stay open until queued data is sent, such as table reader, whose
+     * snapshot the files are sent from. Resource is closed once the send completes or channel is reset.
+     */
+    public void attach(Closeable resource) {
+        assert sendResource == null;
+        sendResource = resource;
+    }
+
+    @Override
+    public void close() {
+        clearSend();
+        Misc.free(segmentPath);
+        sendBuf = Unsafe.free(sendBuf, sendBufSize, MemoryTag.NATIVE_REPL);
+        sendBufSize = 0;
+        stageBuf = Unsafe.free(stageBuf, bufferSize, MemoryTag.NATIVE_REPL);
+        recvBuf = Unsafe.free(recvBuf, recvBufSize, MemoryTag.NATIVE_REPL);
+        recvBufSize = 0;
+        fd = -1;
+    }
+
+    /**
+     * Drops queued data, which has not been sent yet.
+     */
+    public void clearSend() {
+        if (segmentFd != -1) {
+            ff.close(segmentFd);
+            segmentFd = -1;
+        }
+        sendResource = Misc.free(sendResource);
+        segments.clear();
+        segmentPaths.clear();
+        segmentIndex = 0;
+        segmentPos = 0;
+        stageLo = stageHi = stageBuf;
+        sendPos = 0;
+        sendRunLo = 0;
+        lastSendTicks = -1;
+    }
+
+    /**
+     * Sends all queued data. Socket must be blocking, non-blocking sockets use {@link #send()}.
+     */
+    public void flush() {
+        while (isSendPending()) {
+            send();
+        }
+    }
+
+    public boolean getBool() {
+        return getByte() != 0;
+    }
+
+    public byte getByte() {
+        ensureRecv(Byte.BYTES);
+        return Unsafe.getUnsafe().getByte(recvLo++);
+    }
+
+    public void getBytes(long address, long len) {
+        final long buffered = Math.min(len, recvHi - recvLo);
+        if (buffered > 0) {
+            Vect.memcpy(address, recvLo, buffered);
+            recvLo += buffered;
+            address += buffered;
+            len -= buffered;
+        }
+        while (len > 0) {
+            final int n = recvSome(address, len);
+            address += n;
+            len -= n;
+        }
+    }
+
+    public long getFd() {
+        return fd;
+    }
+
+    /**
+     * Receives given number of bytes and writes them to file at given offset.
+     */
+    public void getFile(long fileFd, long offset, long len) {
+        while (len > 0) {
+            if (recvLo == recvHi) {
+                recvLo = recvHi = recvBuf;
+                recvHi += recvSome(recvBuf, Math.min(len, recvBufSize));
+            }
+            final long n = Math.min(len, recvHi - recvLo);
+            if (ff.write(fileFd, recvLo, n, offset) != n) {
+                throw CairoException.critical(ff.errno()).put("could not write replicated data [fd=").put(fileFd)
+                        .put(", offset=").put(offset)
+                        .put(", len=").put(n)
+                        .put(']');
+            }
+            recvLo += n;
+            offset += n;
+            len -= n;
+        }
+    }
+
+    public int getInt() {
+        ensureRecv(Integer.BYTES);
+        final int value = Unsafe.getUnsafe().getInt(recvLo);
+        recvLo += Integer.BYTES;
+        return value;
+    }
+
+    public long getLong() {
+        ensureRecv(Long.BYTES);
+        final long value = Unsafe.getUnsafe().getLong(recvLo);
+        recvLo += Long.BYTES;
+        return value;
+    }
+
+    public void getStr(CharSink sink) {
+        final int len = getInt();
+        for (int i = 0; i < len; i++) {
+            ensureRecv(Character.BYTES);
+            sink.put(Unsafe.getUnsafe().getChar(recvLo));
+            recvLo += Character.BYTES;
+        }
+    }
+
+    public boolean isSendPending() {
+        return sendPos > 0 || segments.size() > 0;
+    }
+
+    public ReplicationChannel of(long fd) {
+        this.fd = fd;
+        clearSend();
+        this.recvLo = this.recvHi = recvBuf;
+        return this;
+    }
+
+    public void putBool(boolean value) {
+        putByte((byte) (value ? 1 : 0));
+    }
+
+    public void putByte(byte value) {
+        ensureSend(Byte.BYTES);
+        Unsafe.getUnsafe().putByte(sendBuf + sendPos, value);
+        sendPos += Byte.BYTES;
+    }
+
+    public void putBytes(long address, long len) {
+        ensureSend(len);
+        Vect.memcpy(sendBuf + sendPos, address, len);
+        sendPos += len;
+    }
+
+    /**
+     * Queues given range of file. File is opened and read when the range is being sent,
+     * it has to stay intact until then, see {@link #attach(Closeable)}.
+     */
+    public void putFile(Path path, long offset, long len) {
+        closeSendRun();
+        final int pathLo = segmentPaths.length();
+        segmentPaths.put(path);
+        addSegment(pathLo, segmentPaths.length(), offset, offset + len);
+    }
+
+    public void putInt(int value) {
+        ensureSend(Integer.BYTES);
+        Unsafe.getUnsafe().putInt(sendBuf + sendPos, value);
+        sendPos += Integer.BYTES;
+    }
+
+    public void putLong(long value) {
+        ensureSend(Long.BYTES);
+        Unsafe.getUnsafe().putLong(sendBuf + sendPos, value);
+        sendPos += Long.BYTES;
+    }
+
+    public void putStr(CharSequence value) {
+        putStr(value, 0, value.length());
+    }
+
+    public void putStr(CharSequence value, int lo, int hi) {
+        putInt(hi - lo);
+        ensureSend((long) (hi - lo) * Character.BYTES);
+        for (int i = lo; i < hi; i++) {
+            Unsafe.getUnsafe().putChar(sendBuf + sendPos, value.charAt(i));
+            sendPos += Character.BYTES;
+        }
+    }
+
+    /**
+     * Receives available input without blocking until whole frame is buffered. Frame starts with
+     * int message type and long body size, body is then read with the getters.
+     *
+     * @param maxBodySize maximum size of the frame body peer is allowed to send
+     * @return true when whole frame is buffered
+     */
+    public boolean recvFrame(long maxBodySize) {
+        if (!recvAtLeast(FRAME_HEADER_SIZE)) {
+            return false;
+        }
+        final long bodySize = Unsafe.getUnsafe().getLong(recvLo + Integer.BYTES);
+        if (bodySize < 0 || bodySize > maxBodySize) {
+            throw CairoException.critical(0).put("invalid replication frame [fd=").put(fd)
+                    .put(", size=").put(bodySize)
+                    .put(", limit=").put(maxBodySize)
+                    .put(']');
+        }
+        return recvAtLeast(FRAME_HEADER_SIZE + bodySize);
+    }
+
+    /**
+     * Sends as much of the queued data as the socket accepts without blocking.
+     *
+     * @return true when some data has been sent
+     */
+    public boolean send() {
+        closeSendRun();
+        if (lastSendTicks == -1) {
+            lastSendTicks = clock.getTicks();
+        }
+        boolean useful = false;
+        while (segmentIndex < segments.size()) {
+            final long pathLo = segments.getQuick(segmentIndex);
+            final long hi = segments.getQuick(segmentIndex + 3);
+            if (pathLo == -1) {
+                while (segmentPos < hi) {
+                    final int n = sendSome(sendBuf + segmentPos, hi - segmentPos);
+                    if (n == 0) {
+                        return useful;
+                    }
+                    segmentPos += n;
+                    useful = true;
+                }
+            } else {
+                while (true) {
+                    if (stageLo == stageHi) {
+                        if (segmentPos == hi) {
+                            break;
+                        }
+                        readStage(pathLo, hi);
+                    }
+                    final int n = sendSome(stageLo, stageHi - stageLo);
+                    if (n == 0) {
+                        return useful;
+                    }
+                    stageLo += n;
+                    useful = true;
+                }
+                if (segmentFd != -1) {
+                    ff.close(segmentFd);
+                    segmentFd = -1;
+                }
+            }
+            segmentIndex += SEGMENT_SIZE;
+            if (segmentIndex < segments.size()) {
+                segmentPos = segments.getQuick(segmentIndex + 2);
+            }
+        }
+        clearSend();
+        return true;
+    }
+
+    private void closeSendRun() {
+        if (sendPos > sendRunLo) {
+            addSegment(-1, -1, sendRunLo, sendPos);
+            sendRunLo = sendPos;
+        }
+    }
+
+    private void addSegment(long pathLo, long pathHi, long lo, long hi) {
+        if (segmentIndex == segments.size()) {
+            segmentPos = lo;
+        }
+        segments.add(pathLo, pathHi, lo, hi);
+    }
+
+    private void ensureRecv(int n) {
+        if (recvHi - recvLo >= n) {
+            return;
+        }
+        final long remaining = recvHi - recvLo;
+        if (remaining > 0 && recvLo > recvBuf) {
+            Vect.memmove(recvBuf, recvLo, remaining);
+        }
+        recvLo = recvBuf;
+        recvHi = recvBuf + remaining;
+        while (recvHi - recvLo < n) {
+            recvHi += recvSome(recvHi, recvBuf + recvBufSize - recvHi);
+        }
+    }
+
+    private void ensureSend(long n) {
+        if (sendPos + n > sendBufSize) {
+            final long size = Math.max(sendBufSize * 2, sendPos + n);
+            sendBuf = Unsafe.realloc(sendBuf, sendBufSize, size, MemoryTag.NATIVE_REPL);
+            sendBufSize = size;
+        }
+    }
+
+    private CairoException peerDisconnected() {
+        return CairoException.critical(nf.errno()).put("replication peer disconnected [fd=").put(fd).put(']');
+    }
+
+    private void readStage(long pathLo, long hi) {
+        if (segmentFd == -1) {
+            segmentPath.of(segmentPaths, (int) pathLo, (int) segments.getQuick(segmentIndex + 1));
+            segmentFd = TableUtils.openRO(ff, segmentPath.$(), LOG);
+        }
+        final long n = ff.read(segmentFd, stageBuf, Math.min(hi - segmentPos, bufferSize), segmentPos);
+        if (n < 1) {
+            throw CairoException.critical(ff.errno()).put("could not read file for replication [path=").put(segmentPath)
+                    .put(", offset=").put(segmentPos)
+                    .put(", len=").put(hi - segmentPos)
+                    .put(']');
+        }
+        stageLo = stageBuf;
+        stageHi = stageBuf + n;
+        segmentPos += n;
+    }
+
+    private boolean recvAtLeast(long n) {
+        while (recvHi - recvLo < n) {
+            final long remaining = recvHi - recvLo;
+            if (recvLo > recvBuf) {
+                if (remaining > 0) {
+                    Vect.memmove(recvBuf, recvLo, remaining);
+                }
+                recvLo = recvBuf;
+                recvHi = recvBuf + remaining;
+            }
+            if (n > recvBufSize) {
+                recvBuf = Unsafe.realloc(recvBuf, recvBufSize, n, MemoryTag.NATIVE_REPL);
+                recvBufSize = n;
+                recvLo = recvBuf;
+                recvHi = recvBuf + remaining;
+            }
+            final int r = nf.recv(fd, recvHi, (int) Math.min(recvBuf + recvBufSize - recvHi, Integer.MAX_VALUE));
+            if (r > 0) {
+                recvHi += r;
+                lastRecvTicks = clock.getTicks();
+            } else if (r == Net.ERETRY) {
+                if (remaining > 0 && clock.getTicks() - lastRecvTicks > timeout) {
+                    throw CairoException.critical(0).put("replication receive timeout [fd=").put(fd).put(']');
+                }
+                return false;
+            } else {
+                throw peerDisconnected();
+            }
+        }
+        return true;
+    }
+
+    private int recvSome(long address, long len) {
+        final int n = nf.recv(fd, address, (int) Math.min(len, Integer.MAX_VALUE));
+        if (n > 0) {
+            return n;
+        }
+        if (n == Net.ERETRY) {
+            // blocking socket timed out or buffered frame is shorter than its content claims
+            throw CairoException.critical(0).put("replication message is incomplete [fd=").put(fd).put(']');
+        }
+        throw peerDisconnected();
+    }
+
+    private int sendSome(long address, long len) {
+        final int n = nf.send(fd, address, (int) Math.min(len, Integer.MAX_VALUE));
+        if (n > 0) {
+            lastSendTicks = clock.getTicks();
+            return n;
+        }
+        if (n != Net.ERETRY) {
+            throw peerDisconnected();
+        }
+        if (clock.getTicks() - lastSendTicks > timeout) {
+            throw CairoException.critical(0).put("replication send timeout [fd=").put(fd).put(']');
+        }
+        return 0;
+    }
+}
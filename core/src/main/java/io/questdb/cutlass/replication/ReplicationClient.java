@@ -0,0 +1,416 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.cutlass.replication;
+
+import io.questdb.cairo.*;
+import io.questdb.cairo.pool.WriterPool;
+import io.questdb.log.Log;
+import io.questdb.log.LogFactory;
+import io.questdb.mp.SynchronizedJob;
+import io.questdb.mp.WorkerPool;
+import io.questdb.network.NetworkFacade;
+import io.questdb.std.*;
+import io.questdb.std.datetime.millitime.MillisecondClock;
+import io.questdb.std.str.Path;
+import io.questdb.std.str.StringSink;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.Closeable;
+
+/**
+ * Replica side of table replication. Periodically pulls configured tables from the primary.
+ * Table writer on the replica is locked while the table is being synced, replica tables are
+ * therefore read-only for the local clients. Tables must exist on replica before the first sync,
+ * created with the same DDL as on the primary.
+ */
+public class ReplicationClient extends SynchronizedJob implements Closeable {
+    private static final Log LOG = LogFactory.getLog(ReplicationClient.class);
+    private static final String REPLACE_FILE_SUFFIX = ".rpl";
+    private final ReplicationConfiguration configuration;
+    private final CairoEngine engine;
+    private final CairoConfiguration cairoConfiguration;
+    private final NetworkFacade nf;
+    private final FilesFacade ff;
+    private final MillisecondClock clock;
+    private final ReplicationChannel channel;
+    private final TableSyncModel model = new TableSyncModel();
+    private final StringSink sink = new StringSink();
+    private final StringSink columnName = new StringSink();
+    private final Path path = new Path();
+    private final Path other = new Path();
+    private long buf;
+    private long bufSize;
+    private long fd = -1;
+    private long nextSyncTime;
+
+    public ReplicationClient(ReplicationConfiguration configuration, CairoEngine engine, @Nullable WorkerPool workerPool) {
+        this.configuration = configuration;
+        this.engine = engine;
+        this.cairoConfiguration = engine.getConfiguration();
+        this.nf = configuration.getNetworkFacade();
+        this.ff = cairoConfiguration.getFilesFacade();
+        this.clock = configuration.getClock();
+        this.channel = new ReplicationChannel(nf, ff, clock, configuration.getTimeout(), configuration.getBufferSize());
+        if (workerPool != null) {
+            workerPool.assign(this);
+        }
+    }
+
+    @Override
+    public void close() {
+        disconnect();
+        Misc.free(channel);
+        Misc.free(path);
+        Misc.free(other);
+        buf = Unsafe.free(buf, bufSize, MemoryTag.NATIVE_REPL);
+        bufSize = 0;
+    }
+
+    /**
+     * Brings replica table to the state of the same table on primary.
+     *
+     * @param tableName table name, same on primary and replica
+     * @return one of ReplicationProtocol.STATUS_* values
+     */
+    public int syncTable(CharSequence tableName) {
+        final CairoSecurityContext securityContext = configuration.getCairoSecurityContext();
+        final CharSequence lockedReason = engine.lockWriter(securityContext, tableName, "replication");
+        if (lockedReason != WriterPool.OWNERSHIP_REASON_NONE) {
+            LOG.info().$("replica table is busy [table=").$(tableName).$(", reason=").$(lockedReason).I$();
+            return ReplicationProtocol.STATUS_BUSY;
+        }
+        try {
+            connect();
+            try {
+                return sync0(tableName);
+            } catch (CairoException e) {
+                // stream state is unknown, start over with new connection
+                disconnect();
+                throw e;
+            }
+        } finally {
+            engine.unlockWriter(securityContext, tableName);
+        }
+    }
+
+    @Override
+    protected boolean runSerially() {
+        final long now = clock.getTicks();
+        if (now < nextSyncTime) {
+            return false;
+        }
+        nextSyncTime = now + configuration.getReplicaSyncInterval();
+        final ObjList<String> tables = configuration.getReplicaTables();
+        for (int i = 0, n = tables.size(); i < n; i++) {
+            final String tableName = tables.getQuick(i);
+            try {
+                syncTable(tableName);
+            } catch (CairoException e) {
+                LOG.error().$("could not sync table [table=").$(tableName)
+                        .$(", errno=").$(e.getErrno())
+                        .$(", msg=").$(e.getFlyweightMessage())
+                        .I$();
+            }
+        }
+        return true;
+    }
+
+    private void applyVersioned(long len) {
+        // version is the first long of the file, readers validate data against it,
+        // so it goes in after the body
+        if (len < Long.BYTES) {
+            throw CairoException.critical(0).put("versioned file is too short [path=").put(path).put(", len=").put(len).put(']');
+        }
+        ensureBufCapacity(len);
+        channel.getBytes(buf, len);
+        final long fd = openRW();
+        try {
+            write(fd, buf + Long.BYTES, len - Long.BYTES, Long.BYTES);
+            write(fd, buf, Long.BYTES, 0);
+        } finally {
+            ff.close(fd);
+        }
+    }
+
+    private void applyWrite(long offset, long len) {
+        final long fd = openRW();
+        try {
+            channel.getFile(fd, offset, len);
+        } finally {
+            ff.close(fd);
+        }
+    }
+
+    private void applyReplace(long len) {
+        final int plen = path.length();
+        other.of(path).$();
+        path.put(REPLACE_FILE_SUFFIX);
+        final long fd = openRW();
+        try {
+            if (!ff.truncate(fd, 0)) {
+                throw CairoException.critical(ff.errno()).put("could not truncate [path=").put(path).put(']');
+            }
+            channel.getFile(fd, 0, len);
+        } finally {
+            ff.close(fd);
+        }
+        TableUtils.renameOrFail(ff, path.$(), other);
+        path.trimTo(plen);
+    }
+
+    private void connect() {
+        if (fd > -1) {
+            return;
+        }
+        final long fd = nf.socketTcp(true);
+        if (fd < 0) {
+            throw CairoException.critical(nf.errno()).put("could not create replication socket");
+        }
+        final long addrInfo = nf.getAddrInfo(configuration.getPrimaryHost(), configuration.getPrimaryPort());
+        if (addrInfo == -1) {
+            nf.close(fd, LOG);
+            throw CairoException.critical(nf.errno()).put("could not resolve primary [host=").put(configuration.getPrimaryHost()).put(']');
+        }
+        try {
+            if (nf.connectAddrInfo(fd, addrInfo) != 0) {
+                final int errno = nf.errno();
+                nf.close(fd, LOG);
+                throw CairoException.critical(errno).put("could not connect to primary [host=").put(configuration.getPrimaryHost())
+                        .put(", port=").put(configuration.getPrimaryPort())
+                        .put(']');
+            }
+        } finally {
+            nf.freeAddrInfo(addrInfo);
+        }
+        this.fd = fd;
+        channel.of(fd);
+        LOG.info().$("connected to primary [host=").$(configuration.getPrimaryHost())
+                .$(", port=").$(configuration.getPrimaryPort())
+                .$(", fd=").$(fd)
+                .I$();
+    }
+
+    private void disconnect() {
+        if (fd > -1) {
+            nf.close(fd, LOG);
+            fd = -1;
+            channel.of(-1);
+        }
+    }
+
+    private void ensureBufCapacity(long size) {
+        if (size > bufSize) {
+            buf = Unsafe.realloc(buf, bufSize, size, MemoryTag.NATIVE_REPL);
+            bufSize = size;
+        }
+    }
+
+    private static boolean isColumnFileExtension(char c, boolean tableRoot) {
+        // symbol map files live in table root, column data in partitions, both may be indexed
+        switch (c) {
+            case 'k':
+            case 'v':
+                return true;
+            case 'o':
+            case 'c':
+                return tableRoot;
+            case 'd':
+            case 'i':
+                return !tableRoot;
+            default:
+                return false;
+        }
+    }
+
+    // file names come from the network, only plain names of table files are accepted:
+    // metadata files in table root and "<column>.<ext>[.<column name txn>]" files
+    private boolean isExpectedFileName(CharSequence name, boolean tableRoot) {
+        if (tableRoot && (Chars.equals(name, TableUtils.META_FILE_NAME)
+                || Chars.equals(name, TableUtils.COLUMN_VERSION_FILE_NAME)
+                || Chars.equals(name, TableUtils.TXN_FILE_NAME))) {
+            return true;
+        }
+        final int len = name.length();
+        final int dot = Chars.indexOf(name, '.');
+        if (dot < 1 || dot + 1 >= len || !isColumnFileExtension(name.charAt(dot + 1), tableRoot)) {
+            return false;
+        }
+        columnName.clear();
+        columnName.put(name, 0, dot);
+        if (!TableUtils.isValidColumnName(columnName, cairoConfiguration.getMaxFileNameLength())) {
+            return false;
+        }
+        if (dot + 2 == len) {
+            return true;
+        }
+        if (name.charAt(dot + 2) != '.' || dot + 3 == len) {
+            return false;
+        }
+        for (int i = dot + 3; i < len; i++) {
+            final char c = name.charAt(i);
+            if (c < '0' || c > '9') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean isExpectedPartition(long partitionTimestamp, long partitionNameTxn) {
+        for (int i = 0, n = model.getPartitionCount(); i < n; i++) {
+            if (model.getPartitionTimestamp(i) == partitionTimestamp && model.getPartitionNameTxn(i) == partitionNameTxn) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private long openRW() {
+        if (ff.mkdirs(path, cairoConfiguration.getMkDirMode()) != 0) {
+            throw CairoException.critical(ff.errno()).put("could not create directories [path=").put(path).put(']');
+        }
+        final long fd = ff.openRW(path.$(), cairoConfiguration.getWriterFileOpenOpts());
+        if (fd < 0) {
+            throw CairoException.critical(ff.errno()).put("could not open read-write [path=").put(path).put(']');
+        }
+        return fd;
+    }
+
+    // reads whole file into the buffer at given offset, returns file length
+    private long readFile(long offset) {
+        final long fd = TableUtils.openRO(ff, path.$(), LOG);
+        try {
+            final long len = ff.length(fd);
+            ensureBufCapacity(offset + len);
+            if (ff.read(fd, buf + offset, len, 0) != len) {
+                throw CairoException.critical(ff.errno()).put("could not read [path=").put(path).put(']');
+            }
+            return len;
+        } finally {
+            ff.close(fd);
+        }
+    }
+
+    private int sync0(CharSequence tableName) {
+        path.of(cairoConfiguration.getRoot()).concat(tableName);
+        final int tableRootLen = path.length();
+        path.concat(TableUtils.TXN_FILE_NAME);
+        final long txnSize = readFile(0);
+        path.trimTo(tableRootLen).concat(TableUtils.META_FILE_NAME);
+        final long metaSize = readFile(txnSize);
+        // partition directories are named by the replica, primary sends partition timestamps only
+        final int partitionBy = Unsafe.getUnsafe().getInt(buf + txnSize + TableUtils.META_OFFSET_PARTITION_BY);
+
+        final CharSequence authToken = configuration.getAuthToken() != null ? configuration.getAuthToken() : "";
+        channel.putInt(ReplicationProtocol.MSG_SYNC);
+        channel.putLong(
+                Integer.BYTES + (long) authToken.length() * Character.BYTES
+                        + Integer.BYTES + (long) tableName.length() * Character.BYTES
+                        + Long.BYTES + txnSize
+                        + Long.BYTES + metaSize
+        );
+        channel.putStr(authToken);
+        channel.putStr(tableName);
+        channel.putLong(txnSize);
+        channel.putBytes(buf, txnSize);
+        channel.putLong(metaSize);
+        channel.putBytes(buf + txnSize, metaSize);
+        channel.flush();
+
+        final int status = channel.getInt();
+        if (status != ReplicationProtocol.STATUS_OK) {
+            sink.clear();
+            channel.getStr(sink);
+            LOG.error().$("primary refused sync [table=").$(tableName)
+                    .$(", status=").$(ReplicationProtocol.nameOfStatus(status))
+                    .$(", msg=").$(sink)
+                    .I$();
+            return status;
+        }
+
+        final long modelSize = channel.getLong();
+        ensureBufCapacity(modelSize);
+        channel.getBytes(buf, modelSize);
+        model.clear();
+        model.fromBinary(buf);
+
+        int fileCount = 0;
+        while (true) {
+            final byte op = channel.getByte();
+            if (op == ReplicationProtocol.OP_END) {
+                break;
+            }
+            final boolean tableRoot = !channel.getBool();
+            final long partitionTimestamp = channel.getLong();
+            final long partitionNameTxn = channel.getLong();
+            sink.clear();
+            channel.getStr(sink);
+            final long offset = channel.getLong();
+            final long len = channel.getLong();
+            if (!tableRoot && !isExpectedPartition(partitionTimestamp, partitionNameTxn)) {
+                throw CairoException.critical(0).put("unexpected replicated partition [table=").put(tableName)
+                        .put(", timestamp=").put(partitionTimestamp)
+                        .put(", nameTxn=").put(partitionNameTxn)
+                        .put(']');
+            }
+            if (!isExpectedFileName(sink, tableRoot)) {
+                throw CairoException.critical(0).put("unexpected replicated file [table=").put(tableName)
+                        .put(", name=").put(sink)
+                        .put(']');
+            }
+            if (tableRoot) {
+                path.trimTo(tableRootLen);
+            } else {
+                TableUtils.setPathForPartition(path, tableRootLen, partitionBy, partitionTimestamp, partitionNameTxn);
+            }
+            path.concat(sink);
+            switch (op) {
+                case ReplicationProtocol.OP_WRITE:
+                    applyWrite(offset, len);
+                    break;
+                case ReplicationProtocol.OP_REPLACE:
+                    applyReplace(len);
+                    break;
+                case ReplicationProtocol.OP_WRITE_VERSIONED:
+                    applyVersioned(len);
+                    break;
+                default:
+                    throw CairoException.critical(0).put("unexpected replication op [op=").put(op).put(']');
+            }
+            fileCount++;
+        }
+
+        LOG.info().$("table synced [table=").$(tableName)
+                .$(", partitions=").$(model.getPartitionCount())
+                .$(", files=").$(fileCount)
+                .I$();
+        return ReplicationProtocol.STATUS_OK;
+    }
+
+    private void write(long fd, long address, long len, long offset) {
+        if (ff.write(fd, address, len, offset) != len) {
+            throw CairoException.critical(ff.errno()).put("could not write [path=").put(path).put(", offset=").put(offset).put(']');
+        }
+    }
+}
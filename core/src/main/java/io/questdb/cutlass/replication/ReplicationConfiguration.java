@@ -0,0 +1,106 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.cutlass.replication;
+
+import io.questdb.cairo.CairoSecurityContext;
+import io.questdb.network.NetworkFacade;
+import io.questdb.std.ObjList;
+import io.questdb.std.datetime.millitime.MillisecondClock;
+
+public interface ReplicationConfiguration {
+
+    /**
+     * Shared secret replicas present in each sync request. Primary drops connections, which present
+     * a different token, and refuses to start when no token is configured. Replica sends its token to
+     * the primary it is configured to pull from.
+     *
+     * @return auth token or null when none is configured
+     */
+    CharSequence getAuthToken();
+
+    /**
+     * @return address primary accepts replica connections on, 0 for all interfaces. Together with
+     * the auth token, this is how access to the replication port is restricted.
+     */
+    int getBindIPv4Address();
+
+    int getBindPort();
+
+    /**
+     * Size of the native buffer used to send and receive replication frames as well as to stream
+     * column data between primary and replica.
+     *
+     * @return buffer size in bytes
+     */
+    int getBufferSize();
+
+    CairoSecurityContext getCairoSecurityContext();
+
+    MillisecondClock getClock();
+
+    int getListenBacklog();
+
+    /**
+     * Maximum size of replica's sync request. Request carries replica's transaction and metadata files,
+     * hence the limit has to accommodate metadata of the widest replicated table. Primary buffers the
+     * whole request before processing it, response model is limited by the same size.
+     *
+     * @return maximum request size in bytes
+     */
+    int getMaxRequestSize();
+
+    NetworkFacade getNetworkFacade();
+
+    CharSequence getPrimaryHost();
+
+    int getPrimaryPort();
+
+    /**
+     * @return interval between sync attempts of the replica, in milliseconds
+     */
+    long getReplicaSyncInterval();
+
+    /**
+     * @return names of the tables replica pulls from primary. Tables must exist on the replica and have
+     * been created with the same DDL as on the primary.
+     */
+    ObjList<String> getReplicaTables();
+
+    /**
+     * @return time in milliseconds either side waits for the peer to make progress before giving up on the connection
+     */
+    long getTimeout();
+
+    /**
+     * @return true when this instance serves replication requests, e.g. it is a primary
+     */
+    boolean isPrimaryEnabled();
+
+    /**
+     * @return true when this instance pulls tables from primary, e.g. it is a read replica
+     */
+    boolean isReplicaEnabled();
+}
@@ -0,0 +1,75 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.cutlass.replication;
+
+/**
+ * Replication is pulled by the replica. Replica sends SYNC request, which contains its own
+ * transaction and metadata files of the table. Primary diffs those against its table using
+ * {@link io.questdb.cairo.TableSyncModel} and responds with status, the sync model and a sequence
+ * of file operations, which bring replica's table to the primary's state:
+ * <pre>
+ * request:  int MSG_SYNC, long bodySize, str authToken, str tableName, long txnSize, txn bytes, long metaSize, meta bytes
+ * response: int status, [str error] | [long modelSize, model bytes, {byte op, bool inPartition, long partitionTimestamp,
+ *           long partitionNameTxn, str fileName, long offset, long len, bytes}*, byte OP_END]
+ * </pre>
+ * Primary always requires auth token, replica sends empty token when it has none configured. Body size
+ * lets primary buffer the request without blocking. File name is a plain name of a file in table directory
+ * or in the given partition, replica builds partition directory name itself and rejects names other than
+ * table metadata and column files. Operations are ordered so that transaction file is always written
+ * last, replica's readers do not observe new data until then.
+ */
+public final class ReplicationProtocol {
+    public static final int MSG_SYNC = 0x51535943;
+
+    public static final int STATUS_OK = 0;
+    public static final int STATUS_BUSY = 1;
+    public static final int STATUS_RESEED_REQUIRED = 2;
+    public static final int STATUS_ERROR = 3;
+
+    // writes bytes at given offset of the file
+    public static final byte OP_WRITE = 1;
+    // writes bytes to temporary file and renames it over the target file
+    public static final byte OP_REPLACE = 2;
+    // writes file body and then the leading version, used for files readers access without locks, such as _txn and _cv
+    public static final byte OP_WRITE_VERSIONED = 3;
+    public static final byte OP_END = 0;
+
+    private ReplicationProtocol() {
+    }
+
+    public static String nameOfStatus(int status) {
+        switch (status) {
+            case STATUS_OK:
+                return "OK";
+            case STATUS_BUSY:
+                return "BUSY";
+            case STATUS_RESEED_REQUIRED:
+                return "RESEED_REQUIRED";
+            default:
+                return "ERROR";
+        }
+    }
+}
@@ -0,0 +1,560 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.cutlass.replication;
+
+import io.questdb.cairo.*;
+import io.questdb.cairo.vm.Vm;
+import io.questdb.cairo.vm.api.MemoryCARW;
+import io.questdb.log.Log;
+import io.questdb.log.LogFactory;
+import io.questdb.mp.SynchronizedJob;
+import io.questdb.mp.WorkerPool;
+import io.questdb.network.NetworkError;
+import io.questdb.network.NetworkFacade;
+import io.questdb.std.*;
+import io.questdb.std.str.Path;
+import io.questdb.std.str.StringSink;
+import io.questdb.tasks.TableWriterTask;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.Closeable;
+
+/**
+ * Primary side of table replication. Accepts replica connections and answers their SYNC requests
+ * by sending the parts of table files replica is missing. Requests are served by a worker one at a time
+ * from the snapshot of a table reader, the writer is not involved and keeps committing while the replica
+ * is being served. Snapshot files are consistent by construction: partition versions the reader
+ * references are not purged until the reader is released and rows below reader's row counts are not
+ * changed in place. _txn, _cv and _meta are sent as the reader has loaded them, index key files, which
+ * are updated in place, are copied and checked the same way index readers check them.
+ * <p>
+ * Server never waits for replicas. Requests are processed once fully received and responses are queued
+ * on the channel, the job then sends them over subsequent runs as replica's socket accepts data. Reader
+ * stays open until its response is sent.
+ * <p>
+ * Auth token is mandatory, replicas have to present the same token in each request, connections with
+ * wrong token are dropped.
+ */
+public class ReplicationServer extends SynchronizedJob implements Closeable {
+    private static final Log LOG = LogFactory.getLog(ReplicationServer.class);
+    private final ReplicationConfiguration configuration;
+    private final CairoEngine engine;
+    private final NetworkFacade nf;
+    private final FilesFacade ff;
+    private final CharSequence authToken;
+    private final ObjList<ReplicationChannel> channels = new ObjList<>();
+    private final ObjList<ReplicationChannel> freeChannels = new ObjList<>();
+    private final StringSink tableName = new StringSink();
+    private final StringSink token = new StringSink();
+    private final Path path;
+    private final TableSyncModelBuilder modelBuilder;
+    private final TableWriterTask modelSink;
+    private final long modelBuf;
+    private final int modelBufSize;
+    private final long tempMem8b;
+    private final MemoryCARW metaMem;
+    private final MemoryCARW fileMem;
+    private long requestBuf;
+    private long requestBufSize;
+    private long indexBuf;
+    private long indexBufSize;
+    private long serverFd;
+    private int port;
+    private int tableRootLen;
+    // partition and file name of the file being sent, table root files have no partition
+    private boolean fileInPartition;
+    private long filePartitionTimestamp;
+    private long filePartitionNameTxn;
+    private int fileNameLo;
+
+    public ReplicationServer(ReplicationConfiguration configuration, CairoEngine engine, @Nullable WorkerPool workerPool) {
+        this.configuration = configuration;
+        this.engine = engine;
+        this.nf = configuration.getNetworkFacade();
+        this.ff = engine.getConfiguration().getFilesFacade();
+        this.authToken = configuration.getAuthToken();
+        if (authToken == null || authToken.length() == 0) {
+            throw CairoException.critical(0).put("replication primary requires auth token");
+        }
+        this.path = new Path();
+        this.modelBuilder = new TableSyncModelBuilder(engine.getConfiguration());
+        // sync model is proportional to the partition count, same as replica's transaction file
+        this.modelBufSize = configuration.getMaxRequestSize();
+        this.modelBuf = Unsafe.malloc(modelBufSize, MemoryTag.NATIVE_REPL);
+        this.modelSink = new TableWriterTask(modelBuf, modelBufSize);
+        this.tempMem8b = Unsafe.malloc(Long.BYTES, MemoryTag.NATIVE_REPL);
+        this.metaMem = Vm.getCARWInstance(ff.getPageSize(), Integer.MAX_VALUE, MemoryTag.NATIVE_REPL);
+        this.fileMem = Vm.getCARWInstance(ff.getPageSize(), Integer.MAX_VALUE, MemoryTag.NATIVE_REPL);
+        try {
+            this.serverFd = nf.socketTcp(false);
+            if (serverFd < 0) {
+                throw NetworkError.instance(nf.errno(), "could not create replication socket");
+            }
+            if (!nf.bindTcp(serverFd, configuration.getBindIPv4Address(), configuration.getBindPort())) {
+                throw NetworkError.instance(nf.errno()).couldNotBindSocket(
+                        "replication",
+                        configuration.getBindIPv4Address(),
+                        configuration.getBindPort()
+                );
+            }
+            nf.listen(serverFd, configuration.getListenBacklog());
+            this.port = configuration.getBindPort() == 0 ? nf.resolvePort(serverFd) : configuration.getBindPort();
+            LOG.advisory().$("replication primary listening [fd=").$(serverFd)
+                    .$(", port=").$(port)
+                    .I$();
+        } catch (Throwable e) {
+            close();
+            throw e;
+        }
+        if (workerPool != null) {
+            workerPool.assign(this);
+        }
+    }
+
+    @Override
+    public void close() {
+        for (int i = channels.size() - 1; i > -1; i--) {
+            disconnect(i);
+        }
+        Misc.freeObjListAndClear(freeChannels);
+        if (serverFd > -1) {
+            nf.close(serverFd, LOG);
+            serverFd = -1;
+        }
+        Misc.free(path);
+        Misc.free(modelBuilder);
+        Misc.free(modelSink);
+        Misc.free(metaMem);
+        Misc.free(fileMem);
+        Unsafe.free(modelBuf, modelBufSize, MemoryTag.NATIVE_REPL);
+        Unsafe.free(tempMem8b, Long.BYTES, MemoryTag.NATIVE_REPL);
+        requestBuf = Unsafe.free(requestBuf, requestBufSize, MemoryTag.NATIVE_REPL);
+        requestBufSize = 0;
+        indexBuf = Unsafe.free(indexBuf, indexBufSize, MemoryTag.NATIVE_REPL);
+        indexBufSize = 0;
+    }
+
+    public int getPort() {
+        return port;
+    }
+
+    @Override
+    protected boolean runSerially() {
+        boolean useful = accept();
+        final long maxRequestSize = configuration.getMaxRequestSize();
+        for (int i = channels.size() - 1; i > -1; i--) {
+            final ReplicationChannel channel = channels.getQuick(i);
+            try {
+                if (channel.isSendPending()) {
+                    useful |= channel.send();
+                } else if (channel.recvFrame(maxRequestSize)) {
+                    processRequest(channel);
+                    channel.send();
+                    useful = true;
+                }
+            } catch (CairoException e) {
+                LOG.error().$("replica connection failed [fd=").$(channel.getFd())
+                        .$(", errno=").$(e.getErrno())
+                        .$(", msg=").$(e.getFlyweightMessage())
+                        .I$();
+                disconnect(i);
+            }
+        }
+        return useful;
+    }
+
+    private static boolean isTokenValid(CharSequence expected, CharSequence actual) {
+        // compares all chars regardless of where the first mismatch is
+        int diff = expected.length() ^ actual.length();
+        for (int i = 0, n = expected.length(), m = actual.length(); i < n; i++) {
+            diff |= expected.charAt(i) ^ (i < m ? actual.charAt(i) : 0);
+        }
+        return diff == 0;
+    }
+
+    private boolean accept() {
+        boolean useful = false;
+        long fd;
+        while ((fd = nf.accept(serverFd)) > -1) {
+            nf.configureNonBlocking(fd);
+            final ReplicationChannel channel;
+            if (freeChannels.size() > 0) {
+                channel = freeChannels.getLast();
+                freeChannels.setPos(freeChannels.size() - 1);
+            } else {
+                channel = new ReplicationChannel(nf, ff, configuration.getClock(), configuration.getTimeout(), configuration.getBufferSize());
+            }
+            channels.add(channel.of(fd));
+            LOG.info().$("replica connected [fd=").$(fd).I$();
+            useful = true;
+        }
+        return useful;
+    }
+
+    private void disconnect(int index) {
+        final ReplicationChannel channel = channels.getQuick(index);
+        LOG.info().$("replica disconnected [fd=").$(channel.getFd()).I$();
+        nf.close(channel.getFd(), LOG);
+        channels.remove(index);
+        freeChannels.add(channel.of(-1));
+    }
+
+    private void ensureRequestCapacity(long size) {
+        if (size > requestBufSize) {
+            requestBuf = Unsafe.realloc(requestBuf, requestBufSize, size, MemoryTag.NATIVE_REPL);
+            requestBufSize = size;
+        }
+    }
+
+    private long getRequestSize(ReplicationChannel channel, long limit) {
+        final long size = channel.getLong();
+        if (size < 0 || size > limit) {
+            throw CairoException.critical(0).put("invalid replication request [table=").put(tableName)
+                    .put(", size=").put(size)
+                    .put(", limit=").put(limit)
+                    .put(']');
+        }
+        return size;
+    }
+
+    private boolean isReseedRequired(TableSyncModel model) {
+        if (model.getTableAction() != TableSyncModel.TABLE_ACTION_KEEP) {
+            return true;
+        }
+        // removal of a column, which still exists on primary means it was renamed or
+        // re-indexed; replica files for such column cannot be patched incrementally
+        final int columnCount = metaMem.getInt(TableUtils.META_OFFSET_COUNT);
+        for (int i = 0, n = model.getColumnMetaActionCount(); i < n; i++) {
+            if (model.getColumnMetaAction(i) == TableSyncModel.COLUMN_META_ACTION_REMOVE) {
+                final int columnIndex = model.getColumnMetaActionFrom(i);
+                if (columnIndex < columnCount && TableUtils.getColumnType(metaMem, columnIndex) > 0) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private void processRequest(ReplicationChannel channel) {
+        final int msg = channel.getInt();
+        if (msg != ReplicationProtocol.MSG_SYNC) {
+            throw CairoException.critical(0).put("unexpected replication message [msg=").put(msg).put(']');
+        }
+
+        // body size, frame is already buffered in full
+        channel.getLong();
+        token.clear();
+        channel.getStr(token);
+        tableName.clear();
+        channel.getStr(tableName);
+
+        if (!isTokenValid(authToken, token)) {
+            respond(channel, ReplicationProtocol.STATUS_ERROR, "invalid auth token");
+            // best effort to let replica know, connection is dropped regardless
+            channel.send();
+            throw CairoException.critical(0).put("replica presented invalid auth token [table=").put(tableName).put(']');
+        }
+
+        final long maxRequestSize = configuration.getMaxRequestSize();
+        final long txnSize = getRequestSize(channel, maxRequestSize);
+        ensureRequestCapacity(txnSize);
+        channel.getBytes(requestBuf, txnSize);
+        final long metaSize = getRequestSize(channel, maxRequestSize - txnSize);
+        ensureRequestCapacity(txnSize + metaSize);
+        channel.getBytes(requestBuf + txnSize, metaSize);
+
+        // table name comes from the network, it is validated the same way SQL validates table names
+        if (!TableUtils.isValidTableName(tableName, engine.getConfiguration().getMaxFileNameLength())) {
+            respond(channel, ReplicationProtocol.STATUS_ERROR, "invalid table name");
+            return;
+        }
+
+        final TableReader reader;
+        try {
+            reader = engine.getReader(configuration.getCairoSecurityContext(), tableName);
+        } catch (EntryUnavailableException e) {
+            respond(channel, ReplicationProtocol.STATUS_BUSY, e.getFlyweightMessage());
+            return;
+        } catch (CairoException e) {
+            respond(channel, ReplicationProtocol.STATUS_ERROR, e.getFlyweightMessage());
+            return;
+        }
+
+        boolean attached = false;
+        try {
+            metaMem.jumpTo(0);
+            reader.getMetadata().dumpTo(metaMem);
+
+            final TableSyncModel model;
+            try {
+                model = modelBuilder.of(reader, metaMem, requestBuf, txnSize, requestBuf + txnSize, metaSize);
+            } catch (CairoException e) {
+                respond(channel, ReplicationProtocol.STATUS_ERROR, e.getFlyweightMessage());
+                return;
+            }
+
+            if (isReseedRequired(model)) {
+                LOG.info().$("replica must be reseeded [table=").$(tableName).I$();
+                respond(channel, ReplicationProtocol.STATUS_RESEED_REQUIRED, "table structure or data version has diverged");
+                return;
+            }
+
+            final boolean metaChanged = model.getColumnMetaActionCount() > 0;
+            modelSink.of(TableWriterTask.CMD_SLAVE_SYNC, 0, null);
+            model.toBinary(modelSink);
+
+            channel.putInt(ReplicationProtocol.STATUS_OK);
+            channel.putLong(modelSink.getAppendOffset());
+            channel.putBytes(modelBuf, modelSink.getAppendOffset());
+
+            path.of(engine.getConfiguration().getRoot()).concat(reader.getTableName());
+            tableRootLen = path.length();
+
+            boolean consistent = true;
+            for (int i = 0, n = model.getPartitionCount(); i < n && consistent; i++) {
+                consistent = sendPartition(
+                        channel,
+                        reader,
+                        model.getPartitionTimestamp(i),
+                        model.getPartitionStartRow(i),
+                        model.getPartitionRowCount(i),
+                        model.getPartitionNameTxn(i)
+                );
+            }
+            if (!consistent || !sendSymbolMaps(channel, reader, metaChanged)) {
+                // writer is updating index key file, replica retries on its next sync
+                channel.clearSend();
+                respond(channel, ReplicationProtocol.STATUS_BUSY, "index is being updated");
+                return;
+            }
+
+            setRootFile();
+            if (metaChanged) {
+                path.trimTo(tableRootLen).concat(TableUtils.META_FILE_NAME);
+                sendBytes(channel, ReplicationProtocol.OP_REPLACE, metaMem.getPageAddress(0), metaMem.getAppendOffset());
+            }
+
+            final ColumnVersionReader columnVersionReader = reader.getColumnVersionReader();
+            final long cvSize = ColumnVersionReader.HEADER_SIZE
+                    + (long) (columnVersionReader.getCachedList().size() / ColumnVersionReader.BLOCK_SIZE) * ColumnVersionReader.BLOCK_SIZE_BYTES;
+            prepareFileMem(cvSize);
+            columnVersionReader.dumpTo(fileMem);
+            path.trimTo(tableRootLen).concat(TableUtils.COLUMN_VERSION_FILE_NAME);
+            sendBytes(channel, ReplicationProtocol.OP_WRITE_VERSIONED, fileMem.getPageAddress(0), cvSize);
+
+            final TxReader txFile = reader.getTxFile();
+            final long txSize = TableUtils.TX_BASE_HEADER_SIZE + txFile.getRecordSize();
+            prepareFileMem(txSize);
+            txFile.dumpTo(fileMem);
+            path.trimTo(tableRootLen).concat(TableUtils.TXN_FILE_NAME);
+            sendBytes(channel, ReplicationProtocol.OP_WRITE_VERSIONED, fileMem.getPageAddress(0), txSize);
+
+            channel.putByte(ReplicationProtocol.OP_END);
+            // file ranges are read when they are sent, reader keeps them in place until then
+            channel.attach(reader);
+            attached = true;
+
+            LOG.info().$("replica sync queued [table=").$(tableName)
+                    .$(", txn=").$(txFile.getTxn())
+                    .$(", partitions=").$(model.getPartitionCount())
+                    .$(", metaChanged=").$(metaChanged)
+                    .$(", fd=").$(channel.getFd())
+                    .I$();
+        } finally {
+            if (!attached) {
+                reader.close();
+            }
+        }
+    }
+
+    private void prepareFileMem(long size) {
+        // header fields of the inactive A/B area are not written by dumps
+        fileMem.jumpTo(0);
+        fileMem.extend(size);
+        fileMem.zero();
+    }
+
+    // copies key file of the index to the index buffer, returns -1 when the copy is not consistent
+    private long readKeyFile() {
+        final long fd = TableUtils.openRO(ff, path.$(), LOG);
+        try {
+            final long len = ff.length(fd);
+            if (len > indexBufSize) {
+                indexBuf = Unsafe.realloc(indexBuf, indexBufSize, len, MemoryTag.NATIVE_REPL);
+                indexBufSize = len;
+            }
+            if (ff.read(fd, indexBuf, len, 0) != len) {
+                throw CairoException.critical(ff.errno()).put("could not read [path=").put(path).put(']');
+            }
+            return BitmapIndexUtils.isKeyFileConsistent(indexBuf, len) ? len : -1;
+        } finally {
+            ff.close(fd);
+        }
+    }
+
+    private void respond(ReplicationChannel channel, int status, CharSequence message) {
+        channel.putInt(status);
+        channel.putStr(message);
+    }
+
+    private void sendBytes(ReplicationChannel channel, byte op, long address, long len) {
+        putOpHeader(channel, op, 0, len);
+        channel.putBytes(address, len);
+    }
+
+    private void putOpHeader(ReplicationChannel channel, byte op, long offset, long len) {
+        channel.putByte(op);
+        // replica builds partition path itself and accepts plain file names only
+        channel.putBool(fileInPartition);
+        channel.putLong(filePartitionTimestamp);
+        channel.putLong(filePartitionNameTxn);
+        channel.putStr(path, fileNameLo, path.length());
+        channel.putLong(offset);
+        channel.putLong(len);
+    }
+
+    private void sendFileRange(ReplicationChannel channel, long offset, long len) {
+        if (len > 0) {
+            putOpHeader(channel, ReplicationProtocol.OP_WRITE, offset, len);
+            channel.putFile(path, offset, len);
+        }
+    }
+
+    private boolean sendIndex(ReplicationChannel channel, int plen, CharSequence columnName, long columnNameTxn) {
+        // key file is taken first, it defines how much of value file is in use; values go out first,
+        // so that key file on replica never references values it does not have
+        BitmapIndexUtils.keyFileName(path.trimTo(plen), columnName, columnNameTxn);
+        final long keySize = readKeyFile();
+        if (keySize < 0) {
+            return false;
+        }
+        BitmapIndexUtils.valueFileName(path.trimTo(plen), columnName, columnNameTxn);
+        sendFileRange(channel, 0, BitmapIndexUtils.getValueMemSize(indexBuf));
+        BitmapIndexUtils.keyFileName(path.trimTo(plen), columnName, columnNameTxn);
+        sendBytes(channel, ReplicationProtocol.OP_WRITE, indexBuf, keySize);
+        return true;
+    }
+
+    private boolean sendPartition(
+            ReplicationChannel channel,
+            TableReader reader,
+            long partitionTimestamp,
+            long startRow,
+            long rowCount,
+            long nameTxn
+    ) {
+        TableUtils.setPathForPartition(path, tableRootLen, reader.getPartitionedBy(), partitionTimestamp, nameTxn);
+        final int plen = path.length();
+        fileInPartition = true;
+        filePartitionTimestamp = partitionTimestamp;
+        filePartitionNameTxn = nameTxn;
+        fileNameLo = plen + 1;
+        final long rows = startRow + rowCount;
+        final TableReaderMetadata metadata = reader.getMetadata();
+        final ColumnVersionReader columnVersionReader = reader.getColumnVersionReader();
+
+        for (int i = 0, n = metadata.getColumnCount(); i < n; i++) {
+            final int type = metadata.getColumnType(i);
+            final int writerIndex = metadata.getWriterIndex(i);
+            final long columnTop = columnVersionReader.getColumnTop(partitionTimestamp, writerIndex);
+            if (columnTop < 0 || columnTop >= rows) {
+                // column has no data in this partition
+                continue;
+            }
+
+            final CharSequence columnName = metadata.getColumnName(i);
+            final long columnNameTxn = columnVersionReader.getColumnNameTxn(partitionTimestamp, writerIndex);
+            final long lo = Math.max(0, startRow - columnTop);
+            final long hi = rows - columnTop;
+
+            if (ColumnType.isVariableLength(type)) {
+                TableUtils.iFile(path.trimTo(plen), columnName, columnNameTxn);
+                final long dataLo = TableUtils.readLongAtOffset(ff, path, tempMem8b, lo * Long.BYTES);
+                final long dataHi = TableUtils.readLongAtOffset(ff, path, tempMem8b, hi * Long.BYTES);
+                sendFileRange(channel, lo * Long.BYTES, (hi - lo + 1) * Long.BYTES);
+                TableUtils.dFile(path.trimTo(plen), columnName, columnNameTxn);
+                sendFileRange(channel, dataLo, dataHi - dataLo);
+            } else {
+                final int shl = ColumnType.pow2SizeOf(type);
+                TableUtils.dFile(path.trimTo(plen), columnName, columnNameTxn);
+                sendFileRange(channel, lo << shl, (hi - lo) << shl);
+            }
+
+            if (metadata.isColumnIndexed(i) && !sendIndex(channel, plen, columnName, columnNameTxn)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean sendSymbolMaps(ReplicationChannel channel, TableReader reader, boolean metaChanged) {
+        setRootFile();
+        final TableReaderMetadata metadata = reader.getMetadata();
+        final TxReader txFile = reader.getTxFile();
+        final TxReader slaveTxReader = modelBuilder.getSlaveTxReader();
+        int symbolIndex = 0;
+        for (int i = 0, n = metadata.getColumnCount(); i < n; i++) {
+            if (!ColumnType.isSymbol(metadata.getColumnType(i))) {
+                continue;
+            }
+            final CharSequence columnName = metadata.getColumnName(i);
+            final long columnNameTxn = reader.getColumnVersionReader().getDefaultColumnNameTxn(metadata.getWriterIndex(i));
+            final int ourCount = txFile.getSymbolValueCount(symbolIndex);
+            // symbol columns can only be appended to the end of the table, when metadata has
+            // changed dense symbol indexes on replica may not match ours, resend whole map
+            final int theirCount = !metaChanged && symbolIndex < slaveTxReader.getSymbolColumnCount()
+                    ? Math.min(slaveTxReader.getSymbolValueCount(symbolIndex), ourCount) : 0;
+            symbolIndex++;
+
+            // header carries "null value" flag, which can change without adding symbols
+            TableUtils.offsetFileName(path.trimTo(tableRootLen), columnName, columnNameTxn);
+            sendFileRange(channel, 0, SymbolMapWriter.HEADER_SIZE);
+            if (ourCount == theirCount) {
+                continue;
+            }
+
+            final long offsetLo = SymbolMapWriter.keyToOffset(theirCount);
+            final long offsetHi = SymbolMapWriter.keyToOffset(ourCount) + Long.BYTES;
+            final long charLo = TableUtils.readLongAtOffset(ff, path, tempMem8b, offsetLo);
+            final long charHi = TableUtils.readLongAtOffset(ff, path, tempMem8b, offsetHi - Long.BYTES);
+            sendFileRange(channel, offsetLo, offsetHi - offsetLo);
+
+            TableUtils.charFileName(path.trimTo(tableRootLen), columnName, columnNameTxn);
+            sendFileRange(channel, charLo, charHi - charLo);
+
+            if (!sendIndex(channel, tableRootLen, columnName, columnNameTxn)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void setRootFile() {
+        fileInPartition = false;
+        filePartitionTimestamp = 0;
+        filePartitionNameTxn = -1;
+        fileNameLo = tableRootLen + 1;
+    }
+}
@@ -104,10 +104,17 @@ public abstract class AbstractTextLexer implements Closeable, Mutable {
 
     public void parseExactLines(long lo, long hi) {
         this.fieldHi = this.fieldLo = lo;
+        final long delimiterWord = SwarUtils.broadcast(getDelimiter());
         long ptr = lo;
 
         try {
             while (ptr < hi) {
+                if (!eol && !delayedOutQuote) {
+                    ptr = skipPlainBytes(ptr, hi, delimiterWord);
+                    if (ptr == hi) {
+                        break;
+                    }
+                }
                 final byte c = Unsafe.getUnsafe().getByte(ptr++);
                 this.fieldHi++;
                 if (delayedOutQuote && c != '"') {
@@ -203,6 +210,8 @@ public abstract class AbstractTextLexer implements Closeable, Mutable {
 
     protected abstract void doSwitch(long lo, long hi, byte c) throws LineLimitException;
 
+    protected abstract byte getDelimiter();
+
     private void eol(long ptr, byte c) {
         if (c == '\n' || c == '\r') {
             eol = true;
@@ -327,10 +336,17 @@ public abstract class AbstractTextLexer implements Closeable, Mutable {
     }
 
     private void parse0(long lo, long hi) {
+        final long delimiterWord = SwarUtils.broadcast(getDelimiter());
         long ptr = lo;
 
         try {
             while (ptr < hi) {
+                if (!useLineRollBuf && !rollBufferUnusable && !eol && !delayedOutQuote) {
+                    ptr = skipPlainBytes(ptr, hi, delimiterWord);
+                    if (ptr == hi) {
+                        break;
+                    }
+                }
                 final byte c = Unsafe.getUnsafe().getByte(ptr++);
 
                 if (checkState(ptr, c)) {
@@ -388,6 +404,15 @@ public abstract class AbstractTextLexer implements Closeable, Mutable {
         }
     }
 
+    // Bytes other than delimiter, quote and line end only extend the current field
+    // when the lexer is mid-line and not writing to the roll buffer, so they can be
+    // skipped in bulk instead of going through the per-byte state machine.
+    private long skipPlainBytes(long ptr, long hi, long delimiterWord) {
+        final long next = TextUtil.findStructuralByte(ptr, hi, delimiterWord);
+        this.fieldHi += next - ptr;
+        return next;
+    }
+
     private void stashField(int fieldIndex) {
         if (lineCount == 0 && fieldIndex >= fieldMax) {
             addField();
@@ -488,9 +488,19 @@ public class CsvFileIndexer implements Closeable, Mutable {
 
     private void parse(long lo, long hi) {
         this.fieldHi = useFieldRollBuf ? fieldRollBufCur : (this.fieldLo = lo);
+        final long delimiterWord = SwarUtils.broadcast(columnDelimiter);
         long ptr = lo;
 
         while (ptr < hi) {
+            if (!useFieldRollBuf && !rollBufferUnusable && !eol && !delayedOutQuote) {
+                // skip field content in bulk, only structural bytes can change parser state
+                final long next = TextUtil.findStructuralByte(ptr, hi, delimiterWord);
+                this.fieldHi += next - ptr;
+                ptr = next;
+                if (ptr == hi) {
+                    break;
+                }
+            }
             final byte c = Unsafe.getUnsafe().getByte(ptr++);
 
             if (rollBufferUnusable) {
@@ -46,5 +46,10 @@ public class CsvTextLexer extends AbstractTextLexer {
                 break;
         }
     }
+
+    @Override
+    protected byte getDelimiter() {
+        return ',';
+    }
 }
 
@@ -28,6 +28,7 @@ import io.questdb.cairo.CairoError;
 import io.questdb.cutlass.json.JsonException;
 import io.questdb.cutlass.json.JsonLexer;
 import io.questdb.cutlass.text.types.InputFormatConfiguration;
+import io.questdb.std.Numbers;
 import io.questdb.std.datetime.DateLocale;
 import io.questdb.std.datetime.DateLocaleFactory;
 import io.questdb.std.datetime.microtime.TimestampFormatFactory;
@@ -120,6 +121,11 @@ public class DefaultTextConfiguration implements TextConfiguration {
         return 4096;
     }
 
+    @Override
+    public long getParallelImportThreshold() {
+        return 128 * Numbers.SIZE_1MB;
+    }
+
     @Override
     public InputFormatConfiguration getInputFormatConfiguration() {
         return inputFormatConfiguration;
@@ -46,5 +46,10 @@ public class GenericTextLexer extends AbstractTextLexer {
             checkEol(lo);
         }
     }
+
+    @Override
+    protected byte getDelimiter() {
+        return delimiter;
+    }
 }
 
@@ -53,6 +53,17 @@ public interface TextConfiguration {
 
     int getUtf8SinkSize();
 
+    /**
+     * Minimum size of an HTTP upload, in bytes, for it to be imported with the parallel
+     * importer rather than row by row. The upload is spooled to the copy input root first,
+     * so it only applies when that root is configured. The import is queued the same way as
+     * COPY and the request returns its id rather than the import summary. Zero disables
+     * parallel HTTP import.
+     *
+     * @return size threshold in bytes
+     */
+    long getParallelImportThreshold();
+
     InputFormatConfiguration getInputFormatConfiguration();
 
     DateLocale getDefaultDateLocale();
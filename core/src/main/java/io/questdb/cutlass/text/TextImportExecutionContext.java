@@ -35,7 +35,7 @@ public class TextImportExecutionContext {
 
     private final AtomicBooleanCircuitBreaker circuitBreaker = new AtomicBooleanCircuitBreaker();
     private final AtomicLong activeImportId = new AtomicLong(INACTIVE);
-    // Important assumption: We never access the rnd concurrently, so no need for additional synchronization.
+    // rnd is not thread-safe, it is only used by synchronized id assignment
     private final Rnd rnd;
 
     public TextImportExecutionContext(CairoConfiguration configuration) {
@@ -55,7 +55,20 @@ public class TextImportExecutionContext {
         activeImportId.set(INACTIVE);
     }
 
-    public long assignActiveImportId() {
+    /**
+     * Assigns new import id only when no other import is in progress. COPY and HTTP import
+     * may start concurrently, both must take the id through this method.
+     *
+     * @return assigned import id or INACTIVE when another import is active
+     */
+    public synchronized long tryAssignActiveImportId() {
+        if (activeImportId.get() != INACTIVE) {
+            return INACTIVE;
+        }
+        return assignActiveImportId();
+    }
+
+    private long assignActiveImportId() {
         long nextId = rnd.nextPositiveLong();
         activeImportId.set(nextId);
         return nextId;
@@ -35,6 +35,7 @@ import io.questdb.log.LogFactory;
 import io.questdb.mp.RingQueue;
 import io.questdb.mp.Sequence;
 import io.questdb.mp.SynchronizedJob;
+import io.questdb.std.FilesFacade;
 import io.questdb.std.LongList;
 import io.questdb.std.Misc;
 import io.questdb.std.Numbers;
@@ -68,6 +69,8 @@ public class TextImportRequestJob extends SynchronizedJob implements Closeable {
     private Path path;
     private ParallelCsvFileImporter parallelImporter;
     private final CairoEngine engine;
+    private final FilesFacade ff;
+    private final CharSequence inputRoot;
     private SerialCsvFileImporter serialImporter;
 
     public TextImportRequestJob(
@@ -107,6 +110,8 @@ public class TextImportRequestJob extends SynchronizedJob implements Closeable {
         this.textImportExecutionContext = engine.getTextImportExecutionContext();
         this.path = new Path();
         this.engine = engine;
+        this.ff = configuration.getFilesFacade();
+        this.inputRoot = configuration.getSqlCopyInputRoot();
         enforceLogRetention();
     }
 
@@ -194,6 +199,9 @@ public class TextImportRequestJob extends SynchronizedJob implements Closeable {
                         0
                 );
             } finally {
+                if (task.isRemoveFile()) {
+                    removeInputFile();
+                }
                 requestSubSeq.done(cursor);
                 textImportExecutionContext.resetActiveImportId();
             }
@@ -203,6 +211,13 @@ public class TextImportRequestJob extends SynchronizedJob implements Closeable {
         return false;
     }
 
+    private void removeInputFile() {
+        path.of(inputRoot).concat(task.getFileName()).$();
+        if (!ff.remove(path)) {
+            LOG.error().$("could not remove import input file [path=").$(path).$(", errno=").$(ff.errno()).I$();
+        }
+    }
+
     private void updateStatus(
             byte phase,
             byte status,
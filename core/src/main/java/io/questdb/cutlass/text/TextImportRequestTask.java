@@ -36,6 +36,7 @@ public class TextImportRequestTask implements Mutable {
     private String timestampFormat;
     private int partitionBy;
     private int atomicity;
+    private boolean removeFile;
 
     public void of(long importId,
                    String tableName,
@@ -45,7 +46,8 @@ public class TextImportRequestTask implements Mutable {
                    byte delimiter,
                    String timestampFormat,
                    int partitionBy,
-                   int atomicity
+                   int atomicity,
+                   boolean removeFile
     ) {
         this.clear();
         this.importId = importId;
@@ -57,6 +59,7 @@ public class TextImportRequestTask implements Mutable {
         this.timestampFormat = timestampFormat;
         this.partitionBy = partitionBy;
         this.atomicity = atomicity;
+        this.removeFile = removeFile;
     }
 
     @Override
@@ -70,6 +73,7 @@ public class TextImportRequestTask implements Mutable {
         this.timestampFormat = null;
         this.partitionBy = -1;
         this.atomicity = -1;
+        this.removeFile = false;
     }
 
     public long getImportId() {
@@ -107,4 +111,11 @@ public class TextImportRequestTask implements Mutable {
     public int getAtomicity() {
         return atomicity;
     }
+
+    /**
+     * Input file is a temporary copy, such as spooled HTTP upload, and is removed once the import is done.
+     */
+    public boolean isRemoveFile() {
+        return removeFile;
+    }
 }
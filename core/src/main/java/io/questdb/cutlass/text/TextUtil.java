@@ -25,10 +25,49 @@
 package io.questdb.cutlass.text;
 
 import io.questdb.std.Chars;
+import io.questdb.std.SwarUtils;
 import io.questdb.std.Unsafe;
 import io.questdb.std.str.CharSink;
 
 public class TextUtil {
+    private static final long CR_WORD = SwarUtils.broadcast((byte) '\r');
+    private static final long LF_WORD = SwarUtils.broadcast((byte) '\n');
+    private static final long QUOTE_WORD = SwarUtils.broadcast((byte) '"');
+
+    /**
+     * Finds the first byte in [lo, hi) that can change lexer state, e.g. column delimiter,
+     * double quote or line end. Scans eight bytes at a time.
+     *
+     * @param lo            address of the first byte to scan
+     * @param hi            address past the last byte to scan
+     * @param delimiterWord column delimiter broadcast to all bytes via {@link SwarUtils#broadcast(byte)}
+     * @return address of the first structural byte or hi if there is none
+     */
+    public static long findStructuralByte(long lo, long hi, long delimiterWord) {
+        long p = lo;
+        while (p < hi - 7) {
+            final long w = Unsafe.getUnsafe().getLong(p);
+            final long mask = SwarUtils.markZeroBytes(w ^ delimiterWord)
+                    | SwarUtils.markZeroBytes(w ^ QUOTE_WORD)
+                    | SwarUtils.markZeroBytes(w ^ LF_WORD)
+                    | SwarUtils.markZeroBytes(w ^ CR_WORD);
+            if (mask != 0) {
+                return p + SwarUtils.indexOfFirstMarkedByte(mask);
+            }
+            p += 8;
+        }
+
+        final byte delimiter = (byte) delimiterWord;
+        while (p < hi) {
+            final byte c = Unsafe.getUnsafe().getByte(p);
+            if (c == delimiter || c == '"' || c == '\n' || c == '\r') {
+                break;
+            }
+            p++;
+        }
+        return p;
+    }
+
     public static void utf8Decode(long lo, long hi, CharSink sink) throws Utf8Exception {
         long p = lo;
         while (p < hi) {
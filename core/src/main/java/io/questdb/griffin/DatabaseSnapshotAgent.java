@@ -34,23 +34,42 @@ import io.questdb.log.Log;
 import io.questdb.log.LogFactory;
 import io.questdb.std.*;
 import io.questdb.std.str.Path;
+import io.questdb.std.str.StringSink;
 import org.jetbrains.annotations.TestOnly;
 
 import java.io.Closeable;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Condition;
 import java.util.concurrent.locks.ReentrantLock;
 
 public class DatabaseSnapshotAgent implements Closeable {
 
     private final static Log LOG = LogFactory.getLog(DatabaseSnapshotAgent.class);
+    // Partition manifest entry: timestamp, name txn, size, column version.
+    private static final int MANIFEST_ENTRY_SIZE = 4;
+    private static final long MANIFEST_HEADER_SIZE = 3 * Long.BYTES;
 
     private final CairoEngine engine;
     private final CairoConfiguration configuration;
     private final FilesFacade ff;
     private final ReentrantLock lock = new ReentrantLock(); // protects below fields
+    // Signalled when copying of table data started by SNAPSHOT PREPARE is finished.
+    private final Condition copyFinished = lock.newCondition();
     private final Path path = new Path();
+    private final Path copyPath = new Path();
     // List of readers kept around to lock partitions while a database snapshot is being made.
     private final ObjList<TableReader> snapshotReaders = new ObjList<>();
+    // Used by incremental snapshots to compare partition state with the previous snapshot.
+    private final LongList prevPartitions = new LongList();
+    private final LongList currPartitions = new LongList();
+    // Partition timestamp to entry offset in prevPartitions.
+    private final LongIntHashMap prevPartitionIndex = new LongIntHashMap();
+    private final CharSequenceHashSet snapshotTableNames = new CharSequenceHashSet();
+    private final StringSink fileNameSink = new StringSink();
+    private final FindVisitor removeSnapshotPartitionDirFunc = this::removeSnapshotPartitionDir;
+    // Set while SNAPSHOT PREPARE copies table data outside the lock, the copying thread
+    // then owns the readers and the paths.
+    private boolean copyInProgress;
 
     public DatabaseSnapshotAgent(CairoEngine engine) {
         this.engine = engine;
@@ -62,7 +81,9 @@ public class DatabaseSnapshotAgent implements Closeable {
     public void close() {
         lock.lock();
         try {
+            awaitCopyFinished();
             Misc.free(path);
+            Misc.free(copyPath);
             unsafeReleaseReaders();
         } finally {
             lock.unlock();
@@ -73,12 +94,20 @@ public class DatabaseSnapshotAgent implements Closeable {
     public void clear() {
         lock.lock();
         try {
+            awaitCopyFinished();
             unsafeReleaseReaders();
         } finally {
             lock.unlock();
         }
     }
 
+    private void awaitCopyFinished() {
+        // paths and readers are in use by the copying thread
+        while (copyInProgress) {
+            copyFinished.awaitUninterruptibly();
+        }
+    }
+
     private void unsafeReleaseReaders() {
         Misc.freeObjList(snapshotReaders);
         snapshotReaders.clear();
@@ -217,14 +246,21 @@ public class DatabaseSnapshotAgent implements Closeable {
             throw SqlException.position(0).put("Another snapshot command in progress");
         }
         try {
+            if (copyInProgress) {
+                throw SqlException.position(0).put("Waiting for SNAPSHOT PREPARE to finish copying");
+            }
+
             if (snapshotReaders.size() == 0) {
                 LOG.info().$("Snapshot has no tables, SNAPSHOT COMPLETE is ignored.").$();
                 return;
             }
 
-            // Delete snapshot/db directory.
-            path.of(configuration.getSnapshotRoot()).concat(configuration.getDbDirectory()).$();
-            ff.rmdir(path); // it's fine to ignore errors here
+            // Delete snapshot/db directory. Incremental snapshots keep it around,
+            // so that the next SNAPSHOT PREPARE copies changed partitions only.
+            if (!configuration.isSnapshotIncrementalEnabled()) {
+                path.of(configuration.getSnapshotRoot()).concat(configuration.getDbDirectory()).$();
+                ff.rmdir(path); // it's fine to ignore errors here
+            }
 
             // Release locked readers if any.
             unsafeReleaseReaders();
@@ -242,18 +278,31 @@ public class DatabaseSnapshotAgent implements Closeable {
         if (!lock.tryLock()) {
             throw SqlException.position(0).put("Another snapshot command in progress");
         }
+        final boolean incremental = configuration.isSnapshotIncrementalEnabled();
         try {
+            if (copyInProgress) {
+                throw SqlException.position(0).put("Another snapshot command in progress");
+            }
             if (snapshotReaders.size() > 0) {
                 throw SqlException.position(0).put("Waiting for SNAPSHOT COMPLETE to be called");
             }
 
             path.of(configuration.getSnapshotRoot()).concat(configuration.getDbDirectory());
             int snapshotLen = path.length();
-            // Delete all contents of the snapshot/db dir.
             if (ff.exists(path.slash$())) {
-                path.trimTo(snapshotLen).$();
-                if (ff.rmdir(path) != 0) {
-                    throw CairoException.critical(ff.errno()).put("Could not remove snapshot dir [dir=").put(path).put(']');
+                if (incremental) {
+                    // Keep partitions copied by the previous snapshot, but invalidate the snapshot
+                    // until it is brought up to date.
+                    path.trimTo(snapshotLen).concat(TableUtils.SNAPSHOT_META_FILE_NAME).$();
+                    if (ff.exists(path) && !ff.remove(path)) {
+                        throw CairoException.critical(ff.errno()).put("Could not remove snapshot metadata [file=").put(path).put(']');
+                    }
+                } else {
+                    // Delete all contents of the snapshot/db dir.
+                    path.trimTo(snapshotLen).$();
+                    if (ff.rmdir(path) != 0) {
+                        throw CairoException.critical(ff.errno()).put("Could not remove snapshot dir [dir=").put(path).put(']');
+                    }
                 }
             }
             // Recreate the snapshot/db dir.
@@ -269,6 +318,7 @@ public class DatabaseSnapshotAgent implements Closeable {
                 try (RecordCursor cursor = factory.getCursor(executionContext)) {
                     final Record record = cursor.getRecord();
                     try (MemoryCMARW mem = Vm.getCMARWInstance()) {
+                        snapshotTableNames.clear();
                         // Copy metadata files for all tables.
 
                         while (cursor.hasNext()) {
@@ -290,36 +340,31 @@ public class DatabaseSnapshotAgent implements Closeable {
 
                                 int rootLen = path.length();
                                 // Copy _meta file.
-                                path.trimTo(rootLen).concat(TableUtils.META_FILE_NAME).$();
-                                mem.smallFile(ff, path, MemoryTag.MMAP_DEFAULT);
+                                openSnapshotFile(mem, rootLen, TableUtils.META_FILE_NAME);
                                 reader.getMetadata().dumpTo(mem);
                                 mem.close(false);
                                 // Copy _txn file.
-                                path.trimTo(rootLen).concat(TableUtils.TXN_FILE_NAME).$();
-                                mem.smallFile(ff, path, MemoryTag.MMAP_DEFAULT);
+                                openSnapshotFile(mem, rootLen, TableUtils.TXN_FILE_NAME);
                                 reader.getTxFile().dumpTo(mem);
                                 mem.close(false);
                                 // Copy _cv file.
-                                path.trimTo(rootLen).concat(TableUtils.COLUMN_VERSION_FILE_NAME).$();
-                                mem.smallFile(ff, path, MemoryTag.MMAP_DEFAULT);
+                                openSnapshotFile(mem, rootLen, TableUtils.COLUMN_VERSION_FILE_NAME);
                                 reader.getColumnVersionReader().dumpTo(mem);
                                 mem.close(false);
+
+                                if (incremental) {
+                                    snapshotTableNames.add(Chars.toString(tableName));
+                                }
                             } else {
                                 LOG.error().$("skipping, invalid table name or missing metadata [table=").$(tableName).I$();
                             }
                         }
 
-                        path.of(configuration.getSnapshotRoot()).concat(configuration.getDbDirectory()).concat(TableUtils.SNAPSHOT_META_FILE_NAME).$();
-                        mem.smallFile(ff, path, MemoryTag.MMAP_DEFAULT);
-                        mem.putStr(configuration.getSnapshotInstanceId());
-                        mem.close();
-
-                        // Flush dirty pages and filesystem metadata to disk
-                        if (ff.sync() != 0) {
-                            throw CairoException.critical(ff.errno()).put("Could not sync");
+                        if (incremental) {
+                            removeDroppedTables(snapshotLen);
+                        } else {
+                            finishSnapshot(mem);
                         }
-
-                        LOG.info().$("snapshot copying finished").$();
                     } catch (Throwable e) {
                         unsafeReleaseReaders();
                         LOG.error()
@@ -329,8 +374,261 @@ public class DatabaseSnapshotAgent implements Closeable {
                     }
                 }
             }
+            copyInProgress = incremental;
         } finally {
             lock.unlock();
         }
+
+        if (incremental) {
+            copySnapshotData();
+        }
+    }
+
+    private static boolean isSamePartition(LongList partitions, int index, LongList other, int otherIndex) {
+        return partitions.getQuick(index + 1) == other.getQuick(otherIndex + 1)
+                && partitions.getQuick(index + 2) == other.getQuick(otherIndex + 2)
+                && partitions.getQuick(index + 3) == other.getQuick(otherIndex + 3);
+    }
+
+    private void copyFile(Path src, Path dst) {
+        if (ff.exists(src) && ff.copy(src, dst) < 0) {
+            throw CairoException.critical(ff.errno()).put("Could not copy [from=").put(src).put(", to=").put(dst).put(']');
+        }
+    }
+
+    private void copyPartition(int tableRootLen, int snapshotTableLen, int partitionBy, long timestamp, long nameTxn) {
+        TableUtils.setPathForPartition(copyPath, tableRootLen, partitionBy, timestamp, nameTxn);
+        if (!ff.exists(copyPath.$())) {
+            // Empty partition, nothing to copy.
+            return;
+        }
+        TableUtils.setPathForPartition(path, snapshotTableLen, partitionBy, timestamp, nameTxn);
+        if (ff.exists(path.$()) && ff.rmdir(path) != 0) {
+            throw CairoException.critical(ff.errno()).put("Could not remove snapshot partition [dir=").put(path).put(']');
+        }
+
+        // Partitions are copied rather than hard linked: O3 appends to non-last partitions and
+        // index updates write existing files in place, which would change the snapshot too.
+        if (ff.copyRecursive(copyPath, path, configuration.getMkDirMode()) != 0) {
+            throw CairoException.critical(ff.errno()).put("Could not copy partition [from=").put(copyPath).put(", to=").put(path).put(']');
+        }
+    }
+
+    private void copyTableData(TableReader reader, CharSequence tableName, int snapshotTableLen, MemoryCMARW mem) {
+        final TxReader txFile = reader.getTxFile();
+        final TableReaderMetadata metadata = reader.getMetadata();
+        final int partitionBy = reader.getPartitionedBy();
+        final long tableId = metadata.getId();
+        final long truncateVersion = txFile.getTruncateVersion();
+
+        copyPath.of(configuration.getRoot()).concat(tableName);
+        final int tableRootLen = copyPath.length();
+
+        // Load partition manifest written by the previous snapshot. It is only valid
+        // for the same table instance and unless the table was truncated since.
+        prevPartitions.clear();
+        boolean manifestValid = false;
+        path.trimTo(snapshotTableLen).concat(TableUtils.SNAPSHOT_PARTITIONS_FILE_NAME).$();
+        if (ff.exists(path)) {
+            mem.smallFile(ff, path, MemoryTag.MMAP_DEFAULT);
+            final long size = mem.getAppendOffset();
+            if (size >= MANIFEST_HEADER_SIZE && mem.getLong(0) == tableId && mem.getLong(Long.BYTES) == truncateVersion) {
+                final long count = mem.getLong(2 * Long.BYTES) * MANIFEST_ENTRY_SIZE;
+                if (MANIFEST_HEADER_SIZE + count * Long.BYTES <= size) {
+                    for (long i = 0; i < count; i++) {
+                        prevPartitions.add(mem.getLong(MANIFEST_HEADER_SIZE + i * Long.BYTES));
+                    }
+                    manifestValid = true;
+                }
+            }
+            mem.close(false);
+            path.trimTo(snapshotTableLen).concat(TableUtils.SNAPSHOT_PARTITIONS_FILE_NAME).$();
+            if (!ff.remove(path)) {
+                throw CairoException.critical(ff.errno()).put("Could not remove [file=").put(path).put(']');
+            }
+        }
+        if (!manifestValid) {
+            // Previous snapshot of this table, if any, cannot be reused.
+            path.trimTo(snapshotTableLen).$();
+            ff.iterateDir(path, removeSnapshotPartitionDirFunc);
+        }
+
+        currPartitions.clear();
+        final int partitionCount = txFile.getPartitionCount();
+        final int lastPartition = partitionCount - 1;
+        for (int i = 0; i < partitionCount; i++) {
+            // partition table is not updated on in-order appends to the last partition
+            currPartitions.add(
+                    txFile.getPartitionTimestamp(i),
+                    txFile.getPartitionNameTxn(i),
+                    i < lastPartition ? txFile.getPartitionSize(i) : txFile.getTransientRowCount(),
+                    i < lastPartition ? txFile.getPartitionColumnVersion(i) : txFile.getColumnVersion()
+            );
+        }
+
+        prevPartitionIndex.clear();
+        for (int i = 0, n = prevPartitions.size(); i < n; i += MANIFEST_ENTRY_SIZE) {
+            prevPartitionIndex.put(prevPartitions.getQuick(i), i);
+        }
+
+        // Copy new and modified partitions, matched entries are taken out of the index.
+        int copiedCount = 0;
+        for (int i = 0, n = currPartitions.size(); i < n; i += MANIFEST_ENTRY_SIZE) {
+            final long timestamp = currPartitions.getQuick(i);
+            final int keyIndex = prevPartitionIndex.keyIndex(timestamp);
+            if (keyIndex < 0) {
+                final int prevIndex = prevPartitionIndex.valueAt(keyIndex);
+                prevPartitionIndex.removeAt(keyIndex);
+                if (isSamePartition(prevPartitions, prevIndex, currPartitions, i)) {
+                    continue;
+                }
+                removeSnapshotPartition(snapshotTableLen, partitionBy, timestamp, prevPartitions.getQuick(prevIndex + 1));
+            }
+            copyPartition(tableRootLen, snapshotTableLen, partitionBy, timestamp, currPartitions.getQuick(i + 1));
+            copiedCount++;
+        }
+
+        // Partitions left in the index have been dropped since the previous snapshot.
+        for (int i = 0, n = prevPartitions.size(); i < n; i += MANIFEST_ENTRY_SIZE) {
+            final long timestamp = prevPartitions.getQuick(i);
+            if (prevPartitionIndex.keyIndex(timestamp) < 0) {
+                removeSnapshotPartition(snapshotTableLen, partitionBy, timestamp, prevPartitions.getQuick(i + 1));
+            }
+        }
+
+        // Symbol map files are appended to, so they are always copied.
+        final ColumnVersionReader columnVersionReader = reader.getColumnVersionReader();
+        for (int i = 0, n = metadata.getColumnCount(); i < n; i++) {
+            if (ColumnType.isSymbol(metadata.getColumnType(i))) {
+                final CharSequence columnName = metadata.getColumnName(i);
+                final long columnNameTxn = columnVersionReader.getDefaultColumnNameTxn(metadata.getWriterIndex(i));
+                copyFile(
+                        TableUtils.offsetFileName(copyPath.trimTo(tableRootLen), columnName, columnNameTxn),
+                        TableUtils.offsetFileName(path.trimTo(snapshotTableLen), columnName, columnNameTxn)
+                );
+                copyFile(
+                        TableUtils.charFileName(copyPath.trimTo(tableRootLen), columnName, columnNameTxn),
+                        TableUtils.charFileName(path.trimTo(snapshotTableLen), columnName, columnNameTxn)
+                );
+                copyFile(
+                        BitmapIndexUtils.keyFileName(copyPath.trimTo(tableRootLen), columnName, columnNameTxn),
+                        BitmapIndexUtils.keyFileName(path.trimTo(snapshotTableLen), columnName, columnNameTxn)
+                );
+                copyFile(
+                        BitmapIndexUtils.valueFileName(copyPath.trimTo(tableRootLen), columnName, columnNameTxn),
+                        BitmapIndexUtils.valueFileName(path.trimTo(snapshotTableLen), columnName, columnNameTxn)
+                );
+            }
+        }
+
+        // Write partition manifest for the next snapshot.
+        path.trimTo(snapshotTableLen).concat(TableUtils.SNAPSHOT_PARTITIONS_FILE_NAME).$();
+        mem.smallFile(ff, path, MemoryTag.MMAP_DEFAULT);
+        mem.putLong(tableId);
+        mem.putLong(truncateVersion);
+        mem.putLong(partitionCount);
+        for (int i = 0, n = currPartitions.size(); i < n; i++) {
+            mem.putLong(currPartitions.getQuick(i));
+        }
+        mem.close(false);
+
+        LOG.info().$("copied table data [table=").$(tableName)
+                .$(", partitionCount=").$(partitionCount)
+                .$(", copiedCount=").$(copiedCount)
+                .I$();
+    }
+
+    private void copySnapshotData() {
+        try {
+            try (MemoryCMARW mem = Vm.getCMARWInstance()) {
+                // Readers keep partition versions they reference from being purged, so the copy
+                // is consistent with _txn files written under the lock.
+                path.of(configuration.getSnapshotRoot()).concat(configuration.getDbDirectory());
+                final int snapshotLen = path.length();
+                for (int i = 0, n = snapshotReaders.size(); i < n; i++) {
+                    final TableReader reader = snapshotReaders.getQuick(i);
+                    final CharSequence tableName = reader.getTableName();
+                    path.trimTo(snapshotLen).concat(tableName);
+                    copyTableData(reader, tableName, path.length(), mem);
+                }
+                finishSnapshot(mem);
+            }
+        } catch (Throwable e) {
+            LOG.error()
+                    .$("snapshot error [e=").$(e)
+                    .I$();
+            lock.lock();
+            try {
+                unsafeReleaseReaders();
+            } finally {
+                copyInProgress = false;
+                copyFinished.signalAll();
+                lock.unlock();
+            }
+            throw e;
+        }
+
+        lock.lock();
+        try {
+            copyInProgress = false;
+            copyFinished.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void finishSnapshot(MemoryCMARW mem) {
+        path.of(configuration.getSnapshotRoot()).concat(configuration.getDbDirectory()).concat(TableUtils.SNAPSHOT_META_FILE_NAME).$();
+        mem.smallFile(ff, path, MemoryTag.MMAP_DEFAULT);
+        mem.putStr(configuration.getSnapshotInstanceId());
+        mem.close();
+
+        // Flush dirty pages and filesystem metadata to disk
+        if (ff.sync() != 0) {
+            throw CairoException.critical(ff.errno()).put("Could not sync");
+        }
+
+        LOG.info().$("snapshot copying finished").$();
+    }
+
+    private void openSnapshotFile(MemoryCMARW mem, int rootLen, CharSequence fileName) {
+        path.trimTo(rootLen).concat(fileName).$();
+        // Incremental snapshots keep files from the previous run, make sure
+        // that we do not append to them.
+        if (ff.exists(path) && !ff.remove(path)) {
+            throw CairoException.critical(ff.errno()).put("Could not remove [file=").put(path).put(']');
+        }
+        mem.smallFile(ff, path, MemoryTag.MMAP_DEFAULT);
+    }
+
+    private void removeDroppedTables(int snapshotLen) {
+        path.trimTo(snapshotLen).$();
+        ff.iterateDir(path, (pUtf8NameZ, type) -> {
+            if (Files.isDir(pUtf8NameZ, type, fileNameSink) && !snapshotTableNames.contains(fileNameSink)) {
+                path.trimTo(snapshotLen).concat(fileNameSink).$();
+                LOG.info().$("removing dropped table from snapshot [dir=").$(path).I$();
+                if (ff.rmdir(path) != 0) {
+                    throw CairoException.critical(ff.errno()).put("Could not remove [dir=").put(path).put(']');
+                }
+            }
+        });
+    }
+
+    private void removeSnapshotPartition(int snapshotTableLen, int partitionBy, long timestamp, long nameTxn) {
+        TableUtils.setPathForPartition(path, snapshotTableLen, partitionBy, timestamp, nameTxn);
+        if (ff.exists(path.$()) && ff.rmdir(path) != 0) {
+            throw CairoException.critical(ff.errno()).put("Could not remove snapshot partition [dir=").put(path).put(']');
+        }
+    }
+
+    private void removeSnapshotPartitionDir(long pUtf8NameZ, int type) {
+        if (Files.isDir(pUtf8NameZ, type)) {
+            final int len = path.length();
+            path.trimTo(len).concat(pUtf8NameZ).$();
+            if (ff.rmdir(path) != 0) {
+                throw CairoException.critical(ff.errno()).put("Could not remove [dir=").put(path).put(']');
+            }
+            path.trimTo(len);
+        }
     }
 }
@@ -0,0 +1,226 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin;
+
+import io.questdb.cairo.CairoException;
+import io.questdb.cairo.TableReader;
+import io.questdb.cairo.TableUtils;
+import io.questdb.cairo.TxReader;
+import io.questdb.cairo.vm.Vm;
+import io.questdb.cairo.vm.api.MemoryMARW;
+import io.questdb.std.*;
+import io.questdb.std.str.Path;
+
+/**
+ * Definition and refresh state of a materialized SAMPLE BY view. Both are kept in the
+ * {@link TableUtils#MAT_VIEW_FILE_NAME} file in the view's table directory.
+ * <p>
+ * Refresh state is the partition table of the base table as of the last refresh. It is
+ * compared with the current one to find the lowest timestamp that changed since, so that
+ * only buckets from that timestamp onwards are aggregated again.
+ */
+class MatViewDefinition implements Mutable {
+    // Partition entry: timestamp, name txn, size, column version.
+    private static final int PARTITION_ENTRY_SIZE = 4;
+    private static final long FORMAT_VERSION = 1;
+    private static final String TMP_FILE_SUFFIX = ".tmp";
+    private final LongList partitions = new LongList();
+    private long baseMaxTimestamp = Long.MIN_VALUE;
+    private long baseTableId = -1;
+    private String baseTableName;
+    private String query;
+    private String sampleBy;
+
+    public static boolean exists(FilesFacade ff, Path path, CharSequence root, CharSequence viewName) {
+        return ff.exists(path.of(root).concat(viewName).concat(TableUtils.MAT_VIEW_FILE_NAME).$());
+    }
+
+    /**
+     * Remembers partition table of the base table, subsequent calls to {@link #getRefreshTimestamp(TableReader)}
+     * report changes made after this point.
+     *
+     * @param reader reader of the base table
+     */
+    public void captureState(TableReader reader) {
+        final TxReader txFile = reader.getTxFile();
+        baseTableId = reader.getMetadata().getId();
+        baseMaxTimestamp = txFile.getMaxTimestamp();
+        partitions.clear();
+        for (int i = 0, n = txFile.getPartitionCount(); i < n; i++) {
+            partitions.add(
+                    txFile.getPartitionTimestamp(i),
+                    txFile.getPartitionNameTxn(i),
+                    getPartitionSize(txFile, i, n),
+                    txFile.getPartitionColumnVersion(i)
+            );
+        }
+    }
+
+    @Override
+    public void clear() {
+        partitions.clear();
+        baseMaxTimestamp = Long.MIN_VALUE;
+        baseTableId = -1;
+        baseTableName = null;
+        query = null;
+        sampleBy = null;
+    }
+
+    public String getBaseTableName() {
+        return baseTableName;
+    }
+
+    public String getQuery() {
+        return query;
+    }
+
+    /**
+     * Finds the lowest timestamp of base table data that was added or rewritten since the captured
+     * state. Partitions appended to in place only changed after their previous max timestamp, which
+     * is known for the last partition only. Partitions removed from the base table are ignored, so
+     * the view keeps aggregates of data dropped from the base table.
+     *
+     * @param reader reader of the base table
+     * @return lowest changed timestamp, Long.MIN_VALUE when the view has to be rebuilt or
+     * Long.MAX_VALUE when nothing changed
+     */
+    public long getRefreshTimestamp(TableReader reader) {
+        if (reader.getMetadata().getId() != baseTableId) {
+            return Long.MIN_VALUE;
+        }
+
+        final TxReader txFile = reader.getTxFile();
+        final int lastIndex = partitions.size() - PARTITION_ENTRY_SIZE;
+        long lo = Long.MAX_VALUE;
+        for (int i = 0, n = txFile.getPartitionCount(); i < n; i++) {
+            final long timestamp = txFile.getPartitionTimestamp(i);
+            final int index = findPartition(timestamp);
+            if (index < 0) {
+                lo = Math.min(lo, timestamp);
+                continue;
+            }
+
+            final long size = getPartitionSize(txFile, i, n);
+            if (txFile.getPartitionNameTxn(i) == partitions.getQuick(index + 1)
+                    && txFile.getPartitionColumnVersion(i) == partitions.getQuick(index + 3)) {
+                final long prevSize = partitions.getQuick(index + 2);
+                if (size == prevSize) {
+                    continue;
+                }
+                if (size > prevSize && index == lastIndex) {
+                    lo = Math.min(lo, Math.max(timestamp, baseMaxTimestamp));
+                    continue;
+                }
+            }
+            lo = Math.min(lo, timestamp);
+        }
+        return lo;
+    }
+
+    public String getSampleBy() {
+        return sampleBy;
+    }
+
+    public MatViewDefinition of(String baseTableName, String sampleBy, String query) {
+        clear();
+        this.baseTableName = baseTableName;
+        this.sampleBy = sampleBy;
+        this.query = query;
+        return this;
+    }
+
+    public void readFrom(FilesFacade ff, Path path, CharSequence root, CharSequence viewName, MemoryMARW mem) {
+        clear();
+        path.of(root).concat(viewName).concat(TableUtils.MAT_VIEW_FILE_NAME).$();
+        mem.smallFile(ff, path, MemoryTag.MMAP_DEFAULT);
+        try {
+            if (mem.getLong(0) != FORMAT_VERSION) {
+                throw CairoException.critical(0).put("unsupported materialized view file version [path=").put(path)
+                        .put(", version=").put(mem.getLong(0)).put(']');
+            }
+            baseTableId = mem.getLong(Long.BYTES);
+            baseMaxTimestamp = mem.getLong(2 * Long.BYTES);
+            final long count = mem.getLong(3 * Long.BYTES) * PARTITION_ENTRY_SIZE;
+            long offset = 4 * Long.BYTES;
+            for (long i = 0; i < count; i++, offset += Long.BYTES) {
+                partitions.add(mem.getLong(offset));
+            }
+            baseTableName = Chars.toString(mem.getStr(offset));
+            offset += Vm.getStorageLength(baseTableName);
+            sampleBy = Chars.toString(mem.getStr(offset));
+            offset += Vm.getStorageLength(sampleBy);
+            query = Chars.toString(mem.getStr(offset));
+        } finally {
+            mem.close(false);
+        }
+    }
+
+    /**
+     * Writes the definition along with the refresh state. The file is written next to the
+     * old one and renamed over it, so that a crash does not leave a partially written state.
+     */
+    public void writeTo(FilesFacade ff, Path path, Path other, CharSequence root, CharSequence viewName, MemoryMARW mem) {
+        other.of(root).concat(viewName).concat(TableUtils.MAT_VIEW_FILE_NAME).put(TMP_FILE_SUFFIX).$();
+        if (ff.exists(other) && !ff.remove(other)) {
+            throw CairoException.critical(ff.errno()).put("could not remove [file=").put(other).put(']');
+        }
+        mem.smallFile(ff, other, MemoryTag.MMAP_DEFAULT);
+        try {
+            mem.putLong(FORMAT_VERSION);
+            mem.putLong(baseTableId);
+            mem.putLong(baseMaxTimestamp);
+            mem.putLong(partitions.size() / PARTITION_ENTRY_SIZE);
+            for (int i = 0, n = partitions.size(); i < n; i++) {
+                mem.putLong(partitions.getQuick(i));
+            }
+            mem.putStr(baseTableName);
+            mem.putStr(sampleBy);
+            mem.putStr(query);
+        } finally {
+            mem.close(true);
+        }
+
+        path.of(root).concat(viewName).concat(TableUtils.MAT_VIEW_FILE_NAME).$();
+        if (ff.rename(other, path) != Files.FILES_RENAME_OK) {
+            throw CairoException.critical(ff.errno()).put("could not rename [from=").put(other).put(", to=").put(path).put(']');
+        }
+    }
+
+    // size of the last partition is not updated in the partition table on in-order commits
+    private static long getPartitionSize(TxReader txFile, int partitionIndex, int partitionCount) {
+        return partitionIndex == partitionCount - 1
+                ? txFile.getTransientRowCount()
+                : txFile.getPartitionSize(partitionIndex);
+    }
+
+    private int findPartition(long timestamp) {
+        for (int i = 0, n = partitions.size(); i < n; i += PARTITION_ENTRY_SIZE) {
+            if (partitions.getQuick(i) == timestamp) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
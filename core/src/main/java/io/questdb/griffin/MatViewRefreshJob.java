@@ -0,0 +1,240 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin;
+
+import io.questdb.cairo.*;
+import io.questdb.cairo.security.AllowAllCairoSecurityContext;
+import io.questdb.cairo.sql.Record;
+import io.questdb.cairo.sql.RecordCursor;
+import io.questdb.cairo.sql.RecordCursorFactory;
+import io.questdb.cairo.sql.RecordMetadata;
+import io.questdb.cairo.vm.Vm;
+import io.questdb.cairo.vm.api.MemoryMARW;
+import io.questdb.griffin.engine.groupby.TimestampSampler;
+import io.questdb.griffin.engine.groupby.TimestampSamplerFactory;
+import io.questdb.log.Log;
+import io.questdb.log.LogFactory;
+import io.questdb.mp.SynchronizedJob;
+import io.questdb.std.*;
+import io.questdb.std.datetime.microtime.TimestampFormatUtils;
+import io.questdb.std.datetime.millitime.MillisecondClock;
+import io.questdb.std.str.Path;
+import io.questdb.std.str.StringSink;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.Closeable;
+
+/**
+ * Keeps materialized SAMPLE BY views up to date with their base tables. Every refresh interval
+ * the job compares partition table of each base table with the one captured on previous refresh,
+ * drops view rows from the first affected sample bucket onwards and aggregates base table rows
+ * from that bucket again. Views are taken from {@link MatViewRegistry}, both steps are regular
+ * table writer transactions, so the view can be queried while it is being refreshed.
+ */
+public class MatViewRefreshJob extends SynchronizedJob implements Closeable {
+    private static final Log LOG = LogFactory.getLog(MatViewRefreshJob.class);
+    private final BytecodeAssembler asm = new BytecodeAssembler();
+    private final MillisecondClock clock;
+    private final CairoConfiguration configuration;
+    private final MatViewDefinition definition = new MatViewDefinition();
+    private final CairoEngine engine;
+    private final EntityColumnFilter entityColumnFilter = new EntityColumnFilter();
+    private final FilesFacade ff;
+    private final long refreshInterval;
+    private final StringSink sink = new StringSink();
+    private final ObjList<String> viewNames = new ObjList<>();
+    private final MatViewRegistry viewRegistry;
+    private SqlCompiler compiler;
+    private long lastRefreshTime = Long.MIN_VALUE;
+    private MemoryMARW mem;
+    private Path other;
+    private Path path;
+    private SqlExecutionContextImpl sqlExecutionContext;
+
+    public MatViewRefreshJob(CairoEngine engine, @Nullable FunctionFactoryCache functionFactoryCache) {
+        this.engine = engine;
+        this.configuration = engine.getConfiguration();
+        this.ff = configuration.getFilesFacade();
+        this.clock = configuration.getMillisecondClock();
+        this.refreshInterval = configuration.getMatViewRefreshInterval();
+        this.viewRegistry = engine.getMatViewRegistry();
+        this.compiler = new SqlCompiler(engine, functionFactoryCache, null);
+        this.sqlExecutionContext = new SqlExecutionContextImpl(engine, 1);
+        this.sqlExecutionContext.with(AllowAllCairoSecurityContext.INSTANCE, null, null);
+        this.mem = Vm.getMARWInstance();
+        this.path = new Path();
+        this.other = new Path();
+    }
+
+    @Override
+    public void close() {
+        this.compiler = Misc.free(compiler);
+        this.sqlExecutionContext = Misc.free(sqlExecutionContext);
+        this.mem = Misc.free(mem);
+        this.path = Misc.free(path);
+        this.other = Misc.free(other);
+    }
+
+    /**
+     * Refreshes all materialized views regardless of the refresh interval.
+     *
+     * @return true when at least one view was refreshed
+     */
+    public boolean refreshAll() {
+        viewNames.clear();
+        viewRegistry.getViewNames(viewNames);
+        boolean refreshed = false;
+        for (int i = 0, n = viewNames.size(); i < n; i++) {
+            final String viewName = viewNames.getQuick(i);
+            if (!MatViewDefinition.exists(ff, path, configuration.getRoot(), viewName)) {
+                // view was dropped behind the engine's back, e.g. directory removed manually
+                viewRegistry.unregister(viewName);
+                continue;
+            }
+            try {
+                refreshed |= refresh(viewName);
+            } catch (EntryUnavailableException e) {
+                LOG.info().$("materialized view is busy, will retry [view=").$(viewName).$(", reason=").$(e.getFlyweightMessage()).$(']').$();
+            } catch (CairoException e) {
+                LOG.error().$("could not refresh materialized view [view=").$(viewName)
+                        .$(", errno=").$(e.getErrno())
+                        .$(", msg=").$(e.getFlyweightMessage()).$(']').$();
+            } catch (SqlException e) {
+                LOG.error().$("could not refresh materialized view [view=").$(viewName)
+                        .$(", msg=").$(e.getFlyweightMessage()).$(']').$();
+            } catch (Throwable e) {
+                LOG.error().$("could not refresh materialized view [view=").$(viewName).$(", e=").$(e).$(']').$();
+            }
+        }
+        return refreshed;
+    }
+
+    private boolean refresh(String viewName) throws SqlException {
+        definition.readFrom(ff, path, configuration.getRoot(), viewName, mem);
+
+        final long lo;
+        final String timestampName;
+        try (TableReader reader = engine.getReader(AllowAllCairoSecurityContext.INSTANCE, definition.getBaseTableName())) {
+            lo = definition.getRefreshTimestamp(reader);
+            if (lo == Long.MAX_VALUE) {
+                return false;
+            }
+            final TableReaderMetadata metadata = reader.getMetadata();
+            timestampName = metadata.getColumnName(metadata.getTimestampIndex());
+            definition.captureState(reader);
+        }
+
+        final long bucketLo;
+        if (lo != Long.MIN_VALUE) {
+            final TimestampSampler sampler = TimestampSamplerFactory.getInstance(definition.getSampleBy(), 0);
+            sampler.setStart(0);
+            bucketLo = sampler.round(lo);
+        } else {
+            bucketLo = Long.MIN_VALUE;
+        }
+
+        try (TableWriter writer = engine.getWriter(AllowAllCairoSecurityContext.INSTANCE, viewName, "matViewRefresh")) {
+            final CompiledQuery cq = compiler.compile(buildRefreshQuery(timestampName, bucketLo), sqlExecutionContext);
+            try (
+                    RecordCursorFactory factory = cq.getRecordCursorFactory();
+                    RecordCursor cursor = factory.getCursor(sqlExecutionContext)
+            ) {
+                final RecordMetadata metadata = factory.getMetadata();
+                final int timestampIndex = metadata.getTimestampIndex();
+                entityColumnFilter.of(writer.getMetadata().getColumnCount());
+                final RecordToRowCopier copier = RecordToRowCopierUtils.generateCopier(
+                        asm,
+                        metadata,
+                        writer.getMetadata(),
+                        entityColumnFilter
+                );
+
+                // removal is committed on its own, readers see the view without the refreshed
+                // buckets until aggregated rows are committed
+                final long removed = writer.removeRowsFrom(bucketLo);
+                long rowCount = 0;
+                try {
+                    final Record record = cursor.getRecord();
+                    while (cursor.hasNext()) {
+                        TableWriter.Row row = writer.newRow(record.getTimestamp(timestampIndex));
+                        copier.copy(record, row);
+                        row.append();
+                        rowCount++;
+                    }
+                    writer.commit();
+                } catch (Throwable e) {
+                    writer.rollback();
+                    throw e;
+                }
+
+                // state is saved only after view data is committed, failed refresh is repeated from
+                // the same timestamp next time around
+                definition.writeTo(ff, path, other, configuration.getRoot(), viewName, mem);
+                LOG.info().$("refreshed materialized view [view=").$(viewName)
+                        .$(", from=").$ts(bucketLo)
+                        .$(", removed=").$(removed)
+                        .$(", added=").$(rowCount)
+                        .$(']').$();
+            }
+        }
+        return true;
+    }
+
+    private CharSequence buildRefreshQuery(CharSequence timestampName, long bucketLo) {
+        final String query = definition.getQuery();
+        if (bucketLo == Long.MIN_VALUE) {
+            return query;
+        }
+
+        // shadow base table with a CTE of the same name, view query stays unchanged
+        sink.clear();
+        sink.put("with \"").put(definition.getBaseTableName()).put("\" as (select * from \"")
+                .put(definition.getBaseTableName()).put("\" where \"").put(timestampName).put("\" >= '");
+        TimestampFormatUtils.appendDateTimeUSec(sink, bucketLo);
+        sink.put("')");
+        final int len = query.length();
+        int i = 0;
+        while (i < len && Character.isWhitespace(query.charAt(i))) {
+            i++;
+        }
+        if (i + 4 < len && Chars.equalsIgnoreCase(query.subSequence(i, i + 4), "with")
+                && Character.isWhitespace(query.charAt(i + 4))) {
+            sink.put(',').put(query, i + 4, len);
+        } else {
+            sink.put(' ').put(query);
+        }
+        return sink;
+    }
+
+    @Override
+    protected boolean runSerially() {
+        final long now = clock.getTicks();
+        if (now - lastRefreshTime < refreshInterval) {
+            return false;
+        }
+        lastRefreshTime = now;
+        return refreshAll();
+    }
+}
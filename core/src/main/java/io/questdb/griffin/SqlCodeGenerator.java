@@ -241,6 +241,20 @@ public class SqlCodeGenerator implements Mutable, Closeable {
         return true;
     }
 
+    private static boolean addBloomFilterValue(ExpressionNode node, ObjList<String> values) {
+        // null is never in bloom filter, string literal is the only constant filter can be probed with
+        if (node.type != ExpressionNode.CONSTANT || !Chars.isQuoted(node.token)) {
+            return false;
+        }
+        final CharSequence value = GenericLexer.unquote(node.token);
+        // leave escaped quotes to the filter rather than risk probing with the wrong value
+        if (Chars.indexOf(value, '\'') > -1) {
+            return false;
+        }
+        values.add(Chars.toString(value));
+        return true;
+    }
+
     private VectorAggregateFunctionConstructor assembleFunctionReference(RecordMetadata metadata, ExpressionNode ast) {
         int columnIndex;
         if (ast.type == FUNCTION && ast.paramCount == 1 && SqlKeywords.isSumKeyword(ast.token) && ast.rhs.type == LITERAL) {
@@ -358,6 +372,65 @@ public class SqlCodeGenerator implements Mutable, Closeable {
         return false;
     }
 
+    private void collectBloomFilterPredicates(
+            ExpressionNode node,
+            TableReaderMetadata metadata,
+            ObjList<CharSequence> columnNames,
+            IntList columnIndexes,
+            ObjList<ObjList<String>> columnValues
+    ) {
+        if (node == null || node.queryModel != null) {
+            return;
+        }
+
+        if (isAndKeyword(node.token)) {
+            collectBloomFilterPredicates(node.lhs, metadata, columnNames, columnIndexes, columnValues);
+            collectBloomFilterPredicates(node.rhs, metadata, columnNames, columnIndexes, columnValues);
+            return;
+        }
+
+        final ExpressionNode column;
+        final ObjList<String> values = new ObjList<>();
+        if (Chars.equals(node.token, '=') && node.paramCount == 2) {
+            // column can be on either side of equality
+            final boolean columnOnLeft = node.lhs.type == LITERAL;
+            column = columnOnLeft ? node.lhs : node.rhs;
+            if (!addBloomFilterValue(columnOnLeft ? node.rhs : node.lhs, values)) {
+                return;
+            }
+        } else if (isInKeyword(node.token) && node.paramCount > 1) {
+            if (node.paramCount < 3) {
+                column = node.lhs;
+                if (!addBloomFilterValue(node.rhs, values)) {
+                    return;
+                }
+            } else {
+                column = node.args.getLast();
+                for (int i = node.paramCount - 2; i > -1; i--) {
+                    if (!addBloomFilterValue(node.args.getQuick(i), values)) {
+                        return;
+                    }
+                }
+            }
+        } else {
+            return;
+        }
+
+        if (column.type != LITERAL) {
+            return;
+        }
+        final int columnIndex = metadata.getColumnIndexQuiet(column.token);
+        if (columnIndex < 0 || !metadata.isColumnBloomFiltered(columnIndex)) {
+            return;
+        }
+        final int columnType = metadata.getColumnType(columnIndex);
+        if (ColumnType.isSymbol(columnType) || ColumnType.isString(columnType)) {
+            columnNames.add(metadata.getColumnName(columnIndex));
+            columnIndexes.add(columnIndex);
+            columnValues.add(values);
+        }
+    }
+
     @Nullable
     private Function compileFilter(
             IntrinsicModel intrinsicModel,
@@ -1744,6 +1817,14 @@ public class SqlCodeGenerator implements Mutable, Closeable {
                     RecordSinkFactory.getInstance(asm, metadata, listColumnFilterA, false),
                     keyTypes,
                     filter,
+                    compileWorkerFilterConditionally(
+                            filter != null && !filter.isReadThreadSafe() && configuration.isSqlParallelLatestByEnabled(),
+                            executionContext.getSharedWorkerCount(),
+                            intrinsicModel.filter,
+                            metadata,
+                            executionContext
+                    ),
+                    getSymbolKeyColumnIndexes(metadata),
                     columnIndexes
             );
         }
@@ -2214,7 +2295,8 @@ public class SqlCodeGenerator implements Mutable, Closeable {
                 valueTypes.clear();
                 listColumnFilterA.clear();
 
-                if (fillCount == 1 && Chars.equalsLowerCaseAscii(sampleByFill.getQuick(0).token, "linear")) {
+                final boolean fillNext = fillCount == 1 && Chars.equalsLowerCaseAscii(sampleByFill.getQuick(0).token, "next");
+                if (fillNext || fillCount == 1 && Chars.equalsLowerCaseAscii(sampleByFill.getQuick(0).token, "linear")) {
 
                     final int columnCount = metadata.getColumnCount();
                     final ObjList<GroupByFunction> groupByFunctions = new ObjList<>(columnCount);
@@ -2248,6 +2330,45 @@ public class SqlCodeGenerator implements Mutable, Closeable {
                             timestampIndex
                     );
 
+                    // Streaming relies on base rows arriving in timestamp order, which only holds
+                    // when the timestamp is designated by the base cursor itself rather than
+                    // assigned to it, e.g. "(x union all y) timestamp(k)"
+                    final boolean ordered = metadata.getTimestampIndex() == timestampIndex;
+                    boolean streamable = fillNext;
+                    if (fillNext) {
+                        if (!ordered) {
+                            Misc.freeObjList(groupByFunctions);
+                            throw SqlException.$(sampleByFill.getQuick(0).position, "fill(next) requires base query ordered by designated timestamp");
+                        }
+                    } else {
+                        // keyless interpolation keeps one row per sample, materialized cursor is
+                        // affordable and keeps random access; keyed interpolation keeps a row per
+                        // sample and key, streaming cursor keeps only the rows that await their
+                        // next point
+                        streamable = keyTypes.getColumnCount() > 0 && ordered;
+                        for (int i = 0, n = groupByFunctions.size(); streamable && i < n; i++) {
+                            streamable = groupByFunctions.getQuick(i).isScalar();
+                        }
+                    }
+
+                    if (streamable) {
+                        return new SampleByLookaheadFillRecordCursorFactory(
+                                configuration,
+                                factory,
+                                groupByMetadata,
+                                groupByFunctions,
+                                recordFunctions,
+                                timestampSampler,
+                                listColumnFilterA,
+                                asm,
+                                keyTypes,
+                                valueTypes,
+                                groupByFunctionPositions,
+                                timestampIndex,
+                                fillNext
+                        );
+                    }
+
                     return new SampleByInterpolateRecordCursorFactory(
                             configuration,
                             factory,
@@ -3624,8 +3745,9 @@ public class SqlCodeGenerator implements Mutable, Closeable {
 
                 // below code block generates index-based filter
                 final boolean intervalHitsOnlyOnePartition;
+                RuntimeIntrinsicIntervalModel intervalModel = null;
                 if (intrinsicModel.hasIntervalFilters()) {
-                    RuntimeIntrinsicIntervalModel intervalModel = intrinsicModel.buildIntervalModel();
+                    intervalModel = intrinsicModel.buildIntervalModel();
                     dfcFactory = new IntervalFwdDataFrameCursorFactory(tableName, model.getTableId(), model.getTableVersion(), intervalModel, readerTimestampIndex);
                     intervalHitsOnlyOnePartition = intervalModel.allIntervalsHitOnePartition(reader.getPartitionedBy());
                 } else {
@@ -3857,7 +3979,9 @@ public class SqlCodeGenerator implements Mutable, Closeable {
                 }
 
                 model.setWhereClause(intrinsicModel.filter);
-                return new DataFrameRecordCursorFactory(
+                // filter stays in place, bloom filter only tells which rows cannot match it
+                dfcFactory = wrapInBloomFilter(dfcFactory, intrinsicModel.filter, reader.getMetadata());
+                final RecordCursorFactory factory = new DataFrameRecordCursorFactory(
                         configuration,
                         myMeta,
                         dfcFactory,
@@ -3869,6 +3993,24 @@ public class SqlCodeGenerator implements Mutable, Closeable {
                         columnSizes,
                         supportsRandomAccess
                 );
+                if (intervalModel != null && configuration.getHotCacheRowCount() > 0 && !model.isUpdate()) {
+                    // recent rows of the table may be served from memory, update needs table row ids
+                    final IntList writerIndexes = new IntList(columnIndexes.size());
+                    for (int i = 0, n = columnIndexes.size(); i < n; i++) {
+                        writerIndexes.add(readerMeta.getWriterIndex(columnIndexes.getQuick(i)));
+                    }
+                    return new HotCacheRecordCursorFactory(
+                            configuration,
+                            factory,
+                            tableName,
+                            model.getTableId(),
+                            model.getTableVersion(),
+                            intervalModel,
+                            writerIndexes,
+                            columnSizes
+                    );
+                }
+                return factory;
             }
 
             // no where clause
@@ -3939,6 +4081,8 @@ public class SqlCodeGenerator implements Mutable, Closeable {
                     RecordSinkFactory.getInstance(asm, myMeta, listColumnFilterA, false),
                     keyTypes,
                     null,
+                    null,
+                    getSymbolKeyColumnIndexes(myMeta),
                     columnIndexes
             );
         }
@@ -4020,6 +4164,20 @@ public class SqlCodeGenerator implements Mutable, Closeable {
         return toLimitFunction(executionContext, model.getLimitLo(), LongConstant.ZERO);
     }
 
+    // indexes of 'latest by' columns when all of them are symbols, null otherwise
+    @Nullable
+    private IntList getSymbolKeyColumnIndexes(RecordMetadata metadata) {
+        final IntList indexes = new IntList(listColumnFilterA.getColumnCount());
+        for (int i = 0, n = listColumnFilterA.getColumnCount(); i < n; i++) {
+            final int index = listColumnFilterA.getColumnIndexFactored(i);
+            if (!ColumnType.isSymbol(metadata.getColumnType(index))) {
+                return null;
+            }
+            indexes.add(index);
+        }
+        return indexes;
+    }
+
     private int getTimestampIndex(QueryModel model, RecordCursorFactory factory) throws SqlException {
         return getTimestampIndex(model, factory.getMetadata());
     }
@@ -4290,6 +4448,21 @@ public class SqlCodeGenerator implements Mutable, Closeable {
         return metadata;
     }
 
+    private DataFrameCursorFactory wrapInBloomFilter(
+            DataFrameCursorFactory dfcFactory,
+            ExpressionNode filter,
+            TableReaderMetadata metadata
+    ) {
+        final ObjList<CharSequence> columnNames = new ObjList<>();
+        final IntList columnIndexes = new IntList();
+        final ObjList<ObjList<String>> columnValues = new ObjList<>();
+        collectBloomFilterPredicates(filter, metadata, columnNames, columnIndexes, columnValues);
+        if (columnIndexes.size() == 0) {
+            return dfcFactory;
+        }
+        return new BloomFilterDataFrameCursorFactory(dfcFactory, columnNames, columnIndexes, columnValues);
+    }
+
     @FunctionalInterface
     public interface FullFatJoinGenerator {
         RecordCursorFactory create(
@@ -4339,6 +4512,9 @@ public class SqlCodeGenerator implements Mutable, Closeable {
         sumConstructors.put(ColumnType.LONG256, SumLong256VectorAggregateFunction::new);
         sumConstructors.put(ColumnType.DATE, SumDateVectorAggregateFunction::new);
         sumConstructors.put(ColumnType.TIMESTAMP, SumTimestampVectorAggregateFunction::new);
+        sumConstructors.put(ColumnType.FLOAT, SumFloatVectorAggregateFunction::new);
+        sumConstructors.put(ColumnType.SHORT, SumShortVectorAggregateFunction::new);
+        sumConstructors.put(ColumnType.BYTE, SumByteVectorAggregateFunction::new);
 
         ksumConstructors.put(ColumnType.DOUBLE, KSumDoubleVectorAggregateFunction::new);
         nsumConstructors.put(ColumnType.DOUBLE, NSumDoubleVectorAggregateFunction::new);
@@ -4348,17 +4524,26 @@ public class SqlCodeGenerator implements Mutable, Closeable {
         avgConstructors.put(ColumnType.TIMESTAMP, AvgLongVectorAggregateFunction::new);
         avgConstructors.put(ColumnType.DATE, AvgLongVectorAggregateFunction::new);
         avgConstructors.put(ColumnType.INT, AvgIntVectorAggregateFunction::new);
+        avgConstructors.put(ColumnType.FLOAT, AvgFloatVectorAggregateFunction::new);
+        avgConstructors.put(ColumnType.SHORT, AvgShortVectorAggregateFunction::new);
+        avgConstructors.put(ColumnType.BYTE, AvgByteVectorAggregateFunction::new);
 
         minConstructors.put(ColumnType.DOUBLE, MinDoubleVectorAggregateFunction::new);
         minConstructors.put(ColumnType.LONG, MinLongVectorAggregateFunction::new);
         minConstructors.put(ColumnType.DATE, MinDateVectorAggregateFunction::new);
         minConstructors.put(ColumnType.TIMESTAMP, MinTimestampVectorAggregateFunction::new);
         minConstructors.put(ColumnType.INT, MinIntVectorAggregateFunction::new);
+        minConstructors.put(ColumnType.FLOAT, MinFloatVectorAggregateFunction::new);
+        minConstructors.put(ColumnType.SHORT, MinShortVectorAggregateFunction::new);
+        minConstructors.put(ColumnType.BYTE, MinByteVectorAggregateFunction::new);
 
         maxConstructors.put(ColumnType.DOUBLE, MaxDoubleVectorAggregateFunction::new);
         maxConstructors.put(ColumnType.LONG, MaxLongVectorAggregateFunction::new);
         maxConstructors.put(ColumnType.DATE, MaxDateVectorAggregateFunction::new);
         maxConstructors.put(ColumnType.TIMESTAMP, MaxTimestampVectorAggregateFunction::new);
         maxConstructors.put(ColumnType.INT, MaxIntVectorAggregateFunction::new);
+        maxConstructors.put(ColumnType.FLOAT, MaxFloatVectorAggregateFunction::new);
+        maxConstructors.put(ColumnType.SHORT, MaxShortVectorAggregateFunction::new);
+        maxConstructors.put(ColumnType.BYTE, MaxByteVectorAggregateFunction::new);
     }
 }
@@ -34,6 +34,7 @@ import io.questdb.cairo.vm.Vm;
 import io.questdb.cairo.vm.api.MemoryMARW;
 import io.questdb.cutlass.text.*;
 import io.questdb.griffin.engine.functions.catalogue.*;
+import io.questdb.griffin.engine.groupby.TimestampSamplerFactory;
 import io.questdb.griffin.engine.ops.AlterOperationBuilder;
 import io.questdb.griffin.engine.ops.CopyFactory;
 import io.questdb.griffin.engine.ops.InsertOperationImpl;
@@ -88,6 +89,7 @@ public class SqlCompiler implements Closeable {
     private final SqlCodeGenerator codeGenerator;
     private final CairoConfiguration configuration;
     private final Path renamePath = new Path();
+    private final MatViewDefinition matViewDefinition = new MatViewDefinition();
     private final DatabaseBackupAgent backupAgent;
     private final DatabaseSnapshotAgent snapshotAgent;
     private final MemoryMARW mem = Vm.getMARWInstance();
@@ -96,6 +98,9 @@ public class SqlCompiler implements Closeable {
     private final ListColumnFilter listColumnFilter = new ListColumnFilter();
     private final EntityColumnFilter entityColumnFilter = new EntityColumnFilter();
     private final IntIntHashMap typeCast = new IntIntHashMap();
+    private final ObjList<IntList> frameSymbolKeyMaps = new ObjList<>();
+    private final PageAddressCacheRecord frameRecord = new PageAddressCacheRecord();
+    private final PageAddressCache frameAddressCache;
     private final ObjList<TableWriter> tableWriters = new ObjList<>();
     private final TableStructureAdapter tableStructureAdapter = new TableStructureAdapter();
     private final FunctionParser functionParser;
@@ -140,6 +145,7 @@ public class SqlCompiler implements Closeable {
         );
         this.codeGenerator = new SqlCodeGenerator(engine, configuration, functionParser, sqlNodePool);
         this.vacuumColumnVersions = new VacuumColumnVersions(engine);
+        this.frameAddressCache = new PageAddressCache(configuration);
 
         // we have cyclical dependency here
         functionParser.setSqlCodeGenerator(codeGenerator);
@@ -251,6 +257,7 @@ public class SqlCompiler implements Closeable {
         Misc.free(rebuildIndex);
         Misc.free(codeGenerator);
         Misc.free(mem);
+        Misc.free(frameRecord);
         Misc.freeObjList(tableWriters);
     }
 
@@ -359,6 +366,25 @@ public class SqlCompiler implements Closeable {
         return castGroups.getQuick(ColumnType.tagOf(from)) == castGroups.getQuick(ColumnType.tagOf(to));
     }
 
+    // Page frames are returned in ascending order and contain the same rows as record cursor.
+    private static boolean isPageFrameCopySupported(RecordCursorFactory factory) {
+        return factory.supportPageFrameCursor() && !factory.hasDescendingOrder();
+    }
+
+    private static boolean isPageFrameCopySupported(RecordCursorFactory factory, RecordMetadata writerMetadata) {
+        final RecordMetadata metadata = factory.getMetadata();
+        final int columnCount = metadata.getColumnCount();
+        if (writerMetadata.getTimestampIndex() == -1 || columnCount != writerMetadata.getColumnCount()) {
+            return false;
+        }
+        for (int i = 0; i < columnCount; i++) {
+            if (metadata.getColumnType(i) != writerMetadata.getColumnType(i)) {
+                return false;
+            }
+        }
+        return isPageFrameCopySupported(factory);
+    }
+
     private static void expectKeyword(GenericLexer lexer, CharSequence keyword) throws SqlException {
         CharSequence tok = SqlUtil.fetchNext(lexer);
 
@@ -477,6 +503,14 @@ public class SqlCompiler implements Closeable {
                         final CharSequence columnName = GenericLexer.immutableOf(tok);
                         tok = expectToken(lexer, "'add index' or 'drop index' or 'cache' or 'nocache'");
                         if (SqlKeywords.isAddKeyword(tok)) {
+                            tok = SqlUtil.fetchNext(lexer);
+                            if (tok != null && SqlKeywords.isBloomKeyword(tok)) {
+                                // alter table <table name> alter column <column name> add bloom filter
+                                return alterTableColumnBloomFilter(tableNamePosition, tableName, columnNameNamePosition, columnName, tableMetadata, true);
+                            }
+                            if (tok != null) {
+                                lexer.unparseLast();
+                            }
                             expectKeyword(lexer, "index");
                             tok = SqlUtil.fetchNext(lexer);
                             int indexValueCapacity = -1;
@@ -499,6 +533,14 @@ public class SqlCompiler implements Closeable {
 
                             return alterTableColumnAddIndex(tableNamePosition, tableName, columnNameNamePosition, columnName, tableMetadata, indexValueCapacity);
                         } else if (SqlKeywords.isDropKeyword(tok)) {
+                            tok = SqlUtil.fetchNext(lexer);
+                            if (tok != null && SqlKeywords.isBloomKeyword(tok)) {
+                                // alter table <table name> alter column <column name> drop bloom filter
+                                return alterTableColumnBloomFilter(tableNamePosition, tableName, columnNameNamePosition, columnName, tableMetadata, false);
+                            }
+                            if (tok != null) {
+                                lexer.unparseLast();
+                            }
                             // alter table <table name> alter column drop index
                             expectKeyword(lexer, "index");
                             tok = SqlUtil.fetchNext(lexer);
@@ -525,7 +567,7 @@ public class SqlCompiler implements Closeable {
                         tok = expectToken(lexer, "'='");
                         if (tok.length() == 1 && tok.charAt(0) == '=') {
                             CharSequence value = GenericLexer.immutableOf(SqlUtil.fetchNext(lexer));
-                            return alterTableSetParam(paramName, value, paramNameNamePosition, tableName, tableMetadata.getId());
+                            return alterTableSetParam(paramName, value, paramNameNamePosition, tableName, tableMetadata);
                         } else {
                             throw SqlException.$(lexer.lastTokenPosition(), "'=' expected");
                         }
@@ -787,6 +829,35 @@ public class SqlCompiler implements Closeable {
         );
     }
 
+    private CompiledQuery alterTableColumnBloomFilter(
+            int tableNamePosition,
+            String tableName,
+            int columnNamePosition,
+            CharSequence columnName,
+            TableReaderMetadata metadata,
+            boolean add
+    ) throws SqlException {
+        expectKeyword(lexer, "filter");
+        CharSequence tok = SqlUtil.fetchNext(lexer);
+        if (tok != null && !isSemicolon(tok)) {
+            throw SqlException.$(lexer.lastTokenPosition(), "unexpected token [").put(tok).put(']');
+        }
+        final int columnIndex = metadata.getColumnIndexQuiet(columnName);
+        if (columnIndex == -1) {
+            throw SqlException.invalidColumn(columnNamePosition, columnName);
+        }
+        final int columnType = metadata.getColumnType(columnIndex);
+        if (add && !ColumnType.isSymbol(columnType) && !ColumnType.isString(columnType)) {
+            throw SqlException.$(columnNamePosition, "bloom filter is only supported for STRING and SYMBOL columns");
+        }
+        if (add) {
+            alterOperationBuilder.ofAddBloomFilter(tableNamePosition, tableName, metadata.getId(), columnName);
+        } else {
+            alterOperationBuilder.ofDropBloomFilter(tableNamePosition, tableName, metadata.getId(), columnName);
+        }
+        return compiledQuery.ofAlter(alterOperationBuilder.build());
+    }
+
     private CompiledQuery alterTableColumnDropIndex(
             int tableNamePosition,
             String tableName,
@@ -995,7 +1066,8 @@ public class SqlCompiler implements Closeable {
         return compiledQuery.ofAlter(alterOperationBuilder.build());
     }
 
-    private CompiledQuery alterTableSetParam(CharSequence paramName, CharSequence value, int paramNameNamePosition, String tableName, int tableId) throws SqlException {
+    private CompiledQuery alterTableSetParam(CharSequence paramName, CharSequence value, int paramNameNamePosition, String tableName, TableReaderMetadata tableMetadata) throws SqlException {
+        final int tableId = tableMetadata.getId();
         if (isMaxUncommittedRowsKeyword(paramName)) {
             int maxUncommittedRows;
             try {
@@ -1013,6 +1085,20 @@ public class SqlCompiler implements Closeable {
                 throw SqlException.$(paramNameNamePosition, "commitLag must be non negative");
             }
             return compiledQuery.ofAlter(alterOperationBuilder.ofSetParamCommitLag(tableName, tableId, commitLag).build());
+        } else if (isTtlKeyword(paramName)) {
+            if (!PartitionBy.isPartitioned(tableMetadata.getPartitionBy())) {
+                throw SqlException.$(paramNameNamePosition, "ttl can only be set on partitioned tables");
+            }
+            long ttl = SqlUtil.expectMicros(value, paramNameNamePosition);
+            if (ttl < 0) {
+                throw SqlException.$(paramNameNamePosition, "ttl must be non negative");
+            }
+            if (ttl > 0) {
+                // retention job picks tables from the registry, a table whose ttl is reset stays
+                // registered and is skipped by the job once the change is applied
+                engine.getTableTtlRegistry().register(tableName);
+            }
+            return compiledQuery.ofAlter(alterOperationBuilder.ofSetParamTtl(tableName, tableId, ttl).build());
         } else {
             throw SqlException.$(paramNameNamePosition, "unknown parameter '").put(paramName).put('\'');
         }
@@ -1313,11 +1399,67 @@ public class SqlCompiler implements Closeable {
     }
 
     /**
-     * Sets insertCount to number of copied rows.
+     * Returns number of copied rows. Frames that are ordered by designated timestamp are
+     * appended to the writer column by column, the rest go through the row copier.
+     */
+    private long copyPageFrames(
+            TableWriter writer,
+            RecordMetadata metadata,
+            PageFrameCursor frameCursor,
+            RecordToRowCopier copier,
+            int cursorTimestampIndex,
+            long batchSize,
+            long commitLag
+    ) {
+        for (int i = 0, n = metadata.getColumnCount(); i < n; i++) {
+            IntList keyMap = frameSymbolKeyMaps.getQuiet(i);
+            if (keyMap == null) {
+                keyMap = new IntList();
+                frameSymbolKeyMaps.extendAndSet(i, keyMap);
+            }
+            if (ColumnType.isSymbol(metadata.getColumnType(i))) {
+                keyMap.setAll(frameCursor.getSymbolTable(i).getSymbolCount() + 1, SymbolTable.VALUE_NOT_FOUND);
+            } else {
+                keyMap.clear();
+            }
+        }
+
+        frameRecord.of(frameCursor, frameAddressCache);
+        long deadline = batchSize;
+        long rowCount = 0;
+        PageFrame frame;
+        while ((frame = frameCursor.next()) != null) {
+            final long frameRowCount = frame.getPartitionHi() - frame.getPartitionLo();
+            if (!writer.appendPageFrame(frame, frameCursor, frameSymbolKeyMaps)) {
+                frameAddressCache.clear();
+                frameAddressCache.of(metadata);
+                frameAddressCache.add(0, frame);
+                for (long r = 0; r < frameRowCount; r++) {
+                    frameRecord.setRowIndex(r);
+                    TableWriter.Row row = writer.newRow(frameRecord.getTimestamp(cursorTimestampIndex));
+                    copier.copy(frameRecord, row);
+                    row.append();
+                }
+            }
+            rowCount += frameRowCount;
+            if (batchSize != -1 && rowCount > deadline) {
+                writer.commitWithLag(commitLag);
+                deadline = rowCount + batchSize;
+            }
+        }
+        writer.commit();
+
+        return rowCount;
+    }
+
+    /**
+     * Sets insertCount to number of copied rows. Page frames are copied when frame cursor
+     * is provided, record cursor is used otherwise.
      */
     private TableWriter copyTableData(
             CharSequence tableName,
             RecordCursor cursor,
+            PageFrameCursor frameCursor,
             RecordMetadata cursorMetadata
     ) throws SqlException {
         TableWriter writer = new TableWriter(
@@ -1332,18 +1474,17 @@ public class SqlCompiler implements Closeable {
         try {
             RecordMetadata writerMetadata = writer.getMetadata();
             entityColumnFilter.of(writerMetadata.getColumnCount());
-            this.insertCount = copyTableData(
-                    cursor,
+            final RecordToRowCopier copier = RecordToRowCopierUtils.generateCopier(
+                    asm,
                     cursorMetadata,
-                    writer,
                     writerMetadata,
-                    RecordToRowCopierUtils.generateCopier(
-                            asm,
-                            cursorMetadata,
-                            writerMetadata,
-                            entityColumnFilter
-                    )
+                    entityColumnFilter
             );
+            if (frameCursor != null) {
+                this.insertCount = copyPageFrames(writer, cursorMetadata, frameCursor, copier, writerMetadata.getTimestampIndex(), -1, 0);
+            } else {
+                this.insertCount = copyTableData(cursor, cursorMetadata, writer, writerMetadata, copier);
+            }
             return writer;
         } catch (Throwable e) {
             writer.close();
@@ -1400,6 +1541,11 @@ public class SqlCompiler implements Closeable {
             return compiledQuery.ofCreateTable();
         }
 
+        final boolean matView = createTableModel.getMatViewQuery() != null;
+        if (matView) {
+            validateMatView(createTableModel, executionContext);
+        }
+
         this.insertCount = -1;
 
         // Slow path with lock attempt
@@ -1421,6 +1567,10 @@ public class SqlCompiler implements Closeable {
                         newTable = true;
                     } else {
                         writer = createTableFromCursor(createTableModel, executionContext);
+                        if (matView) {
+                            matViewDefinition.writeTo(ff, path, renamePath, configuration.getRoot(), name.token, mem);
+                            engine.getMatViewRegistry().register(name.token);
+                        }
                     }
                 } catch (CairoException e) {
                     LOG.error().$("could not create table [error=").$((Throwable) e).$(']').$();
@@ -1442,28 +1592,34 @@ public class SqlCompiler implements Closeable {
 
     private TableWriter createTableFromCursor(CreateTableModel model, SqlExecutionContext executionContext) throws
             SqlException {
-        try (
-                final RecordCursorFactory factory = generate(model.getQueryModel(), executionContext);
-                final RecordCursor cursor = factory.getCursor(executionContext)
-        ) {
+        try (final RecordCursorFactory factory = generate(model.getQueryModel(), executionContext)) {
             typeCast.clear();
             final RecordMetadata metadata = factory.getMetadata();
             validateTableModelAndCreateTypeCast(model, metadata, typeCast);
-            engine.createTableUnsafe(
-                    executionContext.getCairoSecurityContext(),
-                    mem,
-                    path,
-                    tableStructureAdapter.of(model, metadata, typeCast)
-            );
+            // without type casts new table has the same column types as the cursor
+            final boolean copyFrames = typeCast.size() == 0
+                    && (model.getTimestampIndex() != -1 || metadata.getTimestampIndex() != -1)
+                    && isPageFrameCopySupported(factory);
+            try (
+                    final RecordCursor cursor = copyFrames ? null : factory.getCursor(executionContext);
+                    final PageFrameCursor frameCursor = copyFrames ? factory.getPageFrameCursor(executionContext, DataFrameCursorFactory.ORDER_ASC) : null
+            ) {
+                engine.createTableUnsafe(
+                        executionContext.getCairoSecurityContext(),
+                        mem,
+                        path,
+                        tableStructureAdapter.of(model, metadata, typeCast)
+                );
 
-            try {
-                return copyTableData(model.getName().token, cursor, metadata);
-            } catch (CairoException e) {
-                LOG.error().$(e.getFlyweightMessage()).$(" [errno=").$(e.getErrno()).$(']').$();
-                if (removeTableDirectory(model)) {
-                    throw e;
+                try {
+                    return copyTableData(model.getName().token, cursor, frameCursor, metadata);
+                } catch (CairoException e) {
+                    LOG.error().$(e.getFlyweightMessage()).$(" [errno=").$(e.getErrno()).$(']').$();
+                    if (removeTableDirectory(model)) {
+                        throw e;
+                    }
+                    throw SqlException.$(0, "Concurrent modification could not be handled. Failed to clean up. See log for more details.");
                 }
-                throw SqlException.$(0, "Concurrent modification could not be handled. Failed to clean up. See log for more details.");
             }
         }
     }
@@ -1862,6 +2018,27 @@ public class SqlCompiler implements Closeable {
                 );
             }
 
+            if (columnSetSize == 0 && isPageFrameCopySupported(factory, writerMetadata)) {
+                try (PageFrameCursor frameCursor = factory.getPageFrameCursor(executionContext, DataFrameCursorFactory.ORDER_ASC)) {
+                    try {
+                        insertCount = copyPageFrames(
+                                writer,
+                                cursorMetadata,
+                                frameCursor,
+                                copier,
+                                writerTimestampIndex,
+                                model.getBatchSize(),
+                                model.getCommitLag()
+                        );
+                    } catch (Throwable e) {
+                        // rollback data when system error occurs
+                        writer.rollback();
+                        throw e;
+                    }
+                }
+                return compiledQuery.ofInsertAsSelect(insertCount);
+            }
+
             try (RecordCursor cursor = factory.getCursor(executionContext)) {
                 try {
                     if (writerTimestampIndex == -1) {
@@ -2362,6 +2539,56 @@ public class SqlCompiler implements Closeable {
         return model;
     }
 
+    private void validateMatView(CreateTableModel model, SqlExecutionContext executionContext) throws SqlException {
+        final ExpressionNode name = model.getName();
+        ExpressionNode baseTableName = null;
+        QueryModel sampleByModel = null;
+        QueryModel m = model.getQueryModel();
+        while (m != null) {
+            if (m.getJoinModels().size() > 1 || m.getUnionModel() != null) {
+                throw SqlException.$(name.position, "materialized view query must select from a single table");
+            }
+            if (m.getSampleBy() != null) {
+                sampleByModel = m;
+            }
+            if (m.getTableName() != null) {
+                baseTableName = m.getTableName();
+            }
+            m = m.getNestedModel();
+        }
+
+        if (sampleByModel == null) {
+            throw SqlException.$(name.position, "materialized view query requires SAMPLE BY");
+        }
+        final ExpressionNode sampleBy = sampleByModel.getSampleBy();
+        if (sampleByModel.getSampleByUnit() != null) {
+            throw SqlException.$(sampleBy.position, "materialized view requires constant SAMPLE BY interval, e.g. 1h");
+        }
+        TimestampSamplerFactory.getInstance(sampleBy.token, sampleBy.position);
+        final ExpressionNode offset = sampleByModel.getSampleByOffset();
+        if (offset == null || sampleByModel.getSampleByTimezoneName() != null || !Chars.equals(offset.token, "'00:00'")) {
+            throw SqlException.$(sampleBy.position, "materialized view requires SAMPLE BY ... ALIGN TO CALENDAR without time zone or offset");
+        }
+        final ObjList<ExpressionNode> fill = sampleByModel.getSampleByFill();
+        if (fill.size() > 1 || fill.size() == 1 && !Chars.equalsLowerCaseAscii(fill.getQuick(0).token, "none")) {
+            throw SqlException.$(fill.getQuick(0).position, "materialized view does not support FILL");
+        }
+        if (baseTableName == null) {
+            throw SqlException.$(name.position, "materialized view query must select from a table");
+        }
+
+        try (TableReader reader = engine.getReader(executionContext.getCairoSecurityContext(), baseTableName.token)) {
+            if (model.getPartitionBy() == PartitionBy.NONE) {
+                final int partitionBy = PartitionBy.isPartitioned(reader.getPartitionedBy()) ? reader.getPartitionedBy() : PartitionBy.DAY;
+                model.setPartitionBy(sqlNodePool.next().of(ExpressionNode.LITERAL, PartitionBy.toString(partitionBy), 0, 0));
+            }
+            // state is captured before the view is populated, rows committed to the base table
+            // in between are aggregated again on first refresh
+            matViewDefinition.of(reader.getTableName(), Chars.toString(sampleBy.token), model.getMatViewQuery());
+            matViewDefinition.captureState(reader);
+        }
+    }
+
     private void validateTableModelAndCreateTypeCast(
             CreateTableModel model,
             RecordMetadata metadata,
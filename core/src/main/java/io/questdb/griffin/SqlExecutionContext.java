@@ -29,11 +29,13 @@ import io.questdb.cairo.CairoEngine;
 import io.questdb.cairo.CairoSecurityContext;
 import io.questdb.cairo.ColumnTypes;
 import io.questdb.cairo.RecordSink;
+import io.questdb.cairo.SqlQueryPriority;
 import io.questdb.cairo.sql.BindVariableService;
 import io.questdb.cairo.sql.SqlExecutionCircuitBreaker;
 import io.questdb.cairo.sql.VirtualRecord;
 import io.questdb.griffin.engine.analytic.AnalyticContext;
 import io.questdb.griffin.engine.functions.rnd.SharedRandom;
+import io.questdb.std.QueryMemoryAccount;
 import io.questdb.std.Rnd;
 import io.questdb.std.Transient;
 import org.jetbrains.annotations.NotNull;
@@ -65,6 +67,21 @@ public interface SqlExecutionContext extends Closeable {
         return getWorkerCount();
     }
 
+    /**
+     * @return one of {@link SqlQueryPriority} constants
+     */
+    default int getQueryPriority() {
+        return SqlQueryPriority.PRIORITY_NORMAL;
+    }
+
+    /**
+     * @return native memory budget of the query, worker threads that work on behalf of the query
+     * activate it, null when query memory is not accounted
+     */
+    default @Nullable QueryMemoryAccount getMemoryAccount() {
+        return null;
+    }
+
     Rnd getRandom();
 
     default Rnd getAsyncRandom() {
@@ -35,6 +35,7 @@ import io.questdb.griffin.engine.functions.rnd.SharedRandom;
 import io.questdb.mp.RingQueue;
 import io.questdb.mp.Sequence;
 import io.questdb.std.IntStack;
+import io.questdb.std.QueryMemoryAccount;
 import io.questdb.std.Rnd;
 import io.questdb.std.Transient;
 import io.questdb.std.datetime.microtime.MicrosecondClock;
@@ -60,6 +61,8 @@ public class SqlExecutionContextImpl implements SqlExecutionContext {
     private SqlExecutionCircuitBreaker circuitBreaker = SqlExecutionCircuitBreaker.NOOP_CIRCUIT_BREAKER;
     private long now;
     private int jitMode;
+    private int queryPriority;
+    private QueryMemoryAccount memoryAccount;
     private boolean cloneSymbolTables = false;
 
     public SqlExecutionContextImpl(CairoEngine cairoEngine, int workerCount, int sharedWorkerCount) {
@@ -72,6 +75,7 @@ public class SqlExecutionContextImpl implements SqlExecutionContext {
         this.clock = cairoConfiguration.getMicrosecondClock();
         this.cairoSecurityContext = AllowAllCairoSecurityContext.INSTANCE;
         this.jitMode = cairoConfiguration.getSqlJitMode();
+        this.queryPriority = cairoConfiguration.getSqlQueryPriority();
 
         this.telemetryQueue = cairoEngine.getTelemetryQueue();
         if (telemetryQueue != null) {
@@ -124,6 +128,24 @@ public class SqlExecutionContextImpl implements SqlExecutionContext {
         return sharedWorkerCount;
     }
 
+    @Override
+    public int getQueryPriority() {
+        return queryPriority;
+    }
+
+    public void setQueryPriority(int queryPriority) {
+        this.queryPriority = queryPriority;
+    }
+
+    @Override
+    public QueryMemoryAccount getMemoryAccount() {
+        return memoryAccount;
+    }
+
+    public void setMemoryAccount(QueryMemoryAccount memoryAccount) {
+        this.memoryAccount = memoryAccount;
+    }
+
     @Override
     public Rnd getRandom() {
         return random != null ? random : SharedRandom.getRandom(cairoConfiguration);
@@ -515,8 +515,49 @@ public final class SqlParser {
         throw SqlException.$(lexer.lastTokenPosition(), "'from' expected");
     }
 
+    private ExecutionModel parseCreateMatView(GenericLexer lexer, SqlExecutionContext executionContext) throws SqlException {
+        final CreateTableModel model = createTableModelPool.next();
+        final CharSequence viewName = tok(lexer, "view name");
+        model.setName(nextLiteral(GenericLexer.assertNoDotsAndSlashes(GenericLexer.unquote(viewName), lexer.lastTokenPosition()), lexer.lastTokenPosition()));
+        expectTok(lexer, "as");
+
+        // keep query text, view is refreshed by running the query over changed base table rows
+        tok(lexer, "'('");
+        final int queryLo = lexer.lastTokenPosition() + 1;
+        lexer.unparseLast();
+        parseCreateTableAsSelect(lexer, model, executionContext);
+        model.setMatViewQuery(Chars.toString(lexer.getContent(), queryLo, lexer.lastTokenPosition()).trim());
+
+        CharSequence tok = optTok(lexer);
+        final ExpressionNode partitionBy = parseCreateTablePartition(lexer, tok);
+        if (partitionBy != null) {
+            if (!PartitionBy.isPartitioned(PartitionBy.fromString(partitionBy.token))) {
+                throw SqlException.$(partitionBy.position, "'HOUR', 'DAY', 'MONTH' or 'YEAR' expected");
+            }
+            model.setPartitionBy(partitionBy);
+            tok = optTok(lexer);
+        }
+
+        model.setMaxUncommittedRows(configuration.getMaxUncommittedRows());
+        model.setCommitLag(configuration.getCommitLag());
+        model.setWalEnabled(false);
+
+        if (tok == null || Chars.equals(tok, ';')) {
+            return model;
+        }
+        throw errUnexpected(lexer, tok);
+    }
+
     private ExecutionModel parseCreateStatement(GenericLexer lexer, SqlExecutionContext executionContext) throws SqlException {
-        expectTok(lexer, "table");
+        final CharSequence tok = optTok(lexer);
+        if (tok == null) {
+            throw SqlException.position(lexer.getPosition()).put("'table' expected");
+        }
+        if (isMaterializedKeyword(tok)) {
+            expectTok(lexer, "view");
+            return parseCreateMatView(lexer, executionContext);
+        }
+        expectTok(lexer, tok, "table");
         return parseCreateTable(lexer, executionContext);
     }
 
@@ -1232,18 +1273,16 @@ public final class SqlParser {
                 if (isCalendarKeyword(tok)) {
                     tok = optTok(lexer);
 
-                    if (tok != null && !isSemicolon(tok)) {
+                    if (tok != null && !isSemicolon(tok) && !Chars.equals(tok, ')')) {
                         if (isTimeKeyword(tok)) {
                             expectZone(lexer);
                             model.setSampleByTimezoneName(expectExpr(lexer));
                             tok = optTok(lexer);
 
-                            if (tok != null) {
-                                if (isWithKeyword(tok)) {
-                                    tok = parseWithOffset(lexer, model);
-                                } else {
-                                    throw SqlException.$(lexer.lastTokenPosition(), "'with offset' expected");
-                                }
+                            if (tok != null && isWithKeyword(tok)) {
+                                tok = parseWithOffset(lexer, model);
+                            } else if (tok != null && !isSemicolon(tok) && !Chars.equals(tok, ')')) {
+                                throw SqlException.$(lexer.lastTokenPosition(), "'with offset' expected");
                             } else {
                                 model.setSampleByOffset(nextConstant("'00:00'"));
                             }
@@ -35,8 +35,14 @@ import io.questdb.cairo.vm.api.MemoryCMR;
 import io.questdb.griffin.engine.ops.UpdateOperation;
 import io.questdb.log.Log;
 import io.questdb.log.LogFactory;
+import io.questdb.mp.RingQueue;
+import io.questdb.mp.SOUnboundedCountDownLatch;
+import io.questdb.mp.Sequence;
 import io.questdb.std.*;
 import io.questdb.std.str.Path;
+import io.questdb.tasks.O3CallbackTask;
+
+import java.util.concurrent.atomic.AtomicReference;
 
 import static io.questdb.cairo.ColumnType.isVariableLength;
 import static io.questdb.cairo.TableUtils.dFile;
@@ -47,9 +53,17 @@ public class UpdateOperator extends PurgingOperator implements QuietCloseable {
 
     private final ObjList<MemoryCMR> srcColumns = new ObjList<>();
     private final ObjList<MemoryCMARW> dstColumns = new ObjList<>();
+    private final ObjList<IndexBuilder> indexBuilders = new ObjList<>();
+    private final ObjList<O3CallbackTask> pendingTasks = new ObjList<>();
+    private final SOUnboundedCountDownLatch doneLatch = new SOUnboundedCountDownLatch();
+    private final AtomicReference<Throwable> taskError = new AtomicReference<>();
+    private final TableWriter.O3ColumnUpdateMethod copyColumnTailRef = this::copyColumnTail;
+    private final TableWriter.O3ColumnUpdateMethod rebuildColumnIndexRef = this::rebuildColumnIndex;
     private final long dataAppendPageSize;
     private final long fileOpenOpts;
-    private IndexBuilder indexBuilder;
+    // partition being finished by column tasks, tasks only read these
+    private long taskPartitionTimestamp;
+    private long taskPartitionSize;
 
     public UpdateOperator(
             CairoConfiguration configuration,
@@ -59,14 +73,13 @@ public class UpdateOperator extends PurgingOperator implements QuietCloseable {
             int rootLen
     ) {
         super(LOG, configuration, messageBus, tableWriter, path, rootLen);
-        this.indexBuilder = new IndexBuilder();
         this.dataAppendPageSize = configuration.getDataAppendPageSize();
         this.fileOpenOpts = configuration.getWriterFileOpenOpts();
     }
 
     @Override
     public void close() {
-        indexBuilder = Misc.free(indexBuilder);
+        Misc.freeObjListAndClear(indexBuilders);
     }
 
     public long executeUpdate(SqlExecutionContext sqlExecutionContext, UpdateOperation op) throws SqlException, ReaderOutOfDateException {
@@ -153,22 +166,7 @@ public class UpdateOperator extends PurgingOperator implements QuietCloseable {
                                     .$(", minRow=").$(minRow)
                                     .I$();
 
-                            copyColumns(
-                                    partitionIndex,
-                                    affectedColumnCount,
-                                    prevRow,
-                                    minRow
-                            );
-
-                            updateEffectiveColumnTops(
-                                    tableWriter,
-                                    partitionIndex,
-                                    updateColumnIndexes,
-                                    affectedColumnCount,
-                                    minRow
-                            );
-
-                            rebuildIndexes(tableWriter.getPartitionTimestamp(partitionIndex), tableName, writerMetadata, tableWriter);
+                            finishPartition(partitionIndex, affectedColumnCount, prevRow, minRow);
                         }
 
                         openColumns(srcColumns, rowPartitionIndex, false);
@@ -195,17 +193,7 @@ public class UpdateOperator extends PurgingOperator implements QuietCloseable {
                 }
 
                 if (partitionIndex > -1) {
-                    copyColumns(partitionIndex, affectedColumnCount, prevRow, minRow);
-
-                    updateEffectiveColumnTops(
-                            tableWriter,
-                            partitionIndex,
-                            updateColumnIndexes,
-                            affectedColumnCount,
-                            minRow
-                    );
-
-                    rebuildIndexes(tableWriter.getPartitionTimestamp(partitionIndex), tableName, writerMetadata, tableWriter);
+                    finishPartition(partitionIndex, affectedColumnCount, prevRow, minRow);
                 }
             } finally {
                 Misc.freeObjList(srcColumns);
@@ -518,34 +506,26 @@ public class UpdateOperator extends PurgingOperator implements QuietCloseable {
         }
     }
 
-    private void copyColumns(int partitionIndex, int affectedColumnCount, long prevRow, long minRow) {
-        final TableWriterMetadata metadata = tableWriter.getMetadata();
-        final long partitionTimestamp = tableWriter.getPartitionTimestamp(partitionIndex);
-        final long maxRow = tableWriter.getPartitionSize(partitionIndex);
-        for (int i = 0; i < affectedColumnCount; i++) {
-            MemoryCMR srcFixMem = srcColumns.get(2 * i);
-            MemoryCMR srcVarMem = srcColumns.get(2 * i + 1);
-            MemoryCMARW dstFixMem = dstColumns.get(2 * i);
-            MemoryCMARW dstVarMem = dstColumns.get(2 * i + 1);
-
-            final int columnIndex = updateColumnIndexes.getQuick(i);
-            final long oldColumnTop = tableWriter.getColumnTop(partitionTimestamp, columnIndex, -1);
-            final long newColumnTop = calculatedEffectiveColumnTop(minRow, oldColumnTop);
-            final int columnType = metadata.getColumnType(columnIndex);
-
+    private void copyColumnTail(int affectedColumnIndex, int columnType, long prevRow, long minRow) {
+        try {
+            final int i = affectedColumnIndex;
+            final long maxRow = taskPartitionSize;
             if (maxRow > prevRow) {
+                final long oldColumnTop = tableWriter.getColumnTop(taskPartitionTimestamp, updateColumnIndexes.getQuick(i), -1);
                 copyColumn(
                         prevRow,
                         maxRow,
-                        srcFixMem,
-                        srcVarMem,
-                        dstFixMem,
-                        dstVarMem,
-                        newColumnTop,
+                        srcColumns.get(2 * i),
+                        srcColumns.get(2 * i + 1),
+                        dstColumns.get(2 * i),
+                        dstColumns.get(2 * i + 1),
+                        calculatedEffectiveColumnTop(minRow, oldColumnTop),
                         oldColumnTop,
                         columnType
                 );
             }
+        } catch (Throwable th) {
+            taskError.compareAndSet(null, th);
         }
     }
 
@@ -663,22 +643,111 @@ public class UpdateOperator extends PurgingOperator implements QuietCloseable {
         }
     }
 
-    private void rebuildIndexes(
-            long partitionTimestamp,
-            String tableName,
-            TableWriterMetadata writerMetadata,
-            TableWriter tableWriter
-    ) {
-        int pathTrimToLen = path.length();
-        indexBuilder.of(path.trimTo(rootLen), configuration);
-        for (int i = 0, n = updateColumnIndexes.size(); i < n; i++) {
-            int columnIndex = updateColumnIndexes.get(i);
-            if (writerMetadata.isColumnIndexed(columnIndex)) {
-                CharSequence colName = writerMetadata.getColumnName(columnIndex);
-                indexBuilder.reindexAfterUpdate(partitionTimestamp, colName, tableWriter);
+    private void dispatchColumnTasks(int affectedColumnCount, TableWriter.O3ColumnUpdateMethod method, long p1, long p2) {
+        final TableWriterMetadata metadata = tableWriter.getMetadata();
+        final Sequence pubSeq = messageBus.getO3CallbackPubSeq();
+        final RingQueue<O3CallbackTask> queue = messageBus.getO3CallbackQueue();
+        pendingTasks.clear();
+        doneLatch.reset();
+        taskError.set(null);
+        int queuedCount = 0;
+
+        for (int i = 0; i < affectedColumnCount; i++) {
+            final int columnIndex = updateColumnIndexes.getQuick(i);
+            if (method == rebuildColumnIndexRef && !metadata.isColumnIndexed(columnIndex)) {
+                continue;
+            }
+            final int columnType = metadata.getColumnType(columnIndex);
+            final long cursor = pubSeq.next();
+            if (cursor > -1) {
+                try {
+                    final O3CallbackTask task = queue.get(cursor);
+                    task.of(doneLatch, i, columnType, p1, p2, method);
+                    pendingTasks.add(task);
+                } finally {
+                    queuedCount++;
+                    pubSeq.done(cursor);
+                }
+            } else {
+                method.run(i, columnType, p1, p2);
+            }
+        }
+
+        // help with our own tasks while workers are busy
+        for (int n = pendingTasks.size() - 1; n > -1; n--) {
+            final O3CallbackTask task = pendingTasks.getQuick(n);
+            if (task.tryLock()) {
+                O3CallbackJob.runCallbackWithCol(task, -1, null);
             }
         }
-        indexBuilder.clear();
-        path.trimTo(pathTrimToLen);
+
+        doneLatch.await(queuedCount);
+
+        final Throwable th = taskError.getAndSet(null);
+        if (th instanceof RuntimeException) {
+            throw (RuntimeException) th;
+        }
+        if (th instanceof Error) {
+            throw (Error) th;
+        }
+        if (th != null) {
+            throw CairoException.critical(0).put("could not update column [error=").put(th.getMessage()).put(']');
+        }
+    }
+
+    /**
+     * Copies the rest of the partition after the last updated row and re-indexes updated columns.
+     * Columns are independent of each other, so both steps run as a task per column on the O3 worker pool.
+     * Readers are not affected, new values go to the new column version and are only visible after commit.
+     */
+    private void finishPartition(int partitionIndex, int affectedColumnCount, long prevRow, long minRow) {
+        final long partitionTimestamp = tableWriter.getPartitionTimestamp(partitionIndex);
+        LOG.info()
+                .$("finishing partition [partitionTs=").$ts(partitionTimestamp)
+                .$(", affectedColumnCount=").$(affectedColumnCount)
+                .$(", prevRow=").$(prevRow)
+                .$(", minRow=").$(minRow)
+                .I$();
+
+        taskPartitionTimestamp = partitionTimestamp;
+        taskPartitionSize = tableWriter.getPartitionSize(partitionIndex);
+        dispatchColumnTasks(affectedColumnCount, copyColumnTailRef, prevRow, minRow);
+
+        updateEffectiveColumnTops(
+                tableWriter,
+                partitionIndex,
+                updateColumnIndexes,
+                affectedColumnCount,
+                minRow
+        );
+
+        final TableWriterMetadata metadata = tableWriter.getMetadata();
+        boolean indexed = false;
+        for (int i = 0; i < affectedColumnCount; i++) {
+            if (metadata.isColumnIndexed(updateColumnIndexes.getQuick(i))) {
+                IndexBuilder indexBuilder = indexBuilders.getQuiet(i);
+                if (indexBuilder == null) {
+                    indexBuilder = new IndexBuilder();
+                    indexBuilders.extendAndSet(i, indexBuilder);
+                }
+                indexBuilder.of(path.trimTo(rootLen), configuration);
+                indexed = true;
+            }
+        }
+        if (indexed) {
+            dispatchColumnTasks(affectedColumnCount, rebuildColumnIndexRef, partitionTimestamp, 0);
+        }
+    }
+
+    private void rebuildColumnIndex(int affectedColumnIndex, int columnType, long partitionTimestamp, long unused) {
+        final IndexBuilder indexBuilder = indexBuilders.getQuick(affectedColumnIndex);
+        try {
+            final CharSequence columnName = tableWriter.getMetadata().getColumnName(updateColumnIndexes.getQuick(affectedColumnIndex));
+            indexBuilder.reindexAfterUpdate(partitionTimestamp, columnName, tableWriter);
+        } catch (Throwable th) {
+            taskError.compareAndSet(null, th);
+        } finally {
+            indexBuilder.clear();
+        }
     }
 }
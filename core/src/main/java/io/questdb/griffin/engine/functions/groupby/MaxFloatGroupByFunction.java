@@ -52,7 +52,7 @@ public class MaxFloatGroupByFunction extends FloatFunction implements GroupByFun
     public void computeNext(MapValue mapValue, Record record) {
         float max = mapValue.getFloat(valueIndex);
         float next = arg.getFloat(record);
-        if (next > max) {
+        if (next > max || Float.isNaN(max)) {
             mapValue.putFloat(valueIndex, next);
         }
     }
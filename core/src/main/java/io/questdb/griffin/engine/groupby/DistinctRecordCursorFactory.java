@@ -25,20 +25,24 @@
 package io.questdb.griffin.engine.groupby;
 
 import io.questdb.cairo.*;
-import io.questdb.cairo.map.Map;
-import io.questdb.cairo.map.MapFactory;
-import io.questdb.cairo.map.MapKey;
+import io.questdb.cairo.map.*;
 import io.questdb.cairo.sql.*;
 import io.questdb.cairo.sql.Record;
 import io.questdb.griffin.SqlException;
 import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.log.Log;
+import io.questdb.log.LogFactory;
 import io.questdb.std.BytecodeAssembler;
 import io.questdb.std.Misc;
 import io.questdb.std.Transient;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 public class DistinctRecordCursorFactory extends AbstractRecordCursorFactory {
 
+    private static final Log LOG = LogFactory.getLog(DistinctRecordCursorFactory.class);
+    // spilled records are re-read from base cursor by their row id
+    private static final RecordSink ROW_ID_SINK = (r, w) -> w.putLong(r.getRowId());
     private final RecordCursorFactory base;
     private final DistinctRecordCursor cursor;
     // this sink is used to copy recordKeyMap keys to dataMap
@@ -56,13 +60,22 @@ public class DistinctRecordCursorFactory extends AbstractRecordCursorFactory {
         columnFilter.of(metadata.getColumnCount());
         this.mapSink = RecordSinkFactory.getInstance(asm, metadata, columnFilter, false);
         this.base = base;
-        this.cursor = new DistinctRecordCursor(configuration, metadata);
+        // row ids of records with keys that did not fit the map, partitioned by key hash;
+        // base cursor has to be able to read them back
+        MapSpill spill = null;
+        if (configuration.getSqlMapSpillThreshold() > 0 && base.recordCursorSupportsRandomAccess()) {
+            final ArrayColumnTypes rowIdTypes = new ArrayColumnTypes();
+            rowIdTypes.add(ColumnType.LONG);
+            spill = new MapSpill(configuration, rowIdTypes, ROW_ID_SINK, configuration.getSqlMapSpillPartitionCount());
+        }
+        this.cursor = new DistinctRecordCursor(configuration, metadata, spill);
     }
 
     @Override
     protected void _close() {
         base.close();
         cursor.close();
+        Misc.free(cursor.spill);
     }
 
     @Override
@@ -88,15 +101,24 @@ public class DistinctRecordCursorFactory extends AbstractRecordCursorFactory {
     }
 
     private static class DistinctRecordCursor implements RecordCursor {
-        private RecordCursor baseCursor;
         private final Map dataMap;
+        @Nullable
+        private final MapSpill spill;
+        private final long spillThreshold;
+        private RecordCursor baseCursor;
         private RecordSink recordSink;
         private Record record;
         private SqlExecutionCircuitBreaker circuitBreaker;
         private boolean isOpen;
+        private boolean spilling;
+        // partition that is being de-duplicated after base cursor is exhausted, -1 while base is scanned
+        private int partitionIndex;
+        private RecordChain partition;
 
-        public DistinctRecordCursor(CairoConfiguration configuration, RecordMetadata metadata) {
+        public DistinctRecordCursor(CairoConfiguration configuration, RecordMetadata metadata, @Nullable MapSpill spill) {
             this.dataMap = MapFactory.createMap(configuration, metadata);
+            this.spill = spill;
+            this.spillThreshold = configuration.getSqlMapSpillThreshold();
             this.isOpen = true;
         }
 
@@ -106,6 +128,7 @@ public class DistinctRecordCursorFactory extends AbstractRecordCursorFactory {
                 isOpen = false;
                 Misc.free(baseCursor);
                 Misc.free(dataMap);
+                resetSpill();
             }
         }
 
@@ -126,15 +149,37 @@ public class DistinctRecordCursorFactory extends AbstractRecordCursorFactory {
 
         @Override
         public boolean hasNext() {
-            while (baseCursor.hasNext()) {
-                circuitBreaker.statefulThrowExceptionIfTripped();
-                MapKey key = dataMap.withKey();
-                recordSink.copy(record, key);
-                if (key.create()) {
-                    return true;
+            if (partitionIndex == -1) {
+                while (baseCursor.hasNext()) {
+                    circuitBreaker.statefulThrowExceptionIfTripped();
+                    MapKey key = dataMap.withKey();
+                    recordSink.copy(record, key);
+                    if (spilling) {
+                        // map is over its budget, records of keys that are not in the map yet are
+                        // de-duplicated later; hash has to be taken before the lookup, a miss discards the key
+                        final long hash = key.hash();
+                        if (key.findValue() == null) {
+                            spill.put(record, hash);
+                        }
+                    } else if (key.create()) {
+                        if (spill != null && dataMap.getHeapSize() > spillThreshold) {
+                            LOG.info().$("spilling distinct map [heapSize=").$(dataMap.getHeapSize())
+                                    .$(", keys=").$(dataMap.size())
+                                    .$(", threshold=").$(spillThreshold)
+                                    .I$();
+                            spilling = true;
+                        }
+                        return true;
+                    }
+                }
+                if (!spilling) {
+                    return false;
                 }
+                LOG.info().$("de-duplicating spilled distinct [rows=").$(spill.size()).$(", partitions=").$(spill.getPartitionCount()).I$();
+                partitionIndex = 0;
+                partition = null;
             }
-            return false;
+            return nextSpilled();
         }
 
         @Override
@@ -151,6 +196,7 @@ public class DistinctRecordCursorFactory extends AbstractRecordCursorFactory {
         public void toTop() {
             baseCursor.toTop();
             dataMap.clear();
+            resetSpill();
         }
 
         public void of(RecordCursor baseCursor, RecordSink recordSink, SqlExecutionCircuitBreaker circuitBreaker) {
@@ -162,11 +208,49 @@ public class DistinctRecordCursorFactory extends AbstractRecordCursorFactory {
             this.recordSink = recordSink;
             this.record = baseCursor.getRecord();
             this.circuitBreaker = circuitBreaker;
+            resetSpill();
         }
 
         @Override
         public long size() {
             return -1;
         }
+
+        private boolean nextSpilled() {
+            // every key lives in exactly one partition, so each partition
+            // is de-duplicated on its own in the memory the map already holds
+            final int partitionCount = spill.getPartitionCount();
+            while (partitionIndex < partitionCount) {
+                if (partition == null) {
+                    dataMap.clear();
+                    partition = spill.getPartition(partitionIndex);
+                }
+                if (partition != null) {
+                    final Record rowIdRecord = partition.getRecord();
+                    while (partition.hasNext()) {
+                        circuitBreaker.statefulThrowExceptionIfTripped();
+                        baseCursor.recordAt(record, rowIdRecord.getLong(0));
+                        MapKey key = dataMap.withKey();
+                        recordSink.copy(record, key);
+                        if (key.create()) {
+                            return true;
+                        }
+                    }
+                    spill.releasePartition(partitionIndex);
+                    partition = null;
+                }
+                partitionIndex++;
+            }
+            return false;
+        }
+
+        private void resetSpill() {
+            spilling = false;
+            partitionIndex = -1;
+            partition = null;
+            if (spill != null) {
+                spill.clear();
+            }
+        }
     }
 }
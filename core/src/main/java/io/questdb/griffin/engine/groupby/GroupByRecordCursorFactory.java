@@ -25,16 +25,15 @@
 package io.questdb.griffin.engine.groupby;
 
 import io.questdb.cairo.*;
-import io.questdb.cairo.map.Map;
-import io.questdb.cairo.map.MapFactory;
-import io.questdb.cairo.map.MapKey;
-import io.questdb.cairo.map.MapValue;
+import io.questdb.cairo.map.*;
 import io.questdb.cairo.sql.Record;
 import io.questdb.cairo.sql.*;
 import io.questdb.griffin.PlanSink;
 import io.questdb.griffin.SqlException;
 import io.questdb.griffin.SqlExecutionContext;
 import io.questdb.griffin.engine.functions.GroupByFunction;
+import io.questdb.log.Log;
+import io.questdb.log.LogFactory;
 import io.questdb.std.BytecodeAssembler;
 import io.questdb.std.Misc;
 import io.questdb.std.ObjList;
@@ -43,12 +42,18 @@ import org.jetbrains.annotations.NotNull;
 
 public class GroupByRecordCursorFactory extends AbstractRecordCursorFactory {
 
+    private static final Log LOG = LogFactory.getLog(GroupByRecordCursorFactory.class);
     protected final RecordCursorFactory base;
     private final GroupByRecordCursor cursor;
     private final ObjList<Function> recordFunctions;
     private final ObjList<GroupByFunction> groupByFunctions;
     // this sink is used to copy recordKeyMap keys to dataMap
     private final RecordSink mapSink;
+    // base records with keys that did not fit dataMap, partitioned by key hash; null when spilling is disabled
+    private final MapSpill spill;
+    // aggregated map records of each spilled partition
+    private final MapSpill spilledResults;
+    private final long spillThreshold;
 
     public GroupByRecordCursorFactory(
             CairoConfiguration configuration,
@@ -62,15 +67,49 @@ public class GroupByRecordCursorFactory extends AbstractRecordCursorFactory {
             ObjList<Function> recordFunctions
     ) {
         super(groupByMetadata);
+        MapSpill spill = null;
+        MapSpill spilledResults = null;
         // sink will be storing record columns to map key
         try {
             this.mapSink = RecordSinkFactory.getInstance(asm, base.getMetadata(), listColumnFilter, false);
             this.base = base;
             this.groupByFunctions = groupByFunctions;
             this.recordFunctions = recordFunctions;
+            this.spillThreshold = configuration.getSqlMapSpillThreshold();
+            if (spillThreshold > 0) {
+                final EntityColumnFilter entityColumnFilter = new EntityColumnFilter();
+                final RecordMetadata baseMetadata = base.getMetadata();
+                entityColumnFilter.of(baseMetadata.getColumnCount());
+                spill = new MapSpill(
+                        configuration,
+                        baseMetadata,
+                        RecordSinkFactory.getInstance(asm, baseMetadata, entityColumnFilter, false),
+                        configuration.getSqlMapSpillPartitionCount()
+                );
+
+                // map record exposes value columns first, followed by key columns
+                final ArrayColumnTypes mapTypes = new ArrayColumnTypes();
+                for (int i = 0, n = valueTypes.getColumnCount(); i < n; i++) {
+                    mapTypes.add(valueTypes.getColumnType(i));
+                }
+                for (int i = 0, n = keyTypes.getColumnCount(); i < n; i++) {
+                    mapTypes.add(keyTypes.getColumnType(i));
+                }
+                entityColumnFilter.of(mapTypes.getColumnCount());
+                spilledResults = new MapSpill(
+                        configuration,
+                        mapTypes,
+                        RecordSinkFactory.getInstance(asm, mapTypes, entityColumnFilter, false),
+                        1
+                );
+            }
+            this.spill = spill;
+            this.spilledResults = spilledResults;
             this.cursor = new GroupByRecordCursor(recordFunctions, keyTypes, valueTypes, configuration);
         } catch (Throwable e) {
             Misc.freeObjList(recordFunctions);
+            Misc.free(spill);
+            Misc.free(spilledResults);
             throw e;
         }
     }
@@ -80,6 +119,8 @@ public class GroupByRecordCursorFactory extends AbstractRecordCursorFactory {
         Misc.freeObjList(recordFunctions);
         Misc.free(base);
         Misc.free(cursor);
+        Misc.free(spill);
+        Misc.free(spilledResults);
     }
 
     @Override
@@ -139,14 +180,41 @@ public class GroupByRecordCursorFactory extends AbstractRecordCursorFactory {
                 }
                 final Record baseRecord = baseCursor.getRecord();
                 final int n = groupByFunctions.size();
+                boolean spilling = false;
                 while (baseCursor.hasNext()) {
                     circuitBreaker.statefulThrowExceptionIfTripped();
                     final MapKey key = dataMap.withKey();
                     mapSink.copy(baseRecord, key);
-                    MapValue value = key.createValue();
-                    GroupByUtils.updateFunctions(groupByFunctions, n, value, baseRecord);
+                    if (spilling) {
+                        // map is over its budget, only keys already in the map are aggregated in memory;
+                        // hash has to be taken before the lookup, a miss discards the key
+                        final long hash = key.hash();
+                        final MapValue value = key.findValue();
+                        if (value != null) {
+                            GroupByUtils.updateFunctions(groupByFunctions, n, value, baseRecord);
+                        } else {
+                            spill.put(baseRecord, hash);
+                        }
+                    } else {
+                        final MapValue value = key.createValue();
+                        GroupByUtils.updateFunctions(groupByFunctions, n, value, baseRecord);
+                        if (spill != null && value.isNew() && dataMap.getHeapSize() > spillThreshold) {
+                            LOG.info().$("spilling group by map [heapSize=").$(dataMap.getHeapSize())
+                                    .$(", keys=").$(dataMap.size())
+                                    .$(", threshold=").$(spillThreshold)
+                                    .I$();
+                            spill.setSymbolTableResolver(baseCursor);
+                            spilling = true;
+                        }
+                    }
+                }
+
+                if (spilling) {
+                    aggregateSpill(circuitBreaker);
+                    super.of(baseCursor, spilledResults.getPartition(0));
+                } else {
+                    super.of(baseCursor, dataMap.getCursor());
                 }
-                super.of(baseCursor, dataMap.getCursor());
             } catch (Throwable e) {
                 close();
                 throw e;
@@ -159,8 +227,45 @@ public class GroupByRecordCursorFactory extends AbstractRecordCursorFactory {
                 isOpen = false;
                 Misc.free(dataMap);
                 Misc.clearObjList(groupByFunctions);
+                if (spill != null) {
+                    spill.clear();
+                    spilledResults.clear();
+                }
                 super.close();
             }
         }
+
+        private void aggregateSpill(SqlExecutionCircuitBreaker circuitBreaker) {
+            final int n = groupByFunctions.size();
+            final long spilledRows = spill.size();
+            copyToSpilledResults();
+            // every key lives in exactly one partition, so each partition
+            // can be aggregated on its own in the memory the map already holds
+            for (int i = 0, m = spill.getPartitionCount(); i < m; i++) {
+                final RecordChain partition = spill.getPartition(i);
+                if (partition != null) {
+                    dataMap.clear();
+                    final Record record = partition.getRecord();
+                    while (partition.hasNext()) {
+                        circuitBreaker.statefulThrowExceptionIfTripped();
+                        final MapKey key = dataMap.withKey();
+                        mapSink.copy(record, key);
+                        GroupByUtils.updateFunctions(groupByFunctions, n, key.createValue(), record);
+                    }
+                    spill.releasePartition(i);
+                    copyToSpilledResults();
+                }
+            }
+            dataMap.clear();
+            LOG.info().$("aggregated spilled group by [rows=").$(spilledRows).$(", partitions=").$(spill.getPartitionCount()).I$();
+        }
+
+        private void copyToSpilledResults() {
+            final RecordCursor mapCursor = dataMap.getCursor();
+            final Record mapRecord = mapCursor.getRecord();
+            while (mapCursor.hasNext()) {
+                spilledResults.put(mapRecord, 0);
+            }
+        }
     }
 }
@@ -44,6 +44,14 @@ public class InterpolationUtil {
     static final InterpolatorFunction INTERPOLATE_INT = InterpolationUtil::interpolateInt;
     static final InterpolatorFunction INTERPOLATE_LONG = InterpolationUtil::interpolateLong;
 
+    // FILL(NEXT) takes values of the data point following the gap, y2
+    static final InterpolatorFunction FILL_NEXT_DOUBLE = InterpolationUtil::fillNextDouble;
+    static final InterpolatorFunction FILL_NEXT_FLOAT = InterpolationUtil::fillNextFloat;
+    static final InterpolatorFunction FILL_NEXT_BYTE = InterpolationUtil::fillNextByte;
+    static final InterpolatorFunction FILL_NEXT_SHORT = InterpolationUtil::fillNextShort;
+    static final InterpolatorFunction FILL_NEXT_INT = InterpolationUtil::fillNextInt;
+    static final InterpolatorFunction FILL_NEXT_LONG = InterpolationUtil::fillNextLong;
+
     public static void interpolateByte(
             GroupByFunction function,
             MapValue mapValue,
@@ -174,6 +182,30 @@ public class InterpolationUtil {
         );
     }
 
+    static void fillNextByte(GroupByFunction function, MapValue mapValue, long x, long x1, long x2, long y1Address, long y2Address) {
+        function.setByte(mapValue, Unsafe.getUnsafe().getByte(y2Address));
+    }
+
+    static void fillNextDouble(GroupByFunction function, MapValue mapValue, long x, long x1, long x2, long y1Address, long y2Address) {
+        function.setDouble(mapValue, Unsafe.getUnsafe().getDouble(y2Address));
+    }
+
+    static void fillNextFloat(GroupByFunction function, MapValue mapValue, long x, long x1, long x2, long y1Address, long y2Address) {
+        function.setFloat(mapValue, Unsafe.getUnsafe().getFloat(y2Address));
+    }
+
+    static void fillNextInt(GroupByFunction function, MapValue mapValue, long x, long x1, long x2, long y1Address, long y2Address) {
+        function.setInt(mapValue, Unsafe.getUnsafe().getInt(y2Address));
+    }
+
+    static void fillNextLong(GroupByFunction function, MapValue mapValue, long x, long x1, long x2, long y1Address, long y2Address) {
+        function.setLong(mapValue, Unsafe.getUnsafe().getLong(y2Address));
+    }
+
+    static void fillNextShort(GroupByFunction function, MapValue mapValue, long x, long x1, long x2, long y1Address, long y2Address) {
+        function.setShort(mapValue, Unsafe.getUnsafe().getShort(y2Address));
+    }
+
     static void interpolateGap(
             GroupByFunction function,
             MapValue mapValue,
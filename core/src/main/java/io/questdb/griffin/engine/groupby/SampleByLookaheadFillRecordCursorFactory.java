@@ -0,0 +1,665 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.groupby;
+
+import io.questdb.cairo.*;
+import io.questdb.cairo.map.Map;
+import io.questdb.cairo.map.MapFactory;
+import io.questdb.cairo.map.MapKey;
+import io.questdb.cairo.map.MapRecord;
+import io.questdb.cairo.map.MapValue;
+import io.questdb.cairo.map.RecordValueSink;
+import io.questdb.cairo.map.RecordValueSinkFactory;
+import io.questdb.cairo.sql.Record;
+import io.questdb.cairo.sql.*;
+import io.questdb.griffin.SqlException;
+import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.griffin.engine.AbstractVirtualFunctionRecordCursor;
+import io.questdb.griffin.engine.EmptyTableRecordCursor;
+import io.questdb.griffin.engine.functions.GroupByFunction;
+import io.questdb.griffin.engine.functions.columns.TimestampColumn;
+import io.questdb.std.*;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Streaming FILL(LINEAR) and FILL(NEXT) for SAMPLE BY queries where all group-by functions are scalar.
+ * Both fill modes need to look ahead to the next data point of a key before a gap can be filled.
+ * <p>
+ * Like the other keyed fill factories, the cursor reads base cursor twice: the first pass collects
+ * the key values, because every sample has a row for each of them, and the second pass aggregates.
+ * Input is aggregated one sample at a time into a window map. A gap is filled as soon as the next
+ * data point for its key arrives and the window is streamed out and cleared once every key has a data
+ * point in the current sample. Memory is therefore bounded by the longest gap in the data rather than
+ * by the whole result set. Rows leave the window once streamed, so the cursor does not support random
+ * access, same as the FILL(PREV), FILL(NULL) and FILL(VALUE) cursors. FILL(LINEAR) output is identical to
+ * {@link SampleByInterpolateRecordCursorFactory}, which is still used for keyless queries and for two-point
+ * functions, such as haversine distance, that adjust data points adjacent to a gap.
+ */
+public class SampleByLookaheadFillRecordCursorFactory extends AbstractRecordCursorFactory {
+    // key state layout: data point count (0, 1 or 2+), sample and sample ordinal of the last data point,
+    // Y-values of the last data point followed by Y-values of the sample preceding it
+    private static final int STATE_COUNT = 0;
+    private static final int STATE_LAST_X = 1;
+    private static final int STATE_LAST_INDEX = 2;
+    private static final int STATE_Y = 3;
+
+    protected final RecordCursorFactory base;
+    private final SampleByLookaheadFillRecordCursor cursor;
+    private final ObjList<Function> recordFunctions;
+    private final ObjList<GroupByFunction> groupByFunctions;
+    private final ObjList<InterpolationUtil.StoreYFunction> storeYFunctions;
+    private final ObjList<InterpolationUtil.InterpolatorFunction> interpolatorFunctions;
+    private final RecordSink mapSink;
+    // this sink is used to copy keyMap keys to dataMap
+    private final RecordSink mapSink2;
+    // these sinks move rows that cannot be streamed yet to the next window
+    private final RecordSink windowKeySink;
+    private final RecordValueSink windowValueSink;
+    private final int timestampIndex;
+    // index of sample timestamp in data map record
+    private final int timestampColumnIndex;
+    private final TimestampSampler sampler;
+    private final int yDataSize;
+    private final int groupByFunctionCount;
+    private final int statePrevY;
+    // FILL(NEXT) needs a single data point to fill the gaps preceding it, FILL(LINEAR) needs two
+    private final int minDataPoints;
+    private final boolean fillNext;
+    private long yData;
+
+    public SampleByLookaheadFillRecordCursorFactory(
+            CairoConfiguration configuration,
+            RecordCursorFactory base,
+            RecordMetadata metadata,
+            ObjList<GroupByFunction> groupByFunctions,
+            ObjList<Function> recordFunctions,
+            @NotNull TimestampSampler timestampSampler,
+            @Transient @NotNull ListColumnFilter listColumnFilter,
+            @Transient @NotNull BytecodeAssembler asm,
+            @Transient @NotNull ArrayColumnTypes keyTypes,
+            @Transient @NotNull ArrayColumnTypes valueTypes,
+            @Transient @NotNull IntList groupByFunctionPositions,
+            int timestampIndex,
+            boolean fillNext
+    ) throws SqlException {
+        super(metadata);
+        this.groupByFunctions = groupByFunctions;
+        this.recordFunctions = recordFunctions;
+        this.base = base;
+        this.sampler = timestampSampler;
+
+        // create timestamp column
+        this.timestampColumnIndex = valueTypes.getColumnCount() + keyTypes.getColumnCount();
+        TimestampColumn timestampColumn = TimestampColumn.newInstance(timestampColumnIndex);
+        for (int i = 0, n = recordFunctions.size(); i < n; i++) {
+            if (recordFunctions.getQuick(i) == null) {
+                recordFunctions.setQuick(i, timestampColumn);
+            }
+        }
+
+        this.groupByFunctionCount = groupByFunctions.size();
+        this.storeYFunctions = new ObjList<>(groupByFunctionCount);
+        this.interpolatorFunctions = new ObjList<>(groupByFunctionCount);
+        for (int i = 0; i < groupByFunctionCount; i++) {
+            GroupByFunction function = groupByFunctions.getQuick(i);
+            switch (ColumnType.tagOf(function.getType())) {
+                case ColumnType.BYTE:
+                    storeYFunctions.add(InterpolationUtil.STORE_Y_BYTE);
+                    interpolatorFunctions.add(fillNext ? InterpolationUtil.FILL_NEXT_BYTE : InterpolationUtil.INTERPOLATE_BYTE);
+                    break;
+                case ColumnType.SHORT:
+                    storeYFunctions.add(InterpolationUtil.STORE_Y_SHORT);
+                    interpolatorFunctions.add(fillNext ? InterpolationUtil.FILL_NEXT_SHORT : InterpolationUtil.INTERPOLATE_SHORT);
+                    break;
+                case ColumnType.INT:
+                    storeYFunctions.add(InterpolationUtil.STORE_Y_INT);
+                    interpolatorFunctions.add(fillNext ? InterpolationUtil.FILL_NEXT_INT : InterpolationUtil.INTERPOLATE_INT);
+                    break;
+                case ColumnType.LONG:
+                    storeYFunctions.add(InterpolationUtil.STORE_Y_LONG);
+                    interpolatorFunctions.add(fillNext ? InterpolationUtil.FILL_NEXT_LONG : InterpolationUtil.INTERPOLATE_LONG);
+                    break;
+                case ColumnType.DOUBLE:
+                    storeYFunctions.add(InterpolationUtil.STORE_Y_DOUBLE);
+                    interpolatorFunctions.add(fillNext ? InterpolationUtil.FILL_NEXT_DOUBLE : InterpolationUtil.INTERPOLATE_DOUBLE);
+                    break;
+                case ColumnType.FLOAT:
+                    storeYFunctions.add(InterpolationUtil.STORE_Y_FLOAT);
+                    interpolatorFunctions.add(fillNext ? InterpolationUtil.FILL_NEXT_FLOAT : InterpolationUtil.INTERPOLATE_FLOAT);
+                    break;
+                default:
+                    Misc.freeObjList(groupByFunctions);
+                    throw SqlException.$(groupByFunctionPositions.getQuick(i), fillNext ? "Unsupported fill type: " : "Unsupported interpolation type: ")
+                            .put(ColumnType.nameOf(function.getType()));
+            }
+        }
+
+        this.timestampIndex = timestampIndex;
+        this.fillNext = fillNext;
+        this.minDataPoints = fillNext ? 1 : 2;
+        this.yDataSize = groupByFunctionCount * 16;
+        this.statePrevY = STATE_Y + groupByFunctionCount;
+
+        // key map values hold interpolation state of each key
+        final ArrayColumnTypes stateTypes = new ArrayColumnTypes();
+        for (int i = 0, n = STATE_Y + 2 * groupByFunctionCount; i < n; i++) {
+            stateTypes.add(ColumnType.LONG);
+        }
+
+        // sink will be storing record columns to map key
+        this.mapSink = RecordSinkFactory.getInstance(asm, base.getMetadata(), listColumnFilter, false);
+        // key map record has state columns ahead of key columns
+        final ArrayColumnTypes keyMapRecordTypes = new ArrayColumnTypes();
+        for (int i = 0, n = stateTypes.getColumnCount(); i < n; i++) {
+            keyMapRecordTypes.add(stateTypes.getColumnType(i));
+        }
+        final ListColumnFilter keyMapColumnFilter = new ListColumnFilter();
+        for (int i = 0, n = keyTypes.getColumnCount(); i < n; i++) {
+            keyMapRecordTypes.add(keyTypes.getColumnType(i));
+            // column filter indexes are 1-based
+            keyMapColumnFilter.add(stateTypes.getColumnCount() + i + 1);
+        }
+        this.mapSink2 = RecordSinkFactory.getInstance(asm, keyMapRecordTypes, keyMapColumnFilter, false);
+
+        // data map record has values ahead of key columns and sample timestamp
+        final int valueCount = valueTypes.getColumnCount();
+        final ArrayColumnTypes dataMapRecordTypes = new ArrayColumnTypes();
+        for (int i = 0; i < valueCount; i++) {
+            dataMapRecordTypes.add(valueTypes.getColumnType(i));
+        }
+        final ListColumnFilter dataMapColumnFilter = new ListColumnFilter();
+        for (int i = 0, n = keyTypes.getColumnCount(); i < n; i++) {
+            dataMapRecordTypes.add(keyTypes.getColumnType(i));
+            dataMapColumnFilter.add(valueCount + i + 1);
+        }
+        dataMapRecordTypes.add(ColumnType.TIMESTAMP);
+        dataMapColumnFilter.add(dataMapRecordTypes.getColumnCount());
+        this.windowKeySink = RecordSinkFactory.getInstance(asm, dataMapRecordTypes, dataMapColumnFilter, false);
+        final EntityColumnFilter valueColumnFilter = new EntityColumnFilter();
+        valueColumnFilter.of(valueCount);
+        this.windowValueSink = RecordValueSinkFactory.getInstance(asm, valueTypes, valueColumnFilter);
+
+        this.yData = Unsafe.malloc(yDataSize, MemoryTag.NATIVE_FUNC_RSS);
+        try {
+            this.cursor = new SampleByLookaheadFillRecordCursor(recordFunctions, configuration, keyTypes, valueTypes, stateTypes);
+        } catch (Throwable e) {
+            freeYData();
+            throw e;
+        }
+    }
+
+    @Override
+    public RecordCursor getCursor(SqlExecutionContext executionContext) throws SqlException {
+        cursor.reopen();
+        final RecordCursor baseCursor = base.getCursor(executionContext);
+        final Record baseRecord = baseCursor.getRecord();
+        final SqlExecutionCircuitBreaker circuitBreaker = executionContext.getCircuitBreaker();
+        try {
+            // init all record function for this cursor, in case functions require metadata and/or symbol tables
+            Function.init(recordFunctions, baseCursor, executionContext);
+
+            // Collect map of unique key values, every sample has a row for each of them.
+            // We also need the last timestamp to know where the samples end.
+            long lastTimestamp = Numbers.LONG_NaN;
+            while (baseCursor.hasNext()) {
+                circuitBreaker.statefulThrowExceptionIfTripped();
+                final MapKey key = cursor.keyMap.withKey();
+                mapSink.copy(baseRecord, key);
+                key.createValue();
+                lastTimestamp = baseRecord.getTimestamp(timestampIndex);
+            }
+
+            // no data, nothing to do
+            if (cursor.keyMap.size() == 0) {
+                baseCursor.close();
+                cursor.close();
+                return EmptyTableRecordCursor.INSTANCE;
+            }
+
+            baseCursor.toTop();
+            final boolean good = baseCursor.hasNext();
+            assert good;
+            final long timestamp = baseRecord.getTimestamp(timestampIndex);
+            sampler.setStart(timestamp);
+            final long loSample = sampler.round(timestamp);
+            final long hiSample = sampler.nextTimestamp(sampler.round(lastTimestamp));
+            cursor.of(baseCursor, circuitBreaker, loSample, hiSample);
+            return cursor;
+        } catch (Throwable e) {
+            baseCursor.close();
+            cursor.close();
+            throw e;
+        }
+    }
+
+    @Override
+    public boolean recordCursorSupportsRandomAccess() {
+        return false;
+    }
+
+    @Override
+    public boolean usesCompiledFilter() {
+        return base.usesCompiledFilter();
+    }
+
+    @Override
+    protected void _close() {
+        Misc.freeObjList(recordFunctions);
+        freeYData();
+        Misc.free(base);
+        Misc.free(cursor);
+    }
+
+    private void freeYData() {
+        if (yData != 0) {
+            Unsafe.free(yData, yDataSize, MemoryTag.NATIVE_FUNC_RSS);
+            yData = 0;
+        }
+    }
+
+    // copies Y-values from key state to interpolation points, offset 0 is for y1 and 8 is for y2
+    private void loadY(MapValue state, int stateIndex, int offset) {
+        for (int i = 0; i < groupByFunctionCount; i++) {
+            Unsafe.getUnsafe().putLong(yData + i * 16L + offset, state.getLong(stateIndex + i));
+        }
+    }
+
+    private void saveY(MapValue state, int stateIndex, int offset) {
+        for (int i = 0; i < groupByFunctionCount; i++) {
+            state.putLong(stateIndex + i, Unsafe.getUnsafe().getLong(yData + i * 16L + offset));
+        }
+    }
+
+    private void storeY(MapValue value, int offset) {
+        for (int i = 0; i < groupByFunctionCount; i++) {
+            storeYFunctions.getQuick(i).store(groupByFunctions.getQuick(i), value, yData + i * 16L + offset);
+        }
+    }
+
+    class SampleByLookaheadFillRecordCursor extends AbstractVirtualFunctionRecordCursor {
+        private final Map keyMap;
+        private Map dataMap;
+        private Map spareDataMap;
+        private RecordCursor managedCursor;
+        private Record baseRecord;
+        private SqlExecutionCircuitBreaker circuitBreaker;
+        private RecordCursor dataMapCursor;
+        private long loSample;
+        private long hiSample;
+        private long sample;
+        // ordinal of 'sample', used to measure window size
+        private long sampleIndex;
+        // ordinal of the first sample in the window
+        private long windowLoIndex;
+        // samples up to and including this one have their final values
+        private long resolvedSample;
+        private long resolvedSampleIndex;
+        // rows up to and including this sample are streamed out of the window
+        private long streamHi;
+        private long size;
+        private boolean hasBaseRecord;
+        private boolean isLastWindow;
+        private boolean isOpen;
+
+        public SampleByLookaheadFillRecordCursor(
+                ObjList<Function> functions,
+                CairoConfiguration configuration,
+                @Transient @NotNull ArrayColumnTypes keyTypes,
+                @Transient @NotNull ArrayColumnTypes valueTypes,
+                @Transient @NotNull ArrayColumnTypes stateTypes
+        ) {
+            super(functions, false);
+            try {
+                this.keyMap = MapFactory.createMap(configuration, keyTypes, stateTypes);
+                // data map will contain rounded timestamp value as last key column
+                keyTypes.add(ColumnType.TIMESTAMP);
+                this.dataMap = MapFactory.createMap(configuration, keyTypes, valueTypes);
+                this.spareDataMap = MapFactory.createMap(configuration, keyTypes, valueTypes);
+            } catch (Throwable e) {
+                closeMaps();
+                throw e;
+            }
+            this.isOpen = true;
+        }
+
+        @Override
+        public void close() {
+            if (isOpen) {
+                isOpen = false;
+                managedCursor = Misc.free(managedCursor);
+                closeMaps();
+                Misc.clearObjList(groupByFunctions);
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (true) {
+                if (dataMapCursor.hasNext()) {
+                    if (dataMapCursor.getRecord().getTimestamp(timestampColumnIndex) <= streamHi) {
+                        return true;
+                    }
+                    // the rest of the window is not final yet
+                    carryOver();
+                } else if (isLastWindow) {
+                    return false;
+                } else {
+                    dataMap.clear();
+                }
+                fillWindow();
+                dataMapCursor = dataMap.getCursor();
+                of(dataMapCursor);
+            }
+        }
+
+        @Override
+        public long size() {
+            if (size < 0) {
+                long sampleCount = 0;
+                for (long x = loSample; x < hiSample; x = sampler.nextTimestamp(x)) {
+                    sampleCount++;
+                }
+                size = sampleCount * keyMap.size();
+            }
+            return size;
+        }
+
+        @Override
+        public void toTop() {
+            managedCursor.toTop();
+            GroupByUtils.toTop(recordFunctions);
+            start();
+        }
+
+        // moves rows starting at the current one to the spare map, which then becomes the window
+        private void carryOver() {
+            final Record record = dataMapCursor.getRecord();
+            do {
+                final MapKey key = spareDataMap.withKey();
+                windowKeySink.copy(record, key);
+                final MapValue value = key.createValue();
+                windowValueSink.copy(record, value);
+            } while (dataMapCursor.hasNext());
+            dataMap.clear();
+            final Map tmp = dataMap;
+            dataMap = spareDataMap;
+            spareDataMap = tmp;
+        }
+
+        // adds gap rows for keys without data in sample 'x' and interpolates gaps preceding data points in it,
+        // then updates the last sample which has final values for all keys
+        private void closeSample(long x, long xIndex) {
+            final RecordCursor keyCursor = keyMap.getCursor();
+            final MapRecord keyRecord = keyMap.getRecord();
+            boolean resolved = true;
+            long minLastX = Long.MAX_VALUE;
+            long minLastIndex = Long.MAX_VALUE;
+            while (keyCursor.hasNext()) {
+                circuitBreaker.statefulThrowExceptionIfTripped();
+                final MapKey key = dataMap.withKey();
+                mapSink2.copy(keyRecord, key);
+                key.putLong(x);
+                final MapValue value = key.createValue();
+                final MapValue state = keyRecord.getValue();
+                if (value.isNew()) {
+                    value.putByte(0, (byte) 1); // this is a gap
+                } else {
+                    onDataPoint(keyRecord, state, value, x, xIndex);
+                }
+
+                // samples after the last data point of a key are not final, neither are samples
+                // of a key that has too few data points to fill the gaps preceding them
+                if (state.getLong(STATE_COUNT) < minDataPoints) {
+                    resolved = false;
+                } else if (state.getLong(STATE_LAST_INDEX) < minLastIndex) {
+                    minLastX = state.getLong(STATE_LAST_X);
+                    minLastIndex = state.getLong(STATE_LAST_INDEX);
+                }
+            }
+            if (resolved) {
+                resolvedSample = minLastX;
+                resolvedSampleIndex = minLastIndex;
+            }
+        }
+
+        private void closeMaps() {
+            Misc.free(keyMap);
+            Misc.free(dataMap);
+            Misc.free(spareDataMap);
+        }
+
+        private MapValue findDataMapValue(Record record, long timestamp) {
+            final MapKey key = dataMap.withKey();
+            mapSink2.copy(record, key);
+            key.putLong(timestamp);
+            return key.findValue3();
+        }
+
+        private void fillWindow() {
+            final int n = groupByFunctionCount;
+            while (true) {
+                while (hasBaseRecord && sampler.round(baseRecord.getTimestamp(timestampIndex)) == sample) {
+                    // same data group - evaluate group-by functions
+                    final MapKey key = dataMap.withKey();
+                    mapSink.copy(baseRecord, key);
+                    key.putLong(sample);
+                    final MapValue value = key.createValue();
+                    if (value.isNew()) {
+                        value.putByte(0, (byte) 0); // not a gap
+                        for (int i = 0; i < n; i++) {
+                            groupByFunctions.getQuick(i).computeFirst(value, baseRecord);
+                        }
+                    } else {
+                        for (int i = 0; i < n; i++) {
+                            groupByFunctions.getQuick(i).computeNext(value, baseRecord);
+                        }
+                    }
+                    hasBaseRecord = managedCursor.hasNext();
+                    circuitBreaker.statefulThrowExceptionIfTripped();
+                }
+
+                final long x = sample;
+                closeSample(x, sampleIndex);
+                sample = sampler.nextTimestamp(sample);
+                sampleIndex++;
+                GroupByUtils.toTop(groupByFunctions);
+
+                if (sample >= hiSample) {
+                    finish();
+                    isLastWindow = true;
+                    streamHi = Long.MAX_VALUE;
+                    return;
+                }
+
+                // Stream the window out once final samples outnumber the ones to be carried over
+                // to the next window, this way every row is carried over at most a few times.
+                final long streamCount = resolvedSampleIndex - windowLoIndex + 1;
+                if (streamCount > 0 && streamCount >= sampleIndex - resolvedSampleIndex - 1) {
+                    streamHi = resolvedSample;
+                    windowLoIndex = resolvedSampleIndex + 1;
+                    return;
+                }
+            }
+        }
+
+        // fills remaining gaps after the last data point of each key
+        private void finish() {
+            final RecordCursor keyCursor = keyMap.getCursor();
+            final MapRecord keyRecord = keyMap.getRecord();
+            while (keyCursor.hasNext()) {
+                circuitBreaker.statefulThrowExceptionIfTripped();
+                final MapValue state = keyRecord.getValue();
+                final long lastX = state.getLong(STATE_LAST_X);
+                if (fillNext) {
+                    // there is no next value after the last data point
+                    setNull(sampler.nextTimestamp(lastX), keyRecord);
+                } else if (state.getLong(STATE_COUNT) == 1) {
+                    // we only have a single value - cannot interpolate
+                    // make all values before and after it NULL
+                    for (long x = loSample; x < hiSample; x = sampler.nextTimestamp(x)) {
+                        if (x != lastX) {
+                            setNull(findDataMapValue(keyRecord, x));
+                        }
+                    }
+                } else {
+                    final long lo = sampler.nextTimestamp(lastX);
+                    if (lo < hiSample) {
+                        // extrapolate using the last data point and the sample preceding it
+                        loadY(state, statePrevY, 0);
+                        loadY(state, STATE_Y, 8);
+                        interpolate(lo, hiSample, Numbers.LONG_NaN, keyRecord, sampler.previousTimestamp(lastX), lastX);
+                    }
+                }
+            }
+        }
+
+        // fills gaps in [lo, hi) except for the 'skip' sample, y1 and y2 must be loaded beforehand;
+        // returns the value of the last filled sample
+        private MapValue interpolate(long lo, long hi, long skip, Record keyRecord, long x1, long x2) {
+            MapValue result = null;
+            for (long x = lo; x < hi; x = sampler.nextTimestamp(x)) {
+                if (x == skip) {
+                    result = null;
+                    continue;
+                }
+                result = findDataMapValue(keyRecord, x);
+                assert result != null && result.getByte(0) == 1;
+                for (int i = 0; i < groupByFunctionCount; i++) {
+                    interpolatorFunctions.getQuick(i).interpolateAndStore(groupByFunctions.getQuick(i), result, x, x1, x2, yData + i * 16L, yData + i * 16L + 8);
+                }
+                result.putByte(0, (byte) 0); // fill the value, change flag from 'gap' to 'fill'
+            }
+            return result;
+        }
+
+        private void of(RecordCursor baseCursor, SqlExecutionCircuitBreaker circuitBreaker, long loSample, long hiSample) {
+            this.managedCursor = baseCursor;
+            this.baseRecord = baseCursor.getRecord();
+            this.circuitBreaker = circuitBreaker;
+            this.loSample = loSample;
+            this.hiSample = hiSample;
+            this.size = -1;
+            // base cursor is already positioned at the first record
+            resetState();
+            this.hasBaseRecord = true;
+        }
+
+        private void onDataPoint(Record keyRecord, MapValue state, MapValue value, long x, long xIndex) {
+            final long count = state.getLong(STATE_COUNT);
+            final long lastX = state.getLong(STATE_LAST_X);
+            state.putLong(STATE_LAST_X, x);
+            state.putLong(STATE_LAST_INDEX, xIndex);
+            if (fillNext) {
+                // gaps since the previous data point, or since the first sample, take this data point values
+                final long lo = count == 0 ? loSample : sampler.nextTimestamp(lastX);
+                if (lo < x) {
+                    storeY(value, 8);
+                    interpolate(lo, x, Numbers.LONG_NaN, keyRecord, lastX, x);
+                }
+                state.putLong(STATE_COUNT, 1);
+                return;
+            }
+
+            if (count == 0) {
+                // samples before the first data point are interpolated once we have the second one
+                storeY(value, 8);
+                saveY(state, STATE_Y, 8);
+                state.putLong(STATE_COUNT, 1);
+                return;
+            }
+
+            // the second data point also interpolates samples before the first one
+            final long lo = count == 1 ? loSample : sampler.nextTimestamp(lastX);
+            MapValue prev = null;
+            if (lo < x) {
+                loadY(state, STATE_Y, 0);
+                storeY(value, 8);
+                prev = interpolate(lo, x, lastX, keyRecord, lastX, x);
+            }
+
+            // Y-values of the sample preceding 'x' are needed to extrapolate after the last data point
+            if (prev == null) {
+                // it is the previous data point
+                for (int i = 0; i < groupByFunctionCount; i++) {
+                    state.putLong(statePrevY + i, state.getLong(STATE_Y + i));
+                }
+            } else {
+                storeY(prev, 0);
+                saveY(state, statePrevY, 0);
+            }
+            storeY(value, 8);
+            saveY(state, STATE_Y, 8);
+            state.putLong(STATE_COUNT, 2);
+        }
+
+        private void reopen() {
+            if (!isOpen) {
+                isOpen = true;
+                keyMap.reopen();
+                dataMap.reopen();
+                spareDataMap.reopen();
+            }
+        }
+
+        private void resetState() {
+            dataMap.clear();
+            spareDataMap.clear();
+            final RecordCursor keyCursor = keyMap.getCursor();
+            final MapRecord keyRecord = keyMap.getRecord();
+            while (keyCursor.hasNext()) {
+                keyRecord.getValue().putLong(STATE_COUNT, 0);
+            }
+            this.sample = loSample;
+            this.sampleIndex = 0;
+            this.windowLoIndex = 0;
+            this.resolvedSampleIndex = -1;
+            this.streamHi = Long.MIN_VALUE;
+            this.isLastWindow = false;
+            // empty window, the first call to hasNext() fills it
+            this.dataMapCursor = dataMap.getCursor();
+            of(dataMapCursor);
+        }
+
+        private void setNull(MapValue value) {
+            assert value != null && value.getByte(0) == 1; // expect 'gap' flag
+            value.putByte(0, (byte) 0);
+            for (int i = 0; i < groupByFunctionCount; i++) {
+                groupByFunctions.getQuick(i).setNull(value);
+            }
+        }
+
+        // sets gaps in [lo, hiSample) to NULL
+        private void setNull(long lo, Record keyRecord) {
+            for (long x = lo; x < hiSample; x = sampler.nextTimestamp(x)) {
+                setNull(findDataMapValue(keyRecord, x));
+            }
+        }
+
+        private void start() {
+            resetState();
+            this.hasBaseRecord = managedCursor.hasNext();
+        }
+    }
+}
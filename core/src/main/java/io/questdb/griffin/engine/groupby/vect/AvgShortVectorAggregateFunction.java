@@ -0,0 +1,140 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.groupby.vect;
+
+import io.questdb.cairo.ArrayColumnTypes;
+import io.questdb.cairo.ColumnType;
+import io.questdb.cairo.sql.Record;
+import io.questdb.griffin.engine.functions.DoubleFunction;
+import io.questdb.std.Misc;
+import io.questdb.std.Rosti;
+import io.questdb.std.Unsafe;
+import io.questdb.std.str.CharSink;
+
+import java.util.concurrent.atomic.LongAdder;
+
+import static io.questdb.griffin.SqlCodeGenerator.GKK_HOUR_INT;
+
+public class AvgShortVectorAggregateFunction extends DoubleFunction implements VectorAggregateFunction {
+
+    private final LongAdder sum = new LongAdder();
+    private final LongAdder count = new LongAdder();
+    private final int columnIndex;
+    private final KeyValueFunc keyValueFunc;
+    private final KeyValueWidener widener;
+    private int valueOffset;
+
+    public AvgShortVectorAggregateFunction(int keyKind, int columnIndex, int workerCount) {
+        this.columnIndex = columnIndex;
+        if (keyKind == GKK_HOUR_INT) {
+            keyValueFunc = Rosti::keyedHourSumInt;
+        } else {
+            keyValueFunc = Rosti::keyedIntSumInt;
+        }
+        this.widener = new KeyValueWidener(keyKind, ColumnType.SHORT, workerCount);
+    }
+
+    @Override
+    public void aggregate(long address, long addressSize, int columnSizeHint, int workerId) {
+        // SHORT has no null, column top reads as zeroes
+        final long count = addressSize / Short.BYTES;
+        if (address != 0) {
+            sum.add(ScalarAggregates.sumShort(address, count));
+        }
+        this.count.add(count);
+    }
+
+    @Override
+    public boolean aggregate(long pRosti, long keyAddress, long valueAddress, long valueAddressSize, int columnSizeShr, int workerId) {
+        return widener.run(keyValueFunc, pRosti, keyAddress, valueAddress, valueAddressSize / Short.BYTES, valueOffset, workerId);
+    }
+
+    @Override
+    public int getColumnIndex() {
+        return columnIndex;
+    }
+
+    @Override
+    public int getValueOffset() {
+        return valueOffset;
+    }
+
+    @Override
+    public void initRosti(long pRosti) {
+        // as for sums, except we space out values
+        // we will have to replace them with doubles
+        Unsafe.getUnsafe().putLong(Rosti.getInitialValueSlot(pRosti, valueOffset), 0);
+        Unsafe.getUnsafe().putLong(Rosti.getInitialValueSlot(pRosti, valueOffset + 1), 0);
+    }
+
+    @Override
+    public boolean merge(long pRostiA, long pRostiB) {
+        return Rosti.keyedIntSumIntMerge(pRostiA, pRostiB, valueOffset);
+    }
+
+    @Override
+    public void pushValueTypes(ArrayColumnTypes types) {
+        this.valueOffset = types.getColumnCount();
+        types.add(ColumnType.DOUBLE);
+        types.add(ColumnType.LONG);
+    }
+
+    @Override
+    public boolean wrapUp(long pRosti) {
+        widener.close();
+        return Rosti.keyedIntAvgLongWrapUp(pRosti, valueOffset, sum.sum(), count.sum());
+    }
+
+    @Override
+    public void clear() {
+        sum.reset();
+        count.reset();
+    }
+
+    @Override
+    public void close() {
+        Misc.free(widener);
+        super.close();
+    }
+
+    @Override
+    public double getDouble(Record rec) {
+        final long count = this.count.sum();
+        if (count > 0) {
+            return (double) sum.sum() / count;
+        }
+        return Double.NaN;
+    }
+
+    @Override
+    public boolean isReadThreadSafe() {
+        return false;
+    }
+
+    @Override
+    public void toSink(CharSink sink) {
+        sink.put("AvgShortVector(").put(columnIndex).put(')');
+    }
+}
@@ -43,6 +43,7 @@ import io.questdb.mp.Worker;
 import io.questdb.std.*;
 import io.questdb.std.str.CharSink;
 import io.questdb.tasks.VectorAggregateTask;
+import org.jetbrains.annotations.Nullable;
 
 import java.util.concurrent.atomic.AtomicInteger;
 
@@ -186,6 +187,7 @@ public class GroupByRecordCursorFactory extends AbstractRecordCursorFactory {
         oomCounter.set(0);
 
         final MessageBus bus = executionContext.getMessageBus();
+        final QueryMemoryAccount memoryAccount = executionContext.getMemoryAccount();
 
         final PageFrameCursor cursor = base.getPageFrameCursor(executionContext, ORDER_ASC);
         final int vafCount = vafList.size();
@@ -255,9 +257,9 @@ public class GroupByRecordCursorFactory extends AbstractRecordCursorFactory {
                         if (keyAddress != 0 || valueAddress != 0) {
                             final VectorAggregateEntry entry = entryPool.next();
                             if (keyAddress == 0) {
-                                entry.of(queuedCount++, vaf, null, 0, valueAddress, valueAddressSize, columnSizeShr, doneLatch, oomCounter, null);
+                                entry.of(queuedCount++, vaf, null, 0, valueAddress, valueAddressSize, columnSizeShr, doneLatch, oomCounter, null, memoryAccount);
                             } else {
-                                entry.of(queuedCount++, vaf, pRosti, keyAddress, valueAddress, valueAddressSize, columnSizeShr, doneLatch, oomCounter, raf);
+                                entry.of(queuedCount++, vaf, pRosti, keyAddress, valueAddress, valueAddressSize, columnSizeShr, doneLatch, oomCounter, raf, memoryAccount);
                             }
                             activeEntries.add(entry);
                             queue.get(seq).entry = entry;
@@ -284,6 +286,8 @@ public class GroupByRecordCursorFactory extends AbstractRecordCursorFactory {
             reclaimed = GroupByNotKeyedVectorRecordCursorFactory.getRunWhatsLeft(queuedCount, reclaimed, workerId, activeEntries, doneLatch, LOG);
         }
 
+        checkMemoryLimit(memoryAccount, cursor);
+
         if (oomCounter.get() > 0) {
             Misc.free(cursor);
             resetRostiMemorySize();
@@ -349,10 +353,20 @@ public class GroupByRecordCursorFactory extends AbstractRecordCursorFactory {
                 }
             }
         }
+        // merge grows the biggest map
+        checkMemoryLimit(memoryAccount, cursor);
         LOG.info().$("done [total=").$(total).$(", ownCount=").$(ownCount).$(", reclaimed=").$(reclaimed).$(", queuedCount=").$(queuedCount).$(']').$();
         return this.cursor.of(pRostiBig, cursor);
     }
 
+    private void checkMemoryLimit(@Nullable QueryMemoryAccount memoryAccount, PageFrameCursor cursor) {
+        if (memoryAccount != null && memoryAccount.isLimitExceeded()) {
+            Misc.free(cursor);
+            resetRostiMemorySize();
+            memoryAccount.checkLimit();
+        }
+    }
+
     private void resetRostiMemorySize() {
         for (int i = 0, n = pRosti.length; i < n; i++) {
             if (!raf.reset(pRosti[i], ROSTI_MINIMIZED_SIZE)) {
@@ -526,7 +540,8 @@ public class GroupByRecordCursorFactory extends AbstractRecordCursorFactory {
 
             @Override
             public float getFloat(int col) {
-                return 0;
+                // FLOAT aggregates are computed by DOUBLE kernels and map stores them as such
+                return (float) getDouble(col);
             }
 
             @Override
@@ -0,0 +1,128 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.groupby.vect;
+
+import io.questdb.cairo.ColumnType;
+import io.questdb.std.MemoryTag;
+import io.questdb.std.Unsafe;
+import io.questdb.std.Vect;
+
+import java.io.Closeable;
+
+import static io.questdb.griffin.SqlCodeGenerator.GKK_HOUR_INT;
+
+/**
+ * Feeds keyed Rosti kernels with values of column types they don't have kernels for.
+ * Values are widened to DOUBLE (FLOAT) or INT (SHORT, BYTE) in chunks, which are small enough
+ * to stay in cache, and every chunk is aggregated along with the matching slice of keys.
+ * Column top of FLOAT column should not get here, it is null and its keys are only
+ * registered via distinct kernel.
+ * <p>
+ * Chunks are allocated on first use by every worker and are only needed while frames are being
+ * aggregated, owning functions release them in wrapUp() so that memory is not held by an idle factory.
+ */
+class KeyValueWidener implements Closeable {
+    private static final int CHUNK_ROWS = 4096;
+    private static final long CHUNK_SIZE = CHUNK_ROWS * (long) Double.BYTES;
+    private final long[] chunks;
+    private final int keySizeShr;
+    private final int valueType;
+
+    KeyValueWidener(int keyKind, int valueType, int workerCount) {
+        // hour keys are derived from timestamps
+        this.keySizeShr = keyKind == GKK_HOUR_INT ? 3 : 2;
+        this.valueType = valueType;
+        this.chunks = new long[workerCount];
+    }
+
+    @Override
+    public void close() {
+        for (int i = 0, n = chunks.length; i < n; i++) {
+            if (chunks[i] != 0) {
+                Unsafe.free(chunks[i], CHUNK_SIZE, MemoryTag.NATIVE_FUNC_RSS);
+                chunks[i] = 0;
+            }
+        }
+    }
+
+    boolean run(KeyValueFunc func, long pRosti, long keyAddress, long valueAddress, long count, int valueOffset, int workerId) {
+        long chunk = chunks[workerId];
+        if (chunk == 0) {
+            chunk = chunks[workerId] = Unsafe.malloc(CHUNK_SIZE, MemoryTag.NATIVE_FUNC_RSS);
+        }
+        final int valueSizeShr = ColumnType.pow2SizeOf(valueType);
+        for (long lo = 0; lo < count; lo += CHUNK_ROWS) {
+            final long n = Math.min(CHUNK_ROWS, count - lo);
+            final long pValues = valueAddress + (lo << valueSizeShr);
+            if (valueAddress == 0) {
+                // column top, SHORT and BYTE have no nulls, so it reads as zeroes
+                Vect.memset(chunk, n << 2, 0);
+            } else {
+                switch (valueType) {
+                    case ColumnType.FLOAT:
+                        widenFloatToDouble(pValues, n, chunk);
+                        break;
+                    case ColumnType.SHORT:
+                        widenShortToInt(pValues, n, chunk);
+                        break;
+                    default:
+                        widenByteToInt(pValues, n, chunk);
+                        break;
+                }
+            }
+            if (!func.run(pRosti, keyAddress + (lo << keySizeShr), chunk, n, valueOffset)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Widens signed bytes to ints, so that they can be fed to INT kernels.
+     */
+    static void widenByteToInt(long pByte, long count, long pInt) {
+        for (long i = 0; i < count; i++) {
+            Unsafe.getUnsafe().putInt(pInt + (i << 2), Unsafe.getUnsafe().getByte(pByte + i));
+        }
+    }
+
+    /**
+     * Widens floats to doubles, so that they can be fed to DOUBLE kernels. Null (NaN) stays null.
+     */
+    static void widenFloatToDouble(long pFloat, long count, long pDouble) {
+        for (long i = 0; i < count; i++) {
+            Unsafe.getUnsafe().putDouble(pDouble + (i << 3), Unsafe.getUnsafe().getFloat(pFloat + (i << 2)));
+        }
+    }
+
+    /**
+     * Widens shorts to ints, so that they can be fed to INT kernels.
+     */
+    static void widenShortToInt(long pShort, long count, long pInt) {
+        for (long i = 0; i < count; i++) {
+            Unsafe.getUnsafe().putInt(pInt + (i << 2), Unsafe.getUnsafe().getShort(pShort + (i << 1)));
+        }
+    }
+}
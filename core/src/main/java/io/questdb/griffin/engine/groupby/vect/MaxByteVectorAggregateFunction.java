@@ -0,0 +1,132 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.groupby.vect;
+
+import io.questdb.cairo.ArrayColumnTypes;
+import io.questdb.cairo.ColumnType;
+import io.questdb.cairo.sql.Record;
+import io.questdb.griffin.engine.functions.IntFunction;
+import io.questdb.std.Misc;
+import io.questdb.std.Numbers;
+import io.questdb.std.Rosti;
+import io.questdb.std.Unsafe;
+import io.questdb.std.str.CharSink;
+
+import java.util.concurrent.atomic.LongAccumulator;
+
+import static io.questdb.griffin.SqlCodeGenerator.GKK_HOUR_INT;
+
+public class MaxByteVectorAggregateFunction extends IntFunction implements VectorAggregateFunction {
+
+    private final LongAccumulator accumulator = new LongAccumulator(
+            MaxIntVectorAggregateFunction.MAX, Integer.MIN_VALUE
+    );
+    private final int columnIndex;
+    private final KeyValueFunc keyValueFunc;
+    private final KeyValueWidener widener;
+    private int valueOffset;
+
+    public MaxByteVectorAggregateFunction(int keyKind, int columnIndex, int workerCount) {
+        this.columnIndex = columnIndex;
+        if (keyKind == GKK_HOUR_INT) {
+            this.keyValueFunc = Rosti::keyedHourMaxInt;
+        } else {
+            this.keyValueFunc = Rosti::keyedIntMaxInt;
+        }
+        this.widener = new KeyValueWidener(keyKind, ColumnType.BYTE, workerCount);
+    }
+
+    @Override
+    public void aggregate(long address, long addressSize, int columnSizeHint, int workerId) {
+        // BYTE has no null, column top reads as zeroes
+        final int value = address != 0 ? ScalarAggregates.maxByte(address, addressSize / Byte.BYTES) : 0;
+        if (value != Numbers.INT_NaN) {
+            accumulator.accumulate(value);
+        }
+    }
+
+    @Override
+    public boolean aggregate(long pRosti, long keyAddress, long valueAddress, long valueAddressSize, int columnSizeShr, int workerId) {
+        return widener.run(keyValueFunc, pRosti, keyAddress, valueAddress, valueAddressSize / Byte.BYTES, valueOffset, workerId);
+    }
+
+    @Override
+    public int getColumnIndex() {
+        return columnIndex;
+    }
+
+    @Override
+    public int getValueOffset() {
+        return valueOffset;
+    }
+
+    @Override
+    public void initRosti(long pRosti) {
+        Unsafe.getUnsafe().putInt(Rosti.getInitialValueSlot(pRosti, this.valueOffset), Integer.MIN_VALUE);
+    }
+
+    @Override
+    public boolean merge(long pRostiA, long pRostiB) {
+        return Rosti.keyedIntMaxIntMerge(pRostiA, pRostiB, valueOffset);
+    }
+
+    @Override
+    public void pushValueTypes(ArrayColumnTypes types) {
+        valueOffset = types.getColumnCount();
+        types.add(ColumnType.INT);
+    }
+
+    @Override
+    public boolean wrapUp(long pRosti) {
+        widener.close();
+        return Rosti.keyedIntMaxIntWrapUp(pRosti, valueOffset, accumulator.intValue());
+    }
+
+    @Override
+    public void clear() {
+        accumulator.reset();
+    }
+
+    @Override
+    public void close() {
+        Misc.free(widener);
+        super.close();
+    }
+
+    @Override
+    public int getInt(Record rec) {
+        return accumulator.intValue();
+    }
+
+    @Override
+    public boolean isReadThreadSafe() {
+        return false;
+    }
+
+    @Override
+    public void toSink(CharSink sink) {
+        sink.put("MaxByteVector(").put(columnIndex).put(')');
+    }
+}
@@ -0,0 +1,165 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.groupby.vect;
+
+import io.questdb.std.Numbers;
+import io.questdb.std.Unsafe;
+import io.questdb.std.Vect;
+
+/**
+ * Non-keyed aggregates over FLOAT, SHORT and BYTE columns. Native library has SIMD kernels for
+ * INT, LONG and DOUBLE only (see {@link Vect}), these are plain scalar loops over page frame memory
+ * that keep the same null conventions as their native counterparts.
+ */
+final class ScalarAggregates {
+
+    private ScalarAggregates() {
+    }
+
+    /**
+     * Same contract as {@link Vect#avgDoubleAcc(long, long, long)}.
+     */
+    static double avgFloatAcc(long pFloat, long count, long pCount) {
+        double sum = 0;
+        long n = 0;
+        for (long p = pFloat, hi = pFloat + count * Float.BYTES; p < hi; p += Float.BYTES) {
+            final float v = Unsafe.getUnsafe().getFloat(p);
+            if (v == v) {
+                sum += v;
+                n++;
+            }
+        }
+        Unsafe.getUnsafe().putLong(pCount, n);
+        return n > 0 ? sum / n : Double.NaN;
+    }
+
+    static int maxByte(long pByte, long count) {
+        if (count == 0) {
+            return Numbers.INT_NaN;
+        }
+        int max = Byte.MIN_VALUE;
+        for (long p = pByte, hi = pByte + count; p < hi; p++) {
+            max = Math.max(max, Unsafe.getUnsafe().getByte(p));
+        }
+        return max;
+    }
+
+    static float maxFloat(long pFloat, long count) {
+        float max = Float.NEGATIVE_INFINITY;
+        boolean found = false;
+        for (long p = pFloat, hi = pFloat + count * Float.BYTES; p < hi; p += Float.BYTES) {
+            final float v = Unsafe.getUnsafe().getFloat(p);
+            if (v == v) {
+                if (v > max) {
+                    max = v;
+                }
+                found = true;
+            }
+        }
+        return found ? max : Float.NaN;
+    }
+
+    static int maxShort(long pShort, long count) {
+        if (count == 0) {
+            return Numbers.INT_NaN;
+        }
+        int max = Short.MIN_VALUE;
+        for (long p = pShort, hi = pShort + count * Short.BYTES; p < hi; p += Short.BYTES) {
+            max = Math.max(max, Unsafe.getUnsafe().getShort(p));
+        }
+        return max;
+    }
+
+    static int minByte(long pByte, long count) {
+        if (count == 0) {
+            return Numbers.INT_NaN;
+        }
+        int min = Byte.MAX_VALUE;
+        for (long p = pByte, hi = pByte + count; p < hi; p++) {
+            min = Math.min(min, Unsafe.getUnsafe().getByte(p));
+        }
+        return min;
+    }
+
+    static float minFloat(long pFloat, long count) {
+        float min = Float.POSITIVE_INFINITY;
+        boolean found = false;
+        for (long p = pFloat, hi = pFloat + count * Float.BYTES; p < hi; p += Float.BYTES) {
+            final float v = Unsafe.getUnsafe().getFloat(p);
+            if (v == v) {
+                if (v < min) {
+                    min = v;
+                }
+                found = true;
+            }
+        }
+        return found ? min : Float.NaN;
+    }
+
+    static int minShort(long pShort, long count) {
+        if (count == 0) {
+            return Numbers.INT_NaN;
+        }
+        int min = Short.MAX_VALUE;
+        for (long p = pShort, hi = pShort + count * Short.BYTES; p < hi; p += Short.BYTES) {
+            min = Math.min(min, Unsafe.getUnsafe().getShort(p));
+        }
+        return min;
+    }
+
+    static long sumByte(long pByte, long count) {
+        long sum = 0;
+        for (long p = pByte, hi = pByte + count; p < hi; p++) {
+            sum += Unsafe.getUnsafe().getByte(p);
+        }
+        return sum;
+    }
+
+    /**
+     * Sums non-null FLOAT values using double accumulator.
+     *
+     * @return sum or NaN when all values are null
+     */
+    static double sumFloat(long pFloat, long count) {
+        double sum = 0;
+        boolean found = false;
+        for (long p = pFloat, hi = pFloat + count * Float.BYTES; p < hi; p += Float.BYTES) {
+            final float v = Unsafe.getUnsafe().getFloat(p);
+            if (v == v) {
+                sum += v;
+                found = true;
+            }
+        }
+        return found ? sum : Double.NaN;
+    }
+
+    static long sumShort(long pShort, long count) {
+        long sum = 0;
+        for (long p = pShort, hi = pShort + count * Short.BYTES; p < hi; p += Short.BYTES) {
+            sum += Unsafe.getUnsafe().getShort(p);
+        }
+        return sum;
+    }
+}
@@ -40,24 +40,35 @@ public class VectorAggregateEntry extends AbstractLockable implements Mutable {
     private CountDownLatchSPI doneLatch;
     private AtomicInteger oomCounter;
     private RostiAllocFacade raf;
+    private QueryMemoryAccount memoryAccount;
 
     @Override
     public void clear() {
         this.valueAddress = 0;
         this.valueCount = 0;
         func = null;
+        memoryAccount = null;
     }
 
     public boolean run(int workerId) {
         if (tryLock()) {
-            if (pRosti != null) {
-                long oldSize = Rosti.getAllocMemory(pRosti[workerId]);
-                if (!func.aggregate(pRosti[workerId], keyAddress, valueAddress, valueCount, columnSizeShr, workerId)) {
-                    oomCounter.incrementAndGet();
+            // map growth is charged to the query that published the task
+            final QueryMemoryAccount previousAccount = QueryMemoryAccount.swap(memoryAccount);
+            try {
+                if (pRosti != null) {
+                    // there is no point growing maps of the query that is over its memory budget
+                    if (memoryAccount == null || !memoryAccount.isLimitExceeded()) {
+                        long oldSize = Rosti.getAllocMemory(pRosti[workerId]);
+                        if (!func.aggregate(pRosti[workerId], keyAddress, valueAddress, valueCount, columnSizeShr, workerId)) {
+                            oomCounter.incrementAndGet();
+                        }
+                        raf.updateMemoryUsage(pRosti[workerId], oldSize);
+                    }
+                } else {
+                    func.aggregate(valueAddress, valueCount, columnSizeShr, workerId);
                 }
-                raf.updateMemoryUsage(pRosti[workerId], oldSize);
-            } else {
-                func.aggregate(valueAddress, valueCount, columnSizeShr, workerId);
+            } finally {
+                QueryMemoryAccount.swap(previousAccount);
             }
             doneLatch.countDown();
             return true;
@@ -76,7 +87,8 @@ public class VectorAggregateEntry extends AbstractLockable implements Mutable {
             CountDownLatchSPI doneLatch,
             // oom is not possible when aggregation is not keyed
             @Nullable AtomicInteger oomCounter,
-            RostiAllocFacade raf
+            RostiAllocFacade raf,
+            @Nullable QueryMemoryAccount memoryAccount
     ) {
         of(sequence);
         this.pRosti = pRosti;
@@ -88,5 +100,6 @@ public class VectorAggregateEntry extends AbstractLockable implements Mutable {
         this.doneLatch = doneLatch;
         this.oomCounter = oomCounter;
         this.raf = raf;
+        this.memoryAccount = memoryAccount;
     }
 }
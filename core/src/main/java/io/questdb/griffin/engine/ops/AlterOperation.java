@@ -50,6 +50,10 @@ public class AlterOperation extends AbstractOperation implements Mutable {
     public final static short SET_PARAM_MAX_UNCOMMITTED_ROWS = 10;
     public final static short SET_PARAM_COMMIT_LAG = 11;
     public final static short DETACH_PARTITION = 12;
+    public final static short SET_PARAM_TTL = 13;
+    public final static short ADD_BLOOM_FILTER = 14;
+    public final static short DROP_BLOOM_FILTER = 15;
+    public final static short REMOVE_EXPIRED_PARTITIONS = 16;
 
     private final static Log LOG = LogFactory.getLog(AlterOperation.class);
 
@@ -106,6 +110,12 @@ public class AlterOperation extends AbstractOperation implements Mutable {
                 case DROP_INDEX:
                     applyDropIndex(tableWriter);
                     break;
+                case ADD_BLOOM_FILTER:
+                    applySetBloomFilter(tableWriter, true);
+                    break;
+                case DROP_BLOOM_FILTER:
+                    applySetBloomFilter(tableWriter, false);
+                    break;
                 case ADD_SYMBOL_CACHE:
                     applySetSymbolCache(tableWriter, true);
                     break;
@@ -118,6 +128,12 @@ public class AlterOperation extends AbstractOperation implements Mutable {
                 case SET_PARAM_COMMIT_LAG:
                     applyParamCommitLag(tableWriter);
                     break;
+                case SET_PARAM_TTL:
+                    applyParamTtl(tableWriter);
+                    break;
+                case REMOVE_EXPIRED_PARTITIONS:
+                    applyRemoveExpiredPartitions(tableWriter);
+                    break;
                 default:
                     LOG.error().$("Invalid alter table command [code=").$(command).$(" ,table=").$(tableName).I$();
                     throw SqlException.$(tableNamePosition, "Invalid alter table command [code=").put(command).put(']');
@@ -266,6 +282,23 @@ public class AlterOperation extends AbstractOperation implements Mutable {
         }
     }
 
+    private void applySetBloomFilter(TableWriter tableWriter, boolean enabled) throws SqlException {
+        CharSequence columnName = charSequenceList.getStrA(0);
+        try {
+            if (enabled) {
+                tableWriter.addBloomFilter(columnName);
+            } else {
+                tableWriter.dropBloomFilter(columnName);
+            }
+        } catch (CairoException e) {
+            throw SqlException.position(tableNamePosition)
+                    .put(e.getFlyweightMessage())
+                    .put("[errno=")
+                    .put(e.getErrno())
+                    .put(']');
+        }
+    }
+
     private void applyAttachPartition(TableWriter tableWriter) throws SqlException {
         for (int i = 0, n = longList.size(); i < n; i++) {
             long partitionTimestamp = longList.getQuick(i);
@@ -359,11 +392,20 @@ public class AlterOperation extends AbstractOperation implements Mutable {
         tableWriter.setMetaCommitLag(commitLag);
     }
 
+    private void applyParamTtl(TableWriter tableWriter) {
+        long ttl = longList.get(0);
+        tableWriter.setMetaTtl(ttl);
+    }
+
     private void applyParamUncommittedRows(TableWriter tableWriter) {
         int maxUncommittedRows = (int) longList.get(0);
         tableWriter.setMetaMaxUncommittedRows(maxUncommittedRows);
     }
 
+    private void applyRemoveExpiredPartitions(TableWriter tableWriter) {
+        tableWriter.removeExpiredPartitions(longList.get(0) != 0);
+    }
+
     private void applyRenameColumn(TableWriter writer) throws SqlException {
         // To not store 2 var len fields, store only new name as CharSequence
         // and index of existing column store as
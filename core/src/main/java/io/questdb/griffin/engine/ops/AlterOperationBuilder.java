@@ -66,6 +66,15 @@ public class AlterOperationBuilder {
         return this;
     }
 
+    public AlterOperationBuilder ofAddBloomFilter(int tableNamePosition, String tableName, int tableId, CharSequence columnName) {
+        this.command = ADD_BLOOM_FILTER;
+        this.tableNamePosition = tableNamePosition;
+        this.tableName = tableName;
+        this.tableId = tableId;
+        this.objCharList.add(columnName);
+        return this;
+    }
+
     public AlterOperationBuilder ofAddIndex(int tableNamePosition, String tableName, int tableId, CharSequence columnName, int indexValueBlockSize) {
         this.command = ADD_INDEX;
         this.tableNamePosition = tableNamePosition;
@@ -76,6 +85,15 @@ public class AlterOperationBuilder {
         return this;
     }
 
+    public AlterOperationBuilder ofDropBloomFilter(int tableNamePosition, String tableName, int tableId, CharSequence columnName) {
+        this.command = DROP_BLOOM_FILTER;
+        this.tableNamePosition = tableNamePosition;
+        this.tableName = tableName;
+        this.tableId = tableId;
+        this.objCharList.add(columnName);
+        return this;
+    }
+
     public AlterOperationBuilder ofDropIndex(int tableNamePosition, String tableName, int tableId, CharSequence columnName) {
         this.command = DROP_INDEX;
         this.tableNamePosition = tableNamePosition;
@@ -142,6 +160,14 @@ public class AlterOperationBuilder {
         return this;
     }
 
+    public AlterOperationBuilder ofRemoveExpiredPartitions(String tableName, int tableId, boolean detach) {
+        this.command = REMOVE_EXPIRED_PARTITIONS;
+        this.tableName = tableName;
+        this.longList.add(detach ? 1 : 0);
+        this.tableId = tableId;
+        return this;
+    }
+
     public AlterOperationBuilder ofRenameColumn(int tableNamePosition, String tableName, int tableId) {
         this.command = RENAME_COLUMN;
         this.tableNamePosition = tableNamePosition;
@@ -158,6 +184,14 @@ public class AlterOperationBuilder {
         return this;
     }
 
+    public AlterOperationBuilder ofSetParamTtl(String tableName, int tableId, long ttl) {
+        this.command = SET_PARAM_TTL;
+        this.tableName = tableName;
+        this.longList.add(ttl);
+        this.tableId = tableId;
+        return this;
+    }
+
     public AlterOperationBuilder ofSetParamUncommittedRows(String tableName, int tableId, int maxUncommittedRows) {
         this.command = SET_PARAM_MAX_UNCOMMITTED_ROWS;
         this.tableName = tableName;
@@ -95,11 +95,15 @@ public class CopyFactory extends AbstractRecordCursorFactory {
 
         long inProgressImportId = textImportExecutionContext.getActiveImportId();
         if (inProgressImportId == TextImportExecutionContext.INACTIVE) {
+            // HTTP import may take the id between the check above and the assignment
+            final long importId = textImportExecutionContext.tryAssignActiveImportId();
+            if (importId == TextImportExecutionContext.INACTIVE) {
+                throw SqlException.$(0, "Unable to process the import request. Import already in progress.");
+            }
+
             long processingCursor = textImportRequestPubSeq.next();
             if (processingCursor > -1) {
                 final TextImportRequestTask task = textImportRequestQueue.get(processingCursor);
-
-                long importId = textImportExecutionContext.assignActiveImportId();
                 task.of(
                         importId,
                         tableName,
@@ -109,7 +113,8 @@ public class CopyFactory extends AbstractRecordCursorFactory {
                         delimiter,
                         timestampFormat,
                         partitionBy,
-                        atomicity
+                        atomicity,
+                        false
                 );
 
                 circuitBreaker.reset();
@@ -121,6 +126,7 @@ public class CopyFactory extends AbstractRecordCursorFactory {
                 cursor.toTop();
                 return cursor;
             } else {
+                textImportExecutionContext.resetActiveImportId();
                 throw SqlException.$(0, "Unable to process the import request. Another import request may be in progress.");
             }
         }
@@ -0,0 +1,304 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.table;
+
+import io.questdb.MessageBus;
+import io.questdb.cairo.ArrayColumnTypes;
+import io.questdb.cairo.CairoConfiguration;
+import io.questdb.cairo.CairoException;
+import io.questdb.cairo.ColumnTypes;
+import io.questdb.cairo.RecordSink;
+import io.questdb.cairo.TableReader;
+import io.questdb.cairo.map.Map;
+import io.questdb.cairo.map.MapKey;
+import io.questdb.cairo.sql.DataFrame;
+import io.questdb.cairo.sql.Function;
+import io.questdb.griffin.SqlException;
+import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.mp.RingQueue;
+import io.questdb.mp.SOUnboundedCountDownLatch;
+import io.questdb.mp.Sequence;
+import io.questdb.std.*;
+import io.questdb.tasks.LatestByAllTask;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Backward scan for "latest by" over arbitrary keys. When the shared worker pool is
+ * available, partition frames are split into row chunks which are scanned in parallel.
+ * Chunks are taken from the newest rows first and merged in the same order, which
+ * keeps the result identical to the single-threaded scan.
+ */
+abstract class AbstractLatestByAllRecordCursor extends AbstractDescendingRecordListCursor {
+    private final CairoConfiguration configuration;
+    private final Map map;
+    private final RecordSink recordSink;
+    private final ArrayColumnTypes keyTypes = new ArrayColumnTypes();
+    private final IntList symbolKeyColumnIndexes;
+    private final ObjList<LatestByAllChunk> chunks = new ObjList<>();
+    private final SOUnboundedCountDownLatch doneLatch = new SOUnboundedCountDownLatch();
+
+    public AbstractLatestByAllRecordCursor(
+            @NotNull CairoConfiguration configuration,
+            @NotNull Map map,
+            @NotNull DirectLongList rows,
+            @NotNull RecordSink recordSink,
+            @Transient @NotNull ColumnTypes keyTypes,
+            @Nullable IntList symbolKeyColumnIndexes,
+            @NotNull IntList columnIndexes
+    ) {
+        super(rows, columnIndexes);
+        this.configuration = configuration;
+        this.map = map;
+        this.recordSink = recordSink;
+        for (int i = 0, n = keyTypes.getColumnCount(); i < n; i++) {
+            this.keyTypes.add(keyTypes.getColumnType(i));
+        }
+        this.symbolKeyColumnIndexes = symbolKeyColumnIndexes;
+    }
+
+    @Override
+    public void close() {
+        if (isOpen()) {
+            map.close();
+            for (int i = 0, n = chunks.size(); i < n; i++) {
+                chunks.getQuick(i).close();
+            }
+            super.close();
+        }
+    }
+
+    private static void rethrow(Throwable e) {
+        if (e instanceof RuntimeException) {
+            throw (RuntimeException) e;
+        }
+        if (e instanceof Error) {
+            throw (Error) e;
+        }
+        throw CairoException.critical(0).put(e.getMessage());
+    }
+
+    private int getChunkCount(SqlExecutionContext executionContext, @Nullable Function filter, @Nullable ObjList<Function> workerFilters) {
+        if (!configuration.isSqlParallelLatestByEnabled()) {
+            return 1;
+        }
+        int chunkCount = executionContext.getSharedWorkerCount();
+        if (filter != null && !filter.isReadThreadSafe()) {
+            chunkCount = workerFilters != null ? Math.min(chunkCount, workerFilters.size()) : 1;
+        }
+        return chunkCount;
+    }
+
+    /**
+     * Upper bound of distinct keys when every key column is a symbol: product of symbol
+     * counts, each incremented to account for null. Scan stops as soon as this many
+     * keys are found. Returns -1 when the bound is not known.
+     */
+    private long getKeyCount() {
+        if (symbolKeyColumnIndexes == null) {
+            return -1;
+        }
+        long keyCount = 1;
+        for (int i = 0, n = symbolKeyColumnIndexes.size(); i < n; i++) {
+            final long symbolCount = getSymbolTable(symbolKeyColumnIndexes.getQuick(i)).getSymbolCount() + 1;
+            if (keyCount > Long.MAX_VALUE / symbolCount) {
+                return -1;
+            }
+            keyCount *= symbolCount;
+        }
+        return keyCount;
+    }
+
+    private boolean mergeChunks(int chunkCount, long keyCount) {
+        for (int i = 0; i < chunkCount; i++) {
+            final LatestByAllChunk chunk = chunks.getQuick(i);
+            final Throwable error = chunk.getError();
+            if (error != null) {
+                rethrow(error);
+            }
+            final int partitionIndex = chunk.getPartitionIndex();
+            final DirectLongList found = chunk.getRows();
+            for (long j = 0, n = found.size(); j < n; j++) {
+                final long row = found.get(j);
+                recordA.jumpTo(partitionIndex, row);
+                MapKey key = map.withKey();
+                key.put(recordA, recordSink);
+                if (key.create()) {
+                    rows.add(Rows.toRowID(partitionIndex, row));
+                    if (map.size() == keyCount) {
+                        return true;
+                    }
+                }
+            }
+        }
+        return false;
+    }
+
+    private void prepareChunks(int chunkCount, @Nullable Function filter, @Nullable ObjList<Function> workerFilters) {
+        final TableReader reader = dataFrameCursor.getTableReader();
+        for (int i = 0; i < chunkCount; i++) {
+            if (i == chunks.size()) {
+                chunks.add(new LatestByAllChunk(configuration, keyTypes, recordSink, columnIndexes));
+            }
+            final Function chunkFilter = filter == null || filter.isReadThreadSafe() ? filter : workerFilters.getQuick(i);
+            chunks.getQuick(i).of(reader, chunkFilter);
+        }
+    }
+
+    private void scanParallel(
+            SqlExecutionContext executionContext,
+            @Nullable Function filter,
+            @Nullable ObjList<Function> workerFilters,
+            int maxChunkCount,
+            long keyCount
+    ) {
+        final MessageBus bus = executionContext.getMessageBus();
+        final RingQueue<LatestByAllTask> queue = bus.getLatestByAllQueue();
+        final Sequence pubSeq = bus.getLatestByAllPubSeq();
+        final Sequence subSeq = bus.getLatestByAllSubSeq();
+        final long minChunkSize = configuration.getSqlParallelLatestByMinChunkSize();
+
+        prepareChunks(maxChunkCount, filter, workerFilters);
+
+        int partitionIndex = -1;
+        long rowLo = 0;
+        long rowHi = -1;
+        long chunkSize = minChunkSize;
+        while (true) {
+            // cut the next batch of chunks off the remaining rows, newest rows first,
+            // batch may span several small partitions
+            int chunkCount = 0;
+            while (chunkCount < maxChunkCount) {
+                if (rowHi < rowLo) {
+                    final DataFrame frame = dataFrameCursor.next();
+                    if (frame == null) {
+                        break;
+                    }
+                    partitionIndex = frame.getPartitionIndex();
+                    rowLo = frame.getRowLo();
+                    rowHi = frame.getRowHi() - 1;
+                    chunkSize = Math.max(minChunkSize, (rowHi - rowLo + maxChunkCount) / maxChunkCount);
+                    continue;
+                }
+                final long chunkLo = Math.max(rowLo, rowHi - chunkSize + 1);
+                chunks.getQuick(chunkCount++).of(partitionIndex, chunkLo, rowHi, keyCount);
+                rowHi = chunkLo - 1;
+            }
+
+            if (chunkCount == 0) {
+                break;
+            }
+
+            doneLatch.reset();
+            int queuedCount = 0;
+            for (int i = 0; i < chunkCount; i++) {
+                final LatestByAllChunk chunk = chunks.getQuick(i);
+                final long seq = pubSeq.next();
+                if (seq < 0) {
+                    chunk.run();
+                } else {
+                    queue.get(seq).of(chunk, doneLatch);
+                    pubSeq.done(seq);
+                    queuedCount++;
+                }
+            }
+
+            // process our own queue
+            // this should fix deadlock with 1 worker configuration
+            while (doneLatch.getCount() > -queuedCount) {
+                long seq = subSeq.next();
+                if (seq > -1) {
+                    queue.get(seq).run();
+                    subSeq.done(seq);
+                } else {
+                    Os.pause();
+                }
+            }
+
+            doneLatch.await(queuedCount);
+
+            if (mergeChunks(chunkCount, keyCount)) {
+                break;
+            }
+        }
+    }
+
+    private void scanSerial(@Nullable Function filter, long keyCount) {
+        DataFrame frame;
+        while ((frame = this.dataFrameCursor.next()) != null) {
+            final int partitionIndex = frame.getPartitionIndex();
+            final long rowLo = frame.getRowLo();
+            final long rowHi = frame.getRowHi() - 1;
+
+            recordA.jumpTo(frame.getPartitionIndex(), rowHi);
+            for (long row = rowHi; row >= rowLo; row--) {
+                recordA.setRecordIndex(row);
+                if (filter == null || filter.getBool(recordA)) {
+                    MapKey key = map.withKey();
+                    key.put(recordA, recordSink);
+                    if (key.create()) {
+                        rows.add(Rows.toRowID(partitionIndex, row));
+                        if (map.size() == keyCount) {
+                            return;
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    protected void buildTreeMap(
+            SqlExecutionContext executionContext,
+            @Nullable Function filter,
+            @Nullable ObjList<Function> workerFilters
+    ) throws SqlException {
+        if (!isOpen()) {
+            map.reopen();
+        }
+        try {
+            if (filter != null) {
+                filter.init(this, executionContext);
+            }
+            final long keyCount = getKeyCount();
+            final int chunkCount = getChunkCount(executionContext, filter, workerFilters);
+            if (chunkCount > 1) {
+                if (filter != null && !filter.isReadThreadSafe()) {
+                    final boolean current = executionContext.getCloneSymbolTables();
+                    executionContext.setCloneSymbolTables(true);
+                    try {
+                        Function.init(workerFilters, this, executionContext);
+                    } finally {
+                        executionContext.setCloneSymbolTables(current);
+                    }
+                }
+                scanParallel(executionContext, filter, workerFilters, chunkCount, keyCount);
+            } else {
+                scanSerial(filter, keyCount);
+            }
+        } finally {
+            map.clear();
+        }
+    }
+}
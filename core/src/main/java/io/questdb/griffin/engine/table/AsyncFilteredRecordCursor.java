@@ -35,6 +35,7 @@ import io.questdb.log.LogFactory;
 import io.questdb.std.DirectLongList;
 import io.questdb.std.Misc;
 import io.questdb.std.Os;
+import io.questdb.std.QueryMemoryAccount;
 import io.questdb.std.Rows;
 
 class AsyncFilteredRecordCursor implements RecordCursor {
@@ -135,6 +136,7 @@ class AsyncFilteredRecordCursor implements RecordCursor {
         }
 
         if (!allFramesActive) {
+            checkMemoryLimit();
             throw CairoException.nonCritical().put(exceptionMessage).setInterruption(true);
         }
         return false;
@@ -179,6 +181,14 @@ class AsyncFilteredRecordCursor implements RecordCursor {
         return -1;
     }
 
+    // frames are cancelled when reducer runs the query out of its memory budget
+    private void checkMemoryLimit() {
+        final QueryMemoryAccount memoryAccount = frameSequence.getMemoryAccount();
+        if (memoryAccount != null) {
+            memoryAccount.checkLimit();
+        }
+    }
+
     private boolean checkLimit() {
         if (--rowsRemaining < 0) {
             frameSequence.cancel();
@@ -218,6 +228,7 @@ class AsyncFilteredRecordCursor implements RecordCursor {
             } while (this.frameIndex < frameLimit);
         } catch (Throwable e) {
             LOG.critical().$("unexpected error [ex=").$(e).I$();
+            checkMemoryLimit();
             throw CairoException.nonCritical().put(exceptionMessage).setInterruption(true);
         }
     }
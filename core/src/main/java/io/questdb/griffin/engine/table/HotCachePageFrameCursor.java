@@ -0,0 +1,227 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.griffin.engine.table;
+
+import io.questdb.cairo.BitmapIndexReader;
+import io.questdb.cairo.HotTableCache;
+import io.questdb.cairo.sql.PageFrame;
+import io.questdb.cairo.sql.PageFrameCursor;
+import io.questdb.cairo.sql.StaticSymbolTable;
+import io.questdb.cairo.sql.SymbolTable;
+import io.questdb.std.*;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Page frames over rows pinned in {@link HotTableCache}. Every frame is reported as a partition
+ * of its own, i.e. partition index is the frame index and partition row range starts at 0.
+ */
+public class HotCachePageFrameCursor implements PageFrameCursor {
+    private final HotTableCache.Snapshot snapshot = new HotTableCache.Snapshot();
+    // block index, row lo and row hi of every frame
+    private final LongList frames = new LongList();
+    private final LongList columnPageAddress = new LongList();
+    private final HotCachePageFrame frame = new HotCachePageFrame();
+    private final IntList columnSizes;
+    private final int columnCount;
+    private final int workerCount;
+    private final int pageFrameMinRows;
+    private final int pageFrameMaxRows;
+    private int frameIndex;
+    private long size;
+
+    public HotCachePageFrameCursor(IntList columnSizes, int workerCount, int pageFrameMinRows, int pageFrameMaxRows) {
+        this.columnSizes = columnSizes;
+        this.columnCount = columnSizes.size();
+        this.workerCount = workerCount;
+        this.pageFrameMinRows = pageFrameMinRows;
+        this.pageFrameMaxRows = pageFrameMaxRows;
+    }
+
+    @Override
+    public void close() {
+        snapshot.close();
+        frames.clear();
+    }
+
+    public int getFrameCount() {
+        return frames.size() / 3;
+    }
+
+    public HotTableCache.Snapshot getSnapshot() {
+        return snapshot;
+    }
+
+    @Override
+    public StaticSymbolTable getSymbolTable(int columnIndex) {
+        return snapshot.getSymbolTable(columnIndex);
+    }
+
+    @Override
+    public long getUpdateRowId(long rowIndex) {
+        return Rows.toRowID(frame.frameIndex, rowIndex);
+    }
+
+    @Override
+    public SymbolTable newSymbolTable(int columnIndex) {
+        return snapshot.newSymbolTable(columnIndex);
+    }
+
+    @Override
+    public @Nullable PageFrame next() {
+        if (frameIndex < getFrameCount()) {
+            return frameAt(frameIndex++);
+        }
+        return null;
+    }
+
+    /**
+     * Splits rows of the snapshot that fall into the intervals into page frames. The snapshot
+     * has to be acquired before this call.
+     *
+     * @param intervals sorted list of inclusive timestamp interval pairs
+     * @return this cursor
+     */
+    public HotCachePageFrameCursor of(LongList intervals) {
+        frames.clear();
+        size = 0;
+        for (int b = 0, n = snapshot.getBlockCount(); b < n; b++) {
+            final long timestampAddress = snapshot.getTimestampAddress(b);
+            final long rowCount = snapshot.getRowCount(b);
+            for (int i = 0, m = intervals.size(); i < m; i += 2) {
+                final long lo = search(timestampAddress, intervals.getQuick(i), rowCount, false);
+                final long hi = search(timestampAddress, intervals.getQuick(i + 1), rowCount, true);
+                if (lo < hi) {
+                    addFrames(b, lo, hi);
+                }
+            }
+        }
+        toTop();
+        return this;
+    }
+
+    @Override
+    public long size() {
+        return size;
+    }
+
+    @Override
+    public void toTop() {
+        frameIndex = 0;
+    }
+
+    // returns index of the first row with timestamp above the value, or at or above
+    // the value when not inclusive
+    private static long search(long timestampAddress, long value, long rowCount, boolean inclusive) {
+        long low = 0;
+        long high = rowCount;
+        while (low < high) {
+            final long mid = (low + high) >>> 1;
+            final long timestamp = Unsafe.getUnsafe().getLong(timestampAddress + mid * Long.BYTES);
+            if (timestamp < value || (inclusive && timestamp == value)) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private void addFrames(int blockIndex, long lo, long hi) {
+        final long frameRowLimit = Math.min(pageFrameMaxRows, Math.max(pageFrameMinRows, (hi - lo) / workerCount));
+        while (lo < hi) {
+            final long frameHi = Math.min(hi, lo + frameRowLimit);
+            frames.add(blockIndex);
+            frames.add(lo);
+            frames.add(frameHi);
+            size += frameHi - lo;
+            lo = frameHi;
+        }
+    }
+
+    PageFrame frameAt(int frameIndex) {
+        final int blockIndex = (int) frames.getQuick(frameIndex * 3);
+        final long lo = frames.getQuick(frameIndex * 3 + 1);
+        final long hi = frames.getQuick(frameIndex * 3 + 2);
+        columnPageAddress.setAll(columnCount * 2, 0);
+        for (int i = 0; i < columnCount; i++) {
+            columnPageAddress.setQuick(i * 2, snapshot.getPageAddress(blockIndex, i) + (lo << columnSizes.getQuick(i)));
+        }
+        frame.frameIndex = frameIndex;
+        frame.rowCount = hi - lo;
+        return frame;
+    }
+
+    private class HotCachePageFrame implements PageFrame {
+        private int frameIndex;
+        private long rowCount;
+
+        @Override
+        public void copyColumnAddressesTo(LongList destColumnAddresses) {
+            destColumnAddresses.add(columnPageAddress);
+        }
+
+        @Override
+        public BitmapIndexReader getBitmapIndexReader(int columnIndex, int direction) {
+            // cached rows are not indexed
+            return null;
+        }
+
+        @Override
+        public int getColumnShiftBits(int columnIndex) {
+            return columnSizes.getQuick(columnIndex);
+        }
+
+        @Override
+        public long getIndexPageAddress(int columnIndex) {
+            return 0;
+        }
+
+        @Override
+        public long getPageAddress(int columnIndex) {
+            return columnPageAddress.getQuick(columnIndex * 2);
+        }
+
+        @Override
+        public long getPageSize(int columnIndex) {
+            return rowCount << columnSizes.getQuick(columnIndex);
+        }
+
+        @Override
+        public long getPartitionHi() {
+            return rowCount;
+        }
+
+        @Override
+        public int getPartitionIndex() {
+            return frameIndex;
+        }
+
+        @Override
+        public long getPartitionLo() {
+            return 0;
+        }
+    }
+}
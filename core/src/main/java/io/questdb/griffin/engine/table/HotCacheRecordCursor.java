@@ -0,0 +1,138 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.griffin.engine.table;
+
+import io.questdb.cairo.sql.PageAddressCache;
+import io.questdb.cairo.sql.PageAddressCacheRecord;
+import io.questdb.cairo.sql.Record;
+import io.questdb.cairo.sql.RecordCursor;
+import io.questdb.cairo.sql.RecordMetadata;
+import io.questdb.cairo.sql.SymbolTable;
+import io.questdb.std.Misc;
+import io.questdb.std.Rows;
+
+/**
+ * Reads rows pinned in the hot table cache through the same page frames that
+ * {@link HotCachePageFrameCursor} hands out. Row id is frame index and row within the frame.
+ */
+class HotCacheRecordCursor implements RecordCursor {
+    private final PageAddressCache pageAddressCache;
+    private final PageAddressCacheRecord recordA = new PageAddressCacheRecord();
+    private PageAddressCacheRecord recordB;
+    private HotCachePageFrameCursor frameCursor;
+    private int frameIndex;
+    private int frameCount;
+    private long frameRowIndex;
+    private long frameRowCount;
+
+    HotCacheRecordCursor(PageAddressCache pageAddressCache) {
+        this.pageAddressCache = pageAddressCache;
+    }
+
+    @Override
+    public void close() {
+        frameCursor = Misc.free(frameCursor);
+    }
+
+    public void freeRecords() {
+        Misc.free(recordA);
+        Misc.free(recordB);
+    }
+
+    @Override
+    public Record getRecord() {
+        return recordA;
+    }
+
+    @Override
+    public Record getRecordB() {
+        if (recordB == null) {
+            recordB = new PageAddressCacheRecord(recordA);
+        }
+        return recordB;
+    }
+
+    @Override
+    public SymbolTable getSymbolTable(int columnIndex) {
+        return frameCursor.getSymbolTable(columnIndex);
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (++frameRowIndex < frameRowCount) {
+            recordA.setRowIndex(frameRowIndex);
+            return true;
+        }
+        while (++frameIndex < frameCount) {
+            frameRowCount = frameCursor.frameAt(frameIndex).getPartitionHi();
+            if (frameRowCount > 0) {
+                frameRowIndex = 0;
+                recordA.setFrameIndex(frameIndex);
+                recordA.setRowIndex(0);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public SymbolTable newSymbolTable(int columnIndex) {
+        return frameCursor.newSymbolTable(columnIndex);
+    }
+
+    @Override
+    public void recordAt(Record record, long atRowId) {
+        ((PageAddressCacheRecord) record).setFrameIndex(Rows.toPartitionIndex(atRowId));
+        ((PageAddressCacheRecord) record).setRowIndex(Rows.toLocalRowID(atRowId));
+    }
+
+    @Override
+    public long size() {
+        return frameCursor.size();
+    }
+
+    @Override
+    public void toTop() {
+        frameIndex = -1;
+        frameRowIndex = 0;
+        frameRowCount = 0;
+    }
+
+    void of(HotCachePageFrameCursor frameCursor, RecordMetadata metadata) {
+        this.frameCursor = frameCursor;
+        this.frameCount = frameCursor.getFrameCount();
+        pageAddressCache.clear();
+        pageAddressCache.of(metadata);
+        for (int i = 0; i < frameCount; i++) {
+            pageAddressCache.add(i, frameCursor.frameAt(i));
+        }
+        recordA.of(frameCursor, pageAddressCache);
+        if (recordB != null) {
+            recordB.of(frameCursor, pageAddressCache);
+        }
+        toTop();
+    }
+}
@@ -0,0 +1,173 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.griffin.engine.table;
+
+import io.questdb.cairo.AbstractRecordCursorFactory;
+import io.questdb.cairo.CairoConfiguration;
+import io.questdb.cairo.HotTableCache;
+import io.questdb.cairo.sql.*;
+import io.questdb.griffin.PlanSink;
+import io.questdb.griffin.SqlException;
+import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.griffin.model.RuntimeIntrinsicIntervalModel;
+import io.questdb.std.IntList;
+import io.questdb.std.LongList;
+import io.questdb.std.Misc;
+import io.questdb.std.str.CharSink;
+
+import static io.questdb.cairo.sql.DataFrameCursorFactory.ORDER_ANY;
+import static io.questdb.cairo.sql.DataFrameCursorFactory.ORDER_ASC;
+
+/**
+ * Serves interval scans from the table's {@link HotTableCache} when the cache holds every row
+ * the intervals select. Falls back to the base factory, which reads the table, otherwise.
+ */
+public class HotCacheRecordCursorFactory extends AbstractRecordCursorFactory {
+    private final RecordCursorFactory base;
+    private final String tableName;
+    private final int tableId;
+    private final long tableVersion;
+    // owned by the base factory
+    private final RuntimeIntrinsicIntervalModel intervalModel;
+    private final IntList writerIndexes;
+    private final IntList columnSizes;
+    private final PageAddressCache pageAddressCache;
+    private final HotCacheRecordCursor cursor;
+    private final int pageFrameMinRows;
+    private final int pageFrameMaxRows;
+    private HotCachePageFrameCursor recordFrameCursor;
+    private HotCachePageFrameCursor pageFrameCursor;
+
+    public HotCacheRecordCursorFactory(
+            CairoConfiguration configuration,
+            RecordCursorFactory base,
+            String tableName,
+            int tableId,
+            long tableVersion,
+            RuntimeIntrinsicIntervalModel intervalModel,
+            IntList writerIndexes,
+            IntList columnSizes
+    ) {
+        super(base.getMetadata());
+        this.base = base;
+        this.tableName = tableName;
+        this.tableId = tableId;
+        this.tableVersion = tableVersion;
+        this.intervalModel = intervalModel;
+        this.writerIndexes = writerIndexes;
+        this.columnSizes = columnSizes;
+        this.pageAddressCache = new PageAddressCache(configuration);
+        this.cursor = new HotCacheRecordCursor(pageAddressCache);
+        this.pageFrameMinRows = configuration.getSqlPageFrameMinRows();
+        this.pageFrameMaxRows = configuration.getSqlPageFrameMaxRows();
+    }
+
+    @Override
+    public boolean followedOrderByAdvice() {
+        return base.followedOrderByAdvice();
+    }
+
+    @Override
+    public RecordCursor getCursor(SqlExecutionContext executionContext) throws SqlException {
+        if (recordFrameCursor == null) {
+            recordFrameCursor = newFrameCursor(executionContext);
+        }
+        if (acquire(executionContext, recordFrameCursor)) {
+            cursor.of(recordFrameCursor, getMetadata());
+            return cursor;
+        }
+        return base.getCursor(executionContext);
+    }
+
+    @Override
+    public PageFrameCursor getPageFrameCursor(SqlExecutionContext executionContext, int order) throws SqlException {
+        if (order == ORDER_ASC || order == ORDER_ANY) {
+            if (pageFrameCursor == null) {
+                pageFrameCursor = newFrameCursor(executionContext);
+            }
+            if (acquire(executionContext, pageFrameCursor)) {
+                return pageFrameCursor;
+            }
+        }
+        return base.getPageFrameCursor(executionContext, order);
+    }
+
+    @Override
+    public boolean recordCursorSupportsRandomAccess() {
+        return base.recordCursorSupportsRandomAccess();
+    }
+
+    @Override
+    public boolean supportPageFrameCursor() {
+        return base.supportPageFrameCursor();
+    }
+
+    @Override
+    public void toPlan(PlanSink sink) {
+        sink.type("HotCache");
+        sink.child(base);
+    }
+
+    @Override
+    public void toSink(CharSink sink) {
+        sink.put("{\"name\":\"HotCacheRecordCursorFactory\", \"base\":");
+        base.toSink(sink);
+        sink.put('}');
+    }
+
+    private boolean acquire(SqlExecutionContext executionContext, HotCachePageFrameCursor frameCursor) throws SqlException {
+        final HotTableCache cache = executionContext.getCairoEngine().getHotTableCache(tableName);
+        if (cache == null) {
+            return false;
+        }
+        final LongList intervals = intervalModel.calculateIntervals(executionContext);
+        if (intervals.size() == 0) {
+            return false;
+        }
+        if (cache.acquire(frameCursor.getSnapshot(), tableId, tableVersion, writerIndexes, intervals.getQuick(0))) {
+            frameCursor.of(intervals);
+            return true;
+        }
+        return false;
+    }
+
+    private HotCachePageFrameCursor newFrameCursor(SqlExecutionContext executionContext) {
+        return new HotCachePageFrameCursor(
+                columnSizes,
+                executionContext.getSharedWorkerCount(),
+                pageFrameMinRows,
+                pageFrameMaxRows
+        );
+    }
+
+    @Override
+    protected void _close() {
+        Misc.free(base);
+        Misc.free(recordFrameCursor);
+        Misc.free(pageFrameCursor);
+        cursor.freeRecords();
+    }
+}
@@ -0,0 +1,127 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.table;
+
+import io.questdb.cairo.CairoConfiguration;
+import io.questdb.cairo.ColumnTypes;
+import io.questdb.cairo.RecordSink;
+import io.questdb.cairo.TableReader;
+import io.questdb.cairo.TableReaderSelectedColumnRecord;
+import io.questdb.cairo.map.Map;
+import io.questdb.cairo.map.MapFactory;
+import io.questdb.cairo.map.MapKey;
+import io.questdb.cairo.sql.Function;
+import io.questdb.std.DirectLongList;
+import io.questdb.std.IntList;
+import io.questdb.std.MemoryTag;
+import io.questdb.std.Misc;
+import io.questdb.tasks.LatestByAllTask;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.Closeable;
+
+/**
+ * Backward scan of a row range of a single partition. Collects local row ids
+ * of the first occurrence of every distinct key in descending row order. Chunks
+ * are scanned concurrently, each using its own map, record and, when the filter
+ * is not thread-safe, its own filter instance.
+ */
+class LatestByAllChunk implements LatestByAllTask.Chunk, Closeable {
+    private final Map map;
+    private final DirectLongList rows;
+    private final TableReaderSelectedColumnRecord record;
+    private final RecordSink recordSink;
+    private Function filter;
+    private int partitionIndex;
+    private long rowLo;
+    private long rowHi;
+    private long keyCount;
+    private Throwable error;
+
+    LatestByAllChunk(CairoConfiguration configuration, ColumnTypes keyTypes, RecordSink recordSink, IntList columnIndexes) {
+        this.map = MapFactory.createMap(configuration, keyTypes);
+        this.rows = new DirectLongList(configuration.getSqlLatestByRowCount(), MemoryTag.NATIVE_LATEST_BY_LONG_LIST);
+        this.record = new TableReaderSelectedColumnRecord(columnIndexes);
+        this.recordSink = recordSink;
+    }
+
+    @Override
+    public void close() {
+        Misc.free(map);
+        Misc.free(rows);
+    }
+
+    @Override
+    public void run() {
+        rows.clear();
+        map.clear();
+        error = null;
+        try {
+            record.jumpTo(partitionIndex, rowHi);
+            for (long row = rowHi; row >= rowLo; row--) {
+                record.setRecordIndex(row);
+                if (filter == null || filter.getBool(record)) {
+                    MapKey key = map.withKey();
+                    key.put(record, recordSink);
+                    if (key.create()) {
+                        rows.add(row);
+                        if (map.size() == keyCount) {
+                            // every key is resolved, older rows cannot contribute
+                            break;
+                        }
+                    }
+                }
+            }
+        } catch (Throwable e) {
+            error = e;
+        }
+    }
+
+    Throwable getError() {
+        return error;
+    }
+
+    int getPartitionIndex() {
+        return partitionIndex;
+    }
+
+    DirectLongList getRows() {
+        return rows;
+    }
+
+    void of(int partitionIndex, long rowLo, long rowHi, long keyCount) {
+        this.partitionIndex = partitionIndex;
+        this.rowLo = rowLo;
+        this.rowHi = rowHi;
+        this.keyCount = keyCount;
+    }
+
+    void of(TableReader reader, @Nullable Function filter) {
+        map.reopen();
+        rows.reopen();
+        record.of(reader);
+        this.filter = filter;
+    }
+}
@@ -24,71 +24,51 @@
 
 package io.questdb.griffin.engine.table;
 
+import io.questdb.cairo.CairoConfiguration;
+import io.questdb.cairo.ColumnTypes;
 import io.questdb.cairo.RecordSink;
 import io.questdb.cairo.map.Map;
-import io.questdb.cairo.map.MapKey;
-import io.questdb.cairo.sql.DataFrame;
 import io.questdb.cairo.sql.Function;
 import io.questdb.griffin.SqlException;
 import io.questdb.griffin.SqlExecutionContext;
 import io.questdb.std.DirectLongList;
 import io.questdb.std.IntList;
-import io.questdb.std.Rows;
+import io.questdb.std.ObjList;
+import io.questdb.std.Transient;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
-class LatestByAllFilteredRecordCursor extends AbstractDescendingRecordListCursor {
+class LatestByAllFilteredRecordCursor extends AbstractLatestByAllRecordCursor {
 
-    private final Map map;
-    private final RecordSink recordSink;
     private final Function filter;
+    private final ObjList<Function> workerFilters;
 
     public LatestByAllFilteredRecordCursor(
+            @NotNull CairoConfiguration configuration,
             @NotNull Map map,
             @NotNull DirectLongList rows,
             @NotNull RecordSink recordSink,
+            @Transient @NotNull ColumnTypes keyTypes,
+            @Nullable IntList symbolKeyColumnIndexes,
             @NotNull Function filter,
+            @Nullable ObjList<Function> workerFilters,
             @NotNull IntList columnIndexes
     ) {
-        super(rows, columnIndexes);
-        this.map = map;
-        this.recordSink = recordSink;
+        super(configuration, map, rows, recordSink, keyTypes, symbolKeyColumnIndexes, columnIndexes);
         this.filter = filter;
+        this.workerFilters = workerFilters;
     }
 
     @Override
     public void close() {
         if (isOpen()) {
             filter.close();
-            map.close();
             super.close();
         }
     }
 
     @Override
     protected void buildTreeMap(SqlExecutionContext executionContext) throws SqlException {
-        if (!isOpen()) {
-            map.reopen();
-        }
-        filter.init(this, executionContext);
-
-        DataFrame frame;
-        while ((frame = this.dataFrameCursor.next()) != null) {
-            final int partitionIndex = frame.getPartitionIndex();
-            final long rowLo = frame.getRowLo();
-            final long rowHi = frame.getRowHi() - 1;
-
-            recordA.jumpTo(frame.getPartitionIndex(), rowHi);
-            for (long row = rowHi; row >= rowLo; row--) {
-                recordA.setRecordIndex(row);
-                if (filter.getBool(recordA)) {
-                    MapKey key = map.withKey();
-                    key.put(recordA, recordSink);
-                    if (key.create()) {
-                        rows.add(Rows.toRowID(partitionIndex, row));
-                    }
-                }
-            }
-        }
-        map.clear();
+        buildTreeMap(executionContext, filter, workerFilters);
     }
 }
@@ -33,11 +33,14 @@ import io.questdb.cairo.sql.DataFrameCursorFactory;
 import io.questdb.cairo.sql.Function;
 import io.questdb.cairo.sql.RecordMetadata;
 import io.questdb.std.IntList;
+import io.questdb.std.Misc;
+import io.questdb.std.ObjList;
 import io.questdb.std.Transient;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 public class LatestByAllFilteredRecordCursorFactory extends AbstractTreeSetRecordCursorFactory {
+    private final ObjList<Function> workerFilters;
 
     public LatestByAllFilteredRecordCursorFactory(
             @NotNull RecordMetadata metadata,
@@ -46,20 +49,24 @@ public class LatestByAllFilteredRecordCursorFactory extends AbstractTreeSetRecor
             @NotNull RecordSink recordSink,
             @Transient @NotNull ColumnTypes columnTypes,
             @Nullable Function filter,
+            @Nullable ObjList<Function> workerFilters,
+            @Nullable IntList symbolKeyColumnIndexes,
             @NotNull IntList columnIndexes
     ) {
         super(metadata, dataFrameCursorFactory, configuration);
         Map map = MapFactory.createMap(configuration, columnTypes);
         if (filter == null) {
-            this.cursor = new LatestByAllRecordCursor(map, rows, recordSink, columnIndexes);
+            this.cursor = new LatestByAllRecordCursor(configuration, map, rows, recordSink, columnTypes, symbolKeyColumnIndexes, columnIndexes);
         } else {
-            this.cursor = new LatestByAllFilteredRecordCursor(map, rows, recordSink, filter, columnIndexes);
+            this.cursor = new LatestByAllFilteredRecordCursor(configuration, map, rows, recordSink, columnTypes, symbolKeyColumnIndexes, filter, workerFilters, columnIndexes);
         }
+        this.workerFilters = workerFilters;
     }
 
     @Override
     protected void _close() {
         this.cursor.close();
+        Misc.freeObjList(workerFilters);
         super._close();
     }
 
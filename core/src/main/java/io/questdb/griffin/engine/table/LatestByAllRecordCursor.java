@@ -24,59 +24,34 @@
 
 package io.questdb.griffin.engine.table;
 
+import io.questdb.cairo.CairoConfiguration;
+import io.questdb.cairo.ColumnTypes;
 import io.questdb.cairo.RecordSink;
 import io.questdb.cairo.map.Map;
-import io.questdb.cairo.map.MapKey;
-import io.questdb.cairo.sql.DataFrame;
+import io.questdb.griffin.SqlException;
 import io.questdb.griffin.SqlExecutionContext;
 import io.questdb.std.DirectLongList;
 import io.questdb.std.IntList;
-import io.questdb.std.Rows;
+import io.questdb.std.Transient;
 import org.jetbrains.annotations.NotNull;
-
-class LatestByAllRecordCursor extends AbstractDescendingRecordListCursor {
-
-    private final Map map;
-    private final RecordSink recordSink;
-
-    public LatestByAllRecordCursor(Map map, DirectLongList rows, RecordSink recordSink, @NotNull IntList columnIndexes) {
-        super(rows, columnIndexes);
-        this.map = map;
-        this.recordSink = recordSink;
-    }
-
-    @Override
-    protected void buildTreeMap(SqlExecutionContext executionContext) {
-        DataFrame frame;
-        if (!isOpen()) {
-            map.reopen();
-        }
-        try {
-            while ((frame = this.dataFrameCursor.next()) != null) {
-                final int partitionIndex = frame.getPartitionIndex();
-                final long rowLo = frame.getRowLo();
-                final long rowHi = frame.getRowHi() - 1;
-
-                recordA.jumpTo(frame.getPartitionIndex(), rowHi);
-                for (long row = rowHi; row >= rowLo; row--) {
-                    recordA.setRecordIndex(row);
-                    MapKey key = map.withKey();
-                    key.put(recordA, recordSink);
-                    if (key.create()) {
-                        rows.add(Rows.toRowID(partitionIndex, row));
-                    }
-                }
-            }
-        } finally {
-            map.clear();
-        }
+import org.jetbrains.annotations.Nullable;
+
+class LatestByAllRecordCursor extends AbstractLatestByAllRecordCursor {
+
+    public LatestByAllRecordCursor(
+            @NotNull CairoConfiguration configuration,
+            @NotNull Map map,
+            @NotNull DirectLongList rows,
+            @NotNull RecordSink recordSink,
+            @Transient @NotNull ColumnTypes keyTypes,
+            @Nullable IntList symbolKeyColumnIndexes,
+            @NotNull IntList columnIndexes
+    ) {
+        super(configuration, map, rows, recordSink, keyTypes, symbolKeyColumnIndexes, columnIndexes);
     }
 
     @Override
-    public void close() {
-        if (isOpen()) {
-            map.close();
-            super.close();
-        }
+    protected void buildTreeMap(SqlExecutionContext executionContext) throws SqlException {
+        buildTreeMap(executionContext, null, null);
     }
 }
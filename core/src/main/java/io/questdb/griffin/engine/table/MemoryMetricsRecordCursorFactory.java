@@ -33,11 +33,15 @@ import io.questdb.cairo.sql.RecordMetadata;
 import io.questdb.griffin.SqlException;
 import io.questdb.griffin.SqlExecutionContext;
 import io.questdb.std.MemoryTag;
+import io.questdb.std.QueryMemoryAccount;
 import io.questdb.std.Unsafe;
 
 public final class MemoryMetricsRecordCursorFactory extends AbstractRecordCursorFactory {
     private static final RecordMetadata METADATA;
-    private static final int METRIC_COUNT = MemoryTag.SIZE + 1; // 1 per each tag + 1 extra for total memory
+    // 1 per each tag + 1 extra for total memory + 2 for query memory pool
+    private static final int METRIC_COUNT = MemoryTag.SIZE + 3;
+    private static final int QUERY_POOL_USED_INDEX = MemoryTag.SIZE + 1;
+    private static final int QUERY_POOL_SIZE_INDEX = MemoryTag.SIZE + 2;
     private static final String[] KEYS = new String[METRIC_COUNT];
     private final StringLongTuplesRecordCursor cursor = new StringLongTuplesRecordCursor();
     private final long[] values = new long[METRIC_COUNT];
@@ -65,6 +69,8 @@ public final class MemoryMetricsRecordCursorFactory extends AbstractRecordCursor
         for (int i = 0; i < MemoryTag.SIZE; i++) {
             collector[i + 1] = Unsafe.getMemUsedByTag(i);
         }
+        collector[QUERY_POOL_USED_INDEX] = QueryMemoryAccount.getPoolUsed();
+        collector[QUERY_POOL_SIZE_INDEX] = QueryMemoryAccount.getPoolSize();
     }
 
     static {
@@ -77,5 +83,7 @@ public final class MemoryMetricsRecordCursorFactory extends AbstractRecordCursor
         for (int i = 0; i < MemoryTag.SIZE; i++) {
             KEYS[i + 1] = MemoryTag.nameOf(i);
         }
+        KEYS[QUERY_POOL_USED_INDEX] = "QUERY_POOL_USED";
+        KEYS[QUERY_POOL_SIZE_INDEX] = "QUERY_POOL_SIZE";
     }
 }
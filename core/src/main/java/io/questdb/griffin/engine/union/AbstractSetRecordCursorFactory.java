@@ -25,6 +25,9 @@
 package io.questdb.griffin.engine.union;
 
 import io.questdb.cairo.AbstractRecordCursorFactory;
+import io.questdb.cairo.ArrayColumnTypes;
+import io.questdb.cairo.ColumnType;
+import io.questdb.cairo.ColumnTypes;
 import io.questdb.cairo.sql.Function;
 import io.questdb.cairo.sql.RecordCursor;
 import io.questdb.cairo.sql.RecordCursorFactory;
@@ -85,4 +88,14 @@ abstract class AbstractSetRecordCursorFactory extends AbstractRecordCursorFactor
     public boolean recordCursorSupportsRandomAccess() {
         return factoryA.recordCursorSupportsRandomAccess();
     }
+
+    // set record sink writes symbols as strings, map key types have to agree with it
+    static ColumnTypes keyTypesOf(RecordMetadata metadata) {
+        final ArrayColumnTypes keyTypes = new ArrayColumnTypes();
+        for (int i = 0, n = metadata.getColumnCount(); i < n; i++) {
+            final int columnType = metadata.getColumnType(i);
+            keyTypes.add(ColumnType.isSymbol(columnType) ? ColumnType.STRING : columnType);
+        }
+        return keyTypes;
+    }
 }
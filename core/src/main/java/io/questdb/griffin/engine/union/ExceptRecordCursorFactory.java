@@ -48,7 +48,7 @@ public class ExceptRecordCursorFactory extends AbstractSetRecordCursorFactory {
             ColumnTypes valueTypes
     ) {
         super(metadata, factoryA, factoryB, castFunctionsA, castFunctionsB);
-        Map map = MapFactory.createMap(configuration, metadata, valueTypes);
+        Map map = MapFactory.createMap(configuration, keyTypesOf(metadata), valueTypes);
         if (castFunctionsA == null && castFunctionsB == null) {
             this.cursor = new ExceptRecordCursor(map, recordSink);
         } else {
@@ -48,7 +48,7 @@ public class UnionRecordCursorFactory extends AbstractSetRecordCursorFactory {
             ColumnTypes valueTypes
     ) {
         super(metadata, factoryA, factoryB, castFunctionsA, castFunctionsB);
-        Map map = MapFactory.createMap(configuration, metadata, valueTypes);
+        Map map = MapFactory.createMap(configuration, keyTypesOf(metadata), valueTypes);
         this.cursor = new UnionRecordCursor(map, recordSink, castFunctionsA, castFunctionsB);
     }
 
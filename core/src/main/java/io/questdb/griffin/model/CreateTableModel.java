@@ -48,6 +48,7 @@ public class CreateTableModel implements Mutable, ExecutionModel, Sinkable, Tabl
     private long commitLag;
     private boolean ignoreIfExists = false;
     private boolean walEnabled;
+    private String matViewQuery;
 
     private CreateTableModel() {
     }
@@ -96,6 +97,7 @@ public class CreateTableModel implements Mutable, ExecutionModel, Sinkable, Tabl
         columnHashes.clear();
         columnNameIndexMap.clear();
         ignoreIfExists = false;
+        matViewQuery = null;
     }
 
     public CharSequenceObjHashMap<ColumnCastModel> getColumnCastModels() {
@@ -205,6 +207,17 @@ public class CreateTableModel implements Mutable, ExecutionModel, Sinkable, Tabl
         return CREATE_TABLE;
     }
 
+    /**
+     * @return text of materialized view query or null when the model is not a materialized view
+     */
+    public String getMatViewQuery() {
+        return matViewQuery;
+    }
+
+    public void setMatViewQuery(String matViewQuery) {
+        this.matViewQuery = matViewQuery;
+    }
+
     public ExpressionNode getName() {
         return name;
     }
@@ -255,7 +268,7 @@ public class CreateTableModel implements Mutable, ExecutionModel, Sinkable, Tabl
 
     @Override
     public void toSink(CharSink sink) {
-        sink.put("create table ");
+        sink.put(matViewQuery != null ? "create materialized view " : "create table ");
         sink.put(getName().token);
         if (getQueryModel() != null) {
             sink.put(" as (");
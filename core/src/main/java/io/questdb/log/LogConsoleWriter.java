@@ -28,16 +28,23 @@ import io.questdb.mp.QueueConsumer;
 import io.questdb.mp.RingQueue;
 import io.questdb.mp.SCSequence;
 import io.questdb.mp.SynchronizedJob;
-import io.questdb.std.Files;
+import io.questdb.std.*;
 
 import java.io.Closeable;
 
 public class LogConsoleWriter extends SynchronizedJob implements Closeable, LogWriter {
+    private static final int DEFAULT_BUFFER_SIZE = 64 * 1024;
     private final long fd = Files.getStdOutFd();
     private final RingQueue<LogRecordSink> ring;
     private final SCSequence subSeq;
     private final int level;
-    private final QueueConsumer<LogRecordSink> myConsumer = this::toStdOut;
+    private final QueueConsumer<LogRecordSink> myConsumer = this::copyToBuffer;
+    // can be set via reflection
+    private String bufferSize;
+    private int bufSize;
+    private long buf;
+    private long lim;
+    private long _wptr;
 
     public LogConsoleWriter(RingQueue<LogRecordSink> ring, SCSequence subSeq, int level) {
         this.ring = ring;
@@ -47,20 +54,68 @@ public class LogConsoleWriter extends SynchronizedJob implements Closeable, LogW
 
     @Override
     public void bindProperties(LogFactory factory) {
+        if (this.bufferSize != null) {
+            try {
+                bufSize = Numbers.parseIntSize(this.bufferSize);
+            } catch (NumericException e) {
+                throw new LogError("Invalid value for bufferSize");
+            }
+        } else {
+            bufSize = DEFAULT_BUFFER_SIZE;
+        }
+        this.buf = _wptr = Unsafe.malloc(bufSize, MemoryTag.NATIVE_LOGGER);
+        this.lim = buf + bufSize;
     }
 
     @Override
     public void close() {
+        if (buf != 0) {
+            if (_wptr > buf) {
+                flush();
+            }
+            Unsafe.free(buf, bufSize, MemoryTag.NATIVE_LOGGER);
+            buf = 0;
+        }
+    }
+
+    public int getBufSize() {
+        return bufSize;
     }
 
     @Override
     public boolean runSerially() {
-        return subSeq.consumeAll(ring, myConsumer);
+        // records drained in one pass go out with a single write instead of one write per record,
+        // the buffer is flushed as soon as the queue is empty so that console output does not lag
+        final boolean consumed = subSeq.consumeAll(ring, myConsumer);
+        if (_wptr > buf) {
+            flush();
+        }
+        return consumed;
     }
 
-    private void toStdOut(LogRecordSink sink) {
-        if ((sink.getLevel() & this.level) != 0) {
-            Files.append(fd, sink.getAddress(), sink.length());
+    @SuppressWarnings("unused")
+    public void setBufferSize(String bufferSize) {
+        this.bufferSize = bufferSize;
+    }
+
+    private void copyToBuffer(LogRecordSink sink) {
+        final int l = sink.length();
+        if ((sink.getLevel() & this.level) != 0 && l > 0) {
+            if (_wptr + l > lim) {
+                flush();
+                if (l > bufSize) {
+                    // record does not fit the buffer, write it as is
+                    Files.append(fd, sink.getAddress(), l);
+                    return;
+                }
+            }
+            Vect.memcpy(_wptr, sink.getAddress(), l);
+            _wptr += l;
         }
     }
+
+    private void flush() {
+        Files.append(fd, buf, (int) (_wptr - buf));
+        _wptr = buf;
+    }
 }
@@ -0,0 +1,76 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.log;
+
+import io.questdb.std.datetime.microtime.MicrosecondClock;
+
+/**
+ * Caps the number of records a hot code path sends to the log. At most <code>limit</code>
+ * records are let through per interval, the rest are counted and the count is available
+ * to the next record that gets through, see {@link #getSuppressed()}.
+ * <p>
+ * Instances are not thread-safe, use one per thread, e.g. alongside a thread-local cache.
+ */
+public class LogRateLimiter {
+    private final MicrosecondClock clock;
+    private final int limit;
+    private final long intervalMicros;
+    private long intervalEnd;
+    private int count;
+    private long dropped;
+    private long suppressed;
+
+    public LogRateLimiter(MicrosecondClock clock, int limit, long intervalMicros) {
+        this.clock = clock;
+        this.limit = limit;
+        this.intervalMicros = intervalMicros;
+    }
+
+    /**
+     * @return number of records dropped between the last two successful {@link #tryAcquire()} calls
+     */
+    public long getSuppressed() {
+        return suppressed;
+    }
+
+    /**
+     * @return true when the caller may log the record
+     */
+    public boolean tryAcquire() {
+        final long now = clock.getTicks();
+        if (now >= intervalEnd) {
+            intervalEnd = now + intervalMicros;
+            count = 0;
+        }
+        if (count < limit) {
+            count++;
+            suppressed = dropped;
+            dropped = 0;
+            return true;
+        }
+        dropped++;
+        return false;
+    }
+}
@@ -64,6 +64,7 @@ public abstract class AbstractIODispatcher<C extends IOContext> extends Synchron
     private final int rcvBufSize;
     private final long queuedConnectionTimeoutMs;
     private final boolean peerNoLinger;
+    private final boolean sharded;
     protected long serverFd;
     protected boolean closed = false;
     private volatile boolean listening;
@@ -103,6 +104,7 @@ public abstract class AbstractIODispatcher<C extends IOContext> extends Synchron
         this.sndBufSize = configuration.getSndBufSize();
         this.rcvBufSize = configuration.getRcvBufSize();
         this.peerNoLinger = configuration.getPeerNoLinger();
+        this.sharded = IODispatchers.isSharded(configuration);
         this.port = 0;
 
         createListenFd();
@@ -156,6 +158,13 @@ public abstract class AbstractIODispatcher<C extends IOContext> extends Synchron
             cursor = ioEventSubSeq.next();
         }
 
+        if (cursor == -1 && sharded) {
+            // sharded dispatcher is not a pool job, it is polled by the only worker
+            // that processes its events, hence I/O never leaves this thread
+            runSerially();
+            cursor = ioEventSubSeq.next();
+        }
+
         if (cursor > -1) {
             IOEvent<C> event = ioEventQueue.get(cursor);
             C connectionContext = event.context;
@@ -258,6 +267,9 @@ public abstract class AbstractIODispatcher<C extends IOContext> extends Synchron
 
     private void createListenFd() throws NetworkError {
         this.serverFd = nf.socketTcp(false);
+        if (sharded && nf.setReusePort(serverFd) != 0) {
+            LOG.error().$("could not set SO_REUSEPORT [fd=").$(serverFd).$(", errno=").$(nf.errno()).I$();
+        }
         final int backlog = configuration.getListenBacklog();
         if (this.port == 0) {
             // Note that `configuration.getBindPort()` might also be 0.
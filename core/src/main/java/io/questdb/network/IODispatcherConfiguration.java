@@ -90,4 +90,12 @@ public interface IODispatcherConfiguration {
     int getSndBufSize();
 
     long getQueueTimeout();
+
+    /**
+     * When true, every worker owns a dispatcher with its own listening socket and epoll set,
+     * and processes its connections without handing them to other workers.
+     */
+    default boolean isSharded() {
+        return false;
+    }
 }
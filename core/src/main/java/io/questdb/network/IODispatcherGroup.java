@@ -0,0 +1,78 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.network;
+
+import io.questdb.mp.WorkerPool;
+import io.questdb.std.Misc;
+import io.questdb.std.ObjList;
+
+import java.io.Closeable;
+
+/**
+ * Dispatchers of a server. By default, this is a single dispatcher running as a pool job
+ * and handing I/O events to all workers. In sharded mode each worker gets own dispatcher,
+ * see {@link IODispatcherConfiguration#isSharded()}.
+ */
+public class IODispatcherGroup<C extends IOContext> implements Closeable {
+    private final ObjList<IODispatcher<C>> dispatchers = new ObjList<>();
+
+    public IODispatcherGroup(
+            IODispatcherConfiguration configuration,
+            IOContextFactory<C> ioContextFactory,
+            WorkerPool workerPool
+    ) {
+        try {
+            if (IODispatchers.isSharded(configuration)) {
+                for (int i = 0, n = workerPool.getWorkerCount(); i < n; i++) {
+                    dispatchers.add(IODispatchers.create(configuration, ioContextFactory));
+                }
+            } else {
+                final IODispatcher<C> dispatcher = IODispatchers.create(configuration, ioContextFactory);
+                dispatchers.add(dispatcher);
+                workerPool.assign(dispatcher);
+            }
+        } catch (Throwable e) {
+            close();
+            throw e;
+        }
+    }
+
+    @Override
+    public void close() {
+        Misc.freeObjListAndClear(dispatchers);
+    }
+
+    /**
+     * @param workerIndex index of the worker in the pool the group was created with
+     * @return dispatcher, which events the worker should process
+     */
+    public IODispatcher<C> getDispatcher(int workerIndex) {
+        return dispatchers.size() > 1 ? dispatchers.getQuick(workerIndex) : dispatchers.getQuick(0);
+    }
+
+    public int getPort() {
+        return dispatchers.getQuick(0).getPort();
+    }
+}
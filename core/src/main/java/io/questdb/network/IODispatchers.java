@@ -49,4 +49,15 @@ public class IODispatchers {
                 throw new RuntimeException();
         }
     }
+
+    /**
+     * Sharded dispatchers share the listening port via SO_REUSEPORT, which only balances
+     * connections between sockets on Linux. Ephemeral port cannot be shared either, since
+     * every dispatcher would resolve its own.
+     */
+    public static boolean isSharded(IODispatcherConfiguration configuration) {
+        return configuration.isSharded()
+                && configuration.getBindPort() != 0
+                && (Os.type == Os.LINUX_AMD64 || Os.type == Os.LINUX_ARM64);
+    }
 }
@@ -65,6 +65,33 @@ public final class Hash {
         return s == null ? -1 : (Chars.hashCode(s) & 0xFFFFFFF) & max;
     }
 
+    /**
+     * Mixes all bits of 64-bit value using finalizer of MurmurHash3 hash algorithm.
+     * Zero is the only value that hashes to zero.
+     *
+     * @param k value to hash
+     * @return hash code
+     */
+    public static long hashLong64(long k) {
+        k ^= k >>> 33;
+        k *= 0xff51afd7ed558ccdL;
+        k ^= k >>> 33;
+        k *= 0xc4ceb9fe1a85ec53L;
+        k ^= k >>> 33;
+        return k;
+    }
+
+    /**
+     * Calculates hash of 128-bit value represented by two longs.
+     *
+     * @param lo lower 64 bits
+     * @param hi upper 64 bits
+     * @return hash code
+     */
+    public static long hashLong128(long lo, long hi) {
+        return hashLong64(lo ^ hashLong64(hi + XXH_PRIME64_1));
+    }
+
     /**
      * Calculates positive integer hash of memory pointer using 32-bit variant of xxHash hash algorithm.
      *
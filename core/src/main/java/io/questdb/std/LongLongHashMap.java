@@ -68,6 +68,20 @@ public class LongLongHashMap extends AbstractLongHashSet {
         return index < 0 ? values[-index - 1] : noEntryValue;
     }
 
+    public void forEach(LongLongConsumer action) {
+        for (int i = 0, n = keys.length; i < n; i++) {
+            if (keys[i] == noEntryKeyValue) {
+                continue;
+            }
+            action.accept(keys[i], values[i]);
+        }
+    }
+
+    @FunctionalInterface
+    public interface LongLongConsumer {
+        void accept(long key, long value);
+    }
+
     @Override
     protected void erase(int index) {
         keys[index] = this.noEntryKeyValue;
@@ -77,15 +77,37 @@ public final class MemoryTag {
     public static final int NATIVE_IO_DISPATCHER_RSS = 49;
     public static final int NATIVE_FUNC_RSS = 50;
     public static final int NATIVE_DIRECT_CHAR_SINK = 51;
+    public static final int NATIVE_INDEX_BUILD = 52;
+    public static final int MMAP_MAP_SPILL = 53;
 
-    public static final int SIZE = NATIVE_DIRECT_CHAR_SINK + 1;
+    public static final int SIZE = MMAP_MAP_SPILL + 1;
     private static final ObjList<String> tagNameMap = new ObjList<>(SIZE);
+    private static final boolean[] queryTags = new boolean[SIZE];
+
+    /**
+     * @param tag memory tag
+     * @return true when memory with this tag is allocated on behalf of a running query,
+     * such allocations count towards {@link QueryMemoryAccount} budget
+     */
+    public static boolean isQueryTag(int tag) {
+        return queryTags[tag];
+    }
 
     public static String nameOf(int tag) {
         return tagNameMap.getQuick(tag);
     }
 
     static {
+        queryTags[NATIVE_RECORD_CHAIN] = true;
+        queryTags[NATIVE_TREE_CHAIN] = true;
+        queryTags[NATIVE_COMPACT_MAP] = true;
+        queryTags[NATIVE_FAST_MAP] = true;
+        queryTags[NATIVE_FAST_MAP_LONG_LIST] = true;
+        queryTags[NATIVE_SAMPLE_BY_LONG_LIST] = true;
+        queryTags[NATIVE_LATEST_BY_LONG_LIST] = true;
+        // row id lists of page frame reduce tasks and async filters
+        queryTags[NATIVE_OFFLOAD] = true;
+
         tagNameMap.extendAndSet(MMAP_DEFAULT, "MMAP_DEFAULT");
         tagNameMap.extendAndSet(NATIVE_DEFAULT, "NATIVE_DEFAULT");
         tagNameMap.extendAndSet(MMAP_O3, "MMAP_O3");
@@ -138,5 +160,7 @@ public final class MemoryTag {
         tagNameMap.extendAndSet(NATIVE_IO_DISPATCHER_RSS, "NATIVE_IO_DISPATCHER_RSS");
         tagNameMap.extendAndSet(NATIVE_FUNC_RSS, "NATIVE_FUNC_RSS");
         tagNameMap.extendAndSet(NATIVE_DIRECT_CHAR_SINK, "NATIVE_DIRECT_CHAR_SINK");
+        tagNameMap.extendAndSet(NATIVE_INDEX_BUILD, "NATIVE_INDEX_BUILD");
+        tagNameMap.extendAndSet(MMAP_MAP_SPILL, "MMAP_MAP_SPILL");
     }
 }
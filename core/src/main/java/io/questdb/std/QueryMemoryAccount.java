@@ -0,0 +1,419 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.std;
+
+import io.questdb.cairo.CairoException;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Native memory budget of a single query. The account is bound to the query's
+ * {@link io.questdb.griffin.SqlExecutionContext} and activated on every thread that works
+ * on the query: the connection thread with {@link #activate()} and worker threads, which
+ * reduce page frames or aggregate on behalf of the query, with {@link #swap(QueryMemoryAccount)}.
+ * From then on {@link Unsafe} charges the account for every allocation with a
+ * {@link MemoryTag#isQueryTag(int) query tag}, i.e. maps, record chains and sort trees.
+ * Allocation that would take the query over its limit, or the global query memory pool over
+ * its size, fails with {@link CairoException} before any memory is allocated.
+ * <p>
+ * {@link #admit(long)} declines new queries while the pool is exhausted, callers are expected
+ * to queue such queries and retry later.
+ * <p>
+ * Every charged allocation remembers its account, reallocation and free are charged and
+ * credited to that account regardless of which account, if any, is active at the time.
+ * Owners are looked up in a striped map, so that queries running in parallel rarely contend,
+ * while the account itself keeps addresses and sizes of its allocations. Memory that is still
+ * allocated when the account is released, e.g. maps of cached factories, is returned to the
+ * pool on {@link #release()} and is no longer tracked. Such memory is taken over by the account
+ * that reallocates it next. Release must not run concurrently with allocations charged to the
+ * account, i.e. query has to wait for its worker tasks to finish first.
+ */
+public class QueryMemoryAccount implements Mutable {
+    private static final ThreadLocal<ActiveAccount> ACTIVE = new ThreadLocal<>(ActiveAccount::new);
+    private static final AtomicLong POOL_USED = new AtomicLong();
+    private static final AtomicLong QUEUED_COUNT = new AtomicLong();
+    private static final int STRIPE_COUNT = 64;
+    private static final int STRIPE_MASK = STRIPE_COUNT - 1;
+    // owners of tracked allocations, each stripe is guarded by its own monitor
+    @SuppressWarnings("unchecked")
+    private static final LongObjHashMap<QueryMemoryAccount>[] OWNERS = new LongObjHashMap[STRIPE_COUNT];
+    // lets free() skip owner lookup when no allocation is tracked
+    private static final AtomicInteger TRACKED_COUNT = new AtomicInteger();
+    private static volatile long poolSize;
+    // addresses and sizes of allocations charged to this account, guarded by the account monitor
+    private final LongLongHashMap allocations = new LongLongHashMap();
+    private final LongLongHashMap.LongLongConsumer removeOwnerRef = this::removeOwner;
+    private final AtomicLong used = new AtomicLong();
+    private volatile boolean admitted;
+    private long limit;
+    private volatile boolean limitExceeded;
+
+    public QueryMemoryAccount() {
+    }
+
+    public static void deactivate() {
+        ACTIVE.get().account = null;
+    }
+
+    public static long getPoolSize() {
+        return poolSize;
+    }
+
+    /**
+     * @param poolSize maximum number of bytes all running queries may hold, 0 means unlimited
+     */
+    public static void setPoolSize(long poolSize) {
+        QueryMemoryAccount.poolSize = poolSize;
+    }
+
+    public static long getPoolUsed() {
+        return POOL_USED.get();
+    }
+
+    /**
+     * @return number of times queries were declined admission because pool was exhausted
+     */
+    public static long getQueuedCount() {
+        return QUEUED_COUNT.get();
+    }
+
+    /**
+     * Makes given account active on the current thread. Worker threads use this method to
+     * charge the query they are working for and restore previous account when done.
+     *
+     * @param account account to activate, null deactivates current account
+     * @return previously active account
+     */
+    public static QueryMemoryAccount swap(@Nullable QueryMemoryAccount account) {
+        final ActiveAccount active = ACTIVE.get();
+        final QueryMemoryAccount previous = active.account;
+        active.account = account;
+        return previous;
+    }
+
+    public void activate() {
+        ACTIVE.get().account = this;
+    }
+
+    /**
+     * Admits new query unless global query memory pool is exhausted. Admitting account that
+     * has not been released yet is a no-op. When neither query limit nor pool size is set
+     * the query is let through without being admitted, its memory is not tracked at all.
+     *
+     * @param limit maximum number of bytes the query may allocate, 0 means unlimited
+     * @return false when query has to wait for memory to be released by other queries
+     */
+    public boolean admit(long limit) {
+        if (admitted) {
+            return true;
+        }
+        final long poolSize = QueryMemoryAccount.poolSize;
+        if (limit == 0 && poolSize == 0) {
+            return true;
+        }
+        if (poolSize > 0 && POOL_USED.get() >= poolSize) {
+            QUEUED_COUNT.incrementAndGet();
+            return false;
+        }
+        this.limit = limit;
+        this.limitExceeded = false;
+        this.admitted = true;
+        return true;
+    }
+
+    /**
+     * Throws when memory grown outside the allocation path, e.g. by worker threads or native
+     * code, took the query over its limit or the pool over its size.
+     */
+    public void checkLimit() {
+        if (limitExceeded) {
+            throw CairoException.nonCritical()
+                    .put("query memory limit exceeded [limit=").put(limit)
+                    .put(", used=").put(used.get())
+                    .put(", poolUsed=").put(POOL_USED.get())
+                    .put(", poolSize=").put(poolSize)
+                    .put(']');
+        }
+    }
+
+    @Override
+    public void clear() {
+        release();
+    }
+
+    public long getLimit() {
+        return limit;
+    }
+
+    public long getUsed() {
+        return used.get();
+    }
+
+    public boolean isAdmitted() {
+        return admitted;
+    }
+
+    public boolean isLimitExceeded() {
+        return limitExceeded;
+    }
+
+    public void release() {
+        if (admitted) {
+            synchronized (this) {
+                final int n = allocations.size();
+                if (n > 0) {
+                    allocations.forEach(removeOwnerRef);
+                    allocations.clear();
+                    // decrement only once owners are removed, free() must not skip the lookup before that
+                    TRACKED_COUNT.addAndGet(-n);
+                }
+                POOL_USED.addAndGet(-used.getAndSet(0));
+            }
+            admitted = false;
+        }
+    }
+
+    private static QueryMemoryAccount getActive() {
+        final QueryMemoryAccount account = ACTIVE.get().account;
+        return account != null && account.admitted ? account : null;
+    }
+
+    private static LongObjHashMap<QueryMemoryAccount> owners(long address) {
+        return OWNERS[Hash.spread((int) (address >>> 4)) & STRIPE_MASK];
+    }
+
+    private static QueryMemoryAccount ownerOf(long address) {
+        final LongObjHashMap<QueryMemoryAccount> owners = owners(address);
+        synchronized (owners) {
+            return owners.get(address);
+        }
+    }
+
+    private void charge(long size) {
+        if (size > 0) {
+            long u;
+            do {
+                u = used.get();
+                if (limit > 0 && u + size > limit) {
+                    limitExceeded = true;
+                    throw CairoException.nonCritical()
+                            .put("query memory limit exceeded [limit=").put(limit)
+                            .put(", used=").put(u)
+                            .put(", requested=").put(size)
+                            .put(']');
+                }
+            } while (!used.compareAndSet(u, u + size));
+
+            final long poolSize = QueryMemoryAccount.poolSize;
+            final long poolUsed = POOL_USED.addAndGet(size);
+            if (poolSize > 0 && poolUsed > poolSize) {
+                POOL_USED.addAndGet(-size);
+                used.addAndGet(-size);
+                limitExceeded = true;
+                throw CairoException.nonCritical()
+                        .put("query memory pool is exhausted [used=").put(poolUsed - size)
+                        .put(", size=").put(poolSize)
+                        .put(", requested=").put(size)
+                        .put(']');
+            }
+        } else {
+            chargeUnchecked(size);
+        }
+    }
+
+    private void chargeUnchecked(long size) {
+        used.addAndGet(size);
+        POOL_USED.addAndGet(size);
+    }
+
+    private void credit0(long address) {
+        synchronized (this) {
+            final int index = allocations.keyIndex(address);
+            if (index < 0) {
+                final long size = allocations.valueAt(index);
+                allocations.removeAt(index);
+                removeOwner(address, size);
+                TRACKED_COUNT.decrementAndGet();
+                chargeUnchecked(-size);
+            }
+        }
+    }
+
+    @SuppressWarnings("unused")
+    private void removeOwner(long address, long size) {
+        final LongObjHashMap<QueryMemoryAccount> owners = owners(address);
+        synchronized (owners) {
+            final int index = owners.keyIndex(address);
+            if (index < 0 && owners.valueAtQuick(index) == this) {
+                owners.removeAt(index);
+            }
+        }
+    }
+
+    private void track(long address, long size) {
+        synchronized (this) {
+            allocations.put(address, size);
+            final LongObjHashMap<QueryMemoryAccount> owners = owners(address);
+            synchronized (owners) {
+                owners.put(address, this);
+            }
+        }
+        TRACKED_COUNT.incrementAndGet();
+    }
+
+    /**
+     * Stops tracking the address without crediting the account.
+     *
+     * @return false when address is not tracked by this account
+     */
+    private boolean untrack(long address) {
+        synchronized (this) {
+            final int index = allocations.keyIndex(address);
+            if (index < 0) {
+                removeOwner(address, allocations.valueAt(index));
+                allocations.removeAt(index);
+                TRACKED_COUNT.decrementAndGet();
+                return true;
+            }
+            return false;
+        }
+    }
+
+    /**
+     * Charges active account before new memory is allocated.
+     *
+     * @return charged account, null when allocation is not tracked
+     */
+    static QueryMemoryAccount chargeMalloc(long size) {
+        final QueryMemoryAccount account = getActive();
+        if (account != null) {
+            account.charge(size);
+        }
+        return account;
+    }
+
+    /**
+     * Charges the owner of reallocated memory. Untracked memory is taken over by the active account.
+     * Old address is no longer tracked once this method returns, it may be reused by other threads
+     * as soon as memory is reallocated.
+     *
+     * @return charged account, null when reallocation is not tracked
+     */
+    static QueryMemoryAccount chargeRealloc(long address, long oldSize, long newSize) {
+        final QueryMemoryAccount owner = takeOver(address, oldSize);
+        if (owner != null) {
+            try {
+                owner.charge(newSize - oldSize);
+            } catch (CairoException e) {
+                // memory stays where it is
+                owner.track(address, oldSize);
+                throw e;
+            }
+        }
+        return owner;
+    }
+
+    /**
+     * Charges the owner of memory that native code has already resized in place, e.g. rosti map.
+     * Resize cannot be declined at this point, when it takes the owner over its budget the owner
+     * is flagged, see {@link #isLimitExceeded()}.
+     */
+    static void chargeResize(long address, long oldSize, long newSize) {
+        final QueryMemoryAccount owner = takeOver(address, oldSize);
+        if (owner != null) {
+            owner.chargeUnchecked(newSize - oldSize);
+            owner.track(address, newSize);
+            final long limit = owner.limit;
+            final long poolSize = QueryMemoryAccount.poolSize;
+            if ((limit > 0 && owner.used.get() > limit) || (poolSize > 0 && POOL_USED.get() > poolSize)) {
+                owner.limitExceeded = true;
+            }
+        }
+    }
+
+    /**
+     * Credits the owner of memory that is about to be freed.
+     */
+    static void credit(long address) {
+        if (TRACKED_COUNT.get() > 0) {
+            final QueryMemoryAccount owner = ownerOf(address);
+            if (owner != null) {
+                owner.credit0(address);
+            }
+        }
+    }
+
+    private static QueryMemoryAccount takeOver(long address, long oldSize) {
+        final QueryMemoryAccount active = getActive();
+        if (active == null && TRACKED_COUNT.get() == 0) {
+            return null;
+        }
+        final QueryMemoryAccount owner = ownerOf(address);
+        if (owner != null && owner.untrack(address)) {
+            return owner;
+        }
+        if (active != null) {
+            // existing memory is taken over as is, only growth is subject to the limit
+            active.chargeUnchecked(oldSize);
+        }
+        return active;
+    }
+
+    /**
+     * Undoes the charge of allocation or reallocation that failed.
+     *
+     * @param address address of memory that remains allocated, 0 for failed allocation
+     * @param size    size of memory that remains allocated
+     * @param charged number of bytes charged for the allocation
+     */
+    void rollback(long address, long size, long charged) {
+        chargeUnchecked(-charged);
+        if (address != 0) {
+            track(address, size);
+        }
+    }
+
+    /**
+     * Records address of memory charged to this account by {@link #chargeMalloc(long)}
+     * or {@link #chargeRealloc(long, long, long)}.
+     */
+    void tracked(long address, long size) {
+        if (address != 0) {
+            track(address, size);
+        }
+    }
+
+    private static class ActiveAccount {
+        private QueryMemoryAccount account;
+    }
+
+    static {
+        for (int i = 0; i < STRIPE_COUNT; i++) {
+            OWNERS[i] = new LongObjHashMap<>();
+        }
+    }
+}
@@ -69,6 +69,8 @@ public final class Rosti {
 
     public static void free(long pRosti) {
         long size = getAllocMemory(pRosti);
+        // credit before address can be reused by another thread
+        QueryMemoryAccount.credit(pRosti);
         free0(pRosti);
         Unsafe.recordMemAlloc(-size, MemoryTag.NATIVE_ROSTI);
     }
@@ -293,6 +295,11 @@ public final class Rosti {
     public static void updateMemoryUsage(long pRosti, long oldSize) {
         long newSize = Rosti.getAllocMemory(pRosti);
         Unsafe.recordMemAlloc(newSize - oldSize, MemoryTag.NATIVE_ROSTI);
+        // map is charged to the query that grows it, growth over the budget is only flagged
+        // because memory has already been allocated by native code
+        if (newSize != oldSize) {
+            QueryMemoryAccount.chargeResize(pRosti, oldSize, newSize);
+        }
     }
 
     //triggers OOM on next allocation happening inside rosti
@@ -0,0 +1,72 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.std;
+
+/**
+ * SIMD-within-a-register helpers. Eight bytes are processed at once using plain
+ * 64-bit arithmetic, which keeps the code portable across CPUs and JVMs. Bytes
+ * are assumed to be loaded in little-endian order, i.e. the byte at the lowest
+ * address ends up in the least significant position of the word.
+ */
+public final class SwarUtils {
+    private static final long HI_BITS = 0x8080808080808080L;
+    private static final long LO_BITS = 0x0101010101010101L;
+
+    private SwarUtils() {
+    }
+
+    /**
+     * Copies byte value into every byte of 64-bit word.
+     *
+     * @param b byte value
+     * @return word with all bytes set to b
+     */
+    public static long broadcast(byte b) {
+        return LO_BITS * (b & 0xffL);
+    }
+
+    /**
+     * Returns index of the lowest byte marked by {@link #markZeroBytes(long)}.
+     *
+     * @param mask non-zero mask
+     * @return byte index, 0-7
+     */
+    public static int indexOfFirstMarkedByte(long mask) {
+        return Long.numberOfTrailingZeros(mask) >>> 3;
+    }
+
+    /**
+     * Sets high bit of every zero byte in the word. Only the lowest marked byte is
+     * guaranteed to be exact, bytes above it can be marked falsely due to borrow
+     * propagation. This is fine for "find first" style scans.
+     *
+     * @param w word to test
+     * @return mask with high bits set for zero bytes, 0 if there are none
+     */
+    public static long markZeroBytes(long w) {
+        return (w - LO_BITS) & ~w & HI_BITS;
+    }
+}
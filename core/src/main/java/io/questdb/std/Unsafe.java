@@ -177,6 +177,10 @@ public final class Unsafe {
 
     public static long free(long ptr, long size, int memoryTag) {
         if (ptr != 0) {
+            if (MemoryTag.isQueryTag(memoryTag)) {
+                // credit before address can be reused by another thread
+                QueryMemoryAccount.credit(ptr);
+            }
             getUnsafe().freeMemory(ptr);
             FREE_COUNT.incrementAndGet();
             recordMemAlloc(-size, memoryTag);
@@ -234,12 +238,20 @@ public final class Unsafe {
     }
 
     public static long malloc(long size, int memoryTag) {
+        // throws before allocation when query is over its budget
+        final QueryMemoryAccount account = MemoryTag.isQueryTag(memoryTag) ? QueryMemoryAccount.chargeMalloc(size) : null;
         try {
             long ptr = getUnsafe().allocateMemory(size);
             recordMemAlloc(size, memoryTag);
             MALLOC_COUNT.incrementAndGet();
+            if (account != null) {
+                account.tracked(ptr, size);
+            }
             return ptr;
         } catch (OutOfMemoryError oom) {
+            if (account != null) {
+                account.rollback(0, 0, size);
+            }
             System.err.println("Unsafe.malloc() OutOfMemoryError, mem_used=" + MEM_USED.get()
                     + ", size=" + size + ", memoryTag=" + memoryTag);
             throw oom;
@@ -247,12 +259,19 @@ public final class Unsafe {
     }
 
     public static long realloc(long address, long oldSize, long newSize, int memoryTag) {
+        final QueryMemoryAccount account = MemoryTag.isQueryTag(memoryTag) ? QueryMemoryAccount.chargeRealloc(address, oldSize, newSize) : null;
         try {
             long ptr = getUnsafe().reallocateMemory(address, newSize);
             recordMemAlloc(-oldSize + newSize, memoryTag);
             REALLOC_COUNT.incrementAndGet();
+            if (account != null) {
+                account.tracked(ptr, newSize);
+            }
             return ptr;
         } catch (OutOfMemoryError oom) {
+            if (account != null) {
+                account.rollback(address, oldSize, newSize - oldSize);
+            }
             System.err.println("Unsafe.realloc() OutOfMemoryError, mem_used=" + MEM_USED.get()
                     + ", old_size=" + oldSize + ", new_size=" + newSize + ", memoryTag=" + memoryTag);
             throw oom;
@@ -112,6 +112,10 @@ public class TableWriterTask implements Closeable {
         this.cmd = cmd;
     }
 
+    public long getAppendOffset() {
+        return appendPtr - data;
+    }
+
     public long getData() {
         return data;
     }
@@ -53,6 +53,7 @@ open module io.questdb {
     exports io.questdb.cutlass.line.udp;
     exports io.questdb.cutlass.line.tcp;
     exports io.questdb.cutlass.pgwire;
+    exports io.questdb.cutlass.replication;
     exports io.questdb.cutlass.text;
     exports io.questdb.cutlass.text.types;
 
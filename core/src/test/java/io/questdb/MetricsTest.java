@@ -67,6 +67,9 @@ public class MetricsTest {
         MatcherAssert.assertThat(metricsRegistry.getMetricNames(), hasItem("memory_jvm_free"));
         MatcherAssert.assertThat(metricsRegistry.getMetricNames(), hasItem("memory_jvm_total"));
         MatcherAssert.assertThat(metricsRegistry.getMetricNames(), hasItem("memory_jvm_max"));
+        MatcherAssert.assertThat(metricsRegistry.getMetricNames(), hasItem("memory_query_pool_used"));
+        MatcherAssert.assertThat(metricsRegistry.getMetricNames(), hasItem("memory_query_pool_size"));
+        MatcherAssert.assertThat(metricsRegistry.getMetricNames(), hasItem("memory_query_queued_count"));
     }
 
     @Test
@@ -37,6 +37,7 @@ import io.questdb.network.SelectFacadeImpl;
 import io.questdb.std.Files;
 import io.questdb.std.FilesFacadeImpl;
 import io.questdb.std.Misc;
+import io.questdb.std.Numbers;
 import io.questdb.std.Os;
 import io.questdb.std.datetime.microtime.MicrosecondClockImpl;
 import io.questdb.std.datetime.millitime.MillisecondClockImpl;
@@ -97,6 +98,8 @@ public class PropServerConfigurationTest {
         Assert.assertEquals(100, configuration.getWorkerPoolConfiguration().getYieldThreshold());
         Assert.assertEquals(10000, configuration.getWorkerPoolConfiguration().getSleepThreshold());
         Assert.assertEquals(100, configuration.getWorkerPoolConfiguration().getSleepTimeout());
+        Assert.assertEquals(0, configuration.getQueryWorkerPoolConfiguration().getWorkerCount());
+        Assert.assertEquals("query", configuration.getQueryWorkerPoolConfiguration().getPoolName());
 
         // this is going to need interesting validation logic
         // configuration path is expected to be relative, and we need to check if absolute path is good
@@ -106,6 +109,7 @@ public class PropServerConfigurationTest {
         Assert.assertEquals("Keep-Alive: timeout=5, max=10000" + Misc.EOL, configuration.getHttpServerConfiguration().getStaticContentProcessorConfiguration().getKeepAliveHeader());
 
         Assert.assertEquals(64, configuration.getHttpServerConfiguration().getDispatcherConfiguration().getLimit());
+        Assert.assertFalse(configuration.getHttpServerConfiguration().getDispatcherConfiguration().isSharded());
         Assert.assertEquals(64, configuration.getHttpServerConfiguration().getDispatcherConfiguration().getEventCapacity());
         Assert.assertEquals(64, configuration.getHttpServerConfiguration().getDispatcherConfiguration().getIOQueueCapacity());
         Assert.assertEquals(300000, configuration.getHttpServerConfiguration().getDispatcherConfiguration().getTimeout());
@@ -127,6 +131,7 @@ public class PropServerConfigurationTest {
         Assert.assertEquals(64, configuration.getCairoConfiguration().getTextConfiguration().getTextLexerStringPoolCapacity());
         Assert.assertEquals(64, configuration.getCairoConfiguration().getTextConfiguration().getTimestampAdapterPoolCapacity());
         Assert.assertEquals(4096, configuration.getCairoConfiguration().getTextConfiguration().getUtf8SinkSize());
+        Assert.assertEquals(128 * Numbers.SIZE_1MB, configuration.getCairoConfiguration().getTextConfiguration().getParallelImportThreshold());
         Assert.assertEquals(0, configuration.getHttpServerConfiguration().getDispatcherConfiguration().getBindIPv4Address());
         Assert.assertEquals(9000, configuration.getHttpServerConfiguration().getDispatcherConfiguration().getBindPort());
 
@@ -173,6 +178,11 @@ public class PropServerConfigurationTest {
         Assert.assertEquals(4 * 1024 * 1024, configuration.getCairoConfiguration().getSqlMapPageSize());
         Assert.assertEquals(Integer.MAX_VALUE, configuration.getCairoConfiguration().getSqlMapMaxPages());
         Assert.assertEquals(Integer.MAX_VALUE, configuration.getCairoConfiguration().getSqlMapMaxResizes());
+        Assert.assertEquals(0, configuration.getCairoConfiguration().getSqlMapSpillThreshold());
+        Assert.assertEquals(16, configuration.getCairoConfiguration().getSqlMapSpillPartitionCount());
+        Assert.assertEquals(0, configuration.getCairoConfiguration().getSqlQueryMemoryLimit());
+        Assert.assertEquals(0, configuration.getCairoConfiguration().getSqlQueryMemoryPoolSize());
+        Assert.assertEquals(SqlQueryPriority.PRIORITY_NORMAL, configuration.getCairoConfiguration().getSqlQueryPriority());
         Assert.assertEquals(1024, configuration.getCairoConfiguration().getSqlModelPoolCapacity());
         Assert.assertEquals(10_000, configuration.getCairoConfiguration().getSqlMaxNegativeLimit());
         Assert.assertEquals(4 * 1024 * 1024, configuration.getCairoConfiguration().getSqlSortKeyPageSize());
@@ -197,6 +207,10 @@ public class PropServerConfigurationTest {
         Assert.assertEquals(16, configuration.getCairoConfiguration().getColumnCastModelPoolCapacity());
         Assert.assertEquals(16, configuration.getCairoConfiguration().getCreateTableModelPoolCapacity());
         Assert.assertEquals(1, configuration.getCairoConfiguration().getPartitionPurgeListCapacity());
+        Assert.assertEquals(60_000, configuration.getCairoConfiguration().getPartitionRetentionCheckInterval());
+        Assert.assertEquals(0, configuration.getCairoConfiguration().getHotCacheRowCount());
+        Assert.assertEquals(1_000_000, configuration.getCairoConfiguration().getBloomFilterBlockRowCount());
+        Assert.assertFalse(configuration.getCairoConfiguration().isPartitionRetentionDetachEnabled());
         Assert.assertEquals(CairoConfiguration.O_NONE, configuration.getCairoConfiguration().getWriterFileOpenOpts());
         Assert.assertTrue(configuration.getCairoConfiguration().isIOURingEnabled());
 
@@ -208,6 +222,8 @@ public class PropServerConfigurationTest {
         Assert.assertEquals(2048, configuration.getLineUdpReceiverConfiguration().getMsgBufferSize());
         Assert.assertEquals(10000, configuration.getLineUdpReceiverConfiguration().getMsgCount());
         Assert.assertEquals(8388608, configuration.getLineUdpReceiverConfiguration().getReceiveBufferSize());
+        Assert.assertEquals(1, configuration.getLineUdpReceiverConfiguration().getReceiverCount());
+        Assert.assertEquals(1024, configuration.getLineUdpReceiverConfiguration().getQueueCapacity());
         Assert.assertSame(AllowAllCairoSecurityContext.INSTANCE, configuration.getLineUdpReceiverConfiguration().getCairoSecurityContext());
         Assert.assertTrue(configuration.getLineUdpReceiverConfiguration().isEnabled());
         Assert.assertEquals(-1, configuration.getLineUdpReceiverConfiguration().ownThreadAffinity());
@@ -215,6 +231,8 @@ public class PropServerConfigurationTest {
 
         Assert.assertTrue(configuration.getCairoConfiguration().isSqlParallelFilterEnabled());
         Assert.assertTrue(configuration.getCairoConfiguration().isSqlParallelFilterPreTouchEnabled());
+        Assert.assertTrue(configuration.getCairoConfiguration().isSqlParallelLatestByEnabled());
+        Assert.assertEquals(64 * 1024, configuration.getCairoConfiguration().getSqlParallelLatestByMinChunkSize());
         Assert.assertEquals(1_000_000, configuration.getCairoConfiguration().getSqlPageFrameMaxRows());
         Assert.assertEquals(1000, configuration.getCairoConfiguration().getSqlPageFrameMinRows());
         Assert.assertEquals(4, configuration.getCairoConfiguration().getPageFrameReduceShardCount());
@@ -251,18 +269,38 @@ public class PropServerConfigurationTest {
         TestUtils.assertEquals(new File(root, "db").getAbsolutePath(), configuration.getCairoConfiguration().getRoot());
         TestUtils.assertEquals(new File(root, "conf").getAbsolutePath(), configuration.getCairoConfiguration().getConfRoot());
         TestUtils.assertEquals(new File(root, "snapshot").getAbsolutePath(), configuration.getCairoConfiguration().getSnapshotRoot());
+        TestUtils.assertEquals(new File(root, "tmp").getAbsolutePath(), configuration.getCairoConfiguration().getSqlMapSpillRoot());
 
         Assert.assertEquals("", configuration.getCairoConfiguration().getSnapshotInstanceId());
         Assert.assertTrue(configuration.getCairoConfiguration().isSnapshotRecoveryEnabled());
+        Assert.assertFalse(configuration.getCairoConfiguration().isSnapshotIncrementalEnabled());
+        Assert.assertFalse(configuration.getCairoConfiguration().isReaderPoolAdaptiveEvictionEnabled());
+        Assert.assertEquals(1, configuration.getCairoConfiguration().getReaderPoolPrewarmCount());
+        Assert.assertEquals(0, configuration.getCairoConfiguration().getReaderPoolPrewarmTables().size());
+
+        Assert.assertFalse(configuration.getReplicationConfiguration().isPrimaryEnabled());
+        Assert.assertFalse(configuration.getReplicationConfiguration().isReplicaEnabled());
+        Assert.assertEquals(0, configuration.getReplicationConfiguration().getBindIPv4Address());
+        Assert.assertEquals(9005, configuration.getReplicationConfiguration().getBindPort());
+        Assert.assertEquals(1024 * 1024, configuration.getReplicationConfiguration().getBufferSize());
+        Assert.assertEquals(16 * 1024 * 1024, configuration.getReplicationConfiguration().getMaxRequestSize());
+        Assert.assertEquals(30_000, configuration.getReplicationConfiguration().getTimeout());
+        TestUtils.assertEquals("127.0.0.1", configuration.getReplicationConfiguration().getPrimaryHost());
+        Assert.assertEquals(9005, configuration.getReplicationConfiguration().getPrimaryPort());
+        Assert.assertEquals(1000, configuration.getReplicationConfiguration().getReplicaSyncInterval());
+        Assert.assertEquals(0, configuration.getReplicationConfiguration().getReplicaTables().size());
+        Assert.assertNull(configuration.getReplicationConfiguration().getAuthToken());
 
         // assert mime types
         TestUtils.assertEquals("application/json", configuration.getHttpServerConfiguration().getStaticContentProcessorConfiguration().getMimeTypesCache().get("json"));
 
         Assert.assertEquals(500000, configuration.getCairoConfiguration().getMaxUncommittedRows());
+        Assert.assertEquals(1000, configuration.getCairoConfiguration().getMatViewRefreshInterval());
 
         // influxdb line TCP protocol
         Assert.assertTrue(configuration.getLineTcpReceiverConfiguration().isEnabled());
         Assert.assertEquals(256, configuration.getLineTcpReceiverConfiguration().getDispatcherConfiguration().getLimit());
+        Assert.assertFalse(configuration.getLineTcpReceiverConfiguration().getDispatcherConfiguration().isSharded());
         Assert.assertEquals(0, configuration.getLineTcpReceiverConfiguration().getDispatcherConfiguration().getBindIPv4Address());
         Assert.assertEquals(9009, configuration.getLineTcpReceiverConfiguration().getDispatcherConfiguration().getBindPort());
         Assert.assertEquals(256, configuration.getLineTcpReceiverConfiguration().getDispatcherConfiguration().getEventCapacity());
@@ -323,6 +361,7 @@ public class PropServerConfigurationTest {
 
         // Pg wire
         Assert.assertEquals(64, configuration.getPGWireConfiguration().getDispatcherConfiguration().getLimit());
+        Assert.assertFalse(configuration.getPGWireConfiguration().getDispatcherConfiguration().isSharded());
         Assert.assertEquals(2, configuration.getPGWireConfiguration().getBinParamCountCapacity());
         Assert.assertTrue(configuration.getPGWireConfiguration().isSelectCacheEnabled());
         Assert.assertEquals(8, configuration.getPGWireConfiguration().getSelectCacheBlockCount());
@@ -424,6 +463,13 @@ public class PropServerConfigurationTest {
         new PropServerConfiguration(root, properties, null, LOG, new BuildInformationHolder());
     }
 
+    @Test(expected = ServerConfigurationException.class)
+    public void testReplicationPrimaryRequiresAuthToken() throws ServerConfigurationException, JsonException {
+        Properties properties = new Properties();
+        properties.setProperty("replication.primary.enabled", "true");
+        new PropServerConfiguration(root, properties, null, LOG, new BuildInformationHolder());
+    }
+
     @Test(expected = ServerConfigurationException.class)
     public void testInvalidBindToPort() throws ServerConfigurationException, JsonException {
         Properties properties = new Properties();
@@ -649,6 +695,10 @@ public class PropServerConfigurationTest {
             Assert.assertEquals(100, configuration.getWorkerPoolConfiguration().getYieldThreshold());
             Assert.assertEquals(100000, configuration.getWorkerPoolConfiguration().getSleepThreshold());
             Assert.assertEquals(1000, configuration.getWorkerPoolConfiguration().getSleepTimeout());
+            Assert.assertEquals(2, configuration.getQueryWorkerPoolConfiguration().getWorkerCount());
+            Assert.assertArrayEquals(new int[]{3, 4}, configuration.getQueryWorkerPoolConfiguration().getWorkerAffinity());
+            Assert.assertTrue(configuration.getQueryWorkerPoolConfiguration().haltOnError());
+            Assert.assertEquals(50, configuration.getQueryWorkerPoolConfiguration().getYieldThreshold());
 
             Assert.assertEquals(new File(root, "public_ok").getAbsolutePath(),
                     configuration.getHttpServerConfiguration().getStaticContentProcessorConfiguration().getPublicDirectory());
@@ -678,6 +728,7 @@ public class PropServerConfigurationTest {
             Assert.assertEquals(128, configuration.getCairoConfiguration().getTextConfiguration().getTextLexerStringPoolCapacity());
             Assert.assertEquals(512, configuration.getCairoConfiguration().getTextConfiguration().getTimestampAdapterPoolCapacity());
             Assert.assertEquals(8192, configuration.getCairoConfiguration().getTextConfiguration().getUtf8SinkSize());
+            Assert.assertEquals(1024 * Numbers.SIZE_1MB, configuration.getCairoConfiguration().getTextConfiguration().getParallelImportThreshold());
             Assert.assertEquals(168101918, configuration.getHttpServerConfiguration().getDispatcherConfiguration().getBindIPv4Address());
             Assert.assertEquals(9900, configuration.getHttpServerConfiguration().getDispatcherConfiguration().getBindPort());
             Assert.assertEquals(2_000, configuration.getHttpServerConfiguration().getJsonQueryProcessorConfiguration().getConnectionCheckFrequency());
@@ -690,6 +741,24 @@ public class PropServerConfigurationTest {
             Assert.assertEquals(3, configuration.getCairoConfiguration().getFloatToStrCastScale());
             Assert.assertEquals("test-id-42", configuration.getCairoConfiguration().getSnapshotInstanceId());
             Assert.assertFalse(configuration.getCairoConfiguration().isSnapshotRecoveryEnabled());
+            Assert.assertTrue(configuration.getCairoConfiguration().isSnapshotIncrementalEnabled());
+            Assert.assertTrue(configuration.getCairoConfiguration().isReaderPoolAdaptiveEvictionEnabled());
+            Assert.assertEquals(4, configuration.getCairoConfiguration().getReaderPoolPrewarmCount());
+            Assert.assertEquals(2, configuration.getCairoConfiguration().getReaderPoolPrewarmTables().size());
+            Assert.assertEquals("trades", configuration.getCairoConfiguration().getReaderPoolPrewarmTables().getQuick(0));
+            Assert.assertEquals("quotes", configuration.getCairoConfiguration().getReaderPoolPrewarmTables().getQuick(1));
+
+            Assert.assertTrue(configuration.getReplicationConfiguration().isPrimaryEnabled());
+            Assert.assertTrue(configuration.getReplicationConfiguration().isReplicaEnabled());
+            Assert.assertEquals(9105, configuration.getReplicationConfiguration().getBindPort());
+            Assert.assertEquals(2 * 1024 * 1024, configuration.getReplicationConfiguration().getBufferSize());
+            Assert.assertEquals(5_000, configuration.getReplicationConfiguration().getTimeout());
+            TestUtils.assertEquals("10.0.0.5", configuration.getReplicationConfiguration().getPrimaryHost());
+            Assert.assertEquals(9205, configuration.getReplicationConfiguration().getPrimaryPort());
+            Assert.assertEquals(250, configuration.getReplicationConfiguration().getReplicaSyncInterval());
+            Assert.assertEquals(2, configuration.getReplicationConfiguration().getReplicaTables().size());
+            Assert.assertEquals("trades", configuration.getReplicationConfiguration().getReplicaTables().getQuick(0));
+            TestUtils.assertEquals("s3cret", configuration.getReplicationConfiguration().getAuthToken());
 
             Assert.assertEquals(CommitMode.ASYNC, configuration.getCairoConfiguration().getCommitMode());
             Assert.assertEquals(12, configuration.getCairoConfiguration().getCreateAsSelectRetryCount());
@@ -719,6 +788,11 @@ public class PropServerConfigurationTest {
             Assert.assertEquals(6 * 1024 * 1024, configuration.getCairoConfiguration().getSqlMapPageSize());
             Assert.assertEquals(1026, configuration.getCairoConfiguration().getSqlMapMaxPages());
             Assert.assertEquals(128, configuration.getCairoConfiguration().getSqlMapMaxResizes());
+            Assert.assertEquals(512 * 1024 * 1024, configuration.getCairoConfiguration().getSqlMapSpillThreshold());
+            Assert.assertEquals(32, configuration.getCairoConfiguration().getSqlMapSpillPartitionCount());
+            Assert.assertEquals(256 * 1024 * 1024, configuration.getCairoConfiguration().getSqlQueryMemoryLimit());
+            Assert.assertEquals(2L * 1024 * 1024 * 1024, configuration.getCairoConfiguration().getSqlQueryMemoryPoolSize());
+            Assert.assertEquals(SqlQueryPriority.PRIORITY_LOW, configuration.getCairoConfiguration().getSqlQueryPriority());
             Assert.assertEquals(256, configuration.getCairoConfiguration().getSqlModelPoolCapacity());
             Assert.assertEquals(42, configuration.getCairoConfiguration().getSqlMaxNegativeLimit());
             Assert.assertEquals(10 * 1024 * 1024, configuration.getCairoConfiguration().getSqlSortKeyPageSize());
@@ -755,6 +829,7 @@ public class PropServerConfigurationTest {
 
             Assert.assertEquals(2_000_000, configuration.getCairoConfiguration().getCommitLag());
             Assert.assertEquals(100000, configuration.getCairoConfiguration().getMaxUncommittedRows());
+            Assert.assertEquals(250, configuration.getCairoConfiguration().getMatViewRefreshInterval());
 
             Assert.assertEquals(256, configuration.getCairoConfiguration().getSqlDistinctTimestampKeyCapacity());
             Assert.assertEquals(0.4, configuration.getCairoConfiguration().getSqlDistinctTimestampLoadFactor(), 0.001);
@@ -766,6 +841,8 @@ public class PropServerConfigurationTest {
             Assert.assertEquals(4 * 1024 * 1024, configuration.getLineUdpReceiverConfiguration().getMsgBufferSize());
             Assert.assertEquals(4000, configuration.getLineUdpReceiverConfiguration().getMsgCount());
             Assert.assertEquals(512, configuration.getLineUdpReceiverConfiguration().getReceiveBufferSize());
+            Assert.assertEquals(4, configuration.getLineUdpReceiverConfiguration().getReceiverCount());
+            Assert.assertEquals(256, configuration.getLineUdpReceiverConfiguration().getQueueCapacity());
             Assert.assertEquals(PartitionBy.MONTH, configuration.getLineUdpReceiverConfiguration().getDefaultPartitionBy());
             Assert.assertFalse(configuration.getLineUdpReceiverConfiguration().isEnabled());
             Assert.assertEquals(2, configuration.getLineUdpReceiverConfiguration().ownThreadAffinity());
@@ -773,6 +850,8 @@ public class PropServerConfigurationTest {
 
             Assert.assertFalse(configuration.getCairoConfiguration().isSqlParallelFilterEnabled());
             Assert.assertFalse(configuration.getCairoConfiguration().isSqlParallelFilterPreTouchEnabled());
+            Assert.assertFalse(configuration.getCairoConfiguration().isSqlParallelLatestByEnabled());
+            Assert.assertEquals(1000, configuration.getCairoConfiguration().getSqlParallelLatestByMinChunkSize());
             Assert.assertEquals(1000, configuration.getCairoConfiguration().getSqlPageFrameMaxRows());
             Assert.assertEquals(100, configuration.getCairoConfiguration().getSqlPageFrameMinRows());
             Assert.assertEquals(128, configuration.getCairoConfiguration().getPageFrameReduceShardCount());
@@ -824,6 +903,10 @@ public class PropServerConfigurationTest {
             Assert.assertEquals(PartitionBy.MONTH, configuration.getLineTcpReceiverConfiguration().getDefaultPartitionBy());
             Assert.assertEquals(5_000, configuration.getLineTcpReceiverConfiguration().getWriterIdleTimeout());
             Assert.assertEquals(16, configuration.getCairoConfiguration().getPartitionPurgeListCapacity());
+            Assert.assertEquals(5_000, configuration.getCairoConfiguration().getPartitionRetentionCheckInterval());
+            Assert.assertEquals(100_000, configuration.getCairoConfiguration().getHotCacheRowCount());
+            Assert.assertEquals(250_000, configuration.getCairoConfiguration().getBloomFilterBlockRowCount());
+            Assert.assertTrue(configuration.getCairoConfiguration().isPartitionRetentionDetachEnabled());
             Assert.assertEquals(ColumnType.FLOAT, configuration.getLineTcpReceiverConfiguration().getDefaultColumnTypeForFloat());
             Assert.assertEquals(ColumnType.INT, configuration.getLineTcpReceiverConfiguration().getDefaultColumnTypeForInteger());
             Assert.assertFalse(configuration.getLineTcpReceiverConfiguration().getDisconnectOnError());
@@ -889,6 +972,7 @@ public class PropServerConfigurationTest {
             Assert.assertEquals(4194304, configuration.getHttpServerConfiguration().getDispatcherConfiguration().getSndBufSize());
             Assert.assertEquals(8388608, configuration.getHttpServerConfiguration().getDispatcherConfiguration().getRcvBufSize());
             Assert.assertTrue(configuration.getHttpServerConfiguration().getDispatcherConfiguration().getHint());
+            Assert.assertTrue(configuration.getHttpServerConfiguration().getDispatcherConfiguration().isSharded());
 
             Assert.assertEquals(9120, configuration.getHttpMinServerConfiguration().getDispatcherConfiguration().getBindPort());
             Assert.assertEquals(8, configuration.getHttpMinServerConfiguration().getDispatcherConfiguration().getLimit());
@@ -904,6 +988,7 @@ public class PropServerConfigurationTest {
             Assert.assertEquals(1_002, configuration.getLineTcpReceiverConfiguration().getDispatcherConfiguration().getQueueTimeout());
             Assert.assertEquals(32768, configuration.getLineTcpReceiverConfiguration().getDispatcherConfiguration().getRcvBufSize());
             Assert.assertTrue(configuration.getLineTcpReceiverConfiguration().getDispatcherConfiguration().getHint());
+            Assert.assertTrue(configuration.getLineTcpReceiverConfiguration().getDispatcherConfiguration().isSharded());
 
             // Pg wire
             Assert.assertEquals(11, configuration.getPGWireConfiguration().getDispatcherConfiguration().getLimit());
@@ -912,6 +997,7 @@ public class PropServerConfigurationTest {
             Assert.assertEquals(32768, configuration.getPGWireConfiguration().getDispatcherConfiguration().getRcvBufSize());
             Assert.assertEquals(32800, configuration.getPGWireConfiguration().getDispatcherConfiguration().getSndBufSize());
             Assert.assertTrue(configuration.getPGWireConfiguration().getDispatcherConfiguration().getHint());
+            Assert.assertTrue(configuration.getPGWireConfiguration().getDispatcherConfiguration().isSharded());
         }
     }
 
@@ -30,6 +30,7 @@ import io.questdb.cutlass.http.HttpServerConfiguration;
 import io.questdb.cutlass.line.tcp.LineTcpReceiverConfiguration;
 import io.questdb.cutlass.line.udp.LineUdpReceiverConfiguration;
 import io.questdb.cutlass.pgwire.PGWireConfiguration;
+import io.questdb.cutlass.replication.ReplicationConfiguration;
 import io.questdb.griffin.SqlException;
 import io.questdb.metrics.HealthMetrics;
 import io.questdb.metrics.MetricsConfiguration;
@@ -56,6 +57,47 @@ public class WorkerPoolManagerTest {
         Assert.assertEquals(workerCount, workerPoolManager.getSharedWorkerCount());
     }
 
+    @Test
+    public void testQueryPoolDedicated() {
+        final AtomicInteger counter = new AtomicInteger(0);
+        final WorkerPoolManager workerPoolManager = new WorkerPoolManager(createServerConfig(2, 3), METRICS) {
+            @Override
+            protected void configureSharedPool(WorkerPool sharedPool) {
+            }
+
+            @Override
+            protected void configureQueryPool(WorkerPool queryPool) {
+                Assert.assertNotSame(getSharedPool(), queryPool);
+                counter.incrementAndGet();
+            }
+        };
+        Assert.assertEquals(1, counter.get());
+        Assert.assertNotSame(workerPoolManager.getSharedPool(), workerPoolManager.getQueryPool());
+        Assert.assertEquals("query", workerPoolManager.getQueryPool().getPoolName());
+        Assert.assertEquals(2, workerPoolManager.getSharedWorkerCount());
+        Assert.assertEquals(3, workerPoolManager.getQueryWorkerCount());
+        workerPoolManager.halt();
+    }
+
+    @Test
+    public void testQueryPoolDefaultsToSharedPool() {
+        final AtomicInteger counter = new AtomicInteger(0);
+        final WorkerPoolManager workerPoolManager = new WorkerPoolManager(createServerConfig(2), METRICS) {
+            @Override
+            protected void configureSharedPool(WorkerPool sharedPool) {
+            }
+
+            @Override
+            protected void configureQueryPool(WorkerPool queryPool) {
+                Assert.assertSame(getSharedPool(), queryPool);
+                counter.incrementAndGet();
+            }
+        };
+        Assert.assertEquals(1, counter.get());
+        Assert.assertSame(workerPoolManager.getSharedPool(), workerPoolManager.getQueryPool());
+        Assert.assertEquals(2, workerPoolManager.getQueryWorkerCount());
+    }
+
     @Test
     public void testGetInstanceDefaultPool() {
         final int workerCount = 2;
@@ -172,6 +214,10 @@ public class WorkerPoolManagerTest {
     }
 
     private static ServerConfiguration createServerConfig(int workerCount) {
+        return createServerConfig(workerCount, 0);
+    }
+
+    private static ServerConfiguration createServerConfig(int workerCount, int queryWorkerCount) {
         return new ServerConfiguration() {
             @Override
             public CairoConfiguration getCairoConfiguration() {
@@ -203,6 +249,21 @@ public class WorkerPoolManagerTest {
                 return () -> workerCount;
             }
 
+            @Override
+            public WorkerPoolConfiguration getQueryWorkerPoolConfiguration() {
+                return new WorkerPoolConfiguration() {
+                    @Override
+                    public int getWorkerCount() {
+                        return queryWorkerCount;
+                    }
+
+                    @Override
+                    public String getPoolName() {
+                        return "query";
+                    }
+                };
+            }
+
             @Override
             public PGWireConfiguration getPGWireConfiguration() {
                 return null;
@@ -212,6 +273,11 @@ public class WorkerPoolManagerTest {
             public MetricsConfiguration getMetricsConfiguration() {
                 return null;
             }
+
+            @Override
+            public ReplicationConfiguration getReplicationConfiguration() {
+                return null;
+            }
         };
     }
 }
@@ -85,13 +85,18 @@ public class AbstractCairoTest {
     protected static int capacity = -1;
     protected static int sampleByIndexSearchPageSize;
     protected static int binaryEncodingMaxLength = -1;
+    protected static int bloomFilterBlockRowCount = -1;
     protected static CharSequence defaultMapType;
     protected static int pageFrameMaxRows = -1;
+    protected static long mapSpillThreshold = -1;
+    protected static int mapSpillPartitionCount = -1;
     protected static int jitMode = SqlJitMode.JIT_MODE_ENABLED;
     protected static int rndFunctionMemoryPageSize = -1;
     protected static int rndFunctionMemoryMaxPages = -1;
     protected static String snapshotInstanceId = null;
     protected static Boolean snapshotRecoveryEnabled = null;
+    protected static Boolean snapshotIncrementalEnabled = null;
+    protected static Boolean partitionRetentionDetachEnabled = null;
     protected static Boolean enableParallelFilter = null;
     protected static Boolean enableColumnPreTouch = null;
     protected static int queryCacheEventQueueCapacity = -1;
@@ -183,6 +188,11 @@ public class AbstractCairoTest {
                 return binaryEncodingMaxLength > 0 ? binaryEncodingMaxLength : super.getBinaryEncodingMaxLength();
             }
 
+            @Override
+            public int getBloomFilterBlockRowCount() {
+                return bloomFilterBlockRowCount > 0 ? bloomFilterBlockRowCount : super.getBloomFilterBlockRowCount();
+            }
+
             @Override
             public double getColumnPurgeRetryDelayMultiplier() {
                 return columnPurgeRetryDelayMultiplier > 0 ? columnPurgeRetryDelayMultiplier : 2.0;
@@ -206,6 +216,16 @@ public class AbstractCairoTest {
                 return snapshotRecoveryEnabled == null ? super.isSnapshotRecoveryEnabled() : snapshotRecoveryEnabled;
             }
 
+            @Override
+            public boolean isSnapshotIncrementalEnabled() {
+                return snapshotIncrementalEnabled == null ? super.isSnapshotIncrementalEnabled() : snapshotIncrementalEnabled;
+            }
+
+            @Override
+            public boolean isPartitionRetentionDetachEnabled() {
+                return partitionRetentionDetachEnabled == null ? super.isPartitionRetentionDetachEnabled() : partitionRetentionDetachEnabled;
+            }
+
             @Override
             public int getCopyPoolCapacity() {
                 return capacity == -1 ? super.getCopyPoolCapacity() : capacity;
@@ -293,6 +313,16 @@ public class AbstractCairoTest {
                 return jitMode;
             }
 
+            @Override
+            public int getSqlMapSpillPartitionCount() {
+                return mapSpillPartitionCount < 0 ? super.getSqlMapSpillPartitionCount() : mapSpillPartitionCount;
+            }
+
+            @Override
+            public long getSqlMapSpillThreshold() {
+                return mapSpillThreshold < 0 ? super.getSqlMapSpillThreshold() : mapSpillThreshold;
+            }
+
             @Override
             public int getSqlPageFrameMaxRows() {
                 return pageFrameMaxRows < 0 ? super.getSqlPageFrameMaxRows() : pageFrameMaxRows;
@@ -441,12 +471,17 @@ public class AbstractCairoTest {
         writerAsyncCommandBusyWaitTimeout = -1;
         writerAsyncCommandMaxTimeout = -1;
         pageFrameMaxRows = -1;
+        bloomFilterBlockRowCount = -1;
+        mapSpillThreshold = -1;
+        mapSpillPartitionCount = -1;
         jitMode = SqlJitMode.JIT_MODE_ENABLED;
         rndFunctionMemoryPageSize = -1;
         rndFunctionMemoryMaxPages = -1;
         spinLockTimeout = -1;
         snapshotInstanceId = null;
         snapshotRecoveryEnabled = null;
+        snapshotIncrementalEnabled = null;
+        partitionRetentionDetachEnabled = null;
         enableParallelFilter = null;
         enableColumnPreTouch = null;
         hideTelemetryTable = false;
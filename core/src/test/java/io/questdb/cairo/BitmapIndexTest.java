@@ -189,6 +189,138 @@ public class BitmapIndexTest extends AbstractCairoTest {
         });
     }
 
+    @Test
+    public void testStage() throws Exception {
+        TestUtils.assertMemoryLeak(() -> {
+            LongList list = new LongList();
+            create(configuration, path.trimTo(plen), "x", 4);
+            try (BitmapIndexWriter writer = new BitmapIndexWriter(configuration, path, "x", COLUMN_NAME_TXN_NONE)) {
+                writer.add(0, 1000);
+                writer.add(64, 10);
+                writer.add(64, 987);
+
+                writer.stage(256, 1234);
+                writer.stage(64, 1001);
+                writer.stage(256, 5567);
+                writer.stage(64, 1002);
+                writer.stage(64, 1003);
+                writer.stage(64, 1004);
+                writer.stage(64, 1005);
+                writer.stage(64, 1006);
+                writer.stage(32, 1007);
+
+                // staged values are not visible until committed
+                assertThat("[]", writer.getCursor(256), list);
+                assertThat("[987,10]", writer.getCursor(64), list);
+                writer.commitStaged();
+
+                writer.add(32, 1008);
+                writer.add(64, 1009);
+
+                assertThat("[5567,1234]", writer.getCursor(256), list);
+                assertThat("[1009,1006,1005,1004,1003,1002,1001,987,10]", writer.getCursor(64), list);
+                assertThat("[1008,1007]", writer.getCursor(32), list);
+                assertThat("[1000]", writer.getCursor(0), list);
+                assertThat("[]", writer.getCursor(16), list);
+                Assert.assertEquals(257, writer.getKeyCount());
+            }
+
+            try (BitmapIndexBwdReader reader = new BitmapIndexBwdReader(configuration, path.trimTo(plen), "x", COLUMN_NAME_TXN_NONE, 0)) {
+                assertThat("[5567,1234]", reader.getCursor(true, 256, 0, Long.MAX_VALUE), list);
+                assertThat("[1009,1006,1005,1004,1003,1002,1001,987,10]", reader.getCursor(true, 64, 0, Long.MAX_VALUE), list);
+                assertThat("[1008,1007]", reader.getCursor(true, 32, 0, Long.MAX_VALUE), list);
+                assertThat("[1000]", reader.getCursor(true, 0, 0, Long.MAX_VALUE), list);
+            }
+
+            try (BitmapIndexFwdReader reader = new BitmapIndexFwdReader(configuration, path.trimTo(plen), "x", COLUMN_NAME_TXN_NONE, 0)) {
+                assertThat("[1234,5567]", reader.getCursor(true, 256, 0, Long.MAX_VALUE), list);
+                assertThat("[10,987,1001,1002,1003,1004,1005,1006,1009]", reader.getCursor(true, 64, 0, Long.MAX_VALUE), list);
+                assertThat("[1007,1008]", reader.getCursor(true, 32, 0, Long.MAX_VALUE), list);
+                assertThat("[1000]", reader.getCursor(true, 0, 0, Long.MAX_VALUE), list);
+            }
+        });
+    }
+
+    @Test
+    public void testStageBufferKeptAcrossOf() throws Exception {
+        TestUtils.assertMemoryLeak(() -> {
+            LongList list = new LongList();
+            create(configuration, path.trimTo(plen), "x", 4);
+            create(configuration, path.trimTo(plen), "y", 4);
+            try (BitmapIndexWriter writer = new BitmapIndexWriter(configuration, path.trimTo(plen), "x", COLUMN_NAME_TXN_NONE)) {
+                writer.stage(1, 10);
+                writer.commitStaged();
+                writer.stage(2, 20);
+                final long stageMem = Unsafe.getMemUsedByTag(MemoryTag.NATIVE_INDEX_BUILD);
+                Assert.assertTrue(stageMem > 0);
+
+                // switching to another index keeps stage buffers, but not the pairs staged for previous index
+                writer.of(configuration, path.trimTo(plen), "y", COLUMN_NAME_TXN_NONE, configuration.getDataIndexKeyAppendPageSize(), configuration.getDataIndexValueAppendPageSize());
+                Assert.assertEquals(stageMem, Unsafe.getMemUsedByTag(MemoryTag.NATIVE_INDEX_BUILD));
+                writer.stage(3, 30);
+                writer.commitStaged();
+
+                assertThat("[]", writer.getCursor(2), list);
+                assertThat("[30]", writer.getCursor(3), list);
+            }
+            Assert.assertEquals(0, Unsafe.getMemUsedByTag(MemoryTag.NATIVE_INDEX_BUILD));
+
+            try (BitmapIndexFwdReader reader = new BitmapIndexFwdReader(configuration, path.trimTo(plen), "x", COLUMN_NAME_TXN_NONE, 0)) {
+                Assert.assertEquals(2, reader.getKeyCount());
+                assertThat("[10]", reader.getCursor(true, 1, 0, Long.MAX_VALUE), list);
+            }
+        });
+    }
+
+    @Test
+    public void testStageMatchesAdd() throws Exception {
+        TestUtils.assertMemoryLeak(() -> {
+            final Rnd rnd = new Rnd();
+            final int maxKeys = 512;
+            final int N = 2_500_000;
+
+            create(configuration, path.trimTo(plen), "x", 64);
+            create(configuration, path.trimTo(plen), "y", 64);
+            try (
+                    BitmapIndexWriter rowWriter = new BitmapIndexWriter(configuration, path.trimTo(plen), "x", COLUMN_NAME_TXN_NONE);
+                    BitmapIndexWriter bulkWriter = new BitmapIndexWriter(configuration, path.trimTo(plen), "y", COLUMN_NAME_TXN_NONE)
+            ) {
+                int i = 0;
+                while (i < N) {
+                    // mix of small and large batches, the latter exceed staging buffer capacity
+                    final int batch = rnd.nextBoolean() ? rnd.nextInt(100) : rnd.nextInt(N / 2);
+                    for (int hi = Math.min(N, i + batch); i < hi; i++) {
+                        // skewed keys leave some of them sparse
+                        final int key = rnd.nextBoolean() ? rnd.nextInt(8) : rnd.nextInt(maxKeys) & ~3;
+                        rowWriter.add(key, i);
+                        bulkWriter.stage(key, i);
+                    }
+                    bulkWriter.commitStaged();
+                    Assert.assertEquals(rowWriter.getKeyCount(), bulkWriter.getKeyCount());
+                }
+            }
+
+            try (
+                    BitmapIndexBwdReader rowReader = new BitmapIndexBwdReader(configuration, path.trimTo(plen), "x", COLUMN_NAME_TXN_NONE, 0);
+                    BitmapIndexBwdReader bulkReader = new BitmapIndexBwdReader(configuration, path.trimTo(plen), "y", COLUMN_NAME_TXN_NONE, 0)
+            ) {
+                Assert.assertEquals(rowReader.getKeyCount(), bulkReader.getKeyCount());
+                for (int key = 0, n = rowReader.getKeyCount(); key < n; key++) {
+                    assertCursorsEqual(rowReader.getCursor(true, key, 0, Long.MAX_VALUE), bulkReader.getCursor(true, key, 0, Long.MAX_VALUE));
+                }
+            }
+
+            try (
+                    BitmapIndexFwdReader rowReader = new BitmapIndexFwdReader(configuration, path.trimTo(plen), "x", COLUMN_NAME_TXN_NONE, 0);
+                    BitmapIndexFwdReader bulkReader = new BitmapIndexFwdReader(configuration, path.trimTo(plen), "y", COLUMN_NAME_TXN_NONE, 0)
+            ) {
+                for (int key = 0, n = rowReader.getKeyCount(); key < n; key++) {
+                    assertCursorsEqual(rowReader.getCursor(true, key, 0, Long.MAX_VALUE), bulkReader.getCursor(true, key, 0, Long.MAX_VALUE));
+                }
+            }
+        });
+    }
+
     @Test
     public void testBackwardCursorTimeout() throws Exception {
         final CairoConfiguration configuration = new DefaultCairoConfiguration(root) {
@@ -1471,6 +1603,14 @@ public class BitmapIndexTest extends AbstractCairoTest {
         }
     }
 
+    private static void assertCursorsEqual(RowCursor expected, RowCursor actual) {
+        while (expected.hasNext()) {
+            Assert.assertTrue(actual.hasNext());
+            Assert.assertEquals(expected.next(), actual.next());
+        }
+        Assert.assertFalse(actual.hasNext());
+    }
+
     private void assertEmptyCursor(AbstractIndexReader reader) {
         RowCursor cursor = reader.getCursor(true, 0, 0, Long.MAX_VALUE);
         Assert.assertFalse(cursor.hasNext());
@@ -1911,6 +1911,71 @@ public class TableReaderTest extends AbstractCairoTest {
         });
     }
 
+    @Test
+    public void testAppendReloadDoesNotReopenSymbolIndex() throws Exception {
+        final AtomicInteger keyFileOpenCount = new AtomicInteger();
+        ff = new FilesFacadeImpl() {
+            @Override
+            public long openRO(LPSZ name) {
+                if (Chars.endsWith(name, ".k")) {
+                    keyFileOpenCount.incrementAndGet();
+                }
+                return super.openRO(name);
+            }
+        };
+
+        assertMemoryLeak(ff, () -> {
+            try (TableModel model = new TableModel(configuration, "x", PartitionBy.DAY)
+                    .col("sym", ColumnType.SYMBOL)
+                    .col("i", ColumnType.INT)
+                    .timestamp()
+            ) {
+                CairoTestUtils.create(model);
+            }
+
+            try (TableWriter writer = new TableWriter(configuration, "x", metrics)) {
+                appendSymbolRow(writer, 0, "a", 1);
+                appendSymbolRow(writer, 1, "b", 2);
+                writer.commit();
+
+                try (TableReader reader = new TableReader(configuration, "x")) {
+                    Assert.assertEquals(2, reader.size());
+
+                    // append rows with existing symbols only
+                    appendSymbolRow(writer, 2, "a", 3);
+                    appendSymbolRow(writer, 3, "b", 4);
+                    writer.commit();
+
+                    keyFileOpenCount.set(0);
+                    Assert.assertTrue(reader.reload());
+                    Assert.assertEquals(4, reader.size());
+                    Assert.assertEquals(0, keyFileOpenCount.get());
+
+                    // new symbol value must still be picked up
+                    appendSymbolRow(writer, 4, "c", 5);
+                    writer.commit();
+
+                    Assert.assertTrue(reader.reload());
+                    Assert.assertEquals(5, reader.size());
+                    Assert.assertTrue(keyFileOpenCount.get() > 0);
+
+                    SymbolMapReader symbolMapReader = reader.getSymbolMapReader(0);
+                    Assert.assertEquals(3, symbolMapReader.getSymbolCount());
+                    Assert.assertEquals(2, symbolMapReader.keyOf("c"));
+                    TestUtils.assertEquals("c", symbolMapReader.valueOf(2));
+
+                    sink.clear();
+                    RecordCursor cursor = reader.getCursor();
+                    Record record = cursor.getRecord();
+                    while (cursor.hasNext()) {
+                        sink.put(record.getSym(0)).put(':').put(record.getInt(1)).put('\n');
+                    }
+                    TestUtils.assertEquals("a:1\nb:2\na:3\nb:4\nc:5\n", sink);
+                }
+            }
+        });
+    }
+
     @Test
     public void testManySymbolReloadTest() throws Exception {
         String tableName = "testManySymbolReloadTest";
@@ -3878,6 +3943,13 @@ public class TableReaderTest extends AbstractCairoTest {
         return ts;
     }
 
+    private static void appendSymbolRow(TableWriter writer, int hour, CharSequence sym, int i) {
+        TableWriter.Row row = writer.newRow(hour * Timestamps.HOUR_MICROS);
+        row.putSym(0, sym);
+        row.putInt(1, i);
+        row.append();
+    }
+
     private void createTable(String tableName, int partitionBy) {
         try (Path path = new Path()) {
             try (
@@ -301,6 +301,45 @@ public class CompactMapTest extends AbstractCairoTest {
         }
     }
 
+    @Test
+    public void testKeyNotFoundLeavesNoEntry() {
+        try (CompactMap map = new CompactMap(
+                1024 * 1024,
+                new SingleColumnType(ColumnType.STRING),
+                new SingleColumnType(ColumnType.LONG),
+                16,
+                0.5,
+                1,
+                Integer.MAX_VALUE)) {
+            MapKey key = map.withKey();
+            key.putStr("a");
+            key.createValue().putLong(0, 1);
+
+            key = map.withKey();
+            key.putStr("b");
+            final long hash = key.hash();
+            Assert.assertNull(key.findValue());
+
+            key = map.withKey();
+            key.putStr("c");
+            key.createValue().putLong(0, 3);
+
+            key = map.withKey();
+            key.putStr("b");
+            Assert.assertEquals(hash, key.hash());
+            key.createValue().putLong(0, 2);
+
+            Assert.assertEquals(3, map.size());
+            final StringSink sink = new StringSink();
+            final RecordCursor cursor = map.getCursor();
+            final Record record = cursor.getRecord();
+            while (cursor.hasNext()) {
+                sink.put(record.getStr(1)).put('=').put(record.getLong(0)).put('\n');
+            }
+            TestUtils.assertEquals("a=1\nc=3\nb=2\n", sink);
+        }
+    }
+
     @Test
     public void testRecordAsKey() throws Exception {
         TestUtils.assertMemoryLeak(() -> {
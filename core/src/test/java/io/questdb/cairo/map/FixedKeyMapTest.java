@@ -0,0 +1,275 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.cairo.map;
+
+import io.questdb.cairo.*;
+import io.questdb.cairo.sql.Record;
+import io.questdb.cairo.sql.RecordCursor;
+import io.questdb.griffin.engine.LimitOverflowException;
+import io.questdb.std.LongList;
+import io.questdb.std.Numbers;
+import io.questdb.std.Rnd;
+import io.questdb.test.tools.TestUtils;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class FixedKeyMapTest extends AbstractCairoTest {
+
+    @Test
+    public void testKeySizeOf() {
+        Assert.assertEquals(4, FixedKeyMap.keySizeOf(new SingleColumnType(ColumnType.SYMBOL)));
+        Assert.assertEquals(8, FixedKeyMap.keySizeOf(new SingleColumnType(ColumnType.TIMESTAMP)));
+        Assert.assertEquals(16, FixedKeyMap.keySizeOf(new SingleColumnType(ColumnType.LONG128)));
+        Assert.assertEquals(12, FixedKeyMap.keySizeOf(new ArrayColumnTypes().add(ColumnType.INT).add(ColumnType.LONG)));
+        Assert.assertEquals(-1, FixedKeyMap.keySizeOf(new ArrayColumnTypes()));
+        Assert.assertEquals(-1, FixedKeyMap.keySizeOf(new SingleColumnType(ColumnType.STRING)));
+        Assert.assertEquals(-1, FixedKeyMap.keySizeOf(new SingleColumnType(ColumnType.LONG256)));
+        Assert.assertEquals(-1, FixedKeyMap.keySizeOf(new ArrayColumnTypes().add(ColumnType.LONG).add(ColumnType.LONG128)));
+        Assert.assertEquals(-1, FixedKeyMap.keySizeOf(new ArrayColumnTypes().add(ColumnType.INT).add(ColumnType.INT).add(ColumnType.INT)));
+    }
+
+    @Test
+    public void testMatchesFastMapByteDouble() throws Exception {
+        assertMatchesFastMap(new ArrayColumnTypes().add(ColumnType.BYTE).add(ColumnType.DOUBLE));
+    }
+
+    @Test
+    public void testMatchesFastMapIntLong() throws Exception {
+        assertMatchesFastMap(new ArrayColumnTypes().add(ColumnType.INT).add(ColumnType.LONG));
+    }
+
+    @Test
+    public void testMatchesFastMapLong() throws Exception {
+        assertMatchesFastMap(new ArrayColumnTypes().add(ColumnType.LONG));
+    }
+
+    @Test
+    public void testMatchesFastMapShortInt() throws Exception {
+        assertMatchesFastMap(new ArrayColumnTypes().add(ColumnType.SHORT).add(ColumnType.INT));
+    }
+
+    @Test
+    public void testMaxResizes() throws Exception {
+        TestUtils.assertMemoryLeak(() -> {
+            ColumnTypes types = new SingleColumnType(ColumnType.LONG);
+            try (FixedKeyMap map = new FixedKeyMap(64, types, types, 4, 0.5, 1)) {
+                try {
+                    for (int i = 0; i < 100; i++) {
+                        MapKey key = map.withKey();
+                        key.putLong(i);
+                        key.createValue().putLong(0, i);
+                    }
+                    Assert.fail();
+                } catch (LimitOverflowException e) {
+                    TestUtils.assertContains(e.getFlyweightMessage(), "limit of 1 resizes exceeded in FixedKeyMap");
+                }
+            }
+        });
+    }
+
+    @Test
+    public void testNoValueColumns() throws Exception {
+        TestUtils.assertMemoryLeak(() -> {
+            final SingleColumnType keyTypes = new SingleColumnType();
+            final Rnd rnd = new Rnd();
+            final int N = 100;
+            try (FixedKeyMap map = new FixedKeyMap(2 * Numbers.SIZE_1MB, keyTypes.of(ColumnType.INT), null, 128, 0.7f, 1)) {
+                for (int i = 0; i < N; i++) {
+                    MapKey key = map.withKey();
+                    key.putInt(rnd.nextInt());
+                    Assert.assertTrue(key.create());
+                }
+
+                Assert.assertEquals(N, map.size());
+
+                rnd.reset();
+
+                for (int i = 0; i < N; i++) {
+                    MapKey key = map.withKey();
+                    key.putInt(rnd.nextInt());
+                    Assert.assertFalse(key.notFound());
+                }
+                Assert.assertEquals(N, map.size());
+            }
+        });
+    }
+
+    @Test
+    public void testReopen() throws Exception {
+        TestUtils.assertMemoryLeak(() -> {
+            ColumnTypes types = new SingleColumnType(ColumnType.LONG);
+            try (FixedKeyMap map = new FixedKeyMap(64, types, types, 4, 0.5, Integer.MAX_VALUE)) {
+                final int capacity = map.getKeyCapacity();
+                for (int i = 0; i < 1000; i++) {
+                    MapKey key = map.withKey();
+                    key.putLong(i);
+                    key.createValue().putLong(0, i);
+                }
+                Assert.assertEquals(1000, map.size());
+                Assert.assertTrue(map.getKeyCapacity() > capacity);
+
+                map.close();
+                map.reopen();
+                Assert.assertEquals(0, map.size());
+                Assert.assertEquals(capacity, map.getKeyCapacity());
+
+                MapKey key = map.withKey();
+                key.putLong(42);
+                Assert.assertTrue(key.createValue().isNew());
+                key = map.withKey();
+                key.putLong(42);
+                Assert.assertFalse(key.createValue().isNew());
+            }
+        });
+    }
+
+    @Test
+    public void testRowIdAccess() throws Exception {
+        TestUtils.assertMemoryLeak(() -> {
+            ColumnTypes types = new SingleColumnType(ColumnType.INT);
+
+            final int N = 10000;
+            final Rnd rnd = new Rnd();
+            try (FixedKeyMap map = new FixedKeyMap(Numbers.SIZE_1MB, types, types, 64, 0.5, Integer.MAX_VALUE)) {
+
+                for (int i = 0; i < N; i++) {
+                    MapKey key = map.withKey();
+                    key.putInt(rnd.nextInt());
+                    MapValue values = key.createValue();
+                    Assert.assertTrue(values.isNew());
+                    values.putInt(0, i + 1);
+                }
+
+                // reset random generator and iterate map to double the value
+                rnd.reset();
+                LongList list = new LongList();
+                try (RecordCursor cursor = map.getCursor()) {
+                    final MapRecord record = (MapRecord) cursor.getRecord();
+                    while (cursor.hasNext()) {
+                        list.add(record.getRowId());
+                        Assert.assertEquals(rnd.nextInt(), record.getInt(1));
+                        MapValue value = record.getValue();
+                        value.putInt(0, value.getInt(0) * 2);
+                    }
+
+                    MapRecord rec = (MapRecord) cursor.getRecordB();
+                    Assert.assertNotSame(rec, record);
+
+                    rnd.reset();
+                    for (int i = 0, n = list.size(); i < n; i++) {
+                        cursor.recordAt(rec, list.getQuick(i));
+                        Assert.assertEquals((i + 1) * 2, rec.getInt(0));
+                        Assert.assertEquals(rnd.nextInt(), rec.getInt(1));
+                    }
+                }
+            }
+        });
+    }
+
+    private static void assertMatchesFastMap(ArrayColumnTypes keyTypes) throws Exception {
+        TestUtils.assertMemoryLeak(() -> {
+            final ColumnTypes valueTypes = new SingleColumnType(ColumnType.LONG);
+            final int N = 100000;
+            final Rnd rnd = new Rnd();
+            try (
+                    FastMap fastMap = new FastMap(1024, keyTypes, valueTypes, 16, 0.5, Integer.MAX_VALUE);
+                    FixedKeyMap map = new FixedKeyMap(1024, keyTypes, valueTypes, 16, 0.5, Integer.MAX_VALUE)
+            ) {
+                for (int i = 0; i < N; i++) {
+                    // small key domain makes sure there are duplicates
+                    final long k = rnd.nextLong() % 3000;
+                    MapValue expected = putKey(fastMap.withKey(), keyTypes, k).createValue();
+                    MapValue actual = putKey(map.withKey(), keyTypes, k).createValue();
+                    Assert.assertEquals(expected.isNew(), actual.isNew());
+                    if (actual.isNew()) {
+                        expected.putLong(0, 1);
+                        actual.putLong(0, 1);
+                    } else {
+                        expected.addLong(0, 1);
+                        actual.addLong(0, 1);
+                    }
+
+                    final long missing = 3000 + (rnd.nextLong() & 0xffff);
+                    Assert.assertNull(putKey(map.withKey(), keyTypes, missing).findValue());
+                }
+                Assert.assertEquals(fastMap.size(), map.size());
+
+                // same keys in the same order
+                RecordCursor expectedCursor = fastMap.getCursor();
+                RecordCursor actualCursor = map.getCursor();
+                Record expected = expectedCursor.getRecord();
+                Record actual = actualCursor.getRecord();
+                while (expectedCursor.hasNext()) {
+                    Assert.assertTrue(actualCursor.hasNext());
+                    Assert.assertEquals(expected.getLong(0), actual.getLong(0));
+                    for (int i = 0, n = keyTypes.getColumnCount(); i < n; i++) {
+                        switch (keyTypes.getColumnType(i)) {
+                            case ColumnType.BYTE:
+                                Assert.assertEquals(expected.getByte(i + 1), actual.getByte(i + 1));
+                                break;
+                            case ColumnType.SHORT:
+                                Assert.assertEquals(expected.getShort(i + 1), actual.getShort(i + 1));
+                                break;
+                            case ColumnType.INT:
+                                Assert.assertEquals(expected.getInt(i + 1), actual.getInt(i + 1));
+                                break;
+                            case ColumnType.DOUBLE:
+                                Assert.assertEquals(expected.getDouble(i + 1), actual.getDouble(i + 1), 0);
+                                break;
+                            default:
+                                Assert.assertEquals(expected.getLong(i + 1), actual.getLong(i + 1));
+                                break;
+                        }
+                    }
+                }
+                Assert.assertFalse(actualCursor.hasNext());
+            }
+        });
+    }
+
+    private static MapKey putKey(MapKey key, ColumnTypes keyTypes, long k) {
+        for (int i = 0, n = keyTypes.getColumnCount(); i < n; i++) {
+            switch (keyTypes.getColumnType(i)) {
+                case ColumnType.BYTE:
+                    key.putByte((byte) k);
+                    break;
+                case ColumnType.SHORT:
+                    key.putShort((short) (k * 3));
+                    break;
+                case ColumnType.INT:
+                    key.putInt((int) (k >> 1));
+                    break;
+                case ColumnType.DOUBLE:
+                    key.putDouble(k / 7.0);
+                    break;
+                default:
+                    key.putLong(k * 31);
+                    break;
+            }
+        }
+        return key;
+    }
+}
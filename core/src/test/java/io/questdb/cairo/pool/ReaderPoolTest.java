@@ -24,11 +24,13 @@
 
 package io.questdb.cairo.pool;
 
+import io.questdb.Metrics;
 import io.questdb.cairo.*;
 import io.questdb.cairo.pool.ex.EntryLockedException;
 import io.questdb.cairo.pool.ex.PoolClosedException;
 import io.questdb.mp.SOCountDownLatch;
 import io.questdb.std.*;
+import io.questdb.std.datetime.microtime.MicrosecondClock;
 import io.questdb.std.str.LPSZ;
 import io.questdb.std.str.StringSink;
 import io.questdb.test.tools.TestUtils;
@@ -51,6 +53,55 @@ public class ReaderPoolTest extends AbstractCairoTest {
         }
     }
 
+    @Test
+    public void testAdaptiveEvictionRetainsPeakConcurrency() throws Exception {
+        final long[] now = {0};
+        assertWithPool(pool -> {
+            TableReader reader1 = pool.get("u");
+            TableReader reader2 = pool.get("u");
+            TableReader reader3 = pool.get("u");
+            reader1.close();
+            reader2.close();
+            reader3.close();
+            Assert.assertEquals(3, pool.entries().get("u").getPeakBusyCount());
+
+            // readers are idle for longer than TTL, but the table needed 3 of them
+            now[0] += 2_000_000;
+            Assert.assertFalse(pool.releaseInactive());
+            Assert.assertEquals(3, getOpenReaderCount(pool, "u"));
+
+            // one reader in use during the next window
+            try (TableReader ignore = pool.get("u")) {
+                now[0] += 2_000_000;
+                Assert.assertTrue(pool.releaseInactive());
+                Assert.assertEquals(1, getOpenReaderCount(pool, "u"));
+            }
+
+            // no activity in the last window
+            now[0] += 2_000_000;
+            Assert.assertFalse(pool.releaseInactive());
+            Assert.assertEquals(1, getOpenReaderCount(pool, "u"));
+            now[0] += 2_000_000;
+            Assert.assertTrue(pool.releaseInactive());
+            Assert.assertEquals(0, getOpenReaderCount(pool, "u"));
+        }, new DefaultCairoConfiguration(root) {
+            @Override
+            public long getInactiveReaderTTL() {
+                return 1000;
+            }
+
+            @Override
+            public MicrosecondClock getMicrosecondClock() {
+                return () -> now[0];
+            }
+
+            @Override
+            public boolean isReaderPoolAdaptiveEvictionEnabled() {
+                return true;
+            }
+        });
+    }
+
     @Test
     public void testAllocateAndClear() throws Exception {
 
@@ -170,6 +221,19 @@ public class ReaderPoolTest extends AbstractCairoTest {
         });
     }
 
+    @Test
+    public void testCloseWithActiveReaderReleasesBusyCount() throws Exception {
+        assertWithPool(pool -> {
+            TableReader reader = pool.get("u");
+            ReaderPool.Entry entry = pool.entries().get("u");
+            Assert.assertEquals(1, entry.getBusyCount());
+            pool.close();
+            reader.close();
+            Assert.assertFalse(reader.isOpen());
+            Assert.assertEquals(0, entry.getBusyCount());
+        });
+    }
+
     @Test
     public void testCloseWithInactiveReader() throws Exception {
         assertWithPool(pool -> {
@@ -875,13 +939,63 @@ public class ReaderPoolTest extends AbstractCairoTest {
         });
     }
 
+    @Test
+    public void testPrewarm() throws Exception {
+        TestUtils.assertMemoryLeak(() -> {
+            final Metrics metrics = Metrics.enabled();
+            try (ReaderPool pool = new ReaderPool(configuration, null, metrics)) {
+                Assert.assertEquals(2, pool.prewarm("u", 2));
+                Assert.assertEquals(0, pool.getBusyCount());
+                Assert.assertEquals(2, getOpenReaderCount(pool, "u"));
+                // readers are open already
+                Assert.assertEquals(0, pool.prewarm("u", 2));
+
+                try (TableReader reader1 = pool.get("u"); TableReader reader2 = pool.get("u")) {
+                    Assert.assertEquals(0, reader1.size());
+                    Assert.assertEquals(0, reader2.size());
+                }
+                try (TableReader reader = pool.get("u")) {
+                    Assert.assertEquals(0, reader.size());
+                }
+
+                Assert.assertEquals(2, metrics.readerPool().getPrewarmCount());
+                Assert.assertEquals(3, metrics.readerPool().getHitCount());
+                Assert.assertEquals(0, metrics.readerPool().getMissCount());
+            }
+        });
+    }
+
+    @Test
+    public void testPrewarmLockedTable() throws Exception {
+        assertWithPool(pool -> {
+            Assert.assertTrue(pool.lock("u"));
+            Assert.assertEquals(0, pool.prewarm("u", 2));
+            pool.unlock("u");
+            Assert.assertEquals(1, pool.prewarm("u", 1));
+        });
+    }
+
+    private static int getOpenReaderCount(ReaderPool pool, CharSequence name) {
+        int count = 0;
+        ReaderPool.Entry e = pool.entries().get(name);
+        while (e != null) {
+            for (int i = 0; i < ReaderPool.ENTRY_SIZE; i++) {
+                if (e.getReader(i) != null) {
+                    count++;
+                }
+            }
+            e = e.getNext();
+        }
+        return count;
+    }
+
     private void assertWithPool(PoolAwareCode code) throws Exception {
         assertWithPool(code, configuration);
     }
 
     private void assertWithPool(PoolAwareCode code, final CairoConfiguration configuration) throws Exception {
         TestUtils.assertMemoryLeak(() -> {
-            try (ReaderPool pool = new ReaderPool(configuration, null)) {
+            try (ReaderPool pool = new ReaderPool(configuration, null, Metrics.disabled())) {
                 code.run(pool);
             }
         });
@@ -65,6 +65,7 @@ public class HttpQueryTestBuilder {
     private FilesFacade filesFacade = new FilesFacadeImpl();
     private QueryFutureUpdateListener queryFutureUpdateListener;
     private String copyInputRoot;
+    private String copyInputWorkRoot;
     private MicrosecondClock microsecondClock;
 
     public int getWorkerCount() {
@@ -114,6 +115,11 @@ public class HttpQueryTestBuilder {
                         return copyInputRoot != null ? copyInputRoot : super.getSqlCopyInputRoot();
                     }
 
+                    @Override
+                    public CharSequence getSqlCopyInputWorkRoot() {
+                        return copyInputWorkRoot != null ? copyInputWorkRoot : super.getSqlCopyInputWorkRoot();
+                    }
+
                     @Override
                     public MicrosecondClock getMicrosecondClock() {
                         return microsecondClock != null ? microsecondClock : super.getMicrosecondClock();
@@ -282,6 +288,11 @@ public class HttpQueryTestBuilder {
         return this;
     }
 
+    public HttpQueryTestBuilder withCopyInputWorkRoot(String copyInputWorkRoot) {
+        this.copyInputWorkRoot = copyInputWorkRoot;
+        return this;
+    }
+
     public HttpQueryTestBuilder withWorkerCount(int workerCount) {
         this.workerCount = workerCount;
         return this;
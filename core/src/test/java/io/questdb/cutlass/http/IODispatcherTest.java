@@ -2471,6 +2471,52 @@ public class IODispatcherTest {
         );
     }
 
+    @Test
+    public void testJsonQueryColumnTopPageFrames() throws Exception {
+        new HttpQueryTestBuilder()
+                .withWorkerCount(1)
+                .withHttpServerConfigBuilder(new HttpServerConfigurationBuilder()
+                        .withSendBufferSize(16 * 1024)
+                        .withConfiguredMaxQueryResponseRowLimit(configuredMaxQueryResponseRowLimit)
+                )
+                .withTempFolder(temp)
+                .run(engine -> {
+                    SqlExecutionContextImpl executionContext = new SqlExecutionContextImpl(engine, 1);
+                    try (SqlCompiler compiler = new SqlCompiler(engine)) {
+                        compiler.compile("create table tc as (select x a, timestamp_sequence(0, 43200000000) ts from long_sequence(3)) timestamp(ts) partition by DAY", executionContext);
+                        compiler.compile("alter table tc add column b double", executionContext).execute(null).await();
+                        compiler.compile("alter table tc add column c symbol", executionContext).execute(null).await();
+                        compiler.compile("alter table tc add column d date", executionContext).execute(null).await();
+                        compiler.compile("insert into tc select x + 3, timestamp_sequence(129600000000, 43200000000), x / 4.0, 'c' || x, cast(x * 1000 as date) from long_sequence(2)", executionContext);
+
+                        // table scan is serialized from page frames, rows of the first partition are column tops
+                        new SendAndReceiveRequestBuilder().execute(
+                                "GET /query?query=tc&limit=2,5&count=true HTTP/1.1\r\n" +
+                                        "Host: localhost:9000\r\n" +
+                                        "Connection: keep-alive\r\n" +
+                                        "Accept: */*\r\n" +
+                                        "\r\n",
+                                "HTTP/1.1 200 OK\r\n" +
+                                        "Server: questDB/1.0\r\n" +
+                                        "Date: Thu, 1 Jan 1970 00:00:00 GMT\r\n" +
+                                        "Transfer-Encoding: chunked\r\n" +
+                                        "Content-Type: application/json; charset=utf-8\r\n" +
+                                        "Keep-Alive: timeout=5, max=10000\r\n" +
+                                        "\r\n" +
+                                        "01b0\r\n" +
+                                        "{\"query\":\"tc\",\"columns\":[{\"name\":\"a\",\"type\":\"LONG\"},{\"name\":\"ts\",\"type\":\"TIMESTAMP\"},{\"name\":\"b\",\"type\":\"DOUBLE\"},{\"name\":\"c\",\"type\":\"SYMBOL\"},{\"name\":\"d\",\"type\":\"DATE\"}],\"dataset\":[" +
+                                        "[2,\"1970-01-01T12:00:00.000000Z\",null,null,null]," +
+                                        "[3,\"1970-01-02T00:00:00.000000Z\",null,null,null]," +
+                                        "[4,\"1970-01-02T12:00:00.000000Z\",0.25,\"c1\",\"1970-01-01T00:00:01.000Z\"]," +
+                                        "[5,\"1970-01-03T00:00:00.000000Z\",0.5,\"c2\",\"1970-01-01T00:00:02.000Z\"]" +
+                                        "],\"count\":5}\r\n" +
+                                        "00\r\n" +
+                                        "\r\n"
+                        );
+                    }
+                });
+    }
+
     @Test
     public void testJsonQueryCompilationStatsForJitCompiledFilter() throws Exception {
         // Disable the test on ARM64.
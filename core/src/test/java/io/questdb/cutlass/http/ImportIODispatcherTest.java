@@ -29,8 +29,13 @@ import io.questdb.cairo.pool.PoolListener;
 import io.questdb.cairo.security.AllowAllCairoSecurityContext;
 import io.questdb.cairo.sql.InsertMethod;
 import io.questdb.cairo.sql.InsertOperation;
+import io.questdb.cairo.sql.RecordCursor;
+import io.questdb.cairo.sql.RecordCursorFactory;
+import io.questdb.cutlass.text.TextImportExecutionContext;
+import io.questdb.cutlass.text.TextImportRequestJob;
 import io.questdb.griffin.CompiledQuery;
 import io.questdb.griffin.SqlCompiler;
+import io.questdb.griffin.SqlException;
 import io.questdb.griffin.SqlExecutionContextImpl;
 import io.questdb.griffin.engine.functions.bind.BindVariableServiceImpl;
 import io.questdb.log.Log;
@@ -40,20 +45,27 @@ import io.questdb.std.Chars;
 import io.questdb.std.Files;
 import io.questdb.std.FilesFacade;
 import io.questdb.std.FilesFacadeImpl;
+import io.questdb.std.Misc;
+import io.questdb.std.Numbers;
+import io.questdb.std.Os;
 import io.questdb.std.datetime.microtime.Timestamps;
 import io.questdb.std.str.LPSZ;
 import io.questdb.std.str.Path;
+import io.questdb.test.tools.TestUtils;
 import org.junit.Assert;
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.TemporaryFolder;
 import org.junit.rules.Timeout;
 
+import java.io.File;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CyclicBarrier;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
 
 import static io.questdb.cutlass.http.SendAndReceiveRequestBuilder.RequestHeaders;
 import static io.questdb.test.tools.TestUtils.getSendDelayNetworkFacade;
@@ -579,6 +591,141 @@ public class ImportIODispatcherTest {
         testImportMisDetectsTimestampColumn(new HttpServerConfigurationBuilder().withNetwork(getSendDelayNetworkFacade(50)), 10);
     }
 
+    @Test
+    public void testImportParallelFromUpload() throws Exception {
+        // Content-Length of the request is above the default parallel import threshold,
+        // so the upload is spooled to the copy root and queued to the text import request job
+        final String copyRoot = temp.newFolder("imports").getAbsolutePath();
+        new HttpQueryTestBuilder()
+                .withTempFolder(temp)
+                .withWorkerCount(2)
+                .withCopyInputRoot(copyRoot)
+                .withCopyInputWorkRoot(copyRoot)
+                .withHttpServerConfigBuilder(new HttpServerConfigurationBuilder())
+                .withTelemetry(false)
+                .run((engine) -> {
+                    final String request = PostHeader.replace("POST /upload?name=trips HTTP", "POST /upload?name=readings&fmt=json&partitionBy=DAY&timestamp=ts HTTP") +
+                            "--------------------------27d997ca93d2689d\r\n" +
+                            "Content-Disposition: form-data; name=\"data\"; filename=\"readings.csv\"\r\n" +
+                            "Content-Type: application/octet-stream\r\n" +
+                            "\r\n" +
+                            "sym,val,ts\r\n" +
+                            "A,0,2022-02-01T00:00:00.000000Z\r\n" +
+                            "B,1,2022-02-01T06:00:00.000000Z\r\n" +
+                            "C,2,2022-02-01T12:00:00.000000Z\r\n" +
+                            "A,3,2022-02-01T18:00:00.000000Z\r\n" +
+                            "B,4,2022-02-02T00:00:00.000000Z\r\n" +
+                            "C,5,2022-02-02T06:00:00.000000Z\r\n" +
+                            "A,6,2022-02-02T12:00:00.000000Z\r\n" +
+                            "B,7,2022-02-02T18:00:00.000000Z\r\n" +
+                            "C,8,2022-02-03T00:00:00.000000Z\r\n" +
+                            "A,9,2022-02-03T06:00:00.000000Z\r\n" +
+                            "B,10,2022-02-03T12:00:00.000000Z\r\n" +
+                            "C,11,2022-02-03T18:00:00.000000Z\r\n" +
+                            RequestFooter;
+
+                    // import id is random, the response is compared up to it
+                    final String response = "HTTP/1.1 200 OK\r\n" +
+                            "Server: questDB/1.0\r\n" +
+                            "Date: Thu, 1 Jan 1970 00:00:00 GMT\r\n" +
+                            "Transfer-Encoding: chunked\r\n" +
+                            "Content-Type: application/json; charset=utf-8\r\n" +
+                            "\r\n" +
+                            "62\r\n" +
+                            "{\"status\":\"OK\"," +
+                            "\"location\":\"readings\"," +
+                            "\"id\":\"";
+                    new SendAndReceiveRequestBuilder()
+                            .withCompareLength(response.length())
+                            .execute(request, response);
+
+                    // the upload is imported once the job picks up the request
+                    drainTextImportRequestQueue(engine);
+
+                    try (TableReader reader = engine.getReader(AllowAllCairoSecurityContext.INSTANCE, "readings")) {
+                        Assert.assertEquals(3, reader.getPartitionCount());
+                        Assert.assertEquals(12, reader.size());
+                    }
+                    // spooled upload is removed once imported
+                    Assert.assertArrayEquals(new String[0], new File(copyRoot).list());
+                    Assert.assertEquals(TextImportExecutionContext.INACTIVE, engine.getTextImportExecutionContext().getActiveImportId());
+                });
+    }
+
+    @Test
+    public void testImportParallelUploadConcurrentWithCopy() throws Exception {
+        // HTTP import and COPY share the active import id, only one of them may take it
+        final String copyRoot = temp.newFolder("imports").getAbsolutePath();
+        TestUtils.writeStringToFile(new File(copyRoot, "copy.csv"), "v,ts\r\n1,2022-02-01T00:00:00.000000Z\r\n");
+        new HttpQueryTestBuilder()
+                .withTempFolder(temp)
+                .withWorkerCount(2)
+                .withCopyInputRoot(copyRoot)
+                .withCopyInputWorkRoot(copyRoot)
+                .withHttpServerConfigBuilder(new HttpServerConfigurationBuilder())
+                .withTelemetry(false)
+                .run((engine) -> {
+                    final String request = PostHeader.replace("POST /upload?name=trips HTTP", "POST /upload?name=readings&fmt=json&partitionBy=DAY&timestamp=ts HTTP") +
+                            "--------------------------27d997ca93d2689d\r\n" +
+                            "Content-Disposition: form-data; name=\"data\"; filename=\"readings.csv\"\r\n" +
+                            "Content-Type: application/octet-stream\r\n" +
+                            "\r\n" +
+                            "sym,val,ts\r\n" +
+                            "A,0,2022-02-01T00:00:00.000000Z\r\n" +
+                            "B,1,2022-02-01T12:00:00.000000Z\r\n" +
+                            "C,2,2022-02-02T00:00:00.000000Z\r\n" +
+                            "A,3,2022-02-02T12:00:00.000000Z\r\n" +
+                            RequestFooter;
+
+                    final TextImportExecutionContext textImportExecutionContext = engine.getTextImportExecutionContext();
+                    final CyclicBarrier start = new CyclicBarrier(2);
+                    final AtomicLong copyImportId = new AtomicLong(TextImportExecutionContext.INACTIVE);
+                    final AtomicReference<Throwable> copyError = new AtomicReference<>();
+                    final Thread copyThread = new Thread(() -> {
+                        try (
+                                SqlCompiler copyCompiler = new SqlCompiler(engine);
+                                SqlExecutionContextImpl copyContext = new SqlExecutionContextImpl(engine, 1)
+                        ) {
+                            copyContext.with(AllowAllCairoSecurityContext.INSTANCE, null, null);
+                            start.await();
+                            try (
+                                    RecordCursorFactory factory = copyCompiler.compile("copy x from 'copy.csv' with header true", copyContext).getRecordCursorFactory();
+                                    RecordCursor cursor = factory.getCursor(copyContext)
+                            ) {
+                                Assert.assertTrue(cursor.hasNext());
+                                final CharSequence id = cursor.getRecord().getStr(0);
+                                copyImportId.set(Numbers.parseHexLong(id, 0, id.length()));
+                            } catch (SqlException e) {
+                                TestUtils.assertContains(e.getFlyweightMessage(), "in progress");
+                            }
+                        } catch (Throwable e) {
+                            copyError.set(e);
+                        }
+                    });
+                    copyThread.start();
+
+                    start.await();
+                    new SendAndReceiveRequestBuilder()
+                            .withCompareLength("HTTP/1.1 200 OK\r\n".length())
+                            .execute(request, "HTTP/1.1 200 OK\r\n");
+                    copyThread.join();
+                    Assert.assertNull(copyError.get());
+
+                    // upload is queued to the job or imported serially when COPY took the id first,
+                    // the job then processes whichever request has been queued
+                    drainTextImportRequestQueue(engine);
+                    try (TableReader reader = engine.getReader(AllowAllCairoSecurityContext.INSTANCE, "readings")) {
+                        Assert.assertEquals(4, reader.size());
+                    }
+                    if (copyImportId.get() != TextImportExecutionContext.INACTIVE) {
+                        try (TableReader reader = engine.getReader(AllowAllCairoSecurityContext.INSTANCE, "x")) {
+                            Assert.assertEquals(1, reader.size());
+                        }
+                    }
+                    Assert.assertEquals(TextImportExecutionContext.INACTIVE, textImportExecutionContext.getActiveImportId());
+                });
+    }
+
     @Test
     public void testImportSymbolIndexedFromSchema() throws Exception {
         new HttpQueryTestBuilder()
@@ -826,6 +973,17 @@ public class ImportIODispatcherTest {
                 });
     }
 
+    private static void drainTextImportRequestQueue(CairoEngine engine) throws SqlException {
+        final TextImportRequestJob job = new TextImportRequestJob(engine, 1, null);
+        try {
+            while (job.run(0)) {
+                Os.pause();
+            }
+        } finally {
+            Misc.free(job);
+        }
+    }
+
     private static int stringLen(int number) {
         int length = 1;
         long temp = 10;
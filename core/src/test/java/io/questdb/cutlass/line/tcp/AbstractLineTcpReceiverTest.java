@@ -82,7 +82,13 @@ public class AbstractLineTcpReceiverTest extends AbstractCairoTest {
         public int getBindPort() {
             return bindPort;
         }
+
+        @Override
+        public boolean isSharded() {
+            return dispatcherSharded;
+        }
     };
+    protected boolean dispatcherSharded = false;
     protected int maxMeasurementSize = 256;
     protected String authKeyId = null;
     protected int msgBufferSize = 256 * 1024;
@@ -295,7 +295,7 @@ abstract class BaseLineTcpContextTest extends AbstractCairoTest {
                 workerPool = createWorkerPool(nWriterThreads, false)) {
 
             @Override
-            protected NetworkIOJob createNetworkIOJob(IODispatcher<LineTcpConnectionContext> dispatcher, int workerId) {
+            protected NetworkIOJob createNetworkIOJob(IODispatcherGroup<LineTcpConnectionContext> dispatchers, int workerId) {
                 Assert.assertEquals(0, workerId);
                 return NO_NETWORK_IO_JOB;
             }
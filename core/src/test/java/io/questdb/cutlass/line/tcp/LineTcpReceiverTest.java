@@ -430,6 +430,23 @@ public class LineTcpReceiverTest extends AbstractLineTcpReceiverTest {
         });
     }
 
+    @Test
+    public void testShardedDispatcher() throws Exception {
+        dispatcherSharded = true;
+        String lineData = "weather,location=us-midwest temperature=82 1465839830100400200\n" +
+                "weather,location=us-eastcoast temperature=81 1465839830101400200\n" +
+                "weather,location=us-midwest temperature=85 1465839830102300200\n";
+        runInContext((receiver) -> {
+            sendLinger(receiver, lineData, "weather");
+
+            String expected = "location\ttemperature\ttimestamp\n" +
+                    "us-midwest\t82.0\t2016-06-13T17:43:50.100400Z\n" +
+                    "us-eastcoast\t81.0\t2016-06-13T17:43:50.101400Z\n" +
+                    "us-midwest\t85.0\t2016-06-13T17:43:50.102300Z\n";
+            assertTable(expected, "weather");
+        });
+    }
+
     @Test
     public void testSomeWritersReleased() throws Exception {
         runInContext((receiver) -> {
@@ -0,0 +1,60 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.cutlass.line.udp;
+
+import io.questdb.std.MemoryTag;
+import io.questdb.std.Unsafe;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+
+public class LineUdpReceiverShardTest {
+
+    @Test
+    public void testMeasurementHashIgnoresCase() {
+        assertSameHash("weather,city=x temp=1\n", "WeAtHeR temp=1\n");
+        assertSameHash("таблица,city=x temp=1\n", "ТАБЛИЦА temp=1\n");
+        assertSameHash("my\\ table temp=1\n", "MY\\ TABLE,a=b temp=1\n");
+    }
+
+    private static void assertSameHash(String line1, String line2) {
+        final LineUdpReceiverShard.MeasurementHash hash = new LineUdpReceiverShard.MeasurementHash();
+        Assert.assertEquals(hashOf(hash, line1), hashOf(hash, line2));
+    }
+
+    private static int hashOf(LineUdpReceiverShard.MeasurementHash hash, String line) {
+        final byte[] bytes = line.getBytes(StandardCharsets.UTF_8);
+        final long mem = Unsafe.malloc(bytes.length, MemoryTag.NATIVE_DEFAULT);
+        try {
+            for (int i = 0; i < bytes.length; i++) {
+                Unsafe.getUnsafe().putByte(mem + i, bytes[i]);
+            }
+            return hash.of(mem, LineUdpReceiverShard.findLineEnd(mem, mem + bytes.length));
+        } finally {
+            Unsafe.free(mem, bytes.length, MemoryTag.NATIVE_DEFAULT);
+        }
+    }
+}
@@ -36,6 +36,7 @@ import io.questdb.network.NetworkError;
 import io.questdb.network.NetworkFacade;
 import io.questdb.network.NetworkFacadeImpl;
 import io.questdb.std.Os;
+import io.questdb.std.str.Path;
 import io.questdb.test.tools.TestUtils;
 import org.jetbrains.annotations.Nullable;
 import org.junit.Assert;
@@ -127,6 +128,61 @@ public class LinuxLineUdpProtoReceiverTest extends AbstractCairoTest {
         assertReceive(new DefaultLineUdpReceiverConfiguration(), LINUX_FACTORY);
     }
 
+    @Test
+    public void testShardedReceive() throws Exception {
+        final LineUdpReceiverConfiguration receiverCfg = new DefaultLineUdpReceiverConfiguration() {
+            @Override
+            public int getBindIPv4Address() {
+                return Net.parseIPv4("127.0.0.1");
+            }
+
+            @Override
+            public int getReceiverCount() {
+                return 4;
+            }
+
+            @Override
+            public boolean isUnicast() {
+                return true;
+            }
+        };
+
+        TestUtils.assertMemoryLeak(() -> {
+            final int tableCount = 8;
+            final int rowCount = 100;
+            try (CairoEngine engine = new CairoEngine(configuration); Path path = new Path()) {
+                try (LineUdpShardedReceiver receiver = new LineUdpShardedReceiver(receiverCfg, engine, null)) {
+                    receiver.start();
+
+                    try (LineUdpSender sender = new LineUdpSender(NetworkFacadeImpl.INSTANCE, 0, Net.parseIPv4("127.0.0.1"), receiverCfg.getPort(), 1400, 1)) {
+                        for (int i = 0; i < rowCount; i++) {
+                            for (int j = 0; j < tableCount; j++) {
+                                sender.metric("tab" + j).tag("colour", "blue").field("size", i).$(100000000000L + i);
+                            }
+                            sender.flush();
+                        }
+                    }
+
+                    for (int j = 0; j < tableCount; j++) {
+                        final CharSequence tableName = "tab" + j;
+                        int count = 1000000;
+                        while (count-- > 0 && engine.getStatus(AllowAllCairoSecurityContext.INSTANCE, path, tableName) != TableUtils.TABLE_EXISTS) {
+                            Os.pause();
+                        }
+                        try (TableReader reader = new TableReader(new DefaultCairoConfiguration(root), tableName, null)) {
+                            count = 1000000;
+                            while (count-- > 0 && reader.size() < rowCount) {
+                                reader.reload();
+                                Os.pause();
+                            }
+                            Assert.assertEquals(rowCount, reader.size());
+                        }
+                    }
+                }
+            }
+        });
+    }
+
     private void assertCannotBindSocket(ReceiverFactory factory) throws Exception {
         TestUtils.assertMemoryLeak(() -> {
             NetworkFacade nf = new NetworkFacadeImpl() {
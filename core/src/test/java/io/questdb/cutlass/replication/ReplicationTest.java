@@ -0,0 +1,362 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.cutlass.replication;
+
+import io.questdb.cairo.CairoEngine;
+import io.questdb.cairo.CairoException;
+import io.questdb.cairo.DefaultCairoConfiguration;
+import io.questdb.cairo.TableWriter;
+import io.questdb.cairo.security.AllowAllCairoSecurityContext;
+import io.questdb.griffin.AbstractGriffinTest;
+import io.questdb.griffin.SqlCompiler;
+import io.questdb.griffin.SqlException;
+import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.griffin.SqlExecutionContextImpl;
+import io.questdb.mp.SOCountDownLatch;
+import io.questdb.network.Net;
+import io.questdb.network.NetworkFacade;
+import io.questdb.network.NetworkFacadeImpl;
+import io.questdb.std.Os;
+import io.questdb.std.str.StringSink;
+import io.questdb.test.tools.TestUtils;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+public class ReplicationTest extends AbstractGriffinTest {
+
+    private static final String[] QUERIES = {
+            "x",
+            "x where sym = 'b'",
+            "select sym, count(), sum(i), max(ts) from x order by sym",
+            "x latest on ts partition by sym"
+    };
+
+    @Test
+    public void testPrimaryRequiresAuthToken() throws Exception {
+        assertMemoryLeak(() -> {
+            try {
+                new ReplicationServer(new DefaultReplicationConfiguration(), engine, null).close();
+                Assert.fail();
+            } catch (CairoException e) {
+                TestUtils.assertContains(e.getFlyweightMessage(), "replication primary requires auth token");
+            }
+        });
+    }
+
+    @Test
+    public void testPrimaryRejectsInvalidTableName() throws Exception {
+        assertMemoryLeak(() -> {
+            final DefaultReplicationConfiguration configuration = new DefaultReplicationConfiguration() {
+                @Override
+                public CharSequence getAuthToken() {
+                    return "secret";
+                }
+
+                @Override
+                public int getBindPort() {
+                    return 0;
+                }
+            };
+            try (ReplicationServer server = new ReplicationServer(configuration, engine, null)) {
+                final NetworkFacade nf = configuration.getNetworkFacade();
+                final long fd = nf.socketTcp(true);
+                final long addrInfo = nf.getAddrInfo("127.0.0.1", server.getPort());
+                final AtomicBoolean running = new AtomicBoolean(true);
+                final SOCountDownLatch halted = new SOCountDownLatch(1);
+                startServer(server, running, halted);
+                try (ReplicationChannel channel = new ReplicationChannel(nf, engine.getConfiguration().getFilesFacade(), configuration.getClock(), 5000, 4096)) {
+                    Assert.assertEquals(0, nf.connectAddrInfo(fd, addrInfo));
+                    final String tableName = "../x";
+                    channel.of(fd);
+                    channel.putInt(ReplicationProtocol.MSG_SYNC);
+                    channel.putLong(Integer.BYTES + 6 * Character.BYTES + Integer.BYTES + tableName.length() * Character.BYTES + 2 * Long.BYTES);
+                    channel.putStr("secret");
+                    channel.putStr(tableName);
+                    channel.putLong(0);
+                    channel.putLong(0);
+                    channel.flush();
+
+                    Assert.assertEquals(ReplicationProtocol.STATUS_ERROR, channel.getInt());
+                    final StringSink sink = new StringSink();
+                    channel.getStr(sink);
+                    TestUtils.assertEquals("invalid table name", sink);
+                } finally {
+                    running.set(false);
+                    halted.await();
+                    nf.freeAddrInfo(addrInfo);
+                    nf.close(fd);
+                }
+            }
+        });
+    }
+
+    @Test
+    public void testSyncAfterTruncateRequiresReseed() throws Exception {
+        assertReplication("trunc", (replica, client) -> {
+            compiler.compile("insert into x select rnd_symbol('a','b','c'), x::int, rnd_str(3,5,1), (x * 3600000000L)::timestamp from long_sequence(100)", sqlExecutionContext);
+            Assert.assertEquals(ReplicationProtocol.STATUS_OK, client.syncTable("x"));
+            replica.assertSame();
+
+            compiler.compile("truncate table x", sqlExecutionContext);
+            Assert.assertEquals(ReplicationProtocol.STATUS_RESEED_REQUIRED, client.syncTable("x"));
+        });
+    }
+
+    @Test
+    public void testSyncAppendsOutOfOrderAndColumns() throws Exception {
+        assertReplication("sync", (replica, client) -> {
+            // empty table
+            Assert.assertEquals(ReplicationProtocol.STATUS_OK, client.syncTable("x"));
+            replica.assertSame();
+
+            // initial data across several partitions
+            compiler.compile("insert into x select rnd_symbol('a','b','c'), x::int, rnd_str(3,5,1), (x * 600000000L)::timestamp from long_sequence(1000)", sqlExecutionContext);
+            Assert.assertEquals(ReplicationProtocol.STATUS_OK, client.syncTable("x"));
+            replica.assertSame();
+
+            // nothing changed
+            Assert.assertEquals(ReplicationProtocol.STATUS_OK, client.syncTable("x"));
+            replica.assertSame();
+
+            // append to last partition and add new ones, introduce new symbols
+            compiler.compile("insert into x select rnd_symbol('a','b','d','e'), x::int, rnd_str(3,5,1), (600000000000L + x * 600000000L)::timestamp from long_sequence(500)", sqlExecutionContext);
+            Assert.assertEquals(ReplicationProtocol.STATUS_OK, client.syncTable("x"));
+            replica.assertSame();
+
+            // out-of-order data rewrites existing partitions
+            compiler.compile("insert into x select rnd_symbol('a','b','f'), -x::int, rnd_str(3,5,1), (x * 300000000L + 1)::timestamp from long_sequence(300)", sqlExecutionContext);
+            Assert.assertEquals(ReplicationProtocol.STATUS_OK, client.syncTable("x"));
+            replica.assertSame();
+
+            // new column has top in the last partition
+            compile("alter table x add column k symbol", sqlExecutionContext);
+            compile("alter table x add column v long", sqlExecutionContext);
+            compiler.compile("insert into x select rnd_symbol('a','b'), x::int, rnd_str(3,5,1), (900000000000L + x * 600000000L)::timestamp, rnd_symbol('p','q'), x from long_sequence(200)", sqlExecutionContext);
+            Assert.assertEquals(ReplicationProtocol.STATUS_OK, client.syncTable("x"));
+            replica.assertSame();
+            replica.assertSame("select k, count(), sum(v) from x order by k");
+        });
+    }
+
+    @Test
+    public void testSyncAuthTokenAccepted() throws Exception {
+        assertReplication("auth", "secret", "secret", (replica, client) -> {
+            compiler.compile("insert into x select rnd_symbol('a','b','c'), x::int, rnd_str(3,5,1), (x * 3600000000L)::timestamp from long_sequence(10)", sqlExecutionContext);
+            Assert.assertEquals(ReplicationProtocol.STATUS_OK, client.syncTable("x"));
+            replica.assertSame();
+        });
+    }
+
+    @Test
+    public void testSyncAuthTokenRejected() throws Exception {
+        assertReplication("noauth", "secret", "wrong", (replica, client) -> {
+            compiler.compile("insert into x select rnd_symbol('a','b','c'), x::int, rnd_str(3,5,1), (x * 3600000000L)::timestamp from long_sequence(10)", sqlExecutionContext);
+            Assert.assertEquals(ReplicationProtocol.STATUS_ERROR, client.syncTable("x"));
+            TestUtils.assertSql(replica.compiler, replica.executionContext, "select count() from x", replica.actual, "count\n0\n");
+        });
+    }
+
+    @Test
+    public void testSyncResumesPartialSends() throws Exception {
+        // replica's socket accepts few bytes at a time, primary sends response over many job runs
+        final NetworkFacade nf = new NetworkFacadeImpl() {
+            private boolean retry;
+
+            @Override
+            public int send(long fd, long buffer, int bufferLen) {
+                retry = !retry;
+                return retry ? Net.ERETRY : super.send(fd, buffer, Math.min(bufferLen, 113));
+            }
+        };
+        assertReplication("partial", "secret", "secret", nf, (replica, client) -> {
+            compiler.compile("insert into x select rnd_symbol('a','b','c'), x::int, rnd_str(3,5,1), (x * 600000000L)::timestamp from long_sequence(1000)", sqlExecutionContext);
+            Assert.assertEquals(ReplicationProtocol.STATUS_OK, client.syncTable("x"));
+            replica.assertSame();
+
+            compiler.compile("insert into x select rnd_symbol('a','d'), x::int, rnd_str(3,5,1), (x * 300000000L + 1)::timestamp from long_sequence(300)", sqlExecutionContext);
+            Assert.assertEquals(ReplicationProtocol.STATUS_OK, client.syncTable("x"));
+            replica.assertSame();
+        });
+    }
+
+    @Test
+    public void testSyncWhileWriterIsBusy() throws Exception {
+        assertReplication("busy", (replica, client) -> {
+            compiler.compile("insert into x select rnd_symbol('a','b','c'), x::int, rnd_str(3,5,1), (x * 600000000L)::timestamp from long_sequence(100)", sqlExecutionContext);
+            try (TableWriter writer = engine.getWriter(AllowAllCairoSecurityContext.INSTANCE, "x", "testing")) {
+                // primary serves committed snapshot while writer is held and has uncommitted rows
+                for (int i = 0; i < 10; i++) {
+                    TableWriter.Row row = writer.newRow(60000000000L + i * 60000000L);
+                    row.putSym(0, "z");
+                    row.putInt(1, i);
+                    row.putStr(2, "uncommitted");
+                    row.append();
+                }
+                Assert.assertEquals(ReplicationProtocol.STATUS_OK, client.syncTable("x"));
+                replica.assertSame();
+
+                writer.commit();
+                Assert.assertEquals(ReplicationProtocol.STATUS_OK, client.syncTable("x"));
+                replica.assertSame();
+
+                // in-order append to the last partition only moves transient row count
+                TableWriter.Row row = writer.newRow(61000000000L);
+                row.putSym(0, "z");
+                row.putInt(1, 10);
+                row.append();
+                writer.commit();
+                Assert.assertEquals(ReplicationProtocol.STATUS_OK, client.syncTable("x"));
+                replica.assertSame();
+            }
+        });
+    }
+
+    private void assertReplication(String name, ReplicationCode code) throws Exception {
+        assertReplication(name, "secret", "secret", NetworkFacadeImpl.INSTANCE, code);
+    }
+
+    private void assertReplication(String name, String primaryToken, String replicaToken, ReplicationCode code) throws Exception {
+        assertReplication(name, primaryToken, replicaToken, NetworkFacadeImpl.INSTANCE, code);
+    }
+
+    private void assertReplication(
+            String name,
+            String primaryToken,
+            String replicaToken,
+            NetworkFacade primaryNf,
+            ReplicationCode code
+    ) throws Exception {
+        assertMemoryLeak(() -> {
+            final String ddl = "create table x (sym symbol index, i int, s string, ts timestamp) timestamp(ts) partition by HOUR";
+            compiler.compile(ddl, sqlExecutionContext);
+
+            final DefaultReplicationConfiguration primaryConfiguration = new DefaultReplicationConfiguration() {
+                @Override
+                public CharSequence getAuthToken() {
+                    return primaryToken;
+                }
+
+                @Override
+                public int getBindPort() {
+                    return 0;
+                }
+
+                @Override
+                public int getBufferSize() {
+                    // small buffer to exercise chunking of files
+                    return 4096;
+                }
+
+                @Override
+                public NetworkFacade getNetworkFacade() {
+                    return primaryNf;
+                }
+            };
+
+            final String replicaRoot = temp.newFolder("replica_" + name).getAbsolutePath();
+            try (
+                    CairoEngine replicaEngine = new CairoEngine(new DefaultCairoConfiguration(replicaRoot));
+                    SqlCompiler replicaCompiler = new SqlCompiler(replicaEngine);
+                    ReplicationServer server = new ReplicationServer(primaryConfiguration, engine, null)
+            ) {
+                final SqlExecutionContext replicaContext = new SqlExecutionContextImpl(replicaEngine, 1)
+                        .with(AllowAllCairoSecurityContext.INSTANCE, null, null, -1, null);
+                replicaCompiler.compile(ddl, replicaContext);
+
+                final DefaultReplicationConfiguration replicaConfiguration = new DefaultReplicationConfiguration() {
+                    @Override
+                    public CharSequence getAuthToken() {
+                        return replicaToken;
+                    }
+
+                    @Override
+                    public int getBufferSize() {
+                        return 4096;
+                    }
+
+                    @Override
+                    public int getPrimaryPort() {
+                        return server.getPort();
+                    }
+                };
+
+                final AtomicBoolean running = new AtomicBoolean(true);
+                final SOCountDownLatch halted = new SOCountDownLatch(1);
+                startServer(server, running, halted);
+
+                try (ReplicationClient client = new ReplicationClient(replicaConfiguration, replicaEngine, null)) {
+                    code.run(new Replica(replicaCompiler, replicaContext), client);
+                } finally {
+                    running.set(false);
+                    halted.await();
+                }
+            }
+        });
+    }
+
+    private static void startServer(ReplicationServer server, AtomicBoolean running, SOCountDownLatch halted) {
+        new Thread(() -> {
+            try {
+                while (running.get()) {
+                    if (!server.run(0)) {
+                        Os.pause();
+                    }
+                }
+            } finally {
+                halted.countDown();
+            }
+        }).start();
+    }
+
+    @FunctionalInterface
+    private interface ReplicationCode {
+        void run(Replica replica, ReplicationClient client) throws Exception;
+    }
+
+    private static class Replica {
+        private final SqlCompiler compiler;
+        private final SqlExecutionContext executionContext;
+        private final StringSink expected = new StringSink();
+        private final StringSink actual = new StringSink();
+
+        private Replica(SqlCompiler compiler, SqlExecutionContext executionContext) {
+            this.compiler = compiler;
+            this.executionContext = executionContext;
+        }
+
+        void assertSame() throws SqlException {
+            for (String query : QUERIES) {
+                assertSame(query);
+            }
+        }
+
+        void assertSame(String query) throws SqlException {
+            TestUtils.printSql(AbstractGriffinTest.compiler, sqlExecutionContext, query, expected);
+            TestUtils.assertSql(compiler, executionContext, query, actual, expected);
+        }
+    }
+}
@@ -29,6 +29,7 @@ import io.questdb.TelemetryConfiguration;
 import io.questdb.cairo.CairoConfiguration;
 import io.questdb.cairo.sql.SqlExecutionCircuitBreakerConfiguration;
 import io.questdb.std.FilesFacade;
+import io.questdb.std.ObjList;
 import io.questdb.std.datetime.DateFormat;
 import io.questdb.std.datetime.DateLocale;
 import io.questdb.std.datetime.microtime.MicrosecondClock;
@@ -92,6 +93,11 @@ public class CairoConfigurationWrapper implements CairoConfiguration {
         return conf.getBindVariablePoolSize();
     }
 
+    @Override
+    public int getBloomFilterBlockRowCount() {
+        return conf.getBloomFilterBlockRowCount();
+    }
+
     @Override
     public BuildInformation getBuildInformation() {
         return conf.getBuildInformation();
@@ -217,6 +223,36 @@ public class CairoConfigurationWrapper implements CairoConfiguration {
         return conf.getDefaultSymbolCapacity();
     }
 
+    @Override
+    public int getReaderPoolPrewarmCount() {
+        return conf.getReaderPoolPrewarmCount();
+    }
+
+    @Override
+    public ObjList<String> getReaderPoolPrewarmTables() {
+        return conf.getReaderPoolPrewarmTables();
+    }
+
+    @Override
+    public int getSqlParallelLatestByMinChunkSize() {
+        return conf.getSqlParallelLatestByMinChunkSize();
+    }
+
+    @Override
+    public long getSqlQueryMemoryLimit() {
+        return conf.getSqlQueryMemoryLimit();
+    }
+
+    @Override
+    public long getSqlQueryMemoryPoolSize() {
+        return conf.getSqlQueryMemoryPoolSize();
+    }
+
+    @Override
+    public int getSqlQueryPriority() {
+        return conf.getSqlQueryPriority();
+    }
+
     @Override
     public boolean getWallEnabledDefault() {
         return conf.getWallEnabledDefault();
@@ -252,6 +288,11 @@ public class CairoConfigurationWrapper implements CairoConfiguration {
         return conf.getGroupByPoolCapacity();
     }
 
+    @Override
+    public long getHotCacheRowCount() {
+        return conf.getHotCacheRowCount();
+    }
+
     @Override
     public long getIdleCheckInterval() {
         return conf.getIdleCheckInterval();
@@ -302,6 +343,11 @@ public class CairoConfigurationWrapper implements CairoConfiguration {
         return conf.getLatestByQueueCapacity();
     }
 
+    @Override
+    public long getMatViewRefreshInterval() {
+        return conf.getMatViewRefreshInterval();
+    }
+
     @Override
     public int getMaxFileNameLength() {
         return conf.getMaxFileNameLength();
@@ -412,6 +458,11 @@ public class CairoConfigurationWrapper implements CairoConfiguration {
         return conf.getPartitionPurgeListCapacity();
     }
 
+    @Override
+    public long getPartitionRetentionCheckInterval() {
+        return conf.getPartitionRetentionCheckInterval();
+    }
+
     @Override
     public int getQueryCacheEventQueueCapacity() {
         return conf.getQueryCacheEventQueueCapacity();
@@ -652,6 +703,21 @@ public class CairoConfigurationWrapper implements CairoConfiguration {
         return conf.getSqlMapPageSize();
     }
 
+    @Override
+    public int getSqlMapSpillPartitionCount() {
+        return conf.getSqlMapSpillPartitionCount();
+    }
+
+    @Override
+    public CharSequence getSqlMapSpillRoot() {
+        return conf.getSqlMapSpillRoot();
+    }
+
+    @Override
+    public long getSqlMapSpillThreshold() {
+        return conf.getSqlMapSpillThreshold();
+    }
+
     @Override
     public int getSqlMaxNegativeLimit() {
         return conf.getSqlMaxNegativeLimit();
@@ -777,6 +843,21 @@ public class CairoConfigurationWrapper implements CairoConfiguration {
         return conf.isParallelIndexingEnabled();
     }
 
+    @Override
+    public boolean isPartitionRetentionDetachEnabled() {
+        return conf.isPartitionRetentionDetachEnabled();
+    }
+
+    @Override
+    public boolean isReaderPoolAdaptiveEvictionEnabled() {
+        return conf.isReaderPoolAdaptiveEvictionEnabled();
+    }
+
+    @Override
+    public boolean isSnapshotIncrementalEnabled() {
+        return conf.isSnapshotIncrementalEnabled();
+    }
+
     @Override
     public boolean isSnapshotRecoveryEnabled() {
         return conf.isSnapshotRecoveryEnabled();
@@ -811,4 +892,9 @@ public class CairoConfigurationWrapper implements CairoConfiguration {
     public int getMaxCrashFiles() {
         return conf.getMaxCrashFiles();
     }
+
+    @Override
+    public boolean isSqlParallelLatestByEnabled() {
+        return conf.isSqlParallelLatestByEnabled();
+    }
 }
@@ -74,6 +74,21 @@ public class MessageBusStub implements MessageBus {
         return null;
     }
 
+    @Override
+    public Sequence getLatestByAllPubSeq() {
+        return null;
+    }
+
+    @Override
+    public RingQueue<LatestByAllTask> getLatestByAllQueue() {
+        return null;
+    }
+
+    @Override
+    public Sequence getLatestByAllSubSeq() {
+        return null;
+    }
+
     @Override
     public Sequence getLatestByPubSeq() {
         return null;
@@ -263,4 +278,9 @@ public class MessageBusStub implements MessageBus {
     public Sequence getTextImportRequestSubSeq() {
         return null;
     }
+
+    @Override
+    public boolean hasIngestionBacklog() {
+        return false;
+    }
 }
@@ -26,6 +26,7 @@ package io.questdb.cutlass.text;
 
 import io.questdb.std.Files;
 import io.questdb.std.MemoryTag;
+import io.questdb.std.SwarUtils;
 import io.questdb.std.Unsafe;
 import io.questdb.std.str.StringSink;
 import org.junit.Assert;
@@ -33,6 +34,44 @@ import org.junit.Test;
 
 public class TextUtilTest {
 
+    @Test
+    public void testFindStructuralByte() {
+        final byte[] structural = {',', '"', '\n', '\r'};
+        // bytes adjacent to structural ones and multibyte UTF-8 should not match
+        final byte[] plain = {'a', '-', '+', '#', '!', '\t', (byte) 0xd0, (byte) 0xac, 0};
+        final int len = 41;
+        long ptr = Unsafe.malloc(len, MemoryTag.NATIVE_DEFAULT);
+        try {
+            for (int i = 0; i < len; i++) {
+                Unsafe.getUnsafe().putByte(ptr + i, plain[i % plain.length]);
+            }
+            final long delimiterWord = SwarUtils.broadcast((byte) ',');
+            for (int hi = 0; hi <= len; hi++) {
+                Assert.assertEquals(ptr + hi, TextUtil.findStructuralByte(ptr, ptr + hi, delimiterWord));
+            }
+
+            for (byte b : structural) {
+                for (int pos = 0; pos < len; pos++) {
+                    final byte saved = Unsafe.getUnsafe().getByte(ptr + pos);
+                    Unsafe.getUnsafe().putByte(ptr + pos, b);
+                    for (int lo = 0; lo <= pos; lo++) {
+                        Assert.assertEquals(ptr + pos, TextUtil.findStructuralByte(ptr + lo, ptr + len, delimiterWord));
+                    }
+                    // structural byte is outside the range
+                    Assert.assertEquals(ptr + pos, TextUtil.findStructuralByte(ptr, ptr + pos, delimiterWord));
+                    Unsafe.getUnsafe().putByte(ptr + pos, saved);
+                }
+            }
+
+            // custom delimiter, comma is plain
+            Unsafe.getUnsafe().putByte(ptr + 3, (byte) ',');
+            Unsafe.getUnsafe().putByte(ptr + 17, (byte) '|');
+            Assert.assertEquals(ptr + 17, TextUtil.findStructuralByte(ptr, ptr + len, SwarUtils.broadcast((byte) '|')));
+        } finally {
+            Unsafe.free(ptr, len, MemoryTag.NATIVE_DEFAULT);
+        }
+    }
+
     @Test
     public void testQuotedTextParsing() throws Utf8Exception {
         StringSink query = new StringSink();
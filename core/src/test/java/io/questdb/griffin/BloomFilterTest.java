@@ -0,0 +1,221 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.griffin;
+
+import io.questdb.cairo.*;
+import io.questdb.cairo.security.AllowAllCairoSecurityContext;
+import io.questdb.cairo.sql.DataFrame;
+import io.questdb.cairo.sql.DataFrameCursor;
+import io.questdb.cairo.sql.DataFrameCursorFactory;
+import io.questdb.std.IntList;
+import io.questdb.std.ObjList;
+import io.questdb.test.tools.TestUtils;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class BloomFilterTest extends AbstractGriffinTest {
+
+    // 72 hourly rows make three day partitions of 24 rows, the last one is active and never filtered
+    private static final String DDL = "create table x as (" +
+            "select timestamp_sequence('2022-01-01', 3600000000L) ts," +
+            " case when x = 37 then 'rare' else cast(x % 3 as string) end s," +
+            " cast(case when x % 2 = 0 then 'k' else 'l' end as symbol) sym" +
+            " from long_sequence(72)" +
+            ") timestamp(ts) partition by day";
+
+    @Before
+    public void setUp3() {
+        bloomFilterBlockRowCount = 10;
+    }
+
+    @Test
+    public void testAddBloomFilterTwice() throws Exception {
+        assertMemoryLeak(() -> {
+            compile(DDL);
+            compile("alter table x alter column s add bloom filter");
+            try {
+                compile("alter table x alter column s add bloom filter");
+                Assert.fail();
+            } catch (SqlException e) {
+                TestUtils.assertContains(e.getFlyweightMessage(), "bloom filter already exists [column=s]");
+            }
+        });
+    }
+
+    @Test
+    public void testDropBloomFilter() throws Exception {
+        assertMemoryLeak(() -> {
+            compile(DDL);
+            compile("alter table x alter column s add bloom filter");
+            assertBloomFiltered("s", true);
+            assertFrames("s", "rare", DataFrameCursorFactory.ORDER_ASC, "1:10-20 2:0-24");
+
+            compile("alter table x alter column s drop bloom filter");
+            assertBloomFiltered("s", false);
+            assertFrames("s", "rare", DataFrameCursorFactory.ORDER_ASC, "0:0-24 1:0-24 2:0-24");
+            assertSql(
+                    "select * from x where s = 'rare'",
+                    "ts\ts\tsym\n" +
+                            "2022-01-02T12:00:00.000000Z\trare\tl\n"
+            );
+
+            try {
+                compile("alter table x alter column s drop bloom filter");
+                Assert.fail();
+            } catch (SqlException e) {
+                TestUtils.assertContains(e.getFlyweightMessage(), "column does not have bloom filter [column=s]");
+            }
+        });
+    }
+
+    @Test
+    public void testFramesSkipped() throws Exception {
+        assertMemoryLeak(() -> {
+            compile(DDL);
+            compile("alter table x alter column s add bloom filter");
+            compile("alter table x alter column sym add bloom filter");
+
+            assertFrames("s", "rare", DataFrameCursorFactory.ORDER_ASC, "1:10-20 2:0-24");
+            assertFrames("s", "rare", DataFrameCursorFactory.ORDER_DESC, "2:0-24 1:10-20");
+            assertFrames("s", "zz", DataFrameCursorFactory.ORDER_ASC, "2:0-24");
+            assertFrames("sym", "k", DataFrameCursorFactory.ORDER_ASC, "0:0-24 1:0-24 2:0-24");
+            assertFrames("sym", "zz", DataFrameCursorFactory.ORDER_ASC, "2:0-24");
+        });
+    }
+
+    @Test
+    public void testNonStringColumn() throws Exception {
+        assertFailure(
+                "alter table x alter column ts add bloom filter",
+                DDL,
+                27,
+                "bloom filter is only supported for STRING and SYMBOL columns"
+        );
+    }
+
+    @Test
+    public void testO3RebuildsBloomFilter() throws Exception {
+        assertMemoryLeak(() -> {
+            compile(DDL);
+            compile("alter table x alter column s add bloom filter");
+            executeInsert("insert into x values ('2022-01-01T05:30', 'rare', 'k')");
+
+            assertFrames("s", "rare", DataFrameCursorFactory.ORDER_ASC, "0:0-10 1:10-20 2:0-24");
+            assertSql(
+                    "select * from x where s in ('rare', 'zz')",
+                    "ts\ts\tsym\n" +
+                            "2022-01-01T05:30:00.000000Z\trare\tk\n" +
+                            "2022-01-02T12:00:00.000000Z\trare\tl\n"
+            );
+        });
+    }
+
+    @Test
+    public void testQueries() throws Exception {
+        assertMemoryLeak(() -> {
+            compile(DDL);
+            compile("alter table x alter column s add bloom filter");
+            compile("alter table x alter column sym add bloom filter");
+
+            assertSql(
+                    "select * from x where s = 'rare'",
+                    "ts\ts\tsym\n" +
+                            "2022-01-02T12:00:00.000000Z\trare\tl\n"
+            );
+            assertSql(
+                    "select * from x where 'rare' = s and sym = 'l' order by ts desc",
+                    "ts\ts\tsym\n" +
+                            "2022-01-02T12:00:00.000000Z\trare\tl\n"
+            );
+            assertSql(
+                    "select count() from x where sym in ('k', 'zz')",
+                    "count\n" +
+                            "36\n"
+            );
+            assertSql(
+                    "select count() from x where sym = 'zz'",
+                    "count\n" +
+                            "0\n"
+            );
+        });
+    }
+
+    @Test
+    public void testUpdateRebuildsBloomFilter() throws Exception {
+        assertMemoryLeak(() -> {
+            compile(DDL);
+            compile("alter table x alter column s add bloom filter");
+            compile("update x set s = 'rare' where ts = '2022-01-01T23:00'");
+
+            assertFrames("s", "rare", DataFrameCursorFactory.ORDER_ASC, "0:20-24 1:10-20 2:0-24");
+            assertSql(
+                    "select * from x where s = 'rare'",
+                    "ts\ts\tsym\n" +
+                            "2022-01-01T23:00:00.000000Z\trare\tk\n" +
+                            "2022-01-02T12:00:00.000000Z\trare\tl\n"
+            );
+        });
+    }
+
+    private static void assertBloomFiltered(CharSequence columnName, boolean expected) {
+        try (TableReader reader = engine.getReader(AllowAllCairoSecurityContext.INSTANCE, "x")) {
+            TableReaderMetadata metadata = reader.getMetadata();
+            Assert.assertEquals(expected, metadata.isColumnBloomFiltered(metadata.getColumnIndex(columnName)));
+        }
+    }
+
+    private static void assertFrames(CharSequence columnName, String value, int order, String expected) throws SqlException {
+        final ObjList<CharSequence> columnNames = new ObjList<>();
+        columnNames.add(columnName);
+        final IntList columnIndexes = new IntList();
+        try (TableReader reader = engine.getReader(AllowAllCairoSecurityContext.INSTANCE, "x")) {
+            columnIndexes.add(reader.getMetadata().getColumnIndex(columnName));
+        }
+        final ObjList<String> values = new ObjList<>();
+        values.add(value);
+        final ObjList<ObjList<String>> columnValues = new ObjList<>();
+        columnValues.add(values);
+
+        final DataFrameCursorFactory base = order == DataFrameCursorFactory.ORDER_DESC
+                ? new FullBwdDataFrameCursorFactory("x", TableUtils.ANY_TABLE_ID, TableUtils.ANY_TABLE_VERSION)
+                : new FullFwdDataFrameCursorFactory("x", TableUtils.ANY_TABLE_ID, TableUtils.ANY_TABLE_VERSION);
+        try (
+                BloomFilterDataFrameCursorFactory factory = new BloomFilterDataFrameCursorFactory(base, columnNames, columnIndexes, columnValues);
+                DataFrameCursor cursor = factory.getCursor(sqlExecutionContext, order)
+        ) {
+            final StringBuilder sink = new StringBuilder();
+            DataFrame frame;
+            while ((frame = cursor.next()) != null) {
+                if (sink.length() > 0) {
+                    sink.append(' ');
+                }
+                sink.append(frame.getPartitionIndex()).append(':').append(frame.getRowLo()).append('-').append(frame.getRowHi());
+            }
+            Assert.assertEquals(expected, sink.toString());
+        }
+    }
+}
@@ -24,11 +24,52 @@
 
 package io.questdb.griffin;
 
+import io.questdb.log.Log;
+import io.questdb.log.LogFactory;
 import io.questdb.test.tools.TestUtils;
 import org.junit.Assert;
 import org.junit.Test;
 
 public class CreateTableAsSelectTest extends AbstractGriffinTest {
+    private static final Log LOG = LogFactory.getLog(CreateTableAsSelectTest.class);
+
+    @Test
+    public void testCreatePartitionedTableAsSelectPageFrames() throws Exception {
+        assertMemoryLeak(() -> {
+            compile(
+                    "create table src as (" +
+                            "select rnd_int(0, 1000, 2) i, rnd_symbol(20, 2, 6, 3) sym, rnd_str(3, 12, 2) s, rnd_bin(1, 20, 2) b, " +
+                            "rnd_long256() l256, rnd_geohash(25) g, rnd_double(2) d, timestamp_sequence(0, 7000000) ts " +
+                            "from long_sequence(30000)" +
+                            ") timestamp(ts) partition by DAY"
+            );
+            // column tops in older partitions
+            compile("alter table src add column sym2 symbol");
+            compile("alter table src add column l long");
+            compile(
+                    "insert into src select rnd_int(0, 1000, 2) i, rnd_symbol(20, 2, 6, 3) sym, rnd_str(3, 12, 2) s, rnd_bin(1, 20, 2) b, " +
+                            "rnd_long256() l256, rnd_geohash(25) g, rnd_double(2) d, timestamp_sequence(210000000000, 7000000) ts, " +
+                            "rnd_symbol('a', 'b', null) sym2, rnd_long(0, 10, 1) l " +
+                            "from long_sequence(20000)"
+            );
+
+            // page frames are copied as is, rows outside of the target partition are split off
+            compile("create table dest_day as (select * from src) timestamp(ts) partition by DAY");
+            compile("create table dest_hour as (select * from src) timestamp(ts) partition by HOUR");
+            compile("create table dest_none as (select * from src where ts > '1970-01-02') timestamp(ts)");
+
+            TestUtils.assertSqlCursors(compiler, sqlExecutionContext, "src", "dest_day", LOG);
+            TestUtils.assertSqlCursors(compiler, sqlExecutionContext, "src", "dest_hour", LOG);
+            TestUtils.assertSqlCursors(compiler, sqlExecutionContext, "src where ts > '1970-01-02'", "dest_none", LOG);
+            TestUtils.assertSqlCursors(
+                    compiler,
+                    sqlExecutionContext,
+                    "select sym, sym2, count() from src order by 1, 2",
+                    "select sym, sym2, count() from dest_hour order by 1, 2",
+                    LOG
+            );
+        });
+    }
 
     @Test
     public void testCreatePartitionedTableAsSelectTimestampNoOrder() throws Exception {
@@ -30,6 +30,8 @@ import io.questdb.cairo.sql.*;
 import io.questdb.cairo.sql.Record;
 import io.questdb.griffin.engine.TestBinarySequence;
 import io.questdb.griffin.engine.functions.bind.BindVariableServiceImpl;
+import io.questdb.log.Log;
+import io.questdb.log.LogFactory;
 import io.questdb.std.BinarySequence;
 import io.questdb.std.Long256;
 import io.questdb.std.Rnd;
@@ -39,6 +41,7 @@ import org.junit.Assert;
 import org.junit.Test;
 
 public class InsertTest extends AbstractGriffinTest {
+    private static final Log LOG = LogFactory.getLog(InsertTest.class);
 
     @Test
     public void testGeoHash() throws Exception {
@@ -926,6 +929,27 @@ public class InsertTest extends AbstractGriffinTest {
         testInsertAsSelectWithOrderBy("order by ts desc");
     }
 
+    @Test
+    public void testInsertAsSelectPageFrames() throws Exception {
+        assertMemoryLeak(() -> {
+            final String select = "select rnd_int(0, 1000, 2) i, rnd_symbol(20, 2, 6, 3) sym, rnd_str(3, 12, 2) s, " +
+                    "rnd_bin(1, 20, 2) b, rnd_double(2) d, timestamp_sequence(0, 7000000) ts from long_sequence(40000)";
+            compiler.compile("create table src as (" + select + ") timestamp(ts) partition by DAY", sqlExecutionContext);
+            // destination already has rows in the middle of source time range
+            compiler.compile("create table dest as (select * from src where ts > '1970-01-02') timestamp(ts) partition by DAY", sqlExecutionContext);
+            compiler.compile("create table expected as (select * from src where ts > '1970-01-02') timestamp(ts) partition by DAY", sqlExecutionContext);
+
+            // filter makes the expected table go through row by row copy
+            compiler.compile("insert into expected select * from src where i != 42424242", sqlExecutionContext);
+            compiler.compile("insert into dest select * from src", sqlExecutionContext);
+            TestUtils.assertSqlCursors(compiler, sqlExecutionContext, "expected", "dest", LOG);
+
+            compiler.compile("insert batch 1000 into expected select * from src where ts > '1970-01-03' and i != 42424242", sqlExecutionContext);
+            compiler.compile("insert batch 1000 into dest select * from src where ts > '1970-01-03'", sqlExecutionContext);
+            TestUtils.assertSqlCursors(compiler, sqlExecutionContext, "expected", "dest", LOG);
+        });
+    }
+
     private void testInsertAsSelectWithOrderBy(String orderByClause) throws Exception {
         assertMemoryLeak(() -> {
             compiler.compile("create table src (ts timestamp, v long) timestamp(ts) partition by day;", sqlExecutionContext);
@@ -32,6 +32,7 @@ import io.questdb.griffin.engine.groupby.vect.GroupByJob;
 import io.questdb.mp.WorkerPool;
 import io.questdb.mp.WorkerPoolConfiguration;
 import io.questdb.std.*;
+import io.questdb.std.str.StringSink;
 import io.questdb.test.tools.TestUtils;
 import org.hamcrest.MatcherAssert;
 import org.jetbrains.annotations.Nullable;
@@ -624,6 +625,58 @@ public class KeyedAggregationTest extends AbstractGriffinTest {
         });
     }
 
+    @Test
+    public void testIntSymbolAddValueMidTableFloatShortByte() throws Exception {
+        assertMemoryLeak(() -> {
+            compiler.compile("create table tab as (select rnd_symbol('s1','s2','s3', null) s1, rnd_float(2) f, rnd_short() s, rnd_byte() b, timestamp_sequence(0, 100000) ts from long_sequence(100000))", sqlExecutionContext);
+            compile("alter table tab add column f2 float", sqlExecutionContext);
+            compile("alter table tab add column s2 short", sqlExecutionContext);
+            compiler.compile("insert into tab select rnd_symbol('a1','a2','a3', null), rnd_float(2), rnd_short(), rnd_byte(), timestamp_sequence(10000000000, 100000), rnd_float(2), rnd_short() from long_sequence(100000)", sqlExecutionContext);
+
+            // "where now() > ..." forces row-by-row execution
+            final String sql = "select s1, sum(f), min(f), max(f), avg(f), sum(s), min(s), max(s), avg(s), sum(b), min(b), max(b), avg(b)," +
+                    " min(f2), max(f2), avg(f2), sum(s2), min(s2), max(s2), avg(s2) from tab";
+            TestUtils.assertSqlCursors(
+                    compiler,
+                    sqlExecutionContext,
+                    sql + " where now() > '1000-01-01' order by s1",
+                    sql + " order by s1",
+                    LOG
+            );
+
+            final String hourSql = "select hour(ts), sum(f), min(f), max(f), avg(f), sum(s), max(b), min(s2) from tab";
+            TestUtils.assertSqlCursors(
+                    compiler,
+                    sqlExecutionContext,
+                    hourSql + " where now() > '1000-01-01' order by 1",
+                    hourSql + " order by 1",
+                    LOG
+            );
+        });
+    }
+
+    @Test
+    public void testIntSymbolAddValueMidTableSumFloat() throws Exception {
+        assertMemoryLeak(() -> {
+            compiler.compile("create table tab as (select rnd_symbol('s1','s2','s3', null) s1 from long_sequence(1000))", sqlExecutionContext);
+            compile("alter table tab add column val float", sqlExecutionContext);
+            compiler.compile("insert into tab select rnd_symbol('a1','a2','a3', null), cast(x % 8 as float) from long_sequence(1000)", sqlExecutionContext);
+
+            // keys that have only nulls get null, as with sum(double)
+            assertSql(
+                    "select s1, sum(val) from tab order by s1",
+                    "s1\tsum\n" +
+                            "\t978.0000\n" +
+                            "a1\t892.0000\n" +
+                            "a2\t857.0000\n" +
+                            "a3\t773.0000\n" +
+                            "s1\tNaN\n" +
+                            "s2\tNaN\n" +
+                            "s3\tNaN\n"
+            );
+        });
+    }
+
     @Test
     public void testIntSymbolAddValueMidTableKSumDouble() throws Exception {
         assertMemoryLeak(() -> {
@@ -1352,6 +1405,46 @@ public class KeyedAggregationTest extends AbstractGriffinTest {
         );
     }
 
+    @Test
+    public void testSpillToDisk() throws Exception {
+        testSpillToDisk(
+                "fast",
+                "select s, k, sum(d), count(), min(k), max(l), count_distinct(l), last(s) from tab order by s, k"
+        );
+    }
+
+    @Test
+    public void testSpillToDiskCompactMap() throws Exception {
+        // compact map does not support symbol keys
+        testSpillToDisk(
+                "compact",
+                "select i, k, sum(d), count(), min(k), max(l), count_distinct(l) from tab order by i, k"
+        );
+    }
+
+    @Test
+    public void testSpillToDiskDistinct() throws Exception {
+        testSpillToDisk(
+                "fast",
+                "select distinct s, i, k from tab order by s, i, k"
+        );
+    }
+
+    @Test
+    public void testSpillToDiskDistinctCount() throws Exception {
+        mapSpillPartitionCount = 4;
+        assertMemoryLeak(() -> {
+            compiler.compile("create table tab as (select rnd_symbol(100,4,4,0) s, cast(x % 7 as int) i from long_sequence(20000))", sqlExecutionContext);
+            final String query = "select count() from (select distinct s, i from tab)";
+            final StringSink expected = new StringSink();
+            TestUtils.printSql(compiler, sqlExecutionContext, query, expected);
+            TestUtils.assertEquals("count\n700\n", expected);
+
+            mapSpillThreshold = 1;
+            assertSql(query, expected);
+        });
+    }
+
     @Test
     public void testRostiReallocation() throws Exception {
         rostiAllocFacade = new RostiAllocFacadeImpl() {
@@ -1430,6 +1523,21 @@ public class KeyedAggregationTest extends AbstractGriffinTest {
         }
     }
 
+    private void testSpillToDisk(String mapType, String query) throws Exception {
+        defaultMapType = mapType;
+        mapSpillPartitionCount = 4;
+        assertMemoryLeak(() -> {
+            compiler.compile("create table tab as (select rnd_symbol(100,4,4,0) s, rnd_str(4,6,1) k, cast(x % 7 as int) i, rnd_double() d, x l from long_sequence(20000))", sqlExecutionContext);
+            // order by reads group by records at random
+            final StringSink expected = new StringSink();
+            TestUtils.printSql(compiler, sqlExecutionContext, query, expected);
+
+            // spill all keys but the first one
+            mapSpillThreshold = 1;
+            assertSql(query, expected);
+        });
+    }
+
     private void testAggregations(String[] aggregateFunctions, TypeVal[] aggregateColTypes) throws SqlException {
         StringBuilder sql = new StringBuilder();
         sql.append("select ");
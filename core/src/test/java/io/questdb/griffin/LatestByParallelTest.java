@@ -31,6 +31,7 @@ import io.questdb.cairo.sql.RecordCursor;
 import io.questdb.cairo.sql.RecordCursorFactory;
 import io.questdb.griffin.engine.functions.rnd.SharedRandom;
 import io.questdb.griffin.engine.table.LatestByAllIndexedJob;
+import io.questdb.griffin.engine.table.LatestByAllJob;
 import io.questdb.log.Log;
 import io.questdb.log.LogFactory;
 import io.questdb.mp.WorkerPool;
@@ -116,6 +117,26 @@ public class LatestByParallelTest {
         executeVanilla(LatestByParallelTest::testLatestByFiltered);
     }
 
+    @Test
+    public void testLatestByNonIndexedParallel1() throws Exception {
+        executeWithPool(4, 8, LatestByParallelTest::testLatestByNonIndexed);
+    }
+
+    @Test
+    public void testLatestByNonIndexedParallel2() throws Exception {
+        executeWithPool(8, 4, LatestByParallelTest::testLatestByNonIndexed);
+    }
+
+    @Test
+    public void testLatestByNonIndexedParallel3() throws Exception {
+        executeWithPool(4, 0, LatestByParallelTest::testLatestByNonIndexed);
+    }
+
+    @Test
+    public void testLatestByNonIndexedVanilla() throws Exception {
+        executeVanilla(LatestByParallelTest::testLatestByNonIndexed);
+    }
+
     @Test
     public void testLatestByTimestampParallel1() throws Exception {
         executeWithPool(4, 8, LatestByParallelTest::testLatestByTimestamp);
@@ -165,6 +186,68 @@ public class LatestByParallelTest {
         assertQuery(compiler, sqlExecutionContext, expected, ddl, query);
     }
 
+    private static void testLatestByNonIndexed(
+            CairoEngine engine,
+            SqlCompiler compiler,
+            SqlExecutionContext sqlExecutionContext
+    ) throws SqlException {
+        compiler.compile(
+                "create table y as " +
+                        "(" +
+                        "select" +
+                        " x i," +
+                        " x % 7 k," +
+                        " cast(x % 3 as symbol) s1," +
+                        " cast(x % 2 as symbol) s2," +
+                        " timestamp_sequence(0, 60000000) ts" +
+                        " from long_sequence(1000)" +
+                        ") timestamp(ts) partition by HOUR",
+                sqlExecutionContext
+        );
+
+        assertQuery(
+                compiler,
+                sqlExecutionContext,
+                "i\tk\n" +
+                        "994\t0\n" +
+                        "995\t1\n" +
+                        "996\t2\n" +
+                        "997\t3\n" +
+                        "998\t4\n" +
+                        "999\t5\n" +
+                        "1000\t6\n",
+                "select i, k from y latest on ts partition by k"
+        );
+
+        assertQuery(
+                compiler,
+                sqlExecutionContext,
+                "i\tk\n" +
+                        "981\t1\n" +
+                        "984\t4\n" +
+                        "987\t0\n" +
+                        "990\t3\n" +
+                        "993\t6\n" +
+                        "996\t2\n" +
+                        "999\t5\n",
+                "select i, k from y where i % 3 = 0 latest on ts partition by k"
+        );
+
+        // all symbol key combinations are found in the last partition, scan stops early
+        assertQuery(
+                compiler,
+                sqlExecutionContext,
+                "i\ts1\ts2\n" +
+                        "995\t2\t1\n" +
+                        "996\t0\t0\n" +
+                        "997\t1\t1\n" +
+                        "998\t2\t0\n" +
+                        "999\t0\t1\n" +
+                        "1000\t1\t0\n",
+                "select i, s1, s2 from y latest on ts partition by s1, s2"
+        );
+    }
+
     private static void testLatestByAll(
             CairoEngine engine,
             SqlCompiler compiler,
@@ -226,7 +309,15 @@ public class LatestByParallelTest {
             String query
     ) throws SqlException {
         compiler.compile(ddl, sqlExecutionContext);
+        assertQuery(compiler, sqlExecutionContext, expected, query);
+    }
 
+    private static void assertQuery(
+            SqlCompiler compiler,
+            SqlExecutionContext sqlExecutionContext,
+            String expected,
+            String query
+    ) throws SqlException {
         CompiledQuery cc = compiler.compile(query, sqlExecutionContext);
         RecordCursorFactory factory = cc.getRecordCursorFactory();
 
@@ -254,6 +345,11 @@ public class LatestByParallelTest {
                     public FilesFacade getFilesFacade() {
                         return FilesFacadeImpl.INSTANCE;
                     }
+
+                    @Override
+                    public int getSqlParallelLatestByMinChunkSize() {
+                        return 16;
+                    }
                 };
 
                 execute(pool, runnable, configuration);
@@ -269,6 +365,11 @@ public class LatestByParallelTest {
                     public int getLatestByQueueCapacity() {
                         return queueCapacity;
                     }
+
+                    @Override
+                    public int getSqlParallelLatestByMinChunkSize() {
+                        return 16;
+                    }
                 };
                 execute(null, runnable, configuration);
             }
@@ -290,6 +391,7 @@ public class LatestByParallelTest {
                 try {
                     if (pool != null) {
                         pool.assign(new LatestByAllIndexedJob(engine.getMessageBus()));
+                        pool.assign(new LatestByAllJob(engine.getMessageBus()));
                         pool.start(LOG);
                     }
 
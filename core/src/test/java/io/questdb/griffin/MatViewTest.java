@@ -0,0 +1,281 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin;
+
+import io.questdb.cairo.PartitionBy;
+import io.questdb.cairo.TableReader;
+import io.questdb.cairo.security.AllowAllCairoSecurityContext;
+import io.questdb.test.tools.TestUtils;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class MatViewTest extends AbstractGriffinTest {
+
+    private static final String BASE_DDL = "create table b as (" +
+            "select" +
+            " timestamp_sequence('2022-01-01', 600000000) ts," +
+            " rnd_symbol('a','b') s," +
+            " x v" +
+            " from long_sequence(500)" +
+            ") timestamp(ts) partition by day";
+
+    @Test
+    public void testCreateMatViewFill() throws Exception {
+        assertFailure(
+                "create materialized view e2 as (select ts, sum(v) from b sample by 1h fill(null) align to calendar)",
+                BASE_DDL,
+                75,
+                "materialized view does not support FILL"
+        );
+    }
+
+    @Test
+    public void testCreateMatViewFirstObservation() throws Exception {
+        assertFailure(
+                "create materialized view e1 as (select ts, sum(v) from b sample by 1h)",
+                BASE_DDL,
+                67,
+                "materialized view requires SAMPLE BY ... ALIGN TO CALENDAR"
+        );
+    }
+
+    @Test
+    public void testCreateMatViewJoin() throws Exception {
+        assertFailure(
+                "create materialized view e4 as (select b.ts, sum(b.v) from b join b c on (ts) sample by 1h align to calendar)",
+                BASE_DDL,
+                25,
+                "materialized view query must select from a single table"
+        );
+    }
+
+    @Test
+    public void testCreateMatViewMissingView() throws Exception {
+        assertFailure(
+                "create materialized",
+                null,
+                19,
+                "'view' expected"
+        );
+    }
+
+    @Test
+    public void testCreateMatViewNoSampleBy() throws Exception {
+        assertFailure(
+                "create materialized view e3 as (select ts, sum(v) from b)",
+                BASE_DDL,
+                25,
+                "materialized view query requires SAMPLE BY"
+        );
+    }
+
+    @Test
+    public void testCreateMatViewPartitionByNone() throws Exception {
+        assertFailure(
+                "create materialized view e6 as (select ts, sum(v) from b sample by 1h align to calendar) partition by none",
+                BASE_DDL,
+                102,
+                "'HOUR', 'DAY', 'MONTH' or 'YEAR' expected"
+        );
+    }
+
+    @Test
+    public void testCreateMatViewTimeZone() throws Exception {
+        assertFailure(
+                "create materialized view e5 as (select ts, sum(v) from b sample by 1h align to calendar time zone 'Europe/Berlin')",
+                BASE_DDL,
+                67,
+                "materialized view requires SAMPLE BY ... ALIGN TO CALENDAR"
+        );
+    }
+
+    @Test
+    public void testPartitionByDefaultsToBaseTable() throws Exception {
+        assertMemoryLeak(() -> {
+            compile(BASE_DDL);
+            compile("create materialized view v as (select ts, sum(v) from b sample by 1h align to calendar)");
+            compile("create materialized view m as (select ts, sum(v) from b sample by 1d align to calendar) partition by month");
+            try (TableReader reader = engine.getReader(AllowAllCairoSecurityContext.INSTANCE, "v")) {
+                Assert.assertEquals(PartitionBy.DAY, reader.getPartitionedBy());
+            }
+            try (TableReader reader = engine.getReader(AllowAllCairoSecurityContext.INSTANCE, "m")) {
+                Assert.assertEquals(PartitionBy.MONTH, reader.getPartitionedBy());
+            }
+        });
+    }
+
+    @Test
+    public void testRefreshAfterBasePartitionDrop() throws Exception {
+        assertMemoryLeak(() -> {
+            compile(BASE_DDL);
+            compile("create materialized view v as (select ts, s, sum(v) sv from b sample by 1d align to calendar)");
+            compile("alter table b drop partition list '2022-01-01'");
+
+            try (MatViewRefreshJob job = new MatViewRefreshJob(engine, null)) {
+                Assert.assertFalse(job.refreshAll());
+            }
+
+            // aggregates of dropped partition are kept
+            assertSql(
+                    "select count() from v where ts = '2022-01-01'",
+                    "count\n" +
+                            "2\n"
+            );
+        });
+    }
+
+    @Test
+    public void testRefreshAfterBaseTableRecreate() throws Exception {
+        assertMemoryLeak(() -> {
+            compile(BASE_DDL);
+            compile("create materialized view v as (select ts, sum(v) sv from b sample by 1h align to calendar)");
+            compile("drop table b");
+            compile("create table b as (select timestamp_sequence('2022-01-01', 600000000) ts, x v from long_sequence(10)) timestamp(ts) partition by day");
+
+            try (MatViewRefreshJob job = new MatViewRefreshJob(engine, null)) {
+                Assert.assertTrue(job.refreshAll());
+            }
+
+            assertSql(
+                    "v",
+                    "ts\tsv\n" +
+                            "2022-01-01T00:00:00.000000Z\t21\n" +
+                            "2022-01-01T01:00:00.000000Z\t34\n"
+            );
+        });
+    }
+
+    @Test
+    public void testRefreshConsecutiveInOrderAppends() throws Exception {
+        assertMemoryLeak(() -> {
+            final String query = "select ts, sum(v) sv from b sample by 1h align to calendar";
+            compile(BASE_DDL);
+            compile("create materialized view v as (" + query + ")");
+
+            try (MatViewRefreshJob job = new MatViewRefreshJob(engine, null)) {
+                // in-order appends to the last partition do not update its size in the partition table
+                executeInsert("insert into b values ('2022-01-04T12:00:00', 'a', 1000)");
+                Assert.assertTrue(job.refreshAll());
+                TestUtils.assertSqlCursors(compiler, sqlExecutionContext, query, "v", LOG);
+
+                executeInsert("insert into b values ('2022-01-04T13:00:00', 'a', 7)");
+                Assert.assertTrue(job.refreshAll());
+                TestUtils.assertSqlCursors(compiler, sqlExecutionContext, query, "v", LOG);
+                Assert.assertFalse(job.refreshAll());
+            }
+
+            assertSql(
+                    "v where ts >= '2022-01-04T11:00:00'",
+                    "ts\tsv\n" +
+                            "2022-01-04T11:00:00.000000Z\t999\n" +
+                            "2022-01-04T12:00:00.000000Z\t1000\n" +
+                            "2022-01-04T13:00:00.000000Z\t7\n"
+            );
+        });
+    }
+
+    @Test
+    public void testRefreshIncremental() throws Exception {
+        assertMemoryLeak(() -> {
+            final String query = "select ts, s, sum(v) sv, count() c from b sample by 1d align to calendar";
+            compile(BASE_DDL);
+            compile("create materialized view v as (" + query + ")");
+            TestUtils.assertSqlCursors(compiler, sqlExecutionContext, query, "v", LOG);
+
+            try (MatViewRefreshJob job = new MatViewRefreshJob(engine, null)) {
+                Assert.assertFalse(job.refreshAll());
+
+                executeInsert("insert into b values ('2022-01-04T12:00:00', 'a', 1000000)");
+                executeInsert("insert into b values ('2022-01-02T12:00:00', 'b', 1000000)");
+                executeInsert("insert into b values ('2022-01-06T12:00:00', 'c', 7)");
+                Assert.assertTrue(job.refreshAll());
+                TestUtils.assertSqlCursors(compiler, sqlExecutionContext, query, "v", LOG);
+
+                executeInsert("insert into b values ('2022-01-06T13:00:00', 'c', 8)");
+                Assert.assertTrue(job.refreshAll());
+                Assert.assertFalse(job.refreshAll());
+            }
+
+            assertSql(
+                    "v where s = 'c'",
+                    "ts\ts\tsv\tc\n" +
+                            "2022-01-06T00:00:00.000000Z\tc\t15\t2\n"
+            );
+        });
+    }
+
+    @Test
+    public void testRefreshKeepsReaderSnapshot() throws Exception {
+        assertMemoryLeak(() -> {
+            final String query = "select ts, sum(v) sv from b sample by 1h align to calendar";
+            compile(BASE_DDL);
+            compile("create materialized view v as (" + query + ")");
+
+            try (
+                    MatViewRefreshJob job = new MatViewRefreshJob(engine, null);
+                    TableReader reader = engine.getReader(AllowAllCairoSecurityContext.INSTANCE, "v")
+            ) {
+                Assert.assertEquals(84, reader.size());
+
+                executeInsert("insert into b values ('2022-01-04T11:30:00', 'a', 1000)");
+                executeInsert("insert into b values ('2022-01-04T12:00:00', 'a', 7)");
+                Assert.assertTrue(job.refreshAll());
+
+                // open reader is not blocked and keeps seeing the last state it has loaded
+                Assert.assertEquals(84, reader.size());
+                assertSql(
+                        "v where ts >= '2022-01-04T11:00:00'",
+                        "ts\tsv\n" +
+                                "2022-01-04T11:00:00.000000Z\t1999\n" +
+                                "2022-01-04T12:00:00.000000Z\t7\n"
+                );
+
+                reader.reload();
+                Assert.assertEquals(85, reader.size());
+            }
+            TestUtils.assertSqlCursors(compiler, sqlExecutionContext, query, "v", LOG);
+        });
+    }
+
+    @Test
+    public void testRefreshWithClauseAndFilter() throws Exception {
+        assertMemoryLeak(() -> {
+            final String query = "with q as (select * from b t where t.v > 10) select ts, count() c, sum(v) sv from q sample by 1h align to calendar";
+            compile(BASE_DDL);
+            compile("create materialized view h as (" + query + ") partition by month");
+
+            try (MatViewRefreshJob job = new MatViewRefreshJob(engine, null)) {
+                executeInsert("insert into b values ('2022-01-04T11:30:00', 'a', 100)");
+                Assert.assertTrue(job.refreshAll());
+                TestUtils.assertSqlCursors(compiler, sqlExecutionContext, query, "h", LOG);
+
+                executeInsert("insert into b values ('2022-01-04T12:30:00', 'a', 100)");
+                executeInsert("insert into b values ('2022-01-01T00:30:00', 'a', 5)");
+                Assert.assertTrue(job.refreshAll());
+                TestUtils.assertSqlCursors(compiler, sqlExecutionContext, query, "h", LOG);
+            }
+        });
+    }
+}
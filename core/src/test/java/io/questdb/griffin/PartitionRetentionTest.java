@@ -0,0 +1,218 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin;
+
+import io.questdb.cairo.PartitionRetentionJob;
+import io.questdb.cairo.TableReader;
+import io.questdb.cairo.TableWriter;
+import io.questdb.cairo.TableUtils;
+import io.questdb.cairo.security.AllowAllCairoSecurityContext;
+import io.questdb.std.datetime.microtime.Timestamps;
+import io.questdb.std.str.Path;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class PartitionRetentionTest extends AbstractGriffinTest {
+
+    private static final String DDL = "create table x as (" +
+            "select" +
+            " timestamp_sequence('2022-01-01', 3600000000) ts," +
+            " rnd_symbol('a','b') s," +
+            " x v" +
+            " from long_sequence(240)" +
+            "), index(s) timestamp(ts) partition by day";
+
+    @Test
+    public void testActivePartitionIsKept() throws Exception {
+        assertMemoryLeak(() -> {
+            compile(DDL);
+            compile("alter table x set param ttl = 1s");
+
+            final PartitionRetentionJob job = new PartitionRetentionJob(engine);
+            Assert.assertTrue(job.enforceRetention());
+            Assert.assertFalse(job.enforceRetention());
+
+            assertSql(
+                    "select min(ts), max(ts), count() from x",
+                    "min\tmax\tcount\n" +
+                            "2022-01-10T00:00:00.000000Z\t2022-01-10T23:00:00.000000Z\t24\n"
+            );
+        });
+    }
+
+    @Test
+    public void testDetachExpiredPartitions() throws Exception {
+        partitionRetentionDetachEnabled = true;
+        assertMemoryLeak(() -> {
+            compile(DDL);
+            compile("alter table x set param ttl = 3d");
+
+            final PartitionRetentionJob job = new PartitionRetentionJob(engine);
+            Assert.assertTrue(job.enforceRetention());
+
+            assertSql(
+                    "select min(ts), count() from x",
+                    "min\tcount\n" +
+                            "2022-01-07T00:00:00.000000Z\t96\n"
+            );
+            try (Path path = new Path()) {
+                path.of(configuration.getRoot()).concat("x").concat("2022-01-06").put(TableUtils.DETACHED_DIR_MARKER).$();
+                Assert.assertTrue(configuration.getFilesFacade().exists(path));
+            }
+        });
+    }
+
+    @Test
+    public void testDropExpiredPartitions() throws Exception {
+        assertMemoryLeak(() -> {
+            compile(DDL);
+            compile("alter table x set param ttl = 3d");
+            // ttl survives metadata rewrite
+            compile("alter table x add column z int");
+
+            final PartitionRetentionJob job = new PartitionRetentionJob(engine);
+            Assert.assertTrue(job.enforceRetention());
+            Assert.assertFalse(job.enforceRetention());
+
+            assertSql(
+                    "select min(ts), max(ts), count() from x",
+                    "min\tmax\tcount\n" +
+                            "2022-01-07T00:00:00.000000Z\t2022-01-10T23:00:00.000000Z\t96\n"
+            );
+            assertSql(
+                    "select count() from x where s in ('a', 'b')",
+                    "count\n" +
+                            "96\n"
+            );
+
+            executeInsert("insert into x values ('2022-01-11T05:00:00', 'a', 1, 1)");
+            Assert.assertTrue(job.enforceRetention());
+
+            assertSql(
+                    "select min(ts), max(ts), count() from x",
+                    "min\tmax\tcount\n" +
+                            "2022-01-08T00:00:00.000000Z\t2022-01-11T05:00:00.000000Z\t73\n"
+            );
+        });
+    }
+
+    @Test
+    public void testDropExpiredPartitionsWhileWriterIsBusy() throws Exception {
+        assertMemoryLeak(() -> {
+            compile(DDL);
+            compile("alter table x set param ttl = 3d");
+
+            // writer is held the way ILP holds it, removal is queued to the writer owner
+            try (TableWriter writer = engine.getWriter(AllowAllCairoSecurityContext.INSTANCE, "x", "ilp")) {
+                final PartitionRetentionJob job = new PartitionRetentionJob(engine);
+                Assert.assertTrue(job.enforceRetention());
+                Assert.assertEquals(10, writer.getPartitionCount());
+
+                writer.tick();
+                Assert.assertEquals(4, writer.getPartitionCount());
+            }
+
+            assertSql(
+                    "select min(ts), max(ts), count() from x",
+                    "min\tmax\tcount\n" +
+                            "2022-01-07T00:00:00.000000Z\t2022-01-10T23:00:00.000000Z\t96\n"
+            );
+        });
+    }
+
+    @Test
+    public void testDropExpiredPartitionsAfterRestart() throws Exception {
+        assertMemoryLeak(() -> {
+            compile(DDL);
+            compile("alter table x set param ttl = 3d");
+            compile("create table y as (select * from x) timestamp(ts) partition by day");
+
+            // registry is rebuilt from table metadata
+            engine.clear();
+            final PartitionRetentionJob job = new PartitionRetentionJob(engine);
+            Assert.assertTrue(job.enforceRetention());
+
+            assertSql(
+                    "select min(ts), count() from x",
+                    "min\tcount\n" +
+                            "2022-01-07T00:00:00.000000Z\t96\n"
+            );
+            assertSql(
+                    "select min(ts), count() from y",
+                    "min\tcount\n" +
+                            "2022-01-01T00:00:00.000000Z\t240\n"
+            );
+        });
+    }
+
+    @Test
+    public void testNoTtl() throws Exception {
+        assertMemoryLeak(() -> {
+            compile(DDL);
+
+            final PartitionRetentionJob job = new PartitionRetentionJob(engine);
+            Assert.assertFalse(job.enforceRetention());
+
+            assertSql(
+                    "select count() from x",
+                    "count\n" +
+                            "240\n"
+            );
+        });
+    }
+
+    @Test
+    public void testSetTtl() throws Exception {
+        assertMemoryLeak(() -> {
+            compile(DDL);
+            try (TableReader reader = engine.getReader(AllowAllCairoSecurityContext.INSTANCE, "x")) {
+                Assert.assertEquals(0, reader.getMetadata().getTtl());
+                compile("alter table x set param ttl = 30d");
+                reader.reload();
+                Assert.assertEquals(30 * Timestamps.DAY_MICROS, reader.getMetadata().getTtl());
+            }
+        });
+    }
+
+    @Test
+    public void testSetTtlNegative() throws Exception {
+        assertFailure(
+                "alter table x set param ttl = -1d",
+                DDL,
+                25,
+                "invalid interval qualifier"
+        );
+    }
+
+    @Test
+    public void testSetTtlNotPartitioned() throws Exception {
+        assertFailure(
+                "alter table y set param ttl = 3d",
+                "create table y (ts timestamp, v long) timestamp(ts)",
+                24,
+                "ttl can only be set on partitioned tables"
+        );
+    }
+}
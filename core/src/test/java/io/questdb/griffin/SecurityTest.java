@@ -619,6 +619,30 @@ public class SecurityTest extends AbstractGriffinTest {
         });
     }
 
+    @Test
+    public void testMemoryRestrictionsWithSampleByFillLinearKeyed() throws Exception {
+        assertMemoryLeak(() -> {
+            sqlExecutionContext.getRandom().reset();
+            compiler.compile("create table tb1 as (select" +
+                    " rnd_symbol('a','b') sym1," +
+                    " rnd_double(2) d," +
+                    " timestamp_sequence(0, 1000000000) ts" +
+                    " from long_sequence(10000)) timestamp(ts)", sqlExecutionContext);
+            // keyed interpolation keeps rows of the samples that await next point only,
+            // memory does not grow with the number of samples
+            assertQuery(
+                    memoryRestrictedCompiler,
+                    "count\n" +
+                            "48\n",
+                    "select count() from (select ts, sym1, sum(d) from tb1 SAMPLE BY 5d FILL(linear))",
+                    null,
+                    false,
+                    readOnlyExecutionContext,
+                    true
+            );
+        });
+    }
+
     @Test
     public void testMemoryRestrictionsWithSampleByFillNone() throws Exception {
         assertMemoryLeak(() -> {
@@ -29,6 +29,7 @@ import io.questdb.cairo.vm.Vm;
 import io.questdb.cairo.vm.api.MemoryCMARW;
 import io.questdb.std.*;
 import io.questdb.std.str.Path;
+import io.questdb.std.str.StringSink;
 import io.questdb.test.tools.TestUtils;
 import org.junit.*;
 
@@ -380,6 +381,218 @@ public class SnapshotTest extends AbstractGriffinTest {
         });
     }
 
+    @Test
+    public void testSnapshotIncrementalCopiesChangedPartitionsOnly() throws Exception {
+        snapshotIncrementalEnabled = true;
+        assertMemoryLeak(() -> {
+            compile("create table t as (select x, rnd_symbol('a','b') s, timestamp_sequence(0, 3600000000) ts from long_sequence(72))" +
+                    " timestamp(ts) partition by DAY", sqlExecutionContext);
+            compiler.compile("snapshot prepare", sqlExecutionContext);
+            compiler.compile("snapshot complete", sqlExecutionContext);
+
+            FilesFacade ff = configuration.getFilesFacade();
+            path.trimTo(rootLen).concat("t").concat("1970-01-01").concat("x.d").$();
+            Assert.assertTrue(ff.exists(path));
+            path.trimTo(rootLen).concat("t").concat("s.c").$();
+            Assert.assertTrue(ff.exists(path));
+            path.trimTo(rootLen).concat("t").concat(TableUtils.SNAPSHOT_PARTITIONS_FILE_NAME).$();
+            Assert.assertTrue(ff.exists(path));
+
+            // Mark partitions in the snapshot dir to see which of them get copied again.
+            path.trimTo(rootLen).concat("t").concat("1970-01-01").concat("marker").$();
+            Assert.assertTrue(Files.touch(path));
+            path.trimTo(rootLen).concat("t").concat("1970-01-03").concat("marker").$();
+            Assert.assertTrue(Files.touch(path));
+
+            compile("insert into t values (73, 'c', '1970-01-03T23:30:00.000000Z')", sqlExecutionContext);
+            compiler.compile("snapshot prepare", sqlExecutionContext);
+            compiler.compile("snapshot complete", sqlExecutionContext);
+
+            // Unchanged partition is kept as is.
+            path.trimTo(rootLen).concat("t").concat("1970-01-01").concat("marker").$();
+            Assert.assertTrue(ff.exists(path));
+            // Appended partition is copied again.
+            path.trimTo(rootLen).concat("t").concat("1970-01-03").concat("marker").$();
+            Assert.assertFalse(ff.exists(path));
+            path.trimTo(rootLen).concat("t").concat("1970-01-03").concat("x.d").$();
+            Assert.assertTrue(ff.exists(path));
+
+            try (TxReader txReader = new TxReader(ff)) {
+                path.trimTo(rootLen).concat("t").concat(TableUtils.TXN_FILE_NAME).$();
+                txReader.ofRO(path, PartitionBy.DAY);
+                txReader.unsafeLoadAll();
+                Assert.assertEquals(73, txReader.getRowCount());
+            }
+
+            path.trimTo(rootLen).concat(TableUtils.SNAPSHOT_META_FILE_NAME).$();
+            Assert.assertTrue(ff.exists(path));
+        });
+    }
+
+    @Test
+    public void testSnapshotIncrementalRemovesDroppedPartitionsAndTables() throws Exception {
+        snapshotIncrementalEnabled = true;
+        assertMemoryLeak(() -> {
+            compile("create table t as (select x, timestamp_sequence(0, 3600000000) ts from long_sequence(72))" +
+                    " timestamp(ts) partition by DAY", sqlExecutionContext);
+            compile("create table t2 as (select x from long_sequence(10))", sqlExecutionContext);
+            compiler.compile("snapshot prepare", sqlExecutionContext);
+            compiler.compile("snapshot complete", sqlExecutionContext);
+
+            FilesFacade ff = configuration.getFilesFacade();
+            path.trimTo(rootLen).concat("t2").concat(TableUtils.DEFAULT_PARTITION_NAME).concat("x.d").$();
+            Assert.assertTrue(ff.exists(path));
+            path.trimTo(rootLen).concat("t").concat("1970-01-01").slash$();
+            Assert.assertTrue(ff.exists(path));
+
+            compile("alter table t drop partition list '1970-01-01'", sqlExecutionContext);
+            compile("drop table t2", sqlExecutionContext);
+            compiler.compile("snapshot prepare", sqlExecutionContext);
+            compiler.compile("snapshot complete", sqlExecutionContext);
+
+            path.trimTo(rootLen).concat("t").concat("1970-01-01").slash$();
+            Assert.assertFalse(ff.exists(path));
+            path.trimTo(rootLen).concat("t").concat("1970-01-02").slash$();
+            Assert.assertTrue(ff.exists(path));
+            path.trimTo(rootLen).concat("t2").slash$();
+            Assert.assertFalse(ff.exists(path));
+        });
+    }
+
+    @Test
+    public void testSnapshotIncrementalCopiesAppendsToLastPartition() throws Exception {
+        snapshotIncrementalEnabled = true;
+        assertMemoryLeak(() -> {
+            compile("create table t as (select x, timestamp_sequence(0, 3600000000) ts from long_sequence(72))" +
+                    " timestamp(ts) partition by DAY", sqlExecutionContext);
+            compiler.compile("snapshot prepare", sqlExecutionContext);
+            compiler.compile("snapshot complete", sqlExecutionContext);
+
+            FilesFacade ff = configuration.getFilesFacade();
+            path.trimTo(rootLen).concat("t").concat("1970-01-03").concat("marker").$();
+            Assert.assertTrue(Files.touch(path));
+
+            // unchanged last partition is kept as is
+            compiler.compile("snapshot prepare", sqlExecutionContext);
+            compiler.compile("snapshot complete", sqlExecutionContext);
+            Assert.assertTrue(ff.exists(path));
+
+            // in-order append does not change the size of the last partition in the partition table
+            compile("insert into t values (73, '1970-01-03T23:30:00.000000Z')", sqlExecutionContext);
+            compiler.compile("snapshot prepare", sqlExecutionContext);
+            compiler.compile("snapshot complete", sqlExecutionContext);
+
+            path.trimTo(rootLen).concat("t").concat("1970-01-03").concat("marker").$();
+            Assert.assertFalse(ff.exists(path));
+        });
+    }
+
+    @Test
+    public void testSnapshotIncrementalCopyIsNotAffectedByInPlaceWrites() throws Exception {
+        snapshotIncrementalEnabled = true;
+        assertMemoryLeak(() -> {
+            compile("create table t as (select x, timestamp_sequence(0, 3600000000) ts from long_sequence(72))" +
+                    " timestamp(ts) partition by DAY", sqlExecutionContext);
+            compiler.compile("snapshot prepare", sqlExecutionContext);
+            compiler.compile("snapshot complete", sqlExecutionContext);
+
+            // O3 append to a non-last partition writes its column files in place
+            compile("insert into t values (100, '1970-01-01T23:30:00.000000Z')", sqlExecutionContext);
+            assertSql("select count() from t where ts in '1970-01-01'", "count\n25\n");
+
+            FilesFacade ff = configuration.getFilesFacade();
+            final long offset = 24 * Long.BYTES;
+            final long buf = Unsafe.malloc(Long.BYTES, MemoryTag.NATIVE_DEFAULT);
+            try (Path src = new Path()) {
+                src.of(root).concat("t").concat("1970-01-01").concat("x.d").$();
+                Assert.assertTrue(ff.exists(src));
+                Assert.assertEquals(100, TableUtils.readLongAtOffset(ff, src, buf, offset));
+
+                path.trimTo(rootLen).concat("t").concat("1970-01-01").concat("x.d").$();
+                Assert.assertTrue(ff.exists(path));
+                Assert.assertTrue(ff.length(path) <= offset || TableUtils.readLongAtOffset(ff, path, buf, offset) != 100);
+            } finally {
+                Unsafe.free(buf, Long.BYTES, MemoryTag.NATIVE_DEFAULT);
+            }
+        });
+    }
+
+    @Test
+    public void testSnapshotIncrementalCopiesOutsideOfLock() throws Exception {
+        snapshotIncrementalEnabled = true;
+        assertMemoryLeak(() -> {
+            compile("create table t as (select x, timestamp_sequence(0, 3600000000) ts from long_sequence(72))" +
+                    " timestamp(ts) partition by DAY", sqlExecutionContext);
+
+            final StringSink error = new StringSink();
+            testFilesFacade.onCopyRecursive = () -> {
+                testFilesFacade.onCopyRecursive = null;
+                // lock is released while partitions are copied, but the readers must be kept
+                final Thread thread = new Thread(() -> {
+                    try {
+                        snapshotAgent.completeSnapshot();
+                    } catch (SqlException e) {
+                        error.put(e.getFlyweightMessage());
+                    }
+                });
+                thread.start();
+                try {
+                    thread.join();
+                } catch (InterruptedException e) {
+                    throw new RuntimeException(e);
+                }
+            };
+            try {
+                compiler.compile("snapshot prepare", sqlExecutionContext);
+            } finally {
+                testFilesFacade.onCopyRecursive = null;
+            }
+            TestUtils.assertEquals("Waiting for SNAPSHOT PREPARE to finish copying", error);
+
+            try {
+                compiler.compile("snapshot prepare", sqlExecutionContext);
+                Assert.fail();
+            } catch (SqlException ex) {
+                Assert.assertTrue(ex.getMessage().startsWith("[0] Waiting for SNAPSHOT COMPLETE to be called"));
+            }
+            compiler.compile("snapshot complete", sqlExecutionContext);
+        });
+    }
+
+    @Test
+    public void testSnapshotIncrementalCloseWaitsForCopy() throws Exception {
+        snapshotIncrementalEnabled = true;
+        assertMemoryLeak(testFilesFacade, () -> {
+            compile("create table t as (select x, timestamp_sequence(0, 3600000000) ts from long_sequence(72))" +
+                    " timestamp(ts) partition by DAY", sqlExecutionContext);
+
+            final DatabaseSnapshotAgent agent = new DatabaseSnapshotAgent(engine);
+            final Thread closer = new Thread(agent::close);
+            final boolean[] closedDuringCopy = {false};
+            testFilesFacade.onCopyRecursive = () -> {
+                testFilesFacade.onCopyRecursive = null;
+                closer.start();
+                try {
+                    closer.join(100);
+                } catch (InterruptedException e) {
+                    throw new RuntimeException(e);
+                }
+                closedDuringCopy[0] = !closer.isAlive();
+            };
+            try {
+                agent.prepareSnapshot(sqlExecutionContext);
+            } finally {
+                testFilesFacade.onCopyRecursive = null;
+            }
+            closer.join();
+            Assert.assertFalse(closedDuringCopy[0]);
+            Assert.assertEquals(Thread.State.TERMINATED, closer.getState());
+
+            path.trimTo(rootLen).concat(TableUtils.SNAPSHOT_META_FILE_NAME).$();
+            Assert.assertTrue(configuration.getFilesFacade().exists(path));
+        });
+    }
+
     @Test
     public void testSnapshotCompleteWithoutPrepareIsIgnored() throws Exception {
         assertMemoryLeak(() -> {
@@ -607,6 +820,15 @@ public class SnapshotTest extends AbstractGriffinTest {
     private static class TestFilesFacadeImpl extends FilesFacadeImpl {
 
         boolean errorOnSync = false;
+        Runnable onCopyRecursive;
+
+        @Override
+        public int copyRecursive(Path src, Path dst, int dirMode) {
+            if (onCopyRecursive != null) {
+                onCopyRecursive.run();
+            }
+            return super.copyRecursive(src, dst, dirMode);
+        }
 
         @Override
         public int sync() {
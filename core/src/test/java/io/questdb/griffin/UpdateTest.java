@@ -31,7 +31,9 @@ import io.questdb.cairo.sql.OperationFuture;
 import io.questdb.cairo.sql.ReaderOutOfDateException;
 import io.questdb.cairo.sql.RecordCursor;
 import io.questdb.cairo.sql.RecordCursorFactory;
+import io.questdb.griffin.engine.ops.OperationDispatcher;
 import io.questdb.griffin.engine.ops.UpdateOperation;
+import io.questdb.mp.WorkerPool;
 import io.questdb.std.Chars;
 import io.questdb.std.Files;
 import io.questdb.std.FilesFacadeImpl;
@@ -1005,6 +1007,58 @@ public class UpdateTest extends AbstractGriffinTest {
         });
     }
 
+    @Test
+    public void testUpdateMultipartitionedTableParallel() throws Exception {
+        assertMemoryLeak(() -> TestUtils.execute(
+                new WorkerPool(() -> 4),
+                (engine, compiler, sqlExecutionContext) -> {
+                    compiler.compile(
+                            "create table up as" +
+                                    " (select timestamp_sequence(0, 60000000) ts," +
+                                    " rnd_symbol('a','b','c',null) sym," +
+                                    " rnd_int() i," +
+                                    " rnd_double() d," +
+                                    " rnd_str(3,8,2) s," +
+                                    " x" +
+                                    " from long_sequence(10000))" +
+                                    ", index(sym) timestamp(ts) partition by DAY", sqlExecutionContext);
+                    compiler.compile("create table expected as (select * from up)", sqlExecutionContext);
+
+                    final String filter = " where ts in '1970-01-03;1d' and x % 3 = 0";
+                    final CompiledQuery cq = compiler.compile(
+                            "update up set sym = 'dd', i = i + 1, s = concat(s, '!'), d = null" + filter,
+                            sqlExecutionContext
+                    );
+                    final OperationDispatcher<UpdateOperation> dispatcher = cq.getDispatcher();
+                    try (
+                            UpdateOperation operation = cq.getUpdateOperation();
+                            OperationFuture future = dispatcher.execute(operation, sqlExecutionContext, null)
+                    ) {
+                        future.await();
+                        Assert.assertEquals(960, future.getAffectedRowsCount());
+                    }
+
+                    final String expected = "select ts," +
+                            " case when ts in '1970-01-03;1d' and x % 3 = 0 then 'dd' else sym::string end sym," +
+                            " case when ts in '1970-01-03;1d' and x % 3 = 0 then i + 1 else i end i," +
+                            " case when ts in '1970-01-03;1d' and x % 3 = 0 then null else d end d," +
+                            " case when ts in '1970-01-03;1d' and x % 3 = 0 then concat(s, '!') else s end s," +
+                            " x from expected";
+                    TestUtils.assertSqlCursors(compiler, sqlExecutionContext, expected, "up", LOG, true);
+                    TestUtils.assertSqlCursors(
+                            compiler,
+                            sqlExecutionContext,
+                            "select * from (" + expected + ") where sym = 'dd'",
+                            "up where sym = 'dd'",
+                            LOG,
+                            true
+                    );
+                },
+                configuration,
+                LOG
+        ));
+    }
+
     @Test
     public void testUpdateNoFilter() throws Exception {
         assertMemoryLeak(() -> {
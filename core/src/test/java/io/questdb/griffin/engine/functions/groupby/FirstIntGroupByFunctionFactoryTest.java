@@ -303,7 +303,7 @@ public class FirstIntGroupByFunctionFactoryTest extends AbstractGriffinTest {
                         "CPSW\t112322330\t1970-01-04T06:00:00.000000Z\n" +
                         "HYRX\t2147483647\t1970-01-04T06:00:00.000000Z\n" +
                         "ZMZV\tNaN\t1970-01-04T06:00:00.000000Z\n",
-                true,
+                false,
                 true,
                 true
         );
@@ -279,7 +279,7 @@ public class LastDoubleGroupByFunctionFactoryTest extends AbstractGriffinTest {
                         "PEHN\t-1.9805699408189095\t1970-01-04T06:00:00.000000Z\n" +
                         "HYRX\t1.7017646298154117\t1970-01-04T06:00:00.000000Z\n" +
                         "CPSW\t0.8636461872776237\t1970-01-04T06:00:00.000000Z\n",
-                true,
+                false,
                 true,
                 true
         );
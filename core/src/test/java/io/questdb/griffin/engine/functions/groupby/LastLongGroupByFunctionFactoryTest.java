@@ -279,7 +279,7 @@ public class LastLongGroupByFunctionFactoryTest extends AbstractGriffinTest {
                         "CPSW\t9223372036854775807\t1970-01-04T06:00:00.000000Z\n" +
                         "HYRX\t9223372036854775807\t1970-01-04T06:00:00.000000Z\n" +
                         "ZMZV\tNaN\t1970-01-04T06:00:00.000000Z\n",
-                true,
+                false,
                 true,
                 true
         );
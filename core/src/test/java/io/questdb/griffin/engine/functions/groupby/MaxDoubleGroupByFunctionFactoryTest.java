@@ -278,7 +278,7 @@ public class MaxDoubleGroupByFunctionFactoryTest extends AbstractGriffinTest {
                         "PEHN\t-1.9805699408189095\t1970-01-04T06:00:00.000000Z\n" +
                         "HYRX\t-2.362042754952945\t1970-01-04T06:00:00.000000Z\n" +
                         "CPSW\t3.379954054510219\t1970-01-04T06:00:00.000000Z\n",
-                true,
+                false,
                 true,
                 true
         );
@@ -320,7 +320,7 @@ public class MinIntGroupByFunctionFactoryTest extends AbstractGriffinTest {
                         "CPSW\tNaN\t1970-01-04T06:00:00.000000Z\n" +
                         "HYRX\t2147483647\t1970-01-04T06:00:00.000000Z\n" +
                         "ZMZV\tNaN\t1970-01-04T06:00:00.000000Z\n",
-                true,
+                false,
                 true,
                 true
         );
@@ -36,6 +36,36 @@ public class SumLong256GroupByFunctionFactoryTest extends AbstractGriffinTest {
                 "sum\n\n"));
     }
 
+    @Test
+    public void testSumKeyedByLong() throws Exception {
+        assertMemoryLeak(() -> assertSql(
+                "select k, sum(x) from (select x % 3 k, cast(x as long256) x from long_sequence(10))",
+                "k\tsum\n" +
+                        "1\t0x16\n" +
+                        "2\t0x0f\n" +
+                        "0\t0x12\n"));
+    }
+
+    @Test
+    public void testSumKeyedBySymbolSampleBy() throws Exception {
+        assertMemoryLeak(() -> {
+            compile("create table x as (" +
+                    "select cast(case when x % 2 = 0 then 'a' else 'b' end as symbol) s," +
+                    " cast(x as long256) l," +
+                    " timestamp_sequence(0, 1000000) ts" +
+                    " from long_sequence(10)" +
+                    ") timestamp(ts)");
+            assertSql(
+                    "select ts, s, sum(l) from x sample by 5s",
+                    "ts\ts\tsum\n" +
+                            "1970-01-01T00:00:00.000000Z\tb\t0x09\n" +
+                            "1970-01-01T00:00:00.000000Z\ta\t0x06\n" +
+                            "1970-01-01T00:00:05.000000Z\ta\t0x18\n" +
+                            "1970-01-01T00:00:05.000000Z\tb\t0x10\n"
+            );
+        });
+    }
+
     @Test
     public void testSumOverUnionAll() throws Exception {
         assertQuery("sm\n0x06\n",
@@ -46,14 +46,14 @@ public class GroupByFunctionCaseTest extends AbstractGriffinTest {
     public void testAggregatesOnColumnWithNoKeyWorkRegardlessOfCase() throws Exception {
         assertMemoryLeak(() -> {
             String[] functions = {"KSum", "NSum", "Sum", "Avg", "Min", "Max"};
-            String[][] expectedFunctions = {{"KSumDouble(ByteColumn(0))", "NSumDouble(ByteColumn(0))", "SumInt(ByteColumn(0))", "AvgDouble(ByteColumn(0))", "MinInt(ByteColumn(0))", "MaxInt(ByteColumn(0))"},//byte
-                    {"KSumDouble(ShortColumn(0))", "NSumDouble(ShortColumn(0))", "SumInt(ShortColumn(0))", "AvgDouble(ShortColumn(0))", "MinInt(ShortColumn(0))", "MaxInt(ShortColumn(0))"},//short
+            String[][] expectedFunctions = {{"KSumDouble(ByteColumn(0))", "NSumDouble(ByteColumn(0))", "SumByteVector(0)", "AvgByteVector(0)", "MinByteVector(0)", "MaxByteVector(0)"},//byte
+                    {"KSumDouble(ShortColumn(0))", "NSumDouble(ShortColumn(0))", "SumShortVector(0)", "AvgShortVector(0)", "MinShortVector(0)", "MaxShortVector(0)"},//short
                     {null, null, null, null, "MinChar(CharColumn(0))", "MaxChar(CharColumn(0))"},//char
                     {"KSumDouble(IntColumn(0))", "NSumDouble(IntColumn(0))", "SumIntVector(0)", "AvgIntVector(0)", "MinIntVector(0)", "MaxIntVector(0)"},//int
                     {"KSumDouble(LongColumn(0))", "NSumDouble(LongColumn(0))", "SumLongVector(0)", "AvgLongVector(0)", "MinLongVector(0)", "MaxLongVector(0)"},//long
                     {null, null, "SumDateVector(0)", "AvgLongVector(0)", "MinDateVector(0)", "MaxDateVector(0)"},//date
                     {null, null, "SumTimestampVector(0)", "AvgLongVector(0)", "MinTimestampVector(0)", "MaxTimestampVector(0)"},//timestamp
-                    {"KSumDouble(FloatColumn(0))", "NSumDouble(FloatColumn(0))", "SumFloat(FloatColumn(0))", "AvgDouble(FloatColumn(0))", "MinFloat(FloatColumn(0))", "MaxFloat(FloatColumn(0))"}, //float
+                    {"KSumDouble(FloatColumn(0))", "NSumDouble(FloatColumn(0))", "SumFloatVector(0)", "AvgFloatVector(0)", "MinFloatVector(0)", "MaxFloatVector(0)"}, //float
                     {"KSumDoubleVector(0)", "NSumDoubleVector(0)", "SumDoubleVector(0)", "AvgDoubleVector(0)", "MinDoubleVector(0)", "MaxDoubleVector(0)"}, //double
             };
             //other types aren't accepted by aggregates at all (including string and symbol!)
@@ -70,7 +70,7 @@ public class GroupByFunctionCaseTest extends AbstractGriffinTest {
                         continue;
                     }
 
-                    boolean vectorized = (t >= INT && t <= TIMESTAMP && f > 1) || t == DOUBLE;
+                    boolean vectorized = (t != CHAR && f > 1) || t == DOUBLE;
 
                     planSink.clear();
                     planSink.put("GroupByNotKeyed vectorized=").put(vectorized).put("\n")
@@ -105,14 +105,14 @@ public class GroupByFunctionCaseTest extends AbstractGriffinTest {
     public void testAggregatesOnColumnWithSingleKeyWorkRegardlessOfCase() throws Exception {
         assertMemoryLeak(() -> {
             String[] functions = {"KSum", "NSum", "Sum", "Avg", "Min", "Max"};
-            String[][] expectedFunctions = {{"KSumDouble(ByteColumn(1))", "NSumDouble(ByteColumn(1))", "SumInt(ByteColumn(1))", "AvgDouble(ByteColumn(1))", "MinInt(ByteColumn(1))", "MaxInt(ByteColumn(1))"},//byte
-                    {"KSumDouble(ShortColumn(1))", "NSumDouble(ShortColumn(1))", "SumInt(ShortColumn(1))", "AvgDouble(ShortColumn(1))", "MinInt(ShortColumn(1))", "MaxInt(ShortColumn(1))"},//short
+            String[][] expectedFunctions = {{"KSumDouble(ByteColumn(1))", "NSumDouble(ByteColumn(1))", "SumByteVector(1)", "AvgByteVector(1)", "MinByteVector(1)", "MaxByteVector(1)"},//byte
+                    {"KSumDouble(ShortColumn(1))", "NSumDouble(ShortColumn(1))", "SumShortVector(1)", "AvgShortVector(1)", "MinShortVector(1)", "MaxShortVector(1)"},//short
                     {null, null, null, null, "MinChar(CharColumn(1))", "MaxChar(CharColumn(1))"},//char
                     {"KSumDouble(IntColumn(1))", "NSumDouble(IntColumn(1))", "SumIntVector(1)", "AvgIntVector(1)", "MinIntVector(1)", "MaxIntVector(1)"},//int
                     {"KSumDouble(LongColumn(1))", "NSumDouble(LongColumn(1))", "SumLongVector(1)", "AvgLongVector(1)", "MinLongVector(1)", "MaxLongVector(1)"},//long
                     {null, null, "SumDateVector(1)", "AvgLongVector(1)", "MinDateVector(1)", "MaxDateVector(1)"},//date
                     {null, null, "SumTimestampVector(1)", "AvgLongVector(1)", "MinTimestampVector(1)", "MaxTimestampVector(1)"},//timestamp
-                    {"KSumDouble(FloatColumn(1))", "NSumDouble(FloatColumn(1))", "SumFloat(FloatColumn(1))", "AvgDouble(FloatColumn(1))", "MinFloat(FloatColumn(1))", "MaxFloat(FloatColumn(1))"}, //float
+                    {"KSumDouble(FloatColumn(1))", "NSumDouble(FloatColumn(1))", "SumFloatVector(1)", "AvgFloatVector(1)", "MinFloatVector(1)", "MaxFloatVector(1)"}, //float
                     {"KSumDoubleVector(1)", "NSumDoubleVector(1)", "SumDoubleVector(1)", "AvgDoubleVector(1)", "MinDoubleVector(1)", "MaxDoubleVector(1)"}, //double
             };
             //other types aren't accepted by aggregates at all (including string and symbol!)
@@ -130,11 +130,8 @@ public class GroupByFunctionCaseTest extends AbstractGriffinTest {
                         continue;
                     }
 
-                    boolean vectorized = (t >= INT && t <= TIMESTAMP && f > 1) || t == DOUBLE;
+                    boolean vectorized = (t != CHAR && f > 1) || t == DOUBLE;
                     int keyPos = f < 2 ? 3 : f < 4 ? 2 : 1;
-                    if (t == FLOAT && f == 2) {
-                        keyPos = 1;
-                    }
 
                     planSink.clear();
                     planSink.put("GroupByRecord vectorized=").put(vectorized + "\n")
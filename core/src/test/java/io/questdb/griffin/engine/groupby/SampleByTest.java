@@ -44,6 +44,8 @@ import org.jetbrains.annotations.NotNull;
 import org.junit.Assert;
 import org.junit.Test;
 
+import java.util.Arrays;
+
 public class SampleByTest extends AbstractGriffinTest {
     private final static Log LOG = LogFactory.getLog(SampleByTest.class);
 
@@ -158,55 +160,65 @@ public class SampleByTest extends AbstractGriffinTest {
 
     @Test
     public void testGroupByAllTypes() throws Exception {
-        assertQuery("b\tsum\tsum1\tsum2\tsum3\tsum4\tsum5\n" +
-                        "HYRX\t108.4198\t129.3991122184773\t2127224767\t95\t57207\t1696566079386694074\n" +
-                        "\t680.7651\t771.0922622028395\t15020424080\t333\t197423\t-5259855777509188759\n" +
-                        "CPSW\t101.2276\t111.11358403739061\t2567523370\t33\t43254\t7594916031131877487\n" +
-                        "PEHN\t104.2904\t100.8772613783025\t3354324129\t18\t17565\t-4882690809235649274\n" +
-                        "RXGZ\t96.4029\t42.02044253932608\t712702244\t46\t22661\t2762535352290012031\n",
-                "select b, sum(a), sum(c), sum(d), sum(e), sum(f), sum(g) from x",
-                "create table x as " +
-                        "(" +
-                        "select" +
-                        " rnd_float(0)*100 a," +
-                        " rnd_symbol(5,4,4,1) b," +
-                        " rnd_double(0)*100 c," +
-                        " abs(rnd_int()) d," +
-                        " rnd_byte(2, 50) e," +
-                        " abs(rnd_short()) f," +
-                        " abs(rnd_long()) g," +
-                        " timestamp_sequence(172800000000, 3600000000) k" +
-                        " from" +
-                        " long_sequence(20)" +
-                        ") timestamp(k) partition by NONE",
-                null,
-                "insert into x select * from (" +
-                        "select" +
-                        " rnd_float(0)*100 a," +
-                        " rnd_symbol(5,4,4,1) b," +
-                        " rnd_double(0)*100 c," +
-                        " abs(rnd_int()) d," +
-                        " rnd_byte(2, 50) e," +
-                        " abs(rnd_short()) f," +
-                        " abs(rnd_long()) g," +
-                        " timestamp_sequence(277200000000, 3600000000) k" +
-                        " from" +
-                        " long_sequence(5)" +
-                        ") timestamp(k)",
-                "b\tsum\tsum1\tsum2\tsum3\tsum4\tsum5\n" +
-                        "HYRX\t108.4198\t129.3991122184773\t2127224767\t95\t57207\t1696566079386694074\n" +
-                        "\t779.3558\t869.932373151714\t16932485166\t363\t215247\t3597805051091659961\n" +
-                        "CPSW\t101.2276\t111.11358403739061\t2567523370\t33\t43254\t7594916031131877487\n" +
-                        "PEHN\t104.2904\t100.8772613783025\t3354324129\t18\t17565\t-4882690809235649274\n" +
-                        "RXGZ\t96.4029\t42.02044253932608\t712702244\t46\t22661\t2762535352290012031\n" +
-                        "ZGHW\t50.2589\t38.42254384471547\t597366062\t21\t23702\t7037372650941669660\n" +
-                        "LOPJ\t76.6815\t5.158459929273784\t1920398380\t38\t16628\t3527911398466283309\n" +
-                        "VDKF\t4.3606\t35.68111021227658\t503883303\t38\t10895\t7202923278768687325\n" +
-                        "OXPK\t45.9207\t76.06252634124596\t2043541236\t21\t19278\t1832315370633201942\n",
-                true,
-                true,
-                true
-        );
+        // keyed vector aggregation emits groups in Rosti hash order, which is seeded
+        // by map address and is therefore not stable between executions
+        assertMemoryLeak(() -> {
+            compiler.compile(
+                    "create table x as " +
+                            "(" +
+                            "select" +
+                            " rnd_float(0)*100 a," +
+                            " rnd_symbol(5,4,4,1) b," +
+                            " rnd_double(0)*100 c," +
+                            " abs(rnd_int()) d," +
+                            " rnd_byte(2, 50) e," +
+                            " abs(rnd_short()) f," +
+                            " abs(rnd_long()) g," +
+                            " timestamp_sequence(172800000000, 3600000000) k" +
+                            " from" +
+                            " long_sequence(20)" +
+                            ") timestamp(k) partition by NONE",
+                    sqlExecutionContext
+            );
+            assertRowsIgnoreOrder(
+                    "b\tsum\tsum1\tsum2\tsum3\tsum4\tsum5\n" +
+                            "\t680.7651\t771.0922622028395\t15020424080\t333\t197423\t-5259855777509188759\n" +
+                            "CPSW\t101.2276\t111.11358403739061\t2567523370\t33\t43254\t7594916031131877487\n" +
+                            "HYRX\t108.4198\t129.3991122184773\t2127224767\t95\t57207\t1696566079386694074\n" +
+                            "PEHN\t104.2904\t100.8772613783025\t3354324129\t18\t17565\t-4882690809235649274\n" +
+                            "RXGZ\t96.4029\t42.02044253932608\t712702244\t46\t22661\t2762535352290012031\n",
+                    "select b, sum(a), sum(c), sum(d), sum(e), sum(f), sum(g) from x"
+            );
+            compiler.compile(
+                    "insert into x select * from (" +
+                            "select" +
+                            " rnd_float(0)*100 a," +
+                            " rnd_symbol(5,4,4,1) b," +
+                            " rnd_double(0)*100 c," +
+                            " abs(rnd_int()) d," +
+                            " rnd_byte(2, 50) e," +
+                            " abs(rnd_short()) f," +
+                            " abs(rnd_long()) g," +
+                            " timestamp_sequence(277200000000, 3600000000) k" +
+                            " from" +
+                            " long_sequence(5)" +
+                            ") timestamp(k)",
+                    sqlExecutionContext
+            );
+            assertRowsIgnoreOrder(
+                    "b\tsum\tsum1\tsum2\tsum3\tsum4\tsum5\n" +
+                            "\t779.3558\t869.932373151714\t16932485166\t363\t215247\t3597805051091659961\n" +
+                            "CPSW\t101.2276\t111.11358403739061\t2567523370\t33\t43254\t7594916031131877487\n" +
+                            "HYRX\t108.4198\t129.3991122184773\t2127224767\t95\t57207\t1696566079386694074\n" +
+                            "LOPJ\t76.6815\t5.158459929273784\t1920398380\t38\t16628\t3527911398466283309\n" +
+                            "OXPK\t45.9207\t76.06252634124596\t2043541236\t21\t19278\t1832315370633201942\n" +
+                            "PEHN\t104.2904\t100.8772613783025\t3354324129\t18\t17565\t-4882690809235649274\n" +
+                            "RXGZ\t96.4029\t42.02044253932608\t712702244\t46\t22661\t2762535352290012031\n" +
+                            "VDKF\t4.3606\t35.68111021227658\t503883303\t38\t10895\t7202923278768687325\n" +
+                            "ZGHW\t50.2589\t38.42254384471547\t597366062\t21\t23702\t7037372650941669660\n",
+                    "select b, sum(a), sum(c), sum(d), sum(e), sum(f), sum(g) from x"
+            );
+        });
     }
 
     @Test
@@ -3168,7 +3180,7 @@ public class SampleByTest extends AbstractGriffinTest {
                         "PEHN\t4\t1970-01-03T14:00:00.000000Z\n" +
                         "HYRX\t1\t1970-01-03T14:00:00.000000Z\n" +
                         "CPSW\t14\t1970-01-03T14:00:00.000000Z\n",
-                true,
+                false,
                 true,
                 true
         );
@@ -3320,7 +3332,7 @@ public class SampleByTest extends AbstractGriffinTest {
                         "CGFN\tNaN\t1970-01-04T08:24:00.000000Z\n" +
                         "ZNFK\tNaN\t1970-01-04T08:24:00.000000Z\n" +
                         "PEVM\tNaN\t1970-01-04T08:24:00.000000Z\n",
-                true,
+                false,
                 true,
                 true
         );
@@ -3503,7 +3515,7 @@ public class SampleByTest extends AbstractGriffinTest {
                         "ZGHW\tNaN\tNaN\tNaN\tNaN\tNaN\tNaN\t1970-01-04T09:00:00.000000Z\n" +
                         "LOPJ\tNaN\tNaN\tNaN\tNaN\tNaN\tNaN\t1970-01-04T09:00:00.000000Z\n" +
                         "VDKF\tNaN\tNaN\tNaN\tNaN\tNaN\tNaN\t1970-01-04T09:00:00.000000Z\n",
-                true,
+                false,
                 true,
                 true
         );
@@ -3549,7 +3561,7 @@ public class SampleByTest extends AbstractGriffinTest {
                         "SXUX\t26.922100067138672\t52.98405941762054\t936627841\t16\t5741\t7153335833712179123\t1970-01-04T08:00:00.000000Z\n" +
                         "DEYY\t29.313718795776367\t16.47436916993191\t66297136\t4\t3428\t9036423629723776443\t1970-01-04T08:00:00.000000Z\n" +
                         "\tNaN\tNaN\tNaN\tNaN\tNaN\tNaN\t1970-01-04T08:00:00.000000Z\n",
-                true,
+                false,
                 true,
                 true
         );
@@ -3698,7 +3710,7 @@ public class SampleByTest extends AbstractGriffinTest {
                         "PEHN\t-163.67975914069712\t1970-01-04T09:00:00.000000Z\n" +
                         "HYRX\t-673.453149968598\t1970-01-04T09:00:00.000000Z\n" +
                         "UVSD\tNaN\t1970-01-04T09:00:00.000000Z\n",
-                true,
+                false,
                 true,
                 true
         );
@@ -3766,7 +3778,7 @@ public class SampleByTest extends AbstractGriffinTest {
                         " long_sequence(10000)" +
                         ") timestamp(k) partition by NONE",
                 "k",
-                true,
+                false,
                 true,
                 true
         );
@@ -3873,6 +3885,133 @@ public class SampleByTest extends AbstractGriffinTest {
         });
     }
 
+    @Test
+    public void testSampleFillLinearSparseKeys() throws Exception {
+        assertMemoryLeak(() -> {
+            compiler.compile("create table x (k symbol, v double, ts timestamp) timestamp(ts) partition by DAY", sqlExecutionContext);
+            executeInsert("insert into x values " +
+                    "('a', 1.0, '2022-03-01T00:00:00.000000Z'), " +
+                    "('b', 10.0, '2022-03-01T00:00:00.000000Z'), " +
+                    "('a', 2.0, '2022-03-01T01:00:00.000000Z'), " +
+                    "('a', 4.0, '2022-03-01T03:00:00.000000Z'), " +
+                    "('b', 40.0, '2022-03-01T03:00:00.000000Z'), " +
+                    "('c', 7.0, '2022-03-01T04:00:00.000000Z')"
+            );
+        });
+
+        // "b" is interpolated across two samples, "c" has a single point and cannot be
+        // interpolated, "a" and "b" are extrapolated into the last sample
+        assertQuery("ts\tk\tsum\n" +
+                        "2022-03-01T00:00:00.000000Z\ta\t1.0\n" +
+                        "2022-03-01T00:00:00.000000Z\tb\t10.0\n" +
+                        "2022-03-01T00:00:00.000000Z\tc\tNaN\n" +
+                        "2022-03-01T01:00:00.000000Z\ta\t2.0\n" +
+                        "2022-03-01T01:00:00.000000Z\tb\t20.0\n" +
+                        "2022-03-01T01:00:00.000000Z\tc\tNaN\n" +
+                        "2022-03-01T02:00:00.000000Z\ta\t3.0\n" +
+                        "2022-03-01T02:00:00.000000Z\tb\t30.0\n" +
+                        "2022-03-01T02:00:00.000000Z\tc\tNaN\n" +
+                        "2022-03-01T03:00:00.000000Z\ta\t4.0\n" +
+                        "2022-03-01T03:00:00.000000Z\tb\t40.0\n" +
+                        "2022-03-01T03:00:00.000000Z\tc\tNaN\n" +
+                        "2022-03-01T04:00:00.000000Z\tc\t7.0\n" +
+                        "2022-03-01T04:00:00.000000Z\ta\t5.0\n" +
+                        "2022-03-01T04:00:00.000000Z\tb\t50.0\n",
+                "select ts, k, sum(v) from x sample by 1h fill(linear)",
+                null,
+                "ts",
+                false,
+                true,
+                true
+        );
+    }
+
+    @Test
+    public void testSampleFillNextKeyed() throws Exception {
+        assertMemoryLeak(() -> {
+            compiler.compile("create table x (k symbol, v double, i int, ts timestamp) timestamp(ts) partition by DAY", sqlExecutionContext);
+            executeInsert("insert into x values " +
+                    "('a', 1.0, 1, '2022-03-01T00:00:00.000000Z'), " +
+                    "('b', 10.0, 10, '2022-03-01T00:00:00.000000Z'), " +
+                    "('a', 2.0, 2, '2022-03-01T01:00:00.000000Z'), " +
+                    "('a', 4.0, 4, '2022-03-01T03:00:00.000000Z'), " +
+                    "('b', 40.0, 40, '2022-03-01T03:00:00.000000Z'), " +
+                    "('c', 7.0, 7, '2022-03-01T04:00:00.000000Z')"
+            );
+        });
+
+        // gaps take values of the next data point of the key, gaps after the last one are NULL
+        assertQuery("ts\tk\tsum\tmax\n" +
+                        "2022-03-01T00:00:00.000000Z\ta\t1.0\t1\n" +
+                        "2022-03-01T00:00:00.000000Z\tb\t10.0\t10\n" +
+                        "2022-03-01T00:00:00.000000Z\tc\t7.0\t7\n" +
+                        "2022-03-01T01:00:00.000000Z\ta\t2.0\t2\n" +
+                        "2022-03-01T01:00:00.000000Z\tb\t40.0\t40\n" +
+                        "2022-03-01T01:00:00.000000Z\tc\t7.0\t7\n" +
+                        "2022-03-01T02:00:00.000000Z\ta\t4.0\t4\n" +
+                        "2022-03-01T02:00:00.000000Z\tb\t40.0\t40\n" +
+                        "2022-03-01T02:00:00.000000Z\tc\t7.0\t7\n" +
+                        "2022-03-01T03:00:00.000000Z\ta\t4.0\t4\n" +
+                        "2022-03-01T03:00:00.000000Z\tb\t40.0\t40\n" +
+                        "2022-03-01T03:00:00.000000Z\tc\t7.0\t7\n" +
+                        "2022-03-01T04:00:00.000000Z\tc\t7.0\t7\n" +
+                        "2022-03-01T04:00:00.000000Z\ta\tNaN\tNaN\n" +
+                        "2022-03-01T04:00:00.000000Z\tb\tNaN\tNaN\n",
+                "select ts, k, sum(v), max(i) from x sample by 1h fill(next)",
+                null,
+                "ts",
+                false,
+                true,
+                true
+        );
+    }
+
+    @Test
+    public void testSampleFillNextNotKeyed() throws Exception {
+        assertMemoryLeak(() -> {
+            compiler.compile("create table x (v long, ts timestamp) timestamp(ts) partition by DAY", sqlExecutionContext);
+            executeInsert("insert into x values " +
+                    "(1, '2022-03-01T00:00:00.000000Z'), " +
+                    "(10, '2022-03-01T00:30:00.000000Z'), " +
+                    "(4, '2022-03-01T03:00:00.000000Z'), " +
+                    "(7, '2022-03-01T05:00:00.000000Z')"
+            );
+        });
+
+        assertQuery("ts\tsum\n" +
+                        "2022-03-01T00:00:00.000000Z\t11\n" +
+                        "2022-03-01T01:00:00.000000Z\t4\n" +
+                        "2022-03-01T02:00:00.000000Z\t4\n" +
+                        "2022-03-01T03:00:00.000000Z\t4\n" +
+                        "2022-03-01T04:00:00.000000Z\t7\n" +
+                        "2022-03-01T05:00:00.000000Z\t7\n",
+                "select ts, sum(v) from x sample by 1h fill(next)",
+                null,
+                "ts",
+                false,
+                true,
+                true
+        );
+    }
+
+    @Test
+    public void testSampleFillNextUnordered() throws Exception {
+        assertFailure(
+                "select b, sum(a), k from (x union all x) timestamp(k) sample by 3h fill(next)",
+                "create table x as " +
+                        "(" +
+                        "select" +
+                        " rnd_double(0)*100 a," +
+                        " rnd_symbol(5,4,4,1) b," +
+                        " timestamp_sequence(172800000000, 3600000000) k" +
+                        " from" +
+                        " long_sequence(20)" +
+                        ") timestamp(k) partition by NONE",
+                72,
+                "fill(next) requires base query ordered by designated timestamp"
+        );
+    }
+
     @Test
     public void testSampleFillNone() throws Exception {
         assertQuery("b\tsum\tk\n" +
@@ -9317,6 +9456,11 @@ public class SampleByTest extends AbstractGriffinTest {
         );
     }
 
+    private void assertRowsIgnoreOrder(String expected, String query) throws SqlException {
+        TestUtils.printSql(compiler, sqlExecutionContext, query, sink);
+        TestUtils.assertEquals(sortRows(expected), sortRows(sink.toString()));
+    }
+
     private void assertSampleByIndexQuery(String expected, String query, String insert) throws Exception {
         assertSampleByIndexQuery(expected, query, insert, false);
     }
@@ -9406,4 +9550,10 @@ public class SampleByTest extends AbstractGriffinTest {
             }
         });
     }
+
+    private static String sortRows(String text) {
+        final String[] lines = text.split("\n");
+        Arrays.sort(lines, 1, lines.length);
+        return String.join("\n", lines) + '\n';
+    }
 }
@@ -0,0 +1,122 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.groupby.vect;
+
+import io.questdb.std.*;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class ScalarAggregatesTest {
+
+    private static final Rnd rnd = new Rnd();
+
+    @Before
+    public void setUp() {
+        rnd.reset();
+    }
+
+    @Test
+    public void testAggregateFloat() {
+        final int size = 1027;
+        long buffer = Unsafe.malloc(size * (long) Float.BYTES, MemoryTag.NATIVE_DEFAULT);
+        long pCount = Unsafe.malloc(Long.BYTES, MemoryTag.NATIVE_DEFAULT);
+        try {
+            Vect.setMemoryFloat(buffer, Float.NaN, size);
+            Assert.assertTrue(Double.isNaN(ScalarAggregates.sumFloat(buffer, size)));
+            Assert.assertTrue(Float.isNaN(ScalarAggregates.minFloat(buffer, size)));
+            Assert.assertTrue(Float.isNaN(ScalarAggregates.maxFloat(buffer, size)));
+            Assert.assertTrue(Double.isNaN(ScalarAggregates.avgFloatAcc(buffer, size, pCount)));
+            Assert.assertEquals(0, Unsafe.getUnsafe().getLong(pCount));
+
+            double sum = 0;
+            float min = Float.POSITIVE_INFINITY;
+            float max = Float.NEGATIVE_INFINITY;
+            long count = 0;
+            for (int i = 0; i < size; i++) {
+                float value = i % 3 == 0 ? Float.NaN : rnd.nextFloat() - 0.5f;
+                Unsafe.getUnsafe().putFloat(buffer + (long) i * Float.BYTES, value);
+                if (value == value) {
+                    sum += value;
+                    min = Math.min(min, value);
+                    max = Math.max(max, value);
+                    count++;
+                }
+            }
+            Assert.assertEquals(sum, ScalarAggregates.sumFloat(buffer, size), 1E-9);
+            Assert.assertEquals(min, ScalarAggregates.minFloat(buffer, size), 0);
+            Assert.assertEquals(max, ScalarAggregates.maxFloat(buffer, size), 0);
+            Assert.assertEquals(sum / count, ScalarAggregates.avgFloatAcc(buffer, size, pCount), 1E-9);
+            Assert.assertEquals(count, Unsafe.getUnsafe().getLong(pCount));
+        } finally {
+            Unsafe.free(buffer, size * (long) Float.BYTES, MemoryTag.NATIVE_DEFAULT);
+            Unsafe.free(pCount, Long.BYTES, MemoryTag.NATIVE_DEFAULT);
+        }
+    }
+
+    @Test
+    public void testAggregateShortAndByte() {
+        final int size = 1027;
+        long shorts = Unsafe.malloc(size * (long) Short.BYTES, MemoryTag.NATIVE_DEFAULT);
+        long bytes = Unsafe.malloc(size, MemoryTag.NATIVE_DEFAULT);
+        long ints = Unsafe.malloc(size * (long) Integer.BYTES, MemoryTag.NATIVE_DEFAULT);
+        try {
+            Assert.assertEquals(Numbers.INT_NaN, ScalarAggregates.minShort(shorts, 0));
+            Assert.assertEquals(Numbers.INT_NaN, ScalarAggregates.maxByte(bytes, 0));
+
+            long shortSum = 0;
+            long byteSum = 0;
+            int shortMin = Integer.MAX_VALUE;
+            int byteMax = Integer.MIN_VALUE;
+            for (int i = 0; i < size; i++) {
+                short s = rnd.nextShort();
+                byte b = (byte) rnd.nextInt();
+                Unsafe.getUnsafe().putShort(shorts + (long) i * Short.BYTES, s);
+                Unsafe.getUnsafe().putByte(bytes + i, b);
+                shortSum += s;
+                byteSum += b;
+                shortMin = Math.min(shortMin, s);
+                byteMax = Math.max(byteMax, b);
+            }
+            Assert.assertEquals(shortSum, ScalarAggregates.sumShort(shorts, size));
+            Assert.assertEquals(byteSum, ScalarAggregates.sumByte(bytes, size));
+            Assert.assertEquals(shortMin, ScalarAggregates.minShort(shorts, size));
+            Assert.assertEquals(byteMax, ScalarAggregates.maxByte(bytes, size));
+
+            KeyValueWidener.widenShortToInt(shorts, size, ints);
+            Assert.assertEquals(shortSum, Vect.sumInt(ints, size));
+            KeyValueWidener.widenByteToInt(bytes, size, ints);
+            Assert.assertEquals(byteSum, Vect.sumInt(ints, size));
+        } finally {
+            Unsafe.free(shorts, size * (long) Short.BYTES, MemoryTag.NATIVE_DEFAULT);
+            Unsafe.free(bytes, size, MemoryTag.NATIVE_DEFAULT);
+            Unsafe.free(ints, size * (long) Integer.BYTES, MemoryTag.NATIVE_DEFAULT);
+        }
+    }
+
+    static {
+        Os.init();
+    }
+}
@@ -120,6 +120,26 @@ public class AsyncFilteredRecordCursorFactoryTest extends AbstractGriffinTest {
         withPool((engine, compiler, sqlExecutionContext) -> testDeferredSymbolInFilter0(compiler, sqlExecutionContext));
     }
 
+    @Test
+    public void testDeferredSymbolInFilter2LowPriority() throws Exception {
+        withPool((engine, compiler, sqlExecutionContext) -> testDeferredSymbolInFilter0(compiler, new DelegatingSqlExecutionContext() {
+            @Override
+            public int getWorkerCount() {
+                return sqlExecutionContext.getWorkerCount();
+            }
+
+            @Override
+            public int getSharedWorkerCount() {
+                return sqlExecutionContext.getSharedWorkerCount();
+            }
+
+            @Override
+            public int getQueryPriority() {
+                return SqlQueryPriority.PRIORITY_LOW;
+            }
+        }));
+    }
+
     @Test
     public void testDeferredSymbolInFilter2TwoPools() throws Exception {
         withDoublePool((engine, compiler, sqlExecutionContext) -> testDeferredSymbolInFilter0(compiler, sqlExecutionContext));
@@ -0,0 +1,240 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.griffin.engine.table;
+
+import io.questdb.cairo.CairoConfiguration;
+import io.questdb.cairo.CairoEngine;
+import io.questdb.cairo.DefaultCairoConfiguration;
+import io.questdb.cairo.security.AllowAllCairoSecurityContext;
+import io.questdb.cairo.sql.OperationFuture;
+import io.questdb.cairo.sql.RecordCursor;
+import io.questdb.cairo.sql.RecordCursorFactory;
+import io.questdb.griffin.*;
+import io.questdb.griffin.engine.ops.OperationDispatcher;
+import io.questdb.griffin.engine.ops.UpdateOperation;
+import io.questdb.std.Rnd;
+import io.questdb.test.tools.TestUtils;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class HotCacheRecordCursorFactoryTest extends AbstractGriffinTest {
+
+    private static final String DDL = "create table x (ts timestamp, s symbol, v long) timestamp(ts) partition by day";
+    // table writer of "create table as select" is not pooled, hence does not populate the cache
+    private static final String INSERT = "insert into x select" +
+            " timestamp_sequence('2022-01-01', 3600000000) ts," +
+            " rnd_symbol('a','b',null) s," +
+            " x v" +
+            " from long_sequence(30)";
+
+    @Test
+    public void testColumnNotCached() throws Exception {
+        assertHotCache((engine, compiler, context) -> {
+            compiler.compile(DDL, context);
+            compiler.compile(INSERT, context);
+            compiler.compile("alter table x add column str string", context).execute(null).await();
+            TestUtils.insert(compiler, context, "insert into x values ('2022-01-02T06:00', 'a', 31, 'abc')");
+            TestUtils.insert(compiler, context, "insert into x values ('2022-01-02T07:00', 'b', 32, 'def')");
+
+            assertHotQuery(
+                    compiler,
+                    context,
+                    "select ts, v from x where ts > '2022-01-02T06'",
+                    "ts\tv\n" +
+                            "2022-01-02T07:00:00.000000Z\t32\n",
+                    true
+            );
+            assertHotQuery(
+                    compiler,
+                    context,
+                    "select ts, str from x where ts > '2022-01-02T06'",
+                    "ts\tstr\n" +
+                            "2022-01-02T07:00:00.000000Z\tdef\n",
+                    false
+            );
+        });
+    }
+
+    @Test
+    public void testIntervalServedFromCache() throws Exception {
+        assertHotCache((engine, compiler, context) -> {
+            compiler.compile(DDL, context);
+            compiler.compile(INSERT, context);
+            Assert.assertEquals(10, engine.getHotTableCache("x").getRowCount());
+
+            assertHotQuery(
+                    compiler,
+                    context,
+                    "select * from x where ts > '2022-01-02T01'",
+                    "ts\ts\tv\n" +
+                            "2022-01-02T02:00:00.000000Z\t\t27\n" +
+                            "2022-01-02T03:00:00.000000Z\tb\t28\n" +
+                            "2022-01-02T04:00:00.000000Z\tb\t29\n" +
+                            "2022-01-02T05:00:00.000000Z\ta\t30\n",
+                    true
+            );
+            assertHotQuery(
+                    compiler,
+                    context,
+                    "select * from x where ts in '2022-01-02T03'",
+                    "ts\ts\tv\n" +
+                            "2022-01-02T03:00:00.000000Z\tb\t28\n",
+                    true
+            );
+            // interval reaches past the oldest cached row
+            assertHotQuery(
+                    compiler,
+                    context,
+                    "select count() from x where ts > '2022-01-01T12'",
+                    "count\n" +
+                            "17\n",
+                    false
+            );
+        });
+    }
+
+    @Test
+    public void testOutOfOrderInsertClearsCache() throws Exception {
+        assertHotCache((engine, compiler, context) -> {
+            compiler.compile(DDL, context);
+            compiler.compile(INSERT, context);
+            TestUtils.insert(compiler, context, "insert into x values ('2022-01-02T04:30', 'c', 100)");
+            Assert.assertEquals(0, engine.getHotTableCache("x").getRowCount());
+
+            assertHotQuery(
+                    compiler,
+                    context,
+                    "select * from x where ts > '2022-01-02T04'",
+                    "ts\ts\tv\n" +
+                            "2022-01-02T04:30:00.000000Z\tc\t100\n" +
+                            "2022-01-02T05:00:00.000000Z\ta\t30\n",
+                    false
+            );
+
+            TestUtils.insert(compiler, context, "insert into x values ('2022-01-02T06:00', 'c', 101)");
+            TestUtils.insert(compiler, context, "insert into x values ('2022-01-02T07:00', 'd', 102)");
+            assertHotQuery(
+                    compiler,
+                    context,
+                    "select * from x where ts > '2022-01-02T06'",
+                    "ts\ts\tv\n" +
+                            "2022-01-02T07:00:00.000000Z\td\t102\n",
+                    true
+            );
+        });
+    }
+
+    @Test
+    public void testTruncateClearsCache() throws Exception {
+        assertHotCache((engine, compiler, context) -> {
+            compiler.compile(DDL, context);
+            compiler.compile(INSERT, context);
+            compiler.compile("truncate table x", context);
+            Assert.assertEquals(0, engine.getHotTableCache("x").getRowCount());
+
+            assertHotQuery(
+                    compiler,
+                    context,
+                    "select * from x where ts > '2022-01-02T01'",
+                    "ts\ts\tv\n",
+                    false
+            );
+        });
+    }
+
+    @Test
+    public void testUpdateClearsCache() throws Exception {
+        assertHotCache((engine, compiler, context) -> {
+            compiler.compile(DDL, context);
+            compiler.compile(INSERT, context);
+            final CompiledQuery cq = compiler.compile("update x set v = 0 where ts > '2022-01-02T04'", context);
+            final OperationDispatcher<UpdateOperation> dispatcher = cq.getDispatcher();
+            try (
+                    UpdateOperation operation = cq.getUpdateOperation();
+                    OperationFuture future = dispatcher.execute(operation, context, eventSubSequence)
+            ) {
+                future.await();
+            }
+            Assert.assertEquals(0, engine.getHotTableCache("x").getRowCount());
+
+            assertHotQuery(
+                    compiler,
+                    context,
+                    "select * from x where ts > '2022-01-02T03'",
+                    "ts\ts\tv\n" +
+                            "2022-01-02T04:00:00.000000Z\tb\t29\n" +
+                            "2022-01-02T05:00:00.000000Z\ta\t0\n",
+                    false
+            );
+        });
+    }
+
+    private static void assertHotCache(HotCacheCode code) throws Exception {
+        assertMemoryLeak(() -> {
+            final CairoConfiguration configuration = new DefaultCairoConfiguration(root) {
+                @Override
+                public long getHotCacheRowCount() {
+                    return 10;
+                }
+
+                @Override
+                public int getSqlPageFrameMaxRows() {
+                    return 4;
+                }
+            };
+            try (
+                    CairoEngine engine = new CairoEngine(configuration);
+                    SqlCompiler compiler = new SqlCompiler(engine)
+            ) {
+                final SqlExecutionContextImpl context = new SqlExecutionContextImpl(engine, 1);
+                context.with(AllowAllCairoSecurityContext.INSTANCE, null, null, -1, null);
+                context.setRandom(new Rnd());
+                code.run(engine, compiler, context);
+            }
+        });
+    }
+
+    private static void assertHotQuery(
+            SqlCompiler compiler,
+            SqlExecutionContext context,
+            String query,
+            String expected,
+            boolean expectHotCache
+    ) throws SqlException {
+        try (
+                RecordCursorFactory factory = compiler.compile(query, context).getRecordCursorFactory();
+                RecordCursor cursor = factory.getCursor(context)
+        ) {
+            Assert.assertEquals(expectHotCache, cursor instanceof HotCacheRecordCursor);
+        }
+        TestUtils.assertSql(compiler, context, query, sink, expected);
+    }
+
+    @FunctionalInterface
+    private interface HotCacheCode {
+        void run(CairoEngine engine, SqlCompiler compiler, SqlExecutionContext context) throws Exception;
+    }
+}
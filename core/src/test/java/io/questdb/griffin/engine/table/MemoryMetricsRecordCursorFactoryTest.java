@@ -30,6 +30,7 @@ import io.questdb.cairo.sql.RecordCursor;
 import io.questdb.cairo.sql.RecordMetadata;
 import io.questdb.griffin.AbstractGriffinTest;
 import io.questdb.std.MemoryTag;
+import io.questdb.std.QueryMemoryAccount;
 import io.questdb.std.Unsafe;
 import org.junit.Test;
 
@@ -63,6 +64,8 @@ public class MemoryMetricsRecordCursorFactoryTest extends AbstractGriffinTest {
         for (int i = 0; i < MemoryTag.SIZE; i++) {
             sb.append(MemoryTag.nameOf(i)).append('\t').append(Unsafe.getMemUsedByTag(i)).append('\n');
         }
+        sb.append("QUERY_POOL_USED").append('\t').append(QueryMemoryAccount.getPoolUsed()).append('\n');
+        sb.append("QUERY_POOL_SIZE").append('\t').append(QueryMemoryAccount.getPoolSize()).append('\n');
         return sb.toString();
     }
 
@@ -77,6 +80,12 @@ public class MemoryMetricsRecordCursorFactoryTest extends AbstractGriffinTest {
             assertEquals(MemoryTag.nameOf(i), record.getStr(0));
             assertEquals(Unsafe.getMemUsedByTag(i), record.getLong(1));
         }
+        assertTrue(cursor.hasNext());
+        assertEquals("QUERY_POOL_USED", record.getStr(0));
+        assertEquals(QueryMemoryAccount.getPoolUsed(), record.getLong(1));
+        assertTrue(cursor.hasNext());
+        assertEquals("QUERY_POOL_SIZE", record.getStr(0));
+        assertEquals(QueryMemoryAccount.getPoolSize(), record.getLong(1));
         assertFalse(cursor.hasNext());
     }
 
@@ -0,0 +1,54 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.log;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class LogRateLimiterTest {
+
+    @Test
+    public void testLimitAndSuppressedCount() {
+        final long[] now = {1_000};
+        final LogRateLimiter limiter = new LogRateLimiter(() -> now[0], 2, 100);
+
+        Assert.assertTrue(limiter.tryAcquire());
+        Assert.assertEquals(0, limiter.getSuppressed());
+        Assert.assertTrue(limiter.tryAcquire());
+        for (int i = 0; i < 5; i++) {
+            Assert.assertFalse(limiter.tryAcquire());
+        }
+
+        now[0] += 99;
+        Assert.assertFalse(limiter.tryAcquire());
+
+        now[0] += 1;
+        Assert.assertTrue(limiter.tryAcquire());
+        Assert.assertEquals(6, limiter.getSuppressed());
+        Assert.assertTrue(limiter.tryAcquire());
+        Assert.assertEquals(0, limiter.getSuppressed());
+        Assert.assertFalse(limiter.tryAcquire());
+    }
+}
@@ -0,0 +1,312 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.std;
+
+import io.questdb.cairo.CairoException;
+import io.questdb.test.tools.TestUtils;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class QueryMemoryAccountTest {
+
+    @After
+    public void tearDown() {
+        QueryMemoryAccount.deactivate();
+        QueryMemoryAccount.setPoolSize(0);
+    }
+
+    @Test
+    public void testAllocationOverLimitFails() throws Exception {
+        TestUtils.assertMemoryLeak(() -> {
+            final QueryMemoryAccount account = new QueryMemoryAccount();
+            Assert.assertTrue(account.admit(1024));
+            account.activate();
+            long p1 = Unsafe.malloc(512, MemoryTag.NATIVE_FAST_MAP);
+            long p2 = 0;
+            try {
+                p2 = Unsafe.realloc(p1, 512, 1024, MemoryTag.NATIVE_FAST_MAP);
+                Assert.assertEquals(1024, account.getUsed());
+                try {
+                    Unsafe.malloc(8, MemoryTag.NATIVE_RECORD_CHAIN);
+                    Assert.fail();
+                } catch (CairoException e) {
+                    TestUtils.assertContains(e.getFlyweightMessage(), "query memory limit exceeded [limit=1024, used=1024, requested=8]");
+                }
+                Assert.assertEquals(1024, account.getUsed());
+            } finally {
+                Unsafe.free(p2, 1024, MemoryTag.NATIVE_FAST_MAP);
+            }
+            Assert.assertEquals(0, account.getUsed());
+            account.release();
+        });
+    }
+
+    @Test
+    public void testAdmitWithoutLimitsDoesNotTrack() throws Exception {
+        TestUtils.assertMemoryLeak(() -> {
+            final QueryMemoryAccount account = new QueryMemoryAccount();
+            Assert.assertTrue(account.admit(0));
+            Assert.assertFalse(account.isAdmitted());
+            account.activate();
+            long p = Unsafe.malloc(1024, MemoryTag.NATIVE_FAST_MAP);
+            Unsafe.free(p, 1024, MemoryTag.NATIVE_FAST_MAP);
+            Assert.assertEquals(0, account.getUsed());
+            Assert.assertEquals(0, QueryMemoryAccount.getPoolUsed());
+            account.release();
+        });
+    }
+
+    @Test
+    public void testFreeCreditsOwner() throws Exception {
+        TestUtils.assertMemoryLeak(() -> {
+            final QueryMemoryAccount account1 = new QueryMemoryAccount();
+            final QueryMemoryAccount account2 = new QueryMemoryAccount();
+            Assert.assertTrue(account1.admit(4096));
+            Assert.assertTrue(account2.admit(4096));
+
+            account1.activate();
+            long p = Unsafe.malloc(1024, MemoryTag.NATIVE_FAST_MAP);
+            account2.activate();
+            long p2 = Unsafe.malloc(512, MemoryTag.NATIVE_FAST_MAP);
+            p = Unsafe.realloc(p, 1024, 2048, MemoryTag.NATIVE_FAST_MAP);
+            Assert.assertEquals(2048, account1.getUsed());
+            Assert.assertEquals(512, account2.getUsed());
+            Assert.assertEquals(2560, QueryMemoryAccount.getPoolUsed());
+
+            Unsafe.free(p, 2048, MemoryTag.NATIVE_FAST_MAP);
+            Assert.assertEquals(0, account1.getUsed());
+            Assert.assertEquals(512, account2.getUsed());
+            Assert.assertEquals(512, QueryMemoryAccount.getPoolUsed());
+
+            Unsafe.free(p2, 512, MemoryTag.NATIVE_FAST_MAP);
+            Assert.assertEquals(0, account2.getUsed());
+            Assert.assertEquals(0, QueryMemoryAccount.getPoolUsed());
+            account1.release();
+            account2.release();
+        });
+    }
+
+    @Test
+    public void testGrowthOverPoolFails() throws Exception {
+        TestUtils.assertMemoryLeak(() -> {
+            QueryMemoryAccount.setPoolSize(1024);
+            final QueryMemoryAccount account = new QueryMemoryAccount();
+            Assert.assertTrue(account.admit(0));
+            account.activate();
+            long p = Unsafe.malloc(512, MemoryTag.NATIVE_FAST_MAP);
+            try {
+                try {
+                    Unsafe.realloc(p, 512, 2048, MemoryTag.NATIVE_FAST_MAP);
+                    Assert.fail();
+                } catch (CairoException e) {
+                    TestUtils.assertContains(e.getFlyweightMessage(), "query memory pool is exhausted [used=512, size=1024, requested=1536]");
+                }
+                Assert.assertTrue(account.isLimitExceeded());
+                Assert.assertEquals(512, account.getUsed());
+                Assert.assertEquals(512, QueryMemoryAccount.getPoolUsed());
+            } finally {
+                Unsafe.free(p, 512, MemoryTag.NATIVE_FAST_MAP);
+            }
+            Assert.assertEquals(0, QueryMemoryAccount.getPoolUsed());
+            account.release();
+        });
+    }
+
+    @Test
+    public void testInactiveAccountIsNotCharged() throws Exception {
+        TestUtils.assertMemoryLeak(() -> {
+            final QueryMemoryAccount account = new QueryMemoryAccount();
+            Assert.assertTrue(account.admit(16));
+            long p = Unsafe.malloc(1024, MemoryTag.NATIVE_FAST_MAP);
+            Unsafe.free(p, 1024, MemoryTag.NATIVE_FAST_MAP);
+            Assert.assertEquals(0, account.getUsed());
+
+            // only query tags are charged
+            account.activate();
+            p = Unsafe.malloc(1024, MemoryTag.NATIVE_DEFAULT);
+            Unsafe.free(p, 1024, MemoryTag.NATIVE_DEFAULT);
+            Assert.assertEquals(0, account.getUsed());
+            account.release();
+        });
+    }
+
+    @Test
+    public void testPoolAdmission() throws Exception {
+        TestUtils.assertMemoryLeak(() -> {
+            QueryMemoryAccount.setPoolSize(1024);
+            final QueryMemoryAccount account1 = new QueryMemoryAccount();
+            final QueryMemoryAccount account2 = new QueryMemoryAccount();
+            final long queued = QueryMemoryAccount.getQueuedCount();
+
+            Assert.assertTrue(account1.admit(0));
+            account1.activate();
+            long p = Unsafe.malloc(1024, MemoryTag.NATIVE_TREE_CHAIN);
+            QueryMemoryAccount.deactivate();
+            Assert.assertEquals(1024, QueryMemoryAccount.getPoolUsed());
+
+            Assert.assertFalse(account2.admit(0));
+            Assert.assertEquals(queued + 1, QueryMemoryAccount.getQueuedCount());
+            // account that is already admitted stays admitted
+            Assert.assertTrue(account1.admit(0));
+
+            // memory freed outside the query is credited to the account that allocated it
+            Unsafe.free(p, 1024, MemoryTag.NATIVE_TREE_CHAIN);
+            Assert.assertEquals(0, account1.getUsed());
+            Assert.assertEquals(0, QueryMemoryAccount.getPoolUsed());
+            account1.release();
+            Assert.assertEquals(0, QueryMemoryAccount.getPoolUsed());
+
+            Assert.assertTrue(account2.admit(0));
+            account2.release();
+        });
+    }
+
+    @Test
+    public void testReallocTakesOverReleasedMemory() throws Exception {
+        TestUtils.assertMemoryLeak(() -> {
+            final QueryMemoryAccount account1 = new QueryMemoryAccount();
+            final QueryMemoryAccount account2 = new QueryMemoryAccount();
+            Assert.assertTrue(account1.admit(4096));
+            account1.activate();
+            long p = Unsafe.malloc(1024, MemoryTag.NATIVE_RECORD_CHAIN);
+
+            // memory kept after release, e.g. by cached factory, is returned to the pool
+            account1.release();
+            Assert.assertEquals(0, QueryMemoryAccount.getPoolUsed());
+
+            Assert.assertTrue(account2.admit(4096));
+            account2.activate();
+            p = Unsafe.realloc(p, 1024, 3072, MemoryTag.NATIVE_RECORD_CHAIN);
+            Assert.assertEquals(0, account1.getUsed());
+            Assert.assertEquals(3072, account2.getUsed());
+            Assert.assertEquals(3072, QueryMemoryAccount.getPoolUsed());
+
+            QueryMemoryAccount.deactivate();
+            Unsafe.free(p, 3072, MemoryTag.NATIVE_RECORD_CHAIN);
+            Assert.assertEquals(0, account2.getUsed());
+            Assert.assertEquals(0, QueryMemoryAccount.getPoolUsed());
+            account2.release();
+        });
+    }
+
+    @Test
+    public void testResizeOverLimitIsFlagged() throws Exception {
+        TestUtils.assertMemoryLeak(() -> {
+            final QueryMemoryAccount account = new QueryMemoryAccount();
+            Assert.assertTrue(account.admit(1024));
+            account.activate();
+            // memory resized by native code is charged even when it takes the query over its limit
+            final long address = 0x1000;
+            QueryMemoryAccount.chargeResize(address, 0, 512);
+            Assert.assertFalse(account.isLimitExceeded());
+            account.checkLimit();
+            QueryMemoryAccount.chargeResize(address, 512, 2048);
+            Assert.assertEquals(2048, account.getUsed());
+            Assert.assertTrue(account.isLimitExceeded());
+            try {
+                account.checkLimit();
+                Assert.fail();
+            } catch (CairoException e) {
+                TestUtils.assertContains(e.getFlyweightMessage(), "query memory limit exceeded [limit=1024, used=2048");
+            }
+            QueryMemoryAccount.deactivate();
+            QueryMemoryAccount.credit(address);
+            Assert.assertEquals(0, account.getUsed());
+            Assert.assertEquals(0, QueryMemoryAccount.getPoolUsed());
+            account.release();
+        });
+    }
+
+    @Test
+    public void testReleasedAccountIsNotCharged() throws Exception {
+        TestUtils.assertMemoryLeak(() -> {
+            final QueryMemoryAccount account = new QueryMemoryAccount();
+            Assert.assertTrue(account.admit(16));
+            account.activate();
+            account.release();
+            long p = Unsafe.malloc(1024, MemoryTag.NATIVE_FAST_MAP);
+            Unsafe.free(p, 1024, MemoryTag.NATIVE_FAST_MAP);
+            Assert.assertFalse(account.isAdmitted());
+            Assert.assertEquals(0, QueryMemoryAccount.getPoolUsed());
+        });
+    }
+
+    @Test
+    public void testWorkerThreadChargesSwappedAccount() throws Exception {
+        TestUtils.assertMemoryLeak(() -> {
+            final QueryMemoryAccount account = new QueryMemoryAccount();
+            Assert.assertTrue(account.admit(4096));
+            final long[] address = new long[1];
+            final Thread worker = new Thread(() -> {
+                final QueryMemoryAccount previous = QueryMemoryAccount.swap(account);
+                try {
+                    address[0] = Unsafe.malloc(1024, MemoryTag.NATIVE_OFFLOAD);
+                } finally {
+                    QueryMemoryAccount.swap(previous);
+                }
+            });
+            worker.start();
+            worker.join();
+            Assert.assertEquals(1024, account.getUsed());
+            Assert.assertEquals(1024, QueryMemoryAccount.getPoolUsed());
+
+            // memory is credited to the owner on the thread that frees it
+            Unsafe.free(address[0], 1024, MemoryTag.NATIVE_OFFLOAD);
+            Assert.assertEquals(0, account.getUsed());
+            Assert.assertEquals(0, QueryMemoryAccount.getPoolUsed());
+            account.release();
+        });
+    }
+
+    @Test
+    public void testReleaseUntracksOnlyOwnAllocations() throws Exception {
+        TestUtils.assertMemoryLeak(() -> {
+            final QueryMemoryAccount account1 = new QueryMemoryAccount();
+            final QueryMemoryAccount account2 = new QueryMemoryAccount();
+            Assert.assertTrue(account1.admit(4096));
+            Assert.assertTrue(account2.admit(4096));
+            account1.activate();
+            long p1 = Unsafe.malloc(256, MemoryTag.NATIVE_RECORD_CHAIN);
+            account2.activate();
+            long p2 = Unsafe.malloc(512, MemoryTag.NATIVE_RECORD_CHAIN);
+            QueryMemoryAccount.deactivate();
+
+            account1.release();
+            Assert.assertEquals(512, QueryMemoryAccount.getPoolUsed());
+
+            // released memory is no longer credited
+            Unsafe.free(p1, 256, MemoryTag.NATIVE_RECORD_CHAIN);
+            Assert.assertEquals(512, account2.getUsed());
+            Assert.assertEquals(512, QueryMemoryAccount.getPoolUsed());
+
+            Unsafe.free(p2, 512, MemoryTag.NATIVE_RECORD_CHAIN);
+            Assert.assertEquals(0, account2.getUsed());
+            Assert.assertEquals(0, QueryMemoryAccount.getPoolUsed());
+            account2.release();
+        });
+    }
+}